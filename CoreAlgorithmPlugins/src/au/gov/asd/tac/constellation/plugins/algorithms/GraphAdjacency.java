@@ -0,0 +1,323 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms;
+
+import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable compressed sparse row view of the adjacency of a graph.
+ * <p>
+ * Vertices are numbered by dense positions from 0 to
+ * {@link #getVertexCount()}, and the neighbours of the vertex at position
+ * {@code p} are the entries from {@code getOffsets()[p]} (inclusive) to
+ * {@code getOffsets()[p + 1]} (exclusive) of {@link #getNeighbours()}. Every
+ * pair of adjacent vertices appears once in the row of each vertex, and loops
+ * are not included. For each entry, the number of transactions from the
+ * vertex to the neighbour, from the neighbour to the vertex, and undirected
+ * between them, are held in arrays aligned with the neighbours, so algorithms
+ * can pick the direction and weighting they need without going back to the
+ * graph.
+ * <p>
+ * Snapshots of a {@link StoreGraph} are cached by {@link #get get()} against
+ * its {@link StoreGraph#getStructureVersion() structure version}, so
+ * analytics run one after the other share the same snapshot for as long as
+ * the structure of the graph is unchanged. The arrays returned by a snapshot
+ * are shared and must not be modified.
+ *
+ * @author sirius
+ */
+public final class GraphAdjacency {
+
+    private static final int CACHE_SIZE = 4;
+    private static final Map<String, GraphAdjacency> CACHE = new LinkedHashMap<String, GraphAdjacency>(CACHE_SIZE, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, GraphAdjacency> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // The selection attribute this snapshot was built from.
+    private final int selectedAttribute;
+
+    private final int[] vertexIds;
+    private final int[] vertexPositions;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int[] outgoingCounts;
+    private final int[] incomingCounts;
+    private final int[] undirectedCounts;
+
+    private GraphAdjacency(final GraphReadMethods graph, final boolean selectedOnly) {
+        selectedAttribute = selectedOnly ? VisualConcept.VertexAttribute.SELECTED.get(graph) : GraphConstants.NOT_FOUND;
+        final int graphVertexCount = graph.getVertexCount();
+
+        // Number the included vertices densely.
+        vertexPositions = new int[graph.getVertexCapacity()];
+        Arrays.fill(vertexPositions, GraphConstants.NOT_FOUND);
+        int[] ids = new int[graphVertexCount];
+        int vertexCount = 0;
+        for (int position = 0; position < graphVertexCount; position++) {
+            final int vertexId = graph.getVertex(position);
+            if (!selectedOnly || (selectedAttribute != GraphConstants.NOT_FOUND && graph.getBooleanValue(selectedAttribute, vertexId))) {
+                vertexPositions[vertexId] = vertexCount;
+                ids[vertexCount++] = vertexId;
+            }
+        }
+        vertexIds = vertexCount == graphVertexCount ? ids : Arrays.copyOf(ids, vertexCount);
+
+        // Count the entries of each row, then fill them in.
+        offsets = new int[vertexCount + 1];
+        for (int position = 0; position < vertexCount; position++) {
+            final int vertexId = vertexIds[position];
+            final int linkCount = graph.getVertexLinkCount(vertexId);
+            int degree = 0;
+            for (int linkPosition = 0; linkPosition < linkCount; linkPosition++) {
+                final int neighbourId = getNeighbour(graph, vertexId, graph.getVertexLink(vertexId, linkPosition));
+                if (neighbourId != GraphConstants.NOT_FOUND) {
+                    degree++;
+                }
+            }
+            offsets[position + 1] = offsets[position] + degree;
+        }
+
+        final int entryCount = offsets[vertexCount];
+        neighbours = new int[entryCount];
+        outgoingCounts = new int[entryCount];
+        incomingCounts = new int[entryCount];
+        undirectedCounts = new int[entryCount];
+        for (int position = 0; position < vertexCount; position++) {
+            final int vertexId = vertexIds[position];
+            final int linkCount = graph.getVertexLinkCount(vertexId);
+            int entry = offsets[position];
+            for (int linkPosition = 0; linkPosition < linkCount; linkPosition++) {
+                final int linkId = graph.getVertexLink(vertexId, linkPosition);
+                final int neighbourId = getNeighbour(graph, vertexId, linkId);
+                if (neighbourId == GraphConstants.NOT_FOUND) {
+                    continue;
+                }
+
+                neighbours[entry] = vertexPositions[neighbourId];
+                final int edgeCount = graph.getLinkEdgeCount(linkId);
+                for (int edgePosition = 0; edgePosition < edgeCount; edgePosition++) {
+                    final int edgeId = graph.getLinkEdge(linkId, edgePosition);
+                    final int transactionCount = graph.getEdgeTransactionCount(edgeId);
+                    if (graph.getEdgeDirection(edgeId) == GraphConstants.UNDIRECTED) {
+                        undirectedCounts[entry] += transactionCount;
+                    } else if (graph.getEdgeSourceVertex(edgeId) == vertexId) {
+                        outgoingCounts[entry] += transactionCount;
+                    } else {
+                        incomingCounts[entry] += transactionCount;
+                    }
+                }
+                entry++;
+            }
+        }
+    }
+
+    /**
+     * Get the adjacency of a graph, reusing the cached snapshot if the graph
+     * is a {@link StoreGraph} whose structure has not changed since it was
+     * built.
+     *
+     * @param graph The graph.
+     * @param selectedOnly If true, only selected vertices, and the connections
+     * between them, are included.
+     * @return The adjacency of the graph.
+     */
+    public static GraphAdjacency get(final GraphReadMethods graph, final boolean selectedOnly) {
+        if (!(graph instanceof StoreGraph)) {
+            return new GraphAdjacency(graph, selectedOnly);
+        }
+
+        // The version identifies both the graph and the state of its structure.
+        final String key = ((StoreGraph) graph).getStructureVersion() + (selectedOnly ? ":selected" : ":all");
+        synchronized (CACHE) {
+            final GraphAdjacency cached = CACHE.get(key);
+            if (cached != null && cached.isSelectionCurrent(graph, selectedOnly)) {
+                return cached;
+            }
+        }
+
+        final GraphAdjacency adjacency = new GraphAdjacency(graph, selectedOnly);
+        synchronized (CACHE) {
+            CACHE.put(key, adjacency);
+        }
+        return adjacency;
+    }
+
+    private boolean isSelectionCurrent(final GraphReadMethods graph, final boolean selectedOnly) {
+        if (!selectedOnly) {
+            return true;
+        }
+        final int currentSelectedAttribute = VisualConcept.VertexAttribute.SELECTED.get(graph);
+        if (currentSelectedAttribute != selectedAttribute) {
+            return false;
+        }
+        if (selectedAttribute == GraphConstants.NOT_FOUND) {
+            return true;
+        }
+
+        // An undo reverts the value modification counter, so the selection itself is compared.
+        final int graphVertexCount = graph.getVertexCount();
+        for (int position = 0; position < graphVertexCount; position++) {
+            final int vertexId = graph.getVertex(position);
+            if (graph.getBooleanValue(selectedAttribute, vertexId) != (vertexPositions[vertexId] != GraphConstants.NOT_FOUND)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int getNeighbour(final GraphReadMethods graph, final int vertexId, final int linkId) {
+        final int lowId = graph.getLinkLowVertex(linkId);
+        final int highId = graph.getLinkHighVertex(linkId);
+        if (lowId == highId) {
+            return GraphConstants.NOT_FOUND;
+        }
+        final int neighbourId = vertexId == lowId ? highId : lowId;
+        return vertexPositions[neighbourId] == GraphConstants.NOT_FOUND ? GraphConstants.NOT_FOUND : neighbourId;
+    }
+
+    /**
+     * Get the number of vertices in this snapshot.
+     *
+     * @return The number of vertices.
+     */
+    public int getVertexCount() {
+        return vertexIds.length;
+    }
+
+    /**
+     * Get the graph id of the vertex at a position of this snapshot.
+     *
+     * @param position The position of the vertex in this snapshot.
+     * @return The id of the vertex in the graph.
+     */
+    public int getVertexId(final int position) {
+        return vertexIds[position];
+    }
+
+    /**
+     * Get the position in this snapshot of a vertex of the graph.
+     *
+     * @param vertexId The id of the vertex in the graph.
+     * @return The position of the vertex, or {@link GraphConstants#NOT_FOUND}
+     * if the vertex is not in this snapshot.
+     */
+    public int getVertexPosition(final int vertexId) {
+        return vertexId >= 0 && vertexId < vertexPositions.length ? vertexPositions[vertexId] : GraphConstants.NOT_FOUND;
+    }
+
+    /**
+     * Get the number of neighbours of the vertex at a position.
+     *
+     * @param position The position of the vertex.
+     * @return The number of neighbours of the vertex, not counting itself.
+     */
+    public int getDegree(final int position) {
+        return offsets[position + 1] - offsets[position];
+    }
+
+    /**
+     * Get the offsets of the row of each vertex in the entry arrays. The array
+     * has one more element than there are vertices.
+     *
+     * @return The row offsets.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Get the position of the neighbour of each entry.
+     *
+     * @return The neighbour positions.
+     */
+    public int[] getNeighbours() {
+        return neighbours;
+    }
+
+    /**
+     * Get the number of directed transactions from the vertex of each entry to
+     * its neighbour.
+     *
+     * @return The outgoing transaction counts.
+     */
+    public int[] getOutgoingCounts() {
+        return outgoingCounts;
+    }
+
+    /**
+     * Get the number of directed transactions to the vertex of each entry from
+     * its neighbour.
+     *
+     * @return The incoming transaction counts.
+     */
+    public int[] getIncomingCounts() {
+        return incomingCounts;
+    }
+
+    /**
+     * Get the number of undirected transactions between the vertex of each
+     * entry and its neighbour.
+     *
+     * @return The undirected transaction counts.
+     */
+    public int[] getUndirectedCounts() {
+        return undirectedCounts;
+    }
+
+    /**
+     * Get the total number of transactions between the vertex of an entry and
+     * its neighbour, in either direction.
+     *
+     * @param entry The entry.
+     * @return The number of transactions.
+     */
+    public int getWeight(final int entry) {
+        return outgoingCounts[entry] + incomingCounts[entry] + undirectedCounts[entry];
+    }
+
+    /**
+     * Is there a connection from the vertex of an entry to its neighbour?
+     *
+     * @param entry The entry.
+     * @param treatUndirectedBidirectional If true, undirected transactions
+     * connect in both directions.
+     * @return True if the vertex connects to its neighbour.
+     */
+    public boolean isOutgoing(final int entry, final boolean treatUndirectedBidirectional) {
+        return outgoingCounts[entry] > 0 || (treatUndirectedBidirectional && undirectedCounts[entry] > 0);
+    }
+
+    /**
+     * Is there a connection to the vertex of an entry from its neighbour?
+     *
+     * @param entry The entry.
+     * @param treatUndirectedBidirectional If true, undirected transactions
+     * connect in both directions.
+     * @return True if the neighbour connects to the vertex.
+     */
+    public boolean isIncoming(final int entry, final boolean treatUndirectedBidirectional) {
+        return incomingCounts[entry] > 0 || (treatUndirectedBidirectional && undirectedCounts[entry] > 0);
+    }
+}
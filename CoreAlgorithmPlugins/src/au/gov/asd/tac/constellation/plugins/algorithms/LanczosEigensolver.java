@@ -0,0 +1,340 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms;
+
+import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+
+/**
+ * Find the eigenvectors with the largest eigenvalues of a symmetric
+ * {@link SparseMatrix} by thick restarted Lanczos iteration.
+ * <p>
+ * Eigenvectors are found one at a time. For each, a Krylov subspace of up to
+ * {@link #SUBSPACE_SIZE} vectors is built, kept orthogonal to itself, to a
+ * space the caller wants excluded (such as that of the trivial eigenvectors
+ * of a graph) and to the eigenvectors already found, and its Ritz vector with
+ * the largest Ritz value is taken. Until that has converged, the subspace is
+ * shrunk to its best Ritz vectors and extended again, which keeps what has
+ * been learnt about nearby eigenvalues across restarts. Starting afresh for
+ * each eigenvector finds every vector of a repeated eigenvalue, which a
+ * single Krylov subspace can not.
+ * <p>
+ * Memory use is linear in the size of the matrix, and the time per restart is
+ * dominated by sparse matrix multiplications and the orthogonalisation, both
+ * of which are divided between the threads of the common fork-join pool.
+ *
+ * @author sirius
+ */
+public final class LanczosEigensolver {
+
+    /**
+     * The maximum number of vectors in the Krylov subspace.
+     */
+    public static final int SUBSPACE_SIZE = 40;
+
+    private static final int MAX_RESTARTS = 500;
+    private static final double TOLERANCE = 1E-6;
+    private static final long START_SEED = 0x5EEDL;
+
+    // The number of elements of a vector in each block of the orthogonalisation
+    // and of the combination of Ritz vectors.
+    private static final int BLOCK_SIZE = 1 << 13;
+
+    private LanczosEigensolver() {
+    }
+
+    /**
+     * A space which eigenvectors are to be found outside of.
+     */
+    @FunctionalInterface
+    public interface Deflation {
+
+        /**
+         * Remove the part of a vector which lies in the excluded space.
+         *
+         * @param vector The vector, which is modified in place.
+         */
+        void deflate(final double[] vector);
+    }
+
+    /**
+     * Find the eigenvectors of a symmetric matrix with the largest eigenvalues
+     * in the space orthogonal to an excluded space.
+     * <p>
+     * If an eigenvector has not converged after a fixed number of restarts,
+     * the best approximation found is used.
+     *
+     * @param matrix The symmetric matrix.
+     * @param count The number of eigenvectors to find.
+     * @param excluded The space which the eigenvectors must be orthogonal to,
+     * such as that of known eigenvectors, or null.
+     * @param excludedDimension The dimension of the excluded space.
+     * @param eigenvalues An array to write the eigenvalue of each eigenvector
+     * to, or null.
+     * @param interaction The interaction to report progress to, or null.
+     * @return The unit eigenvectors, in order of decreasing eigenvalue. There
+     * are fewer than count if the space orthogonal to the excluded space is
+     * too small.
+     * @throws InterruptedException If the thread is interrupted, or the user
+     * cancels through the interaction.
+     */
+    public static double[][] largestEigenvectors(final SparseMatrix matrix, final int count, final Deflation excluded, final int excludedDimension, final double[] eigenvalues, final PluginInteraction interaction) throws InterruptedException {
+        final int available = matrix.getRowCount() - excludedDimension;
+        final Random random = new Random(START_SEED);
+        final double[][] eigenvectors = new double[count][];
+        int found = 0;
+        while (found < Math.min(count, available)) {
+            final int lockedCount = found;
+            final Deflation deflation = vector -> {
+                if (excluded != null) {
+                    excluded.deflate(vector);
+                }
+                for (int index = 0; index < lockedCount; index++) {
+                    subtract(vector, eigenvectors[index], dot(vector, eigenvectors[index]));
+                }
+            };
+
+            final int subspaceSize = Math.min(SUBSPACE_SIZE, available - found);
+            final double eigenvalue = largestEigenvector(matrix, deflation, subspaceSize, random, eigenvectors, found, count, interaction);
+            if (eigenvectors[found] == null) {
+                break;
+            }
+            if (eigenvalues != null) {
+                eigenvalues[found] = eigenvalue;
+            }
+            found++;
+        }
+
+        return found == count ? eigenvectors : Arrays.copyOf(eigenvectors, found);
+    }
+
+    /**
+     * Find the eigenvector with the largest eigenvalue outside a deflated
+     * space, storing it in eigenvectors[index], which is left null if the
+     * deflated space is everything.
+     */
+    private static double largestEigenvector(final SparseMatrix matrix, final Deflation deflation, final int subspaceSize, final Random random,
+            final double[][] eigenvectors, final int index, final int count, final PluginInteraction interaction) throws InterruptedException {
+        final int size = matrix.getRowCount();
+        final int kept = Math.max(1, Math.min(subspaceSize - 1, subspaceSize / 2));
+
+        // The basis, and the projection of the matrix onto it.
+        final double[][] basis = new double[subspaceSize][];
+        final double[][] projection = new double[subspaceSize][subspaceSize];
+        final double[] coefficients = new double[subspaceSize];
+        int basisSize = 0;
+
+        double[] extension = new double[size];
+        for (int element = 0; element < size; element++) {
+            extension[element] = random.nextDouble() - 0.5;
+        }
+        deflation.deflate(extension);
+        if (normalise(extension) == 0) {
+            return 0;
+        }
+
+        double eigenvalue = 0;
+        double residualScale = 0;
+        for (int restart = 0; restart < MAX_RESTARTS; restart++) {
+            if (interaction != null) {
+                final String message = String.format("Calculating eigenvector %d of %d...", index + 1, count);
+                interaction.setProgress(index * MAX_RESTARTS + restart, count * MAX_RESTARTS, message, true);
+            }
+
+            // Extend the subspace by the product of the matrix with its
+            // newest vector. In exact arithmetic that is only coupled to the
+            // two newest vectors, or to the kept Ritz vectors just after a
+            // restart, so those are projected out first; the product is then
+            // orthogonalised against the whole subspace and the deflated space
+            // to keep the basis orthogonal in floating point.
+            final int firstExtended = basisSize;
+            while (extension != null && basisSize < subspaceSize) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+
+                final int newest = basisSize++;
+                basis[newest] = extension;
+                Arrays.fill(projection[newest], 0);
+                for (int row = 0; row < newest; row++) {
+                    projection[row][newest] = 0;
+                }
+                extension = new double[size];
+                matrix.multiply(basis[newest], 0, extension, 0);
+
+                final double productNorm = Math.sqrt(dot(extension, extension));
+                final int firstCoupled = newest == firstExtended ? 0 : newest - 1;
+                orthogonalise(extension, basis, firstCoupled, basisSize, coefficients);
+                addProjections(projection, newest, coefficients, firstCoupled);
+                deflation.deflate(extension);
+                orthogonalise(extension, basis, 0, basisSize, coefficients);
+                addProjections(projection, newest, coefficients, 0);
+                final double norm = Math.sqrt(dot(extension, extension));
+
+                residualScale = norm;
+                if (norm <= TOLERANCE * Math.max(1, productNorm)) {
+                    // The subspace is invariant, so its Ritz pairs are exact.
+                    extension = null;
+                    residualScale = 0;
+                } else {
+                    normalise(extension);
+                }
+            }
+
+            // Rayleigh-Ritz on the projection of the matrix onto the subspace.
+            final double[][] projected = new double[basisSize][];
+            for (int row = 0; row < basisSize; row++) {
+                projected[row] = Arrays.copyOf(projection[row], basisSize);
+            }
+            final EigenDecomposition decomposition = new EigenDecomposition(MatrixUtils.createRealMatrix(projected));
+            final Integer[] order = new Integer[basisSize];
+            for (int ritz = 0; ritz < basisSize; ritz++) {
+                order[ritz] = ritz;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(decomposition.getRealEigenvalue(b), decomposition.getRealEigenvalue(a)));
+
+            final int ritzCount = extension == null ? 1 : Math.min(kept, basisSize);
+            final double[] ritzValues = new double[ritzCount];
+            final double[][] ritzCoefficients = new double[ritzCount][];
+            for (int ritz = 0; ritz < ritzCount; ritz++) {
+                ritzValues[ritz] = decomposition.getRealEigenvalue(order[ritz]);
+                ritzCoefficients[ritz] = decomposition.getEigenvector(order[ritz]).toArray();
+            }
+
+            // The residual of each Ritz pair lies along the extension vector,
+            // in proportion to the last coefficient of the Ritz vector.
+            eigenvalue = ritzValues[0];
+            final double residual = residualScale * Math.abs(ritzCoefficients[0][basisSize - 1]);
+            final boolean converged = residual <= TOLERANCE * Math.max(1, Math.abs(eigenvalue));
+
+            // Shrink the subspace to the best Ritz vectors, which the
+            // extension vector is already orthogonal to, and on which the
+            // projection is diagonal.
+            final double[][] ritzVectors = combine(basis, basisSize, ritzCoefficients, size);
+            basisSize = ritzCount;
+            for (int row = 0; row < ritzCount; row++) {
+                basis[row] = ritzVectors[row];
+                Arrays.fill(projection[row], 0);
+                projection[row][row] = ritzValues[row];
+            }
+
+            if (converged || extension == null) {
+                break;
+            }
+        }
+
+        normalise(basis[0]);
+        eigenvectors[index] = basis[0];
+        return eigenvalue;
+    }
+
+    private static void addProjections(final double[][] projection, final int newest, final double[] coefficients, final int from) {
+        for (int row = from; row <= newest; row++) {
+            projection[row][newest] += coefficients[row];
+            projection[newest][row] = projection[row][newest];
+        }
+    }
+
+    /**
+     * Subtract from a vector its projections onto a range of a set of
+     * orthonormal vectors, all calculated from the vector as it was given, and
+     * store them in the same range of coefficients.
+     */
+    private static void orthogonalise(final double[] vector, final double[][] against, final int fromVector, final int toVector, final double[] coefficients) {
+        final int blockCount = (vector.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final double[][] partialDots = new double[blockCount][toVector];
+        IntStream.range(0, blockCount).parallel().forEach(block -> {
+            final int from = block * BLOCK_SIZE;
+            final int to = Math.min(from + BLOCK_SIZE, vector.length);
+            for (int other = fromVector; other < toVector; other++) {
+                final double[] otherVector = against[other];
+                double sum = 0;
+                for (int index = from; index < to; index++) {
+                    sum += vector[index] * otherVector[index];
+                }
+                partialDots[block][other] = sum;
+            }
+        });
+
+        // Sum the blocks in order, so the result does not depend on threading.
+        Arrays.fill(coefficients, fromVector, toVector, 0);
+        for (final double[] blockDots : partialDots) {
+            for (int other = fromVector; other < toVector; other++) {
+                coefficients[other] += blockDots[other];
+            }
+        }
+
+        IntStream.range(0, blockCount).parallel().forEach(block -> {
+            final int from = block * BLOCK_SIZE;
+            final int to = Math.min(from + BLOCK_SIZE, vector.length);
+            for (int other = fromVector; other < toVector; other++) {
+                final double[] otherVector = against[other];
+                final double coefficient = coefficients[other];
+                for (int index = from; index < to; index++) {
+                    vector[index] -= coefficient * otherVector[index];
+                }
+            }
+        });
+    }
+
+    private static double[][] combine(final double[][] vectors, final int vectorCount, final double[][] coefficients, final int size) {
+        final double[][] combinations = new double[coefficients.length][size];
+        final int blockCount = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, blockCount).parallel().forEach(block -> {
+            final int from = block * BLOCK_SIZE;
+            final int to = Math.min(from + BLOCK_SIZE, size);
+            for (int combination = 0; combination < coefficients.length; combination++) {
+                final double[] result = combinations[combination];
+                for (int vector = 0; vector < vectorCount; vector++) {
+                    final double coefficient = coefficients[combination][vector];
+                    final double[] source = vectors[vector];
+                    for (int index = from; index < to; index++) {
+                        result[index] += coefficient * source[index];
+                    }
+                }
+            }
+        });
+        return combinations;
+    }
+
+    private static void subtract(final double[] vector, final double[] other, final double factor) {
+        for (int index = 0; index < vector.length; index++) {
+            vector[index] -= factor * other[index];
+        }
+    }
+
+    private static double normalise(final double[] vector) {
+        final double norm = Math.sqrt(dot(vector, vector));
+        if (norm > 0) {
+            for (int index = 0; index < vector.length; index++) {
+                vector[index] /= norm;
+            }
+        }
+        return norm;
+    }
+
+    private static double dot(final double[] a, final double[] b) {
+        double sum = 0;
+        for (int index = 0; index < a.length; index++) {
+            sum += a[index] * b[index];
+        }
+        return sum;
+    }
+}
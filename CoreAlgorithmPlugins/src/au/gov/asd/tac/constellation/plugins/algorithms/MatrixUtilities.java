@@ -16,16 +16,28 @@
 package au.gov.asd.tac.constellation.plugins.algorithms;
 
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import java.util.Random;
 import org.ejml.simple.SimpleMatrix;
 
 /**
  * Utilities for converting a graph into various matrices and performing linear
  * algebra operations.
+ * <p>
+ * The dense {@link SimpleMatrix} methods need memory quadratic in the number
+ * of vertices, and {@link #inverseLaplacian inverseLaplacian()} cubic time,
+ * so they are only suitable for small graphs. The sparse methods return a
+ * {@link SparseMatrix} with the same row and column for each vertex position,
+ * and effective resistance is calculated from it with iterative solvers
+ * rather than by inverting the Laplacian.
  *
  * @author cygnus_x-1
  */
 public class MatrixUtilities {
 
+    // The norm of the residual, relative to the right hand side, at which the
+    // solvers for effective resistance stop.
+    private static final double SOLVER_TOLERANCE = 1E-10;
+
     // TODO: distance matrix, where D[i,j] = distance between i and j
     public static SimpleMatrix identity(final GraphReadMethods graph) {
         return SimpleMatrix.identity(graph.getVertexCount());
@@ -87,4 +99,151 @@ public class MatrixUtilities {
         final SimpleMatrix laplacian = laplacian(graph);
         return laplacian.pseudoInverse();
     }
+
+    public static SparseMatrix sparseAdjacency(final GraphReadMethods graph, final boolean weighted) {
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        return SparseMatrix.fromAdjacency(adjacency, entry -> weighted ? adjacency.getWeight(entry) : 1.0);
+    }
+
+    /**
+     * Build the Laplacian of a graph as a sparse matrix, where the weight of
+     * each link is either 1 or its number of transactions. Loops are left
+     * out, as they do not change the Laplacian.
+     *
+     * @param graph The graph.
+     * @param weighted If true, links are weighted by their number of
+     * transactions.
+     * @return The Laplacian, with the diagonal entry first in each row.
+     */
+    public static SparseMatrix sparseLaplacian(final GraphReadMethods graph, final boolean weighted) {
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        final int vertexCount = adjacency.getVertexCount();
+        final int[] adjacencyOffsets = adjacency.getOffsets();
+        final int[] neighbours = adjacency.getNeighbours();
+
+        final int[] offsets = new int[vertexCount + 1];
+        final int[] columns = new int[neighbours.length + vertexCount];
+        final double[] weights = new double[neighbours.length + vertexCount];
+        for (int position = 0; position < vertexCount; position++) {
+            final int diagonal = adjacencyOffsets[position] + position;
+            columns[diagonal] = position;
+            int index = diagonal + 1;
+            for (int entry = adjacencyOffsets[position]; entry < adjacencyOffsets[position + 1]; entry++) {
+                final double weight = weighted ? adjacency.getWeight(entry) : 1.0;
+                columns[index] = neighbours[entry];
+                weights[index++] = -weight;
+                weights[diagonal] += weight;
+            }
+            offsets[position + 1] = index;
+        }
+
+        return new SparseMatrix(vertexCount, offsets, columns, weights);
+    }
+
+    /**
+     * Calculate the effective resistance between two vertices by solving the
+     * Laplacian system for a unit current between them.
+     *
+     * @param laplacian The Laplacian of the graph.
+     * @param from The position of the first vertex.
+     * @param to The position of the second vertex.
+     * @return The effective resistance, which is 0 if the vertices are the
+     * same and infinite if they are not connected.
+     * @throws InterruptedException If the thread is interrupted while solving.
+     */
+    public static double effectiveResistance(final SparseMatrix laplacian, final int from, final int to) throws InterruptedException {
+        if (from == to) {
+            return 0;
+        } else if (!isConnected(laplacian, from, to)) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        final int vertexCount = laplacian.getRowCount();
+        final double[] current = new double[vertexCount];
+        current[from] = 1;
+        current[to] = -1;
+        final double[] potentials = new double[vertexCount];
+        laplacian.solve(current, potentials, SOLVER_TOLERANCE, getMaxIterations(vertexCount));
+        return potentials[from] - potentials[to];
+    }
+
+    /**
+     * Embed the vertices of a graph so that the squared Euclidean distance
+     * between two vertices approximates the effective resistance between
+     * them, by solving the Laplacian system for random projections of the
+     * weighted incidence matrix (Spielman and Srivastava).
+     * <p>
+     * With k dimensions, every distance between adjacent vertices is within a
+     * factor of about {@code 1 ± sqrt(8 ln(n) / k)} of the resistance. Vertices
+     * in different components are not given a meaningful distance.
+     *
+     * @param laplacian The Laplacian of the graph.
+     * @param dimensions The number of random projections.
+     * @param seed The seed of the random projections.
+     * @return The embedding, holding a coordinate for each vertex position in
+     * each dimension.
+     * @throws InterruptedException If the thread is interrupted while solving.
+     */
+    public static double[][] resistanceEmbedding(final SparseMatrix laplacian, final int dimensions, final long seed) throws InterruptedException {
+        final int vertexCount = laplacian.getRowCount();
+        final int[] offsets = laplacian.getOffsets();
+        final int[] columns = laplacian.getColumns();
+        final double[] weights = laplacian.getWeights();
+        final double scale = 1 / Math.sqrt(dimensions);
+        final Random random = new Random(seed);
+
+        final double[][] embedding = new double[dimensions][];
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            // Project each link onto a random sign, weighted by the square
+            // root of its conductance.
+            final double[] projection = new double[vertexCount];
+            for (int row = 0; row < vertexCount; row++) {
+                for (int index = offsets[row]; index < offsets[row + 1]; index++) {
+                    final int column = columns[index];
+                    if (column > row && weights[index] < 0) {
+                        final double value = Math.sqrt(-weights[index]) * (random.nextBoolean() ? scale : -scale);
+                        projection[row] += value;
+                        projection[column] -= value;
+                    }
+                }
+            }
+
+            embedding[dimension] = new double[vertexCount];
+            laplacian.solve(projection, embedding[dimension], SOLVER_TOLERANCE, getMaxIterations(vertexCount));
+        }
+
+        return embedding;
+    }
+
+    private static boolean isConnected(final SparseMatrix laplacian, final int from, final int to) {
+        final int[] offsets = laplacian.getOffsets();
+        final int[] columns = laplacian.getColumns();
+        final double[] weights = laplacian.getWeights();
+        final boolean[] visited = new boolean[laplacian.getRowCount()];
+        final int[] queue = new int[visited.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        visited[from] = true;
+        while (head < tail) {
+            final int row = queue[head++];
+            for (int index = offsets[row]; index < offsets[row + 1]; index++) {
+                final int column = columns[index];
+                if (weights[index] != 0 && !visited[column]) {
+                    if (column == to) {
+                        return true;
+                    }
+                    visited[column] = true;
+                    queue[tail++] = column;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int getMaxIterations(final int vertexCount) {
+        // Conjugate gradient converges within the size of the system in exact
+        // arithmetic; allow for the loss of orthogonality in floating point.
+        return 2 * vertexCount + 10;
+    }
 }
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.ejml.simple.SimpleMatrix;
+
+/**
+ * A sparse matrix in compressed sparse row format, where row {@code r} holds
+ * the weights of the columns listed from {@code offsets[r]} (inclusive) to
+ * {@code offsets[r + 1]} (exclusive).
+ * <p>
+ * Memory use is linear in the number of non-zero entries, so matrices derived
+ * from large graphs can be held where a dense {@link SimpleMatrix} could not.
+ * Multiplication by a vector divides blocks of rows between tasks on the
+ * common fork-join pool once the matrix is large enough, and
+ * {@link #solve solve()} uses it to solve symmetric positive semi-definite
+ * systems, such as those of a graph Laplacian, by conjugate gradient.
+ *
+ * @author sirius
+ */
+public final class SparseMatrix {
+
+    // Matrices with fewer entries than this are multiplied on the calling
+    // thread, as splitting the work would cost more than it saves.
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    // The number of blocks of rows to divide a multiplication between for
+    // each worker thread, which balances the load when row lengths vary.
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final int columnCount;
+    private final int[] offsets;
+    private final int[] columns;
+    private final double[] weights;
+
+    /**
+     * The weight of an entry of a {@link GraphAdjacency}, where a weight of 0
+     * leaves the entry out of the matrix.
+     */
+    @FunctionalInterface
+    public interface EntryWeight {
+
+        double getWeight(final int entry);
+    }
+
+    public SparseMatrix(final int columnCount, final int[] offsets, final int[] columns, final double[] weights) {
+        this.columnCount = columnCount;
+        this.offsets = offsets;
+        this.columns = columns;
+        this.weights = weights;
+    }
+
+    /**
+     * Build a square matrix with a row for each vertex of an adjacency
+     * snapshot and a column for each of its neighbours with a non-zero
+     * weight.
+     *
+     * @param adjacency The adjacency of the graph.
+     * @param weight The weight of each entry of the adjacency.
+     * @return A matrix of the weights of the adjacency.
+     */
+    public static SparseMatrix fromAdjacency(final GraphAdjacency adjacency, final EntryWeight weight) {
+        final int[] adjacencyOffsets = adjacency.getOffsets();
+        final int[] neighbours = adjacency.getNeighbours();
+        final int rowCount = adjacency.getVertexCount();
+        final double[] entryWeights = new double[neighbours.length];
+        final int[] offsets = new int[rowCount + 1];
+        for (int row = 0; row < rowCount; row++) {
+            int length = 0;
+            for (int entry = adjacencyOffsets[row]; entry < adjacencyOffsets[row + 1]; entry++) {
+                entryWeights[entry] = weight.getWeight(entry);
+                if (entryWeights[entry] != 0) {
+                    length++;
+                }
+            }
+            offsets[row + 1] = offsets[row] + length;
+        }
+
+        final int[] columns = new int[offsets[rowCount]];
+        final double[] weights = new double[offsets[rowCount]];
+        int index = 0;
+        for (int entry = 0; entry < neighbours.length; entry++) {
+            if (entryWeights[entry] != 0) {
+                columns[index] = neighbours[entry];
+                weights[index++] = entryWeights[entry];
+            }
+        }
+
+        return new SparseMatrix(rowCount, offsets, columns, weights);
+    }
+
+    public int getRowCount() {
+        return offsets.length - 1;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Get the number of entries held by this matrix.
+     *
+     * @return The number of entries.
+     */
+    public int getEntryCount() {
+        return offsets[offsets.length - 1];
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getColumns() {
+        return columns;
+    }
+
+    public double[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * Get the value at a row and column of this matrix, which is 0 if there
+     * is no entry for it.
+     *
+     * @param row The row.
+     * @param column The column.
+     * @return The value.
+     */
+    public double get(final int row, final int column) {
+        double value = 0;
+        for (int index = offsets[row]; index < offsets[row + 1]; index++) {
+            if (columns[index] == column) {
+                value += weights[index];
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Get the values on the diagonal of this matrix.
+     *
+     * @return The diagonal, indexed by row.
+     */
+    public double[] getDiagonal() {
+        final double[] diagonal = new double[Math.min(getRowCount(), columnCount)];
+        for (int row = 0; row < diagonal.length; row++) {
+            diagonal[row] = get(row, row);
+        }
+        return diagonal;
+    }
+
+    /**
+     * Copy this matrix to a dense matrix.
+     *
+     * @return A dense matrix with the same values as this matrix.
+     */
+    public SimpleMatrix toSimpleMatrix() {
+        final SimpleMatrix matrix = new SimpleMatrix(getRowCount(), columnCount);
+        for (int row = 0; row < getRowCount(); row++) {
+            for (int index = offsets[row]; index < offsets[row + 1]; index++) {
+                matrix.set(row, columns[index], matrix.get(row, columns[index]) + weights[index]);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Multiply a vector by this matrix.
+     *
+     * @param x The array holding the vector to multiply.
+     * @param xFrom The index of the first element of the vector in x.
+     * @param y The array to write the product to.
+     * @param yFrom The index of the first element of the product in y.
+     */
+    public void multiply(final double[] x, final int xFrom, final double[] y, final int yFrom) {
+        final int rowCount = getRowCount();
+        if (columns.length < PARALLEL_THRESHOLD) {
+            multiplyRows(x, xFrom, y, yFrom, 0, rowCount);
+        } else {
+            final int taskCount = ForkJoinPool.getCommonPoolParallelism() * TASKS_PER_THREAD;
+            final int threshold = Math.max(1, (rowCount + taskCount - 1) / taskCount);
+            ForkJoinPool.commonPool().invoke(new MultiplyTask(this, x, xFrom, y, yFrom, 0, rowCount, threshold));
+        }
+    }
+
+    /**
+     * Solve {@code Ax = b} for x, where A is this matrix, by conjugate
+     * gradient with a Jacobi (diagonal) preconditioner.
+     * <p>
+     * This matrix must be symmetric and positive semi-definite. If it is
+     * singular, as the Laplacian of a graph is, b must lie in its range, which
+     * for a Laplacian means that b sums to 0 over each connected component,
+     * and the solution found is the one closest to the starting value of x.
+     *
+     * @param b The right hand side.
+     * @param x The starting estimate of the solution, which is replaced by the
+     * solution.
+     * @param tolerance The norm of the residual, relative to the norm of b, at
+     * which to stop.
+     * @param maxIterations The maximum number of iterations.
+     * @return The number of iterations carried out.
+     * @throws InterruptedException If the thread is interrupted between
+     * iterations.
+     */
+    public int solve(final double[] b, final double[] x, final double tolerance, final int maxIterations) throws InterruptedException {
+        final int size = getRowCount();
+        final double[] inverseDiagonal = getDiagonal();
+        for (int row = 0; row < size; row++) {
+            // Rows without a diagonal, such as those of isolated vertices,
+            // are left unscaled.
+            inverseDiagonal[row] = inverseDiagonal[row] > 0 ? 1 / inverseDiagonal[row] : 1;
+        }
+
+        final double[] residual = new double[size];
+        final double[] preconditioned = new double[size];
+        final double[] direction = new double[size];
+        final double[] product = new double[size];
+
+        multiply(x, 0, product, 0);
+        double bNorm = 0;
+        double rz = 0;
+        for (int row = 0; row < size; row++) {
+            bNorm += b[row] * b[row];
+            residual[row] = b[row] - product[row];
+            preconditioned[row] = inverseDiagonal[row] * residual[row];
+            direction[row] = preconditioned[row];
+            rz += residual[row] * preconditioned[row];
+        }
+        final double threshold = tolerance * tolerance * bNorm;
+
+        int iteration = 0;
+        while (iteration < maxIterations && squaredNorm(residual) > threshold) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            multiply(direction, 0, product, 0);
+            double curvature = 0;
+            for (int row = 0; row < size; row++) {
+                curvature += direction[row] * product[row];
+            }
+            if (curvature <= 0) {
+                break;
+            }
+
+            final double alpha = rz / curvature;
+            double nextRz = 0;
+            for (int row = 0; row < size; row++) {
+                x[row] += alpha * direction[row];
+                residual[row] -= alpha * product[row];
+                preconditioned[row] = inverseDiagonal[row] * residual[row];
+                nextRz += residual[row] * preconditioned[row];
+            }
+
+            final double beta = nextRz / rz;
+            for (int row = 0; row < size; row++) {
+                direction[row] = preconditioned[row] + beta * direction[row];
+            }
+            rz = nextRz;
+            iteration++;
+        }
+
+        return iteration;
+    }
+
+    private static double squaredNorm(final double[] residual) {
+        double norm = 0;
+        for (final double value : residual) {
+            norm += value * value;
+        }
+        return norm;
+    }
+
+    private void multiplyRows(final double[] x, final int xFrom, final double[] y, final int yFrom, final int fromRow, final int toRow) {
+        for (int row = fromRow; row < toRow; row++) {
+            double sum = 0;
+            for (int index = offsets[row]; index < offsets[row + 1]; index++) {
+                sum += weights[index] * x[xFrom + columns[index]];
+            }
+            y[yFrom + row] = sum;
+        }
+    }
+
+    private static final class MultiplyTask extends RecursiveAction {
+
+        private final SparseMatrix matrix;
+        private final double[] x;
+        private final int xFrom;
+        private final double[] y;
+        private final int yFrom;
+        private final int fromRow;
+        private final int toRow;
+        private final int threshold;
+
+        private MultiplyTask(final SparseMatrix matrix, final double[] x, final int xFrom, final double[] y, final int yFrom, final int fromRow, final int toRow, final int threshold) {
+            this.matrix = matrix;
+            this.x = x;
+            this.xFrom = xFrom;
+            this.y = y;
+            this.yFrom = yFrom;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow > threshold) {
+                final int middle = (fromRow + toRow) >>> 1;
+                invokeAll(new MultiplyTask(matrix, x, xFrom, y, yFrom, fromRow, middle, threshold),
+                        new MultiplyTask(matrix, x, xFrom, y, yFrom, middle, toRow, threshold));
+            } else {
+                matrix.multiplyRows(x, xFrom, y, yFrom, fromRow, toRow);
+            }
+        }
+    }
+}
@@ -16,11 +16,10 @@
 package au.gov.asd.tac.constellation.plugins.algorithms.clustering.chinesewhispers;
 
 import au.gov.asd.tac.constellation.graph.Graph;
-import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.plugins.algorithms.GraphAdjacency;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.ClusteringConcept;
 import java.security.SecureRandom;
-import java.util.ArrayList;
 import java.util.Arrays;
 
 /**
@@ -66,6 +65,9 @@ public final class ChineseWhispers {
 
     public void cluster() {
         final int vxCount = wg.getVertexCount();
+        final GraphAdjacency adjacency = GraphAdjacency.get(wg, false);
+        final int[] offsets = adjacency.getOffsets();
+        final int[] neighbourPositions = adjacency.getNeighbours();
 
         // An array containing vertex positions in a random order.
         final int[] positions = new int[vxCount];
@@ -79,6 +81,13 @@ public final class ChineseWhispers {
             vxClusters[vxId] = position;
         }
 
+        // A buffer for the candidate neighbours of a vertex.
+        int maxDegree = 0;
+        for (int position = 0; position < vxCount; position++) {
+            maxDegree = Math.max(maxDegree, adjacency.getDegree(position));
+        }
+        final int[] candidates = new int[maxDegree];
+
         // For now we'll use a fixed number of iterations and break if there are
         // no changes (or the number of changes increases). Figure out a better
         // limit later if we want to. (See class comment above.)
@@ -93,33 +102,31 @@ public final class ChineseWhispers {
                 // Find the vertices connected to this vertex by the highest sum
                 // of link weights. Since in general we don;t do weights, we use
                 // the maximum number of transactions connected to a vertex.
-                final ArrayList<Integer> candidates = new ArrayList<>();
-                final int neighbours = wg.getVertexLinkCount(vxId);
+                // The candidates are entries in the adjacency; loops are not
+                // candidates since they can't change the cluster.
+                int candidateCount = 0;
                 int maxWeight = 0;
-                for (int npos = 0; npos < neighbours; npos++) {
-                    final int linkId = wg.getVertexLink(vxId, npos);
-
-                    final int weight = wg.getLinkTransactionCount(linkId);
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    final int weight = adjacency.getWeight(entry);
                     if (weight > maxWeight) {
                         // This weight is a new maximum, so clear the previous
                         // candidates.
-                        candidates.clear();
+                        candidateCount = 0;
                         maxWeight = weight;
                     }
 
                     if (weight == maxWeight) {
-                        // Find the vertex at the other end of the link and
-                        // remember it as a candidate.
-                        final int neighbourVxId = GraphElementType.LINK.getOtherVertex(wg, linkId, vxId);
-                        candidates.add(neighbourVxId);
+                        // Remember the vertex at the other end of the link as
+                        // a candidate.
+                        candidates[candidateCount++] = neighbourPositions[entry];
                     }
                 }
 
-                if (!candidates.isEmpty()) {
+                if (candidateCount > 0) {
                     // Choose a random vertex from the candidates and change the
                     // cluster if it's different.
-                    final int rix = random.nextInt(candidates.size());
-                    final int rneighbour = candidates.get(rix);
+                    final int rix = random.nextInt(candidateCount);
+                    final int rneighbour = adjacency.getVertexId(candidates[rix]);
                     if (vxClusters[vxId] != vxClusters[rneighbour]) {
                         vxClusters[vxId] = vxClusters[rneighbour];
                         changes++;
@@ -21,21 +21,23 @@ import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
-import au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality.PathScoringUtilities.ScoreType;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType.BooleanParameterValue;
+import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType;
+import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
-import java.util.BitSet;
-import java.util.HashMap;
 import org.openide.util.NbBundle.Messages;
 import org.openide.util.lookup.ServiceProvider;
 
 /**
  * Calculates betweenness centrality for each vertex. This centrality measure
  * does not include loops.
+ * <p>
+ * Scores are calculated exactly by default. On very large graphs, a sample
+ * size can be given to estimate them from that many source vertices instead;
+ * see {@link ShortestPathScoring} for the error bound of the estimate.
  *
  * @author cygnus_x-1
  * @author canis_majoris
@@ -56,6 +58,7 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "normalise_available");
     public static final String NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "normalise_connected_components");
     public static final String SELECTED_ONLY_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "selected_only");
+    public static final String SAMPLE_SIZE_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "sample_size");
 
     @Override
     public PluginParameters createParameters() {
@@ -103,6 +106,13 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
         selectedOnlyParameter.setBooleanValue(false);
         parameters.addParameter(selectedOnlyParameter);
 
+        final PluginParameter<IntegerParameterValue> sampleSizeParameter = IntegerParameterType.build(SAMPLE_SIZE_PARAMETER_ID);
+        sampleSizeParameter.setName("Sample Size");
+        sampleSizeParameter.setDescription("Estimate scores from this many randomly chosen source vertices, or 0 to calculate them exactly");
+        sampleSizeParameter.setIntegerValue(0);
+        IntegerParameterType.setMinimum(sampleSizeParameter, 0);
+        parameters.addParameter(sampleSizeParameter);
+
         return parameters;
     }
 
@@ -115,26 +125,23 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
         final boolean normaliseConnectedComponents = parameters.getBooleanValue(NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID);
         final boolean selectedOnly = parameters.getBooleanValue(SELECTED_ONLY_PARAMETER_ID);
+        final int sampleSize = parameters.getIntegerValue(SAMPLE_SIZE_PARAMETER_ID);
 
         assert !normaliseByPossible || !normaliseByAvailable : "You should only select one method of normalisation";
 
         // calculate betweenness scores
-        final Tuple<BitSet[], float[]> scoreResult = PathScoringUtilities.calculateScores(graph, ScoreType.BETWEENNESS, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly);
-        final BitSet[] subgraphs = scoreResult.getFirst();
-        final float[] betweennesses = scoreResult.getSecond();
+        final float[] betweennesses = ShortestPathScoring.calculateBetweenness(graph, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly, sampleSize);
+        final int[] components = ShortestPathScoring.calculateComponents(graph);
+        final int[] componentSizes = ShortestPathScoring.countComponentVertices(graph, components, false);
 
         // calculate the maximum betweenness
         float maxBetweenness = 0;
-        final HashMap<BitSet, Float> maxBetweennessConnectedComponents = new HashMap<>();
+        final float[] maxBetweennessConnectedComponents = new float[componentSizes.length];
         final int vertexCount = graph.getVertexCount();
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
             final float betweenness = betweennesses[vertexPosition];
-            final BitSet subgraph = subgraphs[vertexPosition];
-            if (!maxBetweennessConnectedComponents.containsKey(subgraph)) {
-                maxBetweennessConnectedComponents.put(subgraph, betweenness);
-            } else {
-                maxBetweennessConnectedComponents.put(subgraph, Math.max(betweenness, maxBetweennessConnectedComponents.get(subgraph)));
-            }
+            final int component = components[vertexPosition];
+            maxBetweennessConnectedComponents[component] = Math.max(betweenness, maxBetweennessConnectedComponents[component]);
             maxBetweenness = Math.max(betweenness, maxBetweenness);
         }
 
@@ -156,14 +163,14 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
             final float betweennessAttributeValue;
             if (normaliseByPossible) {
                 if (normaliseConnectedComponents) {
-                    final float subgraphVertexCount = subgraphs[vertexPosition].cardinality();
+                    final float subgraphVertexCount = componentSizes[components[vertexPosition]];
                     betweennessAttributeValue = betweennesses[vertexPosition] / (((subgraphVertexCount - 1) * (subgraphVertexCount - 2)) / 2);
                 } else {
                     betweennessAttributeValue = betweennesses[vertexPosition] / (((vertexCount - 1) * (vertexCount - 2)) / 2f);
                 }
             } else if (normaliseByAvailable && maxBetweenness > 0) {
                 if (normaliseConnectedComponents) {
-                    final float maxBetweennessConnectedComponent = maxBetweennessConnectedComponents.get(subgraphs[vertexPosition]);
+                    final float maxBetweennessConnectedComponent = maxBetweennessConnectedComponents[components[vertexPosition]];
                     betweennessAttributeValue = betweennesses[vertexPosition] / maxBetweennessConnectedComponent;
                 } else {
                     betweennessAttributeValue = betweennesses[vertexPosition] / maxBetweenness;
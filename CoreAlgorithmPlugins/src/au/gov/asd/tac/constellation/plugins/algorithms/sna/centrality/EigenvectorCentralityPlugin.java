@@ -20,6 +20,8 @@ import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import au.gov.asd.tac.constellation.plugins.algorithms.GraphAdjacency;
+import au.gov.asd.tac.constellation.plugins.algorithms.SparseMatrix;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
@@ -52,6 +54,7 @@ public class EigenvectorCentralityPlugin extends SimpleEditPlugin {
     public static final String EPSILON_PARAMETER_ID = PluginParameter.buildId(EigenvectorCentralityPlugin.class, "epsilon");
     public static final String NORMALISE_POSSIBLE_PARAMETER_ID = PluginParameter.buildId(EigenvectorCentralityPlugin.class, "normalise_possible");
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(EigenvectorCentralityPlugin.class, "normalise_available");
+    public static final String WARM_START_PARAMETER_ID = PluginParameter.buildId(EigenvectorCentralityPlugin.class, "warm_start");
 
     @Override
     public PluginParameters createParameters() {
@@ -81,6 +84,12 @@ public class EigenvectorCentralityPlugin extends SimpleEditPlugin {
         normaliseByAvailableParameter.setBooleanValue(false);
         parameters.addParameter(normaliseByAvailableParameter);
 
+        final PluginParameter<BooleanParameterValue> warmStartParameter = BooleanParameterType.build(WARM_START_PARAMETER_ID);
+        warmStartParameter.setName("Warm Start");
+        warmStartParameter.setDescription("Start from the scores of a previous run, if there are any");
+        warmStartParameter.setBooleanValue(false);
+        parameters.addParameter(warmStartParameter);
+
         return parameters;
     }
 
@@ -90,59 +99,49 @@ public class EigenvectorCentralityPlugin extends SimpleEditPlugin {
         final float epsilon = parameters.getFloatValue(EPSILON_PARAMETER_ID);
         final boolean normaliseByPossible = parameters.getBooleanValue(NORMALISE_POSSIBLE_PARAMETER_ID);
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
+        final boolean warmStart = parameters.getBooleanValue(WARM_START_PARAMETER_ID);
 
         assert !normaliseByPossible || !normaliseByAvailable : "You should only select one method of normalisation";
 
-        // initialise eigenvector values
+        // initialise eigenvector values, only warm starting when the scores
+        // are normalised, as they otherwise depend on the number of iterations
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        final SparseMatrix neighbours = SparseMatrix.fromAdjacency(adjacency, entry -> 1);
         final int vertexCount = graph.getVertexCount();
-        final double[] tempEigenvectors = new double[graph.getVertexCapacity()];
-        final double[] eigenvectors = new double[graph.getVertexCapacity()];
-        Arrays.fill(eigenvectors, (double) 1 / vertexCount);
+        final double[] eigenvectors = new double[vertexCount];
+        if (!warmStart || !(normaliseByPossible || normaliseByAvailable)
+                || !PowerIteration.readStoredScores(graph, EIGENVECTOR_ATTRIBUTE.get(graph), eigenvectors, 0, 1)) {
+            Arrays.fill(eigenvectors, (double) 1 / vertexCount);
+        }
 
         // calculate eigenvector for each vertex
-        for (int iteration = 0; iteration < iterations; iteration++) {
-            Arrays.fill(tempEigenvectors, 0);
+        PowerIteration.iterate(eigenvectors, (current, next) -> {
+            neighbours.multiply(current, 0, next, 0);
 
             double sumEigenvector = 0;
             double maxEigenvector = 0;
-            double delta = 0;
             for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                final int vertexId = graph.getVertex(vertexPosition);
-
-                final int neighbourCount = graph.getVertexNeighbourCount(vertexId);
-                for (int vertexNeighbourPosition = 0; vertexNeighbourPosition < neighbourCount; vertexNeighbourPosition++) {
-                    final int neighbourId = graph.getVertexNeighbour(vertexId, vertexNeighbourPosition);
-                    final int neighbourPosition = graph.getVertexPosition(neighbourId);
-                    if (vertexId != neighbourId) {
-                        tempEigenvectors[vertexPosition] += eigenvectors[neighbourPosition];
-                    }
-                }
-
-                sumEigenvector += tempEigenvectors[vertexPosition];
-                maxEigenvector = Math.max(tempEigenvectors[vertexPosition], maxEigenvector);
-                delta += Math.abs(eigenvectors[vertexPosition] - tempEigenvectors[vertexPosition]);
+                sumEigenvector += next[vertexPosition];
+                maxEigenvector = Math.max(next[vertexPosition], maxEigenvector);
             }
 
             for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
                 if (normaliseByPossible) {
-                    eigenvectors[vertexPosition] = tempEigenvectors[vertexPosition] / sumEigenvector;
+                    next[vertexPosition] /= sumEigenvector;
                 } else if (normaliseByAvailable && maxEigenvector > 0) {
-                    eigenvectors[vertexPosition] = tempEigenvectors[vertexPosition] / maxEigenvector;
-                } else {
-                    eigenvectors[vertexPosition] = tempEigenvectors[vertexPosition];
+                    next[vertexPosition] /= maxEigenvector;
                 }
             }
-
-            if (delta < epsilon) {
-                break;
-            }
-        }
+        }, iterations, epsilon);
 
         // update the graph with eigenvector values
         final int eigenvectorAttribute = EIGENVECTOR_ATTRIBUTE.ensure(graph);
+        final int[] vertexIds = new int[vertexCount];
+        final float[] values = new float[vertexCount];
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-            final int vertexId = graph.getVertex(vertexPosition);
-            graph.setFloatValue(eigenvectorAttribute, vertexId, (float) eigenvectors[vertexPosition]);
+            vertexIds[vertexPosition] = graph.getVertex(vertexPosition);
+            values[vertexPosition] = (float) eigenvectors[vertexPosition];
         }
+        graph.setFloatValues(eigenvectorAttribute, vertexIds, values);
     }
 }
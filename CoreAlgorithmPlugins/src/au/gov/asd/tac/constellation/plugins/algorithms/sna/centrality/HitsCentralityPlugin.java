@@ -15,12 +15,13 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
 
-import au.gov.asd.tac.constellation.graph.GraphConstants;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import au.gov.asd.tac.constellation.plugins.algorithms.GraphAdjacency;
+import au.gov.asd.tac.constellation.plugins.algorithms.SparseMatrix;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
@@ -52,6 +53,7 @@ public class HitsCentralityPlugin extends SimpleEditPlugin {
     public static final String ITERATIONS_PARAMETER_ID = PluginParameter.buildId(HitsCentralityPlugin.class, "iterations");
     public static final String EPSILON_PARAMETER_ID = PluginParameter.buildId(HitsCentralityPlugin.class, "epsilon");
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(HitsCentralityPlugin.class, "normalise_available");
+    public static final String WARM_START_PARAMETER_ID = PluginParameter.buildId(HitsCentralityPlugin.class, "warm_start");
 
     @Override
     public PluginParameters createParameters() {
@@ -75,6 +77,12 @@ public class HitsCentralityPlugin extends SimpleEditPlugin {
         normaliseByAvailableParameter.setBooleanValue(false);
         parameters.addParameter(normaliseByAvailableParameter);
 
+        final PluginParameter<BooleanParameterValue> warmStartParameter = BooleanParameterType.build(WARM_START_PARAMETER_ID);
+        warmStartParameter.setName("Warm Start");
+        warmStartParameter.setDescription("Start from the scores of a previous run, if there are any");
+        warmStartParameter.setBooleanValue(false);
+        parameters.addParameter(warmStartParameter);
+
         return parameters;
     }
 
@@ -84,75 +92,33 @@ public class HitsCentralityPlugin extends SimpleEditPlugin {
         final float epsilon = parameters.getFloatValue(EPSILON_PARAMETER_ID);
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
 
-        final double[] authorities = new double[graph.getVertexCapacity()];
-        Arrays.fill(authorities, 1);
-        final double[] hubs = new double[graph.getVertexCapacity()];
-        Arrays.fill(hubs, 1);
-
-        final int vertexCount = graph.getVertexCount();
-        for (int iteration = 0; iteration < iterations; iteration++) {
-            double authorityNorm = 0;
-            double authorityDelta = 0;
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                final int vertexId = graph.getVertex(vertexPosition);
-                final double previousAuthority = authorities[vertexPosition];
-                authorities[vertexPosition] = 0;
-
-                final int transactionCount = graph.getVertexTransactionCount(vertexId);
-                for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
-                    final int transactionId = graph.getVertexTransaction(vertexId, transactionPosition);
-                    final int sourceVertexId = graph.getTransactionSourceVertex(transactionId);
-                    final int destinationVertexId = graph.getTransactionDestinationVertex(transactionId);
-                    if (sourceVertexId != destinationVertexId) {
-                        final int otherVertexId = vertexId == sourceVertexId ? destinationVertexId : sourceVertexId;
-                        if ((vertexId < otherVertexId && graph.getTransactionDirection(transactionId) == GraphConstants.DOWNHILL)
-                                || (vertexId > otherVertexId && graph.getTransactionDirection(transactionId) == GraphConstants.UPHILL)) {
-                            authorities[vertexPosition] += hubs[otherVertexId];
-                        }
-                    }
-                    authorityDelta += Math.abs(previousAuthority - authorities[vertexPosition]);
-                }
-                authorityNorm += Math.pow(authorities[vertexPosition], 2);
-            }
-            authorityNorm = Math.sqrt(authorityNorm);
+        final boolean warmStart = parameters.getBooleanValue(WARM_START_PARAMETER_ID);
 
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                authorities[vertexPosition] /= authorityNorm;
-            }
+        // authorities are pointed to by hubs, and hubs point to authorities
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        final int[] outgoingCounts = adjacency.getOutgoingCounts();
+        final int[] incomingCounts = adjacency.getIncomingCounts();
+        final SparseMatrix incoming = SparseMatrix.fromAdjacency(adjacency, entry -> incomingCounts[entry]);
+        final SparseMatrix outgoing = SparseMatrix.fromAdjacency(adjacency, entry -> outgoingCounts[entry]);
 
-            double hubNorm = 0;
-            double hubDelta = 0;
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                final int vertexId = graph.getVertex(vertexPosition);
-                final double previousHub = hubs[vertexPosition];
-                hubs[vertexPosition] = 0;
-
-                final int transactionCount = graph.getVertexTransactionCount(vertexId);
-                for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
-                    final int transactionId = graph.getVertexTransaction(vertexId, transactionPosition);
-                    final int sourceVertexId = graph.getTransactionSourceVertex(transactionId);
-                    final int destinationVertexId = graph.getTransactionDestinationVertex(transactionId);
-                    if (sourceVertexId != destinationVertexId) {
-                        final int otherVertexId = vertexId == sourceVertexId ? destinationVertexId : sourceVertexId;
-                        if ((vertexId < otherVertexId && graph.getTransactionDirection(transactionId) == GraphConstants.UPHILL)
-                                || (vertexId > otherVertexId && graph.getTransactionDirection(transactionId) == GraphConstants.DOWNHILL)) {
-                            hubs[vertexPosition] += authorities[otherVertexId];
-                        }
-                    }
-                    hubDelta += Math.abs(previousHub - hubs[vertexPosition]);
-                }
-                hubNorm += Math.pow(hubs[vertexPosition], 2);
-            }
-            hubNorm = Math.sqrt(hubNorm);
+        // authorities and hubs are iterated together, with the authorities
+        // followed by the hubs in a single array
+        final int vertexCount = graph.getVertexCount();
+        final double[] scores = new double[vertexCount * 2];
+        if (!warmStart || !PowerIteration.readStoredScores(graph, HITS_AUTHORITY_ATTRIBUTE.get(graph), scores, 0, vertexCount)
+                || !PowerIteration.readStoredScores(graph, HITS_HUB_ATTRIBUTE.get(graph), scores, vertexCount, vertexCount)) {
+            Arrays.fill(scores, 1);
+        }
 
-            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                hubs[vertexPosition] /= hubNorm;
-            }
+        PowerIteration.iterate(scores, (current, next) -> {
+            incoming.multiply(current, vertexCount, next, 0);
+            normalise(next, 0, vertexCount);
+            outgoing.multiply(next, 0, next, vertexCount);
+            normalise(next, vertexCount, vertexCount);
+        }, iterations, epsilon);
 
-            if (authorityDelta < epsilon || hubDelta < epsilon) {
-                break;
-            }
-        }
+        final double[] authorities = Arrays.copyOfRange(scores, 0, vertexCount);
+        final double[] hubs = Arrays.copyOfRange(scores, vertexCount, vertexCount * 2);
 
         if (normaliseByAvailable) {
             double maxAuthority = 0;
@@ -173,10 +139,29 @@ public class HitsCentralityPlugin extends SimpleEditPlugin {
         // update the graph with hits values
         final int hitsAuthorityAttribute = HITS_AUTHORITY_ATTRIBUTE.ensure(graph);
         final int hitsHubAttribute = HITS_HUB_ATTRIBUTE.ensure(graph);
+        final int[] vertexIds = new int[vertexCount];
+        final float[] authorityValues = new float[vertexCount];
+        final float[] hubValues = new float[vertexCount];
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-            final int vertexId = graph.getVertex(vertexPosition);
-            graph.setFloatValue(hitsAuthorityAttribute, vertexId, (float) authorities[vertexPosition]);
-            graph.setFloatValue(hitsHubAttribute, vertexId, (float) hubs[vertexPosition]);
+            vertexIds[vertexPosition] = graph.getVertex(vertexPosition);
+            authorityValues[vertexPosition] = (float) authorities[vertexPosition];
+            hubValues[vertexPosition] = (float) hubs[vertexPosition];
+        }
+        graph.setFloatValues(hitsAuthorityAttribute, vertexIds, authorityValues);
+        graph.setFloatValues(hitsHubAttribute, vertexIds, hubValues);
+    }
+
+    private static void normalise(final double[] scores, final int from, final int length) {
+        double norm = 0;
+        for (int index = from; index < from + length; index++) {
+            norm += scores[index] * scores[index];
+        }
+        norm = Math.sqrt(norm);
+
+        if (norm > 0) {
+            for (int index = from; index < from + length; index++) {
+                scores[index] /= norm;
+            }
         }
     }
 }
@@ -20,6 +20,8 @@ import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import au.gov.asd.tac.constellation.plugins.algorithms.GraphAdjacency;
+import au.gov.asd.tac.constellation.plugins.algorithms.SparseMatrix;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
@@ -53,6 +55,7 @@ public class KatzCentralityPlugin extends SimpleEditPlugin {
     public static final String EPSILON_PARAMETER_ID = PluginParameter.buildId(KatzCentralityPlugin.class, "epsilon");
     public static final String NORMALISE_POSSIBLE_PARAMETER_ID = PluginParameter.buildId(KatzCentralityPlugin.class, "normalise_possible");
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(KatzCentralityPlugin.class, "normalise_available");
+    public static final String WARM_START_PARAMETER_ID = PluginParameter.buildId(KatzCentralityPlugin.class, "warm_start");
 
     @Override
     public PluginParameters createParameters() {
@@ -94,6 +97,12 @@ public class KatzCentralityPlugin extends SimpleEditPlugin {
         normaliseByAvailableParameter.setBooleanValue(false);
         parameters.addParameter(normaliseByAvailableParameter);
 
+        final PluginParameter<BooleanParameterValue> warmStartParameter = BooleanParameterType.build(WARM_START_PARAMETER_ID);
+        warmStartParameter.setName("Warm Start");
+        warmStartParameter.setDescription("Start from the scores of a previous run, if there are any");
+        warmStartParameter.setBooleanValue(false);
+        parameters.addParameter(warmStartParameter);
+
         return parameters;
     }
 
@@ -105,62 +114,48 @@ public class KatzCentralityPlugin extends SimpleEditPlugin {
         final float epsilon = parameters.getFloatValue(EPSILON_PARAMETER_ID);
         final boolean normaliseByPossible = parameters.getBooleanValue(NORMALISE_POSSIBLE_PARAMETER_ID);
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
+        final boolean warmStart = parameters.getBooleanValue(WARM_START_PARAMETER_ID);
 
         assert !normaliseByPossible || !normaliseByAvailable : "You should only select one method of normalisation";
 
         // initialise katz values
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        final SparseMatrix neighbours = SparseMatrix.fromAdjacency(adjacency, entry -> 1);
         final int vertexCount = graph.getVertexCount();
-        final double[] tempKatz = new double[graph.getVertexCapacity()];
-        final double[] katz = new double[graph.getVertexCapacity()];
-        Arrays.fill(katz, 1.0 / vertexCount);
+        final double[] katz = new double[vertexCount];
+        if (!warmStart || !PowerIteration.readStoredScores(graph, KATZ_ATTRIBUTE.get(graph), katz, 0, 1)) {
+            Arrays.fill(katz, 1.0 / vertexCount);
+        }
 
         // calculate katz for each vertex
-        for (int iteration = 0; iteration < iterations; iteration++) {
-            Arrays.fill(tempKatz, 0);
+        PowerIteration.iterate(katz, (current, next) -> {
+            neighbours.multiply(current, 0, next, 0);
 
             double sumSquaredKatz = 0;
             double maxKatz = 0;
-            double delta = 0;
             for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                final int vertexId = graph.getVertex(vertexPosition);
-
-                final int neighbourCount = graph.getVertexNeighbourCount(vertexId);
-                for (int vertexNeighbourPosition = 0; vertexNeighbourPosition < neighbourCount; vertexNeighbourPosition++) {
-                    final int neighbourId = graph.getVertexNeighbour(vertexId, vertexNeighbourPosition);
-                    final int neighbourPosition = graph.getVertexPosition(neighbourId);
-                    if (vertexId != neighbourId) {
-                        tempKatz[neighbourPosition] += katz[vertexPosition];
-                    }
-                }
-            }
-
-            for (int vertexPosition = 0; vertexPosition < graph.getVertexCount(); vertexPosition++) {
-                tempKatz[vertexPosition] = (alpha * tempKatz[vertexPosition]) + beta;
-                sumSquaredKatz += Math.pow(tempKatz[vertexPosition], 2);
-                maxKatz = Math.max(tempKatz[vertexPosition], maxKatz);
-                delta += Math.abs(katz[vertexPosition] - tempKatz[vertexPosition]);
+                next[vertexPosition] = (alpha * next[vertexPosition]) + beta;
+                sumSquaredKatz += Math.pow(next[vertexPosition], 2);
+                maxKatz = Math.max(next[vertexPosition], maxKatz);
             }
 
             for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
                 if (normaliseByPossible) {
-                    katz[vertexPosition] = tempKatz[vertexPosition] / Math.sqrt(sumSquaredKatz);
+                    next[vertexPosition] /= Math.sqrt(sumSquaredKatz);
                 } else if (normaliseByAvailable && maxKatz > 0) {
-                    katz[vertexPosition] = tempKatz[vertexPosition] / maxKatz;
-                } else {
-                    katz[vertexPosition] = tempKatz[vertexPosition];
+                    next[vertexPosition] /= maxKatz;
                 }
             }
-
-            if (delta < epsilon) {
-                break;
-            }
-        }
+        }, iterations, epsilon);
 
         // update the graph with katz values
         final int katzAttribute = KATZ_ATTRIBUTE.ensure(graph);
+        final int[] vertexIds = new int[vertexCount];
+        final float[] values = new float[vertexCount];
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-            final int vertexId = graph.getVertex(vertexPosition);
-            graph.setFloatValue(katzAttribute, vertexId, (float) katz[vertexPosition]);
+            vertexIds[vertexPosition] = graph.getVertex(vertexPosition);
+            values[vertexPosition] = (float) katz[vertexPosition];
         }
+        graph.setFloatValues(katzAttribute, vertexIds, values);
     }
 }
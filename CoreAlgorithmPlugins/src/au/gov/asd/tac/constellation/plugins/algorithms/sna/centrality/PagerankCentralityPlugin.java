@@ -21,6 +21,8 @@ import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import au.gov.asd.tac.constellation.plugins.algorithms.GraphAdjacency;
+import au.gov.asd.tac.constellation.plugins.algorithms.SparseMatrix;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
@@ -31,12 +33,7 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.FloatParameterType.
 import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType;
 import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -58,6 +55,7 @@ public class PagerankCentralityPlugin extends SimpleEditPlugin {
     public static final String ITERATIONS_PARAMETER_ID = PluginParameter.buildId(PagerankCentralityPlugin.class, "iterations");
     public static final String EPSILON_PARAMETER_ID = PluginParameter.buildId(PagerankCentralityPlugin.class, "epsilon");
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(PagerankCentralityPlugin.class, "normalise_available");
+    public static final String WARM_START_PARAMETER_ID = PluginParameter.buildId(PagerankCentralityPlugin.class, "warm_start");
 
     @Override
     public PluginParameters createParameters() {
@@ -93,6 +91,12 @@ public class PagerankCentralityPlugin extends SimpleEditPlugin {
         normaliseByAvailableParameter.setBooleanValue(false);
         parameters.addParameter(normaliseByAvailableParameter);
 
+        final PluginParameter<BooleanParameterValue> warmStartParameter = BooleanParameterType.build(WARM_START_PARAMETER_ID);
+        warmStartParameter.setName("Warm Start");
+        warmStartParameter.setDescription("Start from the scores of a previous run, if there are any");
+        warmStartParameter.setBooleanValue(false);
+        parameters.addParameter(warmStartParameter);
+
         return parameters;
     }
 
@@ -104,109 +108,70 @@ public class PagerankCentralityPlugin extends SimpleEditPlugin {
         final float epsilon = parameters.getFloatValue(EPSILON_PARAMETER_ID);
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
 
-        // identify incoming connections and store connected vertices and their outgoing connection count
-        final Set<Integer> verticesWithZeroOutLinks = new HashSet<>();
-        final Map<Integer, Set<Tuple<Integer, Integer>>> vertexInLinks = new HashMap<>();
+        final boolean warmStart = parameters.getBooleanValue(WARM_START_PARAMETER_ID);
+
+        // count the outgoing transactions of each vertex
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        final int[] offsets = adjacency.getOffsets();
+        final int[] neighbours = adjacency.getNeighbours();
+        final int[] outgoingCounts = adjacency.getOutgoingCounts();
+        final int[] undirectedCounts = adjacency.getUndirectedCounts();
         final int vertexCount = graph.getVertexCount();
+        final int[] outCounts = new int[vertexCount];
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-            final int vertexId = graph.getVertex(vertexPosition);
-            vertexInLinks.put(vertexId, new HashSet<>());
-
-            if (graph.getVertexEdgeCount(vertexId, GraphConstants.OUTGOING) == 0) {
-                verticesWithZeroOutLinks.add(vertexId);
-            }
-
-            final int linkCount = graph.getVertexLinkCount(vertexId);
-            for (int linkPosition = 0; linkPosition < linkCount; linkPosition++) {
-                final int linkId = graph.getVertexLink(vertexId, linkPosition);
-                final int linkLowId = graph.getLinkLowVertex(linkId);
-                final int linkHighId = graph.getLinkHighVertex(linkId);
-                if (linkLowId != linkHighId) {
-                    final int neighbourId = vertexId == linkLowId ? linkHighId : linkLowId;
-                    final int edgeCount = graph.getLinkEdgeCount(linkId);
-                    for (int edgePosition = 0; edgePosition < edgeCount; edgePosition++) {
-                        final int edgeId = graph.getLinkEdge(linkId, edgePosition);
-                        final int edgeDirection = graph.getEdgeDirection(edgeId);
-                        if ((treatUndirectedBidirectional && edgeDirection == GraphConstants.FLAT)
-                                || (vertexId < neighbourId && edgeDirection == GraphConstants.DOWNHILL)
-                                || (vertexId > neighbourId && edgeDirection == GraphConstants.UPHILL)) {
-                            int neighbourOutCount = 0;
-                            final int transactionCount = graph.getVertexTransactionCount(neighbourId);
-                            for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
-                                final int transactionId = graph.getVertexTransaction(neighbourId, transactionPosition);
-                                final int transactionDirection = graph.getTransactionDirection(transactionId);
-                                final int transactionSourceId = graph.getTransactionSourceVertex(transactionId);
-                                final int transactionDestinationId = graph.getTransactionDestinationVertex(transactionId);
-                                if (transactionSourceId != transactionDestinationId) {
-                                    final int otherId = neighbourId == transactionSourceId ? transactionDestinationId : transactionSourceId;
-                                    if ((treatUndirectedBidirectional && transactionDirection == GraphConstants.FLAT)
-                                            || (neighbourId < otherId && transactionDirection == GraphConstants.UPHILL)
-                                            || (neighbourId > otherId && transactionDirection == GraphConstants.DOWNHILL)) {
-                                        neighbourOutCount++;
-                                    }
-                                }
-                            }
-
-                            vertexInLinks.get(vertexId).add(Tuple.create(neighbourId, neighbourOutCount));
-                        }
-                    }
-                }
+            for (int entry = offsets[vertexPosition]; entry < offsets[vertexPosition + 1]; entry++) {
+                outCounts[vertexPosition] += outgoingCounts[entry] + (treatUndirectedBidirectional ? undirectedCounts[entry] : 0);
             }
         }
 
+        // each vertex receives an equal share of the pagerank of each vertex linking to it
+        final SparseMatrix inLinks = SparseMatrix.fromAdjacency(adjacency,
+                entry -> adjacency.isIncoming(entry, treatUndirectedBidirectional) ? 1.0 / outCounts[neighbours[entry]] : 0);
+
         // handle dangling vertices by linking them to all pages
-        for (final int neighbourId : verticesWithZeroOutLinks) {
-            final int updatedCount = vertexInLinks.size();
-            for (final int vertexId : vertexInLinks.keySet()) {
-                vertexInLinks.get(vertexId).add(Tuple.create(neighbourId, updatedCount));
-            }
+        final boolean[] dangling = new boolean[vertexCount];
+        for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
+            dangling[vertexPosition] = graph.getVertexEdgeCount(graph.getVertex(vertexPosition), GraphConstants.OUTGOING) == 0;
         }
 
         // initialise pagerank values
-        final double[] tempPageranks = new double[graph.getVertexCapacity()];
-        final double[] pageranks = new double[graph.getVertexCapacity()];
-        Arrays.fill(pageranks, (double) 1 / vertexInLinks.size());
+        final double[] pageranks = new double[vertexCount];
+        if (!warmStart || !PowerIteration.readStoredScores(graph, PAGERANK_ATTRIBUTE.get(graph), pageranks, 0, 1)) {
+            Arrays.fill(pageranks, (double) 1 / vertexCount);
+        }
 
         // calculate pagerank for each vertex
-        for (int iteration = 0; iteration < iterations; iteration++) {
-            Arrays.fill(tempPageranks, 0);
-
-            double maxPagerank = 0;
-            double delta = 0;
-            for (final int vertexId : vertexInLinks.keySet()) {
-                double neighbourContribution = 0.0;
-                final Set<Tuple<Integer, Integer>> neighbours = vertexInLinks.get(vertexId);
-                for (final Tuple<Integer, Integer> neighbour : neighbours) {
-                    final int neighbourId = neighbour.getFirst();
-                    final int neighbourOutCount = neighbour.getSecond();
-                    final int neighbourPosition = graph.getVertexPosition(neighbourId);
-                    neighbourContribution += (pageranks[neighbourPosition] / neighbourOutCount);
+        PowerIteration.iterate(pageranks, (current, next) -> {
+            double danglingContribution = 0;
+            for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
+                if (dangling[vertexPosition]) {
+                    danglingContribution += current[vertexPosition] / vertexCount;
                 }
-
-                final int vertexPosition = graph.getVertexPosition(vertexId);
-                tempPageranks[vertexPosition] = ((1 - dampingFactor) / vertexInLinks.size()) + (dampingFactor * neighbourContribution);
-                maxPagerank = Math.max(tempPageranks[vertexPosition], maxPagerank);
-                delta += Math.abs(pageranks[vertexPosition] - tempPageranks[vertexPosition]);
             }
 
+            inLinks.multiply(current, 0, next, 0);
+
+            double maxPagerank = 0;
             for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                if (normaliseByAvailable && maxPagerank > 0) {
-                    pageranks[vertexPosition] = tempPageranks[vertexPosition] / maxPagerank;
-                } else {
-                    pageranks[vertexPosition] = tempPageranks[vertexPosition];
-                }
+                next[vertexPosition] = ((1 - dampingFactor) / vertexCount) + (dampingFactor * (next[vertexPosition] + danglingContribution));
+                maxPagerank = Math.max(next[vertexPosition], maxPagerank);
             }
 
-            if (delta < epsilon) {
-                break;
+            if (normaliseByAvailable && maxPagerank > 0) {
+                for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
+                    next[vertexPosition] /= maxPagerank;
+                }
             }
-        }
+        }, iterations, epsilon);
 
         // update the graph with pagerank values
         final int pagerankAttribute = PAGERANK_ATTRIBUTE.ensure(graph);
+        final int[] vertexIds = new int[vertexCount];
+        final float[] values = new float[vertexCount];
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-            final int vertexId = graph.getVertex(vertexPosition);
-            graph.setFloatValue(pagerankAttribute, vertexId, (float) pageranks[vertexPosition]);
+            vertexIds[vertexPosition] = graph.getVertex(vertexPosition);
+            values[vertexPosition] = (float) pageranks[vertexPosition];
         }
+        graph.setFloatValues(pagerankAttribute, vertexIds, values);
     }
 }
@@ -0,0 +1,463 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
+
+import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.plugins.algorithms.GraphAdjacency;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Shortest path scores calculated with Brandes' algorithm.
+ * <p>
+ * Each source vertex is visited by a single breadth first search over a
+ * {@link GraphAdjacency} snapshot, counting the shortest paths to every other
+ * vertex and then accumulating the dependency of the source on each vertex in
+ * reverse order of distance. Sources are divided between the tasks of the
+ * common fork-join pool, and each task keeps its own primitive buffers, so
+ * memory is linear in the size of the graph rather than quadratic in the
+ * number of vertices.
+ * <p>
+ * Betweenness can be estimated from a uniform sample of k sources, scaled up
+ * by the ratio of all sources to sampled sources. Each sampled source adds a
+ * dependency between 0 and n - 2 to a vertex, so by Hoeffding's inequality the
+ * estimate for any one vertex is within {@code ε · N · (n - 2)} of the exact
+ * score, where N is the number of possible sources, with probability at least
+ * {@code 1 - 2 exp(-2kε²)}. For example, 18,445 sources give an error of at
+ * most 1% of the maximum possible score with 95% confidence, regardless of
+ * the size of the graph.
+ * <p>
+ * Scores match those of {@link PathScoringUtilities} for the same score type:
+ * only paths between selected vertices count when selected only is requested,
+ * but those paths may pass through any vertex.
+ *
+ * @author sirius
+ */
+public final class ShortestPathScoring {
+
+    private static final String OUT_OF_BOUNDS_EXCEPTION_STRING = "The 'selected' attribute does not exist on the given graph.";
+
+    // Sampling is repeatable so that running an analytic twice on the same
+    // graph gives the same scores.
+    private static final long SAMPLE_SEED = 0x5EEDL;
+
+    // The number of tasks to divide sources between for each worker thread,
+    // which balances the load when some sources reach more of the graph.
+    private static final int TASKS_PER_THREAD = 4;
+
+    private ShortestPathScoring() {
+    }
+
+    /**
+     * Calculate the betweenness of each vertex of a graph: the number of
+     * shortest paths between ordered pairs of other vertices which pass
+     * through it, where pairs joined by several shortest paths contribute the
+     * fraction of those paths passing through the vertex.
+     *
+     * @param graph The graph.
+     * @param includeConnectionsIn Include incoming connections.
+     * @param includeConnectionsOut Include outgoing connections.
+     * @param treatUndirectedBidirectional Treat undirected connections as
+     * bidirectional when only one direction is included.
+     * @param selectedOnly Only count paths between selected vertices.
+     * @param sampleSize The number of sources to estimate betweenness from, or
+     * 0 to calculate it exactly from all sources.
+     * @return The betweenness of each vertex, indexed by vertex position.
+     */
+    public static float[] calculateBetweenness(final GraphReadMethods graph, final boolean includeConnectionsIn, final boolean includeConnectionsOut,
+            final boolean treatUndirectedBidirectional, final boolean selectedOnly, final int sampleSize) {
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        final boolean[] targets = getTargets(graph, selectedOnly);
+
+        int[] sources = getSources(targets);
+        final int sourceCount = sources.length;
+        if (sampleSize > 0 && sampleSize < sourceCount) {
+            // A partial Fisher-Yates shuffle picks the sample without replacement.
+            final Random random = new Random(SAMPLE_SEED);
+            for (int i = 0; i < sampleSize; i++) {
+                final int j = i + random.nextInt(sourceCount - i);
+                final int source = sources[j];
+                sources[j] = sources[i];
+                sources[i] = source;
+            }
+            sources = Arrays.copyOf(sources, sampleSize);
+        }
+
+        final double[] totals = ForkJoinPool.commonPool().invoke(new ScoringTask(adjacency, includeConnectionsIn && includeConnectionsOut, includeConnectionsOut,
+                treatUndirectedBidirectional, targets, sources, 0, sources.length, getThreshold(sources.length), null, false));
+
+        final double scale = sources.length == 0 ? 0 : (double) sourceCount / sources.length;
+        final float[] scores = new float[totals.length];
+        for (int position = 0; position < totals.length; position++) {
+            scores[position] = (float) (totals[position] * scale);
+        }
+
+        return scores;
+    }
+
+    /**
+     * Calculate the closeness of each vertex of a graph.
+     * <p>
+     * Closeness is the inverse of the sum of the distances to each vertex
+     * reachable from a vertex, or 0 if no vertex is reachable. Harmonic
+     * closeness is the sum of the inverse of those distances, divided by the
+     * number of vertices on the graph. When incoming and outgoing connections
+     * are both included, harmonic closeness counts each path once from either
+     * end, as {@link PathScoringUtilities} does.
+     *
+     * @param graph The graph.
+     * @param harmonic Calculate harmonic closeness.
+     * @param includeConnectionsIn Include incoming connections.
+     * @param includeConnectionsOut Include outgoing connections.
+     * @param treatUndirectedBidirectional Treat undirected connections as
+     * bidirectional when only one direction is included.
+     * @param selectedOnly Only count distances to selected vertices.
+     * @return The closeness of each vertex, indexed by vertex position.
+     */
+    public static float[] calculateCloseness(final GraphReadMethods graph, final boolean harmonic, final boolean includeConnectionsIn, final boolean includeConnectionsOut,
+            final boolean treatUndirectedBidirectional, final boolean selectedOnly) {
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        final boolean[] targets = getTargets(graph, selectedOnly);
+
+        final int vertexCount = adjacency.getVertexCount();
+        final int[] sources = new int[vertexCount];
+        for (int position = 0; position < vertexCount; position++) {
+            sources[position] = position;
+        }
+
+        final float[] scores = new float[vertexCount];
+        ForkJoinPool.commonPool().invoke(new ScoringTask(adjacency, includeConnectionsIn && includeConnectionsOut, includeConnectionsOut,
+                treatUndirectedBidirectional, targets, sources, 0, vertexCount, getThreshold(vertexCount), scores, harmonic));
+
+        for (int position = 0; position < vertexCount; position++) {
+            if (scores[position] != 0) {
+                scores[position] = harmonic ? scores[position] / vertexCount : 1 / scores[position];
+            }
+        }
+
+        return scores;
+    }
+
+    /**
+     * Label the connected components of a graph, ignoring the direction of
+     * its connections.
+     *
+     * @param graph The graph.
+     * @return The component of each vertex, indexed by vertex position.
+     * Components are numbered from 0 in order of their first vertex.
+     */
+    public static int[] calculateComponents(final GraphReadMethods graph) {
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        final int[] offsets = adjacency.getOffsets();
+        final int[] neighbours = adjacency.getNeighbours();
+
+        final int vertexCount = adjacency.getVertexCount();
+        final int[] components = new int[vertexCount];
+        Arrays.fill(components, -1);
+        final int[] queue = new int[vertexCount];
+        int componentCount = 0;
+        for (int root = 0; root < vertexCount; root++) {
+            if (components[root] != -1) {
+                continue;
+            }
+
+            components[root] = componentCount;
+            queue[0] = root;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                final int position = queue[head++];
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    final int neighbour = neighbours[entry];
+                    if (components[neighbour] == -1) {
+                        components[neighbour] = componentCount;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+            componentCount++;
+        }
+
+        return components;
+    }
+
+    /**
+     * Count the vertices of each connected component.
+     *
+     * @param graph The graph.
+     * @param components The component of each vertex, as returned by
+     * {@link #calculateComponents}.
+     * @param selectedOnly Only count selected vertices.
+     * @return The number of vertices in each component, indexed by component.
+     */
+    public static int[] countComponentVertices(final GraphReadMethods graph, final int[] components, final boolean selectedOnly) {
+        final boolean[] targets = getTargets(graph, selectedOnly);
+        int componentCount = 0;
+        for (final int component : components) {
+            componentCount = Math.max(componentCount, component + 1);
+        }
+
+        final int[] counts = new int[componentCount];
+        for (int position = 0; position < components.length; position++) {
+            if (targets[position]) {
+                counts[components[position]]++;
+            }
+        }
+
+        return counts;
+    }
+
+    private static boolean[] getTargets(final GraphReadMethods graph, final boolean selectedOnly) {
+        final int vertexCount = graph.getVertexCount();
+        final boolean[] targets = new boolean[vertexCount];
+        if (!selectedOnly) {
+            Arrays.fill(targets, true);
+            return targets;
+        }
+
+        final int selectedAttribute = VisualConcept.VertexAttribute.SELECTED.get(graph);
+        if (selectedAttribute == GraphConstants.NOT_FOUND) {
+            throw new ArrayIndexOutOfBoundsException(OUT_OF_BOUNDS_EXCEPTION_STRING);
+        }
+        for (int position = 0; position < vertexCount; position++) {
+            targets[position] = graph.getBooleanValue(selectedAttribute, graph.getVertex(position));
+        }
+
+        return targets;
+    }
+
+    private static int[] getSources(final boolean[] targets) {
+        int sourceCount = 0;
+        for (final boolean target : targets) {
+            if (target) {
+                sourceCount++;
+            }
+        }
+
+        final int[] sources = new int[sourceCount];
+        int source = 0;
+        for (int position = 0; position < targets.length; position++) {
+            if (targets[position]) {
+                sources[source++] = position;
+            }
+        }
+
+        return sources;
+    }
+
+    private static int getThreshold(final int sourceCount) {
+        final int taskCount = ForkJoinPool.getCommonPoolParallelism() * TASKS_PER_THREAD;
+        return Math.max(1, (sourceCount + taskCount - 1) / taskCount);
+    }
+
+    /**
+     * Visit a range of sources, splitting it between subtasks until it is
+     * small enough to visit with one set of buffers. Betweenness totals are
+     * returned and summed as the subtasks join; closeness scores are written
+     * straight into the shared array, as each source only scores itself.
+     */
+    private static final class ScoringTask extends RecursiveTask<double[]> {
+
+        private final GraphAdjacency adjacency;
+        private final boolean undirected;
+        private final boolean forwardOut;
+        private final boolean treatUndirectedBidirectional;
+        private final boolean[] targets;
+        private final int[] sources;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final float[] closeness;
+        private final boolean harmonic;
+
+        private ScoringTask(final GraphAdjacency adjacency, final boolean undirected, final boolean forwardOut, final boolean treatUndirectedBidirectional,
+                final boolean[] targets, final int[] sources, final int from, final int to, final int threshold, final float[] closeness, final boolean harmonic) {
+            this.adjacency = adjacency;
+            this.undirected = undirected;
+            this.forwardOut = forwardOut;
+            this.treatUndirectedBidirectional = treatUndirectedBidirectional;
+            this.targets = targets;
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.closeness = closeness;
+            this.harmonic = harmonic;
+        }
+
+        private ScoringTask split(final int splitFrom, final int splitTo) {
+            return new ScoringTask(adjacency, undirected, forwardOut, treatUndirectedBidirectional, targets, sources, splitFrom, splitTo, threshold, closeness, harmonic);
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > threshold) {
+                final int middle = (from + to) >>> 1;
+                final ScoringTask left = split(from, middle);
+                left.fork();
+                final double[] rightTotals = split(middle, to).compute();
+                final double[] leftTotals = left.join();
+                if (leftTotals != null) {
+                    for (int position = 0; position < leftTotals.length; position++) {
+                        leftTotals[position] += rightTotals[position];
+                    }
+                }
+                return leftTotals;
+            }
+
+            final int vertexCount = adjacency.getVertexCount();
+            final int[] distances = new int[vertexCount];
+            Arrays.fill(distances, -1);
+            final int[] order = new int[vertexCount];
+            final double[] pathCounts;
+            final double[] dependencies;
+            final double[] totals;
+            if (closeness == null) {
+                pathCounts = new double[vertexCount];
+                dependencies = new double[vertexCount];
+                totals = new double[vertexCount];
+            } else {
+                pathCounts = null;
+                dependencies = null;
+                totals = null;
+            }
+
+            for (int index = from; index < to; index++) {
+                final int source = sources[index];
+                final int reached = search(source, distances, order, pathCounts);
+                if (closeness == null) {
+                    accumulateDependencies(source, reached, distances, order, pathCounts, dependencies, totals);
+                } else {
+                    closeness[source] = harmonic ? sumInverseDistances(source, reached, distances, order) : sumDistances(reached, distances, order);
+                }
+
+                // Only reset what this source reached.
+                for (int i = 0; i < reached; i++) {
+                    distances[order[i]] = -1;
+                }
+            }
+
+            return totals;
+        }
+
+        /**
+         * Breadth first search from a source, recording the distance to and,
+         * if required, the number of shortest paths to each vertex reached,
+         * and the order in which vertices were reached.
+         *
+         * @return The number of vertices reached, including the source.
+         */
+        private int search(final int source, final int[] distances, final int[] order, final double[] pathCounts) {
+            final int[] offsets = adjacency.getOffsets();
+            final int[] neighbours = adjacency.getNeighbours();
+
+            distances[source] = 0;
+            if (pathCounts != null) {
+                pathCounts[source] = 1;
+            }
+            order[0] = source;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                final int position = order[head++];
+                final int nextDistance = distances[position] + 1;
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    if (!isForward(entry)) {
+                        continue;
+                    }
+
+                    final int neighbour = neighbours[entry];
+                    if (distances[neighbour] == -1) {
+                        distances[neighbour] = nextDistance;
+                        order[tail++] = neighbour;
+                        if (pathCounts != null) {
+                            pathCounts[neighbour] = 0;
+                        }
+                    }
+                    if (pathCounts != null && distances[neighbour] == nextDistance) {
+                        pathCounts[neighbour] += pathCounts[position];
+                    }
+                }
+            }
+
+            return tail;
+        }
+
+        private void accumulateDependencies(final int source, final int reached, final int[] distances, final int[] order,
+                final double[] pathCounts, final double[] dependencies, final double[] totals) {
+            final int[] offsets = adjacency.getOffsets();
+            final int[] neighbours = adjacency.getNeighbours();
+
+            for (int i = 0; i < reached; i++) {
+                dependencies[order[i]] = 0;
+            }
+
+            // Vertices further from the source are complete before their
+            // predecessors on shortest paths are visited.
+            for (int i = reached - 1; i > 0; i--) {
+                final int position = order[i];
+                final double coefficient = ((targets[position] ? 1 : 0) + dependencies[position]) / pathCounts[position];
+                final int previousDistance = distances[position] - 1;
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    final int neighbour = neighbours[entry];
+                    if (distances[neighbour] == previousDistance && isBackward(entry)) {
+                        dependencies[neighbour] += pathCounts[neighbour] * coefficient;
+                    }
+                }
+                totals[position] += dependencies[position];
+            }
+        }
+
+        private float sumDistances(final int reached, final int[] distances, final int[] order) {
+            long farness = 0;
+            for (int i = 1; i < reached; i++) {
+                final int position = order[i];
+                if (targets[position]) {
+                    farness += distances[position];
+                }
+            }
+            return farness;
+        }
+
+        private float sumInverseDistances(final int source, final int reached, final int[] distances, final int[] order) {
+            // Accumulating in order of distance keeps the rounding the same
+            // as the level by level accumulation of PathScoringUtilities.
+            float farness = 0;
+            for (int i = 1; i < reached; i++) {
+                final int position = order[i];
+                if (targets[position]) {
+                    farness += 1.0 / distances[position];
+                }
+                if (undirected && targets[source]) {
+                    farness += 1.0 / distances[position];
+                }
+            }
+            return farness;
+        }
+
+        private boolean isForward(final int entry) {
+            return undirected || (forwardOut ? adjacency.isOutgoing(entry, treatUndirectedBidirectional) : adjacency.isIncoming(entry, treatUndirectedBidirectional));
+        }
+
+        private boolean isBackward(final int entry) {
+            return undirected || (forwardOut ? adjacency.isIncoming(entry, treatUndirectedBidirectional) : adjacency.isOutgoing(entry, treatUndirectedBidirectional));
+        }
+    }
+}
@@ -21,19 +21,27 @@ import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.algorithms.MatrixUtilities;
+import au.gov.asd.tac.constellation.plugins.algorithms.SparseMatrix;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType.BooleanParameterValue;
+import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType;
+import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import org.ejml.simple.SimpleMatrix;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
 /**
  * Calculates effective resistance (or resistance distance) for each link.
  * Results are stored on the transactions constituting that link.
+ * <p>
+ * The Laplacian of the graph is never inverted. By default the resistance of
+ * each link is found by solving the Laplacian system for a unit current
+ * between its ends, and for large graphs the resistances can instead be
+ * estimated from a fixed number of random projections, which needs one solve
+ * per projection however many links there are.
  *
  * @author cygnus_x-1
  */
@@ -43,9 +51,11 @@ import org.openide.util.lookup.ServiceProvider;
 public class EffectiveResistancePlugin extends SimpleEditPlugin {
 
     private static final SchemaAttribute EFFECTIVE_RESISTANCE_ATTRIBUTE = SnaConcept.TransactionAttribute.EFFECTIVE_RESISTANCE;
+    private static final long PROJECTION_SEED = 0x5EEDL;
 
     public static final String WEIGHTED_PARAMETER_ID = PluginParameter.buildId(EffectiveResistancePlugin.class, "weighted");
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(EffectiveResistancePlugin.class, "normalise_available");
+    public static final String PROJECTIONS_PARAMETER_ID = PluginParameter.buildId(EffectiveResistancePlugin.class, "projections");
 
     @Override
     public PluginParameters createParameters() {
@@ -63,6 +73,13 @@ public class EffectiveResistancePlugin extends SimpleEditPlugin {
         normaliseByAvailableParameter.setBooleanValue(false);
         parameters.addParameter(normaliseByAvailableParameter);
 
+        final PluginParameter<IntegerParameterValue> projectionsParameter = IntegerParameterType.build(PROJECTIONS_PARAMETER_ID);
+        projectionsParameter.setName("Random Projections");
+        projectionsParameter.setDescription("Estimate resistances from this many random projections, or 0 to calculate them exactly");
+        projectionsParameter.setIntegerValue(0);
+        IntegerParameterType.setMinimum(projectionsParameter, 0);
+        parameters.addParameter(projectionsParameter);
+
         return parameters;
     }
 
@@ -70,8 +87,10 @@ public class EffectiveResistancePlugin extends SimpleEditPlugin {
     public void edit(final GraphWriteMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException {
         final boolean weighted = parameters.getBooleanValue(WEIGHTED_PARAMETER_ID);
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
+        final int projections = parameters.getIntegerValue(PROJECTIONS_PARAMETER_ID);
 
-        final SimpleMatrix iL = MatrixUtilities.inverseLaplacian(graph);
+        final SparseMatrix laplacian = MatrixUtilities.sparseLaplacian(graph, false);
+        final double[][] embedding = projections > 0 ? MatrixUtilities.resistanceEmbedding(laplacian, projections, PROJECTION_SEED) : null;
 
         final int linkCount = graph.getLinkCount();
         final double[] resistances = new double[linkCount];
@@ -83,12 +102,18 @@ public class EffectiveResistancePlugin extends SimpleEditPlugin {
 
             final int i = graph.getVertexPosition(lowVertexId);
             final int j = graph.getVertexPosition(highVertexId);
-            final double resistance;
-            if (weighted) {
-                final int linkTransactionCount = graph.getLinkTransactionCount(linkId);
-                resistance = linkTransactionCount * (iL.get(i, i) + iL.get(j, j) - iL.get(i, j) - iL.get(j, i));
+            double resistance;
+            if (embedding == null) {
+                interaction.setProgress(linkPosition, linkCount, "Calculating resistances...", true);
+                resistance = MatrixUtilities.effectiveResistance(laplacian, i, j);
             } else {
-                resistance = iL.get(i, i) + iL.get(j, j) - iL.get(i, j) - iL.get(j, i);
+                resistance = 0;
+                for (final double[] coordinates : embedding) {
+                    resistance += (coordinates[i] - coordinates[j]) * (coordinates[i] - coordinates[j]);
+                }
+            }
+            if (weighted) {
+                resistance *= graph.getLinkTransactionCount(linkId);
             }
 
             resistances[linkPosition] = resistance;
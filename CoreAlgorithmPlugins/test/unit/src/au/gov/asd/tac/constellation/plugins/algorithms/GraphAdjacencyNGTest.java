@@ -0,0 +1,151 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms;
+
+import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.graph.undo.UndoGraphEdit;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Graph Adjacency Test.
+ *
+ * @author sirius
+ */
+public class GraphAdjacencyNGTest {
+
+    @Test
+    public void rowsHoldNeighboursAndDirections() {
+        final StoreGraph graph = new StoreGraph();
+        final int vxId0 = graph.addVertex();
+        final int vxId1 = graph.addVertex();
+        final int vxId2 = graph.addVertex();
+        graph.addTransaction(vxId0, vxId1, true);
+        graph.addTransaction(vxId0, vxId1, true);
+        graph.addTransaction(vxId1, vxId0, true);
+        graph.addTransaction(vxId1, vxId2, false);
+        graph.addTransaction(vxId2, vxId2, true);
+
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        assertEquals(adjacency.getVertexCount(), 3);
+        assertEquals(adjacency.getOffsets(), new int[]{0, 1, 3, 4});
+        assertEquals(adjacency.getDegree(1), 2);
+
+        final int position0 = adjacency.getVertexPosition(vxId0);
+        final int entry = adjacency.getOffsets()[position0];
+        assertEquals(adjacency.getNeighbours()[entry], adjacency.getVertexPosition(vxId1));
+        assertEquals(adjacency.getOutgoingCounts()[entry], 2);
+        assertEquals(adjacency.getIncomingCounts()[entry], 1);
+        assertEquals(adjacency.getUndirectedCounts()[entry], 0);
+        assertEquals(adjacency.getWeight(entry), 3);
+
+        // The loop on vertex 2 is not included.
+        final int position2 = adjacency.getVertexPosition(vxId2);
+        final int entry2 = adjacency.getOffsets()[position2];
+        assertEquals(adjacency.getDegree(position2), 1);
+        assertEquals(adjacency.getVertexId(adjacency.getNeighbours()[entry2]), vxId1);
+        assertTrue(adjacency.isOutgoing(entry2, true));
+        assertFalse(adjacency.isOutgoing(entry2, false));
+        assertFalse(adjacency.isIncoming(entry2, false));
+    }
+
+    @Test
+    public void snapshotIsCachedUntilStructureChanges() {
+        final StoreGraph graph = new StoreGraph();
+        final int selectedAttribute = VisualConcept.VertexAttribute.SELECTED.ensure(graph);
+        final int vxId0 = graph.addVertex();
+        final int vxId1 = graph.addVertex();
+        final int vxId2 = graph.addVertex();
+        graph.addTransaction(vxId0, vxId1, false);
+        graph.addTransaction(vxId1, vxId2, false);
+        graph.setBooleanValue(selectedAttribute, vxId1, true);
+        graph.setBooleanValue(selectedAttribute, vxId2, true);
+
+        final GraphAdjacency adjacency = GraphAdjacency.get(graph, false);
+        assertSame(GraphAdjacency.get(graph, false), adjacency);
+
+        final GraphAdjacency selected = GraphAdjacency.get(graph, true);
+        assertEquals(selected.getVertexCount(), 2);
+        assertEquals(selected.getVertexPosition(vxId0), GraphConstants.NOT_FOUND);
+        assertEquals(selected.getOffsets(), new int[]{0, 1, 2});
+        assertSame(GraphAdjacency.get(graph, true), selected);
+
+        graph.setBooleanValue(selectedAttribute, vxId0, true);
+        assertEquals(GraphAdjacency.get(graph, true).getVertexCount(), 3);
+        assertSame(GraphAdjacency.get(graph, false), adjacency);
+
+        graph.addTransaction(vxId0, vxId2, false);
+        final GraphAdjacency rebuilt = GraphAdjacency.get(graph, false);
+        assertNotSame(rebuilt, adjacency);
+        assertEquals(rebuilt.getOffsets(), new int[]{0, 2, 4, 6});
+    }
+
+    @Test
+    public void undoFollowedByDifferentEditRebuildsSnapshot() {
+        final StoreGraph graph = new StoreGraph();
+        final int selectedAttribute = VisualConcept.VertexAttribute.SELECTED.ensure(graph);
+        final int vxId0 = graph.addVertex();
+        final int vxId1 = graph.addVertex();
+        final int vxId2 = graph.addVertex();
+        graph.addTransaction(vxId0, vxId1, false);
+
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        graph.addTransaction(vxId1, vxId2, false);
+        graph.setBooleanValue(selectedAttribute, vxId1, true);
+        graph.setGraphEdit(null);
+        edit.finish();
+
+        assertEquals(GraphAdjacency.get(graph, false).getOffsets(), new int[]{0, 1, 3, 4});
+        assertEquals(GraphAdjacency.get(graph, true).getVertexPosition(vxId1), 0);
+
+        // Undoing reverts the counters, so the next edit brings back the same counters and counts.
+        graph.setOperationMode(GraphOperationMode.UNDO);
+        edit.undo(graph);
+        graph.setOperationMode(GraphOperationMode.EXECUTE);
+        graph.addTransaction(vxId0, vxId2, false);
+        graph.setBooleanValue(selectedAttribute, vxId2, true);
+
+        assertEquals(GraphAdjacency.get(graph, false).getOffsets(), new int[]{0, 2, 3, 4});
+        final GraphAdjacency selected = GraphAdjacency.get(graph, true);
+        assertEquals(selected.getVertexCount(), 1);
+        assertEquals(selected.getVertexPosition(vxId1), GraphConstants.NOT_FOUND);
+        assertEquals(selected.getVertexPosition(vxId2), 0);
+    }
+
+    @Test
+    public void copiesDoNotShareSnapshots() {
+        final StoreGraph graph = new StoreGraph();
+        final int vxId0 = graph.addVertex();
+        final int vxId1 = graph.addVertex();
+        final int vxId2 = graph.addVertex();
+        final StoreGraph copy = new StoreGraph(graph);
+
+        graph.addTransaction(vxId0, vxId1, false);
+        copy.addTransaction(vxId1, vxId2, false);
+
+        assertEquals(GraphAdjacency.get(graph, false).getOffsets(), new int[]{0, 1, 2, 2});
+        assertEquals(GraphAdjacency.get(copy, false).getOffsets(), new int[]{0, 0, 1, 2});
+        assertNotSame(GraphAdjacency.get(copy, false), GraphAdjacency.get(graph, false));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms;
+
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Lanczos Eigensolver Test.
+ *
+ * @author sirius
+ */
+public class LanczosEigensolverNGTest {
+
+    private static final double DELTA = 1E-6;
+
+    @Test
+    public void cycleEigenvectorsSkipTheTrivialOne() throws InterruptedException {
+        // The adjacency of a cycle of n vertices has eigenvalues 2cos(2 pi k / n),
+        // the largest of which (k = 0) belongs to the constant vector.
+        final int size = 500;
+        final SparseMatrix cycle = createCycle(size);
+        final double[] constant = new double[size];
+        final double[] eigenvalues = new double[2];
+        final double[][] eigenvectors = LanczosEigensolver.largestEigenvectors(cycle, 2, vector -> {
+            double mean = 0;
+            for (final double value : vector) {
+                mean += value / size;
+            }
+            for (int index = 0; index < size; index++) {
+                vector[index] -= mean;
+            }
+        }, 1, eigenvalues, null);
+
+        assertEquals(eigenvectors.length, 2);
+        // k = 1 and k = n - 1 share the second largest eigenvalue.
+        final double expected = 2 * Math.cos(2 * Math.PI / size);
+        assertEquals(eigenvalues[0], expected, DELTA);
+        assertEquals(eigenvalues[1], expected, DELTA);
+
+        final double[] product = new double[size];
+        for (final double[] eigenvector : eigenvectors) {
+            cycle.multiply(eigenvector, 0, product, 0);
+            double norm = 0;
+            double sum = 0;
+            for (int index = 0; index < size; index++) {
+                assertEquals(product[index], expected * eigenvector[index], 1E-4);
+                norm += eigenvector[index] * eigenvector[index];
+                sum += eigenvector[index];
+            }
+            assertEquals(norm, 1, DELTA);
+            assertEquals(sum, 0, DELTA);
+        }
+        assertEquals(dot(eigenvectors[0], eigenvectors[1]), 0, DELTA);
+    }
+
+    @Test
+    public void smallSpacesReturnFewerEigenvectors() throws InterruptedException {
+        final SparseMatrix diagonal = new SparseMatrix(3, new int[]{0, 1, 2, 3}, new int[]{0, 1, 2}, new double[]{1, 3, 2});
+        final double[] eigenvalues = new double[4];
+        final double[][] eigenvectors = LanczosEigensolver.largestEigenvectors(diagonal, 4, null, 0, eigenvalues, null);
+
+        assertEquals(eigenvectors.length, 3);
+        assertEquals(eigenvalues[0], 3, DELTA);
+        assertEquals(eigenvalues[1], 2, DELTA);
+        assertEquals(eigenvalues[2], 1, DELTA);
+        assertEquals(Math.abs(eigenvectors[0][1]), 1, DELTA);
+    }
+
+    private static SparseMatrix createCycle(final int size) {
+        final int[] offsets = new int[size + 1];
+        final int[] columns = new int[size * 2];
+        final double[] weights = new double[size * 2];
+        for (int row = 0; row < size; row++) {
+            offsets[row + 1] = offsets[row] + 2;
+            columns[row * 2] = (row + size - 1) % size;
+            columns[row * 2 + 1] = (row + 1) % size;
+            weights[row * 2] = 1;
+            weights[row * 2 + 1] = 1;
+        }
+        return new SparseMatrix(size, offsets, columns, weights);
+    }
+
+    private static double dot(final double[] a, final double[] b) {
+        double sum = 0;
+        for (int index = 0; index < a.length; index++) {
+            sum += a[index] * b[index];
+        }
+        return sum;
+    }
+}
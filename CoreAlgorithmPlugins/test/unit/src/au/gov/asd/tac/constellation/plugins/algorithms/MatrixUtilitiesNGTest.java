@@ -20,6 +20,7 @@ import au.gov.asd.tac.constellation.graph.schema.Schema;
 import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
 import au.gov.asd.tac.constellation.graph.schema.analytic.AnalyticSchemaFactory;
 import org.ejml.simple.SimpleMatrix;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
@@ -201,6 +202,50 @@ public class MatrixUtilitiesNGTest {
         assertTrue(isEqual(result, expResult, 1E-3));
     }
 
+    /**
+     * Test of sparseLaplacian method, of class MatrixUtilities.
+     */
+    @Test
+    public void testSparseLaplacianMatchesDense() {
+        final SimpleMatrix expResult = MatrixUtilities.laplacian(graph);
+        final SimpleMatrix result = MatrixUtilities.sparseLaplacian(graph, false).toSimpleMatrix();
+        assertTrue(isEqual(result, expResult, 1E-3));
+        assertTrue(isEqual(MatrixUtilities.sparseAdjacency(graph, false).toSimpleMatrix(), MatrixUtilities.adjacency(graph, false), 1E-3));
+    }
+
+    /**
+     * Test of effectiveResistance and resistanceEmbedding methods, of class
+     * MatrixUtilities.
+     */
+    @Test
+    public void testEffectiveResistance() throws InterruptedException {
+        final int vxId5 = graph.addVertex();
+        final SparseMatrix laplacian = MatrixUtilities.sparseLaplacian(graph, false);
+        final SimpleMatrix iL = MatrixUtilities.inverseLaplacian(graph);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                final double expected = iL.get(i, i) + iL.get(j, j) - 2 * iL.get(i, j);
+                assertEquals(MatrixUtilities.effectiveResistance(laplacian, i, j), expected, 1E-6);
+            }
+        }
+        assertEquals(MatrixUtilities.effectiveResistance(laplacian, 0, graph.getVertexPosition(vxId5)), Double.POSITIVE_INFINITY);
+
+        // Enough projections estimate the resistance of each link closely.
+        final double[][] embedding = MatrixUtilities.resistanceEmbedding(laplacian, 2000, 1);
+        for (int linkPosition = 0; linkPosition < graph.getLinkCount(); linkPosition++) {
+            final int linkId = graph.getLink(linkPosition);
+            final int i = graph.getVertexPosition(graph.getLinkLowVertex(linkId));
+            final int j = graph.getVertexPosition(graph.getLinkHighVertex(linkId));
+            double resistance = 0;
+            for (final double[] coordinates : embedding) {
+                resistance += (coordinates[i] - coordinates[j]) * (coordinates[i] - coordinates[j]);
+            }
+            // The links to the ends of the graph are bridges, with a
+            // resistance of 1, while the rest lie on a triangle.
+            assertEquals(resistance, i == 0 || j == 4 ? 1 : 2.0 / 3, 0.15);
+        }
+    }
+
     private boolean isEqual(final SimpleMatrix one, final SimpleMatrix two, final double tolerance) {
         if (one.getNumElements() != two.getNumElements()
                 || one.getMatrix().getNumRows() != two.getMatrix().getNumRows()
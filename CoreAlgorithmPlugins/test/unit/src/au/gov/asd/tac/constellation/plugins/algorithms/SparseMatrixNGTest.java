@@ -0,0 +1,78 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms;
+
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Sparse Matrix Test.
+ *
+ * @author sirius
+ */
+public class SparseMatrixNGTest {
+
+    private static final double DELTA = 1E-9;
+
+    @Test
+    public void parallelMultiplyMatchesSequential() {
+        // A ring with chords, large enough to be multiplied in parallel.
+        final int rowCount = 20000;
+        final int[] offsets = new int[rowCount + 1];
+        final int[] columns = new int[rowCount * 2];
+        final double[] weights = new double[rowCount * 2];
+        for (int row = 0; row < rowCount; row++) {
+            offsets[row + 1] = offsets[row] + 2;
+            columns[row * 2] = (row + 1) % rowCount;
+            columns[row * 2 + 1] = (row * 7) % rowCount;
+            weights[row * 2] = 0.5;
+            weights[row * 2 + 1] = row % 3;
+        }
+        final SparseMatrix matrix = new SparseMatrix(rowCount, offsets, columns, weights);
+
+        final double[] x = new double[rowCount + 1];
+        for (int index = 1; index <= rowCount; index++) {
+            x[index] = index * 0.25;
+        }
+        final double[] y = new double[rowCount + 2];
+        matrix.multiply(x, 1, y, 2);
+
+        for (int row = 0; row < rowCount; row++) {
+            final double expected = 0.5 * x[1 + columns[row * 2]] + (row % 3) * x[1 + columns[row * 2 + 1]];
+            assertEquals(y[2 + row], expected, DELTA);
+        }
+    }
+
+    @Test
+    public void solveSingularLaplacian() throws InterruptedException {
+        // The Laplacian of the path 0 - 1 - 2, with a unit current from 0 to
+        // 2, which drops by 1 across each link.
+        final SparseMatrix laplacian = new SparseMatrix(3,
+                new int[]{0, 2, 5, 7},
+                new int[]{0, 1, 1, 0, 2, 2, 1},
+                new double[]{1, -1, 2, -1, -1, 1, -1});
+        assertEquals(laplacian.get(1, 1), 2.0);
+        assertEquals(laplacian.get(0, 2), 0.0);
+        assertEquals(laplacian.getDiagonal(), new double[]{1, 2, 1});
+
+        final double[] potentials = new double[3];
+        laplacian.solve(new double[]{1, 0, -1}, potentials, 1E-12, 10);
+        assertEquals(potentials[0] - potentials[1], 1, DELTA);
+        assertEquals(potentials[1] - potentials[2], 1, DELTA);
+        // Starting from 0, the solution stays orthogonal to the null space.
+        assertEquals(potentials[0] + potentials[1] + potentials[2], 0, DELTA);
+    }
+}
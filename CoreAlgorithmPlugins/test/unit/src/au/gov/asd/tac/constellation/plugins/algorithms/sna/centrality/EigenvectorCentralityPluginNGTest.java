@@ -105,10 +105,10 @@ public class EigenvectorCentralityPluginNGTest {
         parameters.setBooleanValue(EigenvectorCentralityPlugin.NORMALISE_AVAILABLE_PARAMETER_ID, false);
         PluginExecution.withPlugin(instance).withParameters(parameters).executeNow(graph);
 
-        assertEquals(graph.getFloatValue(vertexEigenvectorAttribute, vxId0), 0.11620406f);
-        assertEquals(graph.getFloatValue(vertexEigenvectorAttribute, vxId1), 0.2675919f);
-        assertEquals(graph.getFloatValue(vertexEigenvectorAttribute, vxId2), 0.23240812f);
-        assertEquals(graph.getFloatValue(vertexEigenvectorAttribute, vxId3), 0.2675919f);
-        assertEquals(graph.getFloatValue(vertexEigenvectorAttribute, vxId4), 0.11620406f);
+        assertEquals(graph.getFloatValue(vertexEigenvectorAttribute, vxId0), 0.11620406f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexEigenvectorAttribute, vxId1), 0.2675919f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexEigenvectorAttribute, vxId2), 0.23240812f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexEigenvectorAttribute, vxId3), 0.2675919f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexEigenvectorAttribute, vxId4), 0.11620406f, 0.000001f);
     }
 }
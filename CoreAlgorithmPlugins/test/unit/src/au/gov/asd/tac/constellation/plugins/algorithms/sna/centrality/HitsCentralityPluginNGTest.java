@@ -88,17 +88,17 @@ public class HitsCentralityPluginNGTest {
         parameters.setBooleanValue(HitsCentralityPlugin.NORMALISE_AVAILABLE_PARAMETER_ID, false);
         PluginExecution.withPlugin(instance).withParameters(parameters).executeNow(graph);
 
-        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId0), 0f);
-        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId1), 1.874E-42f);
-        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId2), 0.5257311f);
-        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId3), 0.8506508f);
-        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId4), 1.874E-42f);
-
-        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId0), 1.158E-42f);
-        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId1), 0.8506508f);
-        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId2), 0.5257311f);
-        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId3), 1.158E-42f);
-        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId4), 0f);
+        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId0), 0f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId1), 1.874E-42f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId2), 0.5257311f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId3), 0.8506508f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexHitsAuthorityAttribute, vxId4), 1.874E-42f, 0.000001f);
+
+        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId0), 1.158E-42f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId1), 0.8506508f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId2), 0.5257311f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId3), 1.158E-42f, 0.000001f);
+        assertEquals(graph.getFloatValue(vertexHitsHubAttribute, vxId4), 0f, 0.000001f);
     }
 
     @Test
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
+
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Power Iteration Test.
+ *
+ * @author sirius
+ */
+public class PowerIterationNGTest {
+
+    @Test
+    public void iterationStopsOnceConverged() throws InterruptedException {
+        // Each step halves the distance to 1, so the L1 delta after step k is
+        // 2^(1-k), which first falls below 1E-3 after eleven steps.
+        final double[] scores = {0, 2};
+        final int iterations = PowerIteration.iterate(scores, (current, next) -> {
+            for (int index = 0; index < current.length; index++) {
+                next[index] = (current[index] + 1) / 2;
+            }
+        }, 100, 1E-3);
+
+        assertEquals(iterations, 11);
+        assertEquals(scores[0], 1, 1E-3);
+        assertEquals(scores[1], 1, 1E-3);
+
+        final double[] capped = {0, 2};
+        assertEquals(PowerIteration.iterate(capped, (current, next) -> System.arraycopy(current, 0, next, 0, current.length), 5, 0), 5);
+    }
+
+    @Test
+    public void storedScoresAreScaled() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "score", null, 0F, null);
+        final int vxId0 = graph.addVertex();
+        final int vxId1 = graph.addVertex();
+
+        final double[] scores = new double[3];
+        assertFalse(PowerIteration.readStoredScores(graph, attribute, scores, 1, 2));
+
+        graph.setFloatValue(attribute, vxId0, 1F);
+        graph.setFloatValue(attribute, vxId1, 3F);
+        assertTrue(PowerIteration.readStoredScores(graph, attribute, scores, 1, 2));
+        assertEquals(scores, new double[]{0, 0.5, 1.5});
+
+        graph.setFloatValue(attribute, vxId1, Float.NaN);
+        assertFalse(PowerIteration.readStoredScores(graph, attribute, scores, 1, 2));
+    }
+}
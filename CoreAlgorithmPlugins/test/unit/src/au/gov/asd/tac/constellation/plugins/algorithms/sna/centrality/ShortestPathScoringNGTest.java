@@ -0,0 +1,109 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
+
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Shortest Path Scoring Test.
+ *
+ * @author sirius
+ */
+public class ShortestPathScoringNGTest {
+
+    private static final float DELTA = 1E-5F;
+
+    @Test
+    public void tiedPathsShareBetweenness() {
+        // A square with a tail: opposite corners of the square are joined by
+        // two shortest paths, which share the betweenness between them.
+        final StoreGraph graph = new StoreGraph();
+        final int[] vxIds = addVertices(graph, 5);
+        graph.addTransaction(vxIds[0], vxIds[1], false);
+        graph.addTransaction(vxIds[0], vxIds[2], false);
+        graph.addTransaction(vxIds[1], vxIds[3], false);
+        graph.addTransaction(vxIds[2], vxIds[3], false);
+        graph.addTransaction(vxIds[3], vxIds[4], false);
+
+        final float[] betweenness = ShortestPathScoring.calculateBetweenness(graph, true, true, true, false, 0);
+        assertScores(betweenness, new float[]{1, 2, 2, 7, 0});
+
+        // Undirected transactions are not followed in one direction only
+        // unless they are treated as bidirectional.
+        final float[] directed = ShortestPathScoring.calculateBetweenness(graph, false, true, false, false, 0);
+        assertScores(directed, new float[]{0, 0, 0, 0, 0});
+    }
+
+    @Test
+    public void closenessFollowsDirection() {
+        final StoreGraph graph = new StoreGraph();
+        final int[] vxIds = addVertices(graph, 4);
+        graph.addTransaction(vxIds[0], vxIds[1], true);
+        graph.addTransaction(vxIds[1], vxIds[2], true);
+
+        assertScores(ShortestPathScoring.calculateCloseness(graph, false, false, true, true, false), new float[]{1 / 3F, 1, 0, 0});
+        assertScores(ShortestPathScoring.calculateCloseness(graph, false, true, false, true, false), new float[]{0, 1, 1 / 3F, 0});
+        assertScores(ShortestPathScoring.calculateCloseness(graph, true, false, true, true, false), new float[]{1.5F / 4, 1F / 4, 0, 0});
+
+        final int[] components = ShortestPathScoring.calculateComponents(graph);
+        assertEquals(components, new int[]{0, 0, 0, 1});
+        assertEquals(ShortestPathScoring.countComponentVertices(graph, components, false), new int[]{3, 1});
+    }
+
+    @Test
+    public void sampledBetweennessIsScaled() {
+        // Every source of a cycle adds the same total dependency, so the
+        // scaled total of any sample matches the exact total.
+        final int vertexCount = 101;
+        final StoreGraph graph = new StoreGraph();
+        final int[] vxIds = addVertices(graph, vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            graph.addTransaction(vxIds[i], vxIds[(i + 1) % vertexCount], false);
+        }
+
+        final float[] exact = ShortestPathScoring.calculateBetweenness(graph, true, true, true, false, 0);
+        final float[] sampled = ShortestPathScoring.calculateBetweenness(graph, true, true, true, false, 10);
+        final float[] everySource = ShortestPathScoring.calculateBetweenness(graph, true, true, true, false, vertexCount);
+        assertScores(everySource, exact);
+
+        // Each vertex of the cycle lies on paths between 50 * 49 ordered pairs.
+        double exactTotal = 0;
+        double sampledTotal = 0;
+        for (int position = 0; position < vertexCount; position++) {
+            assertEquals(exact[position], 50 * 49, DELTA);
+            exactTotal += exact[position];
+            sampledTotal += sampled[position];
+        }
+        assertEquals(sampledTotal, exactTotal, exactTotal * 1E-6);
+    }
+
+    private static void assertScores(final float[] actual, final float[] expected) {
+        assertEquals(actual.length, expected.length);
+        for (int position = 0; position < expected.length; position++) {
+            assertEquals(actual[position], expected[position], DELTA);
+        }
+    }
+
+    private static int[] addVertices(final StoreGraph graph, final int count) {
+        final int[] vxIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            vxIds[i] = graph.addVertex();
+        }
+        return vxIds;
+    }
+}
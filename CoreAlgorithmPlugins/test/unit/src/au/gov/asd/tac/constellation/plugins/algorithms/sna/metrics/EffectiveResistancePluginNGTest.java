@@ -89,4 +89,18 @@ public class EffectiveResistancePluginNGTest {
         assertEquals(graph.getFloatValue(transactionEffectiveResistanceAttribute, txId3), 0.66666667f);
         assertEquals(graph.getFloatValue(transactionEffectiveResistanceAttribute, txId4), 1f);
     }
+
+    @Test
+    public void testProjectedEffectiveResistance() throws Exception {
+        final EffectiveResistancePlugin instance = new EffectiveResistancePlugin();
+        PluginExecution.withPlugin(instance)
+                .withParameter(EffectiveResistancePlugin.PROJECTIONS_PARAMETER_ID, 2000)
+                .executeNow(graph);
+
+        assertEquals(graph.getFloatValue(transactionEffectiveResistanceAttribute, txId0), 1f, 0.15f);
+        assertEquals(graph.getFloatValue(transactionEffectiveResistanceAttribute, txId1), 0.66666667f, 0.15f);
+        assertEquals(graph.getFloatValue(transactionEffectiveResistanceAttribute, txId2), 0.66666667f, 0.15f);
+        assertEquals(graph.getFloatValue(transactionEffectiveResistanceAttribute, txId3), 0.66666667f, 0.15f);
+        assertEquals(graph.getFloatValue(transactionEffectiveResistanceAttribute, txId4), 1f, 0.15f);
+    }
 }
@@ -161,18 +161,32 @@ class FR2DArranger implements Arranger {
         final int y2Attr = VisualConcept.VertexAttribute.Y2.get(graph);
         final int z2Attr = VisualConcept.VertexAttribute.Z2.get(graph);
 
+        final int[] vxIds = new int[vxCount];
+        final float[] x2 = new float[vxCount];
+        final float[] y2 = new float[vxCount];
+        final float[] z2 = new float[vxCount];
+        final float[] x = new float[vxCount];
+        final float[] y = new float[vxCount];
         for (int position = 0; position < vxCount; position++) {
             final int vxId = graph.getVertex(position);
             final Point2D.Float point = points.get(vxId);
 
-            graph.setFloatValue(x2Attr, vxId, graph.getFloatValue(xAttr, vxId));
-            graph.setFloatValue(y2Attr, vxId, graph.getFloatValue(yAttr, vxId));
-            graph.setFloatValue(z2Attr, vxId, graph.getFloatValue(zAttr, vxId));
+            vxIds[position] = vxId;
+            x2[position] = graph.getFloatValue(xAttr, vxId);
+            y2[position] = graph.getFloatValue(yAttr, vxId);
+            z2[position] = graph.getFloatValue(zAttr, vxId);
 
-            graph.setFloatValue(xAttr, vxId, point.x);
-            graph.setFloatValue(yAttr, vxId, point.y);
-            graph.setFloatValue(zAttr, vxId, 0);
+            x[position] = point.x;
+            y[position] = point.y;
         }
+
+        graph.setFloatValues(x2Attr, vxIds, x2);
+        graph.setFloatValues(y2Attr, vxIds, y2);
+        graph.setFloatValues(z2Attr, vxIds, z2);
+
+        graph.setFloatValues(xAttr, vxIds, x);
+        graph.setFloatValues(yAttr, vxIds, y);
+        graph.setFloatValues(zAttr, vxIds, new float[vxCount]);
     }
 
     /**
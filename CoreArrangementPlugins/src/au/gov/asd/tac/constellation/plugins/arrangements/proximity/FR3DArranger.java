@@ -232,18 +232,35 @@ public class FR3DArranger implements Arranger {
         final int y2Attr = wg.getAttribute(GraphElementType.VERTEX, VisualConcept.VertexAttribute.Y2.getName());
         final int z2Attr = wg.getAttribute(GraphElementType.VERTEX, VisualConcept.VertexAttribute.Z2.getName());
 
-        for (int position = 0; position < wg.getVertexCount(); position++) {
+        final int vertexCount = wg.getVertexCount();
+        final int[] nodeIds = new int[vertexCount];
+        final float[] x2 = new float[vertexCount];
+        final float[] y2 = new float[vertexCount];
+        final float[] z2 = new float[vertexCount];
+        final float[] x = new float[vertexCount];
+        final float[] y = new float[vertexCount];
+        final float[] z = new float[vertexCount];
+        for (int position = 0; position < vertexCount; position++) {
             final int nodeId = wg.getVertex(position);
             final Point3D.Float point = points.get(nodeId);
 
-            wg.setFloatValue(x2Attr, nodeId, wg.getFloatValue(xAttr, nodeId));
-            wg.setFloatValue(y2Attr, nodeId, wg.getFloatValue(yAttr, nodeId));
-            wg.setFloatValue(z2Attr, nodeId, wg.getFloatValue(zAttr, nodeId));
+            nodeIds[position] = nodeId;
+            x2[position] = wg.getFloatValue(xAttr, nodeId);
+            y2[position] = wg.getFloatValue(yAttr, nodeId);
+            z2[position] = wg.getFloatValue(zAttr, nodeId);
 
-            wg.setFloatValue(xAttr, nodeId, point.getFloatX());
-            wg.setFloatValue(yAttr, nodeId, point.getFloatY());
-            wg.setFloatValue(zAttr, nodeId, point.getFloatZ());
+            x[position] = point.getFloatX();
+            y[position] = point.getFloatY();
+            z[position] = point.getFloatZ();
         }
+
+        wg.setFloatValues(x2Attr, nodeIds, x2);
+        wg.setFloatValues(y2Attr, nodeIds, y2);
+        wg.setFloatValues(z2Attr, nodeIds, z2);
+
+        wg.setFloatValues(xAttr, nodeIds, x);
+        wg.setFloatValues(yAttr, nodeIds, y);
+        wg.setFloatValues(zAttr, nodeIds, z);
     }
 
     /**
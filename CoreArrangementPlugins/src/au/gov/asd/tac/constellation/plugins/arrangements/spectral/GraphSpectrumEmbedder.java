@@ -15,129 +15,159 @@
  */
 package au.gov.asd.tac.constellation.plugins.arrangements.spectral;
 
+import au.gov.asd.tac.constellation.graph.GraphConstants;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import au.gov.asd.tac.constellation.plugins.algorithms.LanczosEigensolver;
+import au.gov.asd.tac.constellation.plugins.algorithms.SparseMatrix;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import org.apache.commons.math3.linear.EigenDecomposition;
-import org.apache.commons.math3.linear.MatrixUtils;
 
 /**
+ * Embed vertices in two dimensions by the eigenvectors of their graph.
+ * <p>
+ * The coordinates are the degree-normalised eigenvectors with the smallest
+ * non-trivial eigenvalues of the Laplacian, which are found as the
+ * eigenvectors with the largest eigenvalues of the normalised adjacency
+ * {@code D^-1/2 A D^-1/2} outside the space of its trivial eigenvectors (one
+ * per connected component). Only those two eigenvectors are calculated, by a
+ * sparse {@link LanczosEigensolver}, so time and memory grow with the number
+ * of links rather than with the square of the number of vertices.
  *
  * @author twilight_sparkle
  */
 public class GraphSpectrumEmbedder {
 
-    public static Map<Integer, double[]> spectralEmbedding(GraphReadMethods rg, final Set<Integer> includedVertices) {
+    private static final int DIMENSIONS = 2;
 
-        Map<Integer, double[]> vertexPositions = new HashMap<>();
+    public static Map<Integer, double[]> spectralEmbedding(final GraphReadMethods rg, final Set<Integer> includedVertices) throws InterruptedException {
+        return spectralEmbedding(rg, includedVertices, null);
+    }
+
+    public static Map<Integer, double[]> spectralEmbedding(final GraphReadMethods rg, final Set<Integer> includedVertices, final PluginInteraction interaction) throws InterruptedException {
+
+        final Map<Integer, double[]> vertexPositions = new HashMap<>();
 
         // Don't position anything if there are fewer than 3 vertices to embedd - this embedding shouldn't be used in these cases.
         if (includedVertices.size() <= 2) {
             return vertexPositions;
         }
 
-        GraphMatrix l = GraphMatrix.adjacencyFromGraph(rg, includedVertices, new HashSet<>());
-
-        final EigenDecomposition e = new EigenDecomposition(MatrixUtils.createRealMatrix(l.laplacianMatrix));
-        final int numVectors = e.getRealEigenvalues().length;
-
-        for (int i = 0; i < l.dimension; i++) {
-            double xPos = 0;
-            double yPos = 0;
-            double norm = 0;
-            for (int j = 0; j < numVectors - 1; j++) {
-                xPos += e.getRealEigenvalue(j) * e.getEigenvector(j).getEntry(i);
-                yPos += e.getRealEigenvalue(j) * e.getEigenvector(j).getEntry(i) * (j % 2 == 0 ? -1 : 1);
-                norm += Math.abs(e.getRealEigenvalue(j)) * (Math.pow(e.getEigenvector(j).getEntry(i), 2));
+        // Number the included vertices densely, in the order of the graph.
+        final int numVertices = includedVertices.size();
+        final int[] positionToID = new int[numVertices];
+        final int[] idToPosition = new int[rg.getVertexCapacity()];
+        Arrays.fill(idToPosition, GraphConstants.NOT_FOUND);
+        int position = 0;
+        for (int i = 0; i < rg.getVertexCount(); i++) {
+            final int vxID = rg.getVertex(i);
+            if (includedVertices.contains(vxID)) {
+                idToPosition[vxID] = position;
+                positionToID[position++] = vxID;
             }
-            norm = Math.sqrt(norm);
-            vertexPositions.put(l.matrixPositionToID.get(i), new double[]{norm * xPos, norm * yPos});
         }
 
-        return vertexPositions;
-
-    }
-
-    private enum MatrixType {
-
-        ADJACENCY_MATRIX,
-        LAPLACIAN_MATRIX,;
-    }
-
-    private static class GraphMatrix {
-
-        private final Map<Integer, Integer> idToMatrixPosition;
-        private final Map<Integer, Integer> matrixPositionToID;
-        private final double[][] laplacianMatrix;
-        private final int dimension;
-
-        private GraphMatrix(double[][] laplacianMatrix, Map<Integer, Integer> idToMatrixPosition, Map<Integer, Integer> matrixPositionToID) {
-            this.laplacianMatrix = laplacianMatrix;
-            this.idToMatrixPosition = idToMatrixPosition;
-            this.matrixPositionToID = matrixPositionToID;
-            this.dimension = laplacianMatrix.length;
+        // Build the adjacency between included vertices, ignoring loops.
+        final int[] offsets = new int[numVertices + 1];
+        int[] columns = new int[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            final int vxID = positionToID[i];
+            int entry = offsets[i];
+            for (int j = 0; j < rg.getVertexNeighbourCount(vxID); j++) {
+                final int neighbourPosition = idToPosition[rg.getVertexNeighbour(vxID, j)];
+                if (neighbourPosition == GraphConstants.NOT_FOUND || neighbourPosition == i) {
+                    continue;
+                }
+                if (entry == columns.length) {
+                    columns = Arrays.copyOf(columns, columns.length * 2);
+                }
+                columns[entry++] = neighbourPosition;
+            }
+            offsets[i + 1] = entry;
         }
+        columns = Arrays.copyOf(columns, offsets[numVertices]);
 
-        public static GraphMatrix adjacencyFromGraph(GraphReadMethods rg, Set<Integer> includedVertices, Set<Integer> excludedLinks) {
-            return matrixFromGraph(rg, includedVertices, excludedLinks, MatrixType.ADJACENCY_MATRIX);
+        // Vertices without neighbours are given a weight of 1, which leaves
+        // them as trivial components of their own.
+        final double[] rootDegrees = new double[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            rootDegrees[i] = Math.sqrt(Math.max(1, offsets[i + 1] - offsets[i]));
         }
-
-        public static GraphMatrix laplacianFromGraph(GraphReadMethods rg, Set<Integer> includedVertices, Set<Integer> excludedLinks) {
-            return matrixFromGraph(rg, includedVertices, excludedLinks, MatrixType.LAPLACIAN_MATRIX);
+        final double[] weights = new double[columns.length];
+        for (int i = 0; i < numVertices; i++) {
+            for (int entry = offsets[i]; entry < offsets[i + 1]; entry++) {
+                weights[entry] = 1 / (rootDegrees[i] * rootDegrees[columns[entry]]);
+            }
         }
+        final SparseMatrix normalisedAdjacency = new SparseMatrix(numVertices, offsets, columns, weights);
+
+        // The trivial eigenvectors are the root degrees on each component.
+        final int[] components = new int[numVertices];
+        final int numComponents = labelComponents(offsets, columns, components);
+        final double[] componentNorms = new double[numComponents];
+        for (int i = 0; i < numVertices; i++) {
+            componentNorms[components[i]] += rootDegrees[i] * rootDegrees[i];
+        }
+        final LanczosEigensolver.Deflation trivial = vector -> {
+            final double[] projections = new double[numComponents];
+            for (int i = 0; i < numVertices; i++) {
+                projections[components[i]] += vector[i] * rootDegrees[i];
+            }
+            for (int i = 0; i < numVertices; i++) {
+                vector[i] -= projections[components[i]] * rootDegrees[i] / componentNorms[components[i]];
+            }
+        };
 
-        public static GraphMatrix matrixFromGraph(GraphReadMethods rg, Set<Integer> includedVertices, Set<Integer> excludedLinks, MatrixType type) {
+        final double[][] eigenvectors = LanczosEigensolver.largestEigenvectors(normalisedAdjacency, DIMENSIONS, trivial, numComponents, null, interaction);
 
-            final int numVertices = includedVertices.size();
-            final double[][] matrixEntries = new double[numVertices][];
+        // Undo the degree normalisation, and scale each axis so that its
+        // root mean square is the square root of the number of vertices,
+        // giving each vertex about the same area whatever the size of the graph.
+        final double[][] coordinates = new double[DIMENSIONS][numVertices];
+        for (int dimension = 0; dimension < eigenvectors.length; dimension++) {
+            double sumOfSquares = 0;
             for (int i = 0; i < numVertices; i++) {
-                matrixEntries[i] = new double[numVertices];
+                coordinates[dimension][i] = eigenvectors[dimension][i] / rootDegrees[i];
+                sumOfSquares += coordinates[dimension][i] * coordinates[dimension][i];
             }
-            Map<Integer, Integer> idToMatrixPosition = new HashMap<>();
-            Map<Integer, Integer> matrixPositionToID = new HashMap<>();
-
-            int skips = 0;
-            for (int i = 0; i < rg.getVertexCount(); i++) {
-                final int vxID = rg.getVertex(i);
-                if (!includedVertices.contains(vxID)) {
-                    skips++;
-                    continue;
-                }
-                idToMatrixPosition.put(vxID, i - skips);
-                matrixPositionToID.put(i - skips, vxID);
+            final double scale = sumOfSquares > 0 ? numVertices / Math.sqrt(sumOfSquares) : 0;
+            for (int i = 0; i < numVertices; i++) {
+                coordinates[dimension][i] *= scale;
             }
+        }
 
-            for (int i = 0; i < numVertices; i++) {
-                final int vxID = matrixPositionToID.get(i);
-                int neighbourCount = 0;
-                for (int j = 0; j < rg.getVertexNeighbourCount(vxID); j++) {
-                    final int neighbourID = rg.getVertexNeighbour(vxID, j);
-                    if (excludedLinks.contains(rg.getLink(vxID, neighbourID))) {
-                        continue;
-                    } else if (!includedVertices.contains(neighbourID)) {
-                        neighbourCount++;
-                        continue;
-                    } else if (idToMatrixPosition.get(neighbourID) == i) {
-                        continue;
-                    }
-                    neighbourCount++;
-                    if (type == MatrixType.LAPLACIAN_MATRIX) {
-                        matrixEntries[i][idToMatrixPosition.get(neighbourID)] = -1;
-                    } else if (type == MatrixType.ADJACENCY_MATRIX) {
-                        matrixEntries[i][idToMatrixPosition.get(neighbourID)] = 1;
+        for (int i = 0; i < numVertices; i++) {
+            vertexPositions.put(positionToID[i], new double[]{coordinates[0][i], coordinates[1][i]});
+        }
+
+        return vertexPositions;
+    }
+
+    private static int labelComponents(final int[] offsets, final int[] columns, final int[] components) {
+        Arrays.fill(components, GraphConstants.NOT_FOUND);
+        final int[] queue = new int[components.length];
+        int numComponents = 0;
+        for (int root = 0; root < components.length; root++) {
+            if (components[root] != GraphConstants.NOT_FOUND) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            components[root] = numComponents;
+            while (head < tail) {
+                final int i = queue[head++];
+                for (int entry = offsets[i]; entry < offsets[i + 1]; entry++) {
+                    if (components[columns[entry]] == GraphConstants.NOT_FOUND) {
+                        components[columns[entry]] = numComponents;
+                        queue[tail++] = columns[entry];
                     }
                 }
-                if (type == MatrixType.LAPLACIAN_MATRIX) {
-                    matrixEntries[i][i] = neighbourCount;
-                } else if (type == MatrixType.ADJACENCY_MATRIX) {
-                    matrixEntries[i][i] = 0;
-                }
             }
-
-            return new GraphMatrix(matrixEntries, idToMatrixPosition, matrixPositionToID);
+            numComponents++;
         }
+        return numComponents;
     }
-
 }
@@ -49,7 +49,8 @@ public class SpectralArrangementPlugin extends SimpleEditPlugin {
             final SetRadiusForArrangement radiusSetter = new SetRadiusForArrangement(graph);
             radiusSetter.setRadii();
 
-            final Arranger inner = new SpectralArranger();
+            final SpectralArranger inner = new SpectralArranger();
+            inner.setInteraction(interaction);
             final Arranger outer = new GridArranger();
 
             final GraphTaxonomyArranger arranger = new GraphComponentArranger(inner, outer, Connections.LINKS);
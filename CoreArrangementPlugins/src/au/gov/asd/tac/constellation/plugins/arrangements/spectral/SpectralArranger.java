@@ -17,6 +17,7 @@ package au.gov.asd.tac.constellation.plugins.arrangements.spectral;
 
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.ktruss.KTruss;
 import au.gov.asd.tac.constellation.plugins.algorithms.clustering.ktruss.KTruss.KTrussResultHandler;
 import au.gov.asd.tac.constellation.plugins.arrangements.Arranger;
@@ -39,12 +40,23 @@ import java.util.Set;
 public class SpectralArranger implements Arranger {
 
     private boolean maintainMean = false;
+    private PluginInteraction interaction = null;
 
     @Override
     public void setMaintainMean(final boolean b) {
         maintainMean = b;
     }
 
+    /**
+     * Set the interaction to report the progress of the spectral embedding
+     * to, which also allows it to be cancelled.
+     *
+     * @param interaction The interaction, or null.
+     */
+    public void setInteraction(final PluginInteraction interaction) {
+        this.interaction = interaction;
+    }
+
     // A method to spread vertices out after an arrangement to reduce overlaps whilst preserving the structure of the graph
     // and avoiding over-exapnsion.
     // This method should probably be refactored so that it can be used by the whole arrangement framework.
@@ -153,7 +165,7 @@ public class SpectralArranger implements Arranger {
         }
 
         // Otherwise calculate the spectral (eigenvector) embedding of the most interconnected truss
-        Map<Integer, double[]> vertexToCoordinates = GraphSpectrumEmbedder.spectralEmbedding(wg, handler.verticesInHighestTruss);
+        Map<Integer, double[]> vertexToCoordinates = GraphSpectrumEmbedder.spectralEmbedding(wg, handler.verticesInHighestTruss, interaction);
         if (vertexToCoordinates.isEmpty()) {
             return;
         }
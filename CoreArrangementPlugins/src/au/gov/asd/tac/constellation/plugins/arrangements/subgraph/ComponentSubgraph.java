@@ -615,6 +615,31 @@ public class ComponentSubgraph implements GraphWriteMethods {
         proxy.setBooleanValue(attribute, id, value);
     }
 
+    @Override
+    public void setIntValues(final int attribute, final int[] ids, final int[] values) {
+        proxy.setIntValues(attribute, ids, values);
+    }
+
+    @Override
+    public void setLongValues(final int attribute, final int[] ids, final long[] values) {
+        proxy.setLongValues(attribute, ids, values);
+    }
+
+    @Override
+    public void setFloatValues(final int attribute, final int[] ids, final float[] values) {
+        proxy.setFloatValues(attribute, ids, values);
+    }
+
+    @Override
+    public void setDoubleValues(final int attribute, final int[] ids, final double[] values) {
+        proxy.setDoubleValues(attribute, ids, values);
+    }
+
+    @Override
+    public void setBooleanValues(final int attribute, final int[] ids, final boolean[] values) {
+        proxy.setBooleanValues(attribute, ids, values);
+    }
+
     @Override
     public void setCharValue(final int attribute, final int id, final char value) {
         proxy.setCharValue(attribute, id, value);
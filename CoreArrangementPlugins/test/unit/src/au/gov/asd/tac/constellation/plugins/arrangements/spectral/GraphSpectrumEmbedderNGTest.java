@@ -0,0 +1,87 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.arrangements.spectral;
+
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Graph Spectrum Embedder Test.
+ *
+ * @author sirius
+ */
+public class GraphSpectrumEmbedderNGTest {
+
+    @Test
+    public void cycleIsEmbeddedAsACircle() throws InterruptedException {
+        final int vertexCount = 100;
+        final StoreGraph graph = new StoreGraph();
+        final int[] vxIds = new int[vertexCount];
+        final Set<Integer> included = new HashSet<>();
+        for (int i = 0; i < vertexCount; i++) {
+            vxIds[i] = graph.addVertex();
+            included.add(vxIds[i]);
+        }
+        for (int i = 0; i < vertexCount; i++) {
+            graph.addTransaction(vxIds[i], vxIds[(i + 1) % vertexCount], false);
+        }
+
+        final Map<Integer, double[]> positions = GraphSpectrumEmbedder.spectralEmbedding(graph, included);
+        assertEquals(positions.size(), vertexCount);
+
+        // The two smallest non-trivial eigenvectors of a cycle are a sine and
+        // cosine, which place every vertex at the same distance from the centre.
+        final double radius = Math.hypot(positions.get(vxIds[0])[0], positions.get(vxIds[0])[1]);
+        assertTrue(radius > 0);
+        for (int i = 0; i < vertexCount; i++) {
+            final double[] position = positions.get(vxIds[i]);
+            assertEquals(Math.hypot(position[0], position[1]), radius, radius * 1E-3);
+        }
+    }
+
+    @Test
+    public void componentsAreEmbeddedWithoutTrivialVectors() throws InterruptedException {
+        final StoreGraph graph = new StoreGraph();
+        final Set<Integer> included = new HashSet<>();
+        for (int triangle = 0; triangle < 2; triangle++) {
+            final int vxId0 = graph.addVertex();
+            final int vxId1 = graph.addVertex();
+            final int vxId2 = graph.addVertex();
+            graph.addTransaction(vxId0, vxId1, false);
+            graph.addTransaction(vxId1, vxId2, false);
+            graph.addTransaction(vxId2, vxId0, false);
+            included.add(vxId0);
+            included.add(vxId1);
+            included.add(vxId2);
+        }
+
+        final Map<Integer, double[]> positions = GraphSpectrumEmbedder.spectralEmbedding(graph, included);
+        assertEquals(positions.size(), 6);
+        for (final double[] position : positions.values()) {
+            assertFalse(Double.isNaN(position[0]) || Double.isNaN(position[1]));
+        }
+
+        included.clear();
+        included.add(graph.getVertex(0));
+        assertTrue(GraphSpectrumEmbedder.spectralEmbedding(graph, included).isEmpty());
+    }
+}
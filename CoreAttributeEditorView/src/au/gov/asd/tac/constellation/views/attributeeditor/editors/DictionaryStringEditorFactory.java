@@ -0,0 +1,35 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.attributeeditor.editors;
+
+import au.gov.asd.tac.constellation.graph.attribute.DictionaryStringAttributeDescription;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Editor factory for attributes described by
+ * {@link au.gov.asd.tac.constellation.graph.attribute.DictionaryStringAttributeDescription},
+ * which are edited in the same way as plain strings.
+ *
+ * @author sirius
+ */
+@ServiceProvider(service = AttributeValueEditorFactory.class)
+public class DictionaryStringEditorFactory extends StringEditorFactory {
+
+    @Override
+    public String getAttributeType() {
+        return DictionaryStringAttributeDescription.ATTRIBUTE_NAME;
+    }
+}
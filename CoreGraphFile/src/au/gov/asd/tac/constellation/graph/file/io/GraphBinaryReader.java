@@ -0,0 +1,404 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
+import au.gov.asd.tac.constellation.graph.attribute.io.BinaryIoUtilities;
+import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteReader;
+import au.gov.asd.tac.constellation.graph.locking.DualGraph;
+import au.gov.asd.tac.constellation.graph.locking.SnapshotGraph;
+import au.gov.asd.tac.constellation.graph.schema.SchemaFactory;
+import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
+import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Read a graph written by {@link GraphBinaryWriter}.
+ * <p>
+ * Elements are added to the graph first, then each attribute column is handed
+ * to the {@link AbstractGraphIOProvider} for its type along with the ids of
+ * the new elements in the order they were written. Columns of META attribute
+ * types that are not known are skipped, as {@link GraphJsonReader} does.
+ * <p>
+ * A graph can also be opened {@link #readGraphMapped mapped}, in which case
+ * fixed-width primitive columns are mapped from a file rather than read onto
+ * the heap.
+ *
+ * @author sirius
+ */
+public final class GraphBinaryReader {
+
+    private static final Logger LOGGER = Logger.getLogger(GraphBinaryReader.class.getName());
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Map<String, AbstractGraphIOProvider> providers;
+
+    /**
+     * Construct a new GraphBinaryReader using the registered IO providers.
+     */
+    public GraphBinaryReader() {
+        providers = new HashMap<>();
+        AbstractGraphIOProvider.getProviders().forEach(provider -> providers.put(provider.getName(), provider));
+    }
+
+    GraphBinaryReader(final Map<String, AbstractGraphIOProvider> providers) {
+        this.providers = providers;
+    }
+
+    /**
+     * Read a graph in the binary format.
+     *
+     * @param name The name of the file being read.
+     * @param in The InputStream to read from.
+     * @param byteReader The byte reader containing ancillary data.
+     * @param progress A progress indicator.
+     *
+     * @return A new Graph.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException If the data is not a binary graph of a known
+     * version.
+     */
+    public Graph readGraph(final String name, final InputStream in, final GraphByteReader byteReader, final IoProgress progress) throws IOException, GraphParseException {
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+        final StoreGraph storeGraph = readStoreGraph(name, data, null, null, byteReader, progress);
+        return new DualGraph(storeGraph.getSchema().getFactory().createSchema(), storeGraph);
+    }
+
+    /**
+     * Read a graph in the binary format from a graph file, mapping fixed-width
+     * primitive columns rather than reading them.
+     * <p>
+     * The binary entry of a graph file is compressed, so it is first extracted
+     * to a temporary file which is then mapped privately: changes to the graph
+     * are never written back. Opening a graph therefore still reads the whole
+     * entry once; what mapping saves is heap, as the values of mapped columns
+     * are held by the operating system's page cache rather than the Java heap.
+     * The graph file itself is not mapped because saving a graph overwrites
+     * its file in place.
+     * <p>
+     * The temporary file is opened to be deleted when it is closed, so it is
+     * removed as soon as the graph has been read, or on platforms that do not
+     * allow a mapped file to be deleted, once the last mapping of it has gone.
+     * <p>
+     * The graph that is returned is a {@link SnapshotGraph}, which adopts the
+     * graph that was read copy-on-write and shares attribute values with its
+     * readers instead of copying them, so the mapped columns stay file-backed.
+     *
+     * @param name The name of the file being read.
+     * @param zipFile The graph file.
+     * @param progress A progress indicator.
+     *
+     * @return A new Graph.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException If the file does not contain a binary graph
+     * of a known version.
+     */
+    public Graph readGraphMapped(final String name, final ZipFile zipFile, final IoProgress progress) throws IOException, GraphParseException {
+        final ZipEntry entry = zipFile.getEntry(GraphFileConstants.BINARY_GRAPH_ENTRY);
+        if (entry == null) {
+            throw new GraphParseException(String.format("Entry %s not found in graph file", GraphFileConstants.BINARY_GRAPH_ENTRY));
+        }
+
+        final Path columnFile = Files.createTempFile("graph", ".bin");
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(columnFile, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (final IOException ex) {
+            Files.deleteIfExists(columnFile);
+            throw ex;
+        }
+
+        final StoreGraph storeGraph;
+        try (channel) {
+            try (final InputStream in = zipFile.getInputStream(entry)) {
+                // The stream is not closed as that would close the channel.
+                in.transferTo(Channels.newOutputStream(channel));
+            }
+            channel.position(0);
+
+            final CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+            storeGraph = readStoreGraph(name, new DataInputStream(counter), channel, counter, new GraphByteReader(zipFile), progress);
+        }
+        return new SnapshotGraph(storeGraph.getSchema().getFactory().createSchema(), storeGraph);
+    }
+
+    private StoreGraph readStoreGraph(final String name, final DataInputStream data, final FileChannel channel, final CountingInputStream counter,
+            final GraphByteReader byteReader, final IoProgress progress) throws IOException, GraphParseException {
+        final ImmutableObjectCache immutableObjectCache = new ImmutableObjectCache();
+
+        if (progress != null) {
+            progress.start(GraphBinaryWriter.ELEMENT_TYPES_FILE_ORDER.size());
+        }
+
+        final int magic = data.readInt();
+        if (magic != GraphBinaryWriter.MAGIC) {
+            throw new GraphParseException(String.format("%s is not a binary graph.", name));
+        }
+
+        final int version = data.readInt();
+        if (version < 1 || version > GraphBinaryWriter.VERSION) {
+            throw new GraphParseException(String.format("Version number %d is unknown.", version));
+        }
+
+        final Map<String, Integer> versionedItems = new HashMap<>();
+        final int versionedItemCount = data.readInt();
+        for (int i = 0; i < versionedItemCount; i++) {
+            final String versionedItem = BinaryIoUtilities.readString(data);
+            versionedItems.put(versionedItem, data.readInt());
+        }
+
+        final SchemaFactory schemaFactory = GraphJsonReader.getSchemaFactory(BinaryIoUtilities.readString(data));
+        final long globalModCount = data.readLong();
+        final long structModCount = data.readLong();
+        final long attrModCount = data.readLong();
+
+        final StoreGraph storeGraph = new StoreGraph(schemaFactory.createSchema());
+        GraphJsonReader.configureGraph(storeGraph, versionedItems);
+
+        final Map<Integer, Integer> vertexMap = new HashMap<>();
+        final Map<Integer, Integer> transactionMap = new HashMap<>();
+        final Map<Integer, Long> attrValCount = new HashMap<>();
+        for (int i = 0; i < GraphBinaryWriter.ELEMENT_TYPES_FILE_ORDER.size(); i++) {
+            final GraphElementType elementType = GraphBinaryWriter.ELEMENT_TYPES_FILE_ORDER.get(i);
+            if (progress != null) {
+                progress.progress("Reading " + IoUtilities.getGraphElementTypeString(elementType) + " elements...");
+            }
+            readElements(data, channel, counter, storeGraph, elementType, vertexMap, transactionMap, attrValCount, byteReader, immutableObjectCache);
+            if (progress != null) {
+                progress.progress(i + 1);
+            }
+        }
+
+        storeGraph.setModificationCounters(globalModCount, structModCount, attrModCount);
+        attrValCount.forEach(storeGraph::setValueModificationCounter);
+
+        GraphJsonReader.updateGraph(storeGraph, versionedItems);
+
+        if (progress != null) {
+            progress.finish();
+        }
+
+        LOGGER.log(Level.INFO, "immutableObjectCache={0}", immutableObjectCache);
+
+        return storeGraph;
+    }
+
+    private void readElements(final DataInputStream data, final FileChannel channel, final CountingInputStream counter, final StoreGraph graph, final GraphElementType elementType,
+            final Map<Integer, Integer> vertexMap, final Map<Integer, Integer> transactionMap, final Map<Integer, Long> attrValCount,
+            final GraphByteReader byteReader, final ImmutableObjectCache cache) throws IOException, GraphParseException {
+        final int attributeCount = data.readInt();
+        final int[] attributeIds = new int[attributeCount];
+        final String[] attributeTypes = new String[attributeCount];
+        for (int i = 0; i < attributeCount; i++) {
+            final String label = BinaryIoUtilities.readString(data);
+            attributeTypes[i] = BinaryIoUtilities.readString(data);
+            final String description = BinaryIoUtilities.readString(data);
+            final Object defaultValue = readDefault(data);
+            final String mergerId = BinaryIoUtilities.readString(data);
+            final long modCount = data.readLong();
+
+            try {
+                attributeIds[i] = graph.addAttribute(elementType, attributeTypes[i], label, description, defaultValue, mergerId);
+                attrValCount.put(attributeIds[i], modCount);
+            } catch (IllegalArgumentException ex) {
+                // An unknown META attribute type can be left out without losing the rest of the graph.
+                if (elementType != GraphElementType.META) {
+                    throw ex;
+                }
+
+                LOGGER.warning(String.format("While adding %s attribute: %s", elementType, ex.getMessage()));
+                attributeIds[i] = Graph.NOT_FOUND;
+            }
+        }
+
+        final int keyLength = data.readInt();
+        if (keyLength > 0) {
+            final int[] keyAttributes = new int[keyLength];
+            for (int i = 0; i < keyLength; i++) {
+                final String keyLabel = BinaryIoUtilities.readString(data);
+                keyAttributes[i] = graph.getAttribute(elementType, keyLabel);
+                if (keyAttributes[i] == Graph.NOT_FOUND) {
+                    throw new GraphParseException(String.format("Key '%s' is not a valid attribute", keyLabel));
+                }
+            }
+            graph.setPrimaryKey(elementType, keyAttributes);
+        }
+
+        final int elementCount = data.readInt();
+        final int[] fileIds = new int[elementCount];
+        for (int i = 0; i < elementCount; i++) {
+            fileIds[i] = data.readInt();
+        }
+
+        // GRAPH and META values always belong to element 0.
+        final int[] elements = new int[elementCount];
+        if (elementType == GraphElementType.VERTEX) {
+            for (int i = 0; i < elementCount; i++) {
+                elements[i] = graph.addVertex();
+                vertexMap.put(fileIds[i], elements[i]);
+            }
+        } else if (elementType == GraphElementType.TRANSACTION) {
+            final int[] sources = new int[elementCount];
+            for (int i = 0; i < elementCount; i++) {
+                sources[i] = vertexMap.get(data.readInt());
+            }
+            final int[] destinations = new int[elementCount];
+            for (int i = 0; i < elementCount; i++) {
+                destinations[i] = vertexMap.get(data.readInt());
+            }
+            for (int i = 0; i < elementCount; i++) {
+                elements[i] = graph.addTransaction(sources[i], destinations[i], data.readBoolean());
+                transactionMap.put(fileIds[i], elements[i]);
+            }
+        }
+
+        for (int i = 0; i < attributeCount; i++) {
+            final int length = data.readInt();
+            final AbstractGraphIOProvider ioProvider = attributeIds[i] == Graph.NOT_FOUND ? null : providers.get(attributeTypes[i]);
+            if (attributeIds[i] != Graph.NOT_FOUND && ioProvider == null) {
+                throw new GraphParseException("No IO provider found for attribute type: " + attributeTypes[i]);
+            }
+
+            if (ioProvider != null && channel != null && isMappable(ioProvider, elements, length)
+                    && graph.mapAttributeValues(attributeIds[i], channel, counter.getPosition(), elementCount)) {
+                skipFully(data, length);
+                continue;
+            }
+
+            final byte[] column = new byte[length];
+            data.readFully(column);
+            if (ioProvider == null) {
+                continue;
+            }
+
+            ioProvider.readColumn(attributeIds[i], elements, new DataInputStream(new ByteArrayInputStream(column)),
+                    graph, vertexMap, transactionMap, byteReader, cache);
+        }
+    }
+
+    /**
+     * A column can be mapped if its values are fixed-width and the elements
+     * they belong to were given the ids 0 to n-1 in order.
+     */
+    private static boolean isMappable(final AbstractGraphIOProvider ioProvider, final int[] elements, final int length) {
+        final int width = ioProvider.getColumnWidth();
+        if (width <= 0 || elements.length == 0 || (long) width * elements.length != length) {
+            return false;
+        }
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void skipFully(final DataInputStream data, final int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            final int skipped = data.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of binary graph");
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static Object readDefault(final DataInputStream data) throws IOException, GraphParseException {
+        final byte tag = data.readByte();
+        switch (tag) {
+            case GraphBinaryWriter.DEFAULT_NULL:
+                return null;
+            case GraphBinaryWriter.DEFAULT_NUMBER:
+                return data.readDouble();
+            case GraphBinaryWriter.DEFAULT_BOOLEAN:
+                return data.readBoolean();
+            case GraphBinaryWriter.DEFAULT_STRING:
+                return BinaryIoUtilities.readString(data);
+            default:
+                throw new GraphParseException(String.format("Unknown default value tag %d", tag));
+        }
+    }
+
+    /**
+     * Track the position in the file of the bytes that have been read so
+     * that columns can be mapped at the right place.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long position = 0;
+
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                position++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
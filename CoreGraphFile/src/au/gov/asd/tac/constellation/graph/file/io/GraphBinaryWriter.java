@@ -0,0 +1,281 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Attribute;
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphAttribute;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
+import au.gov.asd.tac.constellation.graph.attribute.io.BinaryIoUtilities;
+import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteWriter;
+import au.gov.asd.tac.constellation.graph.schema.BareSchemaFactory;
+import au.gov.asd.tac.constellation.graph.schema.Schema;
+import au.gov.asd.tac.constellation.graph.versioning.UpdateProviderManager;
+import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.openide.util.Cancellable;
+
+/**
+ * Write a graph in the binary columnar format.
+ * <p>
+ * The header and attribute definitions hold the same information as
+ * {@link GraphJsonWriter} writes. The values of each attribute are then
+ * written together as a single column by the attribute's
+ * {@link AbstractGraphIOProvider}. Each column is preceded by its length so
+ * that a reader can skip columns of attribute types it does not know.
+ *
+ * @author sirius
+ */
+public final class GraphBinaryWriter implements Cancellable {
+
+    /**
+     * The first four bytes of a binary graph: "STAR" in ASCII.
+     */
+    public static final int MAGIC = 0x53544152;
+
+    /**
+     * The current binary format version.
+     */
+    public static final int VERSION = 1;
+
+    static final byte DEFAULT_NULL = 0;
+    static final byte DEFAULT_NUMBER = 1;
+    static final byte DEFAULT_BOOLEAN = 2;
+    static final byte DEFAULT_STRING = 3;
+
+    static final List<GraphElementType> ELEMENT_TYPES_FILE_ORDER = Arrays.asList(GraphElementType.GRAPH, GraphElementType.VERTEX, GraphElementType.TRANSACTION, GraphElementType.META);
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final GraphByteWriter byteWriter;
+    private final Map<String, AbstractGraphIOProvider> graphIoProviders = new HashMap<>();
+    private IoProgress progress;
+    private volatile boolean isCancelled;
+
+    /**
+     * Construct a new GraphBinaryWriter.
+     *
+     * @param byteWriter The GraphByteWriter that will receive ancillary data.
+     */
+    public GraphBinaryWriter(final GraphByteWriter byteWriter) {
+        this.byteWriter = byteWriter;
+        for (final AbstractGraphIOProvider agiop : AbstractGraphIOProvider.getProviders()) {
+            graphIoProviders.put(agiop.getName(), agiop);
+        }
+    }
+
+    /**
+     * Serialise a graph in the binary format to an OutputStream.
+     * <p>
+     * The OutputStream is flushed but not closed. Ancillary files are not
+     * written: they are left in the GraphByteWriter for the caller.
+     *
+     * @param graph The graph to serialise.
+     * @param out The OutputStream to write to.
+     * @param progress A progress indicator.
+     * @param elementTypes The GraphElementTypes whose data should be written.
+     * The attributes of all element types are always written.
+     *
+     * @return True if the user cancelled the write, false otherwise.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean writeGraphToStream(final GraphReadMethods graph, final OutputStream out, final IoProgress progress, final List<GraphElementType> elementTypes) throws IOException {
+        this.progress = progress;
+        isCancelled = false;
+
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        try {
+            if (progress != null) {
+                progress.start(ELEMENT_TYPES_FILE_ORDER.size());
+            }
+
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+
+            final Map<String, Integer> versionedItems = UpdateProviderManager.getLatestVersions();
+            data.writeInt(versionedItems.size());
+            for (final Entry<String, Integer> itemVersion : versionedItems.entrySet()) {
+                BinaryIoUtilities.writeString(itemVersion.getKey(), data);
+                data.writeInt(itemVersion.getValue());
+            }
+
+            final Schema schema = graph.getSchema();
+            BinaryIoUtilities.writeString(schema == null ? new BareSchemaFactory().getName() : schema.getFactory().getName(), data);
+
+            data.writeLong(graph.getGlobalModificationCounter());
+            data.writeLong(graph.getStructureModificationCounter());
+            data.writeLong(graph.getAttributeModificationCounter());
+
+            for (int i = 0; i < ELEMENT_TYPES_FILE_ORDER.size() && !isCancelled; i++) {
+                final GraphElementType elementType = ELEMENT_TYPES_FILE_ORDER.get(i);
+                writeElements(data, graph, elementType, elementTypes.contains(elementType));
+                if (progress != null) {
+                    progress.progress(i + 1);
+                }
+            }
+        } finally {
+            data.flush();
+            if (progress != null) {
+                progress.finish();
+            }
+        }
+
+        return isCancelled;
+    }
+
+    /**
+     * Write the attributes and data of one element type.
+     *
+     * @param data The output to write to.
+     * @param graph The graph.
+     * @param elementType The GraphElementType being written.
+     * @param writeData If false, write out the attributes but not the data for
+     * the given element type.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeElements(final DataOutputStream data, final GraphReadMethods graph, final GraphElementType elementType, final boolean writeData) throws IOException {
+        if (progress != null) {
+            progress.progress("Writing " + IoUtilities.getGraphElementTypeString(elementType) + " elements...");
+        }
+
+        final List<Attribute> attributes = new ArrayList<>();
+        for (int position = 0; position < graph.getAttributeCount(elementType); position++) {
+            final Attribute attribute = new GraphAttribute(graph, graph.getAttribute(elementType, position));
+
+            // Don't write non-META object types; we don't know what they are.
+            if (!attribute.getAttributeType().equals("object") || elementType == GraphElementType.META) {
+                attributes.add(attribute);
+            }
+        }
+
+        data.writeInt(attributes.size());
+        for (final Attribute attribute : attributes) {
+            BinaryIoUtilities.writeString(attribute.getName(), data);
+            BinaryIoUtilities.writeString(attribute.getAttributeType(), data);
+            BinaryIoUtilities.writeString(attribute.getDescription(), data);
+            writeDefault(data, attribute);
+            BinaryIoUtilities.writeString(attribute.getAttributeMerger() == null ? null : attribute.getAttributeMerger().getId(), data);
+            data.writeLong(graph.getValueModificationCounter(attribute.getId()));
+        }
+
+        final int[] key = elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION
+                ? graph.getPrimaryKey(elementType) : new int[0];
+        data.writeInt(key.length);
+        for (final int keyAttribute : key) {
+            BinaryIoUtilities.writeString(graph.getAttributeName(keyAttribute), data);
+        }
+
+        final int[] elements = getElements(graph, elementType, writeData);
+        data.writeInt(elements.length);
+        for (final int element : elements) {
+            data.writeInt(element);
+        }
+
+        if (elementType == GraphElementType.TRANSACTION) {
+            for (final int transaction : elements) {
+                data.writeInt(graph.getTransactionSourceVertex(transaction));
+            }
+            for (final int transaction : elements) {
+                data.writeInt(graph.getTransactionDestinationVertex(transaction));
+            }
+            for (final int transaction : elements) {
+                data.writeBoolean(graph.getTransactionDirection(transaction) != Graph.UNDIRECTED);
+            }
+        }
+
+        final ByteArrayOutputStream column = new ByteArrayOutputStream();
+        for (final Attribute attribute : attributes) {
+            if (isCancelled) {
+                return;
+            }
+
+            final AbstractGraphIOProvider ioProvider = graphIoProviders.get(attribute.getAttributeType());
+            if (ioProvider == null) {
+                throw new IOException("No IO provider found for attribute type: " + attribute.getAttributeType());
+            }
+
+            column.reset();
+            ioProvider.writeColumn(attribute, elements, new DataOutputStream(column), graph, byteWriter);
+            data.writeInt(column.size());
+            column.writeTo(data);
+        }
+    }
+
+    private static int[] getElements(final GraphReadMethods graph, final GraphElementType elementType, final boolean writeData) {
+        if (!writeData) {
+            return new int[0];
+        }
+
+        switch (elementType) {
+            case VERTEX:
+                final int[] vertices = new int[graph.getVertexCount()];
+                for (int position = 0; position < vertices.length; position++) {
+                    vertices[position] = graph.getVertex(position);
+                }
+                return vertices;
+            case TRANSACTION:
+                final int[] transactions = new int[graph.getTransactionCount()];
+                for (int position = 0; position < transactions.length; position++) {
+                    transactions[position] = graph.getTransaction(position);
+                }
+                return transactions;
+            default:
+                return new int[]{0};
+        }
+    }
+
+    /**
+     * Write the default value of an attribute, encoded in the same way as
+     * {@link GraphJsonWriter} so that both readers pass the same value to
+     * {@code addAttribute()}.
+     */
+    private static void writeDefault(final DataOutputStream data, final Attribute attribute) throws IOException {
+        final Object defaultValue = attribute.getDefaultValue();
+        final String type = attribute.getAttributeType();
+        if (defaultValue == null) {
+            data.writeByte(DEFAULT_NULL);
+        } else if (type.equals("integer") || type.equals("float")) {
+            data.writeByte(DEFAULT_NUMBER);
+            data.writeDouble(((Number) defaultValue).doubleValue());
+        } else if (type.equals("boolean")) {
+            data.writeByte(DEFAULT_BOOLEAN);
+            data.writeBoolean((Boolean) defaultValue);
+        } else {
+            data.writeByte(DEFAULT_STRING);
+            BinaryIoUtilities.writeString(defaultValue.toString(), data);
+        }
+    }
+
+    @Override
+    public boolean cancel() {
+        isCancelled = true;
+
+        return true;
+    }
+}
@@ -31,6 +31,10 @@ public final class GraphFileConstants {
      * The file extensions for ZipEntry files.
      */
     public static final String FILE_EXTENSION = ".txt";
+    /**
+     * The name of the ZipEntry holding a graph in the binary format.
+     */
+    public static final String BINARY_GRAPH_ENTRY = "graph.bin";
     /**
      * The field separator in CSV files.
      */
@@ -20,6 +20,8 @@ import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphAttribute;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.NativeAttributeType;
+import au.gov.asd.tac.constellation.graph.NativeAttributeType.NativeValue;
 import au.gov.asd.tac.constellation.graph.StoreGraph;
 import au.gov.asd.tac.constellation.graph.attribute.ObjectAttributeDescription;
 import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
@@ -29,6 +31,7 @@ import au.gov.asd.tac.constellation.graph.schema.SchemaFactory;
 import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
 import au.gov.asd.tac.constellation.graph.versioning.UpdateProvider;
 import au.gov.asd.tac.constellation.graph.versioning.UpdateProviderManager;
+import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
 import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
 import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
 import au.gov.asd.tac.constellation.utilities.stream.ExtendedBuffer;
@@ -41,15 +44,24 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.ZipFile;
 import org.openide.util.Exceptions;
 import org.openide.util.Lookup;
+import org.openide.util.NbPreferences;
 
 /**
  * Read a graph in JSON format.
@@ -63,6 +75,16 @@ public final class GraphJsonReader {
     // After each interval of this many elements, report to the user.
     private static final int REPORT_INTERVAL = 10000;
 
+    // The number of vertices or transactions decoded together by a worker thread.
+    private static final int CHUNK_SIZE = 4096;
+
+    // Decodes chunks for every reader, so that reading a graph does not start threads of its own.
+    private static final ExecutorService DECODER = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+        final Thread thread = new Thread(runnable, "Graph JSON Decoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     // Track classes that know how to read particular types from JSON.
     private final Map<String, AbstractGraphIOProvider> providers;
     private Map<String, Integer> versionedItems;
@@ -74,6 +96,8 @@ public final class GraphJsonReader {
     private long structModCount;
     private final Map<Integer, Long> attrValCount = new HashMap<>();
     private GraphByteReader byteReader;
+    private boolean mappedOpen;
+    private int threadCount = Runtime.getRuntime().availableProcessors();
 
     private static final String ATTRIBUTE_MOD_COUNT = "attribute_mod_count";
     private static final String GLOBAL_MOD_COUNT = "global_mod_count";
@@ -95,9 +119,49 @@ public final class GraphJsonReader {
         providerResults.allInstances().forEach(provider -> providers.put(provider.getName(), provider));
 
         byteReader = null;
+        mappedOpen = NbPreferences.forModule(ApplicationPreferenceKeys.class).getBoolean(ApplicationPreferenceKeys.MAPPED_GRAPH_OPEN, ApplicationPreferenceKeys.MAPPED_GRAPH_OPEN_DEFAULT);
+    }
+
+    /**
+     * Set whether graph files saved in the binary format are opened by mapping
+     * their columns rather than reading them.
+     * <p>
+     * The default is taken from the
+     * {@link ApplicationPreferenceKeys#MAPPED_GRAPH_OPEN} preference. It only
+     * applies to graphs read from a {@link File}.
+     *
+     * @param mappedOpen True to map columns, false to read them.
+     */
+    public void setMappedOpen(final boolean mappedOpen) {
+        this.mappedOpen = mappedOpen;
+    }
+
+    /**
+     * Set the number of threads used to decode vertex and transaction
+     * attribute values.
+     * <p>
+     * The default is the number of available processors. With a single thread
+     * every value is decoded straight into the graph as it is parsed.
+     * Otherwise the values are decoded by a pool of threads shared by every
+     * reader, and this limits how many chunks of elements are in flight.
+     *
+     * @param threadCount The number of threads to decode values with.
+     */
+    public void setThreadCount(final int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
     }
 
     public Graph readGraphZip(final File graphFile, final IoProgress progress) throws IOException, GraphParseException {
+        if (mappedOpen) {
+            try (final ZipFile zipFile = new ZipFile(graphFile)) {
+                if (zipFile.getEntry(GraphFileConstants.BINARY_GRAPH_ENTRY) != null) {
+                    progress.start(100);
+                    progress.progress("Reading file: " + graphFile.getPath());
+                    return new GraphBinaryReader(providers).readGraphMapped(graphFile.getPath(), zipFile, progress);
+                }
+            }
+        }
+
         try (final InputStream in = new BufferedInputStream(new FileInputStream(graphFile))) {
             return readGraphZip(graphFile.getPath(), in, progress);
         }
@@ -112,6 +176,15 @@ public final class GraphJsonReader {
         }
 
         try {
+            // A graph saved in the binary format takes precedence.
+            final ExtendedBuffer binary = byteReader.read(GraphFileConstants.BINARY_GRAPH_ENTRY);
+            if (binary != null) {
+                try (final InputStream in = binary.getInputStream()) {
+                    graph = new GraphBinaryReader(providers).readGraph(name, in, byteReader, progress);
+                }
+                return graph;
+            }
+
             // Get the graph first.
             final String graphEntry = "graph" + GraphFileConstants.FILE_EXTENSION;
             ExtendedBuffer in = byteReader.read(graphEntry);
@@ -222,8 +295,9 @@ public final class GraphJsonReader {
         // Use a combination of stream and tree-model parsing.
         jp = new MappingJsonFactory().createParser(in);
 
-        final Map<Integer, Integer> vertexMap = new HashMap<>();
-        final Map<Integer, Integer> transactionMap = new HashMap<>();
+        // Worker threads may read these maps while vertices and transactions are being added.
+        final Map<Integer, Integer> vertexMap = new ConcurrentHashMap<>();
+        final Map<Integer, Integer> transactionMap = new ConcurrentHashMap<>();
         final StoreGraph storeGraph;
 
         JsonToken current = jp.nextToken();
@@ -314,22 +388,10 @@ public final class GraphJsonReader {
             throw new GraphParseException(String.format(EXPECTED_END_OBJECT_FORMAT, current));
         }
 
-        SchemaFactory schemaFactory = SchemaFactoryUtilities.getSchemaFactory(schemaFactoryName);
-        if (schemaFactory == null) {
-            final SchemaFactory defaultSchemaFactory = SchemaFactoryUtilities.getDefaultSchemaFactory();
-            LOGGER.warning(String.format("Unknown schema factory '%s'; falling back to '%s'", schemaFactoryName, defaultSchemaFactory.getName()));
-            schemaFactory = defaultSchemaFactory;
-        }
+        final SchemaFactory schemaFactory = getSchemaFactory(schemaFactoryName);
 
         storeGraph = new StoreGraph(schemaFactory.createSchema());
-        UpdateProviderManager.getRegisteredProviders().forEach((item, itemProviders) -> {
-            if (item.appliesToGraph(storeGraph)) {
-                final int currentVersion = versionedItems.containsKey(item.getName()) ? versionedItems.get(item.getName()) : UpdateProvider.DEFAULT_VERSION;
-                if (itemProviders.containsKey(currentVersion)) {
-                    itemProviders.get(currentVersion).configure(storeGraph);
-                }
-            }
-        });
+        configureGraph(storeGraph, versionedItems);
 
         try {
             // Depending on the version number, different things could happen.
@@ -437,8 +499,66 @@ public final class GraphJsonReader {
             }
         }
 
+        updateGraph(storeGraph, versionedItems);
+
+        graph = new DualGraph(schemaFactory.createSchema(), storeGraph);
+
+        if (progress != null) {
+            progress.finish();
+        }
+
+        LOGGER.log(Level.INFO, "immutableObjectCache={0}", immutableObjectCache);
+
+        return graph;
+    }
+
+    /**
+     * Find the schema factory a graph was saved with, falling back to the
+     * default schema factory if it is not known.
+     *
+     * @param schemaFactoryName The name of the schema factory.
+     *
+     * @return The schema factory to create the graph with.
+     */
+    static SchemaFactory getSchemaFactory(final String schemaFactoryName) {
+        SchemaFactory schemaFactory = SchemaFactoryUtilities.getSchemaFactory(schemaFactoryName);
+        if (schemaFactory == null) {
+            final SchemaFactory defaultSchemaFactory = SchemaFactoryUtilities.getDefaultSchemaFactory();
+            LOGGER.warning(String.format("Unknown schema factory '%s'; falling back to '%s'", schemaFactoryName, defaultSchemaFactory.getName()));
+            schemaFactory = defaultSchemaFactory;
+        }
+        return schemaFactory;
+    }
+
+    /**
+     * Allow any relevant version providers to configure a new graph before it
+     * is read.
+     *
+     * @param storeGraph The graph being read.
+     * @param versionedItems The versions of the items the graph was saved
+     * with.
+     */
+    static void configureGraph(final StoreGraph storeGraph, final Map<String, Integer> versionedItems) {
+        UpdateProviderManager.getRegisteredProviders().forEach((item, itemProviders) -> {
+            if (item.appliesToGraph(storeGraph)) {
+                final int currentVersion = versionedItems.containsKey(item.getName()) ? versionedItems.get(item.getName()) : UpdateProvider.DEFAULT_VERSION;
+                if (itemProviders.containsKey(currentVersion)) {
+                    itemProviders.get(currentVersion).configure(storeGraph);
+                }
+            }
+        });
+    }
+
+    /**
+     * Allow any relevant version providers to update a graph after it has
+     * been read.
+     *
+     * @param storeGraph The graph that was read.
+     * @param versionedItems The versions of the items the graph was saved
+     * with.
+     */
+    static void updateGraph(final StoreGraph storeGraph, final Map<String, Integer> versionedItems) {
         try {
-            // Allow any relevant version providers to update the graph if necessary.
             UpdateProviderManager.getRegisteredProviders().forEach((item, itemProviders) -> {
                 if (item.appliesToGraph(storeGraph)) {
                     int currentVersion = versionedItems.containsKey(item.getName()) ? versionedItems.get(item.getName()) : UpdateProvider.DEFAULT_VERSION;
@@ -456,16 +576,6 @@ public final class GraphJsonReader {
             LOGGER.warning(msg);
             Exceptions.printStackTrace(ex);
         }
-
-        graph = new DualGraph(schemaFactory.createSchema(), storeGraph);
-
-        if (progress != null) {
-            progress.finish();
-        }
-
-        LOGGER.log(Level.INFO, "immutableObjectCache={0}", immutableObjectCache);
-
-        return graph;
     }
 
     /**
@@ -628,82 +738,86 @@ public final class GraphJsonReader {
             throw new GraphParseException(msg);
         }
 
-        while (jp.nextToken() != JsonToken.END_ARRAY) {
-            // Read the object into a tree model.
-            final JsonNode node = jp.readValueAsTree();
-            final int id;
-            if (elementType == GraphElementType.VERTEX) {
-                final JsonNode idNode = node.get(GraphFileConstants.VX_ID);
-                if (idNode == null) {
-                    final String msg = String.format(DID_NOT_FIND_FORMAT, GraphFileConstants.VX_ID, jp.getCurrentLocation());
-                    throw new GraphParseException(msg);
-                }
+        if (threadCount > 1 && (elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION)) {
+            parseDataInChunks(graph, elementType, attributes, vertexPositions, transactionPositions, ph, entrySize);
+        } else {
+            while (jp.nextToken() != JsonToken.END_ARRAY) {
+                // Read the object into a tree model.
+                final JsonNode node = jp.readValueAsTree();
+                final int id;
+                if (elementType == GraphElementType.VERTEX) {
+                    final JsonNode idNode = node.get(GraphFileConstants.VX_ID);
+                    if (idNode == null) {
+                        final String msg = String.format(DID_NOT_FIND_FORMAT, GraphFileConstants.VX_ID, jp.getCurrentLocation());
+                        throw new GraphParseException(msg);
+                    }
 
-                final int jsonId = idNode.intValue();
-                id = graph.addVertex();
-                vertexPositions.put(jsonId, id);
-            } else if (elementType == GraphElementType.TRANSACTION) {
-                final JsonNode idNode = node.get(GraphFileConstants.TX_ID);
-                // We can't test for null and throw an exception here: putting the txId in the file is an afterthought,
-                // so lots of existing graphs won't have it.
-
-                final JsonNode srcNode = node.get(GraphFileConstants.SRC);
-                if (srcNode == null) {
-                    final String msg = String.format(DID_NOT_FIND_FORMAT, GraphFileConstants.SRC, jp.getCurrentLocation());
-                    throw new GraphParseException(msg);
-                }
+                    final int jsonId = idNode.intValue();
+                    id = graph.addVertex();
+                    vertexPositions.put(jsonId, id);
+                } else if (elementType == GraphElementType.TRANSACTION) {
+                    final JsonNode idNode = node.get(GraphFileConstants.TX_ID);
+                    // We can't test for null and throw an exception here: putting the txId in the file is an afterthought,
+                    // so lots of existing graphs won't have it.
+
+                    final JsonNode srcNode = node.get(GraphFileConstants.SRC);
+                    if (srcNode == null) {
+                        final String msg = String.format(DID_NOT_FIND_FORMAT, GraphFileConstants.SRC, jp.getCurrentLocation());
+                        throw new GraphParseException(msg);
+                    }
 
-                final JsonNode dstNode = node.get(GraphFileConstants.DST);
-                if (dstNode == null) {
-                    final String msg = String.format(DID_NOT_FIND_FORMAT, GraphFileConstants.DST, jp.getCurrentLocation());
-                    throw new GraphParseException(msg);
-                }
+                    final JsonNode dstNode = node.get(GraphFileConstants.DST);
+                    if (dstNode == null) {
+                        final String msg = String.format(DID_NOT_FIND_FORMAT, GraphFileConstants.DST, jp.getCurrentLocation());
+                        throw new GraphParseException(msg);
+                    }
 
-                final JsonNode dirNode = node.get(GraphFileConstants.DIR);
-                if (dirNode == null) {
-                    final String msg = String.format(DID_NOT_FIND_FORMAT, GraphFileConstants.DIR, jp.getCurrentLocation());
-                    throw new GraphParseException(msg);
-                }
+                    final JsonNode dirNode = node.get(GraphFileConstants.DIR);
+                    if (dirNode == null) {
+                        final String msg = String.format(DID_NOT_FIND_FORMAT, GraphFileConstants.DIR, jp.getCurrentLocation());
+                        throw new GraphParseException(msg);
+                    }
 
-                // Map the ids in the JSON file to the vertex ids in the graph.
-                final int jsonId = idNode != null ? idNode.intValue() : Graph.NOT_FOUND;
-                final int jsonSrc = srcNode.intValue();
-                final int jsonDst = dstNode.intValue();
-
-                final int src = vertexPositions.get(jsonSrc);
-                final int dst = vertexPositions.get(jsonDst);
-                final boolean directed = dirNode.booleanValue();
-                id = graph.addTransaction(src, dst, directed);
-                if (jsonId != Graph.NOT_FOUND) {
-                    transactionPositions.put(jsonId, id);
+                    // Map the ids in the JSON file to the vertex ids in the graph.
+                    final int jsonId = idNode != null ? idNode.intValue() : Graph.NOT_FOUND;
+                    final int jsonSrc = srcNode.intValue();
+                    final int jsonDst = dstNode.intValue();
+
+                    final int src = vertexPositions.get(jsonSrc);
+                    final int dst = vertexPositions.get(jsonDst);
+                    final boolean directed = dirNode.booleanValue();
+                    id = graph.addTransaction(src, dst, directed);
+                    if (jsonId != Graph.NOT_FOUND) {
+                        transactionPositions.put(jsonId, id);
+                    }
+                } else if (elementType == GraphElementType.GRAPH || elementType == GraphElementType.META) {
+                    id = 0;
+                } else {
+                    id = Graph.NOT_FOUND;
                 }
-            } else if (elementType == GraphElementType.GRAPH || elementType == GraphElementType.META) {
-                id = 0;
-            } else {
-                id = Graph.NOT_FOUND;
-            }
-
-            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
-                final Map.Entry<String, JsonNode> entry = it.next();
-                final String label = entry.getKey();
-                final JsonNode jnode = entry.getValue();
-                final AttrInfo ai = attributes.get(label);
-                if (ai != null && providers.containsKey(ai.attrType)) {
-                    AbstractGraphIOProvider ioProvider = providers.get(ai.attrType);
-                    ioProvider.readObject(ai.attrId, id, jnode, graph, vertexPositions, transactionPositions, byteReader, immutableObjectCache);
-                } else if (ai != null) {
-                    throw new Exception("No IO provider found for attribute type: " + ai.attrType);
+
+                for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+                    final Map.Entry<String, JsonNode> entry = it.next();
+                    final String label = entry.getKey();
+                    final JsonNode jnode = entry.getValue();
+                    final AttrInfo ai = attributes.get(label);
+                    if (ai != null && providers.containsKey(ai.attrType)) {
+                        AbstractGraphIOProvider ioProvider = providers.get(ai.attrType);
+                        ioProvider.readObject(ai.attrId, id, jnode, graph, vertexPositions, transactionPositions, byteReader, immutableObjectCache);
+                    } else if (ai != null) {
+                        throw new Exception("No IO provider found for attribute type: " + ai.attrType);
+                    }
                 }
-            }
 
-            if (++counter % REPORT_INTERVAL == 0) {
-                final String msg = String.format("Vertices: %d; Transactions %d", graph.getVertexCount(), graph.getTransactionCount());
-                final long charOffset = jp.getCurrentLocation().getByteOffset();
-                if (entrySize != -1 && charOffset != -1 && ph != null) {
-                    final int workunit = (int) (100 * (charOffset / (double) entrySize));
-                    ph.progress(msg, workunit);
-                } else if (ph != null) {
-                    ph.progress(msg);
+                if (++counter % REPORT_INTERVAL == 0) {
+                    final String msg = String.format("Vertices: %d; Transactions %d", graph.getVertexCount(), graph.getTransactionCount());
+                    final long charOffset = jp.getCurrentLocation().getByteOffset();
+                    if (entrySize != -1 && charOffset != -1 && ph != null) {
+                        final int workunit = (int) (100 * (charOffset / (double) entrySize));
+                        ph.progress(msg, workunit);
+                    } else if (ph != null) {
+                        ph.progress(msg);
+                    }
                 }
             }
         }
@@ -721,6 +835,212 @@ public final class GraphJsonReader {
         }
     }
 
+    /**
+     * Parse the data array of vertices or transactions in chunks.
+     * <p>
+     * The JSON is parsed on this thread, which adds the elements of each chunk
+     * to the graph and then passes the chunk to a worker thread. Elements are
+     * added in the order they appear in the file, so element ids are the same
+     * as when the data is read on a single thread, and the id mappings are
+     * complete for a chunk before its values are decoded. Each worker decodes
+     * the attribute values of its chunk through the
+     * {@link AbstractGraphIOProvider}s into a scratch graph with the schema of
+     * the graph being read, indexed by the position of the element in the
+     * chunk. The values are then copied to the graph on this thread and the
+     * scratch graph is reused for a later chunk. Progress is reported for the
+     * data whose values have actually been copied.
+     * <p>
+     * On return, the parser is positioned at the end of the data array.
+     *
+     * @param graph The graph being read.
+     * @param elementType VERTEX or TRANSACTION.
+     * @param attributes The attributes of the element type.
+     * @param vertexPositions The mapping of JSON vertex id to vertex id.
+     * @param transactionPositions The mapping of JSON transaction id to
+     * transaction id.
+     * @param ph Progress handle.
+     * @param entrySize The size of the file being read; -1 if unknown.
+     */
+    private void parseDataInChunks(final GraphWriteMethods graph, final GraphElementType elementType, final Map<String, AttrInfo> attributes,
+            final Map<Integer, Integer> vertexPositions, final Map<Integer, Integer> transactionPositions, final IoProgress ph, final long entrySize) throws Exception {
+        // Only read by the workers, so a plain map can be shared.
+        final Map<String, Integer> labelIndex = new HashMap<>();
+        final AttrInfo[] infos = new AttrInfo[attributes.size()];
+        for (final Entry<String, AttrInfo> e : attributes.entrySet()) {
+            final int index = labelIndex.size();
+            labelIndex.put(e.getKey(), index);
+            infos[index] = e.getValue();
+        }
+
+        // Scratch graphs are only taken and returned on this thread.
+        final Deque<ScratchGraph> scratchGraphs = new ArrayDeque<>();
+        final ThreadLocal<ImmutableObjectCache> caches = ThreadLocal.withInitial(ImmutableObjectCache::new);
+        final Deque<Future<ElementChunk>> pending = new ArrayDeque<>();
+        try {
+            ElementChunk chunk = new ElementChunk();
+            while (jp.nextToken() != JsonToken.END_ARRAY) {
+                final JsonNode node = jp.readValueAsTree();
+                final int index = chunk.size++;
+                chunk.nodes[index] = node;
+                if (elementType == GraphElementType.VERTEX) {
+                    final JsonNode idNode = node.get(GraphFileConstants.VX_ID);
+                    if (idNode == null) {
+                        final String msg = String.format(DID_NOT_FIND_FORMAT, GraphFileConstants.VX_ID, jp.getCurrentLocation());
+                        throw new GraphParseException(msg);
+                    }
+                    chunk.ids[index] = graph.addVertex();
+                    vertexPositions.put(idNode.intValue(), chunk.ids[index]);
+                } else {
+                    final JsonNode idNode = node.get(GraphFileConstants.TX_ID);
+                    final int src = vertexPositions.get(getRequiredNode(node, GraphFileConstants.SRC).intValue());
+                    final int dst = vertexPositions.get(getRequiredNode(node, GraphFileConstants.DST).intValue());
+                    chunk.ids[index] = graph.addTransaction(src, dst, getRequiredNode(node, GraphFileConstants.DIR).booleanValue());
+                    if (idNode != null) {
+                        transactionPositions.put(idNode.intValue(), chunk.ids[index]);
+                    }
+                }
+
+                if (chunk.size == CHUNK_SIZE) {
+                    chunk.byteOffset = jp.getCurrentLocation().getByteOffset();
+                    chunk.values = scratchGraphs.isEmpty() ? new ScratchGraph(graph, labelIndex, infos) : scratchGraphs.remove();
+                    pending.add(submitChunk(chunk, labelIndex, infos, vertexPositions, transactionPositions, caches));
+                    chunk = new ElementChunk();
+
+                    // Keep a bounded number of chunks in memory.
+                    if (pending.size() >= 2 * threadCount) {
+                        scratchGraphs.add(copyChunkValues(graph, getChunk(pending.remove()), infos, ph, entrySize));
+                    }
+                }
+            }
+
+            if (chunk.size > 0) {
+                chunk.byteOffset = jp.getCurrentLocation().getByteOffset();
+                chunk.values = scratchGraphs.isEmpty() ? new ScratchGraph(graph, labelIndex, infos) : scratchGraphs.remove();
+                pending.add(submitChunk(chunk, labelIndex, infos, vertexPositions, transactionPositions, caches));
+            }
+            while (!pending.isEmpty()) {
+                copyChunkValues(graph, getChunk(pending.remove()), infos, ph, entrySize);
+            }
+        } finally {
+            for (final Future<ElementChunk> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private JsonNode getRequiredNode(final JsonNode node, final String field) throws GraphParseException {
+        final JsonNode fieldNode = node.get(field);
+        if (fieldNode == null) {
+            final String msg = String.format(DID_NOT_FIND_FORMAT, field, jp.getCurrentLocation());
+            throw new GraphParseException(msg);
+        }
+        return fieldNode;
+    }
+
+    private Future<ElementChunk> submitChunk(final ElementChunk chunk, final Map<String, Integer> labelIndex, final AttrInfo[] infos,
+            final Map<Integer, Integer> vertexPositions, final Map<Integer, Integer> transactionPositions, final ThreadLocal<ImmutableObjectCache> caches) {
+        return DECODER.submit(() -> {
+            final ScratchGraph values = chunk.values;
+            final ImmutableObjectCache cache = caches.get();
+            for (int i = 0; i < chunk.size; i++) {
+                for (final Iterator<Map.Entry<String, JsonNode>> it = chunk.nodes[i].fields(); it.hasNext();) {
+                    final Map.Entry<String, JsonNode> entry = it.next();
+                    final Integer index = labelIndex.get(entry.getKey());
+                    if (index == null) {
+                        continue;
+                    }
+
+                    final AbstractGraphIOProvider ioProvider = providers.get(infos[index].attrType);
+                    if (ioProvider == null) {
+                        throw new GraphParseException("No IO provider found for attribute type: " + infos[index].attrType);
+                    }
+                    ioProvider.readObject(values.attributes[index], i, entry.getValue(), values.graph, vertexPositions, transactionPositions, byteReader, cache);
+                }
+                chunk.nodes[i] = null;
+            }
+            return chunk;
+        });
+    }
+
+    private static ElementChunk getChunk(final Future<ElementChunk> future) throws Exception {
+        try {
+            return future.get();
+        } catch (final ExecutionException ex) {
+            throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+        }
+    }
+
+    /**
+     * Copy the decoded attribute values of a chunk to its elements in the
+     * graph, leaving the chunk's scratch graph ready to be reused.
+     *
+     * @return the scratch graph of the chunk.
+     */
+    private ScratchGraph copyChunkValues(final GraphWriteMethods graph, final ElementChunk chunk, final AttrInfo[] infos, final IoProgress ph, final long entrySize) {
+        final ScratchGraph values = chunk.values;
+        final NativeValue value = new NativeValue();
+        for (int a = 0; a < infos.length; a++) {
+            final int valueAttribute = values.attributes[a];
+            final NativeAttributeType nativeType = values.graph.getNativeAttributeType(valueAttribute);
+            for (int i = 0; i < chunk.size; i++) {
+                if (!values.graph.isDefaultValue(valueAttribute, i)) {
+                    nativeType.get(values.graph, valueAttribute, i, value);
+                    nativeType.set(graph, infos[a].attrId, chunk.ids[i], value);
+                    values.graph.clearValue(valueAttribute, i);
+                }
+            }
+        }
+
+        if (ph != null) {
+            final String msg = String.format("Vertices: %d; Transactions %d", graph.getVertexCount(), graph.getTransactionCount());
+            if (entrySize != -1 && chunk.byteOffset != -1) {
+                final int workunit = (int) (100 * (chunk.byteOffset / (double) entrySize));
+                ph.progress(msg, workunit);
+            } else {
+                ph.progress(msg);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * A graph that the values of a chunk are decoded into.
+     * <p>
+     * The graph has the schema of the graph being read, and holds the
+     * attributes of the element type being read as vertex attributes, with one
+     * vertex for each element of a chunk.
+     */
+    private static final class ScratchGraph {
+
+        final StoreGraph graph;
+        final int[] attributes;
+
+        ScratchGraph(final GraphWriteMethods target, final Map<String, Integer> labelIndex, final AttrInfo[] infos) {
+            graph = new StoreGraph(target.getSchema());
+            attributes = new int[infos.length];
+            for (final Entry<String, Integer> e : labelIndex.entrySet()) {
+                final int index = e.getValue();
+                attributes[index] = graph.addAttribute(GraphElementType.VERTEX, infos[index].attrType, e.getKey(), null,
+                        target.getAttributeDefaultValue(infos[index].attrId), null);
+            }
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                graph.addVertex();
+            }
+        }
+    }
+
+    /**
+     * The elements of one chunk of a data array, and their decoded values.
+     */
+    private static final class ElementChunk {
+
+        final JsonNode[] nodes = new JsonNode[CHUNK_SIZE];
+        final int[] ids = new int[CHUNK_SIZE];
+        int size = 0;
+        long byteOffset = -1;
+        ScratchGraph values;
+    }
+
     /**
      * Maintain attribute information.
      */
@@ -25,6 +25,7 @@ import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteWriter;
 import au.gov.asd.tac.constellation.graph.schema.BareSchemaFactory;
 import au.gov.asd.tac.constellation.graph.schema.Schema;
 import au.gov.asd.tac.constellation.graph.versioning.UpdateProviderManager;
+import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
 import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
@@ -40,10 +41,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import org.openide.util.Cancellable;
 import org.openide.util.Exceptions;
+import org.openide.util.NbPreferences;
 
 /**
  * Write a graph in JSON format.
@@ -62,6 +65,8 @@ public final class GraphJsonWriter implements Cancellable {
     private int counter;
     private volatile boolean isCancelled;
     private final GraphByteWriter byteWriter;
+    private final GraphBinaryWriter binaryWriter;
+    private boolean binaryFormat;
     private final HashMap<String, AbstractGraphIOProvider> graphIoProviders = new HashMap<>();
 
     private static final String DEFAULT_FIELD = "default";
@@ -71,11 +76,29 @@ public final class GraphJsonWriter implements Cancellable {
      */
     public GraphJsonWriter() {
         byteWriter = new GraphByteWriter();
+        binaryWriter = new GraphBinaryWriter(byteWriter);
+        binaryFormat = NbPreferences.forModule(ApplicationPreferenceKeys.class).getBoolean(ApplicationPreferenceKeys.SAVE_BINARY_FORMAT, ApplicationPreferenceKeys.SAVE_BINARY_FORMAT_DEFAULT);
         for (AbstractGraphIOProvider agiop : AbstractGraphIOProvider.getProviders()) {
             graphIoProviders.put(agiop.getName(), agiop);
         }
     }
 
+    /**
+     * Set whether zip files are written with the graph in the binary format
+     * rather than JSON.
+     * <p>
+     * The default is taken from the
+     * {@link ApplicationPreferenceKeys#SAVE_BINARY_FORMAT} preference. Only
+     * versions of Constellation that include {@link GraphBinaryReader} can
+     * open graphs written in the binary format.
+     *
+     * @param binaryFormat True to write the binary format, false to write
+     * JSON.
+     */
+    public void setBinaryFormat(final boolean binaryFormat) {
+        this.binaryFormat = binaryFormat;
+    }
+
     /**
      * Serialise a graph to a file with all elements written.
      * <p>
@@ -149,6 +172,9 @@ public final class GraphJsonWriter implements Cancellable {
      * <p>
      * The OutputStream will be wrapped in a ZipOutputStream and the graph and
      * any ancillary files will be written as ZipEntry files.
+     * <p>
+     * If {@link #setBinaryFormat binary format} is set, the graph is written
+     * by {@link GraphBinaryWriter} instead of as JSON.
      *
      * @param graph The graph to serialise.
      * @param out The OutputStream to write a zip file to.
@@ -163,9 +189,17 @@ public final class GraphJsonWriter implements Cancellable {
         this.progress = progress;
 
         try (ZipOutputStream zout = new ZipOutputStream(out)) {
-            final ZipEntry zentry = new ZipEntry("graph" + GraphFileConstants.FILE_EXTENSION);
-            zout.putNextEntry(zentry);
-            writeGraphToStream(graph, zout, false, elementTypes);
+            if (binaryFormat) {
+                // The columns are already compact, so favour speed over size.
+                zout.setLevel(Deflater.BEST_SPEED);
+                zout.putNextEntry(new ZipEntry(GraphFileConstants.BINARY_GRAPH_ENTRY));
+                isCancelled = binaryWriter.writeGraphToStream(graph, zout, progress, elementTypes);
+                zout.setLevel(Deflater.DEFAULT_COMPRESSION);
+            } else {
+                final ZipEntry zentry = new ZipEntry("graph" + GraphFileConstants.FILE_EXTENSION);
+                zout.putNextEntry(zentry);
+                writeGraphToStream(graph, zout, false, elementTypes);
+            }
             try {
                 if (!isCancelled) {
                     for (Map.Entry<String, File> entry : byteWriter.getFileMap().entrySet()) {
@@ -470,6 +504,7 @@ public final class GraphJsonWriter implements Cancellable {
     @Override
     public boolean cancel() {
         isCancelled = true;
+        binaryWriter.cancel();
 
         return true;
     }
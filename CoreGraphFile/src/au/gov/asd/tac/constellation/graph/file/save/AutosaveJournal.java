@@ -0,0 +1,449 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.save;
+
+import au.gov.asd.tac.constellation.graph.Attribute;
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphAttribute;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.NativeAttributeType;
+import au.gov.asd.tac.constellation.graph.NativeAttributeType.NativeValue;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.attribute.io.BinaryIoUtilities;
+import au.gov.asd.tac.constellation.graph.locking.DualGraph;
+import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
+import au.gov.asd.tac.constellation.graph.undo.GraphEditListener;
+import au.gov.asd.tac.constellation.graph.undo.UndoGraphEdit;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An AutosaveJournal records the edits made to a graph since its last
+ * checkpoint so that an autosave only has to append the new edits to a file
+ * instead of rewriting the whole graph.
+ * <p>
+ * A checkpoint is an ordinary autosaved graph file together with a journal
+ * header that records the id layouts of the graph at that moment. The
+ * {@link UndoGraphEdit}s that follow the header allocate ids implicitly when
+ * they are replayed, so on recovery the graph read from the checkpoint is
+ * rebuilt with the same layouts before the journal is replayed onto it.
+ * <p>
+ * A new checkpoint is needed when there is none, when an edit cannot be
+ * serialised (for example a {@link au.gov.asd.tac.constellation.graph.operations.GraphOperation}),
+ * or when the journal has grown larger than the checkpoint it follows.
+ *
+ * @author sirius
+ */
+public final class AutosaveJournal implements GraphEditListener {
+
+    private static final Logger LOGGER = Logger.getLogger(AutosaveJournal.class.getName());
+
+    /**
+     * The first four bytes of a journal: "STJN" in ASCII.
+     */
+    private static final int MAGIC = 0x53544A4E;
+    private static final int VERSION = 1;
+    private static final long MINIMUM_CHECKPOINT_SIZE = 1 << 20;
+    private static final Map<Graph, AutosaveJournal> JOURNALS = new WeakHashMap<>();
+
+    private final File file;
+    private final List<JournalEntry> pending = new ArrayList<>();
+    private String checkpoint = null;
+    private long checkpointSize;
+
+    private AutosaveJournal(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the journal recording the edits of a graph, starting to record them
+     * if necessary.
+     *
+     * @param graph the graph.
+     * @param file the journal file.
+     * @return the journal recording the edits of the graph.
+     */
+    public static synchronized AutosaveJournal getJournal(final Graph graph, final File file) {
+        AutosaveJournal journal = JOURNALS.get(graph);
+        if (journal == null) {
+            journal = new AutosaveJournal(file);
+            JOURNALS.put(graph, journal);
+            graph.setGraphEditListener(journal);
+        }
+        return journal;
+    }
+
+    /**
+     * Stop recording the edits of a graph.
+     *
+     * @param graph the graph.
+     */
+    public static synchronized void removeJournal(final Graph graph) {
+        if (JOURNALS.remove(graph) != null) {
+            graph.setGraphEditListener(null);
+        }
+    }
+
+    @Override
+    public void editApplied(final UndoGraphEdit edit, final boolean undo) {
+        synchronized (pending) {
+            pending.add(new JournalEntry(edit, undo));
+        }
+    }
+
+    /**
+     * Is a new checkpoint required before edits can be appended?
+     *
+     * @return true if a new checkpoint is required.
+     */
+    public boolean isCheckpointRequired() {
+        return checkpoint == null || file.length() > Math.max(checkpointSize, MINIMUM_CHECKPOINT_SIZE);
+    }
+
+    /**
+     * Append the edits recorded since the last autosave to the journal.
+     * <p>
+     * If an edit cannot be serialised nothing is written and the journal is
+     * invalidated so that the next autosave writes a checkpoint.
+     *
+     * @return true if the edits were appended, false if a checkpoint is
+     * required instead.
+     */
+    public boolean append() {
+        if (checkpoint == null) {
+            return false;
+        }
+
+        final List<JournalEntry> entries;
+        synchronized (pending) {
+            entries = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        try {
+            final ByteArrayOutputStream records = new ByteArrayOutputStream();
+            final DataOutputStream recordsOut = new DataOutputStream(records);
+            final ByteArrayOutputStream record = new ByteArrayOutputStream();
+            for (final JournalEntry entry : entries) {
+                record.reset();
+                final DataOutputStream recordOut = new DataOutputStream(record);
+                recordOut.writeBoolean(entry.undo);
+                entry.edit.write(recordOut);
+                recordOut.flush();
+
+                recordsOut.writeInt(record.size());
+                record.writeTo(recordsOut);
+            }
+            recordsOut.flush();
+
+            try (final OutputStream out = new FileOutputStream(file, true)) {
+                records.writeTo(out);
+            }
+            return true;
+        } catch (final IOException ex) {
+            LOGGER.log(Level.WARNING, "Unable to append to autosave journal, a checkpoint will be written instead", ex);
+            checkpoint = null;
+            return false;
+        }
+    }
+
+    /**
+     * Start a new checkpoint by copying the graph.
+     * <p>
+     * The copy is taken while holding the graph's write lock so that the edits
+     * recorded by this journal divide exactly at the copy. The existing journal
+     * file is deleted so that it can not be replayed onto the new checkpoint
+     * if the autosave is interrupted.
+     *
+     * @param graph the graph.
+     * @return a copy of the graph, or null if the write lock is not currently
+     * available.
+     */
+    public StoreGraph startCheckpoint(final Graph graph) {
+        final WritableGraph wg = graph.getWritableGraphNow("Autosave Checkpoint", false);
+        if (wg == null) {
+            return null;
+        }
+
+        final StoreGraph copy;
+        try {
+            copy = (StoreGraph) wg.copy();
+            synchronized (pending) {
+                pending.clear();
+            }
+        } finally {
+            wg.rollBack();
+        }
+
+        checkpoint = null;
+        if (file.exists() && !file.delete()) {
+            LOGGER.log(Level.WARNING, "Unable to delete autosave journal {0}", file.getPath());
+        }
+
+        return copy;
+    }
+
+    /**
+     * Finish a checkpoint once the copy of the graph has been autosaved by
+     * writing a new journal header.
+     *
+     * @param copy the copy returned by {@link #startCheckpoint(Graph)}.
+     * @param checkpointSize the size of the autosaved graph file.
+     * @return the id of the checkpoint, to be stored with the autosave.
+     * @throws IOException if an I/O error occurs.
+     */
+    public String finishCheckpoint(final StoreGraph copy, final long checkpointSize) throws IOException {
+        final String id = UUID.randomUUID().toString();
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            BinaryIoUtilities.writeString(id, out);
+
+            writeLayout(out, copy.getElementLayout(GraphElementType.VERTEX), copy.getVertexCount());
+            writeLayout(out, copy.getElementLayout(GraphElementType.TRANSACTION), copy.getTransactionCount());
+
+            final int[] attributeLayout = copy.getAttributeLayout();
+            int attributeCount = 0;
+            for (final GraphElementType elementType : GraphElementType.values()) {
+                attributeCount += copy.getAttributeCount(elementType);
+            }
+            writeLayout(out, attributeLayout, attributeCount);
+            for (int position = 0; position < attributeCount; position++) {
+                final Attribute attribute = new GraphAttribute(copy, attributeLayout[position]);
+                out.writeByte(attribute.getElementType().ordinal());
+                BinaryIoUtilities.writeString(attribute.getAttributeType(), out);
+                BinaryIoUtilities.writeString(attribute.getName(), out);
+                BinaryIoUtilities.writeString(attribute.getDescription(), out);
+                BinaryIoUtilities.writeString(attribute.getAttributeMerger() == null ? null : attribute.getAttributeMerger().getId(), out);
+            }
+        }
+
+        checkpoint = id;
+        this.checkpointSize = checkpointSize;
+        return id;
+    }
+
+    private static void writeLayout(final DataOutputStream out, final int[] layout, final int count) throws IOException {
+        out.writeInt(count);
+        out.writeInt(layout.length);
+        for (final int id : layout) {
+            out.writeInt(id);
+        }
+    }
+
+    private static int[] readLayout(final DataInputStream in) throws IOException {
+        final int[] layout = new int[in.readInt()];
+        for (int position = 0; position < layout.length; position++) {
+            layout[position] = in.readInt();
+        }
+        return layout;
+    }
+
+    /**
+     * Replay a journal onto the graph read from its checkpoint.
+     *
+     * @param snapshot the graph read from the checkpoint's autosave file.
+     * @param file the journal file.
+     * @param checkpoint the id of the checkpoint stored with the autosave.
+     * @return the graph with the journal replayed, or the snapshot if there is
+     * no journal belonging to the checkpoint.
+     * @throws IOException if the journal could not be read or replayed.
+     */
+    public static Graph restore(final Graph snapshot, final File file, final String checkpoint) throws IOException {
+        if (checkpoint == null || !file.exists()) {
+            return snapshot;
+        }
+
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !checkpoint.equals(BinaryIoUtilities.readString(in))) {
+                return snapshot;
+            }
+
+            final StoreGraph graph;
+            final ReadableGraph rg = snapshot.getReadableGraph();
+            try {
+                graph = rebuild(rg, in);
+            } finally {
+                rg.release();
+            }
+
+            replay(graph, in);
+
+            return new DualGraph(graph.getSchema(), graph);
+        } catch (final EOFException ex) {
+            throw new IOException("Incomplete journal header", ex);
+        }
+    }
+
+    /**
+     * Rebuild the graph read from a checkpoint with the id layouts it had when
+     * the checkpoint was taken. Elements are read back from a graph file in
+     * position order, so the element at each position of the snapshot is
+     * the element at the same position of the checkpoint.
+     */
+    private static StoreGraph rebuild(final GraphReadMethods snapshot, final DataInputStream in) throws IOException {
+        final StoreGraph graph = new StoreGraph(snapshot.getSchema() == null ? null : snapshot.getSchema().getFactory().createSchema(), snapshot.getId());
+
+        final int vertexCount = in.readInt();
+        graph.setElementLayout(GraphElementType.VERTEX, readLayout(in));
+        final int transactionCount = in.readInt();
+        graph.setElementLayout(GraphElementType.TRANSACTION, readLayout(in));
+        if (vertexCount != snapshot.getVertexCount() || transactionCount != snapshot.getTransactionCount()) {
+            throw new IOException("Journal does not match its checkpoint");
+        }
+
+        final int attributeCount = in.readInt();
+        final int[] attributeLayout = readLayout(in);
+        graph.setAttributeLayout(attributeLayout);
+        final int[] snapshotAttributes = new int[attributeCount];
+        for (int position = 0; position < attributeCount; position++) {
+            final GraphElementType elementType = GraphElementType.values()[in.readByte()];
+            final String attributeType = BinaryIoUtilities.readString(in);
+            final String name = BinaryIoUtilities.readString(in);
+            final String description = BinaryIoUtilities.readString(in);
+            final String mergerId = BinaryIoUtilities.readString(in);
+
+            // Attributes that were not saved in the checkpoint, such as objects, start with no values.
+            int snapshotAttribute = snapshot.getAttribute(elementType, name);
+            if (snapshotAttribute != Graph.NOT_FOUND && !snapshot.getAttributeType(snapshotAttribute).equals(attributeType)) {
+                snapshotAttribute = Graph.NOT_FOUND;
+            }
+            snapshotAttributes[position] = snapshotAttribute;
+
+            final Object defaultValue = snapshotAttribute == Graph.NOT_FOUND ? null : snapshot.getAttributeDefaultValue(snapshotAttribute);
+            if (graph.addAttribute(elementType, attributeType, name, description, defaultValue, mergerId) != attributeLayout[position]) {
+                throw new IOException("Journal does not match its checkpoint");
+            }
+        }
+
+        for (int position = 0; position < vertexCount; position++) {
+            graph.addVertex();
+        }
+        for (int position = 0; position < transactionCount; position++) {
+            final int transaction = snapshot.getTransaction(position);
+            final int source = graph.getVertex(snapshot.getVertexPosition(snapshot.getTransactionSourceVertex(transaction)));
+            final int destination = graph.getVertex(snapshot.getVertexPosition(snapshot.getTransactionDestinationVertex(transaction)));
+            graph.addTransaction(source, destination, snapshot.getTransactionDirection(transaction) != Graph.UNDIRECTED);
+        }
+
+        final NativeValue value = new NativeValue();
+        for (int position = 0; position < attributeCount; position++) {
+            final int snapshotAttribute = snapshotAttributes[position];
+            if (snapshotAttribute == Graph.NOT_FOUND) {
+                continue;
+            }
+
+            final int attribute = attributeLayout[position];
+            final NativeAttributeType nativeType = snapshot.getNativeAttributeType(snapshotAttribute);
+            switch (graph.getAttributeElementType(attribute)) {
+                case GRAPH:
+                case META:
+                    nativeType.get(snapshot, snapshotAttribute, 0, value);
+                    nativeType.set(graph, attribute, 0, value);
+                    break;
+                case VERTEX:
+                    for (int element = 0; element < vertexCount; element++) {
+                        nativeType.get(snapshot, snapshotAttribute, snapshot.getVertex(element), value);
+                        nativeType.set(graph, attribute, graph.getVertex(element), value);
+                    }
+                    break;
+                case TRANSACTION:
+                    for (int element = 0; element < transactionCount; element++) {
+                        nativeType.get(snapshot, snapshotAttribute, snapshot.getTransaction(element), value);
+                        nativeType.set(graph, attribute, graph.getTransaction(element), value);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        for (final GraphElementType elementType : new GraphElementType[]{GraphElementType.VERTEX, GraphElementType.TRANSACTION}) {
+            final int[] snapshotKey = snapshot.getPrimaryKey(elementType);
+            final int[] key = new int[snapshotKey.length];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = graph.getAttribute(elementType, snapshot.getAttributeName(snapshotKey[i]));
+                if (key[i] == Graph.NOT_FOUND) {
+                    throw new IOException("Journal does not match its checkpoint");
+                }
+            }
+            graph.setPrimaryKey(elementType, key);
+        }
+        graph.validateKeys();
+
+        return graph;
+    }
+
+    /**
+     * Replay the journal records onto a rebuilt graph. An incomplete record at
+     * the end of the journal, left by an interrupted autosave, is ignored.
+     */
+    private static void replay(final StoreGraph graph, final DataInputStream in) throws IOException {
+        while (true) {
+            final byte[] record;
+            try {
+                record = new byte[in.readInt()];
+                in.readFully(record);
+            } catch (final EOFException ex) {
+                return;
+            }
+
+            final DataInputStream recordIn = new DataInputStream(new ByteArrayInputStream(record));
+            final boolean undo = recordIn.readBoolean();
+            final UndoGraphEdit edit = new UndoGraphEdit(recordIn);
+            if (undo) {
+                graph.setOperationMode(GraphOperationMode.UNDO);
+                edit.undo(graph);
+            } else {
+                graph.setOperationMode(GraphOperationMode.REDO);
+                edit.execute(graph);
+            }
+            graph.setOperationMode(GraphOperationMode.EXECUTE);
+            graph.validateKeys();
+        }
+    }
+
+    private static final class JournalEntry {
+
+        private final UndoGraphEdit edit;
+        private final boolean undo;
+
+        private JournalEntry(final UndoGraphEdit edit, final boolean undo) {
+            this.edit = edit;
+            this.undo = undo;
+        }
+    }
+}
@@ -44,7 +44,9 @@ public final class AutosaveUtilities {
     public static final String PATH = "path";
     public static final String UNSAVED = "unsaved";
     public static final String DT = "dt";
+    public static final String CHECKPOINT = "checkpoint";
     public static final String AUTO_EXT = ".star_auto";
+    public static final String JOURNAL_EXT = ".star_journal";
     private static final Logger LOGGER = Logger.getLogger(AutosaveUtilities.class.getName());
     private static final String AUTOSAVE_DIR = "Autosave";
 
@@ -122,6 +124,33 @@ public final class AutosaveUtilities {
                 //TODO: Handle case where file not successfully deleted
             }
         }
+
+        final File journal = getJournal(f);
+        if (journal != null && journal.exists() && !journal.delete()) {
+            LOGGER.log(Level.WARNING, "Unable to delete autosave journal {0}", journal.getPath());
+        }
+    }
+
+    /**
+     * Return the journal belonging to an autosave.
+     * <p>
+     * The journal holds the edits made to the graph since the autosave when
+     * autosaves are journaled.
+     *
+     * @param f A .star or .star_auto autosave file.
+     *
+     * @return The journal belonging to the autosave, or null if the file is
+     * not an autosave file.
+     */
+    public static File getJournal(final File f) {
+        final String path = f.getPath();
+        if (path.endsWith(GraphDataObject.FILE_EXTENSION)) {
+            return new File(path.substring(0, path.length() - GraphDataObject.FILE_EXTENSION.length()) + JOURNAL_EXT);
+        } else if (path.endsWith(AUTO_EXT)) {
+            return new File(path.substring(0, path.length() - AUTO_EXT.length()) + JOURNAL_EXT);
+        }
+
+        return null;
     }
 
     /**
@@ -226,6 +255,15 @@ public final class AutosaveUtilities {
             }
         }
 
+        // Find .star_journal files without a .star.
+        for (final File journal : getAutosaves(JOURNAL_EXT)) {
+            final String journals = journal.getPath();
+            final File star = new File(journals.substring(0, journals.length() - JOURNAL_EXT.length()) + GraphDataObject.FILE_EXTENSION);
+            if (!star.exists() && !journal.delete()) {
+                LOGGER.log(Level.WARNING, "Unable to delete orphaned autosave journal {0}", journal.getPath());
+            }
+        }
+
         // Find .star_auto files without a .star.
         for (final File auto : getAutosaves(AUTO_EXT)) {
             final String autos = auto.getPath();
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.DictionaryStringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ZonedDateTimeAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteReader;
+import au.gov.asd.tac.constellation.graph.file.GraphDataObject;
+import au.gov.asd.tac.constellation.graph.locking.SnapshotGraph;
+import au.gov.asd.tac.constellation.utilities.gui.TextIoProgress;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Graph Binary Test.
+ *
+ * @author sirius
+ */
+public class GraphBinaryNGTest {
+
+    private static final ZonedDateTime TIME = ZonedDateTime.of(2020, 9, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    public void roundTripThroughZip() throws IOException, GraphParseException {
+        final StoreGraph graph = new StoreGraph();
+        final int nameAttribute = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", null, "unnamed", null);
+        final int typeAttribute = graph.addAttribute(GraphElementType.VERTEX, DictionaryStringAttributeDescription.ATTRIBUTE_NAME, "type", null, null, null);
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int countAttribute = graph.addAttribute(GraphElementType.TRANSACTION, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 1, null);
+        final int timeAttribute = graph.addAttribute(GraphElementType.TRANSACTION, ZonedDateTimeAttributeDescription.ATTRIBUTE_NAME, "time", null, null, null);
+        final int titleAttribute = graph.addAttribute(GraphElementType.GRAPH, StringAttributeDescription.ATTRIBUTE_NAME, "title", null, null, null);
+        graph.setPrimaryKey(GraphElementType.VERTEX, nameAttribute);
+
+        // Remove a vertex so that the saved ids are not contiguous
+        final int removed = graph.addVertex();
+        final int v0 = graph.addVertex();
+        final int v1 = graph.addVertex();
+        graph.removeVertex(removed);
+        graph.setStringValue(nameAttribute, v0, "alpha");
+        graph.setStringValue(typeAttribute, v0, "person");
+        graph.setStringValue(typeAttribute, v1, "person");
+        graph.setFloatValue(xAttribute, v1, 2.5F);
+        final int t0 = graph.addTransaction(v1, v0, true);
+        final int t1 = graph.addTransaction(v0, v1, false);
+        graph.setIntValue(countAttribute, t0, 7);
+        graph.setObjectValue(timeAttribute, t0, TIME);
+        graph.setStringValue(titleAttribute, 0, "binary");
+
+        final GraphJsonWriter writer = new GraphJsonWriter();
+        writer.setBinaryFormat(true);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeGraphToZip(graph, out, new TextIoProgress(false));
+
+        final byte[] bytes = out.toByteArray();
+        final GraphByteReader byteReader = new GraphByteReader(new ByteArrayInputStream(bytes));
+        assertNotNull(byteReader.read(GraphFileConstants.BINARY_GRAPH_ENTRY));
+        assertNull(byteReader.read("graph" + GraphFileConstants.FILE_EXTENSION));
+
+        final Graph newGraph = new GraphJsonReader().readGraphZip("test", new ByteArrayInputStream(bytes), new TextIoProgress(false));
+        final ReadableGraph rg = newGraph.getReadableGraph();
+        try {
+            assertEquals(rg.getVertexCount(), 2);
+            assertEquals(rg.getTransactionCount(), 2);
+
+            final int newName = rg.getAttribute(GraphElementType.VERTEX, "name");
+            final int newType = rg.getAttribute(GraphElementType.VERTEX, "type");
+            final int newX = rg.getAttribute(GraphElementType.VERTEX, "x");
+            final int newCount = rg.getAttribute(GraphElementType.TRANSACTION, "count");
+            final int newTime = rg.getAttribute(GraphElementType.TRANSACTION, "time");
+            assertEquals(rg.getPrimaryKey(GraphElementType.VERTEX), new int[]{newName});
+            assertEquals(rg.getStringValue(rg.getAttribute(GraphElementType.GRAPH, "title"), 0), "binary");
+
+            // Elements are read back in the order of their positions in the original graph
+            final int newV0 = rg.getVertex(graph.getVertexPosition(v0));
+            final int newV1 = rg.getVertex(graph.getVertexPosition(v1));
+            assertEquals(rg.getStringValue(newName, newV0), "alpha");
+            assertEquals(rg.getStringValue(newName, newV1), "unnamed");
+            assertTrue(rg.isDefaultValue(newName, newV1));
+            assertEquals(rg.getStringValue(newType, newV1), "person");
+            assertEquals(rg.getFloatValue(newX, newV1), 2.5F);
+
+            final int newT0 = rg.getTransaction(graph.getTransactionPosition(t0));
+            final int newT1 = rg.getTransaction(graph.getTransactionPosition(t1));
+            assertEquals(rg.getTransactionSourceVertex(newT0), newV1);
+            assertEquals(rg.getTransactionDestinationVertex(newT0), newV0);
+            assertEquals(rg.getIntValue(newCount, newT0), 7);
+            assertEquals(rg.getIntValue(newCount, newT1), 1);
+            assertEquals(rg.getTransactionDirection(newT1), Graph.UNDIRECTED);
+            assertEquals(rg.getObjectValue(newTime, newT0), TIME);
+        } finally {
+            rg.release();
+        }
+    }
+
+    @Test
+    public void mappedOpen() throws IOException, GraphParseException, InterruptedException {
+        final StoreGraph graph = new StoreGraph();
+        final int nameAttribute = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", null, null, null);
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int selectedAttribute = graph.addAttribute(GraphElementType.VERTEX, BooleanAttributeDescription.ATTRIBUTE_NAME, "selected", null, false, null);
+        final int countAttribute = graph.addAttribute(GraphElementType.TRANSACTION, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 1, null);
+        for (int i = 0; i < 100; i++) {
+            final int vertex = graph.addVertex();
+            graph.setStringValue(nameAttribute, vertex, "v" + i);
+            graph.setFloatValue(xAttribute, vertex, i * 0.5F);
+            graph.setBooleanValue(selectedAttribute, vertex, i % 3 == 0);
+        }
+        for (int i = 1; i < 100; i++) {
+            final int transaction = graph.addTransaction(graph.getVertex(i - 1), graph.getVertex(i), true);
+            graph.setIntValue(countAttribute, transaction, i * 10);
+        }
+
+        final File file = File.createTempFile("mapped", GraphDataObject.FILE_EXTENSION);
+        try {
+            final GraphJsonWriter writer = new GraphJsonWriter();
+            writer.setBinaryFormat(true);
+            try (final OutputStream out = new FileOutputStream(file)) {
+                writer.writeGraphToZip(graph, out, new TextIoProgress(false));
+            }
+
+            final Set<Path> tempFiles = listTempFiles();
+            final GraphJsonReader reader = new GraphJsonReader();
+            reader.setMappedOpen(true);
+            final Graph newGraph = reader.readGraphZip(file, new TextIoProgress(false));
+            assertTrue(newGraph instanceof SnapshotGraph);
+
+            // The extracted binary entry is not left behind once the graph has been read.
+            assertEquals(listTempFiles(), tempFiles);
+
+            final ReadableGraph rg = newGraph.getReadableGraph();
+            final int newX;
+            final int newSelected;
+            final int newCount;
+            try {
+                assertEquals(rg.getVertexCount(), 100);
+                assertEquals(rg.getTransactionCount(), 99);
+                final int newName = rg.getAttribute(GraphElementType.VERTEX, "name");
+                newX = rg.getAttribute(GraphElementType.VERTEX, "x");
+                newSelected = rg.getAttribute(GraphElementType.VERTEX, "selected");
+                newCount = rg.getAttribute(GraphElementType.TRANSACTION, "count");
+
+                // Opening the graph must not copy the mapped columns into memory.
+                final StoreGraph store = (StoreGraph) rg;
+                assertTrue(store.isAttributeMapped(newX));
+                assertTrue(store.isAttributeMapped(newSelected));
+                assertTrue(store.isAttributeMapped(newCount));
+                assertFalse(store.isAttributeMapped(newName));
+
+                for (int i = 0; i < 100; i++) {
+                    final int vertex = rg.getVertex(i);
+                    assertEquals(rg.getStringValue(newName, vertex), "v" + i);
+                    assertEquals(rg.getFloatValue(newX, vertex), i * 0.5F);
+                    assertEquals(rg.getBooleanValue(newSelected, vertex), i % 3 == 0);
+                }
+                for (int i = 0; i < 99; i++) {
+                    assertEquals(rg.getIntValue(newCount, rg.getTransaction(i)), (i + 1) * 10);
+                }
+            } finally {
+                rg.release();
+            }
+
+            // Mapped values can be changed, and new elements added, without touching the file.
+            final WritableGraph wg = newGraph.getWritableGraph("test", true);
+            try {
+                wg.setFloatValue(newX, wg.getVertex(1), 42F);
+                final int vertex = wg.addVertex();
+                assertEquals(wg.getFloatValue(newX, vertex), 0F);
+                assertFalse(wg.getBooleanValue(newSelected, vertex));
+                final int transaction = wg.addTransaction(wg.getVertex(0), vertex, true);
+                assertEquals(wg.getIntValue(newCount, transaction), 1);
+            } finally {
+                wg.commit();
+            }
+
+            final ReadableGraph rg2 = newGraph.getReadableGraph();
+            try {
+                assertEquals(rg2.getVertexCount(), 101);
+                assertEquals(rg2.getFloatValue(newX, rg2.getVertex(1)), 42F);
+                assertEquals(rg2.getFloatValue(newX, rg2.getVertex(2)), 1F);
+            } finally {
+                rg2.release();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static Set<Path> listTempFiles() throws IOException {
+        try (final Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(path -> path.getFileName().toString().startsWith("graph")).collect(Collectors.toSet());
+        }
+    }
+
+    @Test(expectedExceptions = GraphParseException.class)
+    public void rejectsUnknownData() throws IOException, GraphParseException {
+        new GraphBinaryReader().readGraph("test", new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}), null, null);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.DictionaryStringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ZonedDateTimeAttributeDescription;
+import au.gov.asd.tac.constellation.utilities.gui.TextIoProgress;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Graph Json Reader Test.
+ *
+ * @author sirius
+ */
+public class GraphJsonReaderNGTest {
+
+    private static final int VERTEX_COUNT = 10000;
+    private static final ZonedDateTime TIME = ZonedDateTime.of(2020, 9, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    public void parallelReadMatchesSingleThreadedRead() throws IOException, GraphParseException {
+        final StoreGraph graph = new StoreGraph();
+        final int nameAttribute = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", null, "unnamed", null);
+        final int typeAttribute = graph.addAttribute(GraphElementType.VERTEX, DictionaryStringAttributeDescription.ATTRIBUTE_NAME, "type", null, null, null);
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int selectedAttribute = graph.addAttribute(GraphElementType.VERTEX, BooleanAttributeDescription.ATTRIBUTE_NAME, "selected", null, false, null);
+        final int countAttribute = graph.addAttribute(GraphElementType.TRANSACTION, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 1, null);
+        final int timeAttribute = graph.addAttribute(GraphElementType.TRANSACTION, ZonedDateTimeAttributeDescription.ATTRIBUTE_NAME, "time", null, null, null);
+
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            final int vertex = graph.addVertex();
+            if (i % 7 != 0) {
+                graph.setStringValue(nameAttribute, vertex, "v" + i);
+            }
+            graph.setStringValue(typeAttribute, vertex, "type" + (i % 5));
+            graph.setFloatValue(xAttribute, vertex, i * 0.25F);
+            graph.setBooleanValue(selectedAttribute, vertex, i % 3 == 0);
+        }
+
+        // Remove some vertices so that the saved ids are not contiguous
+        for (int i = 0; i < VERTEX_COUNT; i += 1000) {
+            graph.removeVertex(i);
+        }
+        for (int position = 1; position < graph.getVertexCount(); position++) {
+            final int transaction = graph.addTransaction(graph.getVertex(position - 1), graph.getVertex(position), position % 2 == 0);
+            graph.setIntValue(countAttribute, transaction, position);
+            if (position % 11 == 0) {
+                graph.setObjectValue(timeAttribute, transaction, TIME);
+            }
+        }
+
+        final GraphJsonWriter writer = new GraphJsonWriter();
+        writer.setBinaryFormat(false);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeGraphToZip(graph, out, new TextIoProgress(false));
+        final byte[] bytes = out.toByteArray();
+
+        final GraphJsonReader serialReader = new GraphJsonReader();
+        serialReader.setThreadCount(1);
+        final Graph serialGraph = serialReader.readGraphZip("serial", new ByteArrayInputStream(bytes), new TextIoProgress(false));
+
+        final GraphJsonReader parallelReader = new GraphJsonReader();
+        parallelReader.setThreadCount(4);
+        final Graph parallelGraph = parallelReader.readGraphZip("parallel", new ByteArrayInputStream(bytes), new TextIoProgress(false));
+
+        final ReadableGraph expected = serialGraph.getReadableGraph();
+        final ReadableGraph actual = parallelGraph.getReadableGraph();
+        try {
+            assertEquals(actual.getVertexCount(), graph.getVertexCount());
+            assertEquals(actual.getTransactionCount(), graph.getTransactionCount());
+            assertEquals(actual.getVertexCount(), expected.getVertexCount());
+            assertEquals(actual.getTransactionCount(), expected.getTransactionCount());
+
+            for (final GraphElementType elementType : new GraphElementType[]{GraphElementType.VERTEX, GraphElementType.TRANSACTION}) {
+                final int count = elementType == GraphElementType.VERTEX ? expected.getVertexCount() : expected.getTransactionCount();
+                for (int a = 0; a < expected.getAttributeCount(elementType); a++) {
+                    final int expectedAttribute = expected.getAttribute(elementType, a);
+                    final int actualAttribute = actual.getAttribute(elementType, expected.getAttributeName(expectedAttribute));
+                    for (int position = 0; position < count; position++) {
+                        final int expectedElement = elementType == GraphElementType.VERTEX ? expected.getVertex(position) : expected.getTransaction(position);
+                        final int actualElement = elementType == GraphElementType.VERTEX ? actual.getVertex(position) : actual.getTransaction(position);
+                        assertEquals(actualElement, expectedElement);
+                        assertEquals((Object) actual.getObjectValue(actualAttribute, actualElement), (Object) expected.getObjectValue(expectedAttribute, expectedElement));
+                    }
+                }
+            }
+
+            for (int position = 0; position < expected.getTransactionCount(); position++) {
+                final int transaction = expected.getTransaction(position);
+                assertEquals(actual.getTransactionSourceVertex(transaction), expected.getTransactionSourceVertex(transaction));
+                assertEquals(actual.getTransactionDestinationVertex(transaction), expected.getTransactionDestinationVertex(transaction));
+                assertEquals(actual.getTransactionDirection(transaction), expected.getTransactionDirection(transaction));
+            }
+
+            // Elements are read back in the order of their positions in the original graph.
+            final int actualName = actual.getAttribute(GraphElementType.VERTEX, "name");
+            final int actualX = actual.getAttribute(GraphElementType.VERTEX, "x");
+            for (int position = 0; position < graph.getVertexCount(); position++) {
+                final int vertex = actual.getVertex(position);
+                assertEquals(actual.getStringValue(actualName, vertex), graph.getStringValue(nameAttribute, graph.getVertex(position)));
+                assertEquals(actual.getFloatValue(actualX, vertex), graph.getFloatValue(xAttribute, graph.getVertex(position)));
+            }
+        } finally {
+            actual.release();
+            expected.release();
+        }
+    }
+}
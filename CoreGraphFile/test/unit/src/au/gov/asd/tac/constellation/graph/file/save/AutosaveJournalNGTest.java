@@ -0,0 +1,278 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.save;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ObjectAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.file.io.GraphJsonReader;
+import au.gov.asd.tac.constellation.graph.file.io.GraphJsonWriter;
+import au.gov.asd.tac.constellation.graph.file.io.GraphParseException;
+import au.gov.asd.tac.constellation.graph.locking.DualGraph;
+import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
+import au.gov.asd.tac.constellation.graph.schema.analytic.AnalyticSchemaFactory;
+import au.gov.asd.tac.constellation.graph.schema.analytic.attribute.objects.RawData;
+import au.gov.asd.tac.constellation.graph.schema.analytic.concept.AnalyticConcept;
+import au.gov.asd.tac.constellation.graph.schema.visual.VertexDecorators;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.utilities.icon.AnalyticIconProvider;
+import au.gov.asd.tac.constellation.utilities.gui.TextIoProgress;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import javax.swing.SwingUtilities;
+import javax.swing.undo.UndoManager;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Autosave Journal Test.
+ *
+ * @author sirius
+ */
+public class AutosaveJournalNGTest {
+
+    private File snapshotFile;
+    private File journalFile;
+
+    @BeforeMethod
+    public void setUpMethod() throws IOException {
+        snapshotFile = File.createTempFile("journal", ".star");
+        journalFile = new File(snapshotFile.getPath() + "_journal");
+    }
+
+    @AfterMethod
+    public void tearDownMethod() {
+        snapshotFile.delete();
+        journalFile.delete();
+    }
+
+    @Test
+    public void replayMatchesGraph() throws InterruptedException, IOException, GraphParseException, InvocationTargetException {
+        final Graph graph = new DualGraph(null);
+        final UndoManager undoManager = new UndoManager();
+        graph.setUndoManager(undoManager);
+
+        final int nameAttribute;
+        final int xAttribute;
+        WritableGraph wg = graph.getWritableGraph("build", true);
+        try {
+            nameAttribute = wg.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", null, null, null);
+            xAttribute = wg.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+            wg.setPrimaryKey(GraphElementType.VERTEX, nameAttribute);
+            for (int i = 0; i < 100; i++) {
+                final int vertex = wg.addVertex();
+                wg.setStringValue(nameAttribute, vertex, "v" + i);
+                wg.setFloatValue(xAttribute, vertex, i);
+            }
+            for (int i = 1; i < 100; i++) {
+                wg.addTransaction(wg.getVertex(i - 1), wg.getVertex(i), i % 2 == 0);
+            }
+
+            // Scramble the free ids so that the layout of the graph is not the identity.
+            for (int i = 0; i < 100; i += 3) {
+                wg.removeVertex(i);
+            }
+        } finally {
+            wg.commit();
+        }
+
+        final AutosaveJournal journal = AutosaveJournal.getJournal(graph, journalFile);
+        assertTrue(journal.isCheckpointRequired());
+        assertFalse(journal.append());
+
+        final StoreGraph copy = journal.startCheckpoint(graph);
+        assertNotNull(copy);
+        new GraphJsonWriter().writeGraphToZip(copy, snapshotFile.getPath(), new TextIoProgress(false));
+        final String checkpoint = journal.finishCheckpoint(copy, snapshotFile.length());
+        assertFalse(journal.isCheckpointRequired());
+
+        final int tAttribute;
+        wg = graph.getWritableGraph("edit", true);
+        try {
+            tAttribute = wg.addAttribute(GraphElementType.TRANSACTION, StringAttributeDescription.ATTRIBUTE_NAME, "label", null, null, null);
+            for (int i = 0; i < 20; i++) {
+                final int vertex = wg.addVertex();
+                wg.setStringValue(nameAttribute, vertex, "new" + i);
+                wg.addTransaction(vertex, wg.getVertex(i), true);
+            }
+            wg.removeVertex(wg.getVertex(5));
+            wg.setFloatValue(xAttribute, wg.getVertex(7), 42F);
+            wg.setStringValue(tAttribute, wg.getTransaction(3), "labelled");
+        } finally {
+            wg.commit();
+        }
+
+        wg = graph.getWritableGraph("undone", true);
+        try {
+            wg.removeVertex(wg.getVertex(0));
+            for (int i = 0; i < 3; i++) {
+                wg.setStringValue(nameAttribute, wg.addVertex(), "undone" + i);
+            }
+        } finally {
+            wg.commit();
+        }
+
+        // Undo the last edit once the undo manager has been told about it.
+        final int vertexCount = getVertexCount(graph) - 2;
+        SwingUtilities.invokeAndWait(() -> undoManager.undo());
+        for (int i = 0; i < 100 && getVertexCount(graph) != vertexCount; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(getVertexCount(graph), vertexCount);
+
+        wg = graph.getWritableGraph("after undo", true);
+        try {
+            final int vertex = wg.addVertex();
+            wg.setStringValue(nameAttribute, vertex, "last");
+        } finally {
+            wg.commit();
+        }
+
+        assertTrue(journal.append());
+
+        final Graph snapshot = new GraphJsonReader().readGraphZip(snapshotFile, new TextIoProgress(false));
+        final Graph restored = AutosaveJournal.restore(snapshot, journalFile, checkpoint);
+
+        final ReadableGraph expected = graph.getReadableGraph();
+        try {
+            final ReadableGraph actual = restored.getReadableGraph();
+            try {
+                assertEquals(actual.getVertexCount(), expected.getVertexCount());
+                assertEquals(actual.getTransactionCount(), expected.getTransactionCount());
+                assertEquals(actual.getPrimaryKey(GraphElementType.VERTEX), new int[]{nameAttribute});
+                for (int position = 0; position < expected.getVertexCount(); position++) {
+                    final int vertex = expected.getVertex(position);
+                    assertEquals(actual.getVertex(position), vertex);
+                    assertEquals(actual.getStringValue(nameAttribute, vertex), expected.getStringValue(nameAttribute, vertex));
+                    assertEquals(actual.getFloatValue(xAttribute, vertex), expected.getFloatValue(xAttribute, vertex));
+                }
+                for (int position = 0; position < expected.getTransactionCount(); position++) {
+                    final int transaction = expected.getTransaction(position);
+                    assertEquals(actual.getTransaction(position), transaction);
+                    assertEquals(actual.getTransactionSourceVertex(transaction), expected.getTransactionSourceVertex(transaction));
+                    assertEquals(actual.getTransactionDestinationVertex(transaction), expected.getTransactionDestinationVertex(transaction));
+                    assertEquals(actual.getStringValue(tAttribute, transaction), expected.getStringValue(tAttribute, transaction));
+                }
+            } finally {
+                actual.release();
+            }
+        } finally {
+            expected.release();
+        }
+
+        // A journal from another checkpoint is ignored.
+        assertSame(AutosaveJournal.restore(snapshot, journalFile, "other"), snapshot);
+    }
+
+    @Test
+    public void unserialisableEditRequiresCheckpoint() throws InterruptedException, IOException {
+        final Graph graph = new DualGraph(null);
+        final AutosaveJournal journal = AutosaveJournal.getJournal(graph, journalFile);
+        final StoreGraph copy = journal.startCheckpoint(graph);
+        journal.finishCheckpoint(copy, 0);
+        final long headerLength = journalFile.length();
+
+        final WritableGraph wg = graph.getWritableGraph("edit", true);
+        try {
+            final int objectAttribute = wg.addAttribute(GraphElementType.VERTEX, ObjectAttributeDescription.ATTRIBUTE_NAME, "object", null, null, null);
+            wg.setObjectValue(objectAttribute, wg.addVertex(), new Object());
+        } finally {
+            wg.commit();
+        }
+
+        assertFalse(journal.append());
+        assertTrue(journal.isCheckpointRequired());
+        assertEquals(journalFile.length(), headerLength);
+    }
+
+    @Test
+    public void replaysSchemaObjectValues() throws InterruptedException, IOException, GraphParseException {
+        final Graph graph = new DualGraph(SchemaFactoryUtilities.getSchemaFactory(AnalyticSchemaFactory.ANALYTIC_SCHEMA_ID).createSchema());
+
+        final int vertexTypeAttribute;
+        final int transactionTypeAttribute;
+        final int iconAttribute;
+        final int rawAttribute;
+        final int decoratorsAttribute;
+        WritableGraph wg = graph.getWritableGraph("build", true);
+        try {
+            vertexTypeAttribute = AnalyticConcept.VertexAttribute.TYPE.ensure(wg);
+            transactionTypeAttribute = AnalyticConcept.TransactionAttribute.TYPE.ensure(wg);
+            iconAttribute = VisualConcept.VertexAttribute.FOREGROUND_ICON.ensure(wg);
+            rawAttribute = AnalyticConcept.VertexAttribute.RAW.ensure(wg);
+            decoratorsAttribute = VisualConcept.GraphAttribute.DECORATORS.ensure(wg);
+            wg.addTransaction(wg.addVertex(), wg.addVertex(), true);
+        } finally {
+            wg.commit();
+        }
+
+        final AutosaveJournal journal = AutosaveJournal.getJournal(graph, journalFile);
+        final StoreGraph copy = journal.startCheckpoint(graph);
+        new GraphJsonWriter().writeGraphToZip(copy, snapshotFile.getPath(), new TextIoProgress(false));
+        final String checkpoint = journal.finishCheckpoint(copy, snapshotFile.length());
+
+        final RawData raw = new RawData("id", "type");
+        wg = graph.getWritableGraph("edit", true);
+        try {
+            final int vertex = wg.addVertex();
+            wg.setObjectValue(vertexTypeAttribute, vertex, AnalyticConcept.VertexType.EMAIL_ADDRESS);
+            wg.setObjectValue(iconAttribute, vertex, AnalyticIconProvider.EMAIL);
+            wg.setObjectValue(rawAttribute, vertex, raw);
+            wg.setObjectValue(transactionTypeAttribute, wg.addTransaction(wg.getVertex(0), vertex, true), AnalyticConcept.TransactionType.COMMUNICATION);
+            wg.setObjectValue(decoratorsAttribute, 0, new VertexDecorators(null, "Raw", null, null));
+        } finally {
+            wg.commit();
+        }
+
+        // None of these values are Serializable, so they must not force a checkpoint.
+        assertTrue(journal.append());
+
+        final Graph snapshot = new GraphJsonReader().readGraphZip(snapshotFile, new TextIoProgress(false));
+        final Graph restored = AutosaveJournal.restore(snapshot, journalFile, checkpoint);
+        final ReadableGraph rg = restored.getReadableGraph();
+        try {
+            final int vertex = rg.getVertex(2);
+            assertSame(rg.getObjectValue(vertexTypeAttribute, vertex), AnalyticConcept.VertexType.EMAIL_ADDRESS);
+            assertSame(rg.getObjectValue(iconAttribute, vertex), AnalyticIconProvider.EMAIL);
+            assertEquals(rg.getObjectValue(rawAttribute, vertex), raw);
+            assertSame(rg.getObjectValue(transactionTypeAttribute, rg.getTransaction(1)), AnalyticConcept.TransactionType.COMMUNICATION);
+            assertEquals(rg.getObjectValue(decoratorsAttribute, 0).toString(), new VertexDecorators(null, "Raw", null, null).toString());
+        } finally {
+            rg.release();
+        }
+    }
+
+    private static int getVertexCount(final Graph graph) {
+        final ReadableGraph rg = graph.getReadableGraph();
+        try {
+            return rg.getVertexCount();
+        } finally {
+            rg.release();
+        }
+    }
+}
@@ -16,12 +16,15 @@
 package au.gov.asd.tac.constellation.graph;
 
 import java.io.Serializable;
-import java.util.Arrays;
 
 /**
  * An ElementStore stores a ordered list of element ids as well as a list of
  * free ids that can be used for new elements. It is used in {@link StoreGraph}
  * to hold the master list of each element type in the graph.
+ * <p>
+ * The store is held in {@link PagedIntArray pages} so that copying it only
+ * copies page references: the original and the copy then each take a private
+ * copy of a page the first time they modify it.
  *
  * @author sirius
  */
@@ -31,30 +34,37 @@ public class ElementStore implements Serializable {
     private static final int LOW_BITS = 0x7FFFFFFF;
     private int capacity;
     private int count = 0;
-    private int[] position2id;
-    private int[] id2position;
-    private long[] id2UID;
+    private final PagedIntArray position2id;
+    private final PagedIntArray id2position;
+    private final PagedLongArray id2UID;
 
     public ElementStore(final int capacity) {
 
         this.capacity = capacity;
-        this.position2id = new int[capacity];
-        this.id2position = new int[capacity];
-        this.id2UID = new long[capacity];
+        this.position2id = new PagedIntArray(capacity);
+        this.id2position = new PagedIntArray(capacity);
+        this.id2UID = new PagedLongArray(capacity);
 
         for (int i = 0; i < capacity; i++) {
-            position2id[i] = i;
-            id2position[i] = i | HIGH_BIT;
+            position2id.set(i, i);
+            id2position.set(i, i | HIGH_BIT);
         }
     }
 
+    /**
+     * Creates a new ElementStore holding the same elements as the original.
+     * <p>
+     * The two stores share their pages until either of them is modified.
+     *
+     * @param original the ElementStore to copy.
+     */
     public ElementStore(final ElementStore original) {
         this.capacity = original.capacity;
         this.count = original.count;
 
-        this.position2id = Arrays.copyOf(original.position2id, original.position2id.length);
-        this.id2position = Arrays.copyOf(original.id2position, original.id2position.length);
-        this.id2UID = Arrays.copyOf(original.id2UID, original.id2UID.length);
+        this.position2id = new PagedIntArray(original.position2id);
+        this.id2position = new PagedIntArray(original.id2position);
+        this.id2UID = new PagedLongArray(original.id2UID);
     }
 
     public int getCapacity() {
@@ -67,14 +77,7 @@ public class ElementStore implements Serializable {
 
     public boolean ensureCapacity() {
         if (count == capacity) {
-            capacity <<= 1;
-            position2id = Arrays.copyOf(position2id, capacity);
-            id2position = Arrays.copyOf(id2position, capacity);
-            id2UID = Arrays.copyOf(id2UID, capacity);
-            for (int i = count; i < capacity; i++) {
-                position2id[i] = i;
-                id2position[i] = i | HIGH_BIT;
-            }
+            setCapacity(capacity << 1);
             return true;
         }
         return false;
@@ -88,55 +91,59 @@ public class ElementStore implements Serializable {
                 c <<= 1;
             }
 
-            position2id = Arrays.copyOf(position2id, c);
-            id2position = Arrays.copyOf(id2position, c);
-            id2UID = Arrays.copyOf(id2UID, c);
-            for (int i = this.capacity; i < c; i++) {
-                position2id[i] = i;
-                id2position[i] = i | HIGH_BIT;
-            }
-            this.capacity = c;
+            setCapacity(c);
             return true;
         }
         return false;
     }
 
+    private void setCapacity(final int newCapacity) {
+        position2id.setLength(newCapacity);
+        id2position.setLength(newCapacity);
+        id2UID.setLength(newCapacity);
+        for (int i = capacity; i < newCapacity; i++) {
+            position2id.set(i, i);
+            id2position.set(i, i | HIGH_BIT);
+        }
+        capacity = newCapacity;
+    }
+
     public int add() {
-        final int element = position2id[count];
-        id2position[element] = count++;
+        final int element = position2id.get(count);
+        id2position.set(element, count++);
         return element;
     }
 
     public void add(final int element) {
 
         // Get the position of the new element
-        final int position = id2position[element] & LOW_BITS;
+        final int position = id2position.get(element) & LOW_BITS;
 
         // Move the next element to the positon of the element
-        final int nextElement = position2id[count];
-        id2position[nextElement] = position | HIGH_BIT;
-        position2id[position] = nextElement;
+        final int nextElement = position2id.get(count);
+        id2position.set(nextElement, position | HIGH_BIT);
+        position2id.set(position, nextElement);
 
-        position2id[count] = element;
-        id2position[element] = count++;
+        position2id.set(count, element);
+        id2position.set(element, count++);
     }
 
     public boolean addIfRemoved(final int element) {
 
         // Get the position of the new element
-        int position = id2position[element];
+        int position = id2position.get(element);
 
         if (position < 0) {
 
             position &= LOW_BITS;
 
             // Move the next element to the positon of the element
-            final int nextElement = position2id[count];
-            id2position[nextElement] = position | HIGH_BIT;
-            position2id[position] = nextElement;
+            final int nextElement = position2id.get(count);
+            id2position.set(nextElement, position | HIGH_BIT);
+            position2id.set(position, nextElement);
 
-            position2id[count] = element;
-            id2position[element] = count++;
+            position2id.set(count, element);
+            id2position.set(element, count++);
 
             return true;
         }
@@ -146,27 +153,27 @@ public class ElementStore implements Serializable {
 
     public void remove(final int element) {
 
-        final int position = id2position[element];
+        final int position = id2position.get(element);
 
-        final int lastAddedElement = position2id[--count];
-        position2id[position] = lastAddedElement;
-        id2position[lastAddedElement] = position;
+        final int lastAddedElement = position2id.get(--count);
+        position2id.set(position, lastAddedElement);
+        id2position.set(lastAddedElement, position);
 
-        position2id[count] = element;
-        id2position[element] = count | HIGH_BIT;
+        position2id.set(count, element);
+        id2position.set(element, count | HIGH_BIT);
     }
 
     public boolean removeIfAdded(final int element) {
-        final int position = id2position[element];
+        final int position = id2position.get(element);
 
         if (position >= 0) {
 
-            final int lastAddedElement = position2id[--count];
-            position2id[position] = lastAddedElement;
-            id2position[lastAddedElement] = position;
+            final int lastAddedElement = position2id.get(--count);
+            position2id.set(position, lastAddedElement);
+            id2position.set(lastAddedElement, position);
 
-            position2id[count] = element;
-            id2position[element] = count | HIGH_BIT;
+            position2id.set(count, element);
+            id2position.set(element, count | HIGH_BIT);
 
             return true;
         }
@@ -175,34 +182,65 @@ public class ElementStore implements Serializable {
     }
 
     public int getLast() {
-        return count <= 0 ? -1 : position2id[count - 1];
+        return count <= 0 ? -1 : position2id.get(count - 1);
     }
 
     public int removeLast() {
 
-        int element = position2id[--count];
+        int element = position2id.get(--count);
 
-        id2position[element] = count | HIGH_BIT;
+        id2position.set(element, count | HIGH_BIT);
         return element;
     }
 
     public boolean elementExists(final int element) {
-        return element >= 0 && element < capacity && id2position[element] >= 0;
+        return element >= 0 && element < capacity && id2position.get(element) >= 0;
     }
 
     public int getElement(final int position) {
-        return position2id[position];
+        return position2id.get(position);
     }
 
     public int getElementPosition(final int element) {
-        return id2position[element] & LOW_BITS;
+        return id2position.get(element) & LOW_BITS;
     }
 
     public long getUID(final int element) {
-        return id2UID[element];
+        return id2UID.get(element);
     }
 
     public void setUID(final int element, final long UID) {
-        id2UID[element] = UID;
+        id2UID.set(element, UID);
+    }
+
+    /**
+     * Returns the id held at every position up to the capacity of this store.
+     * <p>
+     * The first {@link #getCount()} ids are the current elements; the rest are
+     * the free ids in the order that {@link #add()} will hand them out.
+     *
+     * @return the id held at every position.
+     */
+    public int[] getLayout() {
+        return position2id.toArray(capacity);
+    }
+
+    /**
+     * Sets the id held at every position of an empty store so that subsequent
+     * calls to {@link #add()} hand out ids in the same order as the store the
+     * layout was taken from.
+     *
+     * @param layout a layout returned by {@link #getLayout()}.
+     */
+    public void setLayout(final int[] layout) {
+        if (count != 0) {
+            throw new IllegalStateException("attempt to set the layout of a store that is not empty");
+        }
+
+        ensureCapacity(layout.length);
+        for (int position = 0; position < layout.length; position++) {
+            position2id.set(position, layout[position]);
+            id2position.set(layout[position], position | HIGH_BIT);
+        }
     }
 }
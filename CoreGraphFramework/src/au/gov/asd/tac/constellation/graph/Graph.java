@@ -17,6 +17,7 @@ package au.gov.asd.tac.constellation.graph;
 
 import au.gov.asd.tac.constellation.graph.monitor.GraphChangeListener;
 import au.gov.asd.tac.constellation.graph.schema.Schema;
+import au.gov.asd.tac.constellation.graph.undo.GraphEditListener;
 import javax.swing.undo.UndoManager;
 
 /**
@@ -274,4 +275,16 @@ public interface Graph extends GraphConstants {
      * @param undoManager the new UndoManager.
      */
     public void setUndoManager(final UndoManager undoManager);
+
+    /**
+     * Sets the GraphEditListener for this graph. The listener is told about
+     * every edit that changes the graph, including undo and redo, in the order
+     * the edits are applied.
+     * <p>
+     * Graphs that do not report their edits ignore the listener.
+     *
+     * @param listener the new GraphEditListener, or null to remove it.
+     */
+    public default void setGraphEditListener(final GraphEditListener listener) {
+    }
 }
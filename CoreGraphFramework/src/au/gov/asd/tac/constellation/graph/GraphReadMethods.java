@@ -267,6 +267,30 @@ public interface GraphReadMethods extends GraphConstants {
      */
     long getValueModificationCounter(final int attribute);
 
+    /**
+     * Returns the elements whose values for the specified attribute have
+     * changed since the attribute had the specified modification counter. This
+     * allows a reader that remembers the last modification counter it saw to
+     * process just the elements that have changed rather than every element.
+     * <p>
+     * The result may include elements whose values have since been changed
+     * back, but will never miss an element whose value has changed. An undo
+     * followed by a different edit can give an attribute a modification
+     * counter it has had before, in which case the changes since the earliest
+     * time it had that counter are returned. A graph only remembers a limited
+     * history of changes, so callers must be prepared to fall back to
+     * processing every element when null is returned.
+     *
+     * @param attribute the attribute.
+     * @param modificationCounter a modification counter previously returned by
+     * {@link #getValueModificationCounter(int)} for the attribute.
+     * @return the sorted ids of the changed elements, or null if the changed
+     * elements are not known.
+     */
+    public default int[] getChangedElements(final int attribute, final long modificationCounter) {
+        return null;
+    }
+
     /**
      * Creates a complete deep copy of the graph that has the same id as this
      * graph. The copy is represented by a GraphReadMethods object meaning that
@@ -436,6 +436,149 @@ public interface GraphWriteMethods extends GraphReadMethods {
      */
     abstract void setBooleanValue(final int attribute, final int id, final boolean value);
 
+    /**
+     * Sets the values of the specified attribute for many elements at once to
+     * the specified int values. The value at each index of the values array is
+     * set for the element at the same index of the ids array. If an element
+     * appears more than once, the last of its values is kept.
+     * <p>
+     * Where the native type of the attribute is
+     * {@link NativeAttributeType#INT}, a graph may write the whole column in
+     * one pass and record a single compact undo step holding the old and new
+     * values, which is much faster than calling
+     * {@link #setIntValue(int, int, int)} for each element. Otherwise the
+     * values are set one at a time.
+     *
+     * @param attribute the id of the attribute.
+     * @param ids the ids of the elements.
+     * @param values the new values for the attribute.
+     * @throws IllegalArgumentException if the arrays are not the same length
+     * or the values cannot be converted into the native type of the attribute.
+     */
+    public default void setIntValues(final int attribute, final int[] ids, final int[] values) {
+        checkValueCount(ids, values.length);
+        for (int i = 0; i < ids.length; i++) {
+            setIntValue(attribute, ids[i], values[i]);
+        }
+    }
+
+    /**
+     * Sets the values of the specified attribute for many elements at once to
+     * the specified long values. The value at each index of the values array
+     * is set for the element at the same index of the ids array. If an element
+     * appears more than once, the last of its values is kept.
+     * <p>
+     * Where the native type of the attribute is
+     * {@link NativeAttributeType#LONG}, a graph may write the whole column in
+     * one pass and record a single compact undo step holding the old and new
+     * values, which is much faster than calling
+     * {@link #setLongValue(int, int, long)} for each element. Otherwise the
+     * values are set one at a time.
+     *
+     * @param attribute the id of the attribute.
+     * @param ids the ids of the elements.
+     * @param values the new values for the attribute.
+     * @throws IllegalArgumentException if the arrays are not the same length
+     * or the values cannot be converted into the native type of the attribute.
+     */
+    public default void setLongValues(final int attribute, final int[] ids, final long[] values) {
+        checkValueCount(ids, values.length);
+        for (int i = 0; i < ids.length; i++) {
+            setLongValue(attribute, ids[i], values[i]);
+        }
+    }
+
+    /**
+     * Sets the values of the specified attribute for many elements at once to
+     * the specified float values. The value at each index of the values array
+     * is set for the element at the same index of the ids array. If an element
+     * appears more than once, the last of its values is kept.
+     * <p>
+     * Where the native type of the attribute is
+     * {@link NativeAttributeType#FLOAT}, a graph may write the whole column in
+     * one pass and record a single compact undo step holding the old and new
+     * values, which is much faster than calling
+     * {@link #setFloatValue(int, int, float)} for each element. Otherwise the
+     * values are set one at a time.
+     *
+     * @param attribute the id of the attribute.
+     * @param ids the ids of the elements.
+     * @param values the new values for the attribute.
+     * @throws IllegalArgumentException if the arrays are not the same length
+     * or the values cannot be converted into the native type of the attribute.
+     */
+    public default void setFloatValues(final int attribute, final int[] ids, final float[] values) {
+        checkValueCount(ids, values.length);
+        for (int i = 0; i < ids.length; i++) {
+            setFloatValue(attribute, ids[i], values[i]);
+        }
+    }
+
+    /**
+     * Sets the values of the specified attribute for many elements at once to
+     * the specified double values. The value at each index of the values array
+     * is set for the element at the same index of the ids array. If an element
+     * appears more than once, the last of its values is kept.
+     * <p>
+     * Where the native type of the attribute is
+     * {@link NativeAttributeType#DOUBLE}, a graph may write the whole column
+     * in one pass and record a single compact undo step holding the old and
+     * new values, which is much faster than calling
+     * {@link #setDoubleValue(int, int, double)} for each element. Otherwise
+     * the values are set one at a time.
+     *
+     * @param attribute the id of the attribute.
+     * @param ids the ids of the elements.
+     * @param values the new values for the attribute.
+     * @throws IllegalArgumentException if the arrays are not the same length
+     * or the values cannot be converted into the native type of the attribute.
+     */
+    public default void setDoubleValues(final int attribute, final int[] ids, final double[] values) {
+        checkValueCount(ids, values.length);
+        for (int i = 0; i < ids.length; i++) {
+            setDoubleValue(attribute, ids[i], values[i]);
+        }
+    }
+
+    /**
+     * Sets the values of the specified attribute for many elements at once to
+     * the specified boolean values. The value at each index of the values
+     * array is set for the element at the same index of the ids array. If an
+     * element appears more than once, the last of its values is kept.
+     * <p>
+     * Where the native type of the attribute is
+     * {@link NativeAttributeType#BOOLEAN}, a graph may write the whole column
+     * in one pass and record a single compact undo step holding the old and
+     * new values, which is much faster than calling
+     * {@link #setBooleanValue(int, int, boolean)} for each element. Otherwise
+     * the values are set one at a time.
+     *
+     * @param attribute the id of the attribute.
+     * @param ids the ids of the elements.
+     * @param values the new values for the attribute.
+     * @throws IllegalArgumentException if the arrays are not the same length
+     * or the values cannot be converted into the native type of the attribute.
+     */
+    public default void setBooleanValues(final int attribute, final int[] ids, final boolean[] values) {
+        checkValueCount(ids, values.length);
+        for (int i = 0; i < ids.length; i++) {
+            setBooleanValue(attribute, ids[i], values[i]);
+        }
+    }
+
+    /**
+     * Check that a bulk setter has been given one value for each element.
+     *
+     * @param ids the ids of the elements.
+     * @param valueCount the number of values.
+     * @throws IllegalArgumentException if the counts differ.
+     */
+    private static void checkValueCount(final int[] ids, final int valueCount) {
+        if (ids.length != valueCount) {
+            throw new IllegalArgumentException("Expected " + ids.length + " values, found " + valueCount);
+        }
+    }
+
     /**
      * Sets the value of the specified attribute for the specified element to
      * the specified char value. In general, the underlying native type of the
@@ -27,6 +27,10 @@ import java.util.Arrays;
  * another type, such as transactions to the links that hold them. In this
  * example, each list represents the transactions in a particular link, with the
  * categories representing the directions of the transaction.
+ * <p>
+ * Like {@link ElementStore}, the store is divided into pages that are shared
+ * between a store and its copies until one of them modifies a page. The array
+ * holding each list is also shared until the list is first modified.
  *
  * @author sirius
  */
@@ -35,33 +39,48 @@ public class ListStore implements Serializable {
     private static final int CATEGORY_SHIFT = 29;
     private static final int POSITION_MASK = 0x1FFFFFFF;
     private static final int[] EMPTY_ARRAY = new int[0];
+    private static final int PAGE_SHIFT = PagedIntArray.PAGE_SHIFT;
+    private static final int PAGE_SIZE = PagedIntArray.PAGE_SIZE;
+    private static final int PAGE_MASK = PagedIntArray.PAGE_MASK;
 
     private final int categories;
     private final int countLength;
     private int listCapacity;
     private int elementCapacity;
-    private int[] categoryCounts;
-    private int[][] elements;
-    private int[] elementLists;
-    private int[] elementPositions;
+    private final PagedIntArray categoryCounts;
+    private int[][][] elements;
+    private boolean[] elementPageShared;
+    private boolean[][] listOwned;
+    private final PagedIntArray elementLists;
+    private final PagedIntArray elementPositions;
 
     public ListStore(final int categories, final int listCapacity, final int elementCapacity) {
         this.categories = categories;
         this.countLength = categories + 1;
-        this.listCapacity = listCapacity;
+        this.listCapacity = 0;
         this.elementCapacity = elementCapacity;
 
-        this.categoryCounts = new int[(categories + 1) * listCapacity];
+        this.categoryCounts = new PagedIntArray((categories + 1) * listCapacity);
 
-        this.elements = new int[listCapacity][];
-        Arrays.fill(elements, EMPTY_ARRAY);
+        this.elements = new int[0][][];
+        this.elementPageShared = new boolean[0];
+        this.listOwned = new boolean[0][];
+        setListCapacity(listCapacity);
 
-        this.elementLists = new int[elementCapacity];
-        Arrays.fill(elementLists, -1);
+        this.elementLists = new PagedIntArray(elementCapacity);
+        elementLists.fill(0, elementCapacity, -1);
 
-        this.elementPositions = new int[elementCapacity];
+        this.elementPositions = new PagedIntArray(elementCapacity);
     }
 
+    /**
+     * Creates a new ListStore holding the same lists as the original.
+     * <p>
+     * The two stores share their pages, and the arrays holding each list,
+     * until either of them is modified.
+     *
+     * @param original the ListStore to copy.
+     */
     public ListStore(final ListStore original) {
 
         this.categories = original.categories;
@@ -69,37 +88,105 @@ public class ListStore implements Serializable {
         this.listCapacity = original.listCapacity;
         this.elementCapacity = original.elementCapacity;
 
-        this.categoryCounts = Arrays.copyOf(original.categoryCounts, original.categoryCounts.length);
+        this.categoryCounts = new PagedIntArray(original.categoryCounts);
 
-        this.elements = new int[original.elements.length][];
-        for (int i = 0; i < this.elements.length; i++) {
-            if (original.elements[i] != null) {
-                this.elements[i] = Arrays.copyOf(original.elements[i], original.elements[i].length);
-            }
+        this.elements = Arrays.copyOf(original.elements, original.elements.length);
+        this.elementPageShared = new boolean[elements.length];
+        Arrays.fill(elementPageShared, true);
+        Arrays.fill(original.elementPageShared, true);
+        this.listOwned = new boolean[elements.length][];
+
+        this.elementLists = new PagedIntArray(original.elementLists);
+        this.elementPositions = new PagedIntArray(original.elementPositions);
+    }
+
+    private int[] getList(final int list) {
+        return elements[list >>> PAGE_SHIFT][list & PAGE_MASK];
+    }
+
+    /**
+     * Returns the array holding a list, first taking a private copy of the
+     * page that refers to it, and of the array itself, if they may be shared
+     * with another ListStore.
+     */
+    private int[] getWritableList(final int list) {
+        final int page = list >>> PAGE_SHIFT;
+        final int offset = list & PAGE_MASK;
+        if (elementPageShared[page]) {
+            elements[page] = elements[page].clone();
+            listOwned[page] = new boolean[elements[page].length];
+            elementPageShared[page] = false;
+        }
+        int[] l = elements[page][offset];
+        if (!listOwned[page][offset] && l.length > 0) {
+            l = elements[page][offset] = l.clone();
+            listOwned[page][offset] = true;
         }
+        return l;
+    }
+
+    private void setList(final int list, final int[] l) {
+        getWritableList(list);
+        elements[list >>> PAGE_SHIFT][list & PAGE_MASK] = l;
+        listOwned[list >>> PAGE_SHIFT][list & PAGE_MASK] = true;
+    }
+
+    private void setListCapacity(final int capacity) {
+        if (capacity < PAGE_SIZE) {
+            // A single partial page: small enough that copying is cheap.
+            final int[][] page = elements.length == 0 ? new int[0][] : elements[0];
+            final boolean[] owned = elements.length == 0 || elementPageShared[0] ? new boolean[0] : listOwned[0];
+            elements = new int[][][]{Arrays.copyOf(page, capacity)};
+            listOwned = new boolean[][]{Arrays.copyOf(owned, capacity)};
+            elementPageShared = new boolean[1];
+            Arrays.fill(elements[0], page.length, capacity, EMPTY_ARRAY);
+        } else {
+            final int pageCount = ((capacity - 1) >>> PAGE_SHIFT) + 1;
+            final int oldPageCount = elements.length;
+            elements = Arrays.copyOf(elements, pageCount);
+            listOwned = Arrays.copyOf(listOwned, pageCount);
+            elementPageShared = Arrays.copyOf(elementPageShared, pageCount);
+
+            // Promote an existing partial page to a full page.
+            if (oldPageCount > 0 && elements[oldPageCount - 1].length < PAGE_SIZE) {
+                final int[][] page = elements[oldPageCount - 1];
+                final boolean[] owned = elementPageShared[oldPageCount - 1] ? new boolean[0] : listOwned[oldPageCount - 1];
+                elements[oldPageCount - 1] = Arrays.copyOf(page, PAGE_SIZE);
+                listOwned[oldPageCount - 1] = Arrays.copyOf(owned, PAGE_SIZE);
+                elementPageShared[oldPageCount - 1] = false;
+                Arrays.fill(elements[oldPageCount - 1], page.length, PAGE_SIZE, EMPTY_ARRAY);
+            }
 
-        this.elementLists = Arrays.copyOf(original.elementLists, original.elementLists.length);
-        this.elementPositions = Arrays.copyOf(original.elementPositions, original.elementPositions.length);
+            for (int page = oldPageCount; page < pageCount; page++) {
+                elements[page] = new int[PAGE_SIZE][];
+                listOwned[page] = new boolean[PAGE_SIZE];
+                Arrays.fill(elements[page], EMPTY_ARRAY);
+            }
+        }
+        listCapacity = capacity;
     }
 
     public void addElement(final int list, final int element, final int category) {
 
-        int[] l = elements[list];
+        int[] l = getWritableList(list);
         int base = countLength * list + category;
         int currentCategory = categories - category;
 
         // Create a space at the end of the list entire list
-        int space = categoryCounts[currentCategory + base]++;
+        int space = categoryCounts.get(currentCategory + base);
+        categoryCounts.set(currentCategory + base, space + 1);
 
         // If the space is past the end of the array then expand the array
         if (space >= l.length) {
-            l = elements[list] = Arrays.copyOf(l, l.length == 0 ? 1 : (l.length << 1));
+            l = Arrays.copyOf(l, l.length == 0 ? 1 : (l.length << 1));
+            setList(list, l);
         }
 
         while (--currentCategory > 0) {
 
             // Find the first element in the current category
-            final int firstPosition = categoryCounts[currentCategory + base]++;
+            final int firstPosition = categoryCounts.get(currentCategory + base);
+            categoryCounts.set(currentCategory + base, firstPosition + 1);
 
             if (firstPosition < space) {
 
@@ -107,7 +194,7 @@ public class ListStore implements Serializable {
 
                 // Move the first element into the space
                 l[space] = firstElement;
-                elementPositions[firstElement] = space | ((category + currentCategory) << CATEGORY_SHIFT);
+                elementPositions.set(firstElement, space | ((category + currentCategory) << CATEGORY_SHIFT));
 
                 // The space has moved to the first position in the current category
                 space = firstPosition;
@@ -115,31 +202,32 @@ public class ListStore implements Serializable {
         }
 
         l[space] = element;
-        elementPositions[element] = space | (category << CATEGORY_SHIFT);
-        elementLists[element] = list;
+        elementPositions.set(element, space | (category << CATEGORY_SHIFT));
+        elementLists.set(element, list);
     }
 
     public void removeElement(final int element) {
 
-        final int list = elementLists[element];
-        int category = (elementPositions[element] >>> CATEGORY_SHIFT) - 1;
-        int space = elementPositions[element] & POSITION_MASK;
+        final int list = elementLists.get(element);
+        int category = (elementPositions.get(element) >>> CATEGORY_SHIFT) - 1;
+        int space = elementPositions.get(element) & POSITION_MASK;
 
         final int base = countLength * list;
 
-        final int[] l = elements[list];
+        final int[] l = getWritableList(list);
 
         // Mark the element as removed from the list
-        elementLists[element] = -1;
+        elementLists.set(element, -1);
 
         while (++category < categories) {
-            final int newSpace = --categoryCounts[category + base + 1];
+            final int newSpace = categoryCounts.get(category + base + 1) - 1;
+            categoryCounts.set(category + base + 1, newSpace);
 
             if (newSpace > space) {
 
                 final int id = l[newSpace];
                 l[space] = id;
-                elementPositions[id] = space | (category << CATEGORY_SHIFT);
+                elementPositions.set(id, space | (category << CATEGORY_SHIFT));
 
                 space = newSpace;
             }
@@ -147,50 +235,46 @@ public class ListStore implements Serializable {
     }
 
     public boolean elementExists(final int element) {
-        return element >= 0 && element < elementCapacity && elementLists[element] >= 0;
+        return element >= 0 && element < elementCapacity && elementLists.get(element) >= 0;
     }
 
     public int getElementList(final int element) {
-        return elementLists[element];
+        return elementLists.get(element);
     }
 
     public int getElementCategory(final int element) {
-        return elementPositions[element] >>> CATEGORY_SHIFT;
+        return elementPositions.get(element) >>> CATEGORY_SHIFT;
     }
 
     public void expandElementCapacity(final int capacity) {
-        elementLists = Arrays.copyOf(elementLists, capacity);
-        Arrays.fill(elementLists, elementCapacity, capacity, -1);
+        elementLists.setLength(capacity);
+        elementLists.fill(elementCapacity, capacity, -1);
 
-        elementPositions = Arrays.copyOf(elementPositions, capacity);
+        elementPositions.setLength(capacity);
 
         elementCapacity = capacity;
     }
 
     public void expandListCapacity(final int capacity) {
-        categoryCounts = Arrays.copyOf(categoryCounts, capacity * countLength);
-
-        elements = Arrays.copyOf(elements, capacity);
-        Arrays.fill(elements, listCapacity, capacity, EMPTY_ARRAY);
-
-        listCapacity = capacity;
+        categoryCounts.setLength(capacity * countLength);
+        setListCapacity(capacity);
     }
 
     public int getElementCount(final int list) {
-        return categoryCounts[list * countLength + categories];
+        return categoryCounts.get(list * countLength + categories);
     }
 
     public int getElementCount(final int list, final int category) {
         int base = list * countLength;
-        return categoryCounts[base + category + 1] - categoryCounts[base + category];
+        return categoryCounts.get(base + category + 1) - categoryCounts.get(base + category);
     }
 
     public int getElement(final int list, final int position) {
-        return elements[list][position];
+        return getList(list)[position];
     }
 
     public int getElement(final int list, final int category, final int position) {
-        return elements[list][categoryCounts[list * countLength + category] + position];
+        return getList(list)[categoryCounts.get(list * countLength + category) + position];
     }
 
     public String toString(final int list) {
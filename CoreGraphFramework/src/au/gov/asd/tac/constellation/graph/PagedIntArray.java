@@ -0,0 +1,179 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An array of ints divided into fixed size pages that can be shared between
+ * copies of the array.
+ * <p>
+ * Copying a PagedIntArray only copies the references to its pages. From then
+ * on both arrays treat every page as shared, and each takes a private copy of
+ * a page the first time it writes to it, so the cost of a copy is proportional
+ * to the number of pages that are later modified rather than the length of
+ * the array.
+ * <p>
+ * Arrays shorter than a page are held in a single page sized to fit, so small
+ * graphs do not pay for a full page per array.
+ *
+ * @author sirius
+ */
+final class PagedIntArray implements Serializable {
+
+    static final int PAGE_SHIFT = 12;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final int[][] NO_PAGES = new int[0][];
+
+    private int[][] pages;
+    private boolean[] shared;
+    private int length;
+
+    /**
+     * Create a new array with every value set to zero.
+     *
+     * @param length the length of the new array.
+     */
+    PagedIntArray(final int length) {
+        this.pages = NO_PAGES;
+        this.shared = new boolean[0];
+        this.length = 0;
+        setLength(length);
+    }
+
+    /**
+     * Create a new array that shares its pages with the original array.
+     * <p>
+     * The pages of the original are marked as shared so that neither array
+     * will modify them in place again.
+     *
+     * @param original the array to copy.
+     */
+    PagedIntArray(final PagedIntArray original) {
+        this.pages = Arrays.copyOf(original.pages, original.pages.length);
+        this.shared = new boolean[pages.length];
+        Arrays.fill(shared, true);
+        Arrays.fill(original.shared, true);
+        this.length = original.length;
+    }
+
+    int length() {
+        return length;
+    }
+
+    int get(final int index) {
+        return pages[index >>> PAGE_SHIFT][index & PAGE_MASK];
+    }
+
+    void set(final int index, final int value) {
+        getWritablePage(index >>> PAGE_SHIFT)[index & PAGE_MASK] = value;
+    }
+
+    /**
+     * Set every value from one index (inclusive) to another (exclusive).
+     *
+     * @param from the first index to set.
+     * @param to the index after the last index to set.
+     * @param value the value to set.
+     */
+    void fill(final int from, final int to, final int value) {
+        int index = from;
+        while (index < to) {
+            final int page = index >>> PAGE_SHIFT;
+            final int pageEnd = Math.min(to, (page + 1) << PAGE_SHIFT);
+            final int offset = page << PAGE_SHIFT;
+            Arrays.fill(getWritablePage(page), index - offset, pageEnd - offset, value);
+            index = pageEnd;
+        }
+    }
+
+    /**
+     * Copy the values of this array into a plain int array.
+     *
+     * @param count the number of values to copy, starting from index 0.
+     * @return a new int array holding the first count values of this array.
+     */
+    int[] toArray(final int count) {
+        final int[] array = new int[count];
+        for (int index = 0; index < count; index += PAGE_SIZE) {
+            System.arraycopy(pages[index >>> PAGE_SHIFT], 0, array, index, Math.min(PAGE_SIZE, count - index));
+        }
+        return array;
+    }
+
+    /**
+     * Change the length of this array. Values below the new length are
+     * preserved; values added by growing the array are zero.
+     *
+     * @param newLength the new length of the array.
+     */
+    void setLength(final int newLength) {
+        if (newLength > length) {
+            grow(newLength);
+        } else if (newLength < length) {
+            shrink(newLength);
+        }
+        length = newLength;
+    }
+
+    private void grow(final int newLength) {
+        if (newLength < PAGE_SIZE) {
+            // A single partial page: small enough that copying is cheap.
+            pages = new int[][]{pages.length == 0 ? new int[newLength] : Arrays.copyOf(pages[0], newLength)};
+            shared = new boolean[1];
+            return;
+        }
+
+        final int pageCount = ((newLength - 1) >>> PAGE_SHIFT) + 1;
+        final int oldPageCount = pages.length;
+        pages = Arrays.copyOf(pages, pageCount);
+        shared = Arrays.copyOf(shared, pageCount);
+
+        // Promote an existing partial page to a full page.
+        if (oldPageCount > 0 && pages[oldPageCount - 1].length < PAGE_SIZE) {
+            pages[oldPageCount - 1] = Arrays.copyOf(pages[oldPageCount - 1], PAGE_SIZE);
+            shared[oldPageCount - 1] = false;
+        }
+
+        for (int page = oldPageCount; page < pageCount; page++) {
+            pages[page] = new int[PAGE_SIZE];
+        }
+    }
+
+    private void shrink(final int newLength) {
+        final int pageCount = newLength == 0 ? 0 : ((newLength - 1) >>> PAGE_SHIFT) + 1;
+        pages = Arrays.copyOf(pages, pageCount);
+        shared = Arrays.copyOf(shared, pageCount);
+
+        // Zero the released tail of the last page so that growing again yields zeros.
+        if (pageCount > 0) {
+            final int pageStart = (pageCount - 1) << PAGE_SHIFT;
+            final int[] page = getWritablePage(pageCount - 1);
+            Arrays.fill(page, newLength - pageStart, Math.min(page.length, length - pageStart), 0);
+        }
+    }
+
+    private int[] getWritablePage(final int page) {
+        if (shared[page]) {
+            pages[page] = pages[page].clone();
+            shared[page] = false;
+        }
+        return pages[page];
+    }
+}
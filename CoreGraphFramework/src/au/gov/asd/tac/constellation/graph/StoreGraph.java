@@ -19,24 +19,31 @@ import static au.gov.asd.tac.constellation.graph.GraphConstants.NOT_FOUND;
 import au.gov.asd.tac.constellation.graph.NativeAttributeType.NativeValue;
 import au.gov.asd.tac.constellation.graph.attribute.AttributeDescription;
 import au.gov.asd.tac.constellation.graph.attribute.AttributeRegistry;
+import au.gov.asd.tac.constellation.graph.attribute.MappableAttributeDescription;
 import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
 import au.gov.asd.tac.constellation.graph.locking.LockingTarget;
 import au.gov.asd.tac.constellation.graph.locking.ParameterReadAccess;
 import au.gov.asd.tac.constellation.graph.locking.ParameterWriteAccess;
 import au.gov.asd.tac.constellation.graph.operations.GraphOperation;
+import au.gov.asd.tac.constellation.graph.operations.SetColumnValuesOperation;
 import au.gov.asd.tac.constellation.graph.schema.Schema;
 import au.gov.asd.tac.constellation.graph.undo.GraphEdit;
 import au.gov.asd.tac.constellation.graph.utilities.MultiValueStore;
 import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
 import au.gov.asd.tac.constellation.utilities.datastructure.IntHashSet;
 import au.gov.asd.tac.constellation.utilities.memory.MemoryManager;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 import java.util.stream.StreamSupport;
 
@@ -59,6 +66,8 @@ enum Operator {
  */
 public class StoreGraph extends LockingTarget implements GraphWriteMethods, Serializable {
 
+    private static final AtomicLong STRUCTURE_VERSIONS = new AtomicLong();
+    private static final AtomicLong VALUE_VERSIONS = new AtomicLong();
     private static final int HIGH_BIT = 0x80000000;
     private static final int LOW_BITS = 0x7FFFFFFF;
     private static final int[] CATEGORY_TO_STATE = new int[]{6, 4, 5, 1, 3, 7, 2};
@@ -71,35 +80,42 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     private static final int ALL_7 = 5;
     private static final int INCOMING_2 = 6;
 
-    private final ElementStore vStore;
-    private final ElementStore lStore;
-    private final ElementStore eStore;
-    private final ElementStore tStore;
+    private ElementStore vStore;
+    private ElementStore lStore;
+    private ElementStore eStore;
+    private ElementStore tStore;
     private final ElementStore aStore;
 
-    private final ListStore vertexLinks;
-    private final ListStore linkTransactions;
-    private final ListStore vertexTransactions;
-    private final ListStore linkEdges;
-    private final ListStore vertexEdges;
+    private ListStore vertexLinks;
+    private ListStore linkTransactions;
+    private ListStore vertexTransactions;
+    private ListStore linkEdges;
+    private ListStore vertexEdges;
     private final ListStore typeAttributes;
 
     private int linkHashLength;
     private int linkHashMask;
-    private int[] linkHash;
-    private int[] linkNext;
-    private int[] linkPrev;
+    private PagedIntArray linkHash;
+    private PagedIntArray linkNext;
+    private PagedIntArray linkPrev;
 
     private AttributeDescription[] attributeDescriptions;
+    private boolean[] attributeDescriptionShared;
+    private boolean structureShared = false;
+    private boolean indicesPending = false;
     protected GraphAttribute[] attributes;
     private GraphIndexType[] attributeIndexTypes;
     private GraphIndex[] attributeIndices;
-    private final Map<String, int[]> attributeNames;
+    private Map<String, int[]> attributeNames;
+    private boolean attributeNamesShared = false;
     private long[] attributeModificationCounters;
+    private ValueChangeLog[] valueChangeLogs;
+    private transient long[] valueVersions;
     private AttributeRegistry attributeRegistry;
     private long globalModificationCounter = 0;
     private long attributeModificationCounter = 0;
     private long structureModificationCounter = 0;
+    private transient long structureVersion = 0;
     private long lastFiredModificationCount = Long.MIN_VALUE;
     protected final int[][] primaryKeys;
     private int[] primaryKeyLookup;
@@ -184,15 +200,18 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         }
         linkHashMask = linkHashLength - 1;
 
-        linkHash = new int[linkHashLength];
-        Arrays.fill(linkHash, NOT_FOUND);
-        linkNext = new int[linkCapacity];
-        linkPrev = new int[linkCapacity];
+        linkHash = new PagedIntArray(linkHashLength);
+        linkHash.fill(0, linkHashLength, NOT_FOUND);
+        linkNext = new PagedIntArray(linkCapacity);
+        linkPrev = new PagedIntArray(linkCapacity);
 
         attributeDescriptions = new AttributeDescription[attributeCapacity];
+        attributeDescriptionShared = new boolean[attributeCapacity];
         attributes = new GraphAttribute[attributeCapacity];
         attributeNames = new HashMap<>();
         attributeModificationCounters = new long[attributeCapacity];
+        valueChangeLogs = new ValueChangeLog[attributeCapacity];
+        valueVersions = new long[attributeCapacity];
 
         attributeIndices = new GraphIndex[attributeCapacity];
         Arrays.fill(attributeIndices, AttributeDescription.NULL_GRAPH_INDEX);
@@ -322,9 +341,9 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
         this.linkHashLength = original.linkHashLength;
         this.linkHashMask = original.linkHashMask;
-        this.linkHash = Arrays.copyOf(original.linkHash, original.linkHash.length);
-        this.linkNext = Arrays.copyOf(original.linkNext, original.linkNext.length);
-        this.linkPrev = Arrays.copyOf(original.linkPrev, original.linkPrev.length);
+        this.linkHash = new PagedIntArray(original.linkHash);
+        this.linkNext = new PagedIntArray(original.linkNext);
+        this.linkPrev = new PagedIntArray(original.linkPrev);
 
         this.globalModificationCounter = original.globalModificationCounter;
         this.attributeModificationCounter = original.attributeModificationCounter;
@@ -338,6 +357,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
                 attributeDescriptions[i] = original.attributeDescriptions[i].copy(this);
             }
         }
+        this.attributeDescriptionShared = new boolean[attributeDescriptions.length];
 
         this.attributes = new GraphAttribute[original.attributes.length];
         for (int i = 0; i < this.attributes.length; i++) {
@@ -350,6 +370,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             this.attributeNames.put(e.getKey(), Arrays.copyOf(e.getValue(), e.getValue().length));
         }
         this.attributeModificationCounters = Arrays.copyOf(original.attributeModificationCounters, original.attributeModificationCounters.length);
+        this.valueChangeLogs = copyValueChangeLogs(original.valueChangeLogs);
+        this.valueVersions = new long[original.valueVersions.length];
 
         this.primaryKeys = new int[original.primaryKeys.length][];
         for (int i = 0; i < this.primaryKeys.length; i++) {
@@ -358,17 +380,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
         this.primaryKeyLookup = Arrays.copyOf(original.primaryKeyLookup, original.primaryKeyLookup.length);
         this.primaryKeyIndices = new ElementKeySet[original.primaryKeyIndices.length];
-        for (int i = 0; i < this.primaryKeyIndices.length; i++) {
-            final ElementKeySet ks = original.primaryKeyIndices[i];
-            if (ks != null) {
-                if (ks instanceof TransactionKeySet) {
-                    this.primaryKeyIndices[i] = new TransactionKeySet((TransactionKeySet) ks);
-                } else {
-                    this.primaryKeyIndices[i] = new ElementKeySet(ks);
-                }
-                this.removedFromKeys[i] = new ElementList(original.removedFromKeys[i]);
-            }
-        }
+        copyPrimaryKeyIndices(original);
 
         this.operationMode = original.operationMode;
 
@@ -389,14 +401,359 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         MemoryManager.newObject(StoreGraph.class);
     }
 
+    /**
+     * Creates a new StoreGraph that shares its structure and attribute values
+     * with the original StoreGraph rather than copying them.
+     * <p>
+     * The shared structure and attribute columns are treated as read-only by
+     * both graphs: the first time either graph modifies its structure or the
+     * values of an attribute, it takes a private copy of just that data. This
+     * makes the new graph very cheap to create and allows it to be used as an
+     * immutable snapshot of the original while the original continues to be
+     * modified.
+     * <p>
+     * The structure is shared page by page (see {@link ElementStore} and
+     * {@link ListStore}), so the first structural change after sharing only
+     * copies the pages it touches. Attribute values are shared per attribute:
+     * the first change to a primitive attribute held off-heap copies only the
+     * page it touches, while any other attribute copies its whole column, at a
+     * cost linear in the number of elements.
+     * <p>
+     * The value change logs and attribute names are shared until either graph
+     * changes them, and the attribute indices are shared until either graph
+     * changes the values or elements of an indexed attribute. That graph then
+     * stops using the index and builds a new one the first time it is queried,
+     * so an index is rebuilt at most once per attribute each time a graph is
+     * shared, and only if it is both changed and queried. A read-only snapshot
+     * does not maintain primary key indices at all, while a graph that will be
+     * modified is given its own copy of the original's. Creating the new graph
+     * itself only copies tables with an entry per attribute.
+     *
+     * @param id the id of this StoreGraph.
+     * @param schema the Schema for this StoreGraph.
+     * @param original the original StoreGraph to share data with.
+     * @param writable true if the new graph will be modified, false if it is
+     * a read-only snapshot of the original.
+     */
+    protected StoreGraph(final String id, final Schema schema, final StoreGraph original, final boolean writable) {
+        this.id = id;
+        this.schema = schema;
+
+        original.structureShared = true;
+        this.structureShared = true;
+
+        this.vStore = original.vStore;
+        this.lStore = original.lStore;
+        this.eStore = original.eStore;
+        this.tStore = original.tStore;
+        this.aStore = new ElementStore(original.aStore);
+
+        this.vertexLinks = original.vertexLinks;
+        this.vertexTransactions = original.vertexTransactions;
+        this.linkTransactions = original.linkTransactions;
+        this.typeAttributes = new ListStore(original.typeAttributes);
+        this.vertexEdges = original.vertexEdges;
+        this.linkEdges = original.linkEdges;
+
+        this.attributeRegistry = original.attributeRegistry;
+
+        this.linkHashLength = original.linkHashLength;
+        this.linkHashMask = original.linkHashMask;
+        this.linkHash = original.linkHash;
+        this.linkNext = original.linkNext;
+        this.linkPrev = original.linkPrev;
+
+        this.globalModificationCounter = original.globalModificationCounter;
+        this.attributeModificationCounter = original.attributeModificationCounter;
+        this.structureModificationCounter = original.structureModificationCounter;
+
+        this.lastFiredModificationCount = original.lastFiredModificationCount;
+
+        this.attributeDescriptions = Arrays.copyOf(original.attributeDescriptions, original.attributeDescriptions.length);
+        this.attributeDescriptionShared = new boolean[attributeDescriptions.length];
+        Arrays.fill(attributeDescriptionShared, true);
+        Arrays.fill(original.attributeDescriptionShared, true);
+
+        this.attributes = new GraphAttribute[original.attributes.length];
+        for (int i = 0; i < this.attributes.length; i++) {
+            final GraphAttribute ia = original.attributes[i];
+            this.attributes[i] = ia != null ? new GraphAttribute(ia) : null;
+        }
+
+        this.attributeNames = original.attributeNames;
+        this.attributeNamesShared = true;
+        original.attributeNamesShared = true;
+        this.attributeModificationCounters = Arrays.copyOf(original.attributeModificationCounters, original.attributeModificationCounters.length);
+        this.valueChangeLogs = copyValueChangeLogs(original.valueChangeLogs);
+        this.valueVersions = new long[original.valueVersions.length];
+
+        // The key arrays are replaced rather than modified, so they can be shared.
+        this.primaryKeys = Arrays.copyOf(original.primaryKeys, original.primaryKeys.length);
+        this.primaryKeyLookup = Arrays.copyOf(original.primaryKeyLookup, original.primaryKeyLookup.length);
+        this.primaryKeyIndices = new ElementKeySet[original.primaryKeyIndices.length];
+        if (writable) {
+            copyPrimaryKeyIndices(original);
+        }
+
+        this.operationMode = original.operationMode;
+
+        graphElementMerger = schema == null ? null : schema.getFactory().getGraphElementMerger();
+
+        this.attributeIndexTypes = Arrays.copyOf(original.attributeIndexTypes, original.attributeIndexTypes.length);
+        this.attributeIndices = Arrays.copyOf(original.attributeIndices, original.attributeIndices.length);
+        this.indicesPending = true;
+
+        MemoryManager.newObject(StoreGraph.class);
+    }
+
+    private static ValueChangeLog[] copyValueChangeLogs(final ValueChangeLog[] originalLogs) {
+        final ValueChangeLog[] logs = new ValueChangeLog[originalLogs.length];
+        for (int i = 0; i < logs.length; i++) {
+            final ValueChangeLog log = originalLogs[i];
+            logs[i] = log != null ? new ValueChangeLog(log) : null;
+        }
+        return logs;
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // A deserialized graph is a copy, so it starts without value versions.
+        valueVersions = new long[attributeModificationCounters.length];
+    }
+
+    private void copyPrimaryKeyIndices(final StoreGraph original) {
+        for (int i = 0; i < primaryKeyIndices.length; i++) {
+            final ElementKeySet ks = original.primaryKeyIndices[i];
+            if (ks != null) {
+                if (ks instanceof TransactionKeySet) {
+                    primaryKeyIndices[i] = new TransactionKeySet((TransactionKeySet) ks);
+                } else {
+                    primaryKeyIndices[i] = new ElementKeySet(ks);
+                }
+                removedFromKeys[i] = new ElementList(original.removedFromKeys[i]);
+            } else if (primaryKeys[i].length > 0) {
+                // The original is a copy-on-write snapshot which does not maintain its key indices,
+                // so start with every element waiting to be added back into the new index.
+                createPrimaryKeyIndex(GraphElementType.values()[i]);
+            }
+        }
+    }
+
+    /**
+     * Stops sharing the graph structure with other StoreGraphs. This must be
+     * called before any element store or list store is modified.
+     * <p>
+     * The stores are copied by reference to their pages, so this costs one
+     * reference per page; each page is only copied when it is first written.
+     */
+    private void ensureStructureWritable() {
+        if (structureShared) {
+            vStore = new ElementStore(vStore);
+            lStore = new ElementStore(lStore);
+            eStore = new ElementStore(eStore);
+            tStore = new ElementStore(tStore);
+
+            vertexLinks = new ListStore(vertexLinks);
+            vertexTransactions = new ListStore(vertexTransactions);
+            linkTransactions = new ListStore(linkTransactions);
+            vertexEdges = new ListStore(vertexEdges);
+            linkEdges = new ListStore(linkEdges);
+
+            linkHash = new PagedIntArray(linkHash);
+            linkNext = new PagedIntArray(linkNext);
+            linkPrev = new PagedIntArray(linkPrev);
+
+            structureShared = false;
+        }
+    }
+
+    /**
+     * Returns the description holding the values of the specified attribute,
+     * first taking a private copy of it if it is currently shared with another
+     * StoreGraph. This must be used whenever attribute values are modified.
+     *
+     * @param attribute the attribute id.
+     * @return an attribute description that is safe to modify.
+     */
+    private AttributeDescription getWritableAttributeDescription(final int attribute) {
+        if (attributeDescriptionShared[attribute]) {
+            attributeDescriptionShared[attribute] = false;
+            final AttributeDescription description = attributeDescriptions[attribute].copy(this);
+            attributeDescriptions[attribute] = description;
+
+            // Any existing index is reading the values held by the shared description
+            dropSharedIndex(attribute);
+        }
+        return attributeDescriptions[attribute];
+    }
+
+    /**
+     * Stop using the index of an attribute whose description is shared with
+     * another StoreGraph, as the index may be shared too and must not be
+     * modified. A new index is built the next time one is queried.
+     *
+     * @param attribute the attribute id.
+     */
+    private void dropSharedIndex(final int attribute) {
+        if (attributeIndices[attribute] != AttributeDescription.NULL_GRAPH_INDEX) {
+            attributeIndices[attribute] = AttributeDescription.NULL_GRAPH_INDEX;
+            indicesPending = true;
+        }
+    }
+
+    /**
+     * Record the attribute with the specified name for an element type, first
+     * taking a private copy of the attribute names if they are currently
+     * shared with another StoreGraph.
+     *
+     * @param name the attribute name.
+     * @param elementType the ordinal of the element type.
+     * @param attribute the attribute id, or {@link GraphConstants#NOT_FOUND}.
+     */
+    private void setAttributeNameEntry(final String name, final int elementType, final int attribute) {
+        if (attributeNamesShared) {
+            final Map<String, int[]> names = new HashMap<>();
+            for (final Entry<String, int[]> e : attributeNames.entrySet()) {
+                names.put(e.getKey(), Arrays.copyOf(e.getValue(), e.getValue().length));
+            }
+            attributeNames = names;
+            attributeNamesShared = false;
+        }
+        int[] attributesWithName = attributeNames.get(name);
+        if (attributesWithName == null) {
+            attributesWithName = new int[GraphElementType.values().length];
+            Arrays.fill(attributesWithName, NOT_FOUND);
+            attributeNames.put(name, attributesWithName);
+        }
+        attributesWithName[elementType] = attribute;
+    }
+
+    /**
+     * Replace the values of an attribute with a region of a file that is
+     * mapped into memory, so that values are only read when they are first
+     * accessed.
+     * <p>
+     * This is intended for building a graph as it is read from a file: the
+     * change is not recorded for undo and does not change any modification
+     * counters.
+     *
+     * @param attribute the attribute id.
+     * @param channel the file to map, open for reading and writing.
+     * @param position the position in the file of the value for element id 0.
+     * @param count the number of values in the region.
+     * @return true if the values were mapped, false if the attribute's type
+     * does not support mapping.
+     * @throws IOException if the region could not be mapped.
+     * @see MappableAttributeDescription
+     */
+    public boolean mapAttributeValues(final int attribute, final FileChannel channel, final long position, final int count) throws IOException {
+        final AttributeDescription description = getWritableAttributeDescription(attribute);
+        if (!(description instanceof MappableAttributeDescription)) {
+            return false;
+        }
+
+        ((MappableAttributeDescription) description).mapValues(channel, position, count);
+        valuesReplaced(attribute, attributeModificationCounters[attribute]);
+        if (attributeIndexTypes[attribute] != GraphIndexType.NONE) {
+            attributeIndices[attribute] = createAttributeIndex(attribute, attributeIndexTypes[attribute]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the values of an attribute are held in a mapped region
+     * of a file rather than in memory.
+     *
+     * @param attribute the attribute id.
+     * @return true if the attribute's values are file-backed.
+     * @see #mapAttributeValues(int, FileChannel, long, int)
+     */
+    public boolean isAttributeMapped(final int attribute) {
+        final AttributeDescription description = attributeDescriptions[attribute];
+        return description instanceof MappableAttributeDescription && ((MappableAttributeDescription) description).isMapped();
+    }
+
+    /**
+     * Returns the id layout of the vertices or transactions in this graph: the
+     * id of each element in position order followed by the free ids in the
+     * order they will be allocated.
+     * <p>
+     * Recorded {@link GraphEdit}s allocate ids implicitly when they are
+     * replayed, so they can only be replayed onto a graph whose layouts match
+     * the graph they were recorded on.
+     *
+     * @param elementType the element type, either VERTEX or TRANSACTION.
+     * @return the id layout of the given element type.
+     * @see #setElementLayout(GraphElementType, int[])
+     */
+    public int[] getElementLayout(final GraphElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return vStore.getLayout();
+            case TRANSACTION:
+                return tStore.getLayout();
+            default:
+                throw new IllegalArgumentException("Element layouts are not available for " + elementType);
+        }
+    }
+
+    /**
+     * Sets the id layout of the vertices or transactions in a graph that has
+     * none of those elements. Adding elements in position order without
+     * specifying their ids will then give each element the id it had in the
+     * graph the layout was taken from.
+     *
+     * @param elementType the element type, either VERTEX or TRANSACTION.
+     * @param layout a layout returned by {@link #getElementLayout}.
+     */
+    public void setElementLayout(final GraphElementType elementType, final int[] layout) {
+        ensureStructureWritable();
+        switch (elementType) {
+            case VERTEX:
+                ensureVertexCapacity(layout.length);
+                vStore.setLayout(layout);
+                break;
+            case TRANSACTION:
+                ensureTransactionCapacity(layout.length);
+                tStore.setLayout(layout);
+                break;
+            default:
+                throw new IllegalArgumentException("Element layouts are not available for " + elementType);
+        }
+    }
+
+    /**
+     * Returns the id layout of the attributes in this graph.
+     *
+     * @return the id layout of the attributes in this graph.
+     * @see #getElementLayout(GraphElementType)
+     */
+    public int[] getAttributeLayout() {
+        return aStore.getLayout();
+    }
+
+    /**
+     * Sets the id layout of the attributes in a graph that has no attributes.
+     *
+     * @param layout a layout returned by {@link #getAttributeLayout()}.
+     * @see #setElementLayout(GraphElementType, int[])
+     */
+    public void setAttributeLayout(final int[] layout) {
+        ensureAttributeCapacity(layout.length);
+        aStore.setLayout(layout);
+    }
+
     public void setModificationCounters(final long globalModificationCounter, final long structureModificationCounter, final long attributeModificationCounter) {
         this.globalModificationCounter = globalModificationCounter;
         this.structureModificationCounter = structureModificationCounter;
         this.attributeModificationCounter = attributeModificationCounter;
+        this.structureVersion = 0;
     }
 
     public void setValueModificationCounter(final int attribute, final long modificationCounter) {
+        final long previousCounter = attributeModificationCounters[attribute];
         attributeModificationCounters[attribute] = modificationCounter;
+        valuesReplaced(attribute, previousCounter);
     }
 
     @Override
@@ -562,11 +919,63 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         return structureModificationCounter;
     }
 
+    /**
+     * Returns the structure version of this graph. Unlike the structure
+     * modification counter, the version is never reused: it changes every time
+     * a vertex or transaction is added or removed, including when an addition
+     * or removal is undone, and no two graphs, including a graph and its
+     * copies, ever share a version. A value cached against a version is
+     * therefore current for as long as this graph returns the same version.
+     * <p>
+     * Versions are allocated on demand, so concurrent readers of an unchanged
+     * graph may occasionally see different versions; this can only cause a
+     * cached value to be recalculated.
+     *
+     * @return the structure version of this graph.
+     */
+    public long getStructureVersion() {
+        if (structureVersion == 0) {
+            structureVersion = STRUCTURE_VERSIONS.incrementAndGet();
+        }
+        return structureVersion;
+    }
+
     @Override
     public long getValueModificationCounter(final int attribute) {
         return attributeModificationCounters[attribute];
     }
 
+    /**
+     * Returns the value version of an attribute. Like the structure version,
+     * it is never reused: it changes every time a value of the attribute
+     * changes, including when a change is undone, and when the attribute is
+     * added or removed. No two graphs, including a graph and its copies, ever
+     * share a version. A value cached against the structure version and the
+     * value version of an attribute is therefore current for as long as this
+     * graph returns the same versions.
+     * <p>
+     * Versions are allocated on demand, as for the structure version.
+     *
+     * @param attribute the attribute.
+     * @return the value version of the attribute.
+     */
+    public long getValueVersion(final int attribute) {
+        if (valueVersions[attribute] == 0) {
+            valueVersions[attribute] = VALUE_VERSIONS.incrementAndGet();
+        }
+        return valueVersions[attribute];
+    }
+
+    @Override
+    public int[] getChangedElements(final int attribute, final long modificationCounter) {
+        final ValueChangeLog log = valueChangeLogs[attribute];
+        if (log == null) {
+            // Nothing has changed since the attribute was added.
+            return modificationCounter == attributeModificationCounters[attribute] ? new int[0] : null;
+        }
+        return log.getChangedElements(modificationCounter);
+    }
+
     @Override
     public int getVertexCapacity() {
         return vStore.getCapacity();
@@ -684,6 +1093,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
     public int addVertex(int vertex) {
 
+        ensureStructureWritable();
+
         if (vertex < 0) {
             ensureVertexCapacity(vStore.getCount() + 1);
             vertex = vStore.add();
@@ -697,6 +1108,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
         structureModificationCounter += operationMode.getModificationIncrement();
         globalModificationCounter += operationMode.getModificationIncrement();
+        structureVersion = 0;
 
         vStore.setUID(vertex, structureModificationCounter);
 
@@ -718,7 +1130,11 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         final int attributeCount = getAttributeCount(elementType);
         for (int i = 0; i < attributeCount; i++) {
             int attribute = getAttribute(elementType, i);
-            attributeIndices[attribute].addElement(element);
+            if (attributeDescriptionShared[attribute]) {
+                dropSharedIndex(attribute);
+            } else {
+                attributeIndices[attribute].addElement(element);
+            }
         }
     }
 
@@ -726,7 +1142,11 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         final int attributeCount = getAttributeCount(elementType);
         for (int i = 0; i < attributeCount; i++) {
             int attribute = getAttribute(elementType, i);
-            attributeIndices[attribute].removeElement(element);
+            if (attributeDescriptionShared[attribute]) {
+                dropSharedIndex(attribute);
+            } else {
+                attributeIndices[attribute].removeElement(element);
+            }
         }
     }
 
@@ -737,6 +1157,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             throw new IllegalArgumentException("Attempt to remove vertex that does not exist: " + vertex);
         }
 
+        ensureStructureWritable();
+
         if (operationMode == GraphOperationMode.EXECUTE) {
 
             // Remove all the transactions that connect to the vertex - needs optimising
@@ -765,6 +1187,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
         structureModificationCounter += operationMode.getModificationIncrement();
         globalModificationCounter += operationMode.getModificationIncrement();
+        structureVersion = 0;
 
         if (graphEdit != null) {
             graphEdit.removeVertex(vertex);
@@ -774,20 +1197,20 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public int getLink(final int vertex1, final int vertex2) {
         if (vertex1 <= vertex2) {
-            int link = linkHash[calculateHash(vertex1, vertex2)];
+            int link = linkHash.get(calculateHash(vertex1, vertex2));
             while (link >= 0) {
                 if (vertexLinks.getElementList(link << 1) == vertex1 && vertexLinks.getElementList((link << 1) + 1) == vertex2) {
                     return link;
                 }
-                link = linkNext[link];
+                link = linkNext.get(link);
             }
         } else {
-            int link = linkHash[calculateHash(vertex2, vertex1)];
+            int link = linkHash.get(calculateHash(vertex2, vertex1));
             while (link >= 0) {
                 if (vertexLinks.getElementList(link << 1) == vertex2 && vertexLinks.getElementList((link << 1) + 1) == vertex1) {
                     return link;
                 }
-                link = linkNext[link];
+                link = linkNext.get(link);
             }
         }
         return NOT_FOUND;
@@ -815,6 +1238,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             throw new IllegalArgumentException("Attempt to create transaction to destination vertex that does not exist: " + destinationVertex);
         }
 
+        ensureStructureWritable();
+
         ensureLinkCapacity(lStore.getCount() + 1);
         ensureEdgeCapacity(eStore.getCount() + 1);
 
@@ -831,6 +1256,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
         structureModificationCounter += operationMode.getModificationIncrement();
         globalModificationCounter += operationMode.getModificationIncrement();
+        structureVersion = 0;
 
         tStore.setUID(transaction, structureModificationCounter);
 
@@ -872,7 +1298,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         vertexTransactions.addElement(destinationVertex, (transaction << 1) + 1, destinationDirection);
 
         final int hash = calculateHash(lowVertex, highVertex);
-        int link = linkHash[hash];
+        int link = linkHash.get(hash);
 
         while (true) {
 
@@ -885,13 +1311,13 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
                 vertexLinks.addElement(highVertex, link * 2 + 1, STATE_TO_CATEGORY[1 << highDirection]);
 
                 // Add the link to the hash table
-                final int first = linkHash[hash];
-                linkNext[link] = first;
-                linkPrev[link] = hash | HIGH_BIT;
+                final int first = linkHash.get(hash);
+                linkNext.set(link, first);
+                linkPrev.set(link, hash | HIGH_BIT);
                 if (first >= 0) {
-                    linkPrev[first] = link;
+                    linkPrev.set(first, link);
                 }
-                linkHash[hash] = link;
+                linkHash.set(hash, link);
 
                 final int edge = eStore.add();
                 eStore.setUID(edge, structureModificationCounter);
@@ -931,7 +1357,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
                 break;
             }
 
-            link = linkNext[link];
+            link = linkNext.get(link);
         }
 
         linkTransactions.addElement(link, transaction, lowDirection);
@@ -958,6 +1384,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             throw new IllegalArgumentException("Attempt to remove a transaction that does not exist: " + transaction);
         }
 
+        ensureStructureWritable();
+
         if (operationMode == GraphOperationMode.EXECUTE) {
 
             // Clear all attribute values so the current values are saved to the undo stack
@@ -1028,15 +1456,15 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
                 lStore.remove(link);
 
                 // Remove the link from the hash table
-                final int p = linkPrev[link];
-                final int n = linkNext[link];
+                final int p = linkPrev.get(link);
+                final int n = linkNext.get(link);
                 if (p < 0) {
-                    linkHash[p & LOW_BITS] = n;
+                    linkHash.set(p & LOW_BITS, n);
                 } else {
-                    linkNext[p] = n;
+                    linkNext.set(p, n);
                 }
                 if (n >= 0) {
-                    linkPrev[n] = p;
+                    linkPrev.set(n, p);
                 }
 
             } else {
@@ -1065,6 +1493,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
         structureModificationCounter += operationMode.getModificationIncrement();
         globalModificationCounter += operationMode.getModificationIncrement();
+        structureVersion = 0;
 
         if (graphEdit != null) {
             graphEdit.removeTransaction(sourceVertex, destinationVertex, direction != Graph.UNDIRECTED, transaction);
@@ -1355,22 +1784,22 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             linkHashLength = lStore.getCapacity();
             linkHashMask = linkHashLength - 1;
-            linkHash = new int[linkHashLength];
-            Arrays.fill(linkHash, NOT_FOUND);
-            linkNext = new int[lStore.getCapacity()];
-            linkPrev = new int[lStore.getCapacity()];
+            linkHash = new PagedIntArray(linkHashLength);
+            linkHash.fill(0, linkHashLength, NOT_FOUND);
+            linkNext = new PagedIntArray(lStore.getCapacity());
+            linkPrev = new PagedIntArray(lStore.getCapacity());
 
             for (int i = 0; i < lStore.getCount(); i++) {
                 final int link = lStore.getElement(i);
                 final int hash = calculateHash(vertexLinks.getElementList(link << 1), vertexLinks.getElementList((link << 1) + 1));
 
-                final int first = linkHash[hash];
-                linkNext[link] = first;
-                linkPrev[link] = hash | HIGH_BIT;
+                final int first = linkHash.get(hash);
+                linkNext.set(link, first);
+                linkPrev.set(link, hash | HIGH_BIT);
                 if (first >= 0) {
-                    linkPrev[first] = link;
+                    linkPrev.set(first, link);
                 }
-                linkHash[hash] = link;
+                linkHash.set(hash, link);
             }
 
             expandAttributeElementCapacity(GraphElementType.LINK.ordinal(), lStore.getCapacity());
@@ -1404,8 +1833,11 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         if (aStore.ensureCapacity(capacity)) {
             typeAttributes.expandElementCapacity(aStore.getCapacity());
             attributeDescriptions = Arrays.copyOf(attributeDescriptions, aStore.getCapacity());
+            attributeDescriptionShared = Arrays.copyOf(attributeDescriptionShared, aStore.getCapacity());
             attributes = Arrays.copyOf(attributes, aStore.getCapacity());
             attributeModificationCounters = Arrays.copyOf(attributeModificationCounters, aStore.getCapacity());
+            valueChangeLogs = Arrays.copyOf(valueChangeLogs, aStore.getCapacity());
+            valueVersions = Arrays.copyOf(valueVersions, aStore.getCapacity());
 
             attributeIndices = Arrays.copyOf(attributeIndices, aStore.getCapacity());
             Arrays.fill(attributeIndices, oldAttributeCapacity, aStore.getCapacity(), AttributeDescription.NULL_GRAPH_INDEX);
@@ -1424,7 +1856,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         final int count = typeAttributes.getElementCount(elementTypeIndex);
         for (int i = 0; i < count; i++) {
             final int attributeId = typeAttributes.getElement(elementTypeIndex, i);
-            attributeDescriptions[attributeId].setCapacity(capacity);
+            getWritableAttributeDescription(attributeId).setCapacity(capacity);
             attributeIndices[attributeId].expandCapacity(capacity);
         }
 
@@ -1455,14 +1887,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     public void updateAttributeName(final int attribute, final String newName) {
         final String oldName = attributes[attribute].getName();
         final int elementType = attributes[attribute].getElementType().ordinal();
-        (attributeNames.get(oldName))[elementType] = NOT_FOUND;
-        int[] existingAttributes = attributeNames.get(newName);
-        if (existingAttributes == null) {
-            existingAttributes = new int[GraphElementType.values().length];
-            Arrays.fill(existingAttributes, NOT_FOUND);
-            attributeNames.put(newName, existingAttributes);
-        }
-        (attributeNames.get(newName))[elementType] = attribute;
+        setAttributeNameEntry(oldName, elementType, NOT_FOUND);
+        setAttributeNameEntry(newName, elementType, attribute);
 
         final GraphAttribute entry = attributes[attribute];
         entry.setName(newName);
@@ -1489,7 +1915,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
     @Override
     public void updateAttributeDefaultValue(final int attribute, final Object newDefault) {
-        final AttributeDescription description = attributeDescriptions[attribute];
+        final AttributeDescription description = getWritableAttributeDescription(attribute);
         description.setDefault(newDefault);
 
         final GraphAttribute entry = attributes[attribute];
@@ -1608,23 +2034,20 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         aStore.setUID(attributeId, globalModificationCounter);
 
         attributeModificationCounters[attributeId] = 0;
+        valueChangeLogs[attributeId] = null;
+        valueVersions[attributeId] = 0;
 
         typeAttributes.addElement(elementType.ordinal(), attributeId, 0);
 
-        if (existingAttributes == null) {
-            existingAttributes = new int[GraphElementType.values().length];
-            Arrays.fill(existingAttributes, NOT_FOUND);
-            attributeNames.put(label, existingAttributes);
-        }
-
         // Use the default value from attributeDescription.
         // The defaultValue parameter could be of any type (for example String) which can parsed by the attributeDescription (for instance float).
         // Getting the default value from the attributeDescription gives us an object of the correct type.
         attributes[attributeId] = new GraphAttribute(attributeId, elementType, attributeDescription.getName(), label, description, attributeDescription.getDefault(), dataType, attributeMerger);
 
-        existingAttributes[elementType.ordinal()] = attributeId;
+        setAttributeNameEntry(label, elementType.ordinal(), attributeId);
 
         attributeDescriptions[attributeId] = attributeDescription;
+        attributeDescriptionShared[attributeId] = false;
 
         if (graphEdit != null) {
             graphEdit.addAttribute(elementType, attributeType, label, description, defaultValue, attributeMergerId, attributeId);
@@ -1665,9 +2088,12 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         attributeIndices[attribute] = AttributeDescription.NULL_GRAPH_INDEX;
         attributeIndexTypes[attribute] = GraphIndexType.NONE;
 
-        attributeNames.get(attributeObject.getName())[attributeObject.getElementType().ordinal()] = NOT_FOUND;
+        setAttributeNameEntry(attributeObject.getName(), attributeObject.getElementType().ordinal(), NOT_FOUND);
 
         attributeDescriptions[attribute] = null;
+        attributeDescriptionShared[attribute] = false;
+        valueChangeLogs[attribute] = null;
+        valueVersions[attribute] = 0;
 
         attributeModificationCounter += operationMode.getModificationIncrement();
         globalModificationCounter += operationMode.getModificationIncrement();
@@ -1751,7 +2177,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
     @Override
     public Object createWriteAttributeObject(final int attribute, IntReadable indexReadable) {
-        return attributeDescriptions[attribute].createWriteObject(this, attribute, indexReadable);
+        return getWritableAttributeDescription(attribute).createWriteObject(this, attribute, indexReadable);
     }
 
     @Override
@@ -1828,16 +2254,16 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public void clearValue(final int attribute, final int id) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].clear(id);
+            getWritableAttributeDescription(attribute).clear(id);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -1845,7 +2271,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1858,16 +2284,16 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public void setByteValue(final int attribute, final int id, final byte value) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].setByte(id, value);
+            getWritableAttributeDescription(attribute).setByte(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -1875,7 +2301,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1888,16 +2314,16 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public void setShortValue(final int attribute, final int id, final short value) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].setShort(id, value);
+            getWritableAttributeDescription(attribute).setShort(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -1905,7 +2331,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1918,16 +2344,16 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public void setIntValue(final int attribute, final int id, final int value) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].setInt(id, value);
+            getWritableAttributeDescription(attribute).setInt(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -1935,7 +2361,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1948,16 +2374,16 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public void setLongValue(final int attribute, final int id, final long value) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].setLong(id, value);
+            getWritableAttributeDescription(attribute).setLong(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -1965,7 +2391,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1978,16 +2404,16 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public void setFloatValue(final int attribute, final int id, final float value) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].setFloat(id, value);
+            getWritableAttributeDescription(attribute).setFloat(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -1995,7 +2421,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2008,16 +2434,16 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public void setDoubleValue(final int attribute, final int id, final double value) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].setDouble(id, value);
+            getWritableAttributeDescription(attribute).setDouble(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -2025,7 +2451,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2038,16 +2464,16 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public void setBooleanValue(final int attribute, final int id, final boolean value) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].setBoolean(id, value);
+            getWritableAttributeDescription(attribute).setBoolean(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -2055,7 +2481,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2066,19 +2492,282 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
     }
 
+    @Override
+    public void setIntValues(final int attribute, final int[] ids, final int[] values) {
+        setColumnValues(attribute, ids, values, values.length, NativeAttributeType.INT);
+    }
+
+    @Override
+    public void setLongValues(final int attribute, final int[] ids, final long[] values) {
+        setColumnValues(attribute, ids, values, values.length, NativeAttributeType.LONG);
+    }
+
+    @Override
+    public void setFloatValues(final int attribute, final int[] ids, final float[] values) {
+        setColumnValues(attribute, ids, values, values.length, NativeAttributeType.FLOAT);
+    }
+
+    @Override
+    public void setDoubleValues(final int attribute, final int[] ids, final double[] values) {
+        setColumnValues(attribute, ids, values, values.length, NativeAttributeType.DOUBLE);
+    }
+
+    @Override
+    public void setBooleanValues(final int attribute, final int[] ids, final boolean[] values) {
+        setColumnValues(attribute, ids, values, values.length, NativeAttributeType.BOOLEAN);
+    }
+
+    /**
+     * Write an array of primitive values to an attribute, on behalf of the
+     * bulk setters such as {@link #setFloatValues(int, int[], float[])}.
+     * <p>
+     * If the native type of the attribute matches the values, the column is
+     * written directly and the write is recorded as a single
+     * {@link SetColumnValuesOperation}. Otherwise each value is set separately
+     * so that it is converted in the same way as a single value would be. If
+     * no value actually changes, neither the modification counters nor the
+     * undo history are touched.
+     *
+     * @param attribute the attribute to write.
+     * @param ids the elements to write.
+     * @param values an int, long, float, double or boolean array holding the
+     * value for each element.
+     * @param valueCount the length of the values array.
+     * @param nativeType the native type corresponding to the values array.
+     */
+    private void setColumnValues(final int attribute, final int[] ids, final Object values, final int valueCount, final NativeAttributeType nativeType) {
+        if (ids.length != valueCount) {
+            throw new IllegalArgumentException("Expected " + ids.length + " values, found " + valueCount);
+        }
+        final AttributeDescription description = getWritableAttributeDescription(attribute);
+        if (description.getNativeType() != nativeType) {
+            setEachValue(attribute, ids, values);
+            return;
+        }
+        final Object oldValues = graphEdit == null ? null : readColumnValues(description, ids, values);
+        if (writeColumnValues(description, ids, values)) {
+            valuesChanged(attribute, ids);
+            if (graphEdit != null) {
+                graphEdit.executeGraphOperation(new SetColumnValuesOperation(attribute, ids.clone(), oldValues, copyValues(values)));
+            }
+        }
+    }
+
+    private void setEachValue(final int attribute, final int[] ids, final Object values) {
+        if (values instanceof int[]) {
+            final int[] intValues = (int[]) values;
+            for (int i = 0; i < ids.length; i++) {
+                setIntValue(attribute, ids[i], intValues[i]);
+            }
+        } else if (values instanceof long[]) {
+            final long[] longValues = (long[]) values;
+            for (int i = 0; i < ids.length; i++) {
+                setLongValue(attribute, ids[i], longValues[i]);
+            }
+        } else if (values instanceof float[]) {
+            final float[] floatValues = (float[]) values;
+            for (int i = 0; i < ids.length; i++) {
+                setFloatValue(attribute, ids[i], floatValues[i]);
+            }
+        } else if (values instanceof double[]) {
+            final double[] doubleValues = (double[]) values;
+            for (int i = 0; i < ids.length; i++) {
+                setDoubleValue(attribute, ids[i], doubleValues[i]);
+            }
+        } else {
+            final boolean[] booleanValues = (boolean[]) values;
+            for (int i = 0; i < ids.length; i++) {
+                setBooleanValue(attribute, ids[i], booleanValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Read the current values of the specified elements into a new array of
+     * the same type as the values about to be written.
+     */
+    private static Object readColumnValues(final AttributeDescription description, final int[] ids, final Object values) {
+        final Object oldValues = Array.newInstance(values.getClass().getComponentType(), ids.length);
+        if (oldValues instanceof int[]) {
+            final int[] intValues = (int[]) oldValues;
+            for (int i = 0; i < ids.length; i++) {
+                intValues[i] = description.getInt(ids[i]);
+            }
+        } else if (oldValues instanceof long[]) {
+            final long[] longValues = (long[]) oldValues;
+            for (int i = 0; i < ids.length; i++) {
+                longValues[i] = description.getLong(ids[i]);
+            }
+        } else if (oldValues instanceof float[]) {
+            final float[] floatValues = (float[]) oldValues;
+            for (int i = 0; i < ids.length; i++) {
+                floatValues[i] = description.getFloat(ids[i]);
+            }
+        } else if (oldValues instanceof double[]) {
+            final double[] doubleValues = (double[]) oldValues;
+            for (int i = 0; i < ids.length; i++) {
+                doubleValues[i] = description.getDouble(ids[i]);
+            }
+        } else {
+            final boolean[] booleanValues = (boolean[]) oldValues;
+            for (int i = 0; i < ids.length; i++) {
+                booleanValues[i] = description.getBoolean(ids[i]);
+            }
+        }
+        return oldValues;
+    }
+
+    /**
+     * Write the values of the specified elements, skipping those that already
+     * hold their new value.
+     *
+     * @return true if at least one value was changed.
+     */
+    private static boolean writeColumnValues(final AttributeDescription description, final int[] ids, final Object values) {
+        boolean changed = false;
+        if (values instanceof int[]) {
+            final int[] intValues = (int[]) values;
+            for (int i = 0; i < ids.length; i++) {
+                if (description.getInt(ids[i]) != intValues[i]) {
+                    description.setInt(ids[i], intValues[i]);
+                    changed = true;
+                }
+            }
+        } else if (values instanceof long[]) {
+            final long[] longValues = (long[]) values;
+            for (int i = 0; i < ids.length; i++) {
+                if (description.getLong(ids[i]) != longValues[i]) {
+                    description.setLong(ids[i], longValues[i]);
+                    changed = true;
+                }
+            }
+        } else if (values instanceof float[]) {
+            final float[] floatValues = (float[]) values;
+            for (int i = 0; i < ids.length; i++) {
+                if (description.getFloat(ids[i]) != floatValues[i]) {
+                    description.setFloat(ids[i], floatValues[i]);
+                    changed = true;
+                }
+            }
+        } else if (values instanceof double[]) {
+            final double[] doubleValues = (double[]) values;
+            for (int i = 0; i < ids.length; i++) {
+                if (description.getDouble(ids[i]) != doubleValues[i]) {
+                    description.setDouble(ids[i], doubleValues[i]);
+                    changed = true;
+                }
+            }
+        } else {
+            final boolean[] booleanValues = (boolean[]) values;
+            for (int i = 0; i < ids.length; i++) {
+                if (description.getBoolean(ids[i]) != booleanValues[i]) {
+                    description.setBoolean(ids[i], booleanValues[i]);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static Object copyValues(final Object values) {
+        final int length = Array.getLength(values);
+        final Object copy = Array.newInstance(values.getClass().getComponentType(), length);
+        System.arraycopy(values, 0, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * Update the indices and modification counters of an attribute after a
+     * bulk write to the specified elements.
+     *
+     * @param attribute the attribute that was written.
+     * @param ids the elements that were written.
+     */
+    private void valuesChanged(final int attribute, final int[] ids) {
+        if (ids.length == 0) {
+            return;
+        }
+        final GraphIndex index = attributeIndices[attribute];
+        if (index != AttributeDescription.NULL_GRAPH_INDEX) {
+            for (final int id : ids) {
+                index.updateElement(id);
+            }
+        }
+        attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+        globalModificationCounter += operationMode.getModificationIncrement();
+        valueVersions[attribute] = 0;
+        if (ids.length == 1) {
+            logValueChange(attribute, ids[0]);
+        } else {
+            getValueChangeLog(attribute).addAll(ids, attributeModificationCounters[attribute]);
+        }
+        final int keyType = primaryKeyLookup[attribute];
+        if (keyType >= 0) {
+            for (final int id : ids) {
+                removeFromIndex(keyType, id);
+            }
+        }
+    }
+
+    /**
+     * Update the modification counter of an attribute after the value of a
+     * single element has changed, and record the element as changed.
+     *
+     * @param attribute the attribute that was written.
+     * @param id the element that was written.
+     */
+    private void valueChanged(final int attribute, final int id) {
+        attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+        valueVersions[attribute] = 0;
+        logValueChange(attribute, id);
+    }
+
+    private void logValueChange(final int attribute, final int id) {
+        getValueChangeLog(attribute).add(id, attributeModificationCounters[attribute]);
+    }
+
+    private ValueChangeLog getValueChangeLog(final int attribute) {
+        ValueChangeLog log = valueChangeLogs[attribute];
+        if (log == null) {
+            // Every value change is logged, so before the first one the values
+            // are those the attribute had at the counter before this change.
+            log = new ValueChangeLog(attributeModificationCounters[attribute] - operationMode.getModificationIncrement());
+            valueChangeLogs[attribute] = log;
+        }
+        return log;
+    }
+
+    /**
+     * Forget the changed elements of an attribute after all of its values have
+     * been replaced.
+     *
+     * @param attribute the attribute whose values were replaced.
+     * @param previousCounter the modification counter of the attribute before
+     * its values were replaced.
+     */
+    private void valuesReplaced(final int attribute, final long previousCounter) {
+        ValueChangeLog log = valueChangeLogs[attribute];
+        if (log == null) {
+            log = new ValueChangeLog(previousCounter);
+            valueChangeLogs[attribute] = log;
+        }
+        log.forget(attributeModificationCounters[attribute]);
+        valueVersions[attribute] = 0;
+    }
+
     @Override
     public void setCharValue(final int attribute, final int id, final char value) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].setChar(id, value);
+            getWritableAttributeDescription(attribute).setChar(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -2086,7 +2775,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2099,16 +2788,16 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public void setStringValue(final int attribute, final int id, final String value) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].setString(id, value);
+            getWritableAttributeDescription(attribute).setString(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -2116,7 +2805,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2129,16 +2818,16 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     @Override
     public void setObjectValue(final int attribute, final int id, final Object value) {
         if (graphEdit == null) {
-            attributeDescriptions[attribute].setObject(id, value);
+            getWritableAttributeDescription(attribute).setObject(id, value);
             attributeIndices[attribute].updateElement(id);
-            attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            valueChanged(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
                 removeFromIndex(keyType, id);
             }
         } else {
-            AttributeDescription description = attributeDescriptions[attribute];
+            AttributeDescription description = getWritableAttributeDescription(attribute);
             NativeAttributeType nativeType = description.getNativeType();
             nativeType.get(this, attribute, id, oldValue);
 
@@ -2146,7 +2835,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
-                attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                valueChanged(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2180,33 +2869,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         }
 
         if (newPrimaryKeys.length > 0) {
-
-            if (elementType == GraphElementType.VERTEX) {
-                primaryKeyIndices[elementType.ordinal()] = new ElementKeySet(getVertexCapacity(), elementType);
-            } else {
-                primaryKeyIndices[elementType.ordinal()] = new TransactionKeySet(getTransactionCapacity(), elementType);
-            }
-
-            switch (elementType) {
-                case VERTEX:
-                    removedFromKeys[elementType.ordinal()] = new ElementList(vStore);
-                    break;
-
-                case LINK:
-                    removedFromKeys[elementType.ordinal()] = new ElementList(lStore);
-                    break;
-
-                case EDGE:
-                    removedFromKeys[elementType.ordinal()] = new ElementList(eStore);
-                    break;
-
-                case TRANSACTION:
-                    removedFromKeys[elementType.ordinal()] = new ElementList(tStore);
-                    break;
-                default:
-                    break;
-            }
-
+            createPrimaryKeyIndex(elementType);
         } else {
             primaryKeyIndices[elementType.ordinal()] = null;
             removedFromKeys[elementType.ordinal()] = null;
@@ -2219,6 +2882,34 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         globalModificationCounter++;
     }
 
+    private void createPrimaryKeyIndex(final GraphElementType elementType) {
+        if (elementType == GraphElementType.VERTEX) {
+            primaryKeyIndices[elementType.ordinal()] = new ElementKeySet(getVertexCapacity(), elementType);
+        } else {
+            primaryKeyIndices[elementType.ordinal()] = new TransactionKeySet(getTransactionCapacity(), elementType);
+        }
+
+        switch (elementType) {
+            case VERTEX:
+                removedFromKeys[elementType.ordinal()] = new ElementList(vStore);
+                break;
+
+            case LINK:
+                removedFromKeys[elementType.ordinal()] = new ElementList(lStore);
+                break;
+
+            case EDGE:
+                removedFromKeys[elementType.ordinal()] = new ElementList(eStore);
+                break;
+
+            case TRANSACTION:
+                removedFromKeys[elementType.ordinal()] = new ElementList(tStore);
+                break;
+            default:
+                break;
+        }
+    }
+
     @Override
     public int[] getPrimaryKey(final GraphElementType elementType) {
         int[] keys = primaryKeys[elementType.ordinal()];
@@ -2334,8 +3025,8 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     }
 
     protected void restore(final int attribute, final int id, final ParameterReadAccess access) {
-        attributeDescriptions[attribute].restore(id, access);
-        attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+        getWritableAttributeDescription(attribute).restore(id, access);
+        valueChanged(attribute, id);
         globalModificationCounter += operationMode.getModificationIncrement();
     }
 
@@ -2344,9 +3035,10 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     }
 
     protected void restoreData(final int attribute, final Object savedData) {
-        attributeDescriptions[attribute].restoreData(savedData);
+        getWritableAttributeDescription(attribute).restoreData(savedData);
         attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
         globalModificationCounter += operationMode.getModificationIncrement();
+        valuesReplaced(attribute, attributeModificationCounters[attribute] - operationMode.getModificationIncrement());
     }
 
     private void removeFromIndex(final int elementType, final int id) {
@@ -2368,29 +3060,45 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
     @Override
     public GraphIndexResult getElementsWithAttributeValue(final int attribute, final Object value) {
-        return attributeIndices[attribute].getElementsWithAttributeValue(value);
+        return getAttributeIndex(attribute).getElementsWithAttributeValue(value);
     }
 
     @Override
     public GraphIndexResult getElementsWithAttributeValueRange(final int attribute, final Object start, final Object end) {
-        return attributeIndices[attribute].getElementsWithAttributeValueRange(start, end);
+        return getAttributeIndex(attribute).getElementsWithAttributeValueRange(start, end);
+    }
+
+    private GraphIndex getAttributeIndex(final int attribute) {
+        if (indicesPending) {
+            // Copy-on-write snapshots are read from many threads so build their indices under a lock
+            synchronized (attributeIndices) {
+                if (attributeIndexTypes[attribute] != GraphIndexType.NONE && attributeIndices[attribute] == AttributeDescription.NULL_GRAPH_INDEX) {
+                    attributeIndices[attribute] = createAttributeIndex(attribute, attributeIndexTypes[attribute]);
+                }
+                return attributeIndices[attribute];
+            }
+        }
+        return attributeIndices[attribute];
+    }
+
+    private GraphIndex createAttributeIndex(final int attribute, final GraphIndexType indexType) {
+        final GraphIndex index = attributeDescriptions[attribute].createIndex(indexType);
+        final GraphElementType elementType = attributes[attribute].getElementType();
+        final int elementCount = elementType.getElementCount(this);
+        for (int i = 0; i < elementCount; i++) {
+            index.addElement(elementType.getElement(this, i));
+        }
+        return index;
     }
 
     @Override
     public void setAttributeIndexType(final int attribute, final GraphIndexType indexType) {
         GraphIndexType oldIndexType = attributeIndexTypes[attribute];
         if (indexType != oldIndexType) {
-            AttributeDescription attributeDescription = attributeDescriptions[attribute];
+            AttributeDescription attributeDescription = getWritableAttributeDescription(attribute);
             if (attributeDescription.supportsIndexType(indexType)) {
                 attributeIndexTypes[attribute] = indexType;
-                GraphIndex index = attributeIndices[attribute] = attributeDescription.createIndex(indexType);
-
-                GraphElementType elementType = attributes[attribute].getElementType();
-                int elementCount = elementType.getElementCount(this);
-                for (int i = 0; i < elementCount; i++) {
-                    int element = elementType.getElement(this, i);
-                    index.addElement(element);
-                }
+                attributeIndices[attribute] = createAttributeIndex(attribute, indexType);
 
                 if (graphEdit != null) {
                     graphEdit.setAttributeIndexType(attribute, oldIndexType, indexType);
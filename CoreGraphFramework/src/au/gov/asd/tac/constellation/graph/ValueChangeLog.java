@@ -0,0 +1,189 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph;
+
+import java.util.Arrays;
+
+/**
+ * A ValueChangeLog records which elements of a single attribute have had their
+ * values changed, together with the modification counter of the attribute
+ * after each change. This allows a reader that remembers the modification
+ * counter it last saw to find just the elements that have changed since then.
+ * <p>
+ * The modification counter of an attribute moves backwards during undo, so
+ * after an undo followed by a different edit the same counter can stand for
+ * two different sets of values. The counters do however trace a path through
+ * the history of the attribute, so every element that differs between any two
+ * times with the same counter was changed after the earlier of them. The log
+ * therefore answers from the earliest time it saw a counter, which reports
+ * every change since whichever of those times the reader actually saw, along
+ * with any elements that have since been changed back.
+ * <p>
+ * The log holds a bounded number of changes. Once it fills, or after a change
+ * that touches every value of the attribute, the earlier history is forgotten.
+ * The log remembers the range of counters the attribute had in the forgotten
+ * history, and readers that last saw one of those counters are told that the
+ * changes are unknown.
+ * <p>
+ * A copy of a log shares its history with the original until either of them
+ * records another change, at which point that log takes a private copy.
+ *
+ * @author sirius
+ */
+final class ValueChangeLog {
+
+    private static final int MAX_SIZE = 1024;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] ids;
+    private long[] counters;
+    private int size;
+
+    // The modification counter of the attribute before the first recorded change.
+    private long baseCounter;
+
+    // The range of counters the attribute had before the base counter, in history that has been forgotten.
+    private long lowestForgotten = Long.MAX_VALUE;
+    private long highestForgotten = Long.MIN_VALUE;
+
+    // True if the arrays may be shared with a copy of this log.
+    private boolean shared;
+
+    /**
+     * Creates a new ValueChangeLog for an attribute whose values have not
+     * changed since it had the specified modification counter.
+     *
+     * @param baseCounter the modification counter of the attribute before the
+     * first change that will be recorded.
+     */
+    ValueChangeLog(final long baseCounter) {
+        this.ids = new int[INITIAL_CAPACITY];
+        this.counters = new long[INITIAL_CAPACITY];
+        this.size = 0;
+        this.baseCounter = baseCounter;
+    }
+
+    /**
+     * Creates a copy of the specified ValueChangeLog. The copy shares the
+     * recorded changes of the original until either of them changes.
+     *
+     * @param original the ValueChangeLog to copy.
+     */
+    ValueChangeLog(final ValueChangeLog original) {
+        this.ids = original.ids;
+        this.counters = original.counters;
+        this.shared = true;
+        original.shared = true;
+        this.size = original.size;
+        this.baseCounter = original.baseCounter;
+        this.lowestForgotten = original.lowestForgotten;
+        this.highestForgotten = original.highestForgotten;
+    }
+
+    /**
+     * Records a change to the value of an element.
+     *
+     * @param id the element whose value changed.
+     * @param counter the modification counter of the attribute after the
+     * change.
+     */
+    void add(final int id, final long counter) {
+        if (size == MAX_SIZE) {
+            forget(counter);
+            return;
+        }
+        if (size == ids.length || shared) {
+            ids = Arrays.copyOf(ids, size == ids.length ? Math.min(size * 2, MAX_SIZE) : ids.length);
+            counters = Arrays.copyOf(counters, ids.length);
+            shared = false;
+        }
+        ids[size] = id;
+        counters[size++] = counter;
+    }
+
+    /**
+     * Records a change to the values of several elements that moved the
+     * modification counter of the attribute only once.
+     *
+     * @param changedIds the elements whose values changed.
+     * @param counter the modification counter of the attribute after the
+     * change.
+     */
+    void addAll(final int[] changedIds, final long counter) {
+        if (size + changedIds.length > MAX_SIZE) {
+            forget(counter);
+            return;
+        }
+        for (final int id : changedIds) {
+            add(id, counter);
+        }
+    }
+
+    /**
+     * Forgets all recorded changes. Readers that last saw a modification
+     * counter the attribute had before this point will be told that the
+     * changes are unknown.
+     *
+     * @param counter the current modification counter of the attribute.
+     */
+    void forget(final long counter) {
+        lowestForgotten = Math.min(lowestForgotten, baseCounter);
+        highestForgotten = Math.max(highestForgotten, baseCounter);
+        for (int i = 0; i < size; i++) {
+            lowestForgotten = Math.min(lowestForgotten, counters[i]);
+            highestForgotten = Math.max(highestForgotten, counters[i]);
+        }
+        size = 0;
+        baseCounter = counter;
+    }
+
+    /**
+     * Returns the ids of the elements whose values have changed since the
+     * attribute had the specified modification counter.
+     * <p>
+     * If the attribute has had the counter more than once, the changes since
+     * the earliest of those times are returned. This may include elements
+     * that have since been changed back, but never misses a change.
+     *
+     * @param since the modification counter last seen by the reader.
+     * @return the sorted, distinct ids of the changed elements, or null if the
+     * changes since the specified counter are not known.
+     */
+    int[] getChangedElements(final long since) {
+        if (since >= lowestForgotten && since <= highestForgotten) {
+            return null;
+        }
+        int start = 0;
+        if (baseCounter != since) {
+            while (start < size && counters[start] != since) {
+                start++;
+            }
+            if (start == size) {
+                return null;
+            }
+            start++;
+        }
+        final int[] changed = Arrays.copyOfRange(ids, start, size);
+        Arrays.sort(changed);
+        int distinct = 0;
+        for (int i = 0; i < changed.length; i++) {
+            if (i == 0 || changed[i] != changed[i - 1]) {
+                changed[distinct++] = changed[i];
+            }
+        }
+        return distinct == changed.length ? changed : Arrays.copyOf(changed, distinct);
+    }
+}
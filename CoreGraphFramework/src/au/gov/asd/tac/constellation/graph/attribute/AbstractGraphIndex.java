@@ -0,0 +1,249 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import java.util.Arrays;
+
+/**
+ * The base class for indices that group elements into buckets, one bucket for
+ * each distinct attribute value.
+ * <p>
+ * Each bucket holds its elements in a doubly linked list so that elements can
+ * be added and removed in constant time. The bucket each element was added to
+ * is remembered, so an element can be moved to a new bucket when
+ * {@link #updateElement updateElement()} is called after its value has
+ * already changed. Subclasses map attribute values to buckets.
+ *
+ * @author sirius
+ */
+public abstract class AbstractGraphIndex implements GraphIndex {
+
+    private int[] elementBuckets = new int[0];
+    private int[] next = new int[0];
+    private int[] previous = new int[0];
+
+    private int[] heads = new int[16];
+    private int[] counts = new int[16];
+    private int bucketLimit = 0;
+    private int[] freeBuckets = new int[16];
+    private int freeCount = 0;
+
+    protected AbstractGraphIndex(final int capacity) {
+        expandCapacity(capacity);
+    }
+
+    /**
+     * Return the bucket holding the current value of the specified element,
+     * creating it if necessary.
+     *
+     * @param element the element id.
+     * @return the bucket for the element's current value.
+     */
+    protected abstract int getBucket(final int element);
+
+    /**
+     * Called when a bucket becomes empty so that the subclass can forget the
+     * value it was mapped to. The bucket id may be reused afterwards.
+     *
+     * @param bucket the bucket that is now empty.
+     */
+    protected abstract void removeBucket(final int bucket);
+
+    /**
+     * Allocate a new empty bucket.
+     *
+     * @return the id of the new bucket.
+     */
+    protected final int createBucket() {
+        final int bucket;
+        if (freeCount > 0) {
+            bucket = freeBuckets[--freeCount];
+        } else {
+            if (bucketLimit == heads.length) {
+                heads = Arrays.copyOf(heads, bucketLimit * 2);
+                counts = Arrays.copyOf(counts, bucketLimit * 2);
+            }
+            bucket = bucketLimit++;
+        }
+        heads[bucket] = Graph.NOT_FOUND;
+        counts[bucket] = 0;
+        return bucket;
+    }
+
+    @Override
+    public void addElement(final int element) {
+        link(element, getBucket(element));
+    }
+
+    @Override
+    public void removeElement(final int element) {
+        if (elementBuckets[element] != Graph.NOT_FOUND) {
+            unlink(element);
+        }
+    }
+
+    @Override
+    public void updateElement(final int element) {
+        final int bucket = getBucket(element);
+        if (bucket != elementBuckets[element]) {
+            final int oldBucket = elementBuckets[element];
+            if (oldBucket == Graph.NOT_FOUND) {
+                link(element, bucket);
+            } else {
+                detach(element, oldBucket);
+                link(element, bucket);
+                if (counts[oldBucket] == 0) {
+                    releaseBucket(oldBucket);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void expandCapacity(final int newCapacity) {
+        final int length = elementBuckets.length;
+        elementBuckets = Arrays.copyOf(elementBuckets, newCapacity);
+        next = Arrays.copyOf(next, newCapacity);
+        previous = Arrays.copyOf(previous, newCapacity);
+        if (newCapacity > length) {
+            Arrays.fill(elementBuckets, length, newCapacity, Graph.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Return a result holding the elements of a single bucket.
+     *
+     * @param bucket the bucket, or {@link Graph#NOT_FOUND} for an empty result.
+     * @return a result holding the elements of the bucket.
+     */
+    protected final GraphIndexResult getBucketResult(final int bucket) {
+        if (bucket == Graph.NOT_FOUND) {
+            return new ArrayResult(new int[0]);
+        }
+        return new BucketResult(counts[bucket], heads[bucket]);
+    }
+
+    /**
+     * Return a result holding the elements of several buckets.
+     *
+     * @param buckets the buckets.
+     * @param bucketCount the number of buckets to use from the array.
+     * @return a result holding the elements of all the buckets.
+     */
+    protected final GraphIndexResult getBucketsResult(final int[] buckets, final int bucketCount) {
+        int size = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            size += counts[buckets[i]];
+        }
+        final int[] elements = new int[size];
+        int position = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            for (int element = heads[buckets[i]]; element != Graph.NOT_FOUND; element = next[element]) {
+                elements[position++] = element;
+            }
+        }
+        return new ArrayResult(elements);
+    }
+
+    private void link(final int element, final int bucket) {
+        elementBuckets[element] = bucket;
+        previous[element] = Graph.NOT_FOUND;
+        next[element] = heads[bucket];
+        if (heads[bucket] != Graph.NOT_FOUND) {
+            previous[heads[bucket]] = element;
+        }
+        heads[bucket] = element;
+        counts[bucket]++;
+    }
+
+    private void unlink(final int element) {
+        final int bucket = elementBuckets[element];
+        detach(element, bucket);
+        if (counts[bucket] == 0) {
+            releaseBucket(bucket);
+        }
+    }
+
+    private void detach(final int element, final int bucket) {
+        if (previous[element] == Graph.NOT_FOUND) {
+            heads[bucket] = next[element];
+        } else {
+            next[previous[element]] = next[element];
+        }
+        if (next[element] != Graph.NOT_FOUND) {
+            previous[next[element]] = previous[element];
+        }
+        elementBuckets[element] = Graph.NOT_FOUND;
+        counts[bucket]--;
+    }
+
+    private void releaseBucket(final int bucket) {
+        removeBucket(bucket);
+        if (freeCount == freeBuckets.length) {
+            freeBuckets = Arrays.copyOf(freeBuckets, freeCount * 2);
+        }
+        freeBuckets[freeCount++] = bucket;
+    }
+
+    private class BucketResult implements GraphIndexResult {
+
+        private int count;
+        private int element;
+
+        public BucketResult(final int count, final int element) {
+            this.count = count;
+            this.element = element;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public int getNextElement() {
+            if (count-- == 0) {
+                return Graph.NOT_FOUND;
+            }
+            final int result = element;
+            element = next[element];
+            return result;
+        }
+    }
+
+    private static class ArrayResult implements GraphIndexResult {
+
+        private final int[] elements;
+        private int position = 0;
+
+        public ArrayResult(final int[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public int getCount() {
+            return elements.length - position;
+        }
+
+        @Override
+        public int getNextElement() {
+            return position < elements.length ? elements[position++] : Graph.NOT_FOUND;
+        }
+    }
+}
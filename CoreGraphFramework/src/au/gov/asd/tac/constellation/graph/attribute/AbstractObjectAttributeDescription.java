@@ -15,6 +15,8 @@
  */
 package au.gov.asd.tac.constellation.graph.attribute;
 
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.locking.ParameterReadAccess;
@@ -193,6 +195,34 @@ public abstract class AbstractObjectAttributeDescription<T extends Object> exten
         data = Arrays.copyOf(arrayData, arrayData.length);
     }
 
+    /**
+     * Object attributes support unordered indices based on
+     * {@link Object#equals equals()}, and ordered indices when their native
+     * class is {@link Comparable}. Indexed values must not be mutated while
+     * they are held by the graph.
+     *
+     * @param indexType the candidate index type.
+     * @return true if this attribute supports the specified index type.
+     */
+    @Override
+    public boolean supportsIndexType(final GraphIndexType indexType) {
+        return indexType != GraphIndexType.ORDERED || Comparable.class.isAssignableFrom(nativeClass);
+    }
+
+    @Override
+    public GraphIndex createIndex(final GraphIndexType indexType) {
+        switch (indexType) {
+            case UNORDERED:
+                return new HashGraphIndex(getCapacity(), id -> data[id], this::convertFromObject);
+            case ORDERED:
+                return supportsIndexType(indexType)
+                        ? new OrderedGraphIndex(getCapacity(), id -> data[id], this::convertFromObject)
+                        : NULL_GRAPH_INDEX;
+            default:
+                return NULL_GRAPH_INDEX;
+        }
+    }
+
     @Override
     public Object createReadObject(IntReadable indexReadable) {
         return (ObjectReadable) () -> data[indexReadable.readInt()];
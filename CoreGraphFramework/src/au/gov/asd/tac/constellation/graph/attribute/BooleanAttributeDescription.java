@@ -27,6 +27,8 @@ import au.gov.asd.tac.constellation.graph.locking.ParameterWriteAccess;
 import au.gov.asd.tac.constellation.graph.value.readables.BooleanReadable;
 import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
 import au.gov.asd.tac.constellation.graph.value.variables.BooleanVariable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.security.SecureRandom;
 import java.util.Arrays;
 import org.apache.commons.lang3.StringUtils;
@@ -47,7 +49,7 @@ import org.openide.util.lookup.ServiceProvider;
  * @author cygnus_x-1
  */
 @ServiceProvider(service = AttributeDescription.class)
-public final class BooleanAttributeDescription extends AbstractAttributeDescription {
+public final class BooleanAttributeDescription extends AbstractAttributeDescription implements MappableAttributeDescription {
 
     private final SecureRandom random = new SecureRandom();
     private final int trueHash = random.nextInt();
@@ -59,6 +61,7 @@ public final class BooleanAttributeDescription extends AbstractAttributeDescript
     public static final boolean DEFAULT_VALUE = false;
 
     private boolean[] data = new boolean[0];
+    private OffHeapColumn column = OffHeapColumn.isEnabled() ? new OffHeapColumn(1) : null;
     private boolean defaultValue = DEFAULT_VALUE;
 
     @SuppressWarnings("unchecked") // Casts are manually checked
@@ -117,13 +120,50 @@ public final class BooleanAttributeDescription extends AbstractAttributeDescript
         defaultValue = convertFromObject(value);
     }
 
+    private boolean get(final int id) {
+        return column == null ? data[id] : column.getByte(id) != 0;
+    }
+
+    private void set(final int id, final boolean value) {
+        if (column == null) {
+            data[id] = value;
+        } else {
+            column.setByte(id, value ? (byte) 1 : (byte) 0);
+        }
+    }
+
+    @Override
+    public void mapValues(final FileChannel channel, final long position, final int count) throws IOException {
+        final int capacity = getCapacity();
+        column = OffHeapColumn.map(channel, position, 1, count, capacity, defaultValue ? 1 : 0);
+        data = new boolean[0];
+        // The reserved values already hold the default, so growing into them keeps the column mapped.
+        column.setCapacity(capacity);
+    }
+
+    @Override
+    public boolean isMapped() {
+        return column != null && column.isMapped();
+    }
+
     @Override
     public int getCapacity() {
-        return data.length;
+        return column == null ? data.length : column.getCapacity();
     }
 
     @Override
     public void setCapacity(final int capacity) {
+        if (column != null) {
+            final int len = column.getCapacity();
+            column.setCapacity(capacity);
+            if (capacity > len && defaultValue) {
+                for (int id = len; id < capacity; id++) {
+                    set(id, defaultValue);
+                }
+            }
+            return;
+        }
+
         final int len = data.length;
         data = Arrays.copyOf(data, capacity);
         if (capacity > len) {
@@ -133,92 +173,92 @@ public final class BooleanAttributeDescription extends AbstractAttributeDescript
 
     @Override
     public byte getByte(final int id) {
-        return data[id] ? (byte) 1 : (byte) 0;
+        return get(id) ? (byte) 1 : (byte) 0;
     }
 
     @Override
     public void setByte(final int id, final byte value) {
-        data[id] = value != (byte) 0;
+        set(id, value != (byte) 0);
     }
 
     @Override
     public short getShort(final int id) {
-        return data[id] ? (short) 1 : (short) 0;
+        return get(id) ? (short) 1 : (short) 0;
     }
 
     @Override
     public void setShort(final int id, final short value) {
-        data[id] = value != (short) 0;
+        set(id, value != (short) 0);
     }
 
     @Override
     public int getInt(final int id) {
-        return data[id] ? 1 : 0;
+        return get(id) ? 1 : 0;
     }
 
     @Override
     public void setInt(final int id, final int value) {
-        data[id] = value != 0;
+        set(id, value != 0);
     }
 
     @Override
     public long getLong(final int id) {
-        return data[id] ? 1L : 0L;
+        return get(id) ? 1L : 0L;
     }
 
     @Override
     public void setLong(final int id, final long value) {
-        data[id] = value != 0L;
+        set(id, value != 0L);
     }
 
     @Override
     public float getFloat(final int id) {
-        return data[id] ? 1.0f : 0.0f;
+        return get(id) ? 1.0f : 0.0f;
     }
 
     @Override
     public void setFloat(final int id, final float value) {
-        data[id] = value != 0.0f;
+        set(id, value != 0.0f);
     }
 
     @Override
     public double getDouble(final int id) {
-        return data[id] ? 1.0 : 0.0;
+        return get(id) ? 1.0 : 0.0;
     }
 
     @Override
     public void setDouble(final int id, final double value) {
-        data[id] = value != 0.0;
+        set(id, value != 0.0);
     }
 
     @Override
     public boolean getBoolean(final int id) {
-        return data[id];
+        return get(id);
     }
 
     @Override
     public void setBoolean(final int id, final boolean value) {
-        data[id] = value;
+        set(id, value);
     }
 
     @Override
     public char getChar(final int id) {
-        return data[id] ? (char) 1 : (char) 0;
+        return get(id) ? (char) 1 : (char) 0;
     }
 
     @Override
     public void setChar(final int id, final char value) {
-        data[id] = value != (char) 0;
+        set(id, value != (char) 0);
     }
 
     @Override
     public String getString(final int id) {
-        return String.valueOf(data[id]);
+        return String.valueOf(get(id));
     }
 
     @Override
     public void setString(final int id, final String value) {
-        data[id] = convertFromString(value);
+        set(id, convertFromString(value));
     }
 
     @Override
@@ -233,28 +273,29 @@ public final class BooleanAttributeDescription extends AbstractAttributeDescript
 
     @Override
     public Object getObject(final int id) {
-        return data[id];
+        return get(id);
     }
 
     @Override
     public void setObject(final int id, final Object value) {
-        data[id] = convertFromObject(value);
+        set(id, convertFromObject(value));
     }
 
     @Override
     public boolean isClear(final int id) {
-        return data[id] == defaultValue;
+        return get(id) == defaultValue;
     }
 
     @Override
     public void clear(final int id) {
-        data[id] = DEFAULT_VALUE;
+        set(id, DEFAULT_VALUE);
     }
 
     @Override
     public AttributeDescription copy(final GraphReadMethods graph) {
         final BooleanAttributeDescription attribute = new BooleanAttributeDescription();
         attribute.data = Arrays.copyOf(data, data.length);
+        attribute.column = column == null ? null : new OffHeapColumn(column);
         attribute.defaultValue = this.defaultValue;
         attribute.graph = graph;
         return attribute;
@@ -262,33 +303,48 @@ public final class BooleanAttributeDescription extends AbstractAttributeDescript
 
     @Override
     public int hashCode(final int id) {
-        return data[id] ? trueHash : falseHash;
+        return get(id) ? trueHash : falseHash;
     }
 
     @Override
     public boolean equals(final int id1, final int id2) {
-        return data[id1] == data[id2];
+        return get(id1) == get(id2);
     }
 
     @Override
     public void save(final int id, final ParameterWriteAccess access) {
-        access.setInt(data[id] ? 1 : 0);
+        access.setInt(get(id) ? 1 : 0);
     }
 
     @Override
     public void restore(final int id, final ParameterReadAccess access) {
-        data[id] = access.getUndoInt() != 0;
+        set(id, access.getUndoInt() != 0);
     }
 
     @Override
     public Object saveData() {
-        return Arrays.copyOf(data, data.length);
+        if (column == null) {
+            return Arrays.copyOf(data, data.length);
+        }
+
+        final boolean[] sd = new boolean[column.getCapacity()];
+        for (int id = 0; id < sd.length; id++) {
+            sd[id] = get(id);
+        }
+        return sd;
     }
 
     @Override
     public void restoreData(final Object savedData) {
         final boolean[] sd = (boolean[]) savedData;
-        data = Arrays.copyOf(sd, sd.length);
+        if (column == null) {
+            data = Arrays.copyOf(sd, sd.length);
+        } else {
+            column.setCapacity(sd.length);
+            for (int id = 0; id < sd.length; id++) {
+                set(id, sd[id]);
+            }
+        }
     }
 
     @Override
@@ -303,14 +359,14 @@ public final class BooleanAttributeDescription extends AbstractAttributeDescript
 
     private class Index implements GraphIndex {
 
-        private int[] id2position = new int[data.length];
-        private int[] position2id = new int[data.length];
+        private int[] id2position = new int[getCapacity()];
+        private int[] position2id = new int[getCapacity()];
         int nextTrue = 0;
-        int nextFalse = data.length;
+        int nextFalse = getCapacity();
 
         @Override
         public void addElement(final int element) {
-            if (data[element]) {
+            if (get(element)) {
                 id2position[element] = nextTrue;
                 position2id[nextTrue++] = element;
             } else {
@@ -344,7 +400,7 @@ public final class BooleanAttributeDescription extends AbstractAttributeDescript
             if ((Boolean) value) {
                 return new IndexResult(nextTrue, 0);
             } else {
-                return new IndexResult(data.length - nextFalse, nextFalse);
+                return new IndexResult(getCapacity() - nextFalse, nextFalse);
             }
         }
 
@@ -405,7 +461,7 @@ public final class BooleanAttributeDescription extends AbstractAttributeDescript
 
     @Override
     public Object createReadObject(IntReadable indexReadable) {
-        return (BooleanReadable) () -> data[indexReadable.readInt()];
+        return (BooleanReadable) () -> get(indexReadable.readInt());
     }
 
     @Override
@@ -413,7 +469,7 @@ public final class BooleanAttributeDescription extends AbstractAttributeDescript
         return new BooleanVariable() {
             @Override
             public boolean readBoolean() {
-                return data[indexReadable.readInt()];
+                return get(indexReadable.readInt());
             }
 
             @Override
@@ -23,6 +23,8 @@ import au.gov.asd.tac.constellation.graph.locking.ParameterWriteAccess;
 import au.gov.asd.tac.constellation.graph.value.readables.ByteReadable;
 import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
 import au.gov.asd.tac.constellation.graph.value.variables.ByteVariable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import org.apache.commons.lang3.StringUtils;
 import org.openide.util.lookup.ServiceProvider;
@@ -45,7 +47,7 @@ import org.openide.util.lookup.ServiceProvider;
  * @author cygnus_x-1
  */
 @ServiceProvider(service = AttributeDescription.class)
-public class ByteAttributeDescription extends AbstractAttributeDescription {
+public class ByteAttributeDescription extends AbstractAttributeDescription implements MappableAttributeDescription {
 
     public static final String ATTRIBUTE_NAME = "byte";
     public static final Class<Byte> NATIVE_CLASS = byte.class;
@@ -53,6 +55,7 @@ public class ByteAttributeDescription extends AbstractAttributeDescription {
     public static final byte DEFAULT_VALUE = 0;
 
     private byte[] data = new byte[0];
+    private OffHeapColumn column = OffHeapColumn.isEnabled() ? new OffHeapColumn(1) : null;
     private byte defaultValue = DEFAULT_VALUE;
 
     @SuppressWarnings("unchecked") // Casts are manually checked
@@ -109,13 +112,50 @@ public class ByteAttributeDescription extends AbstractAttributeDescription {
         defaultValue = convertFromObject(value);
     }
 
+    private byte get(final int id) {
+        return column == null ? data[id] : column.getByte(id);
+    }
+
+    private void set(final int id, final byte value) {
+        if (column == null) {
+            data[id] = value;
+        } else {
+            column.setByte(id, value);
+        }
+    }
+
+    @Override
+    public void mapValues(final FileChannel channel, final long position, final int count) throws IOException {
+        final int capacity = getCapacity();
+        column = OffHeapColumn.map(channel, position, Byte.BYTES, count, capacity, defaultValue);
+        data = new byte[0];
+        // The reserved values already hold the default, so growing into them keeps the column mapped.
+        column.setCapacity(capacity);
+    }
+
+    @Override
+    public boolean isMapped() {
+        return column != null && column.isMapped();
+    }
+
     @Override
     public int getCapacity() {
-        return data.length;
+        return column == null ? data.length : column.getCapacity();
     }
 
     @Override
     public void setCapacity(final int capacity) {
+        if (column != null) {
+            final int len = column.getCapacity();
+            column.setCapacity(capacity);
+            if (capacity > len && defaultValue != 0) {
+                for (int id = len; id < capacity; id++) {
+                    set(id, defaultValue);
+                }
+            }
+            return;
+        }
+
         final int len = data.length;
         data = Arrays.copyOf(data, capacity);
         if (capacity > len) {
@@ -125,92 +165,92 @@ public class ByteAttributeDescription extends AbstractAttributeDescription {
 
     @Override
     public byte getByte(final int id) {
-        return data[id];
+        return get(id);
     }
 
     @Override
     public void setByte(final int id, final byte value) {
-        data[id] = value;
+        set(id, value);
     }
 
     @Override
     public short getShort(final int id) {
-        return (short) data[id];
+        return (short) get(id);
     }
 
     @Override
     public void setShort(final int id, final short value) {
-        data[id] = (byte) value;
+        set(id, (byte) value);
     }
 
     @Override
     public int getInt(final int id) {
-        return (int) data[id];
+        return (int) get(id);
     }
 
     @Override
     public void setInt(final int id, final int value) {
-        data[id] = (byte) value;
+        set(id, (byte) value);
     }
 
     @Override
     public long getLong(final int id) {
-        return (long) data[id];
+        return (long) get(id);
     }
 
     @Override
     public void setLong(final int id, final long value) {
-        data[id] = (byte) value;
+        set(id, (byte) value);
     }
 
     @Override
     public float getFloat(final int id) {
-        return (float) data[id];
+        return (float) get(id);
     }
 
     @Override
     public void setFloat(final int id, final float value) {
-        data[id] = (byte) value;
+        set(id, (byte) value);
     }
 
     @Override
     public double getDouble(final int id) {
-        return (double) data[id];
+        return (double) get(id);
     }
 
     @Override
     public void setDouble(final int id, final double value) {
-        data[id] = (byte) value;
+        set(id, (byte) value);
     }
 
     @Override
     public boolean getBoolean(final int id) {
-        return data[id] != (byte) 0;
+        return get(id) != (byte) 0;
     }
 
     @Override
     public void setBoolean(final int id, final boolean value) {
-        data[id] = value ? (byte) 1 : (byte) 0;
+        set(id, value ? (byte) 1 : (byte) 0);
     }
 
     @Override
     public char getChar(final int id) {
-        return (char) data[id];
+        return (char) get(id);
     }
 
     @Override
     public void setChar(final int id, final char value) {
-        data[id] = (byte) value;
+        set(id, (byte) value);
     }
 
     @Override
     public String getString(final int id) {
-        return String.valueOf(data[id]);
+        return String.valueOf(get(id));
     }
 
     @Override
     public void setString(final int id, final String value) {
-        data[id] = convertFromString(value);
+        set(id, convertFromString(value));
     }
 
     @Override
@@ -225,28 +265,29 @@ public class ByteAttributeDescription extends AbstractAttributeDescription {
 
     @Override
     public Object getObject(final int id) {
-        return data[id];
+        return get(id);
     }
 
     @Override
     public void setObject(final int id, final Object value) {
-        data[id] = convertFromObject(value);
+        set(id, convertFromObject(value));
     }
 
     @Override
     public boolean isClear(final int id) {
-        return data[id] == defaultValue;
+        return get(id) == defaultValue;
     }
 
     @Override
     public void clear(final int id) {
-        data[id] = defaultValue;
+        set(id, defaultValue);
     }
 
     @Override
     public AttributeDescription copy(final GraphReadMethods graph) {
         final ByteAttributeDescription attribute = new ByteAttributeDescription();
         attribute.data = Arrays.copyOf(data, data.length);
+        attribute.column = column == null ? null : new OffHeapColumn(column);
         attribute.defaultValue = this.defaultValue;
         attribute.graph = graph;
         return attribute;
@@ -254,38 +295,53 @@ public class ByteAttributeDescription extends AbstractAttributeDescription {
 
     @Override
     public int hashCode(final int id) {
-        return (int) data[id];
+        return (int) get(id);
     }
 
     @Override
     public boolean equals(final int id1, final int id2) {
-        return data[id1] == data[id2];
+        return get(id1) == get(id2);
     }
 
     @Override
     public void save(final int id, final ParameterWriteAccess access) {
-        access.setInt(data[id]);
+        access.setInt(get(id));
     }
 
     @Override
     public void restore(final int id, final ParameterReadAccess access) {
-        data[id] = (byte) access.getUndoInt();
+        set(id, (byte) access.getUndoInt());
     }
 
     @Override
     public Object saveData() {
-        return Arrays.copyOf(data, data.length);
+        if (column == null) {
+            return Arrays.copyOf(data, data.length);
+        }
+
+        final byte[] sd = new byte[column.getCapacity()];
+        for (int id = 0; id < sd.length; id++) {
+            sd[id] = get(id);
+        }
+        return sd;
     }
 
     @Override
     public void restoreData(final Object savedData) {
         final byte[] sd = (byte[]) savedData;
-        data = Arrays.copyOf(sd, sd.length);
+        if (column == null) {
+            data = Arrays.copyOf(sd, sd.length);
+        } else {
+            column.setCapacity(sd.length);
+            for (int id = 0; id < sd.length; id++) {
+                set(id, sd[id]);
+            }
+        }
     }
 
     @Override
     public Object createReadObject(IntReadable indexReadable) {
-        return (ByteReadable) () -> data[indexReadable.readInt()];
+        return (ByteReadable) () -> get(indexReadable.readInt());
     }
 
     @Override
@@ -293,7 +349,7 @@ public class ByteAttributeDescription extends AbstractAttributeDescription {
         return new ByteVariable() {
             @Override
             public byte readByte() {
-                return data[indexReadable.readInt()];
+                return get(indexReadable.readInt());
             }
 
             @Override
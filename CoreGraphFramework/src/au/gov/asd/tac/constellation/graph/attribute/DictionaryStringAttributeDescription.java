@@ -0,0 +1,456 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.NativeAttributeType;
+import au.gov.asd.tac.constellation.graph.locking.ParameterReadAccess;
+import au.gov.asd.tac.constellation.graph.locking.ParameterWriteAccess;
+import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
+import au.gov.asd.tac.constellation.graph.value.readables.StringReadable;
+import au.gov.asd.tac.constellation.graph.value.variables.StringVariable;
+import java.io.Serializable;
+import java.util.Arrays;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * This describes a type of attribute whose values are Strings, stored using
+ * dictionary encoding.
+ * <p>
+ * Each element holds an integer code into a reference counted pool of the
+ * distinct values of the attribute, so a value repeated across many elements
+ * is only held once. Equality tests and unordered index lookups compare codes
+ * rather than strings. This makes the type well suited to attributes with a
+ * small number of distinct values such as types, sources or countries.
+ * <p>
+ * Values convert to and from other types in the same way as
+ * {@link StringAttributeDescription}.
+ * <p>
+ * All methods of setting these attribute values other than
+ * {@link #setString setString()} will utilise
+ * {@link String#valueOf String.valueOf()}.
+ * <p>
+ * When retrieving these attribute values as numeric types, 0 will be yielded
+ * for null or empty strings, otherwise the string will be parsed as the numeric
+ * type being requested. The {@link #getBoolean getBoolean()} method will yield
+ * false for null or empty strings, otherwise
+ * {@link Boolean#parseBoolean Boolean.parseBoolean()}.
+ *
+ * @author sirius
+ */
+@ServiceProvider(service = AttributeDescription.class)
+public final class DictionaryStringAttributeDescription extends AbstractAttributeDescription {
+
+    public static final String ATTRIBUTE_NAME = "dictionary_string";
+    public static final Class<String> NATIVE_CLASS = String.class;
+    public static final NativeAttributeType NATIVE_TYPE = NativeAttributeType.OBJECT;
+    private static final String DEFAULT_VALUE = null;
+
+    private int[] data = new int[0];
+    private StringDictionary dictionary = new StringDictionary();
+    private String defaultValue = DEFAULT_VALUE;
+
+    @SuppressWarnings("unchecked") // Casts are manually checked
+    private String convertFromObject(final Object object) throws IllegalArgumentException {
+        if (object == null) {
+            return (String) getDefault();
+        } else if (object instanceof Number) {
+            return ((Number) object).toString();
+        } else if (object instanceof Boolean) {
+            return ((Boolean) object).toString();
+        } else if (object instanceof Character) {
+            return ((Character) object).toString();
+        } else if (object instanceof String) {
+            return convertFromString((String) object);
+        } else {
+            throw new IllegalArgumentException(String.format(
+                    "Error converting Object '%s' to String", object.getClass()));
+        }
+    }
+
+    private String convertFromString(final String string) {
+        if (string == null) {
+            return (String) getDefault();
+        } else {
+            return string;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return ATTRIBUTE_NAME;
+    }
+
+    @Override
+    public Class<?> getNativeClass() {
+        return NATIVE_CLASS;
+    }
+
+    @Override
+    public Object getDefault() {
+        return defaultValue;
+    }
+
+    @Override
+    public void setDefault(final Object value) {
+        defaultValue = convertFromObject(value);
+    }
+
+    private String get(final int id) {
+        return dictionary.getValue(data[id]);
+    }
+
+    private void set(final int id, final String value) {
+        final int code = dictionary.acquire(value);
+        dictionary.release(data[id]);
+        data[id] = code;
+    }
+
+    @Override
+    public int getCapacity() {
+        return data.length;
+    }
+
+    @Override
+    public void setCapacity(final int capacity) {
+        final int len = data.length;
+        for (int id = capacity; id < len; id++) {
+            dictionary.release(data[id]);
+        }
+        data = Arrays.copyOf(data, capacity);
+        if (capacity > len) {
+            Arrays.fill(data, len, capacity, dictionary.acquire(defaultValue, capacity - len));
+        }
+    }
+
+    @Override
+    public byte getByte(final int id) {
+        return get(id) != null && !get(id).isEmpty() ? Byte.parseByte(get(id)) : (byte) 0;
+    }
+
+    @Override
+    public void setByte(final int id, final byte value) {
+        set(id, String.valueOf(value));
+    }
+
+    @Override
+    public short getShort(final int id) {
+        return get(id) != null && !get(id).isEmpty() ? Short.parseShort(get(id)) : (short) 0;
+    }
+
+    @Override
+    public void setShort(final int id, final short value) {
+        set(id, String.valueOf(value));
+    }
+
+    @Override
+    public int getInt(final int id) {
+        return get(id) != null && !get(id).isEmpty() ? Integer.parseInt(get(id)) : 0;
+    }
+
+    @Override
+    public void setInt(final int id, final int value) {
+        set(id, String.valueOf(value));
+    }
+
+    @Override
+    public long getLong(final int id) {
+        return get(id) != null && !get(id).isEmpty() ? Long.parseLong(get(id)) : 0L;
+    }
+
+    @Override
+    public void setLong(final int id, final long value) {
+        set(id, String.valueOf(value));
+    }
+
+    @Override
+    public float getFloat(final int id) {
+        return get(id) != null && !get(id).isEmpty() ? Float.parseFloat(get(id)) : 0.0f;
+    }
+
+    @Override
+    public void setFloat(final int id, final float value) {
+        set(id, String.valueOf(value));
+    }
+
+    @Override
+    public double getDouble(final int id) {
+        return get(id) != null && !get(id).isEmpty() ? Double.parseDouble(get(id)) : 0.0;
+    }
+
+    @Override
+    public void setDouble(final int id, final double value) {
+        set(id, String.valueOf(value));
+    }
+
+    @Override
+    public boolean getBoolean(final int id) {
+        return get(id) != null && !get(id).isEmpty() && Boolean.parseBoolean(get(id));
+    }
+
+    @Override
+    public void setBoolean(final int id, final boolean value) {
+        set(id, String.valueOf(value));
+    }
+
+    @Override
+    public char getChar(final int id) {
+        return get(id) != null && !get(id).isEmpty() ? get(id).charAt(0) : (char) 0;
+    }
+
+    @Override
+    public void setChar(final int id, final char value) {
+        set(id, String.valueOf(value));
+    }
+
+    @Override
+    public String getString(final int id) {
+        return get(id);
+    }
+
+    @Override
+    public void setString(final int id, final String value) {
+        set(id, value);
+    }
+
+    @Override
+    public Object getObject(final int id) {
+        return get(id);
+    }
+
+    @Override
+    public void setObject(final int id, final Object value) {
+        set(id, value != null ? String.valueOf(value) : null);
+    }
+
+    @Override
+    public boolean isClear(final int id) {
+        return equals(get(id), defaultValue);
+    }
+
+    @Override
+    public void clear(final int id) {
+        set(id, defaultValue);
+    }
+
+    @Override
+    public AttributeDescription copy(final GraphReadMethods graph) {
+        final DictionaryStringAttributeDescription attribute = new DictionaryStringAttributeDescription();
+        attribute.data = Arrays.copyOf(data, data.length);
+        attribute.dictionary = new StringDictionary(dictionary);
+        attribute.defaultValue = this.defaultValue;
+        attribute.graph = graph;
+        return attribute;
+    }
+
+    @Override
+    public int hashCode(final int id) {
+        return get(id) == null ? 0 : get(id).hashCode();
+    }
+
+    @Override
+    public boolean equals(final int id1, final int id2) {
+        return data[id1] == data[id2];
+    }
+
+    @Override
+    public void save(final int id, final ParameterWriteAccess access) {
+        access.setObject(get(id));
+    }
+
+    @Override
+    public void restore(final int id, final ParameterReadAccess access) {
+        set(id, (String) access.getUndoObject());
+    }
+
+    @Override
+    public Object saveData() {
+        return new SavedData(Arrays.copyOf(data, data.length), new StringDictionary(dictionary));
+    }
+
+    @Override
+    public void restoreData(final Object savedData) {
+        final SavedData sd = (SavedData) savedData;
+        data = Arrays.copyOf(sd.codes, sd.codes.length);
+        dictionary = new StringDictionary(sd.dictionary);
+    }
+
+    @Override
+    public boolean supportsIndexType(final GraphIndexType indexType) {
+        return true;
+    }
+
+    @Override
+    public GraphIndex createIndex(final GraphIndexType indexType) {
+        switch (indexType) {
+            case UNORDERED:
+                return new Index();
+            case ORDERED:
+                return new OrderedGraphIndex(getCapacity(), this::get, this::convertFromObject);
+            default:
+                return NULL_GRAPH_INDEX;
+        }
+    }
+
+    private static class SavedData implements Serializable {
+
+        private final int[] codes;
+        private final StringDictionary dictionary;
+
+        public SavedData(final int[] codes, final StringDictionary dictionary) {
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+    }
+
+    /**
+     * An unordered index holding a doubly linked list of elements for each
+     * code in the dictionary.
+     */
+    private class Index implements GraphIndex {
+
+        private int[] elementCodes = new int[0];
+        private int[] next = new int[0];
+        private int[] previous = new int[0];
+        private int[] heads = new int[0];
+        private int[] counts = new int[0];
+
+        public Index() {
+            expandCapacity(getCapacity());
+        }
+
+        @Override
+        public void addElement(final int element) {
+            final int code = data[element];
+            if (code >= heads.length) {
+                final int length = heads.length;
+                heads = Arrays.copyOf(heads, Math.max(code + 1, dictionary.getCodeLimit()));
+                Arrays.fill(heads, length, heads.length, Graph.NOT_FOUND);
+                counts = Arrays.copyOf(counts, heads.length);
+            }
+
+            elementCodes[element] = code;
+            previous[element] = Graph.NOT_FOUND;
+            next[element] = heads[code];
+            if (heads[code] != Graph.NOT_FOUND) {
+                previous[heads[code]] = element;
+            }
+            heads[code] = element;
+            counts[code]++;
+        }
+
+        @Override
+        public void removeElement(final int element) {
+            final int code = elementCodes[element];
+            if (code == Graph.NOT_FOUND) {
+                return;
+            }
+
+            if (previous[element] == Graph.NOT_FOUND) {
+                heads[code] = next[element];
+            } else {
+                next[previous[element]] = next[element];
+            }
+            if (next[element] != Graph.NOT_FOUND) {
+                previous[next[element]] = previous[element];
+            }
+            elementCodes[element] = Graph.NOT_FOUND;
+            counts[code]--;
+        }
+
+        @Override
+        public void updateElement(final int element) {
+            removeElement(element);
+            addElement(element);
+        }
+
+        @Override
+        public GraphIndexResult getElementsWithAttributeValue(final Object value) {
+            final int code = dictionary.getCode(convertFromObject(value));
+            if (code < 0 || code >= heads.length) {
+                return new IndexResult(0, Graph.NOT_FOUND);
+            }
+            return new IndexResult(counts[code], heads[code]);
+        }
+
+        @Override
+        public GraphIndexResult getElementsWithAttributeValueRange(final Object start, final Object end) {
+            return null;
+        }
+
+        @Override
+        public void expandCapacity(final int newCapacity) {
+            final int length = elementCodes.length;
+            elementCodes = Arrays.copyOf(elementCodes, newCapacity);
+            next = Arrays.copyOf(next, newCapacity);
+            previous = Arrays.copyOf(previous, newCapacity);
+            if (newCapacity > length) {
+                Arrays.fill(elementCodes, length, newCapacity, Graph.NOT_FOUND);
+            }
+        }
+
+        private class IndexResult implements GraphIndexResult {
+
+            private int count;
+            private int element;
+
+            public IndexResult(final int count, final int element) {
+                this.count = count;
+                this.element = element;
+            }
+
+            @Override
+            public int getCount() {
+                return count;
+            }
+
+            @Override
+            public int getNextElement() {
+                if (count-- == 0) {
+                    return Graph.NOT_FOUND;
+                }
+                final int result = element;
+                element = next[element];
+                return result;
+            }
+        }
+    }
+
+    @Override
+    public Object createReadObject(IntReadable indexReadable) {
+        return (StringReadable) () -> get(indexReadable.readInt());
+    }
+
+    @Override
+    public Object createWriteObject(GraphWriteMethods graph, int attribute, IntReadable indexReadable) {
+        return new StringVariable() {
+            @Override
+            public String readString() {
+                return get(indexReadable.readInt());
+            }
+
+            @Override
+            public void writeString(String value) {
+                graph.setStringValue(attribute, indexReadable.readInt(), value);
+            }
+        };
+    }
+}
@@ -15,6 +15,8 @@
  */
 package au.gov.asd.tac.constellation.graph.attribute;
 
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.NativeAttributeType;
@@ -23,6 +25,8 @@ import au.gov.asd.tac.constellation.graph.locking.ParameterWriteAccess;
 import au.gov.asd.tac.constellation.graph.value.readables.DoubleReadable;
 import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
 import au.gov.asd.tac.constellation.graph.value.variables.DoubleVariable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import org.apache.commons.lang3.StringUtils;
 import org.openide.util.lookup.ServiceProvider;
@@ -45,7 +49,7 @@ import org.openide.util.lookup.ServiceProvider;
  * @author cygnus_x-1
  */
 @ServiceProvider(service = AttributeDescription.class)
-public class DoubleAttributeDescription extends AbstractAttributeDescription {
+public class DoubleAttributeDescription extends AbstractAttributeDescription implements MappableAttributeDescription {
 
     public static final String ATTRIBUTE_NAME = "double";
     public static final Class<Double> NATIVE_CLASS = double.class;
@@ -53,6 +57,7 @@ public class DoubleAttributeDescription extends AbstractAttributeDescription {
     private static final double DEFAULT_VALUE = 0;
 
     private double[] data = new double[0];
+    private OffHeapColumn column = OffHeapColumn.isEnabled() ? new OffHeapColumn(8) : null;
     private double defaultValue = DEFAULT_VALUE;
 
     @SuppressWarnings("unchecked") // Casts are manually checked
@@ -111,13 +116,50 @@ public class DoubleAttributeDescription extends AbstractAttributeDescription {
         defaultValue = convertFromObject(value);
     }
 
+    private double get(final int id) {
+        return column == null ? data[id] : column.getDouble(id);
+    }
+
+    private void set(final int id, final double value) {
+        if (column == null) {
+            data[id] = value;
+        } else {
+            column.setDouble(id, value);
+        }
+    }
+
+    @Override
+    public void mapValues(final FileChannel channel, final long position, final int count) throws IOException {
+        final int capacity = getCapacity();
+        column = OffHeapColumn.map(channel, position, Double.BYTES, count, capacity, Double.doubleToRawLongBits(defaultValue));
+        data = new double[0];
+        // The reserved values already hold the default, so growing into them keeps the column mapped.
+        column.setCapacity(capacity);
+    }
+
+    @Override
+    public boolean isMapped() {
+        return column != null && column.isMapped();
+    }
+
     @Override
     public int getCapacity() {
-        return data.length;
+        return column == null ? data.length : column.getCapacity();
     }
 
     @Override
     public void setCapacity(final int capacity) {
+        if (column != null) {
+            final int len = column.getCapacity();
+            column.setCapacity(capacity);
+            if (capacity > len && Double.doubleToRawLongBits(defaultValue) != 0) {
+                for (int id = len; id < capacity; id++) {
+                    set(id, defaultValue);
+                }
+            }
+            return;
+        }
+
         final int len = data.length;
         data = Arrays.copyOf(data, capacity);
         if (capacity > len) {
@@ -127,92 +169,92 @@ public class DoubleAttributeDescription extends AbstractAttributeDescription {
 
     @Override
     public byte getByte(final int id) {
-        return (byte) data[id];
+        return (byte) get(id);
     }
 
     @Override
     public void setByte(final int id, final byte value) {
-        data[id] = (double) value;
+        set(id, (double) value);
     }
 
     @Override
     public short getShort(final int id) {
-        return (short) data[id];
+        return (short) get(id);
     }
 
     @Override
     public void setShort(final int id, final short value) {
-        data[id] = (double) value;
+        set(id, (double) value);
     }
 
     @Override
     public int getInt(final int id) {
-        return (int) data[id];
+        return (int) get(id);
     }
 
     @Override
     public void setInt(final int id, final int value) {
-        data[id] = (double) value;
+        set(id, (double) value);
     }
 
     @Override
     public long getLong(final int id) {
-        return (long) data[id];
+        return (long) get(id);
     }
 
     @Override
     public void setLong(final int id, final long value) {
-        data[id] = (double) value;
+        set(id, (double) value);
     }
 
     @Override
     public float getFloat(final int id) {
-        return (float) data[id];
+        return (float) get(id);
     }
 
     @Override
     public void setFloat(final int id, final float value) {
-        data[id] = (double) value;
+        set(id, (double) value);
     }
 
     @Override
     public double getDouble(final int id) {
-        return data[id];
+        return get(id);
     }
 
     @Override
     public void setDouble(final int id, final double value) {
-        data[id] = value;
+        set(id, value);
     }
 
     @Override
     public boolean getBoolean(final int id) {
-        return data[id] != 0.0;
+        return get(id) != 0.0;
     }
 
     @Override
     public void setBoolean(final int id, final boolean value) {
-        data[id] = value ? 1.0 : 0.0;
+        set(id, value ? 1.0 : 0.0);
     }
 
     @Override
     public char getChar(final int id) {
-        return (char) data[id];
+        return (char) get(id);
     }
 
     @Override
     public void setChar(final int id, final char value) {
-        data[id] = (double) value;
+        set(id, (double) value);
     }
 
     @Override
     public String getString(final int id) {
-        return String.valueOf(data[id]);
+        return String.valueOf(get(id));
     }
 
     @Override
     public void setString(final int id, final String value) {
-        data[id] = convertFromString(value);
+        set(id, convertFromString(value));
     }
 
     @Override
@@ -227,28 +269,29 @@ public class DoubleAttributeDescription extends AbstractAttributeDescription {
 
     @Override
     public Object getObject(final int id) {
-        return data[id];
+        return get(id);
     }
 
     @Override
     public void setObject(final int id, final Object value) {
-        data[id] = convertFromObject(value);
+        set(id, convertFromObject(value));
     }
 
     @Override
     public boolean isClear(final int id) {
-        return data[id] == defaultValue;
+        return get(id) == defaultValue;
     }
 
     @Override
     public void clear(final int id) {
-        data[id] = defaultValue;
+        set(id, defaultValue);
     }
 
     @Override
     public AttributeDescription copy(final GraphReadMethods graph) {
         final DoubleAttributeDescription attribute = new DoubleAttributeDescription();
         attribute.data = Arrays.copyOf(data, data.length);
+        attribute.column = column == null ? null : new OffHeapColumn(column);
         attribute.defaultValue = this.defaultValue;
         attribute.graph = graph;
         return attribute;
@@ -256,38 +299,71 @@ public class DoubleAttributeDescription extends AbstractAttributeDescription {
 
     @Override
     public int hashCode(final int id) {
-        return (int) data[id];
+        return (int) get(id);
     }
 
     @Override
     public boolean equals(final int id1, final int id2) {
-        return data[id1] == data[id2];
+        return get(id1) == get(id2);
     }
 
     @Override
     public void save(final int id, final ParameterWriteAccess access) {
-        access.setDouble(data[id]);
+        access.setDouble(get(id));
     }
 
     @Override
     public void restore(final int id, final ParameterReadAccess access) {
-        data[id] = access.getUndoDouble();
+        set(id, access.getUndoDouble());
     }
 
     @Override
     public Object saveData() {
-        return Arrays.copyOf(data, data.length);
+        if (column == null) {
+            return Arrays.copyOf(data, data.length);
+        }
+
+        final double[] sd = new double[column.getCapacity()];
+        for (int id = 0; id < sd.length; id++) {
+            sd[id] = get(id);
+        }
+        return sd;
     }
 
     @Override
     public void restoreData(final Object savedData) {
         final double[] sd = (double[]) savedData;
-        data = Arrays.copyOf(sd, sd.length);
+        if (column == null) {
+            data = Arrays.copyOf(sd, sd.length);
+        } else {
+            column.setCapacity(sd.length);
+            for (int id = 0; id < sd.length; id++) {
+                set(id, sd[id]);
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsIndexType(final GraphIndexType indexType) {
+        return true;
+    }
+
+    @Override
+    public GraphIndex createIndex(final GraphIndexType indexType) {
+        switch (indexType) {
+            case UNORDERED:
+                // Adding zero maps -0.0 onto 0.0 so that the index agrees with ==
+                return new PrimitiveHashGraphIndex(getCapacity(), id -> Double.doubleToLongBits(get(id) + 0.0), value -> Double.doubleToLongBits(convertFromObject(value) + 0.0));
+            case ORDERED:
+                return new OrderedGraphIndex(getCapacity(), id -> get(id) + 0.0, value -> convertFromObject(value) + 0.0);
+            default:
+                return NULL_GRAPH_INDEX;
+        }
     }
 
     @Override
     public Object createReadObject(IntReadable indexReadable) {
-        return (DoubleReadable) () -> data[indexReadable.readInt()];
+        return (DoubleReadable) () -> get(indexReadable.readInt());
     }
 
     @Override
@@ -295,7 +371,7 @@ public class DoubleAttributeDescription extends AbstractAttributeDescription {
         return new DoubleVariable() {
             @Override
             public double readDouble() {
-                return data[indexReadable.readInt()];
+                return get(indexReadable.readInt());
             }
 
             @Override
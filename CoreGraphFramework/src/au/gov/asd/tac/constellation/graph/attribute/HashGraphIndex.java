@@ -0,0 +1,86 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * An unordered index over object attribute values, using
+ * {@link Object#equals equals()} and {@link Object#hashCode hashCode()} to
+ * group elements with equal values.
+ *
+ * @author sirius
+ */
+public class HashGraphIndex extends AbstractGraphIndex {
+
+    private final IntFunction<Object> values;
+    private final UnaryOperator<Object> converter;
+    private final Map<Object, Integer> buckets = new HashMap<>();
+    private Object[] bucketValues = new Object[16];
+
+    /**
+     * Create a new index.
+     *
+     * @param capacity the initial element capacity of the index.
+     * @param values returns the current value of an element.
+     * @param converter converts a value passed to
+     * {@link #getElementsWithAttributeValue getElementsWithAttributeValue()}
+     * into the form returned by values.
+     */
+    public HashGraphIndex(final int capacity, final IntFunction<Object> values, final UnaryOperator<Object> converter) {
+        super(capacity);
+        this.values = values;
+        this.converter = converter;
+    }
+
+    @Override
+    protected int getBucket(final int element) {
+        final Object value = values.apply(element);
+        Integer bucket = buckets.get(value);
+        if (bucket == null) {
+            bucket = createBucket();
+            buckets.put(value, bucket);
+            if (bucket >= bucketValues.length) {
+                bucketValues = Arrays.copyOf(bucketValues, Math.max(bucket + 1, bucketValues.length * 2));
+            }
+            bucketValues[bucket] = value;
+        }
+        return bucket;
+    }
+
+    @Override
+    protected void removeBucket(final int bucket) {
+        buckets.remove(bucketValues[bucket]);
+        bucketValues[bucket] = null;
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValue(final Object value) {
+        final Integer bucket = buckets.get(converter.apply(value));
+        return getBucketResult(bucket == null ? Graph.NOT_FOUND : bucket);
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValueRange(final Object start, final Object end) {
+        return null;
+    }
+}
@@ -15,6 +15,8 @@
  */
 package au.gov.asd.tac.constellation.graph.attribute;
 
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.NativeAttributeType;
@@ -23,6 +25,8 @@ import au.gov.asd.tac.constellation.graph.locking.ParameterWriteAccess;
 import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
 import au.gov.asd.tac.constellation.graph.value.readables.LongReadable;
 import au.gov.asd.tac.constellation.graph.value.variables.LongVariable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import org.apache.commons.lang3.StringUtils;
 import org.openide.util.lookup.ServiceProvider;
@@ -46,7 +50,7 @@ import org.openide.util.lookup.ServiceProvider;
  * @author sirius
  */
 @ServiceProvider(service = AttributeDescription.class)
-public final class LongAttributeDescription extends AbstractAttributeDescription {
+public final class LongAttributeDescription extends AbstractAttributeDescription implements MappableAttributeDescription {
 
     public static final String ATTRIBUTE_NAME = "long";
     public static final Class<Long> NATIVE_CLASS = long.class;
@@ -54,6 +58,7 @@ public final class LongAttributeDescription extends AbstractAttributeDescription
     public static final long DEFAULT_VALUE = 0L;
 
     private long[] data = new long[0];
+    private OffHeapColumn column = OffHeapColumn.isEnabled() ? new OffHeapColumn(8) : null;
     private long defaultValue = DEFAULT_VALUE;
 
     @SuppressWarnings("unchecked") // Casts are manually checked
@@ -112,13 +117,50 @@ public final class LongAttributeDescription extends AbstractAttributeDescription
         defaultValue = convertFromObject(value);
     }
 
+    private long get(final int id) {
+        return column == null ? data[id] : column.getLong(id);
+    }
+
+    private void set(final int id, final long value) {
+        if (column == null) {
+            data[id] = value;
+        } else {
+            column.setLong(id, value);
+        }
+    }
+
+    @Override
+    public void mapValues(final FileChannel channel, final long position, final int count) throws IOException {
+        final int capacity = getCapacity();
+        column = OffHeapColumn.map(channel, position, Long.BYTES, count, capacity, defaultValue);
+        data = new long[0];
+        // The reserved values already hold the default, so growing into them keeps the column mapped.
+        column.setCapacity(capacity);
+    }
+
+    @Override
+    public boolean isMapped() {
+        return column != null && column.isMapped();
+    }
+
     @Override
     public int getCapacity() {
-        return data.length;
+        return column == null ? data.length : column.getCapacity();
     }
 
     @Override
     public void setCapacity(final int capacity) {
+        if (column != null) {
+            final int len = column.getCapacity();
+            column.setCapacity(capacity);
+            if (capacity > len && defaultValue != 0) {
+                for (int id = len; id < capacity; id++) {
+                    set(id, defaultValue);
+                }
+            }
+            return;
+        }
+
         final int len = data.length;
         data = Arrays.copyOf(data, capacity);
         if (capacity > len) {
@@ -142,92 +184,92 @@ public final class LongAttributeDescription extends AbstractAttributeDescription
 
     @Override
     public byte getByte(final int id) {
-        return (byte) data[id];
+        return (byte) get(id);
     }
 
     @Override
     public void setByte(final int id, final byte value) {
-        data[id] = (long) value;
+        set(id, (long) value);
     }
 
     @Override
     public short getShort(final int id) {
-        return (short) data[id];
+        return (short) get(id);
     }
 
     @Override
     public void setShort(final int id, final short value) {
-        data[id] = (long) value;
+        set(id, (long) value);
     }
 
     @Override
     public int getInt(final int id) {
-        return (int) data[id];
+        return (int) get(id);
     }
 
     @Override
     public void setInt(final int id, final int value) {
-        data[id] = (long) value;
+        set(id, (long) value);
     }
 
     @Override
     public long getLong(final int id) {
-        return data[id];
+        return get(id);
     }
 
     @Override
     public void setLong(final int id, final long value) {
-        data[id] = value;
+        set(id, value);
     }
 
     @Override
     public float getFloat(final int id) {
-        return (float) data[id];
+        return (float) get(id);
     }
 
     @Override
     public void setFloat(final int id, final float value) {
-        data[id] = (long) value;
+        set(id, (long) value);
     }
 
     @Override
     public double getDouble(final int id) {
-        return (double) data[id];
+        return (double) get(id);
     }
 
     @Override
     public void setDouble(final int id, final double value) {
-        data[id] = (long) value;
+        set(id, (long) value);
     }
 
     @Override
     public boolean getBoolean(final int id) {
-        return data[id] != 0L;
+        return get(id) != 0L;
     }
 
     @Override
     public void setBoolean(final int id, final boolean value) {
-        data[id] = value ? 1L : 0L;
+        set(id, value ? 1L : 0L);
     }
 
     @Override
     public char getChar(final int id) {
-        return (char) data[id];
+        return (char) get(id);
     }
 
     @Override
     public void setChar(final int id, final char value) {
-        data[id] = (long) value;
+        set(id, (long) value);
     }
 
     @Override
     public String getString(final int id) {
-        return String.valueOf(data[id]);
+        return String.valueOf(get(id));
     }
 
     @Override
     public void setString(final int id, final String value) {
-        data[id] = convertFromString(value);
+        set(id, convertFromString(value));
     }
 
     @Override
@@ -242,28 +284,29 @@ public final class LongAttributeDescription extends AbstractAttributeDescription
 
     @Override
     public Object getObject(final int id) {
-        return data[id];
+        return get(id);
     }
 
     @Override
     public void setObject(final int id, final Object value) {
-        data[id] = convertFromObject(value);
+        set(id, convertFromObject(value));
     }
 
     @Override
     public boolean isClear(final int id) {
-        return data[id] == defaultValue;
+        return get(id) == defaultValue;
     }
 
     @Override
     public void clear(final int id) {
-        data[id] = defaultValue;
+        set(id, defaultValue);
     }
 
     @Override
     public AttributeDescription copy(final GraphReadMethods graph) {
         final LongAttributeDescription attribute = new LongAttributeDescription();
         attribute.data = Arrays.copyOf(data, data.length);
+        attribute.column = column == null ? null : new OffHeapColumn(column);
         attribute.defaultValue = this.defaultValue;
         attribute.graph = graph;
         return attribute;
@@ -271,38 +314,70 @@ public final class LongAttributeDescription extends AbstractAttributeDescription
 
     @Override
     public int hashCode(final int id) {
-        return (int) data[id];
+        return (int) get(id);
     }
 
     @Override
     public boolean equals(final int id1, final int id2) {
-        return data[id1] == data[id2];
+        return get(id1) == get(id2);
     }
 
     @Override
     public void save(final int id, final ParameterWriteAccess access) {
-        access.setLong(data[id]);
+        access.setLong(get(id));
     }
 
     @Override
     public void restore(final int id, final ParameterReadAccess access) {
-        data[id] = access.getUndoLong();
+        set(id, access.getUndoLong());
     }
 
     @Override
     public Object saveData() {
-        return Arrays.copyOf(data, data.length);
+        if (column == null) {
+            return Arrays.copyOf(data, data.length);
+        }
+
+        final long[] sd = new long[column.getCapacity()];
+        for (int id = 0; id < sd.length; id++) {
+            sd[id] = get(id);
+        }
+        return sd;
     }
 
     @Override
     public void restoreData(final Object savedData) {
         final long[] sd = (long[]) savedData;
-        data = Arrays.copyOf(sd, sd.length);
+        if (column == null) {
+            data = Arrays.copyOf(sd, sd.length);
+        } else {
+            column.setCapacity(sd.length);
+            for (int id = 0; id < sd.length; id++) {
+                set(id, sd[id]);
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsIndexType(final GraphIndexType indexType) {
+        return true;
+    }
+
+    @Override
+    public GraphIndex createIndex(final GraphIndexType indexType) {
+        switch (indexType) {
+            case UNORDERED:
+                return new PrimitiveHashGraphIndex(getCapacity(), id -> get(id), value -> convertFromObject(value));
+            case ORDERED:
+                return new OrderedGraphIndex(getCapacity(), id -> get(id), value -> convertFromObject(value));
+            default:
+                return NULL_GRAPH_INDEX;
+        }
     }
 
     @Override
     public Object createReadObject(IntReadable indexReadable) {
-        return (LongReadable) () -> data[indexReadable.readInt()];
+        return (LongReadable) () -> get(indexReadable.readInt());
     }
 
     @Override
@@ -310,7 +385,7 @@ public final class LongAttributeDescription extends AbstractAttributeDescription
         return new LongVariable() {
             @Override
             public long readLong() {
-                return data[indexReadable.readInt()];
+                return get(indexReadable.readInt());
             }
 
             @Override
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * An attribute description whose values can be read directly from a region of
+ * a file rather than being copied into memory.
+ * <p>
+ * The region holds one big-endian value for each element id, starting from
+ * id 0, in the same encoding the attribute type's
+ * {@link au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider}
+ * writes for a column. The region is mapped privately, so values are only read
+ * from the file when they are first accessed and changes are never written
+ * back to it.
+ *
+ * @author sirius
+ */
+public interface MappableAttributeDescription {
+
+    /**
+     * Replace the values of this attribute with a mapped region of a file.
+     * <p>
+     * The capacity of the attribute is unchanged. Elements beyond the end of
+     * the region are set to the default value.
+     *
+     * @param channel the file to map, open for reading and writing.
+     * @param position the position in the file of the value for id 0.
+     * @param count the number of values in the region.
+     *
+     * @throws IOException if the region could not be mapped.
+     */
+    void mapValues(final FileChannel channel, final long position, final int count) throws IOException;
+
+    /**
+     * Returns true if the values of this attribute are still held in a mapped
+     * region of a file.
+     * <p>
+     * Values stop being file-backed once they are copied into memory, for
+     * example when the attribute grows past the mapped region.
+     *
+     * @return true if the values of this attribute are file-backed.
+     */
+    default boolean isMapped() {
+        return false;
+    }
+}
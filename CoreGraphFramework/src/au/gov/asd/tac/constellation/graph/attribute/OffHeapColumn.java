@@ -0,0 +1,444 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+
+/**
+ * A column of fixed width primitive values held in direct (off-heap) memory.
+ * <p>
+ * The column is divided into pages of {@link #PAGE_BYTES} bytes. Once a column
+ * has grown to a full page, increasing its capacity only allocates the
+ * additional pages that are needed; existing values are never copied. Columns
+ * smaller than a page are held in a single page sized to fit, so small graphs
+ * do not pay for a full page per attribute.
+ * <p>
+ * Memory that becomes part of the column is always zeroed, so callers only
+ * need to fill newly added elements when their default value is not zero.
+ * <p>
+ * A column can also be {@link #map mapped} from a region of a file, in which
+ * case its pages are paged in by the operating system on first access.
+ * <p>
+ * Copying a column shares its pages with the copy. Both columns then take a
+ * private copy of a page the first time they write to it, so a copy costs
+ * nothing until it is modified, and a mapped column remains backed by its file
+ * except for the pages that have been written.
+ *
+ * @author sirius
+ */
+final class OffHeapColumn implements Serializable {
+
+    /**
+     * The system property which, when set to true, makes the primitive
+     * attribute descriptions store their values in off-heap columns.
+     */
+    static final String ENABLED_PROPERTY = "constellation.attribute.offheap";
+
+    private static boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private static final int PAGE_BYTES_SHIFT = 20;
+
+    /**
+     * The size in bytes of a full page.
+     */
+    static final int PAGE_BYTES = 1 << PAGE_BYTES_SHIFT;
+
+    private final int widthShift;
+    private final int pageShift;
+    private final int pageMask;
+    private final boolean bigEndian;
+
+    private transient ByteBuffer[] pages;
+    private transient boolean[] shared;
+    private transient boolean[] mapped;
+    private int capacity;
+
+    /**
+     * Create a new empty column.
+     *
+     * @param width the width in bytes of each value: 1, 2, 4 or 8.
+     */
+    OffHeapColumn(final int width) {
+        this(width, false);
+    }
+
+    private OffHeapColumn(final int width, final boolean bigEndian) {
+        if (Integer.bitCount(width) != 1 || width > Long.BYTES) {
+            throw new IllegalArgumentException("Invalid column width: " + width);
+        }
+        this.widthShift = Integer.numberOfTrailingZeros(width);
+        this.pageShift = PAGE_BYTES_SHIFT - widthShift;
+        this.pageMask = (1 << pageShift) - 1;
+        this.bigEndian = bigEndian;
+        this.pages = new ByteBuffer[0];
+        this.shared = new boolean[0];
+        this.mapped = new boolean[0];
+        this.capacity = 0;
+    }
+
+    /**
+     * Create a new column holding the values in an existing column.
+     * <p>
+     * The two columns share their pages until either of them writes to a
+     * page.
+     *
+     * @param original the column to copy.
+     */
+    OffHeapColumn(final OffHeapColumn original) {
+        this.widthShift = original.widthShift;
+        this.pageShift = original.pageShift;
+        this.pageMask = original.pageMask;
+        this.bigEndian = original.bigEndian;
+        this.pages = Arrays.copyOf(original.pages, original.pages.length);
+        this.shared = new boolean[pages.length];
+        Arrays.fill(shared, true);
+        Arrays.fill(original.shared, true);
+        this.mapped = Arrays.copyOf(original.mapped, original.mapped.length);
+        this.capacity = original.capacity;
+    }
+
+    /**
+     * Create a column whose values are held in a region of a file as one
+     * big-endian value for each id, starting from id 0.
+     * <p>
+     * The region is mapped privately: values are read from the file only when
+     * they are first accessed, and changes to the column are never written
+     * back to the file. The mapping remains valid after the channel is closed.
+     * <p>
+     * The mapping is extended to cover reserve values so that a later call to
+     * {@link #setCapacity} up to reserve keeps the column file-backed; the
+     * values beyond count are zeroed in the private mapping. If the reserved
+     * region runs past the end of the file, the file is extended with zeros.
+     *
+     * @param channel the file to map, open for reading and writing.
+     * @param position the position in the file of the value for id 0.
+     * @param width the width in bytes of each value: 1, 2, 4 or 8.
+     * @param count the number of values in the region.
+     * @param reserve the capacity the column is expected to grow to.
+     *
+     * @return a column with a capacity of count.
+     *
+     * @throws IOException if the region could not be mapped.
+     */
+    static OffHeapColumn map(final FileChannel channel, final long position, final int width, final int count, final int reserve) throws IOException {
+        return map(channel, position, width, count, reserve, 0);
+    }
+
+    /**
+     * Create a column whose values are held in a region of a file, as
+     * {@link #map(FileChannel, long, int, int, int)} does, but with the
+     * reserved values beyond count set to the specified value in the private
+     * mapping rather than zeroed.
+     *
+     * @param channel the file to map, open for reading and writing.
+     * @param position the position in the file of the value for id 0.
+     * @param width the width in bytes of each value: 1, 2, 4 or 8.
+     * @param count the number of values in the region.
+     * @param reserve the capacity the column is expected to grow to.
+     * @param fill the raw bits of the value of the reserved values, in the
+     * low width bytes.
+     *
+     * @return a column with a capacity of count.
+     *
+     * @throws IOException if the region could not be mapped.
+     */
+    static OffHeapColumn map(final FileChannel channel, final long position, final int width, final int count, final int reserve, final long fill) throws IOException {
+        final OffHeapColumn column = new OffHeapColumn(width, true);
+        final long bytes = (long) count << column.widthShift;
+        final long available = channel.size() - position;
+        final long reserveBytes = (long) Math.max(count, reserve) << column.widthShift;
+        final int pageCount = count == 0 ? 0 : (int) ((reserveBytes - 1) >>> PAGE_BYTES_SHIFT) + 1;
+        column.pages = new ByteBuffer[pageCount];
+        column.shared = new boolean[pageCount];
+        column.mapped = new boolean[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            final long offset = (long) i << PAGE_BYTES_SHIFT;
+            final int pageBytes = (int) Math.min(PAGE_BYTES, reserveBytes - offset);
+            final ByteBuffer page = channel.map(MapMode.PRIVATE, position + offset, pageBytes).order(ByteOrder.BIG_ENDIAN);
+            if (fill == 0) {
+                final long end = Math.min(pageBytes, available - offset);
+                for (long b = Math.max(0, bytes - offset); b < end; b++) {
+                    page.put((int) b, (byte) 0);
+                }
+            } else {
+                for (long b = Math.max(0, bytes - offset); b < pageBytes; b += width) {
+                    put(page, (int) b, width, fill);
+                }
+            }
+            column.pages[i] = page;
+            column.mapped[i] = true;
+        }
+        column.capacity = count;
+        return column;
+    }
+
+    /**
+     * Are newly created primitive attribute descriptions backed by off-heap
+     * columns?
+     *
+     * @return true if off-heap storage is enabled.
+     */
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Change whether newly created primitive attribute descriptions are backed
+     * by off-heap columns. Existing descriptions are unaffected.
+     *
+     * @param enabled true to enable off-heap storage.
+     */
+    static void setEnabled(final boolean enabled) {
+        OffHeapColumn.enabled = enabled;
+    }
+
+    private ByteBuffer allocate(final int bytes) {
+        // Mapped columns keep the byte order of the file so that their pages can be copied as they are.
+        return ByteBuffer.allocateDirect(bytes).order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.nativeOrder());
+    }
+
+    private static void put(final ByteBuffer page, final int offset, final int width, final long value) {
+        switch (width) {
+            case Byte.BYTES:
+                page.put(offset, (byte) value);
+                break;
+            case Short.BYTES:
+                page.putShort(offset, (short) value);
+                break;
+            case Integer.BYTES:
+                page.putInt(offset, (int) value);
+                break;
+            default:
+                page.putLong(offset, value);
+                break;
+        }
+    }
+
+    private static void copy(final ByteBuffer source, final ByteBuffer destination) {
+        final ByteBuffer src = source.duplicate();
+        src.clear().limit(Math.min(source.capacity(), destination.capacity()));
+        destination.duplicate().put(src);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Is every page of this column still backed by a mapped file?
+     *
+     * @return true if the column has been mapped from a file and none of its
+     * pages have since been copied into memory.
+     */
+    boolean isMapped() {
+        if (mapped.length == 0) {
+            return false;
+        }
+        for (final boolean pageMapped : mapped) {
+            if (!pageMapped) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set the number of values this column can hold. Values below the new
+     * capacity are preserved; values added by growing the column are zero.
+     *
+     * @param newCapacity the new capacity of the column.
+     */
+    void setCapacity(final int newCapacity) {
+        if (newCapacity < capacity) {
+            shrink(newCapacity);
+        } else if (newCapacity > capacity) {
+            grow(newCapacity);
+        }
+        capacity = newCapacity;
+    }
+
+    private void grow(final int newCapacity) {
+        final int elementsPerPage = 1 << pageShift;
+        if (newCapacity < elementsPerPage) {
+            // A single partial page: small enough that copying is cheap.
+            if (pages.length > 0 && pages[0].capacity() >= newCapacity << widthShift) {
+                return;
+            }
+            final ByteBuffer page = allocate(newCapacity << widthShift);
+            if (pages.length > 0) {
+                copy(pages[0], page);
+            }
+            pages = new ByteBuffer[]{page};
+            shared = new boolean[1];
+            mapped = new boolean[1];
+            return;
+        }
+
+        final int pageCount = ((newCapacity - 1) >>> pageShift) + 1;
+        final int oldPageCount = pages.length;
+        if (pageCount > oldPageCount) {
+            pages = Arrays.copyOf(pages, pageCount);
+            shared = Arrays.copyOf(shared, pageCount);
+            mapped = Arrays.copyOf(mapped, pageCount);
+        }
+
+        // Promote an existing partial page to a full page, unless it is still
+        // the last page and already covers the new capacity. A mapped column
+        // may already hold pages beyond its capacity, reserved for growth.
+        final int last = Math.min(oldPageCount, pageCount) - 1;
+        final int lastPageBytes = (newCapacity - ((pageCount - 1) << pageShift)) << widthShift;
+        if (last >= 0 && pages[last].capacity() < PAGE_BYTES
+                && (last < pageCount - 1 || pages[last].capacity() < lastPageBytes)) {
+            final ByteBuffer page = allocate(PAGE_BYTES);
+            copy(pages[last], page);
+            pages[last] = page;
+            shared[last] = false;
+            mapped[last] = false;
+        }
+
+        for (int i = oldPageCount; i < pageCount; i++) {
+            pages[i] = allocate(PAGE_BYTES);
+        }
+    }
+
+    private void shrink(final int newCapacity) {
+        final int pageCount = newCapacity == 0 ? 0 : ((newCapacity - 1) >>> pageShift) + 1;
+        pages = Arrays.copyOf(pages, pageCount);
+        shared = Arrays.copyOf(shared, pageCount);
+        mapped = Arrays.copyOf(mapped, pageCount);
+
+        // Zero the released tail of the last page so that growing again yields zeros.
+        if (pageCount > 0) {
+            final ByteBuffer page = getWritablePage(pageCount - 1);
+            final int pageStart = (pageCount - 1) << pageShift;
+            final int from = (newCapacity - pageStart) << widthShift;
+            final int to = Math.min(page.capacity(), (capacity - pageStart) << widthShift);
+            for (int b = from; b < to; b++) {
+                page.put(b, (byte) 0);
+            }
+        }
+    }
+
+    private ByteBuffer page(final int id) {
+        return pages[id >>> pageShift];
+    }
+
+    private ByteBuffer writablePage(final int id) {
+        return getWritablePage(id >>> pageShift);
+    }
+
+    private ByteBuffer getWritablePage(final int page) {
+        if (shared[page]) {
+            final ByteBuffer copy = allocate(pages[page].capacity());
+            copy(pages[page], copy);
+            pages[page] = copy;
+            shared[page] = false;
+            mapped[page] = false;
+        }
+        return pages[page];
+    }
+
+    private int offset(final int id) {
+        return (id & pageMask) << widthShift;
+    }
+
+    byte getByte(final int id) {
+        return page(id).get(offset(id));
+    }
+
+    void setByte(final int id, final byte value) {
+        writablePage(id).put(offset(id), value);
+    }
+
+    short getShort(final int id) {
+        return page(id).getShort(offset(id));
+    }
+
+    void setShort(final int id, final short value) {
+        writablePage(id).putShort(offset(id), value);
+    }
+
+    int getInt(final int id) {
+        return page(id).getInt(offset(id));
+    }
+
+    void setInt(final int id, final int value) {
+        writablePage(id).putInt(offset(id), value);
+    }
+
+    long getLong(final int id) {
+        return page(id).getLong(offset(id));
+    }
+
+    void setLong(final int id, final long value) {
+        writablePage(id).putLong(offset(id), value);
+    }
+
+    float getFloat(final int id) {
+        return page(id).getFloat(offset(id));
+    }
+
+    void setFloat(final int id, final float value) {
+        writablePage(id).putFloat(offset(id), value);
+    }
+
+    double getDouble(final int id) {
+        return page(id).getDouble(offset(id));
+    }
+
+    void setDouble(final int id, final double value) {
+        writablePage(id).putDouble(offset(id), value);
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        final int bytes = capacity << widthShift;
+        final byte[] buffer = new byte[Math.min(bytes, PAGE_BYTES)];
+        for (int i = 0, remaining = bytes; remaining > 0; i++) {
+            final int length = Math.min(remaining, PAGE_BYTES);
+            final ByteBuffer page = pages[i].duplicate();
+            page.get(buffer, 0, length);
+            out.write(buffer, 0, length);
+            remaining -= length;
+        }
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int savedCapacity = capacity;
+        pages = new ByteBuffer[0];
+        shared = new boolean[0];
+        mapped = new boolean[0];
+        capacity = 0;
+        setCapacity(savedCapacity);
+        final int bytes = savedCapacity << widthShift;
+        final byte[] buffer = new byte[Math.min(bytes, PAGE_BYTES)];
+        for (int i = 0, remaining = bytes; remaining > 0; i++) {
+            final int length = Math.min(remaining, PAGE_BYTES);
+            in.readFully(buffer, 0, length);
+            pages[i].duplicate().put(buffer, 0, length);
+            remaining -= length;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * An ordered index over {@link Comparable} attribute values which supports
+ * both exact match and range queries.
+ * <p>
+ * Null values sort before all other values. A null start or end passed to
+ * {@link #getElementsWithAttributeValueRange getElementsWithAttributeValueRange()}
+ * leaves that end of the range unbounded.
+ *
+ * @author sirius
+ */
+public class OrderedGraphIndex extends AbstractGraphIndex {
+
+    @SuppressWarnings("unchecked") // Values are checked to be Comparable by the attribute description
+    private static final Comparator<Object> ORDER = Comparator.nullsFirst((a, b) -> ((Comparable<Object>) a).compareTo(b));
+
+    private final IntFunction<Object> values;
+    private final UnaryOperator<Object> converter;
+    private final TreeMap<Object, Integer> buckets = new TreeMap<>(ORDER);
+    private Object[] bucketValues = new Object[16];
+    private boolean hasNull = false;
+    private int nullBucket;
+
+    /**
+     * Create a new index.
+     *
+     * @param capacity the initial element capacity of the index.
+     * @param values returns the current value of an element, which must be
+     * null or {@link Comparable}.
+     * @param converter converts a value passed to a query into the form
+     * returned by values.
+     */
+    public OrderedGraphIndex(final int capacity, final IntFunction<Object> values, final UnaryOperator<Object> converter) {
+        super(capacity);
+        this.values = values;
+        this.converter = converter;
+    }
+
+    @Override
+    protected int getBucket(final int element) {
+        final Object value = values.apply(element);
+        final Integer existing = value == null ? (hasNull ? nullBucket : null) : buckets.get(value);
+        if (existing != null) {
+            return existing;
+        }
+
+        final int bucket = createBucket();
+        if (value == null) {
+            hasNull = true;
+            nullBucket = bucket;
+        } else {
+            buckets.put(value, bucket);
+        }
+        if (bucket >= bucketValues.length) {
+            bucketValues = Arrays.copyOf(bucketValues, Math.max(bucket + 1, bucketValues.length * 2));
+        }
+        bucketValues[bucket] = value;
+        return bucket;
+    }
+
+    @Override
+    protected void removeBucket(final int bucket) {
+        if (bucketValues[bucket] == null) {
+            hasNull = false;
+        } else {
+            buckets.remove(bucketValues[bucket]);
+            bucketValues[bucket] = null;
+        }
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValue(final Object value) {
+        final Object key = converter.apply(value);
+        final Integer bucket = key == null ? (hasNull ? nullBucket : null) : buckets.get(key);
+        return getBucketResult(bucket == null ? Graph.NOT_FOUND : bucket);
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValueRange(final Object start, final Object end) {
+        final Object from = start == null ? null : converter.apply(start);
+        final Object to = end == null ? null : converter.apply(end);
+
+        NavigableMap<Object, Integer> range = buckets;
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, false);
+        }
+
+        final int[] rangeBuckets = new int[range.size()];
+        int count = 0;
+        for (final Integer bucket : range.values()) {
+            rangeBuckets[count++] = bucket;
+        }
+        return getBucketsResult(rangeBuckets, count);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * An unordered index over primitive attribute values.
+ * <p>
+ * Every value is represented as a long key: integral values directly and
+ * floating point values by their bit patterns. Keys are held in an open
+ * addressing hash table, so no boxing takes place when elements are added,
+ * updated or removed.
+ *
+ * @author sirius
+ */
+public class PrimitiveHashGraphIndex extends AbstractGraphIndex {
+
+    private static final int EMPTY = -1;
+
+    private final IntToLongFunction keys;
+    private final ToLongFunction<Object> converter;
+
+    private long[] tableKeys = new long[16];
+    private int[] tableBuckets = new int[16];
+    private int mask = 15;
+    private int size = 0;
+    private long[] bucketKeys = new long[16];
+
+    /**
+     * Create a new index.
+     *
+     * @param capacity the initial element capacity of the index.
+     * @param keys returns the key for the current value of an element. Equal
+     * values must have equal keys.
+     * @param converter converts a value passed to
+     * {@link #getElementsWithAttributeValue getElementsWithAttributeValue()}
+     * into a key.
+     */
+    public PrimitiveHashGraphIndex(final int capacity, final IntToLongFunction keys, final ToLongFunction<Object> converter) {
+        super(capacity);
+        this.keys = keys;
+        this.converter = converter;
+        Arrays.fill(tableBuckets, EMPTY);
+    }
+
+    private static int hash(final long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int findSlot(final long key) {
+        int slot = hash(key) & mask;
+        while (tableBuckets[slot] != EMPTY && tableKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @Override
+    protected int getBucket(final int element) {
+        final long key = keys.applyAsLong(element);
+        int slot = findSlot(key);
+        if (tableBuckets[slot] != EMPTY) {
+            return tableBuckets[slot];
+        }
+
+        if ((size + 1) * 2 > tableKeys.length) {
+            rehash(tableKeys.length * 2);
+            slot = findSlot(key);
+        }
+        final int bucket = createBucket();
+        tableKeys[slot] = key;
+        tableBuckets[slot] = bucket;
+        size++;
+        if (bucket >= bucketKeys.length) {
+            bucketKeys = Arrays.copyOf(bucketKeys, Math.max(bucket + 1, bucketKeys.length * 2));
+        }
+        bucketKeys[bucket] = key;
+        return bucket;
+    }
+
+    @Override
+    protected void removeBucket(final int bucket) {
+        // Backward shift deletion keeps every probe sequence unbroken without tombstones
+        int hole = findSlot(bucketKeys[bucket]);
+        int slot = (hole + 1) & mask;
+        while (tableBuckets[slot] != EMPTY) {
+            final int home = hash(tableKeys[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                tableKeys[hole] = tableKeys[slot];
+                tableBuckets[hole] = tableBuckets[slot];
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        tableBuckets[hole] = EMPTY;
+        size--;
+    }
+
+    private void rehash(final int newLength) {
+        final long[] oldKeys = tableKeys;
+        final int[] oldBuckets = tableBuckets;
+        tableKeys = new long[newLength];
+        tableBuckets = new int[newLength];
+        Arrays.fill(tableBuckets, EMPTY);
+        mask = newLength - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldBuckets[i] != EMPTY) {
+                final int slot = findSlot(oldKeys[i]);
+                tableKeys[slot] = oldKeys[i];
+                tableBuckets[slot] = oldBuckets[i];
+            }
+        }
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValue(final Object value) {
+        final int bucket = tableBuckets[findSlot(converter.applyAsLong(value))];
+        return getBucketResult(bucket == EMPTY ? Graph.NOT_FOUND : bucket);
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValueRange(final Object start, final Object end) {
+        return null;
+    }
+}
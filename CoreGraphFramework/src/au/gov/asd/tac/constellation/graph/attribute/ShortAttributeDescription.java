@@ -23,6 +23,8 @@ import au.gov.asd.tac.constellation.graph.locking.ParameterWriteAccess;
 import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
 import au.gov.asd.tac.constellation.graph.value.readables.ShortReadable;
 import au.gov.asd.tac.constellation.graph.value.variables.ShortVariable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import org.apache.commons.lang3.StringUtils;
 import org.openide.util.lookup.ServiceProvider;
@@ -45,7 +47,7 @@ import org.openide.util.lookup.ServiceProvider;
  * @author cygnus_x-1
  */
 @ServiceProvider(service = AttributeDescription.class)
-public class ShortAttributeDescription extends AbstractAttributeDescription {
+public class ShortAttributeDescription extends AbstractAttributeDescription implements MappableAttributeDescription {
 
     public static final String ATTRIBUTE_NAME = "short";
     public static final Class<Short> NATIVE_CLASS = short.class;
@@ -53,6 +55,7 @@ public class ShortAttributeDescription extends AbstractAttributeDescription {
     public static final short DEFAULT_VALUE = (short) 0;
 
     private short[] data = new short[0];
+    private OffHeapColumn column = OffHeapColumn.isEnabled() ? new OffHeapColumn(2) : null;
     private short defaultValue = DEFAULT_VALUE;
 
     @SuppressWarnings("unchecked") // Casts are manually checked
@@ -109,13 +112,50 @@ public class ShortAttributeDescription extends AbstractAttributeDescription {
         defaultValue = convertFromObject(value);
     }
 
+    private short get(final int id) {
+        return column == null ? data[id] : column.getShort(id);
+    }
+
+    private void set(final int id, final short value) {
+        if (column == null) {
+            data[id] = value;
+        } else {
+            column.setShort(id, value);
+        }
+    }
+
+    @Override
+    public void mapValues(final FileChannel channel, final long position, final int count) throws IOException {
+        final int capacity = getCapacity();
+        column = OffHeapColumn.map(channel, position, Short.BYTES, count, capacity, defaultValue);
+        data = new short[0];
+        // The reserved values already hold the default, so growing into them keeps the column mapped.
+        column.setCapacity(capacity);
+    }
+
+    @Override
+    public boolean isMapped() {
+        return column != null && column.isMapped();
+    }
+
     @Override
     public int getCapacity() {
-        return data.length;
+        return column == null ? data.length : column.getCapacity();
     }
 
     @Override
     public void setCapacity(final int capacity) {
+        if (column != null) {
+            final int len = column.getCapacity();
+            column.setCapacity(capacity);
+            if (capacity > len && defaultValue != 0) {
+                for (int id = len; id < capacity; id++) {
+                    set(id, defaultValue);
+                }
+            }
+            return;
+        }
+
         final int len = data.length;
         data = Arrays.copyOf(data, capacity);
         if (capacity > len) {
@@ -125,82 +165,82 @@ public class ShortAttributeDescription extends AbstractAttributeDescription {
 
     @Override
     public byte getByte(final int id) {
-        return (byte) data[id];
+        return (byte) get(id);
     }
 
     @Override
     public void setByte(final int id, final byte value) {
-        data[id] = (short) value;
+        set(id, (short) value);
     }
 
     @Override
     public short getShort(final int id) {
-        return data[id];
+        return get(id);
     }
 
     @Override
     public void setShort(final int id, final short value) {
-        data[id] = value;
+        set(id, value);
     }
 
     @Override
     public int getInt(final int id) {
-        return (int) data[id];
+        return (int) get(id);
     }
 
     @Override
     public void setInt(final int id, final int value) {
-        data[id] = (short) value;
+        set(id, (short) value);
     }
 
     @Override
     public long getLong(final int id) {
-        return (long) data[id];
+        return (long) get(id);
     }
 
     @Override
     public void setLong(final int id, final long value) {
-        data[id] = (short) value;
+        set(id, (short) value);
     }
 
     @Override
     public float getFloat(final int id) {
-        return (float) data[id];
+        return (float) get(id);
     }
 
     @Override
     public void setFloat(final int id, final float value) {
-        data[id] = (short) value;
+        set(id, (short) value);
     }
 
     @Override
     public double getDouble(final int id) {
-        return (double) data[id];
+        return (double) get(id);
     }
 
     @Override
     public void setDouble(final int id, final double value) {
-        data[id] = (short) value;
+        set(id, (short) value);
     }
 
     @Override
     public boolean getBoolean(final int id) {
-        return data[id] != (short) 0;
+        return get(id) != (short) 0;
     }
 
     @Override
     public void setBoolean(final int id, final boolean value) {
-        data[id] = value ? (short) 1 : (short) 0;
+        set(id, value ? (short) 1 : (short) 0);
     }
 
     @Override
     public String getString(final int id) {
-        return String.valueOf(data[id]);
+        return String.valueOf(get(id));
     }
 
     @Override
     public void setString(final int id, final String value) {
-        data[id] = convertFromString(value);
+        set(id, convertFromString(value));
     }
 
     @Override
@@ -215,28 +255,29 @@ public class ShortAttributeDescription extends AbstractAttributeDescription {
 
     @Override
     public Object getObject(final int id) {
-        return data[id];
+        return get(id);
     }
 
     @Override
     public void setObject(final int id, final Object value) {
-        data[id] = convertFromObject(value);
+        set(id, convertFromObject(value));
     }
 
     @Override
     public boolean isClear(final int id) {
-        return data[id] == defaultValue;
+        return get(id) == defaultValue;
     }
 
     @Override
     public void clear(final int id) {
-        data[id] = defaultValue;
+        set(id, defaultValue);
     }
 
     @Override
     public AttributeDescription copy(final GraphReadMethods graph) {
         final ShortAttributeDescription attribute = new ShortAttributeDescription();
         attribute.data = Arrays.copyOf(data, data.length);
+        attribute.column = column == null ? null : new OffHeapColumn(column);
         attribute.defaultValue = this.defaultValue;
         attribute.graph = graph;
         return attribute;
@@ -244,38 +285,53 @@ public class ShortAttributeDescription extends AbstractAttributeDescription {
 
     @Override
     public int hashCode(final int id) {
-        return (int) data[id];
+        return (int) get(id);
     }
 
     @Override
     public boolean equals(final int id1, final int id2) {
-        return data[id1] == data[id2];
+        return get(id1) == get(id2);
     }
 
     @Override
     public void save(final int id, final ParameterWriteAccess access) {
-        access.setInt(data[id]);
+        access.setInt(get(id));
     }
 
     @Override
     public void restore(final int id, final ParameterReadAccess access) {
-        data[id] = (short) access.getUndoInt();
+        set(id, (short) access.getUndoInt());
     }
 
     @Override
     public Object saveData() {
-        return Arrays.copyOf(data, data.length);
+        if (column == null) {
+            return Arrays.copyOf(data, data.length);
+        }
+
+        final short[] sd = new short[column.getCapacity()];
+        for (int id = 0; id < sd.length; id++) {
+            sd[id] = get(id);
+        }
+        return sd;
     }
 
     @Override
     public void restoreData(final Object savedData) {
         final short[] sd = (short[]) savedData;
-        data = Arrays.copyOf(sd, sd.length);
+        if (column == null) {
+            data = Arrays.copyOf(sd, sd.length);
+        } else {
+            column.setCapacity(sd.length);
+            for (int id = 0; id < sd.length; id++) {
+                set(id, sd[id]);
+            }
+        }
     }
 
     @Override
     public Object createReadObject(IntReadable indexReadable) {
-        return (ShortReadable) () -> data[indexReadable.readInt()];
+        return (ShortReadable) () -> get(indexReadable.readInt());
     }
 
     @Override
@@ -283,7 +339,7 @@ public class ShortAttributeDescription extends AbstractAttributeDescription {
         return new ShortVariable() {
             @Override
             public short readShort() {
-                return data[indexReadable.readInt()];
+                return get(indexReadable.readInt());
             }
 
             @Override
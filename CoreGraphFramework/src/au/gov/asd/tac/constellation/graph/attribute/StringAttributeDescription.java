@@ -15,6 +15,8 @@
  */
 package au.gov.asd.tac.constellation.graph.attribute;
 
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.NativeAttributeType;
@@ -262,6 +264,23 @@ public final class StringAttributeDescription extends AbstractAttributeDescripti
         data = Arrays.copyOf(sd, sd.length);
     }
 
+    @Override
+    public boolean supportsIndexType(final GraphIndexType indexType) {
+        return true;
+    }
+
+    @Override
+    public GraphIndex createIndex(final GraphIndexType indexType) {
+        switch (indexType) {
+            case UNORDERED:
+                return new HashGraphIndex(getCapacity(), id -> data[id], this::convertFromObject);
+            case ORDERED:
+                return new OrderedGraphIndex(getCapacity(), id -> data[id], this::convertFromObject);
+            default:
+                return NULL_GRAPH_INDEX;
+        }
+    }
+
     @Override
     public Object createReadObject(IntReadable indexReadable) {
         return (StringReadable) () -> data[indexReadable.readInt()];
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A reference counted pool of distinct strings, each identified by an integer
+ * code.
+ * <p>
+ * Two strings are equal if and only if their codes are equal, so callers can
+ * compare and hash codes instead of strings. Code {@link #NULL_CODE} always
+ * represents null and is never released. A code is recycled once its
+ * reference count falls to zero.
+ *
+ * @author sirius
+ */
+final class StringDictionary implements Serializable {
+
+    /**
+     * The code that represents a null string.
+     */
+    static final int NULL_CODE = 0;
+
+    private String[] values;
+    private int[] references;
+    private final Map<String, Integer> codes;
+    private int[] freeCodes;
+    private int freeCount;
+    private int size;
+
+    StringDictionary() {
+        values = new String[16];
+        references = new int[16];
+        codes = new HashMap<>();
+        freeCodes = new int[0];
+        freeCount = 0;
+        size = 1;
+    }
+
+    /**
+     * Create a new dictionary holding the same codes and reference counts as
+     * an existing dictionary.
+     *
+     * @param original the dictionary to copy.
+     */
+    StringDictionary(final StringDictionary original) {
+        values = Arrays.copyOf(original.values, original.values.length);
+        references = Arrays.copyOf(original.references, original.references.length);
+        codes = new HashMap<>(original.codes);
+        freeCodes = Arrays.copyOf(original.freeCodes, original.freeCodes.length);
+        freeCount = original.freeCount;
+        size = original.size;
+    }
+
+    /**
+     * The number of codes that have been allocated, including free codes and
+     * the null code. All codes are less than this value.
+     *
+     * @return the upper bound of the codes in this dictionary.
+     */
+    int getCodeLimit() {
+        return size;
+    }
+
+    /**
+     * The number of distinct non-null strings currently referenced.
+     *
+     * @return the number of distinct non-null strings in this dictionary.
+     */
+    int getValueCount() {
+        return codes.size();
+    }
+
+    String getValue(final int code) {
+        return values[code];
+    }
+
+    /**
+     * Find the code of a string without adding a reference to it.
+     *
+     * @param value the string to look up.
+     * @return the code of the string, or -1 if it is not in this dictionary.
+     */
+    int getCode(final String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        final Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Add references to a string, adding it to the dictionary if necessary.
+     *
+     * @param value the string to reference.
+     * @param count the number of references to add.
+     * @return the code of the string.
+     */
+    int acquire(final String value, final int count) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = freeCount > 0 ? freeCodes[--freeCount] : allocateCode();
+            values[code] = value;
+            codes.put(value, code);
+        }
+        references[code] += count;
+        return code;
+    }
+
+    int acquire(final String value) {
+        return acquire(value, 1);
+    }
+
+    /**
+     * Remove a reference to the string with the given code, recycling the code
+     * if there are no references left.
+     *
+     * @param code the code of the string.
+     */
+    void release(final int code) {
+        if (code != NULL_CODE && --references[code] == 0) {
+            codes.remove(values[code]);
+            values[code] = null;
+            if (freeCount == freeCodes.length) {
+                freeCodes = Arrays.copyOf(freeCodes, Math.max(16, freeCount * 2));
+            }
+            freeCodes[freeCount++] = code;
+        }
+    }
+
+    private int allocateCode() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            references = Arrays.copyOf(references, size * 2);
+        }
+        return size++;
+    }
+}
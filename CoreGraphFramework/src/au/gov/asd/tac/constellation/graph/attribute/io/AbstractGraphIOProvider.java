@@ -19,10 +19,16 @@ import au.gov.asd.tac.constellation.graph.Attribute;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import org.openide.util.Lookup;
 
@@ -39,6 +45,11 @@ import org.openide.util.Lookup;
  * {@link au.gov.asd.tac.constellation.graph.attribute.AttributeDescription} and
  * AbstractGraphIOProvider.
  * <p>
+ * Graphs can also be serialised in a binary format where the values of each
+ * attribute are written together as a column. Providers that can write their
+ * values more compactly than JSON should override
+ * {@link #writeColumn writeColumn()} and {@link #readColumn readColumn()}.
+ * <p>
  * Note that all necessary graph locking when reading and writing is handled by
  * the framework that utilises these providers.
  *
@@ -48,6 +59,8 @@ public abstract class AbstractGraphIOProvider {
 
     public static final int DEFAULT_VERSION = -1;
 
+    private static final ObjectMapper COLUMN_MAPPER = new ObjectMapper();
+
     private static Collection<? extends AbstractGraphIOProvider> registeredProviders = null;
 
     /**
@@ -139,6 +152,91 @@ public abstract class AbstractGraphIOProvider {
     public abstract void writeObject(final Attribute attribute, final int elementId, final JsonGenerator jsonGenerator,
             final GraphReadMethods readableGraph, final GraphByteWriter byteWriter, final boolean verbose) throws IOException;
 
+    /**
+     * Write the values of an attribute for a sequence of elements to a binary
+     * output.
+     * <p>
+     * The default implementation writes the values as a JSON array using
+     * {@link #writeObject writeObject()}, so every provider can take part in
+     * the binary format. Subclasses that override this method must also
+     * override {@link #readColumn readColumn()}.
+     *
+     * @param attribute The attribute being written.
+     * @param elements The ids of the elements being written, in order.
+     * @param out The output to write to.
+     * @param readableGraph The graph that the values belong to.
+     * @param byteWriter For ancillary data (e.g. images) that doesn't easily
+     * fit into a column.
+     *
+     * @throws IOException If there's a problem writing.
+     */
+    public void writeColumn(final Attribute attribute, final int[] elements, final DataOutput out,
+            final GraphReadMethods readableGraph, final GraphByteWriter byteWriter) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (final JsonGenerator jsonGenerator = COLUMN_MAPPER.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+            jsonGenerator.writeStartArray();
+            for (final int element : elements) {
+                jsonGenerator.writeStartObject();
+                writeObject(attribute, element, jsonGenerator, readableGraph, byteWriter, false);
+                jsonGenerator.writeEndObject();
+            }
+            jsonGenerator.writeEndArray();
+        }
+        out.writeInt(buffer.size());
+        out.write(buffer.toByteArray());
+    }
+
+    /**
+     * Read the values of an attribute for a sequence of elements from a binary
+     * input written by {@link #writeColumn writeColumn()}.
+     * <p>
+     * The elements are given in the same order they were written, but as ids
+     * in the graph being read into. The vertex and transaction maps are the
+     * same as those given to {@link #readObject readObject()}.
+     *
+     * @param attributeId The id of the attribute being read.
+     * @param elements The ids of the elements being read, in order.
+     * @param in The input to read from.
+     * @param writableGraph The graph that the values will be placed in.
+     * @param vertexMap A mapping from a vertex id in the file to the vertex id
+     * in the graph.
+     * @param transactionMap A mapping from a transaction id in the file to the
+     * transaction id in the graph.
+     * @param byteReader The byte reader containing ancillary data.
+     * @param cache a cache that can be used to dedup identical instances of the
+     * same immutable objects.
+     *
+     * @throws IOException If there's a problem reading.
+     */
+    public void readColumn(final int attributeId, final int[] elements, final DataInput in,
+            final GraphWriteMethods writableGraph, final Map<Integer, Integer> vertexMap, final Map<Integer, Integer> transactionMap,
+            final GraphByteReader byteReader, final ImmutableObjectCache cache) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        final JsonNode values = COLUMN_MAPPER.readTree(bytes);
+        for (int i = 0; i < elements.length; i++) {
+            final Iterator<JsonNode> value = values.get(i).elements();
+            if (value.hasNext()) {
+                readObject(attributeId, elements[i], value.next(), writableGraph, vertexMap, transactionMap, byteReader, cache);
+            }
+        }
+    }
+
+    /**
+     * Get the width in bytes of each value written by
+     * {@link #writeColumn writeColumn()}, if it writes exactly one big-endian
+     * value per element and nothing else.
+     * <p>
+     * Columns with a fixed width can be memory mapped by readers instead of
+     * being read with {@link #readColumn readColumn()}.
+     *
+     * @return The width in bytes of each value, or 0 if the column does not
+     * have a fixed width.
+     */
+    public int getColumnWidth() {
+        return 0;
+    }
+
     /**
      * Get the version of this IOProvider
      *
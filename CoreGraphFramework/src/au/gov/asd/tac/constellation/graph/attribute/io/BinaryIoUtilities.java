@@ -0,0 +1,159 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute.io;
+
+import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Helpers for reading and writing values in the binary graph format.
+ * <p>
+ * Strings are written as a length followed by their UTF-8 bytes so that,
+ * unlike {@link DataOutput#writeUTF}, they are not limited to 64K. String
+ * columns are dictionary encoded: each distinct value is written once followed
+ * by a code for each element, using the narrowest code width that fits.
+ *
+ * @author sirius
+ */
+public final class BinaryIoUtilities {
+
+    private static final int NULL_LENGTH = -1;
+
+    private BinaryIoUtilities() {
+    }
+
+    /**
+     * Write a possibly null string.
+     *
+     * @param value the string to write.
+     * @param out the output to write to.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void writeString(final String value, final DataOutput out) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Read a possibly null string written by {@link #writeString}.
+     *
+     * @param in the input to read from.
+     *
+     * @return the string that was read.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public static String readString(final DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a column of strings using dictionary encoding.
+     *
+     * @param values the strings to write, one for each element.
+     * @param out the output to write to.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void writeStringColumn(final String[] values, final DataOutput out) throws IOException {
+        final Map<String, Integer> dictionary = new HashMap<>();
+        final String[] distinct = new String[values.length];
+        final int[] codes = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            Integer code = dictionary.get(values[i]);
+            if (code == null) {
+                code = dictionary.size();
+                distinct[code] = values[i];
+                dictionary.put(values[i], code);
+            }
+            codes[i] = code;
+        }
+
+        final int distinctCount = dictionary.size();
+        out.writeInt(distinctCount);
+        for (int i = 0; i < distinctCount; i++) {
+            writeString(distinct[i], out);
+        }
+
+        if (distinctCount <= 1 << Byte.SIZE) {
+            for (final int code : codes) {
+                out.writeByte(code);
+            }
+        } else if (distinctCount <= 1 << Short.SIZE) {
+            for (final int code : codes) {
+                out.writeShort(code);
+            }
+        } else {
+            for (final int code : codes) {
+                out.writeInt(code);
+            }
+        }
+    }
+
+    /**
+     * Read a column of strings written by {@link #writeStringColumn}.
+     *
+     * @param count the number of elements in the column.
+     * @param in the input to read from.
+     * @param cache a cache used to share identical strings across columns, or
+     * null.
+     *
+     * @return the strings that were read, one for each element.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public static String[] readStringColumn(final int count, final DataInput in, final ImmutableObjectCache cache) throws IOException {
+        final int distinctCount = in.readInt();
+        final String[] distinct = new String[distinctCount];
+        for (int i = 0; i < distinctCount; i++) {
+            final String value = readString(in);
+            distinct[i] = cache == null ? value : cache.deduplicate(value);
+        }
+
+        final String[] values = new String[count];
+        if (distinctCount <= 1 << Byte.SIZE) {
+            for (int i = 0; i < count; i++) {
+                values[i] = distinct[in.readUnsignedByte()];
+            }
+        } else if (distinctCount <= 1 << Short.SIZE) {
+            for (int i = 0; i < count; i++) {
+                values[i] = distinct[in.readUnsignedShort()];
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                values[i] = distinct[in.readInt()];
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute.io;
+
+import au.gov.asd.tac.constellation.graph.Attribute;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.attribute.DictionaryStringAttributeDescription;
+import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * IOProvider for attributes described by
+ * {@link au.gov.asd.tac.constellation.graph.attribute.DictionaryStringAttributeDescription}
+ * <p>
+ * Values are not deduplicated through the object cache because the attribute
+ * already holds each distinct value once.
+ *
+ * @author sirius
+ */
+@ServiceProvider(service = AbstractGraphIOProvider.class)
+public class DictionaryStringIOProvider extends AbstractGraphIOProvider {
+
+    @Override
+    public String getName() {
+        return DictionaryStringAttributeDescription.ATTRIBUTE_NAME;
+    }
+
+    @Override
+    public void readObject(final int attributeId, final int elementId, final JsonNode jnode,
+            final GraphWriteMethods graph, final Map<Integer, Integer> vertexMap, final Map<Integer, Integer> transactionMap,
+            final GraphByteReader byteReader, final ImmutableObjectCache cache) throws IOException {
+        final String attributeValue = jnode.isNull() ? null : jnode.textValue();
+        graph.setStringValue(attributeId, elementId, attributeValue);
+    }
+
+    @Override
+    public void writeObject(final Attribute attr, final int elementId, final JsonGenerator jsonGenerator,
+            final GraphReadMethods graph, final GraphByteWriter byteWriter, final boolean verbose) throws IOException {
+        if (verbose || !graph.isDefaultValue(attr.getId(), elementId)) {
+            final String attributeValue = graph.getStringValue(attr.getId(), elementId);
+            if (attributeValue == null) {
+                jsonGenerator.writeNullField(attr.getName());
+            } else {
+                jsonGenerator.writeStringField(attr.getName(), attributeValue);
+            }
+        }
+    }
+
+    @Override
+    public void writeColumn(final Attribute attribute, final int[] elements, final DataOutput out,
+            final GraphReadMethods graph, final GraphByteWriter byteWriter) throws IOException {
+        final String[] values = new String[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            values[i] = graph.getStringValue(attribute.getId(), elements[i]);
+        }
+        BinaryIoUtilities.writeStringColumn(values, out);
+    }
+
+    @Override
+    public void readColumn(final int attributeId, final int[] elements, final DataInput in,
+            final GraphWriteMethods graph, final Map<Integer, Integer> vertexMap, final Map<Integer, Integer> transactionMap,
+            final GraphByteReader byteReader, final ImmutableObjectCache cache) throws IOException {
+        final String[] values = BinaryIoUtilities.readStringColumn(elements.length, in, null);
+        for (int i = 0; i < elements.length; i++) {
+            graph.setStringValue(attributeId, elements[i], values[i]);
+        }
+    }
+}
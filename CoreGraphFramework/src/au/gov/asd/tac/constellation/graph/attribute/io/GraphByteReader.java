@@ -68,6 +68,19 @@ public class GraphByteReader {
      * @throws IOException If an I/O error occurs.
      */
     public ExtendedBuffer read(final String reference) throws IOException {
+        // Entries of a zip file are only read when they are asked for.
+        if (zf != null && !contents.containsKey(reference)) {
+            final ZipEntry entry = zf.getEntry(reference);
+            if (entry != null) {
+                final ExtendedBuffer out = new ExtendedBuffer(1 << 16);
+                try (final InputStream in = zf.getInputStream(entry)) {
+                    GraphByteWriter.copy(in, out.getOutputStream());
+                } finally {
+                    out.getOutputStream().close();
+                }
+                contents.put(reference, out);
+            }
+        }
         return contents.get(reference);
     }
 }
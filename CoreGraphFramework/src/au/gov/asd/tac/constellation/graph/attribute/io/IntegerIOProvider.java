@@ -22,6 +22,8 @@ import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
 import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Map;
 import org.openide.util.lookup.ServiceProvider;
@@ -56,4 +58,26 @@ public class IntegerIOProvider extends AbstractGraphIOProvider {
             jsonGenerator.writeNumberField(attribute.getName(), attributeValue);
         }
     }
+
+    @Override
+    public void writeColumn(final Attribute attribute, final int[] elements, final DataOutput out,
+            final GraphReadMethods graph, final GraphByteWriter byteWriter) throws IOException {
+        for (final int element : elements) {
+            out.writeInt(graph.getIntValue(attribute.getId(), element));
+        }
+    }
+
+    @Override
+    public void readColumn(final int attributeId, final int[] elements, final DataInput in,
+            final GraphWriteMethods graph, final Map<Integer, Integer> vertexMap, final Map<Integer, Integer> transactionMap,
+            final GraphByteReader byteReader, final ImmutableObjectCache cache) throws IOException {
+        for (final int element : elements) {
+            graph.setIntValue(attributeId, element, in.readInt());
+        }
+    }
+
+    @Override
+    public int getColumnWidth() {
+        return Integer.BYTES;
+    }
 }
@@ -22,6 +22,8 @@ import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
 import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Map;
 import org.openide.util.lookup.ServiceProvider;
@@ -60,4 +62,24 @@ public class StringIOProvider extends AbstractGraphIOProvider {
             }
         }
     }
+
+    @Override
+    public void writeColumn(final Attribute attribute, final int[] elements, final DataOutput out,
+            final GraphReadMethods graph, final GraphByteWriter byteWriter) throws IOException {
+        final String[] values = new String[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            values[i] = graph.getStringValue(attribute.getId(), elements[i]);
+        }
+        BinaryIoUtilities.writeStringColumn(values, out);
+    }
+
+    @Override
+    public void readColumn(final int attributeId, final int[] elements, final DataInput in,
+            final GraphWriteMethods graph, final Map<Integer, Integer> vertexMap, final Map<Integer, Integer> transactionMap,
+            final GraphByteReader byteReader, final ImmutableObjectCache cache) throws IOException {
+        final String[] values = BinaryIoUtilities.readStringColumn(elements.length, in, cache);
+        for (int i = 0; i < elements.length; i++) {
+            graph.setStringValue(attributeId, elements[i], values[i]);
+        }
+    }
 }
@@ -22,6 +22,7 @@ import au.gov.asd.tac.constellation.graph.WritableGraph;
 import au.gov.asd.tac.constellation.graph.monitor.GraphChangeEvent;
 import au.gov.asd.tac.constellation.graph.monitor.GraphChangeListener;
 import au.gov.asd.tac.constellation.graph.schema.Schema;
+import au.gov.asd.tac.constellation.graph.undo.GraphEditListener;
 import au.gov.asd.tac.constellation.utilities.memory.MemoryManager;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -226,4 +227,9 @@ public class DualGraph implements Graph, Serializable {
     public void setUndoManager(final UndoManager undoManager) {
         lockingManager.setUndoManager(undoManager);
     }
+
+    @Override
+    public void setGraphEditListener(final GraphEditListener listener) {
+        lockingManager.setGraphEditListener(listener);
+    }
 }
@@ -17,7 +17,11 @@ package au.gov.asd.tac.constellation.graph.locking;
 
 import au.gov.asd.tac.constellation.graph.DuplicateKeyException;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.undo.GraphEditListener;
+import au.gov.asd.tac.constellation.graph.undo.SpillableEdit;
 import au.gov.asd.tac.constellation.graph.undo.UndoGraphEdit;
+import au.gov.asd.tac.constellation.graph.undo.UndoSpillFile;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -50,6 +54,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
     private LockingEdit currentEdit = null;
     private LockingEdit initialEdit = null;
     private UndoManager undoManager;
+    private volatile GraphEditListener graphEditListener;
 
     public void setTargets(final T targetA, final T targetB) {
         a = readContext = new Context(targetA);
@@ -62,6 +67,10 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
         this.undoManager = undoManager;
     }
 
+    public final void setGraphEditListener(final GraphEditListener graphEditListener) {
+        this.graphEditListener = graphEditListener;
+    }
+
     private final class Context {
 
         ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
@@ -173,7 +182,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
         currentEdit.rollBack();
     }
 
-    public final class LockingEdit implements UndoableEdit {
+    public final class LockingEdit implements SpillableEdit {
 
         private String name;
         private final boolean significant;
@@ -221,6 +230,39 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
             graphEdit.undo((GraphWriteMethods) target);
         }
 
+        /**
+         * Tell the GraphEditListener about the edits of this LockingEdit in
+         * the order that execute() or undo() applies them.
+         *
+         * @param undo true if the edits were undone.
+         */
+        private void editApplied(final boolean undo) {
+            final GraphEditListener listener = graphEditListener;
+            if (listener == null) {
+                return;
+            }
+
+            if (!undo) {
+                listener.editApplied(graphEdit, false);
+            }
+
+            if (followingChildren != null) {
+                if (undo) {
+                    for (int i = followingChildren.size() - 1; i >= 0; i--) {
+                        followingChildren.get(i).editApplied(true);
+                    }
+                } else {
+                    for (LockingEdit followingChild : followingChildren) {
+                        followingChild.editApplied(false);
+                    }
+                }
+            }
+
+            if (undo) {
+                listener.editApplied(graphEdit, true);
+            }
+        }
+
         public LockingEdit(final String name, final boolean significant, final Object editor) {
             this.name = name;
             this.significant = significant;
@@ -242,6 +284,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
                     undo(writeContext.target);
                     writeContext.target.validateKeys();
                     writeContext.target.setOperationMode(GraphOperationMode.EXECUTE);
+                    editApplied(true);
 
                     // Switch the read context to the write context
                     final Context originalReadContext = readContext;
@@ -288,6 +331,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
                     execute(writeContext.target);
                     writeContext.target.validateKeys();
                     writeContext.target.setOperationMode(GraphOperationMode.EXECUTE);
+                    editApplied(false);
 
                     // Switch the read context to the write context
                     final Context originalReadContext = readContext;
@@ -322,6 +366,31 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
         @Override
         public void die() {
             alive = false;
+            if (followingChildren != null) {
+                for (LockingEdit followingChild : followingChildren) {
+                    followingChild.die();
+                }
+            }
+        }
+
+        @Override
+        public long getMemorySize() {
+            return graphEdit.getMemorySize();
+        }
+
+        @Override
+        public boolean spill(final UndoSpillFile spillFile) {
+            return graphEdit.spill(spillFile);
+        }
+
+        @Override
+        public long getSpillSize() {
+            return graphEdit.getSpillSize();
+        }
+
+        @Override
+        public void moveSpill(final UndoSpillFile spillFile) throws IOException {
+            graphEdit.moveSpill(spillFile);
         }
 
         @Override
@@ -382,6 +451,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
             if (parent == null) {
 
                 writeContext.target.setGraphEdit(null);
+                editApplied(false);
 
                 Context originalReadContext = readContext;
                 readContext = writeContext;
@@ -426,6 +496,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
             finished();
 
             if (parent == null) {
+                editApplied(false);
 
                 Context originalReadContext = readContext;
                 readContext = writeContext;
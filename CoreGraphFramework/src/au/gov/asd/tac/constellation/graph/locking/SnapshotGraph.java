@@ -0,0 +1,646 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import au.gov.asd.tac.constellation.graph.DuplicateKeyException;
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.monitor.GraphChangeEvent;
+import au.gov.asd.tac.constellation.graph.monitor.GraphChangeListener;
+import au.gov.asd.tac.constellation.graph.schema.Schema;
+import au.gov.asd.tac.constellation.graph.undo.GraphEditListener;
+import au.gov.asd.tac.constellation.graph.undo.SpillableEdit;
+import au.gov.asd.tac.constellation.graph.undo.UndoGraphEdit;
+import au.gov.asd.tac.constellation.graph.undo.UndoSpillFile;
+import au.gov.asd.tac.constellation.utilities.memory.MemoryManager;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.application.Platform;
+import javax.swing.SwingUtilities;
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import javax.swing.undo.UndoManager;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * A SnapshotGraph is an alternative to {@link DualGraph} that holds a single
+ * copy of the graph and gives readers immutable copy-on-write snapshots.
+ * <p>
+ * A DualGraph keeps two complete StoreGraphs and replays every committed edit
+ * onto the second one, so every graph costs twice its memory and every edit is
+ * performed twice. A SnapshotGraph instead keeps one writable StoreGraph. Each
+ * time a write is committed, a new snapshot is published that shares the
+ * element stores and attribute columns of the writable graph (see
+ * {@link StoreGraph#StoreGraph(String, Schema, StoreGraph, boolean)}), leaving
+ * the writable graph to copy what it modifies after that:
+ * <ul>
+ * <li>The first structural change after a commit copies one reference for each
+ * page of the element and list stores, and then only the pages it touches.</li>
+ * <li>The first change to a primitive attribute held off-heap copies only the
+ * pages it touches.</li>
+ * <li>The first change to any other attribute copies that attribute's whole
+ * column and rebuilds its attribute index, if it has one. Other columns are
+ * never copied.</li>
+ * </ul>
+ * <p>
+ * Readers are given the most recently published snapshot and never block
+ * writers: a reader holding an old snapshot simply continues to see the graph
+ * as it was when the read began, and the snapshot is reclaimed by the garbage
+ * collector once the last reader has released it. A thread holding the write
+ * lock that asks for a read lock is given the writable graph so that it sees
+ * its own changes, mirroring the behaviour of DualGraph.
+ * <p>
+ * Locking, nesting, rollback and undo/redo behave as they do for a DualGraph.
+ *
+ * @author sirius
+ */
+public class SnapshotGraph implements Graph, Serializable {
+
+    private static final Logger LOGGER = Logger.getLogger(SnapshotGraph.class.getName());
+
+    private final ArrayList<GraphChangeListener> graphChangeListeners = new ArrayList<>();
+    private final ReentrantLock globalWriteLock = new ReentrantLock(true);
+    private final WriteTarget target;
+    private volatile ReadTarget snapshot;
+    private final String id;
+    private final Schema schema;
+    private GraphChangeEvent previousEvent = null;
+    private SnapshotEdit currentEdit = null;
+    private SnapshotEdit initialEdit = null;
+    private UndoManager undoManager;
+    private volatile GraphEditListener graphEditListener;
+
+    public SnapshotGraph(final Schema schema) {
+        this.id = UUID.randomUUID().toString();
+        this.schema = schema;
+        this.target = new WriteTarget(id, new StoreGraph(schema, id));
+        this.snapshot = new ReadTarget(target);
+
+        MemoryManager.newObject(SnapshotGraph.class);
+    }
+
+    /**
+     * Creates a new SnapshotGraph from a target StoreGraph. The new
+     * SnapshotGraph gets a copy of the target's schema.
+     *
+     * @param target the StoreGraph representing the initial state of the
+     * SnapshotGraph.
+     * @param newId if true then the SnapshotGraph gets a new id, otherwise it
+     * is copied from the target.
+     */
+    public SnapshotGraph(final StoreGraph target, final boolean newId) {
+        this(target.getSchema(), target, newId);
+    }
+
+    public SnapshotGraph(final Schema schema, final StoreGraph target) {
+        this(schema, target, false);
+    }
+
+    /**
+     * Creates a new SnapshotGraph from a target StoreGraph.
+     * <p>
+     * The SnapshotGraph shares the structure and attribute columns of the
+     * target rather than copying them, so any memory-mapped columns remain
+     * backed by their file. The target may still be used afterwards: it is
+     * shared copy-on-write, so changes to either graph are not seen by the
+     * other.
+     *
+     * @param schema the schema of the new SnapshotGraph; the SnapshotGraph gets
+     * a copy of it.
+     * @param target the StoreGraph representing the initial state of the
+     * SnapshotGraph.
+     * @param newId if true then the SnapshotGraph gets a new id, otherwise it
+     * is copied from the target.
+     */
+    public SnapshotGraph(final Schema schema, final StoreGraph target, final boolean newId) {
+
+        target.validateKeys();
+
+        this.id = newId ? UUID.randomUUID().toString() : target.getId();
+        this.schema = schema == null ? null : schema.getFactory().createSchema();
+        this.target = new WriteTarget(id, target);
+        this.snapshot = new ReadTarget(this.target);
+
+        MemoryManager.newObject(SnapshotGraph.class);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void finalize() throws Throwable {
+        try {
+            MemoryManager.finalizeObject(SnapshotGraph.class);
+        } finally {
+            super.finalize();
+        }
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public void addGraphChangeListener(final GraphChangeListener listener) {
+        synchronized (graphChangeListeners) {
+            if (listener != null && !graphChangeListeners.contains(listener)) {
+                graphChangeListeners.add(listener);
+            }
+        }
+        LOGGER.log(Level.FINE, "Added GraphChangeListener, count is {0}", graphChangeListeners.size());
+    }
+
+    @Override
+    public void removeGraphChangeListener(final GraphChangeListener listener) {
+        synchronized (graphChangeListeners) {
+            graphChangeListeners.remove(listener);
+        }
+        LOGGER.log(Level.FINE, "Removed GraphChangeListener, count is {0}", graphChangeListeners.size());
+    }
+
+    @Override
+    public ReadableGraph getReadableGraph() {
+        return globalWriteLock.isHeldByCurrentThread() ? target : snapshot;
+    }
+
+    @Override
+    public WritableGraph getWritableGraph(final String name, final boolean significant) throws InterruptedException {
+        return getWritableGraph(name, significant, null);
+    }
+
+    @Override
+    public WritableGraph getWritableGraph(final String name, final boolean significant, final Object editor) throws InterruptedException {
+        if (SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("Attempting to write on the EDT");
+        }
+        if (Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("Attempting to write on the JavaFX Application Thread");
+        }
+
+        globalWriteLock.lockInterruptibly();
+        return startWriting(name, significant, editor);
+    }
+
+    @Override
+    public WritableGraph getWritableGraphNow(final String name, final boolean significant) {
+        return getWritableGraphNow(name, significant, null);
+    }
+
+    @Override
+    public WritableGraph getWritableGraphNow(final String name, final boolean significant, final Object editor) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("Attempting to write on the EDT");
+        }
+
+        try {
+            if (globalWriteLock.tryLock(0, TimeUnit.SECONDS)) {
+                return startWriting(name, significant, editor);
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    @Override
+    public void setUndoManager(final UndoManager undoManager) {
+        this.undoManager = undoManager;
+    }
+
+    @Override
+    public void setGraphEditListener(final GraphEditListener listener) {
+        this.graphEditListener = listener;
+    }
+
+    private WriteTarget startWriting(final String name, final boolean significant, final Object editor) {
+        final SnapshotEdit edit = new SnapshotEdit(name, significant, editor);
+        if (currentEdit == null) {
+            initialEdit = edit;
+        } else {
+            edit.parent = currentEdit;
+        }
+        currentEdit = edit;
+
+        target.setGraphEdit(currentEdit.graphEdit);
+        currentEdit.modificationCounter = target.getModificationCounter();
+
+        if (LockingManager.VERBOSE) {
+            System.out.println("Write lock acquired for " + name + " by " + Thread.currentThread());
+        }
+
+        return target;
+    }
+
+    /**
+     * Publish the current state of the writable graph as the snapshot seen by
+     * new readers. This must only be called while holding the global write
+     * lock.
+     */
+    private void publishSnapshot() {
+        snapshot = new ReadTarget(target);
+    }
+
+    private void update(final Object description, final Object editor) {
+        final GraphChangeEvent event = new GraphChangeEvent(previousEvent, SnapshotGraph.this, editor, description);
+        previousEvent = event;
+        SwingUtilities.invokeLater(() -> {
+            synchronized (graphChangeListeners) {
+                for (final GraphChangeListener listener : graphChangeListeners) {
+                    listener.graphChanged(event);
+                }
+            }
+        });
+    }
+
+    private void checkWriteLock(final String operation) {
+        if (currentEdit == null || !globalWriteLock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException(operation + ": attempt to unlock write lock, not locked by current thread");
+        }
+    }
+
+    /**
+     * The immutable graph handed to readers. Snapshots are never modified so no
+     * lock needs to be held while reading them.
+     */
+    private final class ReadTarget extends StoreGraph implements ReadableGraph {
+
+        private ReadTarget(final StoreGraph original) {
+            super(original.getId(), schema, original, false);
+        }
+
+        @Override
+        public void release() {
+            // Snapshots are immutable and are reclaimed once no longer referenced.
+        }
+    }
+
+    /**
+     * The single writable graph, modified only by the thread holding the
+     * global write lock.
+     */
+    private final class WriteTarget extends StoreGraph implements ReadableGraph, WritableGraph {
+
+        private WriteTarget(final String id, final StoreGraph original) {
+            super(id, schema, original, true);
+        }
+
+        @Override
+        public void release() {
+            // Only handed out as a readable graph to the thread holding the write lock.
+        }
+
+        @Override
+        public void commit() throws DuplicateKeyException {
+            commit(null);
+        }
+
+        @Override
+        public void commit(final Object description) throws DuplicateKeyException {
+            commit(description, null);
+        }
+
+        @Override
+        public void commit(final Object description, final String commitName) {
+            checkWriteLock("commit");
+            if (currentEdit.modificationCounter != getModificationCounter()) {
+                currentEdit.commit(description, commitName);
+            } else {
+                currentEdit.rollBack(currentEdit.parent == null);
+            }
+
+            if (LockingManager.VERBOSE) {
+                System.out.println("Write lock committed by " + Thread.currentThread());
+            }
+        }
+
+        @Override
+        public WritableGraph flush(final boolean announce) {
+            return flush(null, announce);
+        }
+
+        @Override
+        public WritableGraph flush(final Object description, final boolean announce) {
+            checkWriteLock("flush");
+            if (currentEdit.modificationCounter != getModificationCounter()) {
+                currentEdit.flush(description, announce);
+            }
+            return this;
+        }
+
+        @Override
+        public void rollBack() {
+            checkWriteLock("rollback");
+            currentEdit.rollBack(true);
+        }
+    }
+
+    private final class SnapshotEdit implements SpillableEdit {
+
+        private String name;
+        private final boolean significant;
+        private final Object editor;
+        private final AtomicBoolean executed = new AtomicBoolean(true);
+        private boolean alive = true;
+        private SnapshotEdit parent;
+        private long modificationCounter;
+        private List<SnapshotEdit> followingChildren = null;
+        private final UndoGraphEdit graphEdit = new UndoGraphEdit();
+
+        private SnapshotEdit(final String name, final boolean significant, final Object editor) {
+            this.name = name;
+            this.significant = significant;
+            this.editor = editor;
+        }
+
+        private void execute() {
+            graphEdit.execute(target);
+
+            if (followingChildren != null) {
+                for (final SnapshotEdit followingChild : followingChildren) {
+                    followingChild.execute();
+                }
+            }
+        }
+
+        private void undo(final boolean validateKeys) {
+            if (followingChildren != null) {
+                for (int i = followingChildren.size() - 1; i >= 0; i--) {
+                    followingChildren.get(i).undo(false);
+                }
+            }
+
+            graphEdit.undo(target);
+
+            if (validateKeys) {
+                target.validateKeys();
+            }
+        }
+
+        /**
+         * Tell the GraphEditListener about the edits of this SnapshotEdit in
+         * the order that execute() or undo() applies them.
+         */
+        private void editApplied(final boolean undo) {
+            final GraphEditListener listener = graphEditListener;
+            if (listener == null) {
+                return;
+            }
+
+            if (!undo) {
+                listener.editApplied(graphEdit, false);
+            }
+
+            if (followingChildren != null) {
+                if (undo) {
+                    for (int i = followingChildren.size() - 1; i >= 0; i--) {
+                        followingChildren.get(i).editApplied(true);
+                    }
+                } else {
+                    for (final SnapshotEdit followingChild : followingChildren) {
+                        followingChild.editApplied(false);
+                    }
+                }
+            }
+
+            if (undo) {
+                listener.editApplied(graphEdit, true);
+            }
+        }
+
+        private void announce() {
+            if (undoManager != null) {
+                SwingUtilities.invokeLater(() -> undoManager.undoableEditHappened(new UndoableEditEvent(SnapshotGraph.this, SnapshotEdit.this)));
+            }
+        }
+
+        @Override
+        public void undo() {
+            if (!canUndo() || !executed.compareAndSet(true, false)) {
+                throw new CannotUndoException();
+            }
+
+            new Thread(() -> {
+                globalWriteLock.lock();
+                try {
+                    target.setOperationMode(GraphOperationMode.UNDO);
+                    undo(true);
+                    target.setOperationMode(GraphOperationMode.EXECUTE);
+                    editApplied(true);
+                    publishSnapshot();
+                } finally {
+                    globalWriteLock.unlock();
+                }
+            }).start();
+
+            update(null, null);
+        }
+
+        @Override
+        public boolean canUndo() {
+            return alive && executed.get();
+        }
+
+        @Override
+        public void redo() {
+            if (!canRedo() || !executed.compareAndSet(false, true)) {
+                throw new CannotRedoException();
+            }
+
+            new Thread(() -> {
+                globalWriteLock.lock();
+                try {
+                    target.setOperationMode(GraphOperationMode.REDO);
+                    execute();
+                    target.validateKeys();
+                    target.setOperationMode(GraphOperationMode.EXECUTE);
+                    editApplied(false);
+                    publishSnapshot();
+                } finally {
+                    globalWriteLock.unlock();
+                }
+            }).start();
+
+            update(null, null);
+        }
+
+        @Override
+        public boolean canRedo() {
+            return alive && !executed.get();
+        }
+
+        @Override
+        public void die() {
+            alive = false;
+            if (followingChildren != null) {
+                for (SnapshotEdit followingChild : followingChildren) {
+                    followingChild.die();
+                }
+            }
+        }
+
+        @Override
+        public long getMemorySize() {
+            return graphEdit.getMemorySize();
+        }
+
+        @Override
+        public boolean spill(final UndoSpillFile spillFile) {
+            return graphEdit.spill(spillFile);
+        }
+
+        @Override
+        public long getSpillSize() {
+            return graphEdit.getSpillSize();
+        }
+
+        @Override
+        public void moveSpill(final UndoSpillFile spillFile) throws IOException {
+            graphEdit.moveSpill(spillFile);
+        }
+
+        @Override
+        public boolean addEdit(final UndoableEdit edit) {
+            if (edit instanceof SnapshotEdit) {
+                final SnapshotEdit snapshotEdit = (SnapshotEdit) edit;
+                if (!snapshotEdit.significant) {
+                    if (followingChildren == null) {
+                        followingChildren = new ArrayList<>();
+                    }
+                    followingChildren.add(snapshotEdit);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean replaceEdit(final UndoableEdit anEdit) {
+            return false;
+        }
+
+        @Override
+        public boolean isSignificant() {
+            return significant;
+        }
+
+        @Override
+        public String getPresentationName() {
+            return name;
+        }
+
+        @Override
+        public String getUndoPresentationName() {
+            return "Undo " + name;
+        }
+
+        @Override
+        public String getRedoPresentationName() {
+            return "Redo " + name;
+        }
+
+        private void commit(final Object description, final String commitName) throws DuplicateKeyException {
+            try {
+                target.validateKeys();
+            } catch (final DuplicateKeyException ex) {
+                rollBack(parent == null);
+                throw ex;
+            }
+
+            graphEdit.finish();
+
+            if (commitName != null) {
+                initialEdit.name = commitName;
+            }
+
+            if (parent == null) {
+                target.setGraphEdit(null);
+                editApplied(false);
+                publishSnapshot();
+
+                announce();
+                currentEdit = null;
+                initialEdit = null;
+                globalWriteLock.unlock();
+
+                update(description, editor);
+            } else {
+                parent.graphEdit.addChild(graphEdit);
+                currentEdit = parent;
+                target.setGraphEdit(currentEdit.graphEdit);
+                globalWriteLock.unlock();
+            }
+        }
+
+        private void flush(final Object description, final boolean announce) {
+            try {
+                target.validateKeys();
+            } catch (final DuplicateKeyException ex) {
+                rollBack(parent == null);
+                throw ex;
+            }
+
+            target.setGraphEdit(null);
+            graphEdit.finish();
+
+            final SnapshotEdit nextEdit = new SnapshotEdit(name, false, editor);
+            if (parent == null) {
+                editApplied(false);
+                publishSnapshot();
+
+                announce();
+                if (announce) {
+                    update(description, editor);
+                }
+            } else {
+                parent.graphEdit.addChild(graphEdit);
+                nextEdit.parent = currentEdit;
+            }
+            currentEdit = nextEdit;
+            currentEdit.modificationCounter = target.getModificationCounter();
+            target.setGraphEdit(currentEdit.graphEdit);
+        }
+
+        private void rollBack(final boolean validateKeys) {
+            target.setGraphEdit(null);
+            graphEdit.finish();
+            target.setOperationMode(GraphOperationMode.UNDO);
+            undo(validateKeys);
+            target.setOperationMode(GraphOperationMode.EXECUTE);
+            currentEdit = parent;
+            if (currentEdit == null) {
+                initialEdit = null;
+            } else {
+                target.setGraphEdit(currentEdit.graphEdit);
+            }
+            globalWriteLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.operations;
+
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import java.io.Serializable;
+
+/**
+ * The SetColumnValuesOperation records a bulk write of primitive values to a
+ * single attribute, as made by methods such as
+ * {@link GraphWriteMethods#setFloatValues(int, int[], float[])}. The ids of the
+ * elements and their old and new values are held as arrays, so the whole write
+ * takes a single step on the undo/redo stack, and both undo and redo are
+ * themselves bulk writes.
+ * <p>
+ * The old values must be read before any of the new values are written, so
+ * that an element appearing more than once is restored to its original value.
+ *
+ * @author sirius
+ */
+public class SetColumnValuesOperation extends GraphOperation implements Serializable {
+
+    private final int attribute;
+    private final int[] ids;
+    private final Object oldValues;
+    private final Object newValues;
+
+    /**
+     * Create an operation from arrays of any of the supported primitive types.
+     *
+     * @param attribute the attribute that was written.
+     * @param ids the elements that were written.
+     * @param oldValues the values held before the write.
+     * @param newValues the values written.
+     * @throws IllegalArgumentException if the old and new values are not
+     * int, long, float, double or boolean arrays of the same type.
+     */
+    public SetColumnValuesOperation(final int attribute, final int[] ids, final Object oldValues, final Object newValues) {
+        if (!(newValues instanceof int[] || newValues instanceof long[] || newValues instanceof float[]
+                || newValues instanceof double[] || newValues instanceof boolean[])
+                || oldValues == null || oldValues.getClass() != newValues.getClass()) {
+            throw new IllegalArgumentException("Expected old and new values as arrays of the same primitive type");
+        }
+        this.attribute = attribute;
+        this.ids = ids;
+        this.oldValues = oldValues;
+        this.newValues = newValues;
+    }
+
+    public SetColumnValuesOperation(final int attribute, final int[] ids, final int[] oldValues, final int[] newValues) {
+        this(attribute, ids, (Object) oldValues, (Object) newValues);
+    }
+
+    public SetColumnValuesOperation(final int attribute, final int[] ids, final long[] oldValues, final long[] newValues) {
+        this(attribute, ids, (Object) oldValues, (Object) newValues);
+    }
+
+    public SetColumnValuesOperation(final int attribute, final int[] ids, final float[] oldValues, final float[] newValues) {
+        this(attribute, ids, (Object) oldValues, (Object) newValues);
+    }
+
+    public SetColumnValuesOperation(final int attribute, final int[] ids, final double[] oldValues, final double[] newValues) {
+        this(attribute, ids, (Object) oldValues, (Object) newValues);
+    }
+
+    public SetColumnValuesOperation(final int attribute, final int[] ids, final boolean[] oldValues, final boolean[] newValues) {
+        this(attribute, ids, (Object) oldValues, (Object) newValues);
+    }
+
+    @Override
+    public void execute(final GraphWriteMethods graph) {
+        setValues(graph, newValues);
+    }
+
+    @Override
+    public void undo(final GraphWriteMethods graph) {
+        setValues(graph, oldValues);
+    }
+
+    private void setValues(final GraphWriteMethods graph, final Object values) {
+        if (values instanceof float[]) {
+            graph.setFloatValues(attribute, ids, (float[]) values);
+        } else if (values instanceof int[]) {
+            graph.setIntValues(attribute, ids, (int[]) values);
+        } else if (values instanceof double[]) {
+            graph.setDoubleValues(attribute, ids, (double[]) values);
+        } else if (values instanceof long[]) {
+            graph.setLongValues(attribute, ids, (long[]) values);
+        } else {
+            graph.setBooleanValues(attribute, ids, (boolean[]) values);
+        }
+    }
+
+    @Override
+    public int size() {
+        final int valueSize;
+        if (newValues instanceof float[] || newValues instanceof int[]) {
+            valueSize = 4;
+        } else if (newValues instanceof double[] || newValues instanceof long[]) {
+            valueSize = 8;
+        } else {
+            valueSize = 1;
+        }
+        return ids.length * (4 + valueSize * 2);
+    }
+}
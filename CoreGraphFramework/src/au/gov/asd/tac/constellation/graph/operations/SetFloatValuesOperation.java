@@ -85,22 +85,33 @@ public class SetFloatValuesOperation extends GraphOperation {
 
     @Override
     public void execute(final GraphWriteMethods graph) {
-        for (int i = 0; i < changes.length; i++) {
-            if (changes[i] != 0) {
-                int element = offset + i;
-                graph.setFloatValue(attribute, element, Float.intBitsToFloat(Float.floatToRawIntBits(graph.getFloatValue(attribute, element)) ^ changes[i]));
-            }
-        }
+        applyChanges(graph);
     }
 
     @Override
     public void undo(final GraphWriteMethods graph) {
+        applyChanges(graph);
+    }
+
+    // The changes are xor deltas, so applying them again reverses them.
+    private void applyChanges(final GraphWriteMethods graph) {
+        int count = 0;
+        for (final int change : changes) {
+            if (change != 0) {
+                count++;
+            }
+        }
+        final int[] elements = new int[count];
+        final float[] values = new float[count];
+        count = 0;
         for (int i = 0; i < changes.length; i++) {
             if (changes[i] != 0) {
-                int element = offset + i;
-                graph.setFloatValue(attribute, element, Float.intBitsToFloat(Float.floatToRawIntBits(graph.getFloatValue(attribute, element)) ^ changes[i]));
+                final int element = offset + i;
+                elements[count] = element;
+                values[count++] = Float.intBitsToFloat(Float.floatToRawIntBits(graph.getFloatValue(attribute, element)) ^ changes[i]);
             }
         }
+        graph.setFloatValues(attribute, elements, values);
     }
 
     @Override
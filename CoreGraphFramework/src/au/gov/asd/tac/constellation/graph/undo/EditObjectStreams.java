@@ -0,0 +1,179 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.undo;
+
+import au.gov.asd.tac.constellation.graph.GraphAttribute;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.AttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.AttributeRegistry;
+import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
+import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The object streams used to write the objects of an {@link UndoGraphEdit}.
+ * <p>
+ * Attribute values that are not Serializable, such as schema types, icons and
+ * decorators, are written by the {@link AbstractGraphIOProvider} of the
+ * attribute type that holds them, just as they are when a graph is saved, so
+ * they are read back as the same instances a graph file would give.
+ *
+ * @author sirius
+ */
+final class EditObjectStreams {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String VALUE_NAME = "value";
+    private static final String NO_ATTRIBUTE_TYPE = "";
+    private static final Map<Class<?>, String> ATTRIBUTE_TYPES = new ConcurrentHashMap<>();
+
+    private EditObjectStreams() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Get the attribute type whose values are written in place of an object
+     * of the specified class: the registered attribute type with the most
+     * specific native class the object is an instance of, that has an IO
+     * provider.
+     */
+    private static String getAttributeType(final Class<?> type) {
+        return ATTRIBUTE_TYPES.computeIfAbsent(type, t -> {
+            final AttributeRegistry registry = AttributeRegistry.getDefault();
+            final Map<String, AbstractGraphIOProvider> providers = getProviders();
+            String attributeType = NO_ATTRIBUTE_TYPE;
+            Class<?> attributeClass = Object.class;
+            for (final Map.Entry<String, Class<? extends AttributeDescription>> entry : registry.getAttributes().entrySet()) {
+                final Class<?> nativeClass = registry.getNativeType(entry.getValue());
+                if (nativeClass != null && nativeClass != attributeClass && nativeClass.isAssignableFrom(t)
+                        && attributeClass.isAssignableFrom(nativeClass) && providers.containsKey(entry.getKey())) {
+                    attributeType = entry.getKey();
+                    attributeClass = nativeClass;
+                }
+            }
+            return attributeType;
+        });
+    }
+
+    private static Map<String, AbstractGraphIOProvider> getProviders() {
+        final Map<String, AbstractGraphIOProvider> providers = new HashMap<>();
+        AbstractGraphIOProvider.getProviders().forEach(provider -> providers.put(provider.getName(), provider));
+        return Collections.unmodifiableMap(providers);
+    }
+
+    private static AbstractGraphIOProvider getProvider(final String attributeType) throws IOException {
+        final AbstractGraphIOProvider provider = getProviders().get(attributeType);
+        if (provider == null) {
+            throw new IOException("No IO provider found for attribute type: " + attributeType);
+        }
+        return provider;
+    }
+
+    /**
+     * An attribute value written by the IO provider of its attribute type.
+     */
+    private static final class ProviderValue implements Serializable {
+
+        private final String attributeType;
+        private final byte[] json;
+
+        private ProviderValue(final String attributeType, final byte[] json) {
+            this.attributeType = attributeType;
+            this.json = json;
+        }
+
+        private static ProviderValue write(final String attributeType, final Object value) throws IOException {
+            final StoreGraph graph = new StoreGraph();
+            final int attribute = graph.addAttribute(GraphElementType.GRAPH, attributeType, VALUE_NAME, null, null, null);
+            graph.setObjectValue(attribute, 0, value);
+
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (final JsonGenerator jsonGenerator = MAPPER.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+                jsonGenerator.writeStartObject();
+                getProvider(attributeType).writeObject(new GraphAttribute(graph, attribute), 0, jsonGenerator, graph, null, true);
+                jsonGenerator.writeEndObject();
+            }
+            return new ProviderValue(attributeType, buffer.toByteArray());
+        }
+
+        private Object read() throws IOException {
+            final StoreGraph graph = new StoreGraph();
+            final int attribute = graph.addAttribute(GraphElementType.GRAPH, attributeType, VALUE_NAME, null, null, null);
+
+            final Iterator<JsonNode> value = MAPPER.readTree(json).elements();
+            if (value.hasNext()) {
+                getProvider(attributeType).readObject(attribute, 0, value.next(), graph,
+                        Collections.emptyMap(), Collections.emptyMap(), null, new ImmutableObjectCache());
+            }
+            return graph.getObjectValue(attribute, 0);
+        }
+    }
+
+    /**
+     * An ObjectOutputStream that writes attribute values which are not
+     * Serializable through their IO providers.
+     */
+    static final class Output extends ObjectOutputStream {
+
+        Output(final OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(final Object object) throws IOException {
+            if (object instanceof Serializable) {
+                return object;
+            }
+
+            final String attributeType = getAttributeType(object.getClass());
+            // Anything else, such as a GraphOperation, throws NotSerializableException.
+            return attributeType.equals(NO_ATTRIBUTE_TYPE) ? object : ProviderValue.write(attributeType, object);
+        }
+    }
+
+    /**
+     * An ObjectInputStream that reads the objects written by {@link Output}.
+     */
+    static final class Input extends ObjectInputStream {
+
+        Input(final InputStream in) throws IOException {
+            super(in);
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(final Object object) throws IOException {
+            return object instanceof ProviderValue ? ((ProviderValue) object).read() : object;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.undo;
+
+/**
+ * A GraphEditListener is told about every {@link UndoGraphEdit} that changes a
+ * graph, in the order the edits are applied.
+ * <p>
+ * Committed and flushed writes are reported once they are complete, and undo
+ * and redo report each of the edits they apply. Replaying the reported edits
+ * in order onto a copy of the graph therefore reproduces the graph.
+ * <p>
+ * Listeners are called while the graph's write lock is held, so they should
+ * do no more than remember the edit.
+ *
+ * @author sirius
+ */
+public interface GraphEditListener {
+
+    /**
+     * Called when an edit has been applied to the graph.
+     *
+     * @param edit the edit, which is finished and will not change.
+     * @param undo true if the edit was undone, false if it was executed.
+     */
+    public void editApplied(final UndoGraphEdit edit, final boolean undo);
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.undo;
+
+import java.io.IOException;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * A SpillableEdit is an UndoableEdit whose state can be moved out of memory
+ * into an {@link UndoSpillFile}, to be read back when the edit is next undone
+ * or redone.
+ * <p>
+ * Edits that are merged into a SpillableEdit as children are added to the undo
+ * history separately, so the size and spill methods only account for the
+ * edit's own state.
+ *
+ * @author sirius
+ */
+public interface SpillableEdit extends UndoableEdit {
+
+    /**
+     * Returns an estimate of the number of bytes of memory held by this edit.
+     *
+     * @return an estimate of the memory used by this edit.
+     */
+    public long getMemorySize();
+
+    /**
+     * Move the state of this edit into the specified spill file.
+     *
+     * @param spillFile the spill file to write the state to.
+     * @return true if the state was released from memory.
+     */
+    public boolean spill(final UndoSpillFile spillFile);
+
+    /**
+     * Returns the number of bytes of the spill file holding the state of this
+     * edit.
+     *
+     * @return the size of this edit's state in its spill file, or 0 if it has
+     * never been spilled.
+     */
+    public long getSpillSize();
+
+    /**
+     * Copy the spilled state of this edit into another spill file, so that the
+     * spill file it was in can be compacted. Edits that have never been
+     * spilled are unchanged.
+     *
+     * @param spillFile the spill file to copy the state to.
+     * @throws IOException if the state could not be copied.
+     */
+    public void moveSpill(final UndoSpillFile spillFile) throws IOException;
+}
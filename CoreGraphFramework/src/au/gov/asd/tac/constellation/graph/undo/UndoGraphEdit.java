@@ -19,9 +19,14 @@ import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphIndexType;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.operations.GraphOperation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  *
@@ -31,13 +36,18 @@ public class UndoGraphEdit implements GraphEdit {
 
     private static final boolean VERBOSE = false;
 
-    private final UndoGraphEditState state;
+    private UndoGraphEditState state;
+
+    // Where the state of this edit has been spilled to, if it has been.
+    private UndoSpillFile spillFile = null;
+    private long spillPosition;
+    private int spillLength;
 
     public UndoGraphEdit() {
         state = new UndoGraphEditState();
     }
 
-    public UndoGraphEdit(final DataInputStream in) throws Exception {
+    public UndoGraphEdit(final DataInputStream in) throws IOException {
         state = new UndoGraphEditState(in);
     }
 
@@ -55,12 +65,92 @@ public class UndoGraphEdit implements GraphEdit {
 
     @Override
     public void execute(final GraphWriteMethods graph) {
-        state.execute(graph);
+        getState().execute(graph);
     }
 
     @Override
     public void undo(final GraphWriteMethods graph) {
-        state.undo(graph);
+        getState().undo(graph);
+    }
+
+    /**
+     * Returns an estimate of the number of bytes of memory held by this edit.
+     * An edit that has been spilled holds no memory until it is next needed.
+     *
+     * @return an estimate of the memory used by this edit.
+     */
+    public synchronized long getMemorySize() {
+        return state == null ? 0 : state.getMemorySize();
+    }
+
+    /**
+     * Compress the state of this finished edit into the specified spill file
+     * and release it from memory. The state is read back from the spill file
+     * the next time the edit is executed, undone or written.
+     * <p>
+     * An edit that has been spilled once is not written again, as its state
+     * never changes once it is finished.
+     *
+     * @param file the spill file to write the state to.
+     * @return true if the state was released, false if it is still held in
+     * memory because it holds objects that cannot be serialised or the spill
+     * file could not be written.
+     */
+    public synchronized boolean spill(final UndoSpillFile file) {
+        if (state == null) {
+            return true;
+        }
+        if (spillFile == null) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try {
+                try (final DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+                    state.write(out);
+                }
+                spillPosition = file.write(bytes.toByteArray());
+            } catch (final IOException ex) {
+                return false;
+            }
+            spillLength = bytes.size();
+            spillFile = file;
+        }
+        state = null;
+        return true;
+    }
+
+    /**
+     * Returns the number of bytes of the spill file holding the compressed
+     * state of this edit.
+     *
+     * @return the size of the spilled state, or 0 if the edit has never been
+     * spilled.
+     */
+    public synchronized long getSpillSize() {
+        return spillFile == null ? 0 : spillLength;
+    }
+
+    /**
+     * Copy the spilled state of this edit into another spill file, so that the
+     * spill file it was in can be compacted.
+     *
+     * @param file the spill file to copy the state to.
+     * @throws IOException if the state could not be copied.
+     */
+    public synchronized void moveSpill(final UndoSpillFile file) throws IOException {
+        if (spillFile != null && spillFile != file) {
+            spillPosition = file.write(spillFile.read(spillPosition, spillLength));
+            spillFile = file;
+        }
+    }
+
+    private synchronized UndoGraphEditState getState() {
+        if (state == null) {
+            try (final DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(spillFile.read(spillPosition, spillLength))))) {
+                state = new UndoGraphEditState(in);
+            } catch (final IOException ex) {
+                throw new IllegalStateException("Unable to reload spilled undo history", ex);
+            }
+        }
+        return state;
     }
 
     @Override
@@ -319,7 +409,30 @@ public class UndoGraphEdit implements GraphEdit {
                 state.getCurrentId(), state.getCurrentInt(), state.getCurrentLong(), objectIndex);
     }
 
-    public void write(final DataOutputStream out) throws Exception {
-        state.write(out);
+    /**
+     * Write the state of this edit to a stream.
+     * <p>
+     * The state of an edit that has been spilled is copied from its spill
+     * file without being read back into memory.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the state could not be written.
+     */
+    public void write(final DataOutputStream out) throws IOException {
+        final byte[] spilled;
+        synchronized (this) {
+            if (state != null) {
+                state.write(out);
+                return;
+            }
+            spilled = spillFile.read(spillPosition, spillLength);
+        }
+        try (final InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(spilled))) {
+            final byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+        }
     }
 }
@@ -17,11 +17,13 @@ package au.gov.asd.tac.constellation.graph.undo;
 
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.operations.GraphOperation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -32,7 +34,9 @@ import java.util.Map;
  */
 public class UndoGraphEditState {
 
-    private static final Charset UTF8 = StandardCharsets.UTF_8;
+    private static final byte OBJECT_NULL = 0;
+    private static final byte OBJECT_EDIT = 1;
+    private static final byte OBJECT_SERIALISED = 2;
 
     private static final boolean PRINT_STATS = false;
 
@@ -87,7 +91,7 @@ public class UndoGraphEditState {
         // do nothing
     }
 
-    public UndoGraphEditState(final DataInputStream in) throws Exception {
+    public UndoGraphEditState(final DataInputStream in) throws IOException {
         operationCount = in.readInt();
         operationStack = new short[operationCount];
         for (int i = 0; i < operationCount; i++) {
@@ -118,31 +122,40 @@ public class UndoGraphEditState {
             longStack[i] = in.readLong();
         }
 
-        final Map<Integer, Class<?>> classMap = new HashMap<>();
-        classMap.put(0, null);
+        finalAttribute = in.readInt();
+        finalId = in.readInt();
+        finalInt = in.readInt();
+        finalObject = in.readInt();
+        finalFloat = in.readInt();
+        finalLong = in.readLong();
+        finalDouble = in.readLong();
 
+        // Child edits are read in place, other objects follow in a single serialised block.
         objectCount = in.readInt();
-        byte[] buffer = new byte[1024];
+        objectStack = new Object[objectCount];
+        final byte[] tags = new byte[objectCount];
         for (int i = 0; i < objectCount; i++) {
-            final int objectClassIndex = in.readInt();
-            final Class<?> objectClass;
-            if (classMap.containsKey(objectClassIndex)) {
-                objectClass = classMap.get(objectClassIndex);
-            } else {
-                final int classLength = in.readInt();
-                if (classLength > buffer.length) {
-                    buffer = Arrays.copyOf(buffer, classLength);
+            tags[i] = in.readByte();
+            if (tags[i] == OBJECT_EDIT) {
+                objectStack[i] = new UndoGraphEdit(in);
+            }
+        }
+
+        final byte[] serialised = new byte[in.readInt()];
+        in.readFully(serialised);
+        if (serialised.length > 0) {
+            try (final ObjectInputStream objectIn = new EditObjectStreams.Input(new ByteArrayInputStream(serialised))) {
+                for (int i = 0; i < objectCount; i++) {
+                    if (tags[i] == OBJECT_SERIALISED) {
+                        objectStack[i] = objectIn.readObject();
+                    }
                 }
-                in.read(buffer, 0, classLength);
-                final String objectName = new String(buffer, 0, classLength, UTF8);
-                objectClass = Class.forName(objectName);
+            } catch (final ClassNotFoundException ex) {
+                throw new IOException("Unable to read edit object", ex);
             }
-            classMap.put(objectClassIndex, objectClass);
-            objectMap.put(objectClass, objectClassIndex);
         }
 
-        objectStack = new Object[objectCount];
-        Arrays.setAll(objectStack, index -> classMap.get(index));
+        objectMap = null;
     }
 
     public byte[] getByteStack() {
@@ -355,6 +368,28 @@ public class UndoGraphEditState {
         }
     }
 
+    /**
+     * Returns an estimate of the number of bytes held by the stacks of this
+     * state, including the states of any child edits. Objects other than child
+     * edits are counted as a reference only.
+     *
+     * @return an estimate of the memory used by this state.
+     */
+    public long getMemorySize() {
+        long size = operationStack.length * 2L
+                + byteStack.length
+                + shortStack.length * 2L
+                + intStack.length * 4L
+                + longStack.length * 8L
+                + objectStack.length * 8L;
+        for (final Object object : objectStack) {
+            if (object instanceof UndoGraphEdit) {
+                size += ((UndoGraphEdit) object).getMemorySize();
+            }
+        }
+        return size;
+    }
+
     public void printStats() {
         bytePointer = 0;
         shortPointer = 0;
@@ -488,25 +523,34 @@ public class UndoGraphEditState {
             out.writeLong(longStack[i]);
         }
 
-        final Map<Class<?>, Integer> classMap = new HashMap<>();
-        classMap.put(null, 0);
-
-        out.writeInt(objectCount);
-        for (int i = 0; i < objectCount; i++) {
-            final Object object = objectStack[i];
-            final Class<?> objectClass = object == null ? null : object.getClass();
-            if (classMap.containsKey(objectClass)) {
-                out.writeInt(classMap.get(objectClass));
-            } else {
-                out.writeInt(classMap.size());
-                if (objectClass != null) {
-                    final String className = objectClass.getCanonicalName();
-                    byte[] utf8 = className.getBytes(UTF8);
-                    out.write(utf8.length);
-                    out.write(utf8);
+        out.writeInt(finalAttribute);
+        out.writeInt(finalId);
+        out.writeInt(finalInt);
+        out.writeInt(finalObject);
+        out.writeInt(finalFloat);
+        out.writeLong(finalLong);
+        out.writeLong(finalDouble);
+
+        final ByteArrayOutputStream serialised = new ByteArrayOutputStream();
+        try (final ObjectOutputStream objectOut = new EditObjectStreams.Output(serialised)) {
+            out.writeInt(objectCount);
+            for (int i = 0; i < objectCount; i++) {
+                final Object object = objectStack[i];
+                if (object == null) {
+                    out.writeByte(OBJECT_NULL);
+                } else if (object instanceof UndoGraphEdit) {
+                    out.writeByte(OBJECT_EDIT);
+                    ((UndoGraphEdit) object).write(out);
+                } else {
+                    // Attribute values that are not Serializable are written by their IO providers,
+                    // anything else such as a GraphOperation throws NotSerializableException.
+                    out.writeByte(OBJECT_SERIALISED);
+                    objectOut.writeObject(object);
                 }
-                classMap.put(objectClass, classMap.size());
             }
         }
+
+        out.writeInt(serialised.size());
+        serialised.writeTo(out);
     }
 }
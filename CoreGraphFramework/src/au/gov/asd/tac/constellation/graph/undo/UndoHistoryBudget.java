@@ -0,0 +1,183 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.undo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * An UndoHistoryBudget limits the amount of memory held by the undo history of
+ * a graph.
+ * <p>
+ * Each edit added to the undo history is also added to the budget. When the
+ * newest edits in the history hold more memory than the budget allows, all
+ * older edits are compressed and spilled to a temporary file, to be read back
+ * only if the user undoes far enough to reach them. The most recent edit is
+ * always kept in memory.
+ * <p>
+ * Spilling happens on a background thread so that adding an edit never waits
+ * for the disk. An edit that cannot be spilled, for example because it holds
+ * objects that cannot be serialised, is kept in memory and never tried again.
+ * <p>
+ * When most of the spill file holds the states of edits that have left the
+ * undo history, the states that are still needed are copied to a new spill
+ * file and the old one is deleted.
+ *
+ * @author sirius
+ */
+public final class UndoHistoryBudget {
+
+    private static final Logger LOGGER = Logger.getLogger(UndoHistoryBudget.class.getName());
+
+    // The spill file is not compacted until it is at least this long.
+    private static final long MINIMUM_COMPACT_LENGTH = 1L << 20;
+
+    private static final ExecutorService SPILL_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Undo Spill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long budget;
+    private final List<SpillableEdit> edits = new ArrayList<>();
+
+    // Guarded by this budget, which is only enforced on the spill thread outside of tests.
+    private final Set<SpillableEdit> unspillable = Collections.newSetFromMap(new IdentityHashMap<>());
+    private UndoSpillFile spillFile = new UndoSpillFile();
+
+    /**
+     * Create a new UndoHistoryBudget.
+     *
+     * @param budget the number of bytes of undo history to keep in memory.
+     */
+    public UndoHistoryBudget(final long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Add an edit that has just been added to the undo history. Edits that
+     * cannot be spilled are ignored.
+     *
+     * @param edit the edit.
+     */
+    public void add(final UndoableEdit edit) {
+        if (edit instanceof SpillableEdit) {
+            synchronized (edits) {
+                edits.add((SpillableEdit) edit);
+            }
+            SPILL_EXECUTOR.execute(this::enforce);
+        }
+    }
+
+    /**
+     * Spill the edits that do not fit in the budget, then compact the spill
+     * file if most of it is no longer needed.
+     */
+    synchronized void enforce() {
+        final List<SpillableEdit> spilled = new ArrayList<>();
+        final List<SpillableEdit> live;
+        synchronized (edits) {
+            edits.removeIf(edit -> !edit.canUndo() && !edit.canRedo());
+            long size = 0;
+            for (int i = edits.size() - 1; i >= 0; i--) {
+                final SpillableEdit edit = edits.get(i);
+                size += edit.getMemorySize();
+                if (size > budget && i < edits.size() - 1 && !unspillable.contains(edit)) {
+                    spilled.add(edit);
+                }
+            }
+            live = new ArrayList<>(edits);
+        }
+        unspillable.retainAll(live);
+
+        for (final SpillableEdit edit : spilled) {
+            if (!edit.spill(spillFile)) {
+                unspillable.add(edit);
+            }
+        }
+
+        compact(live);
+    }
+
+    /**
+     * Copy the spilled states of the live edits to a new spill file if they
+     * take up less than half of the current one.
+     *
+     * @param live the edits still in the undo history.
+     */
+    private void compact(final List<SpillableEdit> live) {
+        final long length = spillFile.length();
+        if (length < MINIMUM_COMPACT_LENGTH) {
+            return;
+        }
+        long liveLength = 0;
+        for (final SpillableEdit edit : live) {
+            liveLength += edit.getSpillSize();
+        }
+        if (liveLength * 2 > length) {
+            return;
+        }
+
+        final UndoSpillFile compacted = new UndoSpillFile();
+        try {
+            for (final SpillableEdit edit : live) {
+                edit.moveSpill(compacted);
+            }
+        } catch (final IOException ex) {
+            // Edits that were moved read from the new file and the rest from the old one,
+            // so both are kept until they are deleted on exit.
+            LOGGER.log(Level.WARNING, "Unable to compact the undo spill file", ex);
+            return;
+        }
+        spillFile.close();
+        spillFile = compacted;
+    }
+
+    /**
+     * Returns the length of the current spill file.
+     *
+     * @return the number of bytes written to the current spill file.
+     */
+    synchronized long getSpillFileLength() {
+        return spillFile.length();
+    }
+
+    /**
+     * Forget all edits and delete the spill file. This should only be called
+     * once the edits in the undo history are dead, as any edit that has been
+     * spilled can no longer be read back.
+     */
+    public void close() {
+        synchronized (edits) {
+            edits.clear();
+        }
+        SPILL_EXECUTOR.execute(() -> {
+            synchronized (this) {
+                unspillable.clear();
+                spillFile.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.undo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An UndoSpillFile is a temporary file that holds the states of undo edits
+ * that have been moved out of memory. States are appended to the end of the
+ * file and read back by position.
+ * <p>
+ * The file is not created until the first state is written to it, and is
+ * deleted when it is closed or when the application exits.
+ *
+ * @author sirius
+ */
+public final class UndoSpillFile {
+
+    private static final Logger LOGGER = Logger.getLogger(UndoSpillFile.class.getName());
+
+    private File file = null;
+    private RandomAccessFile data = null;
+
+    /**
+     * Append the specified bytes to the end of the spill file.
+     *
+     * @param bytes the bytes to write.
+     * @return the position in the file that the bytes were written to.
+     * @throws IOException if the file could not be written to.
+     */
+    public synchronized long write(final byte[] bytes) throws IOException {
+        if (data == null) {
+            file = File.createTempFile("undo", ".spill");
+            file.deleteOnExit();
+            data = new RandomAccessFile(file, "rw");
+        }
+        final long position = data.length();
+        data.seek(position);
+        data.write(bytes);
+        return position;
+    }
+
+    /**
+     * Read bytes previously written to the spill file.
+     *
+     * @param position the position returned when the bytes were written.
+     * @param length the number of bytes that were written.
+     * @return the bytes.
+     * @throws IOException if the file has been closed or could not be read.
+     */
+    public synchronized byte[] read(final long position, final int length) throws IOException {
+        if (data == null) {
+            throw new IOException("The undo spill file is closed");
+        }
+        final byte[] bytes = new byte[length];
+        data.seek(position);
+        data.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns the number of bytes that have been written to the spill file,
+     * including those of states that are no longer needed.
+     *
+     * @return the length of the spill file.
+     */
+    public synchronized long length() {
+        try {
+            return data == null ? 0 : data.length();
+        } catch (final IOException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Close and delete the spill file. Nothing written to the file can be read
+     * after it has been closed.
+     */
+    public synchronized void close() {
+        if (data != null) {
+            try {
+                data.close();
+            } catch (final IOException ex) {
+                // The file is being deleted anyway.
+            }
+            if (!file.delete()) {
+                LOGGER.log(Level.WARNING, "Unable to delete undo spill file {0}", file.getPath());
+            }
+            data = null;
+            file = null;
+        }
+    }
+}
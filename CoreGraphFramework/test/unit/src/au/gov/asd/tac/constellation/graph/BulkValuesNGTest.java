@@ -0,0 +1,181 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph;
+
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.undo.UndoGraphEdit;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Bulk Values Test.
+ *
+ * @author sirius
+ */
+public class BulkValuesNGTest {
+
+    private static final int VERTEX_COUNT = 100;
+
+    @Test
+    public void bulkWriteUndoesAndRedoes() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int selectedAttribute = graph.addAttribute(GraphElementType.VERTEX, BooleanAttributeDescription.ATTRIBUTE_NAME, "selected", null, false, null);
+        final int[] vertices = new int[VERTEX_COUNT];
+        final float[] x = new float[VERTEX_COUNT];
+        final boolean[] selected = new boolean[VERTEX_COUNT];
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            vertices[i] = graph.addVertex();
+            graph.setFloatValue(xAttribute, vertices[i], i);
+            x[i] = i * 2F;
+            selected[i] = i % 3 == 0;
+        }
+
+        final long modificationCounter = graph.getValueModificationCounter(xAttribute);
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        graph.setFloatValues(xAttribute, vertices, x);
+        graph.setBooleanValues(selectedAttribute, vertices, selected);
+        graph.setGraphEdit(null);
+        edit.finish();
+
+        // Changing the arrays afterwards must not change the recorded edit.
+        x[0] = -1F;
+
+        assertNotEquals(graph.getValueModificationCounter(xAttribute), modificationCounter);
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            assertEquals(graph.getFloatValue(xAttribute, vertices[i]), i * 2F);
+            assertEquals(graph.getBooleanValue(selectedAttribute, vertices[i]), i % 3 == 0);
+        }
+
+        edit.undo(graph);
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            assertEquals(graph.getFloatValue(xAttribute, vertices[i]), (float) i);
+            assertEquals(graph.getBooleanValue(selectedAttribute, vertices[i]), false);
+        }
+
+        edit.execute(graph);
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            assertEquals(graph.getFloatValue(xAttribute, vertices[i]), i * 2F);
+            assertEquals(graph.getBooleanValue(selectedAttribute, vertices[i]), i % 3 == 0);
+        }
+    }
+
+    @Test
+    public void repeatedElementKeepsLastValue() {
+        final StoreGraph graph = new StoreGraph();
+        final int countAttribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 0, null);
+        final int vertex = graph.addVertex();
+        graph.setIntValue(countAttribute, vertex, 7);
+
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        graph.setIntValues(countAttribute, new int[]{vertex, vertex}, new int[]{1, 2});
+        graph.setGraphEdit(null);
+        edit.finish();
+        assertEquals(graph.getIntValue(countAttribute, vertex), 2);
+
+        edit.undo(graph);
+        assertEquals(graph.getIntValue(countAttribute, vertex), 7);
+    }
+
+    @Test
+    public void convertedValuesAreSetOneAtATime() {
+        final StoreGraph graph = new StoreGraph();
+        final int labelAttribute = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "label", null, null, null);
+        final int[] vertices = {graph.addVertex(), graph.addVertex()};
+
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        graph.setDoubleValues(labelAttribute, vertices, new double[]{1.5, 2.5});
+        graph.setGraphEdit(null);
+        edit.finish();
+        assertEquals(graph.getStringValue(labelAttribute, vertices[0]), "1.5");
+        assertEquals(graph.getStringValue(labelAttribute, vertices[1]), "2.5");
+
+        edit.undo(graph);
+        assertEquals(graph.getStringValue(labelAttribute, vertices[0]), null);
+        assertEquals(graph.getStringValue(labelAttribute, vertices[1]), null);
+    }
+
+    @Test
+    public void primaryKeyIsUpdated() throws DuplicateKeyException {
+        final StoreGraph graph = new StoreGraph();
+        final int idAttribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "id", null, 0, null);
+        final int[] vertices = {graph.addVertex(), graph.addVertex()};
+        graph.setIntValues(idAttribute, vertices, new int[]{1, 2});
+        graph.setPrimaryKey(GraphElementType.VERTEX, idAttribute);
+        graph.validateKeys();
+
+        graph.setIntValues(idAttribute, vertices, new int[]{2, 3});
+        graph.validateKeys();
+        assertEquals(graph.getVertexCount(), 2);
+        assertEquals(graph.getIntValue(idAttribute, vertices[0]), 2);
+        assertEquals(graph.getIntValue(idAttribute, vertices[1]), 3);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void mismatchedLengthsAreRejected() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        graph.setFloatValues(xAttribute, new int[]{graph.addVertex()}, new float[0]);
+    }
+
+    @Test
+    public void emptyWriteChangesNothing() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final long modificationCounter = graph.getValueModificationCounter(xAttribute);
+        graph.setFloatValues(xAttribute, new int[0], new float[0]);
+        assertTrue(graph.getValueModificationCounter(xAttribute) == modificationCounter);
+    }
+
+    @Test
+    public void unchangedWriteChangesNothing() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int countAttribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 0, null);
+        final int[] vertices = {graph.addVertex(), graph.addVertex()};
+        graph.setFloatValues(xAttribute, vertices, new float[]{1F, 2F});
+        graph.setIntValues(countAttribute, vertices, new int[]{3, 4});
+
+        final long xModificationCounter = graph.getValueModificationCounter(xAttribute);
+        final long countModificationCounter = graph.getValueModificationCounter(countAttribute);
+        final long globalModificationCounter = graph.getGlobalModificationCounter();
+        final UndoGraphEdit emptyEdit = new UndoGraphEdit();
+        emptyEdit.finish();
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        graph.setFloatValues(xAttribute, vertices, new float[]{1F, 2F});
+        graph.setIntValues(countAttribute, vertices, new int[]{3, 4});
+        graph.setGraphEdit(null);
+        edit.finish();
+
+        assertEquals(graph.getValueModificationCounter(xAttribute), xModificationCounter);
+        assertEquals(graph.getValueModificationCounter(countAttribute), countModificationCounter);
+        assertEquals(graph.getGlobalModificationCounter(), globalModificationCounter);
+        assertEquals(edit.getMemorySize(), emptyEdit.getMemorySize());
+
+        graph.setIntValues(countAttribute, vertices, new int[]{3, 5});
+        assertNotEquals(graph.getValueModificationCounter(countAttribute), countModificationCounter);
+        assertEquals(graph.getValueModificationCounter(xAttribute), xModificationCounter);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph;
+
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
+import au.gov.asd.tac.constellation.graph.undo.UndoGraphEdit;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import org.testng.annotations.Test;
+
+/**
+ * Changed Elements Test.
+ *
+ * @author sirius
+ */
+public class ChangedElementsNGTest {
+
+    private static final int VERTEX_COUNT = 10;
+
+    @Test
+    public void changedElementsAreReported() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int[] vertices = addVertices(graph);
+
+        final long start = graph.getValueModificationCounter(xAttribute);
+        assertEquals(graph.getChangedElements(xAttribute, start), new int[0]);
+
+        graph.setFloatValue(xAttribute, vertices[7], 1F);
+        graph.setFloatValue(xAttribute, vertices[2], 2F);
+        final long middle = graph.getValueModificationCounter(xAttribute);
+        graph.setFloatValue(xAttribute, vertices[7], 3F);
+        graph.clearValue(xAttribute, vertices[5]);
+
+        assertEquals(graph.getChangedElements(xAttribute, start), new int[]{vertices[2], vertices[5], vertices[7]});
+        assertEquals(graph.getChangedElements(xAttribute, middle), new int[]{vertices[5], vertices[7]});
+        assertEquals(graph.getChangedElements(xAttribute, graph.getValueModificationCounter(xAttribute)), new int[0]);
+
+        // A counter the attribute never had is unknown.
+        assertNull(graph.getChangedElements(xAttribute, start - 1));
+    }
+
+    @Test
+    public void undoReportsChangedElements() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int[] vertices = addVertices(graph);
+        graph.setFloatValue(xAttribute, vertices[0], 1F);
+
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        graph.setFloatValue(xAttribute, vertices[3], 1F);
+        graph.setFloatValue(xAttribute, vertices[4], 1F);
+        graph.setGraphEdit(null);
+        edit.finish();
+
+        final long executed = graph.getValueModificationCounter(xAttribute);
+        edit.undo(graph);
+        assertEquals(graph.getChangedElements(xAttribute, executed), new int[]{vertices[3], vertices[4]});
+
+        final long undone = graph.getValueModificationCounter(xAttribute);
+        edit.execute(graph);
+        assertEquals(graph.getChangedElements(xAttribute, undone), new int[]{vertices[3], vertices[4]});
+    }
+
+    @Test
+    public void undoFollowedByDifferentEditsIsReported() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int[] vertices = addVertices(graph);
+
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        graph.setFloatValue(xAttribute, vertices[0], 1F);
+        graph.setGraphEdit(null);
+        edit.finish();
+        final long seen = graph.getValueModificationCounter(xAttribute);
+
+        graph.setOperationMode(GraphOperationMode.UNDO);
+        edit.undo(graph);
+        graph.setOperationMode(GraphOperationMode.EXECUTE);
+        graph.setFloatValue(xAttribute, vertices[1], 5F);
+        graph.setFloatValue(xAttribute, vertices[2], 7F);
+
+        // The counter has been seen before, but vertex 0 has been changed back since then.
+        assertEquals(graph.getChangedElements(xAttribute, seen), new int[]{vertices[0], vertices[1], vertices[2]});
+
+        // Once that history is forgotten, the changes since any counter it had are unknown.
+        final long current = graph.getValueModificationCounter(xAttribute);
+        graph.setValueModificationCounter(xAttribute, seen);
+        assertNull(graph.getChangedElements(xAttribute, seen));
+        assertNull(graph.getChangedElements(xAttribute, current));
+
+        graph.setValueModificationCounter(xAttribute, current + 100);
+        graph.setFloatValue(xAttribute, vertices[3], 1F);
+        assertNull(graph.getChangedElements(xAttribute, seen));
+        assertEquals(graph.getChangedElements(xAttribute, current + 100), new int[]{vertices[3]});
+    }
+
+    @Test
+    public void bulkWriteIsReported() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int[] vertices = addVertices(graph);
+
+        final long start = graph.getValueModificationCounter(xAttribute);
+        graph.setFloatValues(xAttribute, new int[]{vertices[6], vertices[1]}, new float[]{1F, 2F});
+        assertEquals(graph.getChangedElements(xAttribute, start), new int[]{vertices[1], vertices[6]});
+
+        // Copies of the graph remember the same changes.
+        final StoreGraph copy = new StoreGraph(graph);
+        assertEquals(copy.getChangedElements(xAttribute, start), new int[]{vertices[1], vertices[6]});
+    }
+
+    @Test
+    public void longHistoryIsForgotten() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int[] vertices = addVertices(graph);
+
+        final long start = graph.getValueModificationCounter(xAttribute);
+        for (int i = 0; i < 5000; i++) {
+            graph.setFloatValue(xAttribute, vertices[i % VERTEX_COUNT], i);
+        }
+        assertNull(graph.getChangedElements(xAttribute, start));
+
+        final long recent = graph.getValueModificationCounter(xAttribute);
+        graph.setFloatValue(xAttribute, vertices[8], -1F);
+        assertEquals(graph.getChangedElements(xAttribute, recent), new int[]{vertices[8]});
+    }
+
+    @Test
+    public void replacedValuesAreUnknown() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int[] vertices = addVertices(graph);
+
+        final long start = graph.getValueModificationCounter(xAttribute);
+        graph.setFloatValue(xAttribute, vertices[0], 1F);
+        graph.setValueModificationCounter(xAttribute, start + 100);
+        assertNull(graph.getChangedElements(xAttribute, start));
+    }
+
+    private static int[] addVertices(final StoreGraph graph) {
+        final int[] vertices = new int[VERTEX_COUNT];
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            vertices[i] = graph.addVertex();
+        }
+        return vertices;
+    }
+}
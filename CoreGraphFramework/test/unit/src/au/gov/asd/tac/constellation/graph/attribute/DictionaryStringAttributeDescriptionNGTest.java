@@ -0,0 +1,129 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import java.util.HashSet;
+import java.util.Set;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Dictionary String Attribute Description Test.
+ *
+ * @author sirius
+ */
+public class DictionaryStringAttributeDescriptionNGTest {
+
+    DictionaryStringAttributeDescription instance;
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        instance = new DictionaryStringAttributeDescription();
+        instance.setCapacity(4);
+    }
+
+    @Test
+    public void testEqualValuesShareCodes() {
+        instance.setString(0, "alpha");
+        instance.setString(1, new String("alpha"));
+        instance.setString(2, "beta");
+
+        assertTrue(instance.equals(0, 1));
+        assertFalse(instance.equals(0, 2));
+        assertTrue(instance.equals(3, 3));
+        assertEquals(instance.hashCode(0), instance.hashCode(1));
+        assertEquals(instance.getString(1), "alpha");
+        assertNull(instance.getString(3));
+    }
+
+    @Test
+    public void testUnreferencedValuesAreReleased() {
+        final StringDictionary dictionary = new StringDictionary();
+        final int alpha = dictionary.acquire("alpha", 2);
+        dictionary.release(alpha);
+        assertEquals(dictionary.getCode("alpha"), alpha);
+
+        dictionary.release(alpha);
+        assertEquals(dictionary.getCode("alpha"), -1);
+        assertEquals(dictionary.getValueCount(), 0);
+
+        // The freed code is reused for the next new value
+        assertEquals(dictionary.acquire("beta"), alpha);
+    }
+
+    @Test
+    public void testDefaultValueFillsNewCapacity() {
+        final DictionaryStringAttributeDescription description = new DictionaryStringAttributeDescription();
+        description.setDefault("unknown");
+        description.setCapacity(3);
+
+        assertEquals(description.getString(2), "unknown");
+        assertTrue(description.isClear(2));
+        description.setString(2, "known");
+        assertFalse(description.isClear(2));
+    }
+
+    @Test
+    public void testSaveAndRestoreData() {
+        instance.setString(0, "alpha");
+        final Object saved = instance.saveData();
+
+        instance.setString(0, "beta");
+        instance.restoreData(saved);
+
+        assertEquals(instance.getString(0), "alpha");
+    }
+
+    @Test
+    public void testUnorderedIndex() {
+        final StoreGraph graph = new StoreGraph();
+        final int typeAttribute = graph.addAttribute(GraphElementType.VERTEX, DictionaryStringAttributeDescription.ATTRIBUTE_NAME, "type", null, null, null);
+        graph.setAttributeIndexType(typeAttribute, GraphIndexType.UNORDERED);
+
+        final int v0 = graph.addVertex();
+        final int v1 = graph.addVertex();
+        final int v2 = graph.addVertex();
+        graph.setStringValue(typeAttribute, v0, "person");
+        graph.setStringValue(typeAttribute, v1, "place");
+        graph.setStringValue(typeAttribute, v2, "person");
+
+        assertEquals(collect(graph.getElementsWithAttributeValue(typeAttribute, "person")), Set.of(v0, v2));
+
+        graph.setStringValue(typeAttribute, v0, "place");
+        graph.removeVertex(v1);
+
+        assertEquals(collect(graph.getElementsWithAttributeValue(typeAttribute, "person")), Set.of(v2));
+        assertEquals(collect(graph.getElementsWithAttributeValue(typeAttribute, "place")), Set.of(v0));
+        assertEquals(graph.getElementsWithAttributeValue(typeAttribute, "thing").getCount(), 0);
+    }
+
+    private static Set<Integer> collect(final GraphIndexResult result) {
+        final Set<Integer> elements = new HashSet<>();
+        final int count = result.getCount();
+        for (int i = 0; i < count; i++) {
+            elements.add(result.getNextElement());
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Graph Index Test.
+ *
+ * @author sirius
+ */
+public class GraphIndexNGTest {
+
+    @Test
+    public void testPrimitiveHashIndexTracksUpdates() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        graph.setAttributeIndexType(xAttribute, GraphIndexType.UNORDERED);
+
+        // Add enough distinct values to force the hash table to grow
+        final int[] vertices = new int[100];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.addVertex();
+            graph.setFloatValue(xAttribute, vertices[i], i % 50);
+        }
+
+        assertEquals(collect(graph.getElementsWithAttributeValue(xAttribute, 7F)), Set.of(vertices[7], vertices[57]));
+
+        graph.setFloatValue(xAttribute, vertices[7], -0F);
+        graph.removeVertex(vertices[57]);
+
+        assertEquals(graph.getElementsWithAttributeValue(xAttribute, 7F).getCount(), 0);
+        assertEquals(collect(graph.getElementsWithAttributeValue(xAttribute, 0F)), Set.of(vertices[0], vertices[7], vertices[50]));
+        assertNull(graph.getElementsWithAttributeValueRange(xAttribute, 0F, 1F));
+    }
+
+    @Test
+    public void testPrimitiveHashIndexRemovesEmptyValues() {
+        final StoreGraph graph = new StoreGraph();
+        final int countAttribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 0, null);
+        graph.setAttributeIndexType(countAttribute, GraphIndexType.UNORDERED);
+
+        final int v0 = graph.addVertex();
+        for (int i = 1; i <= 1000; i++) {
+            graph.setIntValue(countAttribute, v0, i);
+        }
+
+        assertEquals(collect(graph.getElementsWithAttributeValue(countAttribute, 1000)), Set.of(v0));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(graph.getElementsWithAttributeValue(countAttribute, i).getCount(), 0);
+        }
+    }
+
+    @Test
+    public void testOrderedIndexRange() {
+        final StoreGraph graph = new StoreGraph();
+        final int nameAttribute = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", null, null, null);
+        graph.setAttributeIndexType(nameAttribute, GraphIndexType.ORDERED);
+
+        final int apple = graph.addVertex();
+        final int banana = graph.addVertex();
+        final int cherry = graph.addVertex();
+        final int unnamed = graph.addVertex();
+        graph.setStringValue(nameAttribute, apple, "apple");
+        graph.setStringValue(nameAttribute, banana, "banana");
+        graph.setStringValue(nameAttribute, cherry, "cherry");
+
+        assertEquals(collect(graph.getElementsWithAttributeValueRange(nameAttribute, "b", "c")), Set.of(banana));
+        assertEquals(collect(graph.getElementsWithAttributeValueRange(nameAttribute, "apple", null)), Set.of(apple, banana, cherry));
+        assertEquals(collect(graph.getElementsWithAttributeValue(nameAttribute, null)), Set.of(unnamed));
+        assertEquals(collect(graph.getElementsWithAttributeValue(nameAttribute, "cherry")), Set.of(cherry));
+    }
+
+    @Test
+    public void testObjectIndices() {
+        final ZonedDateTimeAttributeDescription datetime = new ZonedDateTimeAttributeDescription();
+        assertTrue(datetime.supportsIndexType(GraphIndexType.ORDERED));
+        assertFalse(new ObjectAttributeDescription().supportsIndexType(GraphIndexType.ORDERED));
+        assertTrue(new ObjectAttributeDescription().supportsIndexType(GraphIndexType.UNORDERED));
+
+        final StoreGraph graph = new StoreGraph();
+        final int timeAttribute = graph.addAttribute(GraphElementType.TRANSACTION, ZonedDateTimeAttributeDescription.ATTRIBUTE_NAME, "time", null, null, null);
+        graph.setAttributeIndexType(timeAttribute, GraphIndexType.ORDERED);
+
+        final ZonedDateTime base = ZonedDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        final int v0 = graph.addVertex();
+        final int v1 = graph.addVertex();
+        final int[] transactions = new int[5];
+        for (int i = 0; i < transactions.length; i++) {
+            transactions[i] = graph.addTransaction(v0, v1, true);
+            graph.setObjectValue(timeAttribute, transactions[i], base.plusDays(i));
+        }
+
+        assertEquals(collect(graph.getElementsWithAttributeValueRange(timeAttribute, base.plusDays(1), base.plusDays(3))),
+                Set.of(transactions[1], transactions[2]));
+    }
+
+    private static Set<Integer> collect(final GraphIndexResult result) {
+        final Set<Integer> elements = new HashSet<>();
+        final int count = result.getCount();
+        for (int i = 0; i < count; i++) {
+            elements.add(result.getNextElement());
+        }
+        return elements;
+    }
+}
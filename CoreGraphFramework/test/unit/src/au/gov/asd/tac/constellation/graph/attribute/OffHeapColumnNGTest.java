@@ -0,0 +1,340 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Off Heap Column Test.
+ *
+ * @author sirius
+ */
+public class OffHeapColumnNGTest {
+
+    private static final int FLOATS_PER_PAGE = OffHeapColumn.PAGE_BYTES / Float.BYTES;
+
+    private boolean wasEnabled;
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        wasEnabled = OffHeapColumn.isEnabled();
+        OffHeapColumn.setEnabled(true);
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        OffHeapColumn.setEnabled(wasEnabled);
+    }
+
+    @Test
+    public void growingAcrossPagesPreservesValues() {
+        final OffHeapColumn column = new OffHeapColumn(Float.BYTES);
+        column.setCapacity(10);
+        column.setFloat(9, 9F);
+
+        column.setCapacity(FLOATS_PER_PAGE * 2 + 1);
+        column.setFloat(FLOATS_PER_PAGE, 1F);
+        column.setFloat(FLOATS_PER_PAGE * 2, 2F);
+
+        assertEquals(column.getCapacity(), FLOATS_PER_PAGE * 2 + 1);
+        assertEquals(column.getFloat(9), 9F);
+        assertEquals(column.getFloat(10), 0F);
+        assertEquals(column.getFloat(FLOATS_PER_PAGE), 1F);
+        assertEquals(column.getFloat(FLOATS_PER_PAGE * 2), 2F);
+    }
+
+    @Test
+    public void mappedColumnGrowsAndCopiesOnWrite() throws IOException {
+        final int count = FLOATS_PER_PAGE + 3;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(-1);
+        for (int i = 0; i < count; i++) {
+            out.writeFloat(i);
+        }
+
+        final Path file = Files.createTempFile("column", ".bin");
+        try {
+            Files.write(file, bytes.toByteArray());
+            final OffHeapColumn column;
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                column = OffHeapColumn.map(channel, Integer.BYTES, Float.BYTES, count, count);
+            }
+
+            assertEquals(column.getCapacity(), count);
+            assertEquals(column.getFloat(1), 1F);
+            assertEquals(column.getFloat(count - 1), count - 1F);
+
+            column.setCapacity(count + 10);
+            column.setFloat(1, -1F);
+            assertEquals(column.getFloat(count - 1), count - 1F);
+            assertEquals(column.getFloat(count), 0F);
+
+            final OffHeapColumn copy = new OffHeapColumn(column);
+            assertEquals(copy.getFloat(1), -1F);
+            assertEquals(copy.getFloat(FLOATS_PER_PAGE), (float) FLOATS_PER_PAGE);
+
+            // Writes to a mapped column are never written back to the file.
+            assertEquals(Files.readAllBytes(file), bytes.toByteArray());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void mappedColumnGrowsIntoReserveWithoutCopying() throws IOException {
+        final int count = 5;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        for (int i = 0; i < count; i++) {
+            out.writeFloat(i);
+        }
+        // The region following the column, as written for the next attribute.
+        for (int i = 0; i < count; i++) {
+            out.writeFloat(-1F);
+        }
+
+        final Path file = Files.createTempFile("column", ".bin");
+        try {
+            Files.write(file, bytes.toByteArray());
+            final OffHeapColumn column;
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                column = OffHeapColumn.map(channel, 0, Float.BYTES, count, count + 3);
+            }
+
+            column.setCapacity(count + 3);
+            assertTrue(column.isMapped());
+            assertEquals(column.getFloat(count - 1), count - 1F);
+            assertEquals(column.getFloat(count), 0F);
+            assertEquals(column.getFloat(count + 2), 0F);
+
+            column.setCapacity(count + 4);
+            assertFalse(column.isMapped());
+            assertEquals(column.getFloat(count - 1), count - 1F);
+            assertEquals(column.getFloat(count + 3), 0F);
+            assertEquals(Files.readAllBytes(file), bytes.toByteArray());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void mappedColumnReservesPagesPastEndOfFile() throws IOException {
+        final int count = FLOATS_PER_PAGE - 1;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        for (int i = 0; i < count; i++) {
+            out.writeFloat(i);
+        }
+
+        final Path file = Files.createTempFile("column", ".bin");
+        try {
+            Files.write(file, bytes.toByteArray());
+            final OffHeapColumn column;
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                column = OffHeapColumn.map(channel, 0, Float.BYTES, count, FLOATS_PER_PAGE + 2);
+            }
+
+            column.setCapacity(FLOATS_PER_PAGE + 2);
+            column.setFloat(FLOATS_PER_PAGE + 1, 1F);
+            assertTrue(column.isMapped());
+            assertEquals(column.getFloat(count - 1), count - 1F);
+            assertEquals(column.getFloat(count), 0F);
+            assertEquals(column.getFloat(FLOATS_PER_PAGE + 1), 1F);
+
+            column.setCapacity(FLOATS_PER_PAGE / 2);
+            column.setCapacity(FLOATS_PER_PAGE + 2);
+            assertEquals(column.getFloat(FLOATS_PER_PAGE / 2 - 1), FLOATS_PER_PAGE / 2 - 1F);
+            assertEquals(column.getFloat(FLOATS_PER_PAGE / 2), 0F);
+            assertEquals(column.getFloat(FLOATS_PER_PAGE + 1), 0F);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void mappedColumnFillsReservedValues() throws IOException {
+        final int count = 10;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        for (int i = 0; i < count; i++) {
+            out.writeShort(i);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeShort(-1);
+        }
+
+        final Path file = Files.createTempFile("column", ".bin");
+        try {
+            Files.write(file, bytes.toByteArray());
+            final OffHeapColumn column;
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                column = OffHeapColumn.map(channel, 0, Short.BYTES, count, count + 3, 7);
+            }
+
+            // Growing into the reserved values does not need to write the fill, so the column stays mapped.
+            column.setCapacity(count + 3);
+            assertTrue(column.isMapped());
+            assertEquals(column.getShort(count - 1), (short) (count - 1));
+            assertEquals(column.getShort(count), (short) 7);
+            assertEquals(column.getShort(count + 2), (short) 7);
+            assertEquals(Files.readAllBytes(file), bytes.toByteArray());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void shrinkingThenGrowingYieldsZeros() {
+        final OffHeapColumn column = new OffHeapColumn(Long.BYTES);
+        column.setCapacity(8);
+        column.setLong(5, 5L);
+        column.setLong(6, 6L);
+
+        column.setCapacity(6);
+        column.setCapacity(8);
+
+        assertEquals(column.getLong(5), 5L);
+        assertEquals(column.getLong(6), 0L);
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        final OffHeapColumn column = new OffHeapColumn(Integer.BYTES);
+        column.setCapacity(4);
+        column.setInt(1, 1);
+
+        final OffHeapColumn copy = new OffHeapColumn(column);
+        copy.setInt(1, 2);
+
+        assertEquals(column.getInt(1), 1);
+        assertEquals(copy.getInt(1), 2);
+    }
+
+    @Test
+    public void copySharesPagesUntilWritten() {
+        final OffHeapColumn column = new OffHeapColumn(Float.BYTES);
+        column.setCapacity(FLOATS_PER_PAGE * 2);
+        column.setFloat(0, 1F);
+        column.setFloat(FLOATS_PER_PAGE, 2F);
+
+        final OffHeapColumn copy = new OffHeapColumn(column);
+
+        // Each column copies a page before writing to it, whichever column the page came from.
+        column.setFloat(0, 3F);
+        copy.setFloat(FLOATS_PER_PAGE, 4F);
+
+        assertEquals(column.getFloat(0), 3F);
+        assertEquals(column.getFloat(FLOATS_PER_PAGE), 2F);
+        assertEquals(copy.getFloat(0), 1F);
+        assertEquals(copy.getFloat(FLOATS_PER_PAGE), 4F);
+
+        column.setCapacity(FLOATS_PER_PAGE / 2);
+        column.setCapacity(FLOATS_PER_PAGE * 2);
+        assertEquals(column.getFloat(FLOATS_PER_PAGE), 0F);
+        assertEquals(copy.getFloat(FLOATS_PER_PAGE), 4F);
+    }
+
+    @Test
+    public void serializationRoundTrip() throws IOException, ClassNotFoundException {
+        final OffHeapColumn column = new OffHeapColumn(Double.BYTES);
+        column.setCapacity(3);
+        column.setDouble(2, 2.5);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(column);
+        }
+        final OffHeapColumn restored;
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (OffHeapColumn) in.readObject();
+        }
+
+        assertEquals(restored.getCapacity(), 3);
+        assertEquals(restored.getDouble(2), 2.5);
+    }
+
+    @Test
+    public void descriptionUsesColumnWithDefault() {
+        final FloatAttributeDescription description = new FloatAttributeDescription();
+        description.setDefault(-1F);
+        description.setCapacity(4);
+        description.setFloat(2, 2F);
+
+        assertEquals(description.getFloat(0), -1F);
+        assertEquals(description.getFloat(2), 2F);
+        assertEquals((float[]) description.saveData(), new float[]{-1F, -1F, 2F, -1F});
+
+        description.restoreData(new float[]{3F, 4F});
+        assertEquals(description.getCapacity(), 2);
+        assertEquals(description.getFloat(1), 4F);
+    }
+
+    @Test
+    public void mappedDescriptionWithDefaultStaysMapped() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(10);
+        out.writeInt(20);
+
+        final Path file = Files.createTempFile("column", ".bin");
+        try {
+            Files.write(file, bytes.toByteArray());
+            final IntegerAttributeDescription description = new IntegerAttributeDescription();
+            description.setDefault(5);
+            description.setCapacity(4);
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                description.mapValues(channel, 0, 2);
+            }
+
+            assertTrue(description.isMapped());
+            assertEquals(description.getCapacity(), 4);
+            assertEquals(description.getInt(1), 20);
+            assertEquals(description.getInt(2), 5);
+            assertEquals(description.getInt(3), 5);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void booleanDescriptionUsesColumn() {
+        final BooleanAttributeDescription description = new BooleanAttributeDescription();
+        description.setCapacity(3);
+        description.setBoolean(1, true);
+
+        final BooleanAttributeDescription copy = (BooleanAttributeDescription) description.copy(null);
+        description.setBoolean(1, false);
+
+        assertEquals(copy.getBoolean(1), true);
+        assertEquals(copy.getBoolean(2), false);
+    }
+}
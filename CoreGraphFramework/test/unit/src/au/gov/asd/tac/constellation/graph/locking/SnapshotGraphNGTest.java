@@ -0,0 +1,287 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import au.gov.asd.tac.constellation.graph.DuplicateKeyException;
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Snapshot Graph Test.
+ *
+ * @author sirius
+ */
+public class SnapshotGraphNGTest {
+
+    @Test
+    public void commitIsVisibleToNewReaders() throws InterruptedException {
+        final SnapshotGraph g = new SnapshotGraph(null);
+
+        final WritableGraph wg = g.getWritableGraph("add", true);
+        wg.addVertex();
+        wg.addVertex();
+        wg.commit();
+
+        try (final ReadableGraph rg = g.getReadableGraph()) {
+            assertEquals(rg.getVertexCount(), 2);
+        }
+    }
+
+    @Test
+    public void readerKeepsSnapshotWhileWriting() throws InterruptedException {
+        final SnapshotGraph g = new SnapshotGraph(null);
+
+        WritableGraph wg = g.getWritableGraph("setup", true);
+        final int xAttribute = wg.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int v0 = wg.addVertex();
+        wg.setFloatValue(xAttribute, v0, 1F);
+        wg.commit();
+
+        final ReadableGraph rg = g.getReadableGraph();
+        try {
+            // The write lock can be taken while a reader still holds the old snapshot
+            wg = g.getWritableGraph("modify", true);
+            wg.setFloatValue(xAttribute, v0, 2F);
+            final int v1 = wg.addVertex();
+            wg.addTransaction(v0, v1, true);
+            wg.commit();
+
+            assertEquals(rg.getVertexCount(), 1);
+            assertEquals(rg.getTransactionCount(), 0);
+            assertEquals(rg.getFloatValue(xAttribute, v0), 1F);
+        } finally {
+            rg.release();
+        }
+
+        try (final ReadableGraph rg2 = g.getReadableGraph()) {
+            assertEquals(rg2.getVertexCount(), 2);
+            assertEquals(rg2.getTransactionCount(), 1);
+            assertEquals(rg2.getFloatValue(xAttribute, v0), 2F);
+        }
+    }
+
+    @Test
+    public void rollBackRestoresWritableGraph() throws InterruptedException {
+        final SnapshotGraph g = new SnapshotGraph(null);
+
+        WritableGraph wg = g.getWritableGraph("setup", true);
+        wg.addVertex();
+        wg.commit();
+
+        wg = g.getWritableGraph("discard", true);
+        final long modCount = wg.getGlobalModificationCounter();
+        wg.addVertex();
+        wg.rollBack();
+
+        wg = g.getWritableGraph("check", true);
+        assertEquals(wg.getVertexCount(), 1);
+        assertEquals(wg.getGlobalModificationCounter(), modCount);
+        wg.commit();
+    }
+
+    @Test
+    public void writerSeesOwnChangesWhenReading() throws InterruptedException {
+        final SnapshotGraph g = new SnapshotGraph(null);
+
+        final WritableGraph wg = g.getWritableGraph("add", true);
+        wg.addVertex();
+        try (final ReadableGraph rg = g.getReadableGraph()) {
+            assertEquals(rg.getVertexCount(), 1);
+        }
+        wg.commit();
+    }
+
+    @Test
+    public void copyOfSnapshotKeepsPrimaryKeys() throws InterruptedException {
+        final SnapshotGraph g = new SnapshotGraph(null);
+
+        final WritableGraph wg = g.getWritableGraph("setup", true);
+        final int nameAttribute = wg.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", null, null, null);
+        wg.setPrimaryKey(GraphElementType.VERTEX, nameAttribute);
+        final int v0 = wg.addVertex();
+        wg.setStringValue(nameAttribute, v0, "a");
+        wg.commit();
+
+        final StoreGraph copy;
+        try (final ReadableGraph rg = g.getReadableGraph()) {
+            copy = (StoreGraph) rg.copy();
+        }
+
+        final int v1 = copy.addVertex();
+        copy.setStringValue(nameAttribute, v1, "a");
+        boolean duplicate = false;
+        try {
+            copy.validateKey(GraphElementType.VERTEX, false);
+        } catch (final DuplicateKeyException ex) {
+            assertNotNull(ex.getMessage());
+            duplicate = true;
+        }
+        assertTrue(duplicate);
+    }
+
+    @Test
+    public void nestedCommitPublishesOnOuterCommit() throws InterruptedException {
+        final SnapshotGraph g = new SnapshotGraph(null);
+
+        final WritableGraph outer = g.getWritableGraph("outer", true);
+        final WritableGraph inner = g.getWritableGraph("inner", true);
+        inner.addVertex();
+        inner.commit();
+
+        final boolean[] visible = new boolean[1];
+        final Thread reader = new Thread(() -> {
+            try (final ReadableGraph rg = g.getReadableGraph()) {
+                visible[0] = rg.getVertexCount() > 0;
+            }
+        });
+        reader.start();
+        reader.join();
+        assertFalse(visible[0]);
+
+        outer.commit();
+
+        try (final ReadableGraph rg = g.getReadableGraph()) {
+            assertEquals(rg.getVertexCount(), 1);
+        }
+    }
+
+    @Test
+    public void snapshotSurvivesStructuralChangesAcrossPages() throws InterruptedException {
+        final SnapshotGraph g = new SnapshotGraph(null);
+
+        // Enough elements to span several pages of the element and list stores.
+        final int vertexCount = 10000;
+        WritableGraph wg = g.getWritableGraph("build", true);
+        for (int i = 0; i < vertexCount; i++) {
+            wg.addVertex();
+        }
+        for (int i = 1; i < vertexCount; i++) {
+            wg.addTransaction(i - 1, i, true);
+        }
+        wg.commit();
+
+        final ReadableGraph rg = g.getReadableGraph();
+        try {
+            wg = g.getWritableGraph("modify", true);
+            wg.removeVertex(5000);
+            wg.addTransaction(0, vertexCount - 1, false);
+            wg.removeTransaction(wg.getLinkTransaction(wg.getLink(10, 11), 0));
+            for (int i = 0; i < 100; i++) {
+                wg.addVertex();
+            }
+            wg.commit();
+
+            assertEquals(rg.getVertexCount(), vertexCount);
+            assertEquals(rg.getTransactionCount(), vertexCount - 1);
+            assertEquals(rg.getVertexNeighbourCount(5000), 2);
+            assertNotEquals(rg.getLink(10, 11), Graph.NOT_FOUND);
+            assertEquals(rg.getLink(0, vertexCount - 1), Graph.NOT_FOUND);
+            for (int position = 0; position < vertexCount; position++) {
+                assertEquals(rg.getVertexPosition(rg.getVertex(position)), position);
+            }
+        } finally {
+            rg.release();
+        }
+
+        try (final ReadableGraph rg2 = g.getReadableGraph()) {
+            assertEquals(rg2.getVertexCount(), vertexCount + 99);
+            assertEquals(rg2.getTransactionCount(), vertexCount - 3);
+            assertEquals(rg2.getLink(10, 11), Graph.NOT_FOUND);
+            assertNotEquals(rg2.getLink(0, vertexCount - 1), Graph.NOT_FOUND);
+        }
+    }
+
+    @Test
+    public void adoptedStoreGraphIsSharedCopyOnWrite() throws InterruptedException {
+        final StoreGraph target = new StoreGraph();
+        final int xAttribute = target.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final int v0 = target.addVertex();
+        final int v1 = target.addVertex();
+        target.setFloatValue(xAttribute, v0, 1F);
+
+        final SnapshotGraph g = new SnapshotGraph(null, target);
+
+        final WritableGraph wg = g.getWritableGraph("modify", true);
+        wg.setFloatValue(xAttribute, v0, 2F);
+        wg.addTransaction(v0, v1, true);
+        wg.commit();
+
+        target.setFloatValue(xAttribute, v1, 3F);
+        target.removeVertex(v1);
+
+        assertEquals(target.getFloatValue(xAttribute, v0), 1F);
+        assertEquals(target.getTransactionCount(), 0);
+        try (final ReadableGraph rg = g.getReadableGraph()) {
+            assertEquals(rg.getVertexCount(), 2);
+            assertEquals(rg.getTransactionCount(), 1);
+            assertEquals(rg.getFloatValue(xAttribute, v0), 2F);
+            assertEquals(rg.getFloatValue(xAttribute, v1), 0F);
+        }
+    }
+
+    @Test
+    public void indicesNamesAndLogsAreSharedCopyOnWrite() throws InterruptedException {
+        final SnapshotGraph g = new SnapshotGraph(null);
+
+        WritableGraph wg = g.getWritableGraph("setup", true);
+        final int selectedAttribute = wg.addAttribute(GraphElementType.VERTEX, BooleanAttributeDescription.ATTRIBUTE_NAME, "selected", null, false, null);
+        wg.setAttributeIndexType(selectedAttribute, GraphIndexType.UNORDERED);
+        final int v0 = wg.addVertex();
+        final int v1 = wg.addVertex();
+        wg.setBooleanValue(selectedAttribute, v0, true);
+        wg.commit();
+
+        final ReadableGraph rg = g.getReadableGraph();
+        try {
+            final long selectedCounter = rg.getValueModificationCounter(selectedAttribute);
+            assertEquals(rg.getElementsWithAttributeValue(selectedAttribute, Boolean.TRUE).getCount(), 1);
+
+            wg = g.getWritableGraph("modify", true);
+            wg.setBooleanValue(selectedAttribute, v1, true);
+            final int v2 = wg.addVertex();
+            wg.setBooleanValue(selectedAttribute, v2, true);
+            wg.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "y", null, 0F, null);
+            assertEquals(wg.getElementsWithAttributeValue(selectedAttribute, Boolean.TRUE).getCount(), 3);
+            wg.commit();
+
+            // The old snapshot still sees the index, names and change log it shared.
+            assertEquals(rg.getElementsWithAttributeValue(selectedAttribute, Boolean.TRUE).getCount(), 1);
+            assertEquals(rg.getAttribute(GraphElementType.VERTEX, "y"), Graph.NOT_FOUND);
+            assertEquals(rg.getChangedElements(selectedAttribute, selectedCounter), new int[0]);
+
+            try (final ReadableGraph rg2 = g.getReadableGraph()) {
+                assertEquals(rg2.getElementsWithAttributeValue(selectedAttribute, Boolean.TRUE).getCount(), 3);
+                assertNotEquals(rg2.getAttribute(GraphElementType.VERTEX, "y"), Graph.NOT_FOUND);
+                assertEquals(rg2.getChangedElements(selectedAttribute, selectedCounter), new int[]{v1, v2});
+            }
+        } finally {
+            rg.release();
+        }
+    }
+}
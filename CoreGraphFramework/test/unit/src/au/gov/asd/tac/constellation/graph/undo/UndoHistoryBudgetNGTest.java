@@ -0,0 +1,265 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.undo;
+
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import javax.swing.undo.AbstractUndoableEdit;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Undo History Budget Test.
+ *
+ * @author sirius
+ */
+public class UndoHistoryBudgetNGTest {
+
+    @Test
+    public void spilledEditUndoesAndRedoes() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        for (int i = 0; i < 1000; i++) {
+            graph.setFloatValue(xAttribute, graph.addVertex(), i);
+        }
+
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        for (int position = 0; position < graph.getVertexCount(); position++) {
+            final int vertex = graph.getVertex(position);
+            graph.setFloatValue(xAttribute, vertex, graph.getFloatValue(xAttribute, vertex) * 2.5F);
+        }
+        graph.setGraphEdit(null);
+        edit.finish();
+
+        final UndoSpillFile spillFile = new UndoSpillFile();
+        try {
+            assertTrue(edit.getMemorySize() > 0);
+            assertTrue(edit.spill(spillFile));
+            assertEquals(edit.getMemorySize(), 0);
+
+            edit.undo(graph);
+            for (int position = 0; position < graph.getVertexCount(); position++) {
+                final int vertex = graph.getVertex(position);
+                assertEquals(graph.getFloatValue(xAttribute, vertex), (float) vertex);
+            }
+
+            // Spilling again releases the reloaded state without rewriting it.
+            assertTrue(edit.spill(spillFile));
+            edit.execute(graph);
+            for (int position = 0; position < graph.getVertexCount(); position++) {
+                final int vertex = graph.getVertex(position);
+                assertEquals(graph.getFloatValue(xAttribute, vertex), vertex * 2.5F);
+            }
+        } finally {
+            spillFile.close();
+        }
+    }
+
+    @Test
+    public void unserialisableEditStaysInMemory() {
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        edit.setObjectValue(0, 0, null, new Object());
+        edit.finish();
+
+        final UndoSpillFile spillFile = new UndoSpillFile();
+        try {
+            assertFalse(edit.spill(spillFile));
+            assertTrue(edit.getMemorySize() > 0);
+        } finally {
+            spillFile.close();
+        }
+    }
+
+    @Test
+    public void olderEditsAreSpilled() {
+        final UndoHistoryBudget budget = new UndoHistoryBudget(250);
+        final TestEdit dead = new TestEdit();
+        final TestEdit oldest = new TestEdit();
+        final TestEdit older = new TestEdit();
+        final TestEdit newer = new TestEdit();
+        final TestEdit newest = new TestEdit();
+        dead.die();
+        budget.add(dead);
+        budget.add(oldest);
+        budget.add(older);
+        budget.add(newer);
+        budget.add(newest);
+
+        budget.enforce();
+        assertFalse(dead.spilled);
+        assertTrue(oldest.spilled);
+        assertTrue(older.spilled);
+        assertFalse(newer.spilled);
+        assertFalse(newest.spilled);
+        budget.close();
+    }
+
+    @Test
+    public void unspillableEditIsNotRetried() {
+        final UndoHistoryBudget budget = new UndoHistoryBudget(150);
+        final TestEdit unspillable = new TestEdit();
+        unspillable.spillable = false;
+        final TestEdit newest = new TestEdit();
+        budget.add(unspillable);
+        budget.add(newest);
+
+        budget.enforce();
+        budget.enforce();
+        assertEquals(unspillable.spillAttempts, 1);
+        assertFalse(newest.spilled);
+        budget.close();
+    }
+
+    @Test
+    public void spillFileIsCompacted() {
+        final StoreGraph graph = new StoreGraph();
+        final int xAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "x", null, 0F, null);
+        final Random random = new Random(1);
+        for (int i = 0; i < 200000; i++) {
+            graph.setFloatValue(xAttribute, graph.addVertex(), random.nextFloat());
+        }
+
+        final UndoHistoryBudget budget = new UndoHistoryBudget(0);
+        try {
+            // Incompressible edits, so that two of them fill more than the minimum compaction length.
+            final LiveEdit[] edits = new LiveEdit[3];
+            for (int e = 0; e < edits.length; e++) {
+                final UndoGraphEdit graphEdit = new UndoGraphEdit();
+                graph.setGraphEdit(graphEdit);
+                for (int position = 0; position < graph.getVertexCount(); position++) {
+                    graph.setFloatValue(xAttribute, graph.getVertex(position), random.nextFloat());
+                }
+                graph.setGraphEdit(null);
+                graphEdit.finish();
+                edits[e] = new LiveEdit(graphEdit);
+                budget.add(edits[e]);
+            }
+            budget.enforce();
+            final long spilledLength = edits[0].graphEdit.getSpillSize() + edits[1].graphEdit.getSpillSize();
+            assertTrue(spilledLength >= 1 << 20);
+            assertEquals(edits[2].graphEdit.getSpillSize(), 0);
+
+            // Once the first two edits leave the history, the spill file only holds a later one.
+            edits[0].die();
+            edits[1].die();
+            final float value = graph.getFloatValue(xAttribute, graph.getVertex(0));
+            edits[2].graphEdit.undo(graph);
+            final float undone = graph.getFloatValue(xAttribute, graph.getVertex(0));
+            edits[2].graphEdit.execute(graph);
+            final LiveEdit newest = new LiveEdit(new UndoGraphEdit());
+            budget.add(newest);
+            budget.enforce();
+            assertTrue(edits[2].graphEdit.getSpillSize() > 0);
+            assertEquals(budget.getSpillFileLength(), edits[2].graphEdit.getSpillSize());
+
+            edits[2].graphEdit.undo(graph);
+            assertEquals(graph.getFloatValue(xAttribute, graph.getVertex(0)), undone);
+            edits[2].graphEdit.execute(graph);
+            assertEquals(graph.getFloatValue(xAttribute, graph.getVertex(0)), value);
+        } finally {
+            budget.close();
+        }
+    }
+
+    @Test
+    public void writingSpilledEditLeavesItSpilled() throws IOException {
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        edit.setIntValue(0, 0, 1, 2);
+        edit.finish();
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        edit.write(new DataOutputStream(expected));
+
+        final UndoSpillFile spillFile = new UndoSpillFile();
+        try {
+            assertTrue(edit.spill(spillFile));
+            final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            edit.write(new DataOutputStream(actual));
+            assertEquals(actual.toByteArray(), expected.toByteArray());
+            assertEquals(edit.getMemorySize(), 0);
+        } finally {
+            spillFile.close();
+        }
+    }
+
+    private static class TestEdit extends AbstractUndoableEdit implements SpillableEdit {
+
+        private volatile boolean spilled = false;
+        private volatile boolean spillable = true;
+        private volatile int spillAttempts = 0;
+
+        @Override
+        public long getMemorySize() {
+            return spilled ? 0 : 100;
+        }
+
+        @Override
+        public boolean spill(final UndoSpillFile spillFile) {
+            spillAttempts++;
+            spilled = spillable;
+            return spillable;
+        }
+
+        @Override
+        public long getSpillSize() {
+            return 0;
+        }
+
+        @Override
+        public void moveSpill(final UndoSpillFile spillFile) {
+            // Nothing is written to the spill file.
+        }
+    }
+
+    /**
+     * A spillable edit in the undo history that wraps an UndoGraphEdit.
+     */
+    private static class LiveEdit extends AbstractUndoableEdit implements SpillableEdit {
+
+        private final UndoGraphEdit graphEdit;
+
+        LiveEdit(final UndoGraphEdit graphEdit) {
+            this.graphEdit = graphEdit;
+        }
+
+        @Override
+        public long getMemorySize() {
+            return graphEdit.getMemorySize();
+        }
+
+        @Override
+        public boolean spill(final UndoSpillFile spillFile) {
+            return graphEdit.spill(spillFile);
+        }
+
+        @Override
+        public long getSpillSize() {
+            return graphEdit.getSpillSize();
+        }
+
+        @Override
+        public void moveSpill(final UndoSpillFile spillFile) throws IOException {
+            graphEdit.moveSpill(spillFile);
+        }
+    }
+}
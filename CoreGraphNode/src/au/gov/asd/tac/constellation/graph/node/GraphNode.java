@@ -106,7 +106,7 @@ public class GraphNode extends AbstractNode {
     private GraphDataObject gdo;
     private final TopComponent tc;
     private int busyCount = 0;
-    private final UndoRedo.Manager undoRedoManager;
+    private final GraphUndoManager undoRedoManager;
 
     /**
      * Create a new Node for a Graph.
@@ -151,7 +151,7 @@ public class GraphNode extends AbstractNode {
         this.graph = graph;
         this.visualManager = visualManager;
         this.gdo = gdo;
-        this.undoRedoManager = new UndoRedo.Manager();
+        this.undoRedoManager = new GraphUndoManager();
         this.tc = tc;
 
         graph.setUndoManager(undoRedoManager);
@@ -262,6 +262,7 @@ public class GraphNode extends AbstractNode {
     @Override
     public void destroy() {
         GRAPHS.remove(graph.getId());
+        undoRedoManager.die();
 
         try {
             super.destroy();
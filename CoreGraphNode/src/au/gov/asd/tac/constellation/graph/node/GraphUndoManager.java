@@ -0,0 +1,66 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.node;
+
+import au.gov.asd.tac.constellation.graph.undo.UndoHistoryBudget;
+import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
+import javax.swing.event.UndoableEditEvent;
+import org.openide.awt.UndoRedo;
+import org.openide.util.NbPreferences;
+
+/**
+ * The undo/redo manager for a graph.
+ * <p>
+ * The memory held by the undo history is limited by an
+ * {@link UndoHistoryBudget}, the size of which is taken from the
+ * {@link ApplicationPreferenceKeys#UNDO_MEMORY_BUDGET} preference when the
+ * manager is created.
+ *
+ * @author sirius
+ */
+public class GraphUndoManager extends UndoRedo.Manager {
+
+    private final UndoHistoryBudget budget;
+
+    public GraphUndoManager() {
+        final int megabytes = NbPreferences.forModule(ApplicationPreferenceKeys.class).getInt(ApplicationPreferenceKeys.UNDO_MEMORY_BUDGET, ApplicationPreferenceKeys.UNDO_MEMORY_BUDGET_DEFAULT);
+        budget = megabytes > 0 ? new UndoHistoryBudget(megabytes * 1024L * 1024L) : null;
+    }
+
+    @Override
+    public void undoableEditHappened(final UndoableEditEvent e) {
+        super.undoableEditHappened(e);
+        if (budget != null) {
+            budget.add(e.getEdit());
+        }
+    }
+
+    @Override
+    public void discardAllEdits() {
+        super.discardAllEdits();
+        if (budget != null) {
+            budget.close();
+        }
+    }
+
+    @Override
+    public void die() {
+        super.die();
+        if (budget != null) {
+            budget.close();
+        }
+    }
+}
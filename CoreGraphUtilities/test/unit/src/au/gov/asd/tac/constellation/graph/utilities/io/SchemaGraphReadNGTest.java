@@ -0,0 +1,116 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.utilities.io;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.file.io.GraphJsonReader;
+import au.gov.asd.tac.constellation.graph.file.io.GraphJsonWriter;
+import au.gov.asd.tac.constellation.graph.file.io.GraphParseException;
+import au.gov.asd.tac.constellation.graph.schema.Schema;
+import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
+import au.gov.asd.tac.constellation.graph.schema.analytic.AnalyticSchemaFactory;
+import au.gov.asd.tac.constellation.graph.schema.analytic.concept.AnalyticConcept;
+import au.gov.asd.tac.constellation.graph.schema.type.SchemaVertexType;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.utilities.gui.TextIoProgress;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import org.testng.annotations.Test;
+
+/**
+ * Schema Graph Read Test.
+ *
+ * @author sirius
+ */
+public class SchemaGraphReadNGTest {
+
+    private static final int VERTEX_COUNT = 9000;
+
+    @Test
+    public void parallelReadOfSchemaGraphMatchesSingleThreadedRead() throws IOException, GraphParseException {
+        final Schema schema = SchemaFactoryUtilities.getSchemaFactory(AnalyticSchemaFactory.ANALYTIC_SCHEMA_ID).createSchema();
+        final StoreGraph graph = new StoreGraph(schema);
+        schema.newGraph(graph);
+        final int identifierAttribute = VisualConcept.VertexAttribute.IDENTIFIER.ensure(graph);
+        final int vertexTypeAttribute = AnalyticConcept.VertexAttribute.TYPE.ensure(graph);
+        final int transactionTypeAttribute = AnalyticConcept.TransactionAttribute.TYPE.ensure(graph);
+
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            final int vertex = graph.addVertex();
+            graph.setStringValue(identifierAttribute, vertex, "v" + i);
+            graph.setObjectValue(vertexTypeAttribute, vertex, i % 2 == 0 ? AnalyticConcept.VertexType.EMAIL_ADDRESS : AnalyticConcept.VertexType.HOST_NAME);
+            schema.completeVertex(graph, vertex);
+        }
+        for (int position = 1; position < graph.getVertexCount(); position++) {
+            final int transaction = graph.addTransaction(graph.getVertex(position - 1), graph.getVertex(position), true);
+            graph.setObjectValue(transactionTypeAttribute, transaction, AnalyticConcept.TransactionType.COMMUNICATION);
+            schema.completeTransaction(graph, transaction);
+        }
+
+        final GraphJsonWriter writer = new GraphJsonWriter();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeGraphToZip(graph, out, new TextIoProgress(false));
+        final byte[] bytes = out.toByteArray();
+
+        final GraphJsonReader serialReader = new GraphJsonReader();
+        serialReader.setThreadCount(1);
+        final Graph serialGraph = serialReader.readGraphZip("serial", new ByteArrayInputStream(bytes), new TextIoProgress(false));
+
+        final GraphJsonReader parallelReader = new GraphJsonReader();
+        parallelReader.setThreadCount(4);
+        final Graph parallelGraph = parallelReader.readGraphZip("parallel", new ByteArrayInputStream(bytes), new TextIoProgress(false));
+
+        final ReadableGraph expected = serialGraph.getReadableGraph();
+        final ReadableGraph actual = parallelGraph.getReadableGraph();
+        try {
+            assertEquals(actual.getSchema().getFactory().getName(), AnalyticSchemaFactory.ANALYTIC_SCHEMA_ID);
+            assertEquals(actual.getVertexCount(), VERTEX_COUNT);
+            assertEquals(actual.getTransactionCount(), VERTEX_COUNT - 1);
+
+            for (final GraphElementType elementType : new GraphElementType[]{GraphElementType.VERTEX, GraphElementType.TRANSACTION}) {
+                final int count = elementType == GraphElementType.VERTEX ? expected.getVertexCount() : expected.getTransactionCount();
+                assertEquals(actual.getAttributeCount(elementType), expected.getAttributeCount(elementType));
+                for (int a = 0; a < expected.getAttributeCount(elementType); a++) {
+                    final int expectedAttribute = expected.getAttribute(elementType, a);
+                    final int actualAttribute = actual.getAttribute(elementType, expected.getAttributeName(expectedAttribute));
+                    for (int position = 0; position < count; position++) {
+                        final int expectedElement = elementType == GraphElementType.VERTEX ? expected.getVertex(position) : expected.getTransaction(position);
+                        final int actualElement = elementType == GraphElementType.VERTEX ? actual.getVertex(position) : actual.getTransaction(position);
+                        assertEquals(actualElement, expectedElement);
+                        assertEquals((Object) actual.getObjectValue(actualAttribute, actualElement), (Object) expected.getObjectValue(expectedAttribute, expectedElement));
+                    }
+                }
+            }
+
+            // Schema types are resolved, not just copied as text.
+            final int actualType = AnalyticConcept.VertexAttribute.TYPE.get(actual);
+            final SchemaVertexType first = actual.getObjectValue(actualType, actual.getVertex(0));
+            final SchemaVertexType last = actual.getObjectValue(actualType, actual.getVertex(VERTEX_COUNT - 1));
+            assertNotNull(first);
+            assertEquals(first.toString(), AnalyticConcept.VertexType.EMAIL_ADDRESS.toString());
+            assertEquals(last.toString(), AnalyticConcept.VertexType.HOST_NAME.toString());
+        } finally {
+            actual.release();
+            expected.release();
+        }
+    }
+}
@@ -16,13 +16,17 @@
 package au.gov.asd.tac.constellation.graph.interaction.animation;
 
 import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
 import au.gov.asd.tac.constellation.graph.WritableGraph;
 import au.gov.asd.tac.constellation.graph.manager.GraphManager;
 import au.gov.asd.tac.constellation.graph.node.GraphNode;
 import au.gov.asd.tac.constellation.utilities.visual.VisualChange;
 import au.gov.asd.tac.constellation.utilities.visual.VisualManager;
+import au.gov.asd.tac.constellation.utilities.visual.VisualOverrides;
 import au.gov.asd.tac.constellation.utilities.visual.VisualProcessor;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -31,17 +35,26 @@ import java.util.List;
  * The life-cycle of an animation is follows (this is a simplified version of
  * the logic that actually runs in an animation's thread):
  * <pre>
- * wg = graph.getWritableGraph()
- * animation.initialise(wg)
+ * animation.initialise(graph.getReadableGraph())
  * while (true) {
- *     animation.animate(wg)
+ *     frame = new VisualOverrides.Frame()
+ *     animation.animate(graph.getReadableGraph(), frame)
+ *     manager.getOverrides().publish(frame)
  *     // wait for this long
  *     animation.getIntervalInMillis()
  * }
+ * wg = graph.getWritableGraph()
  * animation.reset(wg)
  * wg.commit()
+ * manager.getOverrides().clear()
  * </pre>
  * </p>
+ * Each frame of an animation is displayed through the {@link VisualOverrides}
+ * of the graph's {@link VisualManager} rather than by writing to the graph, so
+ * a running animation only holds a read lock for the duration of each frame,
+ * does not record any undo state, and does not block plugins from editing the
+ * graph. The graph is written to once, when the animation ends.
+ * <p>
  * All animations run on their own thread, but at the moment only one animation
  * can be run at a time (this may be changed in the future if there is a
  * requirement).
@@ -92,29 +105,31 @@ public abstract class Animation {
      * the animation to store any data that it will use over the course of the
      * animation.
      *
-     * @param wg A write lock on the graph to initialise the animation with.
+     * @param rg A read lock on the graph to initialise the animation with.
      */
-    public abstract void initialise(GraphWriteMethods wg);
+    public abstract void initialise(GraphReadMethods rg);
 
     /**
      * Run one frame of the animation.
      * <p>
-     * This method should modify the graph as necessary and return a list of
-     * visual changes that allow the relevant {@link VisualProcessor} to respond
-     * quickly to these changes (without having to wait until the lock on the
-     * graph is released).
+     * This method should record the values to display for this frame in the
+     * supplied frame of overrides and return a list of visual changes that
+     * allow the relevant {@link VisualProcessor} to respond to them. The graph
+     * itself must not be modified.
      *
-     * @param wg A write lock on the graph the animation is running on.
-     * @return
+     * @param rg A read lock on the graph the animation is running on.
+     * @param frame The overrides to display for this frame.
+     * @return The visual changes made by this frame.
      */
-    public abstract List<VisualChange> animate(GraphWriteMethods wg);
+    public abstract List<VisualChange> animate(GraphReadMethods rg, VisualOverrides.Frame frame);
 
     /**
-     * Reset any ephemeral changes made by the animation.
+     * Write the lasting result of the animation to the graph.
      * <p>
-     * This method is called after all calls to {@link #animate} and allows the
-     * animation to clean up any changes it made to the graph that should not
-     * persist after the animation has concluded.
+     * This method is called after all calls to {@link #animate} and is the
+     * only time the animation writes to the graph. Any overrides that should
+     * not persist after the animation has concluded are discarded once it
+     * returns.
      *
      * @param wg A write lock on the graph to reset the animation on.
      */
@@ -130,9 +145,10 @@ public abstract class Animation {
     /**
      * Get the name of this animation.
      * <p>
-     * This name will be used to retrieve the write lock on the graph, and
-     * consequentially if this animation is also significant, the name by which
-     * the result of the animation can be undone/redone.
+     * This name will be used to retrieve the write lock on the graph when the
+     * animation ends, and consequentially if this animation is also
+     * significant, the name by which the result of the animation can be
+     * undone/redone.
      *
      * @return The name of this animation.
      */
@@ -161,56 +177,81 @@ public abstract class Animation {
         finished = true;
     }
 
-    private boolean finished = false;
+    private volatile boolean finished = false;
 
     private Thread animationThread;
 
     private void run(final Graph graph) {
         if (GraphNode.getGraphNode(graph) != null) {
             final VisualManager manager = GraphNode.getGraphNode(graph).getVisualManager();
-            animationThread = new Thread(() -> {
-                WritableGraph wg;
-                while (true) {
-                    try {
-                        wg = graph.getWritableGraph(getName(), isSignificant());
-                        break;
-                    } catch (InterruptedException ex) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-                try {
-                    editGraph(manager, wg);
-                } finally {
-                    wg.commit();
-                }
-            });
+            animationThread = new Thread(() -> animateGraph(graph, manager));
             animationThread.setName("Animation");
             animationThread.start();
         }
     }
 
-    private void editGraph(final VisualManager manager, WritableGraph wg) {
-        initialise(wg);
+    private void animateGraph(final Graph graph, final VisualManager manager) {
+        boolean interrupted = false;
+        ReadableGraph rg = graph.getReadableGraph();
+        try {
+            initialise(rg);
+        } finally {
+            rg.release();
+        }
+
+        List<VisualChange> changes = Collections.emptyList();
         while (true) {
-            final List<VisualChange> changes = animate(wg);
-            if (!changes.isEmpty() && manager != null) {
-                manager.addMultiChangeOperation(changes);
-                wg = wg.flush(false);
+            final VisualOverrides.Frame frame = new VisualOverrides.Frame();
+            final List<VisualChange> frameChanges;
+            rg = graph.getReadableGraph();
+            try {
+                frameChanges = animate(rg, frame);
+            } finally {
+                rg.release();
+            }
+            if (!frameChanges.isEmpty() && manager != null) {
+                manager.getOverrides().publish(frame);
+                manager.addMultiChangeOperation(frameChanges);
+                changes = frameChanges;
             }
             if (finished) {
-                reset(wg);
                 break;
             }
             try {
                 Thread.sleep(getIntervalInMillis());
             } catch (InterruptedException ex) {
-                Thread.currentThread().interrupt();
+                interrupted = true;
                 if (finished) {
-                    reset(wg);
                     break;
                 }
             }
         }
+
+        WritableGraph wg = null;
+        while (wg == null) {
+            try {
+                wg = graph.getWritableGraph(getName(), isSignificant());
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        try {
+            reset(wg);
+        } finally {
+            wg.commit();
+        }
+
+        // Redisplay whatever the overrides were covering now that the result is in the graph.
+        if (manager != null) {
+            manager.getOverrides().clear();
+            if (!changes.isEmpty()) {
+                manager.addMultiChangeOperation(changes);
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private void stop() {
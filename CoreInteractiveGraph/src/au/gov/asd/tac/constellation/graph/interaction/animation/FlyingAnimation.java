@@ -25,6 +25,7 @@ import au.gov.asd.tac.constellation.utilities.graphics.Mathf;
 import au.gov.asd.tac.constellation.utilities.graphics.Vector3f;
 import au.gov.asd.tac.constellation.utilities.visual.VisualChange;
 import au.gov.asd.tac.constellation.utilities.visual.VisualChangeBuilder;
+import au.gov.asd.tac.constellation.utilities.visual.VisualOverrides;
 import au.gov.asd.tac.constellation.utilities.visual.VisualProperty;
 import java.security.SecureRandom;
 import java.util.ArrayDeque;
@@ -48,21 +49,22 @@ public final class FlyingAnimation extends Animation {
     private int stepsPerLink;
 
     @Override
-    public void initialise(GraphWriteMethods wg) {
-
-        xAttr = VisualConcept.VertexAttribute.X.get(wg);
-        yAttr = VisualConcept.VertexAttribute.Y.get(wg);
-        zAttr = VisualConcept.VertexAttribute.Z.get(wg);
-        x2Attr = VisualConcept.VertexAttribute.X2.get(wg);
-        y2Attr = VisualConcept.VertexAttribute.Y2.get(wg);
-        z2Attr = VisualConcept.VertexAttribute.Z2.get(wg);
-        rAttr = VisualConcept.VertexAttribute.NODE_RADIUS.get(wg);
-        selectedAttr = VisualConcept.VertexAttribute.SELECTED.get(wg);
+    public void initialise(GraphReadMethods rg) {
+
+        xAttr = VisualConcept.VertexAttribute.X.get(rg);
+        yAttr = VisualConcept.VertexAttribute.Y.get(rg);
+        zAttr = VisualConcept.VertexAttribute.Z.get(rg);
+        x2Attr = VisualConcept.VertexAttribute.X2.get(rg);
+        y2Attr = VisualConcept.VertexAttribute.Y2.get(rg);
+        z2Attr = VisualConcept.VertexAttribute.Z2.get(rg);
+        rAttr = VisualConcept.VertexAttribute.NODE_RADIUS.get(rg);
+        selectedAttr = VisualConcept.VertexAttribute.SELECTED.get(rg);
         doMixing = x2Attr != Graph.NOT_FOUND && y2Attr != Graph.NOT_FOUND && z2Attr != Graph.NOT_FOUND;
-        final int cameraAttribute = VisualConcept.GraphAttribute.CAMERA.get(wg);
-        camera = wg.getObjectValue(cameraAttribute, 0);
+        final int cameraAttribute = VisualConcept.GraphAttribute.CAMERA.get(rg);
+        // Fly a copy of the camera so that the graph is untouched until the animation ends.
+        camera = new Camera(rg.getObjectValue(cameraAttribute, 0));
 
-        stepsPerLink = STEPS_PER_LINK * (int) Math.sqrt(1 + (wg.getVertexCount() / 2000));
+        stepsPerLink = STEPS_PER_LINK * (int) Math.sqrt(1 + (rg.getVertexCount() / 2000));
 
         final Vector3f vec0 = new Vector3f(camera.lookAtEye);
         final Vector3f vec1 = new Vector3f(camera.lookAtCentre);
@@ -71,16 +73,16 @@ public final class FlyingAnimation extends Animation {
 
         currentVxId = Graph.NOT_FOUND;
         for (int i = xyzQueue.size(); i < VERTICES_PER_SPLINE; i++) {
-            final Vector3f xyz = getNextVertex(wg, camera.getMix());
+            final Vector3f xyz = getNextVertex(rg, camera.getMix());
             xyzQueue.add(xyz);
         }
     }
 
     @Override
-    public List<VisualChange> animate(GraphWriteMethods wg) {
+    public List<VisualChange> animate(GraphReadMethods rg, VisualOverrides.Frame frame) {
         if (step >= stepsPerLink) {
             // Get the next p3 vertex.
-            final Vector3f xyz = getNextVertex(wg, camera.getMix());
+            final Vector3f xyz = getNextVertex(rg, camera.getMix());
 
             // Remove the old p0 and add the new p3.
             xyzQueue.removeFirst();
@@ -107,6 +109,7 @@ public final class FlyingAnimation extends Animation {
 
         camera.lookAtEye.set(eye[0], eye[1], eye[2]);
         camera.lookAtCentre.set(centre[0], centre[1], centre[2]);
+        frame.setCamera(new Camera(camera));
 
         step++;
         return Arrays.asList(new VisualChangeBuilder(VisualProperty.CAMERA).forItems(1).withId(flyingAnimationId).build());
@@ -114,7 +117,8 @@ public final class FlyingAnimation extends Animation {
 
     @Override
     public void reset(GraphWriteMethods wg) {
-        // Method override required, intentionally left blank
+        final int cameraAttribute = VisualConcept.GraphAttribute.CAMERA.ensure(wg);
+        wg.setObjectValue(cameraAttribute, 0, camera);
     }
 
     @Override
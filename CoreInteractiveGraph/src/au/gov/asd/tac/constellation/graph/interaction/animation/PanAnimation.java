@@ -15,12 +15,15 @@
  */
 package au.gov.asd.tac.constellation.graph.interaction.animation;
 
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.utilities.camera.Camera;
 import au.gov.asd.tac.constellation.utilities.camera.Graphics3DUtilities;
 import au.gov.asd.tac.constellation.utilities.visual.VisualChange;
 import au.gov.asd.tac.constellation.utilities.visual.VisualChangeBuilder;
+import au.gov.asd.tac.constellation.utilities.visual.VisualOverrides;
 import au.gov.asd.tac.constellation.utilities.visual.VisualProperty;
 import java.util.Arrays;
 import java.util.Collections;
@@ -44,7 +47,6 @@ public final class PanAnimation extends Animation {
     private final long panAnimationId = VisualChangeBuilder.generateNewId();
 
     private Camera camera;
-    private int cameraAttr;
     private int step;
 
     public PanAnimation(final String name, final Camera from, final Camera to, final boolean isSignificant) {
@@ -64,13 +66,16 @@ public final class PanAnimation extends Animation {
     }
 
     @Override
-    public void initialise(GraphWriteMethods wg) {
-        cameraAttr = VisualConcept.GraphAttribute.CAMERA.ensure(wg);
-        camera = wg.getObjectValue(cameraAttr, 0);
+    public void initialise(GraphReadMethods rg) {
+        final int cameraAttr = VisualConcept.GraphAttribute.CAMERA.get(rg);
+        camera = cameraAttr != Graph.NOT_FOUND ? rg.getObjectValue(cameraAttr, 0) : null;
+        if (camera == null) {
+            camera = from;
+        }
     }
 
     @Override
-    public List<VisualChange> animate(GraphWriteMethods wg) {
+    public List<VisualChange> animate(GraphReadMethods rg, VisualOverrides.Frame frame) {
         if (step <= STEPS) {
             final float t = step / (float) STEPS;
             final float mix = reflect(t);
@@ -81,7 +86,7 @@ public final class PanAnimation extends Animation {
             camera.lookAtUp.set(Graphics3DUtilities.mix(from.lookAtUp, to.lookAtUp, mix));
             camera.lookAtRotation.set(Graphics3DUtilities.mix(from.lookAtRotation, to.lookAtRotation, mix));
 
-            wg.setObjectValue(cameraAttr, 0, camera);
+            frame.setCamera(camera);
             step++;
             return Arrays.asList(new VisualChangeBuilder(VisualProperty.CAMERA).forItems(1).withId(panAnimationId).build());
         } else {
@@ -92,7 +97,8 @@ public final class PanAnimation extends Animation {
 
     @Override
     public void reset(GraphWriteMethods wg) {
-        // Method override required, intentionally left blank
+        final int cameraAttr = VisualConcept.GraphAttribute.CAMERA.ensure(wg);
+        wg.setObjectValue(cameraAttr, 0, camera);
     }
 
     @Override
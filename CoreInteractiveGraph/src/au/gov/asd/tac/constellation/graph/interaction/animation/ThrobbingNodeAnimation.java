@@ -15,60 +15,53 @@
  */
 package au.gov.asd.tac.constellation.graph.interaction.animation;
 
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
-import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.utilities.visual.VisualChange;
 import au.gov.asd.tac.constellation.utilities.visual.VisualChangeBuilder;
+import au.gov.asd.tac.constellation.utilities.visual.VisualOverrides;
 import au.gov.asd.tac.constellation.utilities.visual.VisualProperty;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
+ * Throb the radius of every vertex.
+ * <p>
+ * The radii are only ever displayed as overrides, so the graph is left
+ * unchanged when the animation ends.
  *
  * @author twilight_sparkle
  */
 public class ThrobbingNodeAnimation extends Animation {
 
-    private int nodeRadiusAttribute;
     private final float lowerLimit = 1;
     private final float upperLimit = 4;
     private float currentDirection = 0.1f;
     private float currentRadius = 1f;
     private final long throbbingNodeAnimationId = VisualChangeBuilder.generateNewId();
 
-    final Map<Integer, Float> originalNodeRadii = new HashMap<>();
-
     @Override
-    public void initialise(GraphWriteMethods wg) {
-        nodeRadiusAttribute = VisualConcept.VertexAttribute.NODE_RADIUS.get(wg);
-        for (int pos = 0; pos < wg.getVertexCount(); pos++) {
-            final int vxId = wg.getVertex(pos);
-            originalNodeRadii.put(vxId, wg.getFloatValue(nodeRadiusAttribute, vxId));
-        }
+    public void initialise(GraphReadMethods rg) {
+        // Method override required, intentionally left blank
     }
 
     @Override
-    public List<VisualChange> animate(GraphWriteMethods wg) {
+    public List<VisualChange> animate(GraphReadMethods rg, VisualOverrides.Frame frame) {
         if (currentRadius > upperLimit || currentRadius < lowerLimit) {
             currentDirection = -currentDirection;
         }
         currentRadius += currentDirection;
-        for (int pos = 0; pos < wg.getVertexCount(); pos++) {
-            final int vxId = wg.getVertex(pos);
-            wg.setFloatValue(nodeRadiusAttribute, vxId, currentRadius);
+        for (int pos = 0; pos < rg.getVertexCount(); pos++) {
+            final int vxId = rg.getVertex(pos);
+            frame.setRadius(vxId, currentRadius);
         }
-        return Arrays.asList(new VisualChangeBuilder(VisualProperty.VERTEX_RADIUS).forItems(wg.getVertexCount()).withId(throbbingNodeAnimationId).build());
+        return Arrays.asList(new VisualChangeBuilder(VisualProperty.VERTEX_RADIUS).forItems(rg.getVertexCount()).withId(throbbingNodeAnimationId).build());
     }
 
     @Override
     public void reset(GraphWriteMethods wg) {
-        originalNodeRadii.forEach((vxId, radius) -> {
-            wg.setObjectValue(nodeRadiusAttribute, vxId, radius);
-        });
+        // Method override required, intentionally left blank
     }
-
     @Override
     public long getIntervalInMillis() {
         return 10;
@@ -101,6 +101,17 @@ public interface VisualAnnotator {
      */
     public VisualOperation hitTestPoint(final int x, final int y, final Queue<HitState> notificationQueue);
 
+    /**
+     * Create a {@link VisualOperation} to show the result of a hit test at the
+     * user's mouse cursor that was made without the {@link VisualProcessor},
+     * in the same way as the results of {@link #hitTestCursor} are shown.
+     *
+     * @param hitState The {@link HitState} holding the results of the hit
+     * test.
+     * @return A {@link VisualOperation} to show the result of the hit test.
+     */
+    public VisualOperation showCursorHit(final HitState hitState);
+
     /**
      * Create a {@link VisualOperation} to enable or disable hit testing on the
      * {@link VisualProcessor}.
@@ -18,11 +18,12 @@ package au.gov.asd.tac.constellation.graph.interaction.plugins.io;
 import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
 import au.gov.asd.tac.constellation.graph.file.GraphDataObject;
 import au.gov.asd.tac.constellation.graph.file.io.GraphJsonWriter;
+import au.gov.asd.tac.constellation.graph.file.save.AutosaveJournal;
 import au.gov.asd.tac.constellation.graph.file.save.AutosaveUtilities;
 import au.gov.asd.tac.constellation.graph.node.GraphNode;
-import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginException;
@@ -33,6 +34,7 @@ import au.gov.asd.tac.constellation.plugins.PluginType;
 import au.gov.asd.tac.constellation.plugins.logging.ConstellationLoggerHelper;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.plugins.templates.SimplePlugin;
+import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
 import au.gov.asd.tac.constellation.utilities.gui.HandleIoProgress;
 import au.gov.asd.tac.constellation.utilities.temporal.TemporalFormatting;
 import java.io.File;
@@ -40,18 +42,26 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.prefs.Preferences;
 import org.openide.awt.StatusDisplayer;
 import org.openide.util.NbBundle.Messages;
+import org.openide.util.NbPreferences;
 import org.openide.util.lookup.ServiceProvider;
 
 /**
  * Autosave a single graph.
  * <p>
  * The caller has to go through the graphs and pass them one by one.
+ * <p>
+ * When autosaves are journaled, the edits made since the last autosave are
+ * appended to an {@link AutosaveJournal} and the whole graph is only written
+ * when a new checkpoint is required.
  *
  * @author algol
  */
@@ -70,6 +80,33 @@ public final class AutosaveGraphPlugin extends SimplePlugin {
 
         // The user might have deleted the graph, so check first.
         if (gnode != null) {
+            final File saveDir = AutosaveUtilities.getAutosaveDir();
+            final String gname = graph.getId() + GraphDataObject.FILE_EXTENSION;
+            final File saveFile = new File(saveDir, gname);
+
+            final Preferences prefs = NbPreferences.forModule(ApplicationPreferenceKeys.class);
+            if (prefs.getBoolean(ApplicationPreferenceKeys.AUTOSAVE_JOURNAL, ApplicationPreferenceKeys.AUTOSAVE_JOURNAL_DEFAULT)) {
+                final AutosaveJournal journal = AutosaveJournal.getJournal(graph, new File(saveDir, graph.getId() + AutosaveUtilities.JOURNAL_EXT));
+                if (!journal.isCheckpointRequired() && journal.append()) {
+                    return;
+                }
+
+                // Checkpoint: save the whole graph and start a new journal.
+                interaction.setProgress(-1, -1, "Autosaving: " + graphId, true);
+                final StoreGraph copy = journal.startCheckpoint(graph);
+                interaction.setProgress(1, 0, "Finished", true);
+                if (copy != null) {
+                    try {
+                        writeAutosave(copy, saveFile);
+                        final String checkpoint = journal.finishCheckpoint(copy, saveFile.length());
+                        writeProperties(graph, gnode, new File(saveDir, gname + "_auto"), checkpoint);
+                    } catch (IOException ex) {
+                        LOGGER.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
+                    }
+                }
+                return;
+            }
+            AutosaveJournal.removeJournal(graph);
 
             interaction.setProgress(-1, -1, "Autosaving: " + graphId, true);
 
@@ -85,33 +122,55 @@ public final class AutosaveGraphPlugin extends SimplePlugin {
 
             interaction.setProgress(1, 0, "Finished", true);
 
-            final File saveDir = AutosaveUtilities.getAutosaveDir();
-
             try {
-                final String gname = graph.getId() + GraphDataObject.FILE_EXTENSION;
-                StatusDisplayer.getDefault().setStatusText(String.format("Auto saving %s as %s at %s...", graphId, gname, new Date()));
-                final File saveFile = new File(saveDir, gname);
-                new GraphJsonWriter().writeGraphToZip(copy, saveFile.getPath(), new HandleIoProgress("Autosaving..."));
-
-                ConstellationLoggerHelper.exportPropertyBuilder(
-                        this,
-                        GraphRecordStoreUtilities.getVertices(copy, false, false, false).getAll(GraphRecordStoreUtilities.SOURCE + VisualConcept.VertexAttribute.LABEL),
-                        saveFile,
-                        ConstellationLoggerHelper.SUCCESS
-                );
-
-                final Properties p = new Properties();
-                p.setProperty(AutosaveUtilities.ID, graph.getId());
-                p.setProperty(AutosaveUtilities.NAME, gnode.getName());
-                p.setProperty(AutosaveUtilities.PATH, gnode.getDataObject().getPrimaryFile().getPath());
-                p.setProperty(AutosaveUtilities.UNSAVED, Boolean.toString(gnode.getDataObject().isInMemory()));
-                p.setProperty(AutosaveUtilities.DT, ZonedDateTime.now().format(TemporalFormatting.ZONED_DATE_TIME_FORMATTER));
-                try (OutputStream s = new FileOutputStream(new File(saveDir, gname + "_auto"))) {
-                    p.store(s, null);
-                }
+                writeAutosave(copy, saveFile);
+                writeProperties(graph, gnode, new File(saveDir, gname + "_auto"), null);
             } catch (IOException ex) {
                 LOGGER.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
             }
         }
     }
+
+    private void writeAutosave(final GraphReadMethods copy, final File saveFile) throws IOException, PluginException {
+        StatusDisplayer.getDefault().setStatusText(String.format("Auto saving %s as %s at %s...", copy.getId(), saveFile.getName(), new Date()));
+        new GraphJsonWriter().writeGraphToZip(copy, saveFile.getPath(), new HandleIoProgress("Autosaving..."));
+
+        ConstellationLoggerHelper.exportPropertyBuilder(
+                this,
+                getVertexLabels(copy),
+                saveFile,
+                ConstellationLoggerHelper.SUCCESS
+        );
+    }
+
+    private static void writeProperties(final Graph graph, final GraphNode gnode, final File autoFile, final String checkpoint) throws IOException {
+        final Properties p = new Properties();
+        p.setProperty(AutosaveUtilities.ID, graph.getId());
+        p.setProperty(AutosaveUtilities.NAME, gnode.getName());
+        p.setProperty(AutosaveUtilities.PATH, gnode.getDataObject().getPrimaryFile().getPath());
+        p.setProperty(AutosaveUtilities.UNSAVED, Boolean.toString(gnode.getDataObject().isInMemory()));
+        p.setProperty(AutosaveUtilities.DT, ZonedDateTime.now().format(TemporalFormatting.ZONED_DATE_TIME_FORMATTER));
+        if (checkpoint != null) {
+            p.setProperty(AutosaveUtilities.CHECKPOINT, checkpoint);
+        }
+        try (OutputStream s = new FileOutputStream(autoFile)) {
+            p.store(s, null);
+        }
+    }
+
+    /**
+     * Read the vertex labels to be logged directly from the graph rather than
+     * building a record store of every vertex.
+     */
+    private static List<String> getVertexLabels(final GraphReadMethods graph) {
+        final int labelAttribute = VisualConcept.VertexAttribute.LABEL.get(graph);
+        final int vertexCount = graph.getVertexCount();
+        final List<String> labels = new ArrayList<>(vertexCount);
+        if (labelAttribute != Graph.NOT_FOUND) {
+            for (int position = 0; position < vertexCount; position++) {
+                labels.add(graph.getStringValue(labelAttribute, graph.getVertex(position)));
+            }
+        }
+        return labels;
+    }
 }
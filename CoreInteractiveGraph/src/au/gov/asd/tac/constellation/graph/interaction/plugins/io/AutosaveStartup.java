@@ -19,6 +19,7 @@ import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.file.io.GraphJsonReader;
 import au.gov.asd.tac.constellation.graph.file.io.GraphParseException;
 import au.gov.asd.tac.constellation.graph.file.opener.GraphOpener;
+import au.gov.asd.tac.constellation.graph.file.save.AutosaveJournal;
 import au.gov.asd.tac.constellation.graph.file.save.AutosaveUtilities;
 import au.gov.asd.tac.constellation.utilities.gui.HandleIoProgress;
 import au.gov.asd.tac.constellation.utilities.gui.NotifyDisplayer;
@@ -87,7 +88,14 @@ public final class AutosaveStartup implements Runnable {
                                             // Remove the "_auto" from the end and load the matching graph.
                                             String path = f.getPath();
                                             path = path.substring(0, path.length() - 5);
-                                            final Graph g = new GraphJsonReader().readGraphZip(new File(path), new HandleIoProgress(loading));
+                                            Graph g = new GraphJsonReader().readGraphZip(new File(path), new HandleIoProgress(loading));
+
+                                            // Replay any edits journaled since the autosave.
+                                            try {
+                                                g = AutosaveJournal.restore(g, AutosaveUtilities.getJournal(f), props.getProperty(AutosaveUtilities.CHECKPOINT));
+                                            } catch (IOException ex) {
+                                                LOGGER.log(Level.WARNING, "Error replaying autosave journal, recovering the last checkpoint", ex);
+                                            }
                                             GraphOpener.getDefault().openGraph(g, name, false);
 
                                             AutosaveUtilities.deleteAutosave(f);
@@ -17,15 +17,17 @@ package au.gov.asd.tac.constellation.graph.interaction.plugins.select;
 
 import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.operations.SetBooleanValuesOperation;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.graph.visual.framework.VisualGraphDefaults;
+import au.gov.asd.tac.constellation.graph.visual.utilities.GraphSpatialIndex;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.PluginType;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
-import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
+import au.gov.asd.tac.constellation.plugins.templates.SimpleQueryPlugin;
 import au.gov.asd.tac.constellation.utilities.camera.Camera;
 import au.gov.asd.tac.constellation.utilities.graphics.Frame;
 import au.gov.asd.tac.constellation.utilities.graphics.Matrix33f;
@@ -41,18 +43,47 @@ import org.openide.util.NbBundle.Messages;
  */
 @Messages("BoxSelectionPlugin=Select in Box")
 @PluginInfo(pluginType = PluginType.SELECTION, tags = {"SELECTION"})
-public final class BoxSelectionPlugin extends SimpleEditPlugin {
+public final class BoxSelectionPlugin extends SimpleQueryPlugin {
 
     private final boolean isAdd;
     private final boolean isToggle;
     private final Camera camera;
     private final float[] box; // left, right, top, bottom in camera coordinates
+    private final GraphSpatialIndex spatialIndex;
 
     public BoxSelectionPlugin(final boolean isAdd, final boolean isToggle, final Camera camera, final float[] box) {
+        this(isAdd, isToggle, camera, box, null);
+    }
+
+    /**
+     * Select the elements in a box, using a spatial index of the graph to find
+     * the elements that could be in the box rather than testing every element.
+     * <p>
+     * The index is brought up to date while holding a read lock on the graph,
+     * before the write lock is taken. If the graph changes in between, every
+     * element is tested instead.
+     *
+     * @param isAdd add to the current selection.
+     * @param isToggle toggle the selection of the elements in the box.
+     * @param camera the camera the box is seen from.
+     * @param box the left, right, top and bottom of the box in camera
+     * coordinates.
+     * @param spatialIndex the spatial index of the graph, or null to test every
+     * element.
+     */
+    public BoxSelectionPlugin(final boolean isAdd, final boolean isToggle, final Camera camera, final float[] box, final GraphSpatialIndex spatialIndex) {
         this.isAdd = isAdd;
         this.isToggle = isToggle;
         this.camera = camera;
         this.box = box;
+        this.spatialIndex = spatialIndex;
+    }
+
+    @Override
+    protected void read(final GraphReadMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException {
+        if (spatialIndex != null) {
+            spatialIndex.update(graph);
+        }
     }
 
     @Override
@@ -118,13 +149,20 @@ public final class BoxSelectionPlugin extends SimpleEditPlugin {
             requiresMix = false;
         }
 
+        // The planes bounding the box in world coordinates, used to find the elements that could be in the box.
+        // The index was updated in read(), so it is only used if nothing has changed since.
+        final float[] boxPlanes = spatialIndex != null && spatialIndex.isCurrent(graph)
+                ? getBoxPlanes(centre, rotationMatrix, cameraDistance) : null;
+
         final BitSet vxIncluded = new BitSet();
 
         final int vxCount = graph.getVertexCount();
+        final int[] vxCandidates = boxPlanes != null ? spatialIndex.getVerticesInside(boxPlanes) : null;
+        final int vxCandidateCount = vxCandidates != null ? vxCandidates.length : vxCount;
 
         // Select the correct vertices.
-        for (int position = 0; position != vxCount; position++) {
-            final int vxId = graph.getVertex(position);
+        for (int position = 0; position != vxCandidateCount; position++) {
+            final int vxId = vxCandidates != null ? vxCandidates[position] : graph.getVertex(position);
 
             if (requiresVertexVisibility) {
                 final float visibility = graph.getFloatValue(vxVisibilityAttr, vxId);
@@ -170,9 +208,10 @@ public final class BoxSelectionPlugin extends SimpleEditPlugin {
             // Note: we're checking the actual connections, not what is drawn on the display.
             // This could be confusing for the user, but checking against what is actually displayed would be
             // a very different kettle of lines.
-            final int linkCount = graph.getLinkCount();
+            final int[] linkCandidates = boxPlanes != null ? spatialIndex.getLinksInside(boxPlanes) : null;
+            final int linkCount = linkCandidates != null ? linkCandidates.length : graph.getLinkCount();
             for (int position = 0; position < linkCount; position++) {
-                final int linkId = graph.getLink(position);
+                final int linkId = linkCandidates != null ? linkCandidates[position] : graph.getLink(position);
 
                 final int vxLo = graph.getLinkLowVertex(linkId);
                 final int vxHi = graph.getLinkHighVertex(linkId);
@@ -390,6 +429,49 @@ public final class BoxSelectionPlugin extends SimpleEditPlugin {
         graph.executeGraphOperation(selectTransactionsOperation);
     }
 
+    /**
+     * Find the planes in world coordinates that bound the part of the scene
+     * seen through the box.
+     * <p>
+     * A point is seen through the box when it is in front of the eye and its
+     * camera coordinates x/-z and y/-z are within the box, which are the four
+     * planes through the eye x + left*z &gt; 0, -x - right*z &gt; 0,
+     * -y - top*z &gt; 0 and y + bottom*z &gt; 0. The rotation from world to
+     * camera coordinates is linear, so the normal of each plane in world
+     * coordinates comes from the rotated unit axes, and its offset from the
+     * camera coordinates of the world origin.
+     *
+     * @return the planes as four floats each, in the form expected by
+     * {@link GraphSpatialIndex#getVerticesInside(float[])}.
+     */
+    private float[] getBoxPlanes(final Vector3f centre, final Matrix33f rotationMatrix, final float cameraDistance) {
+        final float[][] cameraPlanes = {{1, 0, box[0]}, {-1, 0, -box[1]}, {0, -1, -box[2]}, {0, 1, box[3]}};
+
+        final Vector3f[] sceneAxes = new Vector3f[3];
+        for (int axis = 0; axis < 3; axis++) {
+            final Vector3f worldAxis = new Vector3f();
+            worldAxis.a[axis] = 1;
+            sceneAxes[axis] = new Vector3f();
+            sceneAxes[axis].rotate(worldAxis, rotationMatrix);
+        }
+
+        final Vector3f worldOrigin = new Vector3f();
+        worldOrigin.subtract(centre);
+        final Vector3f sceneOrigin = new Vector3f();
+        sceneOrigin.rotate(worldOrigin, rotationMatrix);
+        sceneOrigin.setZ(sceneOrigin.getZ() - cameraDistance);
+
+        final float[] planes = new float[cameraPlanes.length * 4];
+        for (int p = 0; p < cameraPlanes.length; p++) {
+            final Vector3f normal = new Vector3f(cameraPlanes[p][0], cameraPlanes[p][1], cameraPlanes[p][2]);
+            for (int axis = 0; axis < 3; axis++) {
+                planes[p * 4 + axis] = Vector3f.dotProduct(normal, sceneAxes[axis]);
+            }
+            planes[p * 4 + 3] = Vector3f.dotProduct(normal, sceneOrigin);
+        }
+        return planes;
+    }
+
     /**
      * Does the given line segment intersect the given axis-aligned rectangle?
      * <p>
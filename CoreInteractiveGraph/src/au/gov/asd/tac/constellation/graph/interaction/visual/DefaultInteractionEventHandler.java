@@ -32,10 +32,12 @@ import au.gov.asd.tac.constellation.graph.interaction.plugins.select.BoxSelectio
 import au.gov.asd.tac.constellation.graph.interaction.plugins.select.PointSelectionPlugin;
 import au.gov.asd.tac.constellation.graph.interaction.visual.EventState.CreationMode;
 import au.gov.asd.tac.constellation.graph.interaction.visual.EventState.SceneAction;
+import au.gov.asd.tac.constellation.utilities.visual.DrawFlags;
 import au.gov.asd.tac.constellation.utilities.visual.NewLineModel;
 import au.gov.asd.tac.constellation.utilities.visual.SelectionBoxModel;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.graph.visual.contextmenu.ContextMenuProvider;
+import au.gov.asd.tac.constellation.graph.visual.utilities.GraphSpatialIndex;
 import au.gov.asd.tac.constellation.graph.visual.utilities.VisualGraphUtilities;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginException;
@@ -188,6 +190,9 @@ public class DefaultInteractionEventHandler implements InteractionEventHandler {
     private long currentCameraChangeId;
     private final long[] currentXYZChangeIds = new long[3];
 
+    // Kept up to date by box selections under a read lock, and by picking the vertex under the mouse as gestures are processed.
+    private final GraphSpatialIndex spatialIndex = new GraphSpatialIndex();
+
     @Override
     public void startHandlingEvents() {
         final Runnable timedInteractionHandler = () -> {
@@ -473,8 +478,14 @@ public class DefaultInteractionEventHandler implements InteractionEventHandler {
                 if (wg != null) {
                     camera = VisualGraphUtilities.getCamera(wg);
 
-                    // Order a hit test and wait for it to complete.
-                    orderHitTest(point, HitTestMode.HANDLE_SYNCHRONOUSLY);
+                    // Pick a vertex, or else order a hit test and wait for it to complete.
+                    final EventState picked = pickVertex(wg, point);
+                    if (picked != null) {
+                        eventState = picked;
+                        manager.addOperation(visualAnnotator.showCursorHit(picked));
+                    } else {
+                        orderHitTest(point, HitTestMode.HANDLE_SYNCHRONOUSLY);
+                    }
 
                     // Now that we have got the results of hit testing we can turn it off until the mouse is released.
                     setHitTestingEnabled(false);
@@ -680,9 +691,9 @@ public class DefaultInteractionEventHandler implements InteractionEventHandler {
     }
 
     /**
-     * For mouse movements when eventState has no current button - we do a hit
-     * test, and, in the case of creating a transaction, update the new line
-     * model.
+     * For mouse movements when eventState has no current button - we pick a
+     * vertex or do a hit test, and, in the case of creating a transaction,
+     * update the new line model.
      * <p>
      * When we are creating a transaction, we wait on the result of the hit test
      * before updating the new line model.
@@ -693,6 +704,15 @@ public class DefaultInteractionEventHandler implements InteractionEventHandler {
      */
     private void updateHitTestAndNewLine(final GraphReadMethods rg, final Point point) {
         final boolean newLine = eventState.getCurrentCreationMode().equals(CreationMode.CREATING_TRANSACTION);
+        final EventState picked = pickVertex(rg, point);
+        if (picked != null) {
+            manager.addOperation(visualAnnotator.showCursorHit(picked));
+            if (newLine) {
+                scheduleNewLineChangeOperation(rg, point, VisualGraphUtilities.getCamera(rg), false, picked);
+            }
+            return;
+        }
+
         // We need to wait for the results of the hit test if we are creating a transaction
 //        orderHitTest(point, newLine);
         if (newLine) {
@@ -752,6 +772,55 @@ public class DefaultInteractionEventHandler implements InteractionEventHandler {
         HANDLE_ASYNCHRONOUSLY;
     }
 
+    /**
+     * Picks the vertex drawn under a point from the spatial index of the
+     * graph, so that hovering over or clicking on a vertex does not need the
+     * {@link VisualProcessor} to draw and read back a hit test.
+     * <p>
+     * Vertices are picked as spheres of their radius at the camera's mix of
+     * their positions. Transactions are not in the index, so when no vertex is
+     * picked the caller orders a hit test instead.
+     *
+     * @param rg Read access to the graph, corresponding to the lock on which
+     * gestures are currently being processed.
+     * @param point The {@link Point} to pick in screen coordinates.
+     * @return A copy of the current {@link EventState} with the picked vertex
+     * as its hit, or null if no vertex was picked.
+     */
+    private EventState pickVertex(final GraphReadMethods rg, final Point point) {
+        // Vertices are not drawn if the draw flags say so, or if there are more than the visibility threshold.
+        final int visibleAboveThresholdAttribute = VisualConcept.GraphAttribute.VISIBLE_ABOVE_THRESHOLD.get(rg);
+        final int visibilityThresholdAttribute = VisualConcept.GraphAttribute.VISIBILITY_THRESHOLD.get(rg);
+        if ((VisualGraphUtilities.getDrawFlags(rg) & DrawFlags.NODES) == 0
+                || (visibleAboveThresholdAttribute != Graph.NOT_FOUND && !rg.getBooleanValue(visibleAboveThresholdAttribute, 0)
+                && visibilityThresholdAttribute != Graph.NOT_FOUND && rg.getVertexCount() > rg.getIntValue(visibilityThresholdAttribute, 0))) {
+            return null;
+        }
+
+        final Camera camera = VisualGraphUtilities.getCamera(rg);
+        final Vector3f direction = Vector3f.subtract(visualInteraction.windowToGraphCoordinates(camera, point), camera.lookAtEye);
+        final int visibilityAttribute = VisualConcept.VertexAttribute.VISIBILITY.get(rg);
+        final float visibilityLow = camera.getVisibilityLow();
+        final float visibilityHigh = camera.getVisibilityHigh();
+
+        spatialIndex.update(rg);
+        final int vertex = spatialIndex.pickVertex(camera.lookAtEye, direction, camera.getMix(), vxId -> {
+            if (visibilityAttribute == Graph.NOT_FOUND) {
+                return true;
+            }
+            final float visibility = rg.getFloatValue(visibilityAttribute, vxId);
+            return visibility > 1.0f || (visibility <= visibilityHigh && visibility >= visibilityLow);
+        });
+        if (vertex == Graph.NOT_FOUND) {
+            return null;
+        }
+
+        final EventState picked = new EventState(eventState);
+        picked.setCurrentHitType(HitType.VERTEX);
+        picked.setCurrentHitId(vertex);
+        return picked;
+    }
+
     /**
      * Orders a hit test via a {@link VisualOperation}, storing the result
      * {@link EventState} when the mode handles results.
@@ -1091,7 +1160,7 @@ public class DefaultInteractionEventHandler implements InteractionEventHandler {
 
         final float[] boxCameraCoordinates = visualInteraction.windowBoxToCameraBox(selectFrom.x, bottomRight.x, selectFrom.y, bottomRight.y);
 
-        Plugin plugin = new BoxSelectionPlugin(appendSelection, toggleSelection, VisualGraphUtilities.getCamera(rg), boxCameraCoordinates);
+        Plugin plugin = new BoxSelectionPlugin(appendSelection, toggleSelection, VisualGraphUtilities.getCamera(rg), boxCameraCoordinates, spatialIndex);
         PluginExecution.withPlugin(plugin).executeLater(graph);
     }
 
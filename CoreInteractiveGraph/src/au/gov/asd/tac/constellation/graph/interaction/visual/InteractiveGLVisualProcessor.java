@@ -168,17 +168,34 @@ public class InteractiveGLVisualProcessor extends GLVisualProcessor implements V
 
     @Override
     public VisualOperation hitTestCursor(final int x, final int y, final HitState hitState, final Queue<HitState> notificationQueue) {
-        hitTester.queueRequest(new HitTestRequest(x, y, hitState, notificationQueue, resultState -> {
-            if (resultState.getCurrentHitType().equals(HitType.NO_ELEMENT)) {
-                getCanvas().setCursor(DEFAULT_CURSOR);
-            } else {
-                getCanvas().setCursor(CROSSHAIR_CURSOR);
-            }
-        }));
+        hitTester.queueRequest(new HitTestRequest(x, y, hitState, notificationQueue, this::setHitCursor));
         return () -> Arrays.asList(new VisualChangeBuilder(VisualProperty.EXTERNAL_CHANGE)
                 .withId(hitTestId).build());
     }
 
+    @Override
+    public VisualOperation showCursorHit(final HitState hitState) {
+        return new VisualOperation() {
+            @Override
+            public void apply() {
+                setHitCursor(hitState);
+            }
+
+            @Override
+            public List<VisualChange> getVisualChanges() {
+                return Collections.emptyList();
+            }
+        };
+    }
+
+    private void setHitCursor(final HitState hitState) {
+        if (hitState.getCurrentHitType().equals(HitType.NO_ELEMENT)) {
+            getCanvas().setCursor(DEFAULT_CURSOR);
+        } else {
+            getCanvas().setCursor(CROSSHAIR_CURSOR);
+        }
+    }
+
     @Override
     public VisualOperation hitTestPoint(int x, int y, Queue<HitState> notificationQueue) {
         hitTester.queueRequest(new HitTestRequest(x, y, new HitState(), notificationQueue, null));
@@ -148,18 +148,35 @@ public class InteractiveVKVisualProcessor extends CVKVisualProcessor implements
     @Override
     public VisualOperation hitTestCursor(final int x, final int y, final HitState hitState, final Queue<HitState> notificationQueue) {
         if (cvkHitTester != null) {
-            cvkHitTester.queueRequest(new HitTestRequest(x, y, hitState, notificationQueue, resultState -> {
-                if (resultState.getCurrentHitType().equals(HitType.NO_ELEMENT)) {
-                    getCanvas().setCursor(DEFAULT_CURSOR);
-                } else {
-                    getCanvas().setCursor(CROSSHAIR_CURSOR);
-                }
-            }));
+            cvkHitTester.queueRequest(new HitTestRequest(x, y, hitState, notificationQueue, this::setHitCursor));
         }
         return () -> Arrays.asList(new VisualChangeBuilder(VisualProperty.EXTERNAL_CHANGE)
                 .withId(hitTestId).build());
     }
 
+    @Override
+    public VisualOperation showCursorHit(final HitState hitState) {
+        return new VisualOperation() {
+            @Override
+            public void apply() {
+                setHitCursor(hitState);
+            }
+
+            @Override
+            public List<VisualChange> getVisualChanges() {
+                return Collections.emptyList();
+            }
+        };
+    }
+
+    private void setHitCursor(final HitState hitState) {
+        if (hitState.getCurrentHitType().equals(HitType.NO_ELEMENT)) {
+            getCanvas().setCursor(DEFAULT_CURSOR);
+        } else {
+            getCanvas().setCursor(CROSSHAIR_CURSOR);
+        }
+    }
+
     @Override
     public VisualOperation hitTestPoint(int x, int y, Queue<HitState> notificationQueue) {
         CVKAssertNotNull(cvkHitTester);
@@ -22,10 +22,12 @@ import au.gov.asd.tac.constellation.utilities.graphics.Matrix44f;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.GLRenderable;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.GLVisualProcessor;
 import au.gov.asd.tac.constellation.visual.opengl.utilities.GLTools;
-import com.jogamp.common.nio.Buffers;
 import com.jogamp.opengl.GL3;
 import com.jogamp.opengl.GLAutoDrawable;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.concurrent.BlockingDeque;
@@ -49,6 +51,20 @@ import org.apache.commons.collections.CollectionUtils;
  * The alternate framebuffer is currently GL_R32F format. This gives 22 bits of
  * mantissa, or 4,194,304 ids. Using the sign bit gives another 22 bits. We use
  * positive numbers for node ids, negative numbers for line ids.
+ * <p>
+ * The pixels are read into a ring of pixel buffer objects rather than straight
+ * into memory, so reading them does not wait for the GPU to finish drawing.
+ * Each read is completed in a later frame once its fence has been passed, and
+ * the requests waiting on it are notified then. A frame with no new request
+ * waits for any reads still outstanding, and another frame is requested while
+ * reads are outstanding, so every request is answered within a frame or two.
+ * Setting the system property {@code constellation.hittest.async} to false
+ * waits for each read in the frame it is made.
+ * <p>
+ * The system property {@code constellation.hittest.radius} sets how many
+ * pixels around the cursor are read, the default being just the pixel under
+ * the cursor. The element drawn nearest to the cursor within that region is
+ * the one hit, which makes thin lines easier to hit.
  *
  * @author algol
  */
@@ -68,6 +84,14 @@ public final class HitTester implements GLRenderable {
     private final int hitTestBufferName = GL3.GL_COLOR_ATTACHMENT0;
     private final GLVisualProcessor parent;
 
+    private static final boolean ASYNCHRONOUS_READS = Boolean.parseBoolean(System.getProperty("constellation.hittest.async", "true"));
+    private static final int PICK_RADIUS = Math.max(0, Integer.getInteger("constellation.hittest.radius", 0));
+    private static final int PICK_SIZE = 2 * PICK_RADIUS + 1;
+    private static final int READ_BUFFER_COUNT = 3;
+    private final int[] readBufferNames = new int[READ_BUFFER_COUNT];
+    private int nextReadBuffer = 0;
+    private final Deque<PendingRead> pendingReads = new ArrayDeque<>();
+
     private HitTestRequest hitTestRequest;
     private final BlockingDeque<HitTestRequest> requestQueue = new LinkedBlockingDeque<>();
     private final Queue<Queue<HitState>> notificationQueues = new LinkedList<>();
@@ -116,6 +140,14 @@ public final class HitTester implements GLRenderable {
 
         GLTools.checkFramebufferStatus(gl, "ht-check");
         parent.setHitTestFboName(hitTestFboName[0]);
+
+        // Create the pixel buffers that hit test results are read into.
+        gl.glGenBuffers(READ_BUFFER_COUNT, readBufferNames, 0);
+        for (final int readBufferName : readBufferNames) {
+            gl.glBindBuffer(GL3.GL_PIXEL_PACK_BUFFER, readBufferName);
+            gl.glBufferData(GL3.GL_PIXEL_PACK_BUFFER, (long) PICK_SIZE * PICK_SIZE * Float.BYTES, null, GL3.GL_STREAM_READ);
+        }
+        gl.glBindBuffer(GL3.GL_PIXEL_PACK_BUFFER, 0);
     }
 
     /**
@@ -159,6 +191,10 @@ public final class HitTester implements GLRenderable {
             gl.glBindRenderbuffer(GL3.GL_RENDERBUFFER, 0);
             needsResize = false;
         }
+
+        // Finish the reads that the GPU has already completed.
+        completeReads(gl, false);
+
         if (!notificationQueues.isEmpty()) {
             final int x = hitTestRequest.getX();
             final int y = hitTestRequest.getY();
@@ -174,49 +210,185 @@ public final class HitTester implements GLRenderable {
             }
             final int surfaceHeight = (int) (drawable.getSurfaceHeight() * dpiScaleY);
 
-            // Allocate 3 floats for RGB values.
-            FloatBuffer fbuf = Buffers.newDirectFloatBuffer(3);
+            final Queue<Queue<HitState>> readNotificationQueues;
+            synchronized (this.notificationQueues) {
+                readNotificationQueues = new LinkedList<>(notificationQueues);
+                notificationQueues.clear();
+            }
+            startRead(gl, x, surfaceHeight - y, hitTestRequest, readNotificationQueues);
+
+            if (!ASYNCHRONOUS_READS) {
+                completeReads(gl, true);
+            }
+        } else {
+            // Nothing new was asked for, so there is nothing to overlap with the outstanding reads.
+            completeReads(gl, true);
+        }
+
+        if (!pendingReads.isEmpty()) {
+            parent.requestRedraw();
+        }
+    }
 
+    /**
+     * Start reading the pixels around a point of the hit test buffer into the
+     * next pixel buffer, without waiting for the result.
+     */
+    private void startRead(final GL3 gl, final int x, final int y, final HitTestRequest request, final Queue<Queue<HitState>> readNotificationQueues) {
+
+        // The ring is full, so the oldest read must be finished before its buffer is reused.
+        if (pendingReads.size() == READ_BUFFER_COUNT) {
+            completeRead(gl, pendingReads.removeFirst());
+        }
+
+        // Only read the part of the region that is inside the buffer.
+        final int left = Math.max(0, x - PICK_RADIUS);
+        final int bottom = Math.max(0, y - PICK_RADIUS);
+        final int readWidth = Math.max(0, Math.min(width, x + PICK_RADIUS + 1) - left);
+        final int readHeight = Math.max(0, Math.min(height, y + PICK_RADIUS + 1) - bottom);
+
+        final PendingRead read = new PendingRead(readBufferNames[nextReadBuffer], x - left, y - bottom, readWidth, readHeight, request, readNotificationQueues);
+        nextReadBuffer = (nextReadBuffer + 1) % READ_BUFFER_COUNT;
+
+        if (readWidth > 0 && readHeight > 0) {
             gl.glBindFramebuffer(GL3.GL_READ_FRAMEBUFFER, hitTestFboName[0]);
             gl.glReadBuffer(hitTestBufferName);
-            gl.glReadPixels(x, surfaceHeight - y, 1, 1, GL3.GL_RGB, GL3.GL_FLOAT, fbuf);
-
-            // There are enough colors in the buffer that we only need worry about
-            // r component for now. That gives us 2**22 distinct values.
-            final int r = (int) (fbuf.get(0));
-
-            final int id;
-            final HitType currentHitType;
-            if (r == 0) {
-                currentHitType = HitType.NO_ELEMENT;
-                id = -1;
-            } else {
-                currentHitType = r > 0 ? HitType.VERTEX : HitType.TRANSACTION;
-                id = r > 0 ? r - 1 : -r - 1;
-            }
+            gl.glBindBuffer(GL3.GL_PIXEL_PACK_BUFFER, read.bufferName);
+            gl.glReadPixels(left, bottom, readWidth, readHeight, GL3.GL_RED, GL3.GL_FLOAT, 0L);
+            gl.glBindBuffer(GL3.GL_PIXEL_PACK_BUFFER, 0);
+            read.sync = gl.glFenceSync(GL3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        }
 
-            final HitState hitState = hitTestRequest.getHitState();
-            hitState.setCurrentHitId(id);
-            hitState.setCurrentHitType(currentHitType);
-            if (hitTestRequest.getFollowUpOperation() != null) {
-                hitTestRequest.getFollowUpOperation().accept(hitState);
-            }
-            synchronized (this.notificationQueues) {
-                while (!notificationQueues.isEmpty()) {
-                    final Queue<HitState> queue = notificationQueues.remove();
-                    if (queue != null) {
-                        queue.add(hitState);
-                    }
+        pendingReads.addLast(read);
+    }
+
+    /**
+     * Finish outstanding reads in the order they were started.
+     *
+     * @param wait whether to wait for all of the reads, or only finish those
+     * the GPU has already completed.
+     */
+    private void completeReads(final GL3 gl, final boolean wait) {
+        while (!pendingReads.isEmpty()) {
+            final PendingRead read = pendingReads.getFirst();
+            if (!wait && read.sync != 0) {
+                final int status = gl.glClientWaitSync(read.sync, 0, 0);
+                if (status != GL3.GL_ALREADY_SIGNALED && status != GL3.GL_CONDITION_SATISFIED) {
+                    return;
                 }
             }
+            completeRead(gl, pendingReads.removeFirst());
+        }
+    }
+
+    private void completeRead(final GL3 gl, final PendingRead read) {
+
+        // The id of the element drawn nearest to the cursor in the region read, if any.
+        int r = 0;
+        if (read.sync != 0) {
+            gl.glDeleteSync(read.sync);
+            read.sync = 0;
+
+            gl.glBindBuffer(GL3.GL_PIXEL_PACK_BUFFER, read.bufferName);
+            final int byteCount = read.width * read.height * Float.BYTES;
+            final FloatBuffer pixels = gl.glMapBufferRange(GL3.GL_PIXEL_PACK_BUFFER, 0, byteCount, GL3.GL_MAP_READ_BIT).order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+            r = getNearestValue(pixels, read.width, read.height, read.cursorX, read.cursorY);
+
+            gl.glUnmapBuffer(GL3.GL_PIXEL_PACK_BUFFER);
+            gl.glBindBuffer(GL3.GL_PIXEL_PACK_BUFFER, 0);
+        }
+
+        final int id;
+        final HitType currentHitType;
+        if (r == 0) {
+            currentHitType = HitType.NO_ELEMENT;
+            id = -1;
+        } else {
+            currentHitType = r > 0 ? HitType.VERTEX : HitType.TRANSACTION;
+            id = r > 0 ? r - 1 : -r - 1;
+        }
+
+        final HitState hitState = read.request.getHitState();
+        hitState.setCurrentHitId(id);
+        hitState.setCurrentHitType(currentHitType);
+        if (read.request.getFollowUpOperation() != null) {
+            read.request.getFollowUpOperation().accept(hitState);
+        }
+        while (!read.notificationQueues.isEmpty()) {
+            final Queue<HitState> queue = read.notificationQueues.remove();
+            if (queue != null) {
+                queue.add(hitState);
+            }
         }
     }
 
     @Override
     public void dispose(final GLAutoDrawable drawable) {
         final GL3 gl = drawable.getGL().getGL3();
+        // Answer any outstanding requests so that nothing is left waiting on them.
+        completeReads(gl, true);
+        gl.glDeleteBuffers(READ_BUFFER_COUNT, readBufferNames, 0);
         gl.glDeleteRenderbuffers(1, hitTestRboName, 0);
         gl.glDeleteRenderbuffers(1, hitTestDepthBufferName, 0);
         gl.glDeleteFramebuffers(1, hitTestFboName, 0);
     }
+
+    /**
+     * Find the value drawn nearest to the cursor in a region of the hit test
+     * buffer, preferring vertices to transactions at the same distance.
+     * <p>
+     * There are enough colors in the buffer that we only need worry about the
+     * r component for now. That gives us 2**22 distinct values.
+     *
+     * @param pixels the r component of the pixels in the region, row by row.
+     * @param width the width of the region.
+     * @param height the height of the region.
+     * @param cursorX the column of the cursor in the region.
+     * @param cursorY the row of the cursor in the region.
+     * @return the nearest value, or 0 if nothing was drawn in the region.
+     */
+    static int getNearestValue(final FloatBuffer pixels, final int width, final int height, final int cursorX, final int cursorY) {
+        int nearest = 0;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                final int value = (int) pixels.get(row * width + column);
+                if (value != 0) {
+                    final int distance = (column - cursorX) * (column - cursorX) + (row - cursorY) * (row - cursorY);
+                    if (distance < nearestDistance || (distance == nearestDistance && value > 0 && nearest < 0)) {
+                        nearest = value;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * A read of the hit test buffer into a pixel buffer that has been started
+     * but not yet finished.
+     */
+    private static final class PendingRead {
+
+        private final int bufferName;
+        private final int cursorX;
+        private final int cursorY;
+        private final int width;
+        private final int height;
+        private final HitTestRequest request;
+        private final Queue<Queue<HitState>> notificationQueues;
+        private long sync = 0;
+
+        private PendingRead(final int bufferName, final int cursorX, final int cursorY, final int width, final int height, final HitTestRequest request, final Queue<Queue<HitState>> notificationQueues) {
+            this.bufferName = bufferName;
+            this.cursorX = cursorX;
+            this.cursorY = cursorY;
+            this.width = width;
+            this.height = height;
+            this.request = request;
+            this.notificationQueues = notificationQueues;
+        }
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.interaction.visual.renderables;
+
+import java.nio.FloatBuffer;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Hit Tester Test.
+ *
+ * @author sirius
+ */
+public class HitTesterNGTest {
+
+    @Test
+    public void nearestValueToCursorIsHit() {
+        final FloatBuffer pixels = FloatBuffer.wrap(new float[]{
+            0, 0, 0, 0, 7,
+            0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0,
+            -3, 0, 0, 0, 0,
+            0, 0, 0, 0, 0
+        });
+        assertEquals(HitTester.getNearestValue(pixels, 5, 5, 2, 2), -3);
+        assertEquals(HitTester.getNearestValue(pixels, 5, 5, 4, 1), 7);
+        assertEquals(HitTester.getNearestValue(FloatBuffer.wrap(new float[9]), 3, 3, 1, 1), 0);
+    }
+
+    @Test
+    public void vertexIsPreferredAtTheSameDistance() {
+        final FloatBuffer pixels = FloatBuffer.wrap(new float[]{
+            0, -5, 0,
+            0, 0, 4,
+            0, 0, 0
+        });
+        assertEquals(HitTester.getNearestValue(pixels, 3, 3, 1, 1), 4);
+        assertEquals(HitTester.getNearestValue(FloatBuffer.wrap(new float[]{9}), 1, 1, 0, 0), 9);
+    }
+}
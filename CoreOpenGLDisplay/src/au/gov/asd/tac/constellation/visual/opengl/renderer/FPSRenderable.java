@@ -38,6 +38,10 @@ import org.openide.util.NbPreferences;
 /**
  * Encapsulate the JOGL code required to render a frames-per-second count for
  * the {@link GraphRenderable}.
+ * <p>
+ * While the frame rate is displayed, the depth of the visual manager's queue
+ * and the ratio of visual changes processed to those received over the same
+ * period are logged at the FINE level alongside the frame rate.
  *
  * @author cygnus_x-1
  * @author twilight_sparkle
@@ -48,6 +52,7 @@ public class FPSRenderable implements GLRenderable {
     private static final Vector3f ZERO_3F = new Vector3f(0, 0, 0);
     private static final Matrix44f IDENTITY_44F = Matrix44f.identity();
     private static final Camera CAMERA = new Camera();
+    private static final Logger LOGGER = Logger.getLogger(FPSRenderable.class.getName());
 
     private final GLVisualProcessor parent;
     private final FpsBatcher fpsBatcher = new FpsBatcher();
@@ -60,6 +65,8 @@ public class FPSRenderable implements GLRenderable {
     private long start = 0;
     private long fps = 0;
     private long count_fps = 0;
+    private long receivedChanges = 0;
+    private long processedChanges = 0;
 
     public FPSRenderable(final GLVisualProcessor parent) {
         this.parent = parent;
@@ -149,6 +156,9 @@ public class FPSRenderable implements GLRenderable {
             fps = count_fps << 1;
             start = 0;
             count_fps = 0;
+            if (enabled) {
+                logUpdateStatistics();
+            }
         }
 
         count_fps++;
@@ -193,6 +203,18 @@ public class FPSRenderable implements GLRenderable {
         }
     }
 
+    private void logUpdateStatistics() {
+        final long received = parent.getReceivedChangeCount();
+        final long processed = parent.getProcessedChangeCount();
+        if (LOGGER.isLoggable(Level.FINE)) {
+            final long receivedDelta = received - receivedChanges;
+            final float coalescingRatio = receivedDelta == 0 ? 1 : (processed - processedChanges) / (float) receivedDelta;
+            LOGGER.log(Level.FINE, "fps={0} queue depth={1} coalescing ratio={2}", new Object[]{fps, parent.getUpdateQueueDepth(), coalescingRatio});
+        }
+        receivedChanges = received;
+        processedChanges = processed;
+    }
+
     @Override
     public void dispose(final GLAutoDrawable drawable) {
         final GL3 gl = drawable.getGL().getGL3();
@@ -316,6 +316,16 @@ public class GLVisualProcessor extends VisualProcessor {
         super.rebuild();
     }
 
+    /**
+     * Request another frame. This is public so that renderables whose work
+     * finishes over several frames, such as reading back hit tests, can ask
+     * for the frames they need.
+     */
+    @Override
+    public void requestRedraw() {
+        super.requestRedraw();
+    }
+
     /**
      * Signal that the update phase of this processor has been completed (by the
      * {@link GLRenderer}).
@@ -424,9 +434,11 @@ public class GLVisualProcessor extends VisualProcessor {
             case VERTICES_REBUILD:
                 return new HashSet<>(Arrays.asList(
                         VisualProperty.VERTEX_SELECTED, VisualProperty.VERTEX_X,
-                        VisualProperty.VERTEX_COLOR, VisualProperty.VERTEX_FOREGROUND_ICON,
-                        VisualProperty.VERTEX_BLAZED, VisualProperty.BOTTOM_LABELS_REBUILD,
-                        VisualProperty.TOP_LABELS_REBUILD, VisualProperty.DRAW_FLAGS
+                        VisualProperty.VERTEX_COLOR, VisualProperty.VERTEX_COLOR_ENCODING,
+                        VisualProperty.VERTEX_COLOR_VALUE,
+                        VisualProperty.VERTEX_FOREGROUND_ICON, VisualProperty.VERTEX_BLAZED,
+                        VisualProperty.BOTTOM_LABELS_REBUILD, VisualProperty.TOP_LABELS_REBUILD,
+                        VisualProperty.DRAW_FLAGS
                 ));
             case CONNECTIONS_REBUILD:
                 return new HashSet<>(Arrays.asList(
@@ -473,6 +485,10 @@ public class GLVisualProcessor extends VisualProcessor {
                 return VisualProperty.VERTEX_X;
             case VERTEX_COLOR:
                 return VisualProperty.VERTEX_COLOR;
+            case VERTEX_COLOR_ENCODING:
+                return VisualProperty.VERTEX_COLOR_ENCODING;
+            case VERTEX_COLOR_VALUE:
+                return VisualProperty.VERTEX_COLOR_VALUE;
             case VERTEX_FOREGROUND_ICON:
             case VERTEX_BACKGROUND_ICON:
             case VERTEX_NW_DECORATOR:
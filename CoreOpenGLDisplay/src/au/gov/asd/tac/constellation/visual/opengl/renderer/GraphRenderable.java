@@ -28,6 +28,7 @@ import au.gov.asd.tac.constellation.utilities.visual.VisualProperty;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.batcher.BlazeBatcher;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.batcher.ConnectionLabelBatcher;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.batcher.IconBatcher;
+import au.gov.asd.tac.constellation.visual.opengl.renderer.batcher.LodBatcher;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.batcher.LineBatcher;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.batcher.LoopBatcher;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.batcher.NodeLabelBatcher;
@@ -59,6 +60,7 @@ public final class GraphRenderable implements GLRenderable {
 
     private final XyzTexturiser xyzTexturiser = new XyzTexturiser();
     private final VertexFlagsTexturiser vertexFlagsTexturiser = new VertexFlagsTexturiser();
+    private final VertexColorValueTexturiser vertexColorValueTexturiser = new VertexColorValueTexturiser();
     // Texture for icons.
     private int iconTextureArray;
 
@@ -68,6 +70,7 @@ public final class GraphRenderable implements GLRenderable {
     private final ConnectionLabelBatcher connectionLabelBatcher = new ConnectionLabelBatcher();
     private final IconBatcher iconBatcher = new IconBatcher();
     private final BlazeBatcher blazeBatcher = new BlazeBatcher();
+    private final LodBatcher lodBatcher = new LodBatcher();
 
     // We need default values for the background and the draw flags, as the earlier we always display (even with no data) and we check the latter to tell us what to display (again, even with no data).
     private float[] graphBackgroundColor = new float[]{ConstellationColor.BLACK.getRed(), ConstellationColor.BLACK.getGreen(), ConstellationColor.BLACK.getBlue(), 1};
@@ -157,17 +160,17 @@ public final class GraphRenderable implements GLRenderable {
                     addTask(xyzTexturiser.createTexture(access));
                     addTask(vertexFlagsTexturiser.dispose());
                     addTask(vertexFlagsTexturiser.createTexture(access));
+                    addTask(vertexColorValueTexturiser.dispose());
+                    addTask(vertexColorValueTexturiser.createTexture(access));
+                    addTask(iconBatcher.setColorEncoding(access));
                     addTask(iconBatcher.disposeBatch());
                     addTask(iconBatcher.createBatch(access));
                     addTask(nodeLabelBatcher.disposeBatch());
-                    try {
-                        addTask(nodeLabelBatcher.createBatch(access));
-                    } catch (InterruptedException ex) {
-                        Thread.currentThread().interrupt();
-                        LOGGER.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
-                    }
+                    addTask(nodeLabelBatcher.createBatch(access));
                     addTask(blazeBatcher.disposeBatch());
                     addTask(blazeBatcher.createBatch(access));
+                    addTask(lodBatcher.disposeBatch());
+                    addTask(lodBatcher.createBatch(access));
                     addTask(gl -> {
                         iconTextureArray = iconBatcher.updateIconTexture(gl);
                     });
@@ -184,6 +187,7 @@ public final class GraphRenderable implements GLRenderable {
                     addTask(lineBatcher.createBatch(access));
                     addTask(loopBatcher.disposeBatch());
                     addTask(loopBatcher.createBatch(access));
+                    addTask(lodBatcher.updateConnections(access));
                     addTask(connectionLabelBatcher.disposeBatch());
                     try {
                         addTask(connectionLabelBatcher.createBatch(access));
@@ -231,13 +235,8 @@ public final class GraphRenderable implements GLRenderable {
                 return (change, access) -> {
                     addTask(nodeLabelBatcher.setBottomLabelColors(access));
                     addTask(nodeLabelBatcher.setBottomLabelSizes(access));
-                    try {
-                        // Note that updating bottom labels always rebuilds from scratch, so it is not an issue if the batch was not 'ready'.
-                        addTask(nodeLabelBatcher.updateBottomLabels(access));
-                    } catch (InterruptedException ex) {
-                        Thread.currentThread().interrupt();
-                        LOGGER.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
-                    }
+                    // Only the labels on the screen are laid out, so it is not an issue if the batch was not 'ready'.
+                    addTask(nodeLabelBatcher.updateBottomLabels(access));
                 };
             case CAMERA:
                 return (change, access) -> {
@@ -272,13 +271,8 @@ public final class GraphRenderable implements GLRenderable {
                 return (change, access) -> {
                     addTask(nodeLabelBatcher.setTopLabelColors(access));
                     addTask(nodeLabelBatcher.setTopLabelSizes(access));
-                    try {
-                        // Note that updating top labels always rebuilds from scratch, so it is not an issue if the batch was not 'ready'.
-                        addTask(nodeLabelBatcher.updateTopLabels(access));
-                    } catch (InterruptedException ex) {
-                        Thread.currentThread().interrupt();
-                        LOGGER.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
-                    }
+                    // Only the labels on the screen are laid out, so it is not an issue if the batch was not 'ready'.
+                    addTask(nodeLabelBatcher.updateTopLabels(access));
                 };
             case CONNECTION_COLOR:
                 return (change, access) -> {
@@ -298,6 +292,30 @@ public final class GraphRenderable implements GLRenderable {
             case VERTEX_COLOR:
                 return (change, access) -> {
                     addTaskIfReady(iconBatcher.updateColors(access, change), iconBatcher);
+                    if (vertexColorValueTexturiser.isReady()) {
+                        addTask(vertexColorValueTexturiser.updateColorValues(access, change));
+                    } else {
+                        addTask(vertexColorValueTexturiser.dispose());
+                        addTask(vertexColorValueTexturiser.createTexture(access));
+                    }
+                    addTask(lodBatcher.updateVertices(access, change));
+                };
+            case VERTEX_COLOR_VALUE:
+                return (change, access) -> {
+                    // The icon colours only show where a vertex has no value, so the values alone are updated.
+                    if (vertexColorValueTexturiser.isReady()) {
+                        addTask(vertexColorValueTexturiser.updateColorValues(access, change));
+                    } else {
+                        addTask(vertexColorValueTexturiser.dispose());
+                        addTask(vertexColorValueTexturiser.createTexture(access));
+                    }
+                    addTask(lodBatcher.updateVertices(access, change));
+                };
+            case VERTEX_COLOR_ENCODING:
+                return (change, access) -> {
+                    // The icons are recoloured by the shader, but the level of detail batch is coloured when it is buffered.
+                    addTask(iconBatcher.setColorEncoding(access));
+                    addTask(lodBatcher.updateVertices(access, change));
                 };
             case VERTEX_FOREGROUND_ICON:
                 return (change, access) -> {
@@ -323,6 +341,8 @@ public final class GraphRenderable implements GLRenderable {
                         addTask(xyzTexturiser.dispose());
                         addTask(xyzTexturiser.createTexture(access));
                     }
+                    addTask(nodeLabelBatcher.updatePositions(access, change));
+                    addTask(lodBatcher.updateVertices(access, change));
                 };
             case EXTERNAL_CHANGE:
             default:
@@ -357,6 +377,7 @@ public final class GraphRenderable implements GLRenderable {
             nodeLabelBatcher.createShader(gl);
             connectionLabelBatcher.createShader(gl);
             iconBatcher.createShader(gl);
+            lodBatcher.createShader(gl);
         } catch (final IOException | RenderException ex) {
             // If we get here, a shader didn't compile. This obviously shouldn't happen in production; 
             // our shaders are static and read from built-in resource files (it happens a lot in 
@@ -451,6 +472,8 @@ public final class GraphRenderable implements GLRenderable {
             gl.glBindTexture(GL3.GL_TEXTURE_2D_ARRAY, iconTextureArray);
             gl.glActiveTexture(GL3.GL_TEXTURE0 + TextureUnits.VERTEX_FLAGS);
             gl.glBindTexture(GL3.GL_TEXTURE_BUFFER, vertexFlagsTexturiser.getTextureName());
+            gl.glActiveTexture(GL3.GL_TEXTURE0 + TextureUnits.VERTEX_COLOR_VALUES);
+            gl.glBindTexture(GL3.GL_TEXTURE_BUFFER, vertexColorValueTexturiser.getTextureName());
 
             // We attempt to use PolygonOffset() to keep the lines behind the icons.
             // One factor,unit for lines, another factor,unit for points.
@@ -468,38 +491,50 @@ public final class GraphRenderable implements GLRenderable {
 
             final Matrix44f mvMatrix = parent.getDisplayModelViewMatrix();
 
-            if (drawFlags.drawConnections()) {
-                lineBatcher.setMotion(motion);
-                lineBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
-                loopBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
-            }
+            // Very large graphs seen from far away are drawn as aggregated cells instead of individual elements.
+            lodBatcher.setPixelDensity(pixelDensity);
+            final boolean drawLevelOfDetail = lodBatcher.useLevelOfDetail(camera);
 
-            gl.glPolygonOffset(nearer_f, nearer_u);
+            if (drawLevelOfDetail) {
+                if (drawFlags.drawNodes()) {
+                    lodBatcher.setDrawConnections(drawFlags.drawConnections());
+                    lodBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
+                }
+            } else {
+                if (drawFlags.drawConnections()) {
+                    lineBatcher.setMotion(motion);
+                    lineBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
+                    loopBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
+                }
 
-            // Draw node icons
-            if (drawFlags.drawNodes()) {
-                iconBatcher.setPixelDensity(pixelDensity);
-                iconBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
-            }
+                gl.glPolygonOffset(nearer_f, nearer_u);
 
-            // Draw node labels
-            if (drawFlags.drawNodes() && drawFlags.drawNodeLabels()) {
-                nodeLabelBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
-            }
+                // Draw node icons
+                if (drawFlags.drawNodes()) {
+                    iconBatcher.setPixelDensity(pixelDensity);
+                    iconBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
+                }
 
-            gl.glPolygonOffset(further_f, further_u);
+                // Draw node labels
+                if (drawFlags.drawNodes() && drawFlags.drawNodeLabels()) {
+                    nodeLabelBatcher.setPixelDensity(pixelDensity);
+                    nodeLabelBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
+                }
 
-            // Draw connection labels
-            if (drawFlags.drawConnectionLabels() && drawFlags.drawConnections()) {
-                connectionLabelBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
-            }
+                gl.glPolygonOffset(further_f, further_u);
 
-            gl.glPolygonOffset(0, 0);
+                // Draw connection labels
+                if (drawFlags.drawConnectionLabels() && drawFlags.drawConnections()) {
+                    connectionLabelBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
+                }
 
-            // Blazes are only drawn if points are being drawn.
-            // Blazes are drawn last because we want them to be on top of everything else.
-            if (drawFlags.drawNodes() && drawFlags.drawBlazes()) {
-                blazeBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
+                gl.glPolygonOffset(0, 0);
+
+                // Blazes are only drawn if points are being drawn.
+                // Blazes are drawn last because we want them to be on top of everything else.
+                if (drawFlags.drawNodes() && drawFlags.drawBlazes()) {
+                    blazeBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
+                }
             }
 
             if (hitTestFboName > 0 && drawHitTest) {
@@ -521,7 +556,8 @@ public final class GraphRenderable implements GLRenderable {
 
                 gl.glPolygonOffset(further_f, further_u);
 
-                if (drawFlags.drawConnections()) {
+                // Aggregated cells can't be hit, so the hit test buffer is left empty.
+                if (drawFlags.drawConnections() && !drawLevelOfDetail) {
                     lineBatcher.setNextDrawIsHitTest();
                     lineBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
                     loopBatcher.setNextDrawIsHitTest();
@@ -531,7 +567,7 @@ public final class GraphRenderable implements GLRenderable {
                 gl.glPolygonOffset(nearer_f, nearer_u);
 
                 // Draw node icons into hit test buffer
-                if (drawFlags.drawNodes()) {
+                if (drawFlags.drawNodes() && !drawLevelOfDetail) {
                     iconBatcher.setNextDrawIsHitTest();
                     iconBatcher.drawBatch(gl, camera, mvMatrix, pMatrix);
                 }
@@ -566,8 +602,10 @@ public final class GraphRenderable implements GLRenderable {
         iconBatcher.disposeBatch().run(gl);
         nodeLabelBatcher.disposeBatch().run(gl);
         connectionLabelBatcher.disposeBatch().run(gl);
+        lodBatcher.disposeBatch().run(gl);
         xyzTexturiser.dispose().run(gl);
         vertexFlagsTexturiser.dispose().run(gl);
+        vertexColorValueTexturiser.dispose().run(gl);
         graphDisplayer.dispose(drawable);
     }
 }
@@ -60,4 +60,9 @@ public class TextureUnits {
      * labels
      */
     public static final int GLYPH_INFO = 5;
+
+    /**
+     * Used by SceneBatchStore for storing the colour values of vertices.
+     */
+    public static final int VERTEX_COLOR_VALUES = 6;
 }
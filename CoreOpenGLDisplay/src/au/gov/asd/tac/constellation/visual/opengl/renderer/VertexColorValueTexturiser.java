@@ -0,0 +1,84 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.visual.opengl.renderer;
+
+import au.gov.asd.tac.constellation.utilities.visual.VisualAccess;
+import au.gov.asd.tac.constellation.utilities.visual.VisualChange;
+import au.gov.asd.tac.constellation.visual.opengl.renderer.GLRenderable.GLRenderableUpdateTask;
+import au.gov.asd.tac.constellation.visual.opengl.renderer.batcher.SceneBatcher;
+import au.gov.asd.tac.constellation.visual.opengl.utilities.FloatTextureBuffer;
+import com.jogamp.common.nio.Buffers;
+import java.nio.FloatBuffer;
+
+/**
+ * Holds the raw colour values of vertices so that the icon shader can map them
+ * through the colour encoding of the graph.
+ * <p>
+ * The values of four consecutive vertices are packed into each RGBA texel,
+ * so changing the encoding only changes shader uniforms and changing values
+ * only uploads one float per vertex.
+ *
+ * @author sirius
+ */
+public class VertexColorValueTexturiser {
+
+    private FloatTextureBuffer colorValueTexture;
+
+    private static final int VALUES_PER_TEXEL = 4;
+    private static final int COLOR_VALUE_BUFFER_WIDTH = 1;
+
+    public int getTextureName() {
+        return colorValueTexture == null ? -1 : colorValueTexture.getTextureName();
+    }
+
+    public boolean isReady() {
+        return colorValueTexture != null;
+    }
+
+    public GLRenderableUpdateTask dispose() {
+        return gl -> {
+            if (colorValueTexture != null) {
+                colorValueTexture.dispose(gl);
+                colorValueTexture = null;
+            }
+        };
+    }
+
+    public GLRenderableUpdateTask createTexture(final VisualAccess access) {
+        final int vertexCount = access.getVertexCount();
+        // Pad to whole texels (and at least one) so that every vertex can be fetched.
+        final int texelCount = Math.max(1, (vertexCount + VALUES_PER_TEXEL - 1) / VALUES_PER_TEXEL);
+        final FloatBuffer colorValueBuffer = Buffers.newDirectFloatBuffer(texelCount * VALUES_PER_TEXEL);
+        for (int i = 0; i < vertexCount; i++) {
+            bufferColorValueInfo(i, colorValueBuffer, access);
+        }
+        while (colorValueBuffer.hasRemaining()) {
+            colorValueBuffer.put(Float.NaN);
+        }
+        colorValueBuffer.flip();
+        return gl -> colorValueTexture = new FloatTextureBuffer(gl, colorValueBuffer);
+    }
+
+    public GLRenderableUpdateTask updateColorValues(final VisualAccess access, final VisualChange change) {
+        return SceneBatcher.updateFloatBufferTask(change, access, this::bufferColorValueInfo, colorValueTexture::connectBuffer, colorValueTexture::disconnectBuffer, COLOR_VALUE_BUFFER_WIDTH);
+    }
+
+    private int bufferColorValueInfo(final int pos, final FloatBuffer colorValueBuffer, final VisualAccess access) {
+        colorValueBuffer.put(access.getVertexColorValue(pos));
+        return pos;
+    }
+
+}
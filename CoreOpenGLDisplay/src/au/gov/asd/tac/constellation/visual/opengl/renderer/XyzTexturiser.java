@@ -52,10 +52,12 @@ public class XyzTexturiser {
 
     public GLRenderableUpdateTask createTexture(final VisualAccess access) {
         final FloatBuffer xyzBuffer = Buffers.newDirectFloatBuffer(XYZ_BUFFER_WIDTH * access.getVertexCount());
-        for (int i = 0; i < access.getVertexCount(); i++) {
-            bufferXyzInfo(i, xyzBuffer, access);
-        }
-        xyzBuffer.flip();
+        SceneBatcher.fillInParallel(access.getVertexCount(), (chunk, start, end) -> {
+            final FloatBuffer xyzSlice = SceneBatcher.slice(xyzBuffer, start * XYZ_BUFFER_WIDTH, end * XYZ_BUFFER_WIDTH);
+            for (int i = start; i < end; i++) {
+                bufferXyzInfo(i, xyzSlice, access);
+            }
+        });
         return gl -> xyzTexture = new FloatTextureBuffer(gl, xyzBuffer);
     }
 
@@ -139,10 +139,37 @@ public class BlazeBatcher implements SceneBatcher {
     }
 
     private void fillBatch(final VisualAccess access) {
-        blazeColors = new FloatArray();
-        blazeInfo = new IntArray();
-        for (int pos = 0; pos < access.getVertexCount(); pos++) {
-            bufferBlaze(pos, blazeColors, blazeInfo, access);
+
+        // Only blazed vertices are buffered, so each chunk gets its own arrays which are then joined in order.
+        final int vertexCount = access.getVertexCount();
+        final int chunkCount = SceneBatcher.getChunkCount(vertexCount);
+        final FloatArray[] chunkColors = new FloatArray[chunkCount];
+        final IntArray[] chunkInfo = new IntArray[chunkCount];
+        SceneBatcher.fillInParallel(vertexCount, (chunk, start, end) -> {
+            chunkColors[chunk] = new FloatArray();
+            chunkInfo[chunk] = new IntArray();
+            for (int pos = start; pos < end; pos++) {
+                bufferBlaze(pos, chunkColors[chunk], chunkInfo[chunk], access);
+            }
+        });
+
+        int colorCount = 0;
+        int infoCount = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            colorCount += chunkColors[chunk].size();
+            infoCount += chunkInfo[chunk].size();
+        }
+        blazeColors = new FloatArray(colorCount);
+        blazeInfo = new IntArray(infoCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            final float[] colors = chunkColors[chunk].rawArray();
+            for (int i = 0; i < chunkColors[chunk].size(); i++) {
+                blazeColors.add(colors[i]);
+            }
+            final int[] info = chunkInfo[chunk].rawArray();
+            for (int i = 0; i < chunkInfo[chunk].size(); i++) {
+                blazeInfo.add(info[i]);
+            }
         }
         blazeColors.trimToSize();
         blazeInfo.trimToSize();
@@ -18,6 +18,7 @@ package au.gov.asd.tac.constellation.visual.opengl.renderer.batcher;
 import au.gov.asd.tac.constellation.utilities.camera.Camera;
 import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
 import au.gov.asd.tac.constellation.utilities.graphics.Matrix44f;
+import au.gov.asd.tac.constellation.utilities.visual.ColorEncoding;
 import au.gov.asd.tac.constellation.utilities.visual.VisualAccess;
 import au.gov.asd.tac.constellation.utilities.visual.VisualChange;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.GLRenderable.GLRenderableUpdateTask;
@@ -51,6 +52,16 @@ public class IconBatcher implements SceneBatcher {
     private float[] highlightColorMatrix;
     private boolean drawForHitTest = false;
 
+    // The colour encoding applied by the shader to the colour values of vertices
+    private int colorMode = COLOR_MODE_NONE;
+    private float colorLow;
+    private float colorHigh;
+    private int colorStopCount;
+    private final float[] colorStops = new float[3 * ColorEncoding.MAX_COLORS];
+    private static final int COLOR_MODE_NONE = 0;
+    private static final int COLOR_MODE_RAMP = 1;
+    private static final int COLOR_MODE_PALETTE = 2;
+
     // Uniform locations in the shader for drawing the batch
     private int shaderMVMatrix;
     private int shaderPMatrix;
@@ -63,6 +74,12 @@ public class IconBatcher implements SceneBatcher {
     private int shaderFlagsTexture;
     private int shaderHighlightColor;
     private int shaderPixelDensity;
+    private int shaderColorValueTexture;
+    private int shaderColorMode;
+    private int shaderColorLow;
+    private int shaderColorHigh;
+    private int shaderColorStops;
+    private int shaderColorStopCount;
 
     private final int colorTarget;
     private final int iconTarget;
@@ -100,6 +117,12 @@ public class IconBatcher implements SceneBatcher {
         shaderFlagsTexture = gl.glGetUniformLocation(shader, "flags");
         shaderHighlightColor = gl.glGetUniformLocation(shader, "highlightColor");
         shaderPixelDensity = gl.glGetUniformLocation(shader, "pixelDensity");
+        shaderColorValueTexture = gl.glGetUniformLocation(shader, "colorValueTexture");
+        shaderColorMode = gl.glGetUniformLocation(shader, "colorMode");
+        shaderColorLow = gl.glGetUniformLocation(shader, "colorLow");
+        shaderColorHigh = gl.glGetUniformLocation(shader, "colorHigh");
+        shaderColorStops = gl.glGetUniformLocation(shader, "colorStops");
+        shaderColorStopCount = gl.glGetUniformLocation(shader, "colorStopCount");
     }
 
     @Override
@@ -130,12 +153,14 @@ public class IconBatcher implements SceneBatcher {
         final int numVertices = access.getVertexCount();
         final FloatBuffer colorBuffer = Buffers.newDirectFloatBuffer(COLOR_BUFFER_WIDTH * numVertices);
         final IntBuffer iconBuffer = Buffers.newDirectIntBuffer(ICON_BUFFER_WIDTH * numVertices);
-        for (int pos = 0; pos < numVertices; pos++) {
-            bufferColorInfo(pos, colorBuffer, access);
-            bufferIconInfo(pos, iconBuffer, access);
-        }
-        colorBuffer.flip();
-        iconBuffer.flip();
+        SceneBatcher.fillInParallel(numVertices, (chunk, start, end) -> {
+            final FloatBuffer colorSlice = SceneBatcher.slice(colorBuffer, start * COLOR_BUFFER_WIDTH, end * COLOR_BUFFER_WIDTH);
+            final IntBuffer iconSlice = SceneBatcher.slice(iconBuffer, start * ICON_BUFFER_WIDTH, end * ICON_BUFFER_WIDTH);
+            for (int pos = start; pos < end; pos++) {
+                bufferColorInfo(pos, colorSlice, access);
+                bufferIconInfo(pos, iconSlice, access);
+            }
+        });
         return gl -> {
             if (numVertices > 0) {
                 batch.initialise(numVertices);
@@ -194,7 +219,8 @@ public class IconBatcher implements SceneBatcher {
     }
 
     private int bufferColorInfo(final int pos, final FloatBuffer colorBuffer, final VisualAccess access) {
-        ConstellationColor color = access.getVertexColor(pos);
+        // Vertices with a colour value are coloured by the shader, so this is only shown where there is no value.
+        final ConstellationColor color = access.getVertexBaseColor(pos);
         colorBuffer.put(color.getRed());
         colorBuffer.put(color.getGreen());
         colorBuffer.put(color.getBlue());
@@ -213,6 +239,22 @@ public class IconBatcher implements SceneBatcher {
         };
     }
 
+    public GLRenderableUpdateTask setColorEncoding(final VisualAccess access) {
+        final ColorEncoding encoding = access.getVertexColorEncoding();
+        return gl -> {
+            if (encoding == null) {
+                colorMode = COLOR_MODE_NONE;
+            } else {
+                colorMode = encoding.getMode() == ColorEncoding.Mode.RAMP ? COLOR_MODE_RAMP : COLOR_MODE_PALETTE;
+                colorLow = encoding.getLow();
+                colorHigh = encoding.getHigh();
+                colorStopCount = encoding.getColorCount();
+                final float[] components = encoding.getColorComponents();
+                System.arraycopy(components, 0, colorStops, 0, components.length);
+            }
+        };
+    }
+
     public void setPixelDensity(final float pixelDensity) {
         this.pixelDensity = pixelDensity;
     }
@@ -242,6 +284,12 @@ public class IconBatcher implements SceneBatcher {
             gl.glUniform1i(shaderImagesTexture, TextureUnits.ICONS);
             gl.glUniform1i(shaderFlagsTexture, TextureUnits.VERTEX_FLAGS);
             gl.glUniformMatrix4fv(shaderHighlightColor, 1, false, highlightColorMatrix, 0);
+            gl.glUniform1i(shaderColorValueTexture, TextureUnits.VERTEX_COLOR_VALUES);
+            gl.glUniform1i(shaderColorMode, colorMode);
+            gl.glUniform1f(shaderColorLow, colorLow);
+            gl.glUniform1f(shaderColorHigh, colorHigh);
+            gl.glUniform3fv(shaderColorStops, ColorEncoding.MAX_COLORS, colorStops, 0);
+            gl.glUniform1i(shaderColorStopCount, colorStopCount);
             batch.draw(gl);
         }
         drawForHitTest = false;
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.visual.opengl.renderer.batcher;
+
+import au.gov.asd.tac.constellation.utilities.graphics.FloatArray;
+import au.gov.asd.tac.constellation.utilities.graphics.IntArray;
+import au.gov.asd.tac.constellation.utilities.graphics.Matrix44f;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Chooses the vertices whose labels are worth drawing from the current camera.
+ * <p>
+ * A label is only a candidate if its vertex is visible, inside the view and
+ * drawn with a radius of at least a given number of pixels. The candidates are
+ * then placed on the screen from the largest to the smallest, and any label
+ * that would overlap a label that has already been placed is left out. The
+ * placed labels are kept in a grid of screen cells so that each label is only
+ * tested against the labels near it.
+ * <p>
+ * Labels are measured through a {@link LabelMeasure}, and only the candidates
+ * are asked for. The culler does not decide what measuring costs: the
+ * {@link NodeLabelBatcher} measures the label of every node on the visual
+ * update thread whenever the label text changes, so that only a lookup is
+ * left for the GL thread.
+ * <p>
+ * A LabelCuller is not thread safe; it is only used on the GL thread.
+ *
+ * @author sirius
+ */
+final class LabelCuller {
+
+    /**
+     * The number of floats describing each vertex: the x, y and z of its start
+     * and end positions, its radius and its visibility.
+     */
+    static final int VERTEX_WIDTH = 8;
+
+    // Vertices may lie past the edge of the view by this fraction and still have labels that reach into it.
+    private static final float CLIP_MARGIN = 1.25F;
+
+    // The size in pixels of the cells used to find overlapping labels.
+    private static final float CELL_PIXELS = 32;
+
+    // Labels further from the centre of the view than this many cells are treated as being on the edge of the grid.
+    private static final int MAX_CELLS = 256;
+
+    /**
+     * Measures the label of a vertex.
+     */
+    @FunctionalInterface
+    interface LabelMeasure {
+
+        /**
+         * Measure the label of the given vertex, in multiples of its radius.
+         *
+         * @param vertex the position of the vertex.
+         * @param extents an array to hold the half width of the label and the
+         * distances it extends above and below the centre of the vertex.
+         * @return false if the vertex has no label.
+         */
+        boolean measure(final int vertex, final float[] extents);
+    }
+
+    private int vertexCount = 0;
+    private float[] data = new float[0];
+    private int modificationCount = 0;
+
+    int getVertexCount() {
+        return vertexCount;
+    }
+
+    int getModificationCount() {
+        return modificationCount;
+    }
+
+    float getVisibility(final int vertex) {
+        return data[vertex * VERTEX_WIDTH + 7];
+    }
+
+    void setVertexCount(final int vertexCount) {
+        this.vertexCount = vertexCount;
+        data = new float[vertexCount * VERTEX_WIDTH];
+        modificationCount++;
+    }
+
+    void setVertex(final int vertex, final float[] vertexData, final int offset) {
+        System.arraycopy(vertexData, offset, data, vertex * VERTEX_WIDTH, VERTEX_WIDTH);
+        modificationCount++;
+    }
+
+    /**
+     * Choose the vertices whose labels should be drawn.
+     *
+     * @param mvMatrix the model view matrix of the camera.
+     * @param pMatrix the projection matrix of the camera.
+     * @param pixelDensity the number of pixels covered by one world unit at a
+     * distance of one world unit from the camera.
+     * @param mix the proportion of the way that vertices have moved from their
+     * start positions to their end positions.
+     * @param visibilityLow vertices with visibilities at or below this value
+     * are not visible.
+     * @param visibilityHigh vertices with visibilities above this value (and
+     * no more than one) are not visible.
+     * @param minRadiusPixels the smallest radius in pixels of a vertex that is
+     * labelled.
+     * @param measure measures the labels of the candidate vertices.
+     * @return the positions of the chosen vertices, in ascending order.
+     */
+    int[] cull(final Matrix44f mvMatrix, final Matrix44f pMatrix, final float pixelDensity, final float mix,
+            final float visibilityLow, final float visibilityHigh, final float minRadiusPixels, final LabelMeasure measure) {
+        final float[] mv = mvMatrix.a;
+        final float[] p = pMatrix.a;
+
+        // Find the candidates, remembering where they are on the screen.
+        final float[] screen = new float[vertexCount * 3];
+        long[] candidates = new long[0];
+        int candidateCount = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            final int offset = vertex * VERTEX_WIDTH;
+            final float visibility = data[offset + 7];
+            if (visibility <= Math.max(visibilityLow, 0) || (visibility > visibilityHigh && visibility <= 1)) {
+                continue;
+            }
+
+            final float x = data[offset] + (data[offset + 3] - data[offset]) * mix;
+            final float y = data[offset + 1] + (data[offset + 4] - data[offset + 1]) * mix;
+            final float z = data[offset + 2] + (data[offset + 5] - data[offset + 2]) * mix;
+            final float ex = mv[0] * x + mv[4] * y + mv[8] * z + mv[12];
+            final float ey = mv[1] * x + mv[5] * y + mv[9] * z + mv[13];
+            final float ez = mv[2] * x + mv[6] * y + mv[10] * z + mv[14];
+            if (ez >= 0) {
+                continue;
+            }
+
+            final float cx = p[0] * ex + p[4] * ey + p[8] * ez + p[12];
+            final float cy = p[1] * ex + p[5] * ey + p[9] * ez + p[13];
+            final float cw = p[3] * ex + p[7] * ey + p[11] * ez + p[15];
+            final float w = cw * CLIP_MARGIN;
+            if (cw <= 0 || cx < -w || cx > w || cy < -w || cy > w) {
+                continue;
+            }
+
+            final float scale = pixelDensity / -ez;
+            final float radius = data[offset + 6] * scale;
+            if (radius < minRadiusPixels) {
+                continue;
+            }
+
+            screen[vertex * 3] = ex * scale;
+            screen[vertex * 3 + 1] = ey * scale;
+            screen[vertex * 3 + 2] = radius;
+            if (candidateCount == candidates.length) {
+                candidates = Arrays.copyOf(candidates, Math.max(16, candidateCount * 2));
+            }
+
+            // Positive floats sort in the same order as their bits, so this sorts by radius and then by vertex.
+            candidates[candidateCount++] = ((long) Float.floatToIntBits(radius) << 32) | vertex;
+        }
+        Arrays.sort(candidates, 0, candidateCount);
+
+        // Place the largest labels first, leaving out any that overlap.
+        final float[] extents = new float[3];
+        final FloatArray boxes = new FloatArray();
+        final Map<Long, IntArray> cells = new HashMap<>();
+        final IntArray chosen = new IntArray();
+        for (int i = candidateCount - 1; i >= 0; i--) {
+            final int vertex = (int) candidates[i];
+            if (!measure.measure(vertex, extents)) {
+                continue;
+            }
+
+            final float sx = screen[vertex * 3];
+            final float sy = screen[vertex * 3 + 1];
+            final float radius = screen[vertex * 3 + 2];
+            final float left = sx - extents[0] * radius;
+            final float right = sx + extents[0] * radius;
+            final float bottom = sy - extents[2] * radius;
+            final float top = sy + extents[1] * radius;
+
+            final int cellLeft = getCell(left);
+            final int cellRight = getCell(right);
+            final int cellBottom = getCell(bottom);
+            final int cellTop = getCell(top);
+            if (overlaps(boxes, cells, left, right, bottom, top, cellLeft, cellRight, cellBottom, cellTop)) {
+                continue;
+            }
+
+            final int box = boxes.size() / 4;
+            boxes.add(left, right, bottom, top);
+            for (int cellX = cellLeft; cellX <= cellRight; cellX++) {
+                for (int cellY = cellBottom; cellY <= cellTop; cellY++) {
+                    cells.computeIfAbsent(getKey(cellX, cellY), key -> new IntArray()).add(box);
+                }
+            }
+            chosen.add(vertex);
+        }
+
+        final int[] result = chosen.toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static boolean overlaps(final FloatArray boxes, final Map<Long, IntArray> cells, final float left, final float right, final float bottom, final float top,
+            final int cellLeft, final int cellRight, final int cellBottom, final int cellTop) {
+        final float[] b = boxes.rawArray();
+        for (int cellX = cellLeft; cellX <= cellRight; cellX++) {
+            for (int cellY = cellBottom; cellY <= cellTop; cellY++) {
+                final IntArray cell = cells.get(getKey(cellX, cellY));
+                if (cell != null) {
+                    for (int i = 0; i < cell.size(); i++) {
+                        final int offset = cell.get(i) * 4;
+                        if (left < b[offset + 1] && right > b[offset] && bottom < b[offset + 3] && top > b[offset + 2]) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int getCell(final float pixels) {
+        return Math.max(-MAX_CELLS, Math.min(MAX_CELLS, (int) Math.floor(pixels / CELL_PIXELS)));
+    }
+
+    private static long getKey(final int cellX, final int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+}
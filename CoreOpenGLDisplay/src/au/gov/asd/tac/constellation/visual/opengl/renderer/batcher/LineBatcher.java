@@ -30,8 +30,6 @@ import com.jogamp.opengl.GL3;
 import java.io.IOException;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -45,7 +43,6 @@ public class LineBatcher implements SceneBatcher {
     private static final int LINE_INFO_ARROW = 1;
     private static final int LINE_INFO_BITS_AVOID = 4;
     private static final int FLOAT_MULTIPLIER = 1024;
-    private static final int NEW_LINK = -345;
     private static final String COLOR_SHADER_NAME = "vColor";
     private static final String CONNECTION_INFO_SHADER_NAME = "data";
 
@@ -129,7 +126,6 @@ public class LineBatcher implements SceneBatcher {
 
     @Override
     public GLRenderableUpdateTask disposeBatch() {
-        connections.clear();
         connectionPosToBufferPos.clear();
         return gl -> {
             batch.dispose(gl);
@@ -137,37 +133,45 @@ public class LineBatcher implements SceneBatcher {
     }
 
     private final SortedMap<Integer, Integer> connectionPosToBufferPos = new TreeMap<>();
-    private final List<Integer> connections = new ArrayList<>();
 
     @Override
     public GLRenderableUpdateTask createBatch(final VisualAccess access) {
 
+        // Find where the lines of each link start in the buffers, so that links can be filled in parallel.
+        final int linkCount = access.getLinkCount();
+        final int[] linkStarts = new int[linkCount + 1];
         int lineCounter = 0;
 
-        for (int link = 0; link < access.getLinkCount(); link++) {
+        for (int link = 0; link < linkCount; link++) {
+            linkStarts[link] = lineCounter;
             if (access.getLinkSource(link) != access.getLinkDestination(link)) {
-                connections.add(NEW_LINK);
                 for (int pos = 0; pos < access.getLinkConnectionCount(link); pos++) {
                     final int connection = access.getLinkConnection(link, pos);
                     connectionPosToBufferPos.put(connection, lineCounter++);
-                    connections.add(connection);
                 }
             }
         }
+        linkStarts[linkCount] = lineCounter;
 
         final int numLines = lineCounter;
-        FloatBuffer colorBuffer = Buffers.newDirectFloatBuffer(numLines * 2 * COLOR_BUFFER_WIDTH);
-        IntBuffer dataBuffer = Buffers.newDirectIntBuffer(numLines * 2 * CONNECTION_INFO_BUFFER_WIDTH);
-        connections.forEach(pos -> {
-            if (pos == NEW_LINK) {
-                leftOffset = 0;
-            } else {
-                bufferColorInfo(pos, colorBuffer, access);
-                bufferConnectionInfo(pos, dataBuffer, access);
+        final FloatBuffer colorBuffer = Buffers.newDirectFloatBuffer(numLines * 2 * COLOR_BUFFER_WIDTH);
+        final IntBuffer dataBuffer = Buffers.newDirectIntBuffer(numLines * 2 * CONNECTION_INFO_BUFFER_WIDTH);
+        SceneBatcher.fillInParallel(linkCount, (chunk, start, end) -> {
+            final FloatBuffer colorSlice = SceneBatcher.slice(colorBuffer, linkStarts[start] * 2 * COLOR_BUFFER_WIDTH, linkStarts[end] * 2 * COLOR_BUFFER_WIDTH);
+            final IntBuffer dataSlice = SceneBatcher.slice(dataBuffer, linkStarts[start] * 2 * CONNECTION_INFO_BUFFER_WIDTH, linkStarts[end] * 2 * CONNECTION_INFO_BUFFER_WIDTH);
+            final float[] offsets = new float[2];
+            for (int link = start; link < end; link++) {
+                if (access.getLinkSource(link) != access.getLinkDestination(link)) {
+                    offsets[0] = 0;
+                    offsets[1] = 0;
+                    for (int pos = 0; pos < access.getLinkConnectionCount(link); pos++) {
+                        final int connection = access.getLinkConnection(link, pos);
+                        bufferColorInfo(connection, colorSlice, access);
+                        bufferConnectionInfo(connection, dataSlice, access, offsets);
+                    }
+                }
             }
         });
-        colorBuffer.flip();
-        dataBuffer.flip();
 
         return gl -> {
             if (numLines > 0) {
@@ -179,23 +183,27 @@ public class LineBatcher implements SceneBatcher {
         };
     }
 
-    private float leftOffset;
-    private float rightOffset;
-
-    private int bufferConnectionInfo(final int pos, final IntBuffer dataBuffer, final VisualAccess access) {
+    /**
+     * Buffer the info of a line, spacing it out from the other lines of its
+     * link.
+     *
+     * @param offsets the space taken so far by the lines of the link on its
+     * left and right sides, which is updated to include this line.
+     */
+    private int bufferConnectionInfo(final int pos, final IntBuffer dataBuffer, final VisualAccess access, final float[] offsets) {
         if (connectionPosToBufferPos.containsKey(pos)) {
             final float width = Math.min(LabelUtilities.MAX_TRANSACTION_WIDTH, access.getConnectionWidth(pos));
             final float offset;
-            if (leftOffset == 0) {
+            if (offsets[0] == 0) {
                 offset = 0;
-                leftOffset += width / 2;
-                rightOffset = leftOffset;
-            } else if (leftOffset < rightOffset) {
-                offset = -(leftOffset + width / 2 + 1);
-                leftOffset += width + 1;
+                offsets[0] += width / 2;
+                offsets[1] = offsets[0];
+            } else if (offsets[0] < offsets[1]) {
+                offset = -(offsets[0] + width / 2 + 1);
+                offsets[0] += width + 1;
             } else {
-                offset = rightOffset + width / 2 + 1;
-                rightOffset += width + 1;
+                offset = offsets[1] + width / 2 + 1;
+                offsets[1] += width + 1;
             }
 
             final int representativeTransactionId = access.getConnectionId(pos);
@@ -0,0 +1,429 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.visual.opengl.renderer.batcher;
+
+import au.gov.asd.tac.constellation.utilities.camera.Camera;
+import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
+import au.gov.asd.tac.constellation.utilities.graphics.Matrix44f;
+import au.gov.asd.tac.constellation.utilities.graphics.Vector3f;
+import au.gov.asd.tac.constellation.utilities.visual.VisualAccess;
+import au.gov.asd.tac.constellation.utilities.visual.VisualChange;
+import au.gov.asd.tac.constellation.visual.opengl.renderer.GLRenderable.GLRenderableUpdateTask;
+import au.gov.asd.tac.constellation.visual.opengl.utilities.SharedDrawable;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL3;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+
+/**
+ * Draws very large graphs at a level of detail that suits the camera.
+ * <p>
+ * Once a graph has more visible vertices than the threshold set by the
+ * {@value #THRESHOLD_PROPERTY} system property (default
+ * {@value #DEFAULT_THRESHOLD}), the vertices are aggregated into a
+ * {@link LodGrid}. While the cells of the grid would appear smaller than a few
+ * pixels, each cell is drawn as a single point and the connections between
+ * cells are drawn as single bundled lines, instead of drawing every vertex,
+ * connection and label. As the camera approaches the graph, finer levels of the
+ * grid are drawn until the cells become large enough that the graph is drawn
+ * normally.
+ * <p>
+ * The grid is kept up to date on the thread that processes visual changes,
+ * and each change hands a {@link LodGrid.Pyramid} to the GL thread, so the
+ * GL thread never builds or refits the grid. Levels with few enough cells are
+ * sent to the GL context whole; otherwise only the cells and bundles in a
+ * region around the view are sent, and they are only recalculated when the
+ * graph changes or the view leaves that region.
+ *
+ * @author sirius
+ */
+public class LodBatcher implements SceneBatcher {
+
+    /**
+     * The system property holding the number of visible vertices above which
+     * graphs are drawn at a level of detail.
+     */
+    public static final String THRESHOLD_PROPERTY = "constellation.lod.threshold";
+    public static final int DEFAULT_THRESHOLD = 100000;
+
+    // The largest size in pixels at which a cell is drawn as a point.
+    private static final float MAX_CELL_PIXELS = 8;
+
+    // Points may extend past the edge of the view by this fraction.
+    private static final float CLIP_MARGIN = 1.1F;
+
+    // Levels with more cells than this are culled to a region around the view.
+    private static final int MAX_UNCULLED_CELLS = 1 << 16;
+
+    // The region kept around the view when culling, as a multiple of the view.
+    private static final float CULL_MARGIN = 2;
+
+    private static final String POSITION_SHADER_NAME = "lodPosition";
+    private static final String COLOR_SHADER_NAME = "lodColor";
+    private static final int POSITION_BUFFER_WIDTH = 4;
+    private static final int COLOR_BUFFER_WIDTH = 4;
+
+    private final int threshold = Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD);
+    private final LodGrid grid = new LodGrid();
+
+    private final Batch pointBatch;
+    private final Batch lineBatch;
+    private final int positionTarget;
+    private final int colorTarget;
+    private int shader;
+
+    // Uniform locations in the shader for drawing the batch
+    private int shaderMVMatrix;
+    private int shaderPMatrix;
+    private int shaderPixelDensity;
+    private int shaderDrawPoints;
+
+    private float pixelDensity;
+    private boolean drawConnections = true;
+    private int selectedLevel = -1;
+
+    // The latest pyramid, or null if the graph is too small to need one.
+    private LodGrid.Pyramid pyramid = null;
+
+    // The state that the current batches were built for.
+    private LodGrid.Pyramid batchPyramid = null;
+    private int batchLevel = -1;
+    private boolean batchCulled = false;
+    private final Matrix44f batchMvpMatrix = new Matrix44f();
+
+    public LodBatcher() {
+        pointBatch = new Batch(GL3.GL_POINTS);
+        positionTarget = pointBatch.newFloatBuffer(POSITION_BUFFER_WIDTH, false);
+        colorTarget = pointBatch.newFloatBuffer(COLOR_BUFFER_WIDTH, false);
+        lineBatch = new Batch(pointBatch);
+    }
+
+    @Override
+    public boolean batchReady() {
+        return pointBatch.isDrawable() || lineBatch.isDrawable();
+    }
+
+    @Override
+    public void createShader(final GL3 gl) throws IOException {
+        shader = SharedDrawable.getLodShader(gl, positionTarget, POSITION_SHADER_NAME, colorTarget, COLOR_SHADER_NAME);
+
+        shaderMVMatrix = gl.glGetUniformLocation(shader, "mvMatrix");
+        shaderPMatrix = gl.glGetUniformLocation(shader, "pMatrix");
+        shaderPixelDensity = gl.glGetUniformLocation(shader, "pixelDensity");
+        shaderDrawPoints = gl.glGetUniformLocation(shader, "drawPoints");
+    }
+
+    @Override
+    public GLRenderableUpdateTask disposeBatch() {
+        return gl -> {
+            pointBatch.dispose(gl);
+            lineBatch.dispose(gl);
+            batchPyramid = null;
+        };
+    }
+
+    /**
+     * Create a task to replace all of the vertex data held by this batcher.
+     * <p>
+     * The grid is rebuilt on the calling thread, so that the task only has to
+     * hand the result to the GL thread.
+     *
+     * @param access the VisualAccess object describing the data to be
+     * visualised.
+     * @return The GLUpdateTask to replace the vertex data.
+     */
+    @Override
+    public GLRenderableUpdateTask createBatch(final VisualAccess access) {
+        final int vertexCount = access.getVertexCount();
+        grid.setVertexCount(vertexCount);
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            setVertex(access, vertex);
+        }
+        return publishPyramid();
+    }
+
+    /**
+     * Create a task to update the vertices listed in a change to their
+     * position, radius, color or visibility.
+     * <p>
+     * Only the cells holding the changed vertices are refitted, on the calling
+     * thread.
+     *
+     * @param access the VisualAccess object describing the data to be
+     * visualised.
+     * @param change the change listing the vertices to update.
+     * @return The GLUpdateTask to update the vertex data.
+     */
+    public GLRenderableUpdateTask updateVertices(final VisualAccess access, final VisualChange change) {
+        // A change made before the vertices were rebuilt no longer applies.
+        if (grid.getVertexCount() == access.getVertexCount()) {
+            final int changeCount = change.getSize();
+            for (int i = 0; i < changeCount; i++) {
+                setVertex(access, change.getElement(i));
+            }
+        }
+        return publishPyramid();
+    }
+
+    /**
+     * Create a task to replace the connections held by this batcher.
+     *
+     * @param access the VisualAccess object describing the data to be
+     * visualised.
+     * @return The GLUpdateTask to replace the connections.
+     */
+    public GLRenderableUpdateTask updateConnections(final VisualAccess access) {
+        final int connectionCount = access.getConnectionCount();
+        final int[] lowVertices = new int[connectionCount];
+        final int[] highVertices = new int[connectionCount];
+        for (int connection = 0; connection < connectionCount; connection++) {
+            lowVertices[connection] = access.getConnectionLowVertex(connection);
+            highVertices[connection] = access.getConnectionHighVertex(connection);
+        }
+        grid.setConnections(lowVertices, highVertices);
+        return publishPyramid();
+    }
+
+    private void setVertex(final VisualAccess access, final int vertex) {
+        final ConstellationColor color = access.getVertexColor(vertex);
+        grid.setVertex(vertex, access.getX(vertex), access.getY(vertex), access.getZ(vertex), access.getRadius(vertex),
+                color.getRed(), color.getGreen(), color.getBlue(), access.getVertexVisibility(vertex));
+    }
+
+    /**
+     * Bring the grid up to date and create a task to hand it to the GL thread.
+     * Grids for graphs that are too small to need them are not built.
+     */
+    private GLRenderableUpdateTask publishPyramid() {
+        final LodGrid.Pyramid updatedPyramid = grid.getVisibleVertexCount() < threshold ? null : grid.getPyramid();
+        return gl -> {
+            pyramid = updatedPyramid;
+        };
+    }
+
+    public void setPixelDensity(final float pixelDensity) {
+        this.pixelDensity = pixelDensity;
+    }
+
+    public void setDrawConnections(final boolean drawConnections) {
+        this.drawConnections = drawConnections;
+    }
+
+    /**
+     * Decide whether the graph should be drawn by this batcher rather than
+     * drawing its vertices and connections individually.
+     * <p>
+     * This must be called on the GL thread before each call to
+     * {@link #drawBatch}.
+     *
+     * @param camera the current camera.
+     * @return true if the graph should be drawn by this batcher.
+     */
+    public boolean useLevelOfDetail(final Camera camera) {
+        selectedLevel = -1;
+        if (camera == null || pyramid == null) {
+            return false;
+        }
+        final float distance = Math.max(1, Vector3f.subtract(camera.lookAtEye, camera.lookAtCentre).getLength());
+        selectedLevel = pyramid.selectLevel(distance, pixelDensity, MAX_CELL_PIXELS);
+        return selectedLevel >= 0;
+    }
+
+    @Override
+    public void drawBatch(final GL3 gl, final Camera camera, final Matrix44f mvMatrix, final Matrix44f pMatrix) {
+        if (selectedLevel < 0) {
+            return;
+        }
+
+        final Matrix44f mvpMatrix = new Matrix44f();
+        mvpMatrix.multiply(pMatrix, mvMatrix);
+        if (pyramid != batchPyramid || selectedLevel != batchLevel || (batchCulled && !isViewCovered(camera, mvpMatrix))) {
+            rebuildBatches(gl, mvpMatrix);
+        }
+
+        gl.glUseProgram(shader);
+        gl.glUniformMatrix4fv(shaderMVMatrix, 1, false, mvMatrix.a, 0);
+        gl.glUniformMatrix4fv(shaderPMatrix, 1, false, pMatrix.a, 0);
+        gl.glUniform1f(shaderPixelDensity, pixelDensity);
+
+        if (drawConnections && lineBatch.isDrawable()) {
+            gl.glUniform1i(shaderDrawPoints, GL3.GL_FALSE);
+            lineBatch.draw(gl);
+        }
+        if (pointBatch.isDrawable()) {
+            gl.glEnable(GL3.GL_PROGRAM_POINT_SIZE);
+            gl.glUniform1i(shaderDrawPoints, GL3.GL_TRUE);
+            pointBatch.draw(gl);
+            gl.glDisable(GL3.GL_PROGRAM_POINT_SIZE);
+        }
+    }
+
+    /**
+     * Decide whether the current view still lies inside the region that the
+     * culled batches were built for.
+     * <p>
+     * The corners of the view are checked on the plane through the centre of
+     * the camera's view, which is exact for a flat graph seen face on and a
+     * close approximation otherwise.
+     */
+    private boolean isViewCovered(final Camera camera, final Matrix44f mvpMatrix) {
+        final float[] centre = mvpMatrix.multiply(camera.lookAtCentre.getX(), camera.lookAtCentre.getY(), camera.lookAtCentre.getZ(), 1);
+        if (centre[3] <= 0) {
+            return false;
+        }
+        final float depth = centre[2] / centre[3];
+
+        // Map the corners of the current view back into the clip space that the batches were built in.
+        final Matrix44f inverse = new Matrix44f();
+        inverse.invert(mvpMatrix);
+        final Matrix44f viewToBatch = new Matrix44f();
+        viewToBatch.multiply(batchMvpMatrix, inverse);
+        for (final float cornerX : new float[]{-CLIP_MARGIN, CLIP_MARGIN}) {
+            for (final float cornerY : new float[]{-CLIP_MARGIN, CLIP_MARGIN}) {
+                final float[] corner = viewToBatch.multiply(cornerX, cornerY, depth, 1);
+                final float w = corner[3] * CULL_MARGIN;
+                if (corner[3] <= 0 || Math.abs(corner[0]) > w || Math.abs(corner[1]) > w) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A cell is drawn unless it has been left empty by a change to the
+     * vertices, or it is outside the view.
+     */
+    private static boolean isCellDrawn(final LodGrid.Level level, final int[] outCodes, final int cell) {
+        return level.counts[cell] > 0 && outCodes[cell] == 0;
+    }
+
+    /**
+     * A bundle is drawn unless either of its cells has been left empty by a
+     * change to the vertices, or both of its cells are beyond the same edge
+     * of the view.
+     */
+    private static boolean isBundleDrawn(final LodGrid.Level level, final int[] outCodes, final int low, final int high) {
+        return level.counts[low] > 0 && level.counts[high] > 0 && (outCodes[low] & outCodes[high]) == 0;
+    }
+
+    /**
+     * Send the cells and bundles of the selected level to the GL context:
+     * all of them if the level is small enough, otherwise those in a region
+     * around the view.
+     */
+    private void rebuildBatches(final GL3 gl, final Matrix44f mvpMatrix) {
+        pointBatch.dispose(gl);
+        lineBatch.dispose(gl);
+        batchPyramid = pyramid;
+        batchLevel = selectedLevel;
+        batchMvpMatrix.set(mvpMatrix);
+
+        final LodGrid.Level level = pyramid.getLevel(selectedLevel);
+        final LodGrid.Bundles bundles = pyramid.getBundles(selectedLevel);
+        batchCulled = level.cellCount > MAX_UNCULLED_CELLS;
+        final int[] outCodes = new int[level.cellCount];
+        int pointCount = 0;
+        for (int cell = 0; cell < level.cellCount; cell++) {
+            if (batchCulled && level.counts[cell] > 0) {
+                outCodes[cell] = getOutCode(mvpMatrix, level.getX(cell), level.getY(cell), level.getZ(cell));
+            }
+            if (isCellDrawn(level, outCodes, cell)) {
+                pointCount++;
+            }
+        }
+
+        if (pointCount > 0) {
+            final FloatBuffer positions = Buffers.newDirectFloatBuffer(pointCount * POSITION_BUFFER_WIDTH);
+            final FloatBuffer colors = Buffers.newDirectFloatBuffer(pointCount * COLOR_BUFFER_WIDTH);
+            for (int cell = 0; cell < level.cellCount; cell++) {
+                if (isCellDrawn(level, outCodes, cell)) {
+                    positions.put(level.getX(cell)).put(level.getY(cell)).put(level.getZ(cell)).put(level.getDrawRadius(cell));
+                    colors.put(level.getRed(cell)).put(level.getGreen(cell)).put(level.getBlue(cell)).put(1);
+                }
+            }
+            positions.flip();
+            colors.flip();
+            pointBatch.initialise(pointCount);
+            pointBatch.buffer(gl, positionTarget, positions);
+            pointBatch.buffer(gl, colorTarget, colors);
+            pointBatch.finalise(gl);
+        }
+
+        final int bundleCount = bundles.counts.length;
+        int lineCount = 0;
+        for (int bundle = 0; bundle < bundleCount; bundle++) {
+            if (isBundleDrawn(level, outCodes, bundles.lows[bundle], bundles.highs[bundle])) {
+                lineCount++;
+            }
+        }
+
+        if (lineCount > 0) {
+            final FloatBuffer positions = Buffers.newDirectFloatBuffer(lineCount * 2 * POSITION_BUFFER_WIDTH);
+            final FloatBuffer colors = Buffers.newDirectFloatBuffer(lineCount * 2 * COLOR_BUFFER_WIDTH);
+            for (int bundle = 0; bundle < bundleCount; bundle++) {
+                final int low = bundles.lows[bundle];
+                final int high = bundles.highs[bundle];
+                if (isBundleDrawn(level, outCodes, low, high)) {
+                    // Bundles that hold more connections are drawn more opaque.
+                    final float alpha = Math.min(1, 0.2F + 0.1F * (float) Math.log(bundles.counts[bundle]));
+                    final float red = (level.getRed(low) + level.getRed(high)) / 2;
+                    final float green = (level.getGreen(low) + level.getGreen(high)) / 2;
+                    final float blue = (level.getBlue(low) + level.getBlue(high)) / 2;
+                    positions.put(level.getX(low)).put(level.getY(low)).put(level.getZ(low)).put(0);
+                    positions.put(level.getX(high)).put(level.getY(high)).put(level.getZ(high)).put(0);
+                    colors.put(red).put(green).put(blue).put(alpha);
+                    colors.put(red).put(green).put(blue).put(alpha);
+                }
+            }
+            positions.flip();
+            colors.flip();
+            lineBatch.initialise(lineCount * 2);
+            lineBatch.buffer(gl, positionTarget, positions);
+            lineBatch.buffer(gl, colorTarget, colors);
+            lineBatch.finalise(gl);
+        }
+    }
+
+    /**
+     * Classify a point against the edges of the region kept around the view,
+     * in the manner of the Cohen-Sutherland clipping algorithm.
+     *
+     * @return zero if the point is inside the region, otherwise a bit for each
+     * edge of the region that the point is beyond.
+     */
+    private static int getOutCode(final Matrix44f mvpMatrix, final float x, final float y, final float z) {
+        final float[] clip = mvpMatrix.multiply(x, y, z, 1);
+        final float w = clip[3] * CLIP_MARGIN * CULL_MARGIN;
+        if (clip[3] <= 0) {
+            return 16;
+        }
+        int code = 0;
+        if (clip[0] < -w) {
+            code |= 1;
+        }
+        if (clip[0] > w) {
+            code |= 2;
+        }
+        if (clip[1] < -w) {
+            code |= 4;
+        }
+        if (clip[1] > w) {
+            code |= 8;
+        }
+        return code;
+    }
+}
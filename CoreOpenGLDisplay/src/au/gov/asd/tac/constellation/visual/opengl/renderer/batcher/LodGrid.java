@@ -0,0 +1,644 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.visual.opengl.renderer.batcher;
+
+import java.util.Arrays;
+
+/**
+ * A grid pyramid over the positions of the vertices of a graph, used to draw
+ * very large graphs at a level of detail that suits the camera.
+ * <p>
+ * The finest level of the pyramid divides the bounding cube of the visible
+ * vertices into cells that hold roughly one vertex each, and each coarser level
+ * merges eight neighbouring cells into one. Every cell records the number of
+ * vertices it holds along with the sums of their positions, colors and radii,
+ * so that it can be drawn as a single aggregated point. The connections
+ * between the cells of a level are bundled on demand.
+ * <p>
+ * Cells are identified by the Morton code of their grid coordinates, which
+ * means that the code of a cell's parent is its own code shifted right by
+ * three bits and that the cells of each level can be found by sorting.
+ * <p>
+ * The pyramid is built in full the first time it is needed. After that, a
+ * change to a vertex only refits the cells that hold the vertex before and
+ * after the change, unless the vertex leaves the bounds of the grid, moves
+ * into a cell that does not exist yet, or the number of visible vertices has
+ * changed enough to call for a different depth, in which case the pyramid is
+ * built again.
+ * <p>
+ * A LodGrid is not thread safe; it is only used by the thread that processes
+ * visual changes. The {@link Pyramid} returned by {@link #getPyramid()} is
+ * never modified afterwards, so it may be handed to the GL thread: levels that
+ * have been handed out are copied before they are refitted.
+ *
+ * @author sirius
+ */
+final class LodGrid {
+
+    // Morton codes interleave 21 bits from each axis.
+    private static final int MAX_DEPTH = 21;
+
+    private int vertexCount = 0;
+    private float[] x = new float[0];
+    private float[] y = new float[0];
+    private float[] z = new float[0];
+    private float[] radius = new float[0];
+    private float[] red = new float[0];
+    private float[] green = new float[0];
+    private float[] blue = new float[0];
+    private float[] visibility = new float[0];
+    private int visibleVertexCount = 0;
+
+    private int[] lowVertices = new int[0];
+    private int[] highVertices = new int[0];
+
+    // The bounds and cells of the pyramid as it was last built.
+    private boolean built = false;
+    private int builtVisibleVertexCount = 0;
+    private float minX;
+    private float minY;
+    private float minZ;
+    private float cellSize;
+    private int resolution;
+    private long[] cellCodes = new long[0];
+    private int[] vertexCells = new int[0];
+    private boolean vertexCellsShared = false;
+    private Level[] levels = new Level[0];
+
+    // The vertices that have been taken out of their cells since the last refit.
+    private boolean[] changed = new boolean[0];
+    private int[] changedVertices = new int[0];
+    private int changedVertexCount = 0;
+
+    // Changes whenever a vertex moves between cells or the connections change.
+    private int bundleVersion = 0;
+
+    private Pyramid pyramid = null;
+
+    /**
+     * The aggregated cells of one level of the pyramid.
+     */
+    static final class Level {
+
+        final float cellSize;
+        final int cellCount;
+        final int[] counts;
+        private final double[] x;
+        private final double[] y;
+        private final double[] z;
+        private final double[] red;
+        private final double[] green;
+        private final double[] blue;
+        private final double[] radius;
+
+        // The cell in the next coarser level that holds each cell.
+        private int[] parents;
+
+        // True once this level has been handed out in a pyramid.
+        private boolean shared = false;
+
+        // The bundled connections between cells, calculated on demand.
+        private volatile Bundles bundles;
+
+        private Level(final float cellSize, final int cellCount) {
+            this.cellSize = cellSize;
+            this.cellCount = cellCount;
+            this.counts = new int[cellCount];
+            this.x = new double[cellCount];
+            this.y = new double[cellCount];
+            this.z = new double[cellCount];
+            this.red = new double[cellCount];
+            this.green = new double[cellCount];
+            this.blue = new double[cellCount];
+            this.radius = new double[cellCount];
+        }
+
+        private Level(final Level level) {
+            this.cellSize = level.cellSize;
+            this.cellCount = level.cellCount;
+            this.counts = level.counts.clone();
+            this.x = level.x.clone();
+            this.y = level.y.clone();
+            this.z = level.z.clone();
+            this.red = level.red.clone();
+            this.green = level.green.clone();
+            this.blue = level.blue.clone();
+            this.radius = level.radius.clone();
+            this.parents = level.parents;
+            this.bundles = level.bundles;
+        }
+
+        private void add(final int cell, final int count, final double cx, final double cy, final double cz, final double r, final double g, final double b, final double cellRadius) {
+            counts[cell] += count;
+            x[cell] += cx;
+            y[cell] += cy;
+            z[cell] += cz;
+            red[cell] += r;
+            green[cell] += g;
+            blue[cell] += b;
+            radius[cell] += cellRadius;
+        }
+
+        private void addAll(final Level child, final int childCell, final int cell) {
+            add(cell, child.counts[childCell], child.x[childCell], child.y[childCell], child.z[childCell], child.red[childCell], child.green[childCell], child.blue[childCell], child.radius[childCell]);
+        }
+
+        float getX(final int cell) {
+            return (float) (x[cell] / counts[cell]);
+        }
+
+        float getY(final int cell) {
+            return (float) (y[cell] / counts[cell]);
+        }
+
+        float getZ(final int cell) {
+            return (float) (z[cell] / counts[cell]);
+        }
+
+        float getRed(final int cell) {
+            return (float) (red[cell] / counts[cell]);
+        }
+
+        float getGreen(final int cell) {
+            return (float) (green[cell] / counts[cell]);
+        }
+
+        float getBlue(final int cell) {
+            return (float) (blue[cell] / counts[cell]);
+        }
+
+        /**
+         * The radius with which to draw a cell: large enough to show how many
+         * vertices it holds but never larger than the cell itself.
+         *
+         * @param cell the cell.
+         * @return the radius of the cell in world units.
+         */
+        float getDrawRadius(final int cell) {
+            return Math.min(0.5F * cellSize, (float) (radius[cell] / counts[cell] * Math.sqrt(counts[cell])));
+        }
+    }
+
+    /**
+     * The connections between the cells of a level, with all connections
+     * between the same two cells gathered into one bundle.
+     */
+    static final class Bundles {
+
+        private final int version;
+        final int[] lows;
+        final int[] highs;
+        final int[] counts;
+
+        private Bundles(final int version, final int bundleCount) {
+            this.version = version;
+            this.lows = new int[bundleCount];
+            this.highs = new int[bundleCount];
+            this.counts = new int[bundleCount];
+        }
+    }
+
+    /**
+     * The levels of the pyramid at one moment in time, which are not changed
+     * by later changes to the grid.
+     */
+    static final class Pyramid {
+
+        private final Level[] levels;
+        private final int visibleVertexCount;
+        private final int[] vertexCells;
+        private final int[] lowVertices;
+        private final int[] highVertices;
+        private final int bundleVersion;
+
+        private Pyramid(final LodGrid grid) {
+            this.levels = grid.levels.clone();
+            this.visibleVertexCount = grid.visibleVertexCount;
+            this.vertexCells = grid.vertexCells;
+            this.lowVertices = grid.lowVertices;
+            this.highVertices = grid.highVertices;
+            this.bundleVersion = grid.bundleVersion;
+        }
+
+        int getVisibleVertexCount() {
+            return visibleVertexCount;
+        }
+
+        int getLevelCount() {
+            return levels.length;
+        }
+
+        Level getLevel(final int level) {
+            return levels[level];
+        }
+
+        /**
+         * Selects the coarsest level whose cells appear no larger than the
+         * specified number of pixels when viewed from the specified distance.
+         *
+         * @param distance the distance from the camera to the graph.
+         * @param pixelDensity the number of pixels per world unit at distance
+         * 1.
+         * @param maxCellPixels the largest size, in pixels, for a cell.
+         * @return the selected level, or -1 if even the cells of the finest
+         * level would appear larger than the specified size, in which case the
+         * vertices themselves should be drawn.
+         */
+        int selectLevel(final float distance, final float pixelDensity, final float maxCellPixels) {
+            int selected = -1;
+            for (int level = 0; level < levels.length; level++) {
+                if (levels[level].cellSize * pixelDensity / distance > maxCellPixels) {
+                    break;
+                }
+                selected = level;
+            }
+            return selected;
+        }
+
+        /**
+         * Bundles the connections between the cells of a level, so that all
+         * connections between the same two cells are drawn as one. The bundles
+         * are kept with the level until a vertex moves between cells or the
+         * connections change.
+         *
+         * @param level the level.
+         * @return the bundles of the level.
+         */
+        Bundles getBundles(final int level) {
+            final Level cells = levels[level];
+            final Bundles current = cells.bundles;
+            if (current != null && current.version == bundleVersion) {
+                return current;
+            }
+
+            final int vertexCount = vertexCells.length;
+            final int[] cellOf = Arrays.copyOf(vertexCells, vertexCount);
+            for (int l = 0; l < level; l++) {
+                final int[] parents = levels[l].parents;
+                for (int vertex = 0; vertex < vertexCount; vertex++) {
+                    if (cellOf[vertex] >= 0) {
+                        cellOf[vertex] = parents[cellOf[vertex]];
+                    }
+                }
+            }
+
+            final int connectionCount = Math.min(lowVertices.length, highVertices.length);
+            final long[] keys = new long[connectionCount];
+            int keyCount = 0;
+            for (int connection = 0; connection < connectionCount; connection++) {
+                final int low = lowVertices[connection];
+                final int high = highVertices[connection];
+                if (low < 0 || high < 0 || low >= vertexCount || high >= vertexCount) {
+                    continue;
+                }
+                final int lowCell = cellOf[low];
+                final int highCell = cellOf[high];
+                if (lowCell >= 0 && highCell >= 0 && lowCell != highCell) {
+                    keys[keyCount++] = (long) Math.min(lowCell, highCell) * cells.cellCount + Math.max(lowCell, highCell);
+                }
+            }
+            Arrays.sort(keys, 0, keyCount);
+
+            int bundleCount = 0;
+            for (int i = 0; i < keyCount; i++) {
+                if (i == 0 || keys[i] != keys[i - 1]) {
+                    bundleCount++;
+                }
+            }
+            final Bundles bundles = new Bundles(bundleVersion, bundleCount);
+            int bundle = -1;
+            for (int i = 0; i < keyCount; i++) {
+                if (i == 0 || keys[i] != keys[i - 1]) {
+                    bundle++;
+                    bundles.lows[bundle] = (int) (keys[i] / cells.cellCount);
+                    bundles.highs[bundle] = (int) (keys[i] % cells.cellCount);
+                }
+                bundles.counts[bundle]++;
+            }
+            cells.bundles = bundles;
+            return bundles;
+        }
+    }
+
+    /**
+     * Sets the number of vertices, discarding all vertex data.
+     *
+     * @param vertexCount the new number of vertices.
+     */
+    void setVertexCount(final int vertexCount) {
+        this.vertexCount = vertexCount;
+        x = new float[vertexCount];
+        y = new float[vertexCount];
+        z = new float[vertexCount];
+        radius = new float[vertexCount];
+        red = new float[vertexCount];
+        green = new float[vertexCount];
+        blue = new float[vertexCount];
+        visibility = new float[vertexCount];
+        visibleVertexCount = 0;
+        changed = new boolean[vertexCount];
+        changedVertexCount = 0;
+        built = false;
+        pyramid = null;
+    }
+
+    int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the number of visible vertices, which is kept up to date as
+     * vertices change without building the pyramid.
+     *
+     * @return the number of visible vertices.
+     */
+    int getVisibleVertexCount() {
+        return visibleVertexCount;
+    }
+
+    void setVertex(final int vertex, final float vx, final float vy, final float vz, final float vRadius, final float r, final float g, final float b, final float vVisibility) {
+        if (built && !changed[vertex]) {
+            detach(vertex);
+        }
+        if (isVisible(vertex)) {
+            visibleVertexCount--;
+        }
+        x[vertex] = vx;
+        y[vertex] = vy;
+        z[vertex] = vz;
+        radius[vertex] = vRadius;
+        red[vertex] = r;
+        green[vertex] = g;
+        blue[vertex] = b;
+        visibility[vertex] = vVisibility;
+        if (isVisible(vertex)) {
+            visibleVertexCount++;
+        }
+        pyramid = null;
+    }
+
+    /**
+     * Sets the connections as pairs of vertex positions.
+     *
+     * @param lowVertices the position of the low vertex of each connection.
+     * @param highVertices the position of the high vertex of each connection.
+     */
+    void setConnections(final int[] lowVertices, final int[] highVertices) {
+        this.lowVertices = lowVertices;
+        this.highVertices = highVertices;
+        bundleVersion++;
+        pyramid = null;
+    }
+
+    /**
+     * Returns the pyramid as it stands after all changes so far, building or
+     * refitting it as needed.
+     *
+     * @return the pyramid.
+     */
+    Pyramid getPyramid() {
+        if (pyramid == null) {
+            refit();
+            for (final Level level : levels) {
+                level.shared = true;
+            }
+            vertexCellsShared = true;
+            pyramid = new Pyramid(this);
+        }
+        return pyramid;
+    }
+
+    /**
+     * Take a vertex out of the cells that hold it, ready for it to be put
+     * back by {@link #refit()} once it has changed.
+     */
+    private void detach(final int vertex) {
+        changed[vertex] = true;
+        if (changedVertexCount == changedVertices.length) {
+            changedVertices = Arrays.copyOf(changedVertices, Math.max(16, changedVertexCount * 2));
+        }
+        changedVertices[changedVertexCount++] = vertex;
+
+        int cell = vertexCells[vertex];
+        if (cell < 0) {
+            return;
+        }
+        for (int l = 0; l < levels.length; l++) {
+            final Level level = getWritableLevel(l);
+            level.add(cell, -1, -x[vertex], -y[vertex], -z[vertex], -red[vertex], -green[vertex], -blue[vertex], -radius[vertex]);
+            if (level.parents != null) {
+                cell = level.parents[cell];
+            }
+        }
+    }
+
+    /**
+     * Put each changed vertex back into the cells that now hold it, or build
+     * the pyramid again if that is not possible.
+     */
+    private void refit() {
+        // The depth of the pyramid suits the number of visible vertices it was built for.
+        if (built && (visibleVertexCount > builtVisibleVertexCount * 2 || visibleVertexCount * 2 < builtVisibleVertexCount)) {
+            built = false;
+        }
+        for (int i = 0; i < changedVertexCount && built; i++) {
+            final int vertex = changedVertices[i];
+            changed[vertex] = false;
+            built = attach(vertex);
+        }
+        changedVertexCount = 0;
+        if (!built) {
+            build();
+        }
+    }
+
+    private boolean attach(final int vertex) {
+        int cell = -1;
+        if (isVisible(vertex)) {
+            final float extent = cellSize * resolution;
+            if (!(x[vertex] >= minX && x[vertex] <= minX + extent && y[vertex] >= minY && y[vertex] <= minY + extent && z[vertex] >= minZ && z[vertex] <= minZ + extent)) {
+                return false;
+            }
+            cell = Arrays.binarySearch(cellCodes, getCode(vertex));
+            if (cell < 0) {
+                return false;
+            }
+        }
+        if (cell != vertexCells[vertex]) {
+            if (vertexCellsShared) {
+                vertexCells = vertexCells.clone();
+                vertexCellsShared = false;
+            }
+            vertexCells[vertex] = cell;
+            bundleVersion++;
+        }
+        if (cell >= 0) {
+            for (int l = 0; l < levels.length; l++) {
+                final Level level = getWritableLevel(l);
+                level.add(cell, 1, x[vertex], y[vertex], z[vertex], red[vertex], green[vertex], blue[vertex], radius[vertex]);
+                if (level.parents != null) {
+                    cell = level.parents[cell];
+                }
+            }
+        }
+        return true;
+    }
+
+    private Level getWritableLevel(final int level) {
+        if (levels[level].shared) {
+            levels[level] = new Level(levels[level]);
+        }
+        return levels[level];
+    }
+
+    /**
+     * Build the pyramid from scratch.
+     */
+    private void build() {
+        built = true;
+        Arrays.fill(changed, false);
+        changedVertexCount = 0;
+        bundleVersion++;
+
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        float maxZ = -Float.MAX_VALUE;
+        minX = Float.MAX_VALUE;
+        minY = Float.MAX_VALUE;
+        minZ = Float.MAX_VALUE;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (isVisible(vertex)) {
+                minX = Math.min(minX, x[vertex]);
+                minY = Math.min(minY, y[vertex]);
+                minZ = Math.min(minZ, z[vertex]);
+                maxX = Math.max(maxX, x[vertex]);
+                maxY = Math.max(maxY, y[vertex]);
+                maxZ = Math.max(maxZ, z[vertex]);
+            }
+        }
+        builtVisibleVertexCount = visibleVertexCount;
+
+        vertexCells = new int[vertexCount];
+        vertexCellsShared = false;
+        Arrays.fill(vertexCells, -1);
+        if (visibleVertexCount == 0) {
+            cellCodes = new long[0];
+            levels = new Level[0];
+            return;
+        }
+
+        // Aim for about one vertex per cell in the finest level of a flat graph.
+        final int depth = Math.max(1, Math.min(MAX_DEPTH, 1 + (int) Math.ceil(Math.log(Math.sqrt(visibleVertexCount)) / Math.log(2))));
+        resolution = 1 << depth;
+        float extent = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        if (!(extent > 0)) {
+            extent = 1;
+        }
+        cellSize = extent / resolution;
+
+        final long[] vertexCodes = new long[vertexCount];
+        long[] codes = new long[visibleVertexCount];
+        int codeCount = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (isVisible(vertex)) {
+                final long code = getCode(vertex);
+                vertexCodes[vertex] = code;
+                codes[codeCount++] = code;
+            }
+        }
+        Arrays.sort(codes);
+        codeCount = unique(codes, codeCount);
+        cellCodes = Arrays.copyOf(codes, codeCount);
+
+        final Level[] newLevels = new Level[depth + 1];
+        Level level = new Level(cellSize, codeCount);
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (isVisible(vertex)) {
+                final int cell = Arrays.binarySearch(codes, 0, codeCount, vertexCodes[vertex]);
+                vertexCells[vertex] = cell;
+                level.add(cell, 1, x[vertex], y[vertex], z[vertex], red[vertex], green[vertex], blue[vertex], radius[vertex]);
+            }
+        }
+        newLevels[0] = level;
+
+        // Each coarser level merges the cells of the level below it. Shifting
+        // the sorted codes keeps them sorted, so a cell's parent is found by
+        // counting the distinct shifted codes before it.
+        int levelCount = 1;
+        while (levelCount <= depth && level.cellCount > 1) {
+            final long[] parentCodes = new long[codeCount];
+            final int[] parents = new int[codeCount];
+            int parentCount = 0;
+            for (int cell = 0; cell < codeCount; cell++) {
+                final long parentCode = codes[cell] >>> 3;
+                if (parentCount == 0 || parentCodes[parentCount - 1] != parentCode) {
+                    parentCodes[parentCount++] = parentCode;
+                }
+                parents[cell] = parentCount - 1;
+            }
+            level.parents = parents;
+
+            final Level parentLevel = new Level(level.cellSize * 2, parentCount);
+            for (int cell = 0; cell < codeCount; cell++) {
+                parentLevel.addAll(level, cell, parents[cell]);
+            }
+
+            codes = parentCodes;
+            codeCount = parentCount;
+            level = parentLevel;
+            newLevels[levelCount++] = level;
+        }
+        levels = Arrays.copyOf(newLevels, levelCount);
+    }
+
+    private boolean isVisible(final int vertex) {
+        return visibility[vertex] > 0;
+    }
+
+    private long getCode(final int vertex) {
+        return spread(gridCoordinate(x[vertex], minX))
+                | spread(gridCoordinate(y[vertex], minY)) << 1
+                | spread(gridCoordinate(z[vertex], minZ)) << 2;
+    }
+
+    private long gridCoordinate(final float value, final float min) {
+        return Math.max(0, Math.min(resolution - 1, (int) ((value - min) / cellSize)));
+    }
+
+    private static int unique(final long[] values, final int count) {
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[i] != values[distinct - 1]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Spreads the lowest 21 bits of a value so that there are two zero bits
+     * between each of them, ready to be interleaved into a Morton code.
+     */
+    private static long spread(final long value) {
+        long v = value & 0x1fffffL;
+        v = (v | v << 32) & 0x1f00000000ffffL;
+        v = (v | v << 16) & 0x1f0000ff0000ffL;
+        v = (v | v << 8) & 0x100f00f00f00f00fL;
+        v = (v | v << 4) & 0x10c30c30c30c30c3L;
+        v = (v | v << 2) & 0x1249249249249249L;
+        return v;
+    }
+}
@@ -107,22 +107,26 @@ public class LoopBatcher implements SceneBatcher {
     public GLRenderableUpdateTask createBatch(final VisualAccess access) {
 
         int loopCounter = 0;
+        final int[] loops = new int[access.getConnectionCount()];
 
         for (int i = 0; i < access.getConnectionCount(); i++) {
             if (access.getConnectionLowVertex(i) == access.getConnectionHighVertex(i)) {
+                loops[loopCounter] = i;
                 loopPosToBufferPos.put(i, loopCounter++);
             }
         }
 
         final int numLoops = loopCounter;
-        FloatBuffer colorBuffer = Buffers.newDirectFloatBuffer(numLoops * COLOR_BUFFER_WIDTH);
-        IntBuffer dataBuffer = Buffers.newDirectIntBuffer(numLoops * LOOP_INFO_BUFFER_WIDTH);
-        loopPosToBufferPos.keySet().forEach(pos -> {
-            bufferColorInfo(pos, colorBuffer, access);
-            bufferLoopInfo(pos, dataBuffer, access);
+        final FloatBuffer colorBuffer = Buffers.newDirectFloatBuffer(numLoops * COLOR_BUFFER_WIDTH);
+        final IntBuffer dataBuffer = Buffers.newDirectIntBuffer(numLoops * LOOP_INFO_BUFFER_WIDTH);
+        SceneBatcher.fillInParallel(numLoops, (chunk, start, end) -> {
+            final FloatBuffer colorSlice = SceneBatcher.slice(colorBuffer, start * COLOR_BUFFER_WIDTH, end * COLOR_BUFFER_WIDTH);
+            final IntBuffer dataSlice = SceneBatcher.slice(dataBuffer, start * LOOP_INFO_BUFFER_WIDTH, end * LOOP_INFO_BUFFER_WIDTH);
+            for (int loop = start; loop < end; loop++) {
+                bufferColorInfo(loops[loop], colorSlice, access);
+                bufferLoopInfo(loops[loop], dataSlice, access);
+            }
         });
-        colorBuffer.flip();
-        dataBuffer.flip();
 
         return gl -> {
             if (numLoops > 0) {
@@ -19,39 +19,63 @@ import au.gov.asd.tac.constellation.utilities.camera.Camera;
 import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
 import au.gov.asd.tac.constellation.utilities.graphics.Matrix44f;
 import au.gov.asd.tac.constellation.utilities.visual.VisualAccess;
+import au.gov.asd.tac.constellation.utilities.visual.VisualChange;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.GLRenderable.GLRenderableUpdateTask;
 import au.gov.asd.tac.constellation.visual.opengl.renderer.TextureUnits;
 import au.gov.asd.tac.constellation.utilities.text.LabelUtilities;
 import au.gov.asd.tac.constellation.visual.opengl.utilities.SharedDrawable;
 import au.gov.asd.tac.constellation.visual.opengl.utilities.glyphs.NodeGlyphStream;
+import au.gov.asd.tac.constellation.utilities.glyphs.GlyphManager;
+import au.gov.asd.tac.constellation.utilities.glyphs.GlyphStreamContext;
 import au.gov.asd.tac.constellation.utilities.glyphs.NodeGlyphStreamContext;
+import com.jogamp.common.nio.Buffers;
 import com.jogamp.opengl.GL3;
 import java.io.IOException;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Objects;
 
 /**
+ * Draws the top and bottom labels of nodes.
+ * <p>
+ * The text of every label is read when the labels change, and the space that
+ * the labels of each node take up is measured then, on the thread that
+ * processes visual changes. Each node's measurement is kept until its text or
+ * the label sizes change, so the GL thread never lays out a label just to
+ * measure it. Glyphs are only laid out for the labels that the
+ * {@link LabelCuller} chooses from the current camera: those of visible nodes
+ * inside the view that are large enough to read and that do not overlap the
+ * label of a larger node. The choice is made again on the GL thread whenever
+ * the camera or the nodes move, and the glyphs of each label are kept once
+ * laid out, so the cost of rebuilding the labels follows what is on the
+ * screen rather than the size of the graph.
  *
  * @author twilight_sparkle
  */
 public class NodeLabelBatcher implements SceneBatcher {
 
-    private static final int NUM_CORES = Runtime.getRuntime().availableProcessors();
-
-    // Shader variable names corresponding to data in the topBatch
+    // Shader variable names corresponding to data in the labelBatch
     private static final String LABEL_FLOATS_SHADER_NAME = "glyphLocationData";
     private static final String LABEL_INTS_SHADER_NAME = "graphLocationData";
 
+    // Nodes drawn smaller than this radius in pixels are not labelled.
+    private static final float MIN_RADIUS_PIXELS = 4;
+
+    // Label scales as a proportion of the radius of the node, and the gap between a node and its first label (see NodeLabel.vs).
+    private static final float LABEL_TO_NRADIUS_UNITS = 5 / 128F;
+    private static final float LABEL_NODE_GAP = 0.32F;
+
+    // The laid out labels are discarded once more than this many are kept.
+    private static final int MAX_CACHED_LABELS = 100000;
+
+    // The half width, top and bottom of the labels of each node, and whether it has any labels.
+    private static final int EXTENTS_WIDTH = 4;
+
     // Batch and shader
-    private final Batch topBatch;
-    private final Batch bottomBatch;
+    private final Batch labelBatch;
     private int shader;
 
     // Objects providing label information which is constant across the graph
@@ -62,7 +86,7 @@ public class NodeLabelBatcher implements SceneBatcher {
     private float[] backgroundColor;
     private float[] highlightColor;
 
-    // Uniform locations in the shader for drawing the topBatch
+    // Uniform locations in the shader for drawing the labelBatch
     private int shaderMVMatrix;
     private int shaderPMatrix;
     private int shaderLabelBottomInfo;
@@ -85,19 +109,46 @@ public class NodeLabelBatcher implements SceneBatcher {
     private static final int FLOAT_BUFFERS_WIDTH = 4;
     private static final int INT_BUFFERS_WIDTH = 4;
 
-    private static final Logger LOGGER = Logger.getLogger(NodeLabelBatcher.class.getName());
+    // The text and extents of the labels of each node as held on the visual
+    // update thread. A node's extents are measured again once its stamp no
+    // longer matches the label modification count.
+    private String[] topLabelTextsReference = new String[0];
+    private String[] bottomLabelTextsReference = new String[0];
+    private int topLabelCountReference = 0;
+    private int bottomLabelCountReference = 0;
+    private float[] labelExtentsReference = new float[0];
+    private int[] labelExtentStamps = new int[0];
+    private int labelModificationCount = 0;
+    private final MeasuringStream measuringStream = new MeasuringStream();
+
+    // The text and extents of the labels of each node, and the labels laid out so far.
+    private final LabelCuller culler = new LabelCuller();
+    private final NodeGlyphStream layoutStream = new NodeGlyphStream();
+    private String[] topLabelTexts = new String[0];
+    private String[] bottomLabelTexts = new String[0];
+    private int topLabelCount = 0;
+    private int bottomLabelCount = 0;
+    private float[] labelExtents = new float[0];
+    private NodeLabel[] labels = new NodeLabel[0];
+    private int cachedLabelCount = 0;
+    private int layoutCount = 0;
+    private float pixelDensity;
+
+    // The state that the current batch was built for.
+    private int batchModificationCount = -1;
+    private int batchLayoutCount = -1;
+    private final float[] batchState = new float[Matrix44f.LENGTH * 2 + 4];
 
     public NodeLabelBatcher() {
-        // Create the batches
-        topBatch = new Batch(GL3.GL_POINTS);
-        labelFloatsTarget = topBatch.newFloatBuffer(FLOAT_BUFFERS_WIDTH, false);
-        labelIntsTarget = topBatch.newIntBuffer(INT_BUFFERS_WIDTH, false);
-        bottomBatch = new Batch(topBatch);
+        // Create the batch
+        labelBatch = new Batch(GL3.GL_POINTS);
+        labelFloatsTarget = labelBatch.newFloatBuffer(FLOAT_BUFFERS_WIDTH, false);
+        labelIntsTarget = labelBatch.newIntBuffer(INT_BUFFERS_WIDTH, false);
     }
 
     @Override
     public boolean batchReady() {
-        return topBatch.isDrawable() && bottomBatch.isDrawable();
+        return labelBatch.isDrawable();
     }
 
     @Override
@@ -124,117 +175,261 @@ public class NodeLabelBatcher implements SceneBatcher {
     }
 
     @Override
-    public GLRenderableUpdateTask createBatch(final VisualAccess access) throws InterruptedException {
-        final NodeGlyphStream topGlyphStream = new NodeGlyphStream();
-        final NodeGlyphStream bottomGlyphStream = new NodeGlyphStream();
-
-        final Thread topLabelThread = new FillTopLabels(access, topGlyphStream);
-        topLabelThread.start();
-
-        final Thread bottomLabelThread = new FillBottomLabels(access, bottomGlyphStream);
-        bottomLabelThread.start();
-
-        topLabelThread.join();
-        bottomLabelThread.join();
+    public GLRenderableUpdateTask createBatch(final VisualAccess access) {
+        final int vertexCount = access.getVertexCount();
+        final float[] data = new float[vertexCount * LabelCuller.VERTEX_WIDTH];
+        for (int pos = 0; pos < vertexCount; pos++) {
+            readVertex(access, pos, data, pos * LabelCuller.VERTEX_WIDTH);
+        }
+        topLabelCountReference = access.getTopLabelCount();
+        topLabelTextsReference = readTopLabels(access);
+        bottomLabelCountReference = access.getBottomLabelCount();
+        bottomLabelTextsReference = readBottomLabels(access);
+        labelExtentsReference = new float[vertexCount * EXTENTS_WIDTH];
+        labelExtentStamps = new int[vertexCount];
+        Arrays.fill(labelExtentStamps, labelModificationCount - 1);
+        final GLRenderableUpdateTask labelTask = publishLabels();
 
         return gl -> {
-            topBatch.initialise(topGlyphStream.getCurrentFloats().size() / FLOAT_BUFFERS_WIDTH);
-            topBatch.buffer(gl, labelFloatsTarget, FloatBuffer.wrap(topGlyphStream.getCurrentFloats().rawArray()));
-            topBatch.buffer(gl, labelIntsTarget, IntBuffer.wrap(topGlyphStream.getCurrentInts().rawArray()));
-            topBatch.finalise(gl);
-            bottomBatch.initialise(bottomGlyphStream.getCurrentFloats().size() / FLOAT_BUFFERS_WIDTH);
-            bottomBatch.buffer(gl, labelFloatsTarget, FloatBuffer.wrap(bottomGlyphStream.getCurrentFloats().rawArray()));
-            bottomBatch.buffer(gl, labelIntsTarget, IntBuffer.wrap(bottomGlyphStream.getCurrentInts().rawArray()));
-            bottomBatch.finalise(gl);
+            culler.setVertexCount(vertexCount);
+            for (int pos = 0; pos < vertexCount; pos++) {
+                culler.setVertex(pos, data, pos * LabelCuller.VERTEX_WIDTH);
+            }
+            labels = new NodeLabel[vertexCount];
+            labelTask.run(gl);
         };
     }
 
-    public GLRenderableUpdateTask updateTopLabels(final VisualAccess access) throws InterruptedException {
-        // We build the whole batch again - can't update labels in place at this stage.
-        final NodeGlyphStream glyphStream = new NodeGlyphStream();
-        final Thread topLabelThread = new FillTopLabels(access, glyphStream);
+    public GLRenderableUpdateTask updateTopLabels(final VisualAccess access) {
+        // A change made before the vertices were rebuilt no longer applies.
+        if (labelExtentStamps.length == access.getVertexCount()) {
+            final int updatedTopLabelCount = access.getTopLabelCount();
+            final String[] updatedTopLabelTexts = readTopLabels(access);
+            invalidateChangedExtents(topLabelTextsReference, topLabelCountReference, updatedTopLabelTexts, updatedTopLabelCount);
+            topLabelCountReference = updatedTopLabelCount;
+            topLabelTextsReference = updatedTopLabelTexts;
+        }
+        return publishLabels();
+    }
+
+    public GLRenderableUpdateTask updateBottomLabels(final VisualAccess access) {
+        // A change made before the vertices were rebuilt no longer applies.
+        if (labelExtentStamps.length == access.getVertexCount()) {
+            final int updatedBottomLabelCount = access.getBottomLabelCount();
+            final String[] updatedBottomLabelTexts = readBottomLabels(access);
+            invalidateChangedExtents(bottomLabelTextsReference, bottomLabelCountReference, updatedBottomLabelTexts, updatedBottomLabelCount);
+            bottomLabelCountReference = updatedBottomLabelCount;
+            bottomLabelTextsReference = updatedBottomLabelTexts;
+        }
+        return publishLabels();
+    }
 
-        topLabelThread.start();
-        topLabelThread.join();
+    /**
+     * Mark the extents of the nodes whose label texts have changed as needing
+     * to be measured again.
+     */
+    private void invalidateChangedExtents(final String[] oldTexts, final int oldLabelCount, final String[] newTexts, final int newLabelCount) {
+        if (oldLabelCount != newLabelCount || oldTexts.length != newTexts.length) {
+            labelModificationCount++;
+            return;
+        }
+        for (int pos = 0; pos < labelExtentStamps.length; pos++) {
+            for (int label = 0; label < newLabelCount; label++) {
+                final int index = pos * newLabelCount + label;
+                if (!Objects.equals(oldTexts[index], newTexts[index])) {
+                    labelExtentStamps[pos] = labelModificationCount - 1;
+                    break;
+                }
+            }
+        }
+    }
 
+    /**
+     * Measure the labels whose extents are out of date and create a task to
+     * hand the texts and extents of the labels to the GL thread.
+     */
+    private GLRenderableUpdateTask publishLabels() {
+        for (int pos = 0; pos < labelExtentStamps.length; pos++) {
+            if (labelExtentStamps[pos] != labelModificationCount) {
+                measureLabel(pos, labelExtentsReference, pos * EXTENTS_WIDTH);
+                labelExtentStamps[pos] = labelModificationCount;
+            }
+        }
+        final int vertexCount = labelExtentStamps.length;
+        final int updatedTopLabelCount = topLabelCountReference;
+        final String[] updatedTopLabelTexts = topLabelTextsReference;
+        final int updatedBottomLabelCount = bottomLabelCountReference;
+        final String[] updatedBottomLabelTexts = bottomLabelTextsReference;
+        final float[] updatedLabelExtents = labelExtentsReference.clone();
         return gl -> {
-            topBatch.dispose(gl);
-            topBatch.initialise(glyphStream.getCurrentFloats().size() / FLOAT_BUFFERS_WIDTH);
-            topBatch.buffer(gl, labelFloatsTarget, FloatBuffer.wrap(glyphStream.getCurrentFloats().rawArray()));
-            topBatch.buffer(gl, labelIntsTarget, IntBuffer.wrap(glyphStream.getCurrentInts().rawArray()));
-            topBatch.finalise(gl);
+            // A change made before the vertices were rebuilt no longer applies.
+            if (culler.getVertexCount() == vertexCount) {
+                topLabelCount = updatedTopLabelCount;
+                topLabelTexts = updatedTopLabelTexts;
+                bottomLabelCount = updatedBottomLabelCount;
+                bottomLabelTexts = updatedBottomLabelTexts;
+                labelExtents = updatedLabelExtents;
+                clearLabels();
+            }
         };
     }
 
-    public GLRenderableUpdateTask updateBottomLabels(final VisualAccess access) throws InterruptedException {
-        // We build the whole batch again - can't update labels in place at this stage.
-        final NodeGlyphStream glyphStream = new NodeGlyphStream();
-        final Thread bottomLabelThread = new FillBottomLabels(access, glyphStream);
-
-        bottomLabelThread.start();
-        bottomLabelThread.join();
-
+    /**
+     * Create a task to update the positions and radii of the vertices listed
+     * in a change, which decide whether their labels are drawn.
+     *
+     * @param access the VisualAccess object describing the data to be
+     * visualised.
+     * @param change the change listing the vertices to update.
+     * @return The GLUpdateTask to update the vertex data.
+     */
+    public GLRenderableUpdateTask updatePositions(final VisualAccess access, final VisualChange change) {
+        final int vertexCount = access.getVertexCount();
+        final int changeCount = change.getSize();
+        final int[] vertices = new int[changeCount];
+        final float[] data = new float[changeCount * LabelCuller.VERTEX_WIDTH];
+        for (int i = 0; i < changeCount; i++) {
+            vertices[i] = change.getElement(i);
+            readVertex(access, vertices[i], data, i * LabelCuller.VERTEX_WIDTH);
+        }
         return gl -> {
-            bottomBatch.dispose(gl);
-            bottomBatch.initialise(glyphStream.getCurrentFloats().size() / FLOAT_BUFFERS_WIDTH);
-            bottomBatch.buffer(gl, labelFloatsTarget, FloatBuffer.wrap(glyphStream.getCurrentFloats().rawArray()));
-            bottomBatch.buffer(gl, labelIntsTarget, IntBuffer.wrap(glyphStream.getCurrentInts().rawArray()));
-            bottomBatch.finalise(gl);
+            // A change made before the vertices were rebuilt no longer applies.
+            if (culler.getVertexCount() == vertexCount) {
+                for (int i = 0; i < changeCount; i++) {
+                    culler.setVertex(vertices[i], data, i * LabelCuller.VERTEX_WIDTH);
+                }
+            }
         };
     }
 
-    private void fillTopLabels(final VisualAccess access, NodeGlyphStream glyphStream) throws InterruptedException {
-        final ExecutorService pool = Executors.newFixedThreadPool(NUM_CORES);
-        for (int pos = 0; pos < access.getVertexCount(); pos++) {
-            final Runnable thread = new BufferTopLabel(pos, access, glyphStream);
-            pool.submit(thread);
-        }
-        pool.shutdown();
+    private static void readVertex(final VisualAccess access, final int pos, final float[] data, final int offset) {
+        data[offset] = access.getX(pos);
+        data[offset + 1] = access.getY(pos);
+        data[offset + 2] = access.getZ(pos);
+        data[offset + 3] = access.getX2(pos);
+        data[offset + 4] = access.getY2(pos);
+        data[offset + 5] = access.getZ2(pos);
+        data[offset + 6] = access.getRadius(pos);
+        data[offset + 7] = access.getVertexVisibility(pos);
+    }
 
-        pool.awaitTermination(10, TimeUnit.MINUTES);
+    private static String[] readTopLabels(final VisualAccess access) {
+        final int vertexCount = access.getVertexCount();
+        final int labelCount = access.getTopLabelCount();
+        final String[] texts = new String[vertexCount * labelCount];
+        for (int pos = 0; pos < vertexCount; pos++) {
+            for (int label = 0; label < labelCount; label++) {
+                texts[pos * labelCount + label] = access.getVertexTopLabelText(pos, label);
+            }
+        }
+        return texts;
+    }
 
-        glyphStream.trimToSize();
+    private static String[] readBottomLabels(final VisualAccess access) {
+        final int vertexCount = access.getVertexCount();
+        final int labelCount = access.getBottomLabelCount();
+        final String[] texts = new String[vertexCount * labelCount];
+        for (int pos = 0; pos < vertexCount; pos++) {
+            for (int label = 0; label < labelCount; label++) {
+                texts[pos * labelCount + label] = access.getVertexBottomLabelText(pos, label);
+            }
+        }
+        return texts;
     }
 
-    private void fillBottomLabels(final VisualAccess access, NodeGlyphStream glyphStream) throws InterruptedException {
-        final ExecutorService pool = Executors.newFixedThreadPool(NUM_CORES);
+    private void clearLabels() {
+        Arrays.fill(labels, null);
+        cachedLabelCount = 0;
+        layoutCount++;
+    }
 
-        for (int pos = 0; pos < access.getVertexCount(); pos++) {
-            final Runnable thread = new BufferBottomLabel(pos, access, glyphStream);
-            pool.submit(thread);
+    /**
+     * Measure the space taken up by the top and bottom labels of a node, in
+     * multiples of the radius of the node, from the widths of their lines.
+     *
+     * @param pos the node.
+     * @param extents the array to hold the half width, top and bottom of the
+     * labels, and 1 if the node has any labels or 0 otherwise.
+     * @param offset the offset in the array at which to write the extents.
+     */
+    private void measureLabel(final int pos, final float[] extents, final int offset) {
+        float halfWidth = 0;
+
+        int topScale = LabelUtilities.NRADIUS_TO_LABEL_UNITS;
+        boolean hasTop = false;
+        for (int label = 0; label < topLabelCountReference; label++) {
+            for (final String line : LabelUtilities.splitTextIntoLines(topLabelTextsReference[pos * topLabelCountReference + label])) {
+                if (measuringStream.measure(line)) {
+                    halfWidth = Math.max(halfWidth, measuringStream.halfWidth * labelTopInfoReference.get(label, 3) * LABEL_TO_NRADIUS_UNITS);
+                    hasTop = true;
+                }
+                topScale += labelTopInfoReference.get(label, 3);
+            }
         }
-        pool.shutdown();
 
-        pool.awaitTermination(10, TimeUnit.MINUTES);
+        int bottomScale = LabelUtilities.NRADIUS_TO_LABEL_UNITS;
+        boolean hasBottom = false;
+        for (int label = 0; label < bottomLabelCountReference; label++) {
+            for (final String line : LabelUtilities.splitTextIntoLines(bottomLabelTextsReference[pos * bottomLabelCountReference + label])) {
+                if (measuringStream.measure(line)) {
+                    halfWidth = Math.max(halfWidth, measuringStream.halfWidth * labelBottomInfoReference.get(label, 3) * LABEL_TO_NRADIUS_UNITS);
+                    hasBottom = true;
+                }
+                bottomScale += labelBottomInfoReference.get(label, 3);
+            }
+        }
 
-        glyphStream.trimToSize();
+        // The node itself is included in the space taken by its labels.
+        extents[offset] = Math.max(1, halfWidth);
+        extents[offset + 1] = hasTop ? topScale * LABEL_TO_NRADIUS_UNITS + LABEL_NODE_GAP : 1;
+        extents[offset + 2] = hasBottom ? bottomScale * LABEL_TO_NRADIUS_UNITS + LABEL_NODE_GAP : 1;
+        extents[offset + 3] = hasTop || hasBottom ? 1 : 0;
     }
 
-    private void bufferBottomLabel(final int pos, final VisualAccess access, NodeGlyphStream glyphStream) {
-        final float visibility = access.getVertexVisibility(pos);
-        int totalScale = LabelUtilities.NRADIUS_TO_LABEL_UNITS;
-        for (int label = 0; label < access.getBottomLabelCount(); label++) {
-            final String labelText = access.getVertexBottomLabelText(pos, label);
-            ArrayList<String> lines = LabelUtilities.splitTextIntoLines(labelText);
+    /**
+     * Lay out the glyphs of the top and bottom labels of a node.
+     */
+    private NodeLabel layoutLabel(final int pos) {
+        layoutStream.getCurrentFloats().clear();
+        layoutStream.getCurrentInts().clear();
+        final float visibility = culler.getVisibility(pos);
+
+        int topScale = LabelUtilities.NRADIUS_TO_LABEL_UNITS;
+        for (int label = 0; label < topLabelCount; label++) {
+            final ArrayList<String> lines = LabelUtilities.splitTextIntoLines(topLabelTexts[pos * topLabelCount + label]);
+            Collections.reverse(lines);
             for (final String line : lines) {
-                SharedDrawable.getGlyphManager().renderTextAsLigatures(line, glyphStream, new NodeGlyphStreamContext(pos, -totalScale, visibility, label));
-                totalScale += labelBottomInfoReference.get(label, 3);
+                SharedDrawable.getGlyphManager().renderTextAsLigatures(line, layoutStream, new NodeGlyphStreamContext(pos, topScale, visibility, label));
+                topScale += labelTopInfo.get(label, 3);
             }
         }
-    }
 
-    private void bufferTopLabel(final int pos, final VisualAccess access, final NodeGlyphStream glyphStream) {
-        final float visibility = access.getVertexVisibility(pos);
-        int totalScale = LabelUtilities.NRADIUS_TO_LABEL_UNITS;
-        for (int label = 0; label < access.getTopLabelCount(); label++) {
-            final String text = access.getVertexTopLabelText(pos, label);
-            ArrayList<String> lines = LabelUtilities.splitTextIntoLines(text);
-            Collections.reverse(lines);
+        int bottomScale = LabelUtilities.NRADIUS_TO_LABEL_UNITS;
+        for (int label = 0; label < bottomLabelCount; label++) {
+            final ArrayList<String> lines = LabelUtilities.splitTextIntoLines(bottomLabelTexts[pos * bottomLabelCount + label]);
             for (final String line : lines) {
-                SharedDrawable.getGlyphManager().renderTextAsLigatures(line, glyphStream, new NodeGlyphStreamContext(pos, totalScale, visibility, label));
-                totalScale += labelTopInfoReference.get(label, 3);
+                SharedDrawable.getGlyphManager().renderTextAsLigatures(line, layoutStream, new NodeGlyphStreamContext(pos, -bottomScale, visibility, label));
+                bottomScale += labelBottomInfo.get(label, 3);
             }
         }
+
+        return new NodeLabel(layoutStream.getCurrentFloats().toArray(), layoutStream.getCurrentInts().toArray());
+    }
+
+    /**
+     * Read the extents of the labels of a node as measured on the visual
+     * update thread.
+     */
+    private boolean readExtents(final int pos, final float[] extents) {
+        final int offset = pos * EXTENTS_WIDTH;
+        extents[0] = labelExtents[offset];
+        extents[1] = labelExtents[offset + 1];
+        extents[2] = labelExtents[offset + 2];
+        return labelExtents[offset + 3] > 0;
+    }
+
+    public void setPixelDensity(final float pixelDensity) {
+        this.pixelDensity = pixelDensity;
     }
 
     public GLRenderableUpdateTask setBottomLabelSizes(final VisualAccess access) {
@@ -242,8 +437,12 @@ public class NodeLabelBatcher implements SceneBatcher {
         for (int i = 0; i < numBottomLabels; i++) {
             labelBottomInfoReference.set(i, 3, (int) (LabelUtilities.NRADIUS_TO_LABEL_UNITS * Math.min(access.getBottomLabelSize(i), LabelUtilities.MAX_LABEL_SIZE)));
         }
+        // Every label is measured again by the update of the labels that follows.
+        labelModificationCount++;
         return gl -> {
             labelBottomInfo.set(labelBottomInfoReference);
+            // The label sizes decide where each line of a label is laid out.
+            clearLabels();
         };
     }
 
@@ -263,8 +462,12 @@ public class NodeLabelBatcher implements SceneBatcher {
         for (int i = 0; i < numTopLabels; i++) {
             labelTopInfoReference.set(i, 3, (int) (LabelUtilities.NRADIUS_TO_LABEL_UNITS * Math.min(access.getTopLabelSize(i), LabelUtilities.MAX_LABEL_SIZE)));
         }
+        // Every label is measured again by the update of the labels that follows.
+        labelModificationCount++;
         return gl -> {
             labelTopInfo.set(labelTopInfoReference);
+            // The label sizes decide where each line of a label is laid out.
+            clearLabels();
         };
     }
 
@@ -296,14 +499,30 @@ public class NodeLabelBatcher implements SceneBatcher {
     @Override
     public GLRenderableUpdateTask disposeBatch() {
         return gl -> {
-            topBatch.dispose(gl);
-            bottomBatch.dispose(gl);
+            labelBatch.dispose(gl);
+            batchModificationCount = -1;
         };
     }
 
     @Override
     public void drawBatch(final GL3 gl, final Camera camera, final Matrix44f mvMatrix, final Matrix44f pMatrix) {
-        if (topBatch.isDrawable() || bottomBatch.isDrawable()) {
+        // Choose the labels to draw again if the camera, the nodes or the labels have changed.
+        // This has to happen before the glyph textures are updated because laying out labels can add glyphs.
+        final float[] state = new float[batchState.length];
+        System.arraycopy(mvMatrix.a, 0, state, 0, Matrix44f.LENGTH);
+        System.arraycopy(pMatrix.a, 0, state, Matrix44f.LENGTH, Matrix44f.LENGTH);
+        state[Matrix44f.LENGTH * 2] = pixelDensity;
+        state[Matrix44f.LENGTH * 2 + 1] = camera.getMix();
+        state[Matrix44f.LENGTH * 2 + 2] = camera.getVisibilityLow();
+        state[Matrix44f.LENGTH * 2 + 3] = camera.getVisibilityHigh();
+        if (culler.getModificationCount() != batchModificationCount || layoutCount != batchLayoutCount || !Arrays.equals(state, batchState)) {
+            rebuildBatch(gl, camera, mvMatrix, pMatrix);
+            batchModificationCount = culler.getModificationCount();
+            batchLayoutCount = layoutCount;
+            System.arraycopy(state, 0, batchState, 0, state.length);
+        }
+
+        if (labelBatch.isDrawable()) {
             gl.glUseProgram(shader);
 
             // Let the glyph controller bind the glyph info and glyph image textures
@@ -325,91 +544,97 @@ public class NodeLabelBatcher implements SceneBatcher {
             gl.glUniform4fv(shaderBackgroundColor, 1, backgroundColor, 0);
             gl.glUniform4fv(shaderHighlightColor, 1, highlightColor, 0);
 
-            if (topBatch.isDrawable()) {
-                topBatch.draw(gl);
-            }
-            if (bottomBatch.isDrawable()) {
-                bottomBatch.draw(gl);
-            }
+            labelBatch.draw(gl);
         }
     }
 
-    class FillTopLabels extends Thread {
-
-        private final VisualAccess access;
-        private final NodeGlyphStream glyphStream;
-
-        FillTopLabels(final VisualAccess access, final NodeGlyphStream glyphStream) {
-            this.access = access;
-            this.glyphStream = glyphStream;
+    /**
+     * Send the glyphs of the labels chosen from the current camera to the GL
+     * context.
+     */
+    private void rebuildBatch(final GL3 gl, final Camera camera, final Matrix44f mvMatrix, final Matrix44f pMatrix) {
+        labelBatch.dispose(gl);
+
+        // Labels are kept while the user looks around, but not for the whole of a very large graph.
+        if (cachedLabelCount > MAX_CACHED_LABELS) {
+            Arrays.fill(labels, null);
+            cachedLabelCount = 0;
         }
 
-        @Override
-        public void run() {
-            try {
-                fillTopLabels(access, glyphStream);
-            } catch (InterruptedException ex) {
-                Thread.currentThread().interrupt();
-                LOGGER.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
+        final int[] chosen = culler.cull(mvMatrix, pMatrix, pixelDensity, camera.getMix(), camera.getVisibilityLow(), camera.getVisibilityHigh(), MIN_RADIUS_PIXELS, this::readExtents);
+        int glyphCount = 0;
+        for (final int pos : chosen) {
+            if (labels[pos] == null) {
+                labels[pos] = layoutLabel(pos);
+                cachedLabelCount++;
             }
+            glyphCount += labels[pos].floats.length / FLOAT_BUFFERS_WIDTH;
         }
-    }
-
-    class FillBottomLabels extends Thread {
-
-        private final VisualAccess access;
-        private final NodeGlyphStream glyphStream;
-
-        FillBottomLabels(final VisualAccess access, final NodeGlyphStream glyphStream) {
-            this.access = access;
-            this.glyphStream = glyphStream;
+        if (glyphCount == 0) {
+            return;
         }
 
-        @Override
-        public void run() {
-            try {
-                fillBottomLabels(access, glyphStream);
-            } catch (InterruptedException ex) {
-                Thread.currentThread().interrupt();
-                LOGGER.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
-            }
+        final FloatBuffer floats = Buffers.newDirectFloatBuffer(glyphCount * FLOAT_BUFFERS_WIDTH);
+        final IntBuffer ints = Buffers.newDirectIntBuffer(glyphCount * INT_BUFFERS_WIDTH);
+        for (final int pos : chosen) {
+            floats.put(labels[pos].floats);
+            ints.put(labels[pos].ints);
         }
+        floats.flip();
+        ints.flip();
+        labelBatch.initialise(glyphCount);
+        labelBatch.buffer(gl, labelFloatsTarget, floats);
+        labelBatch.buffer(gl, labelIntsTarget, ints);
+        labelBatch.finalise(gl);
     }
 
-    class BufferBottomLabel extends Thread {
-
-        private final int pos;
-        private final VisualAccess access;
-        private final NodeGlyphStream glyphStream;
+    /**
+     * The glyphs of the labels of one node.
+     */
+    private static final class NodeLabel {
 
-        BufferBottomLabel(final int pos, final VisualAccess access, final NodeGlyphStream glyphStream) {
-            this.pos = pos;
-            this.access = access;
-            this.glyphStream = glyphStream;
-        }
+        private final float[] floats;
+        private final int[] ints;
 
-        @Override
-        public void run() {
-            bufferBottomLabel(pos, access, glyphStream);
+        private NodeLabel(final float[] floats, final int[] ints) {
+            this.floats = floats;
+            this.ints = ints;
         }
-
     }
 
-    class BufferTopLabel extends Thread {
-
-        private final int pos;
-        private final VisualAccess access;
-        private final NodeGlyphStream glyphStream;
-
-        BufferTopLabel(final int pos, final VisualAccess access, final NodeGlyphStream glyphStream) {
-            this.pos = pos;
-            this.access = access;
-            this.glyphStream = glyphStream;
+    /**
+     * A glyph stream that only records the width of a line of text, so that
+     * labels can be measured without keeping their glyphs.
+     */
+    private static final class MeasuringStream implements GlyphManager.GlyphStream {
+
+        private boolean hasLine;
+        private float halfWidth;
+
+        /**
+         * Measure a line of text.
+         *
+         * @param line the line.
+         * @return true if the line produced any output, in which case its half
+         * width including the label background is held in halfWidth.
+         */
+        private boolean measure(final String line) {
+            hasLine = false;
+            halfWidth = 0;
+            SharedDrawable.getGlyphManager().renderTextAsLigatures(line, this, null);
+            return hasLine;
         }
 
-        public void run() {
-            bufferTopLabel(pos, access, glyphStream);
+        @Override
+        public void newLine(final float width, final GlyphStreamContext context) {
+            // Matches the background glyph added by NodeGlyphStream for each line.
+            hasLine = true;
+            halfWidth = Math.max(halfWidth, width / 2.0F + 0.2F);
         }
 
+        @Override
+        public void addGlyph(final int glyphPosition, final float x, final float y, final GlyphStreamContext context) {
+            // Only the width of the line is needed.
+        }
     }
 }
@@ -27,6 +27,8 @@ import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * An interface for classes that coordinate the creation, updating and drawing
@@ -40,6 +42,12 @@ import java.util.Arrays;
  */
 public interface SceneBatcher {
 
+    /**
+     * The smallest number of positions filled by one thread when buffers are
+     * filled in parallel.
+     */
+    public static final int MIN_CHUNK_SIZE = 4096;
+
     /**
      * Whether or not this SceneBatcher is currently active on a GL context,
      * allowing it to be drawn, or have its buffers updated.
@@ -136,6 +144,73 @@ public interface SceneBatcher {
         void disconnect(final GL3 gl);
     }
 
+    @FunctionalInterface
+    public static interface ChunkOperation {
+
+        void fill(final int chunk, final int start, final int end);
+    }
+
+    /**
+     * The number of chunks that {@link #fillInParallel fillInParallel()}
+     * splits the given number of positions into.
+     *
+     * @param count the number of positions.
+     * @return the number of chunks, which is at least one.
+     */
+    public static int getChunkCount(final int count) {
+        final int chunkCount = Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, (count + MIN_CHUNK_SIZE - 1) / MIN_CHUNK_SIZE);
+        return Math.max(1, chunkCount);
+    }
+
+    /**
+     * Split the positions from zero to count into contiguous chunks and fill
+     * each chunk on the common fork-join pool, returning once every chunk has
+     * been filled.
+     * <p>
+     * Each chunk should only write to its own slice of the buffers being
+     * filled, see {@link #slice(FloatBuffer, int, int) slice()}. Small counts
+     * are filled as a single chunk on the calling thread.
+     *
+     * @param count the number of positions.
+     * @param operation fills the positions from start (inclusive) to end
+     * (exclusive) of a chunk.
+     */
+    public static void fillInParallel(final int count, final ChunkOperation operation) {
+        final int chunkCount = getChunkCount(count);
+        if (chunkCount == 1) {
+            operation.fill(0, 0, count);
+        } else {
+            IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+                final int start = (int) ((long) count * chunk / chunkCount);
+                final int end = (int) ((long) count * (chunk + 1) / chunkCount);
+                operation.fill(chunk, start, end);
+            });
+        }
+    }
+
+    /**
+     * Return a view of part of a buffer, with its own position, that can be
+     * filled independently of the rest of the buffer.
+     *
+     * @param buffer the buffer.
+     * @param start the index of the first element of the slice.
+     * @param end the index after the last element of the slice.
+     * @return a view of the slice, positioned at its start.
+     */
+    public static FloatBuffer slice(final FloatBuffer buffer, final int start, final int end) {
+        final FloatBuffer slice = buffer.duplicate();
+        slice.limit(end);
+        slice.position(start);
+        return slice;
+    }
+
+    public static IntBuffer slice(final IntBuffer buffer, final int start, final int end) {
+        final IntBuffer slice = buffer.duplicate();
+        slice.limit(end);
+        slice.position(start);
+        return slice;
+    }
+
     public static GLRenderableUpdateTask updateIntBufferTask(final VisualChange change, final VisualAccess access, final IntBufferOperation operation, final IntBufferConnection connector, final BufferDisconnection disconnector, final int width) {
         final boolean[] updateMask = new boolean[width];
         Arrays.fill(updateMask, true);
@@ -0,0 +1,20 @@
+// Color the aggregated points and bundled lines of a level of detail.
+// Points are drawn as circles by discarding the corners of the point sprite.
+
+#version 330 core
+
+uniform bool drawPoints;
+
+in vec4 pointColor;
+
+out vec4 fragColor;
+
+void main(void) {
+    if (drawPoints) {
+        vec2 p = 2.0 * gl_PointCoord - 1.0;
+        if (dot(p, p) > 1.0) {
+            discard;
+        }
+    }
+    fragColor = pointColor;
+}
@@ -0,0 +1,21 @@
+// Draw the aggregated points and bundled lines of a level of detail.
+// Points are sized to cover their radius in world units, but never drawn smaller than 2 pixels.
+
+#version 330 core
+
+uniform mat4 mvMatrix;
+uniform mat4 pMatrix;
+uniform float pixelDensity;
+
+// The position of the point or line end in xyz, and its radius in w.
+in vec4 lodPosition;
+in vec4 lodColor;
+
+out vec4 pointColor;
+
+void main(void) {
+    vec4 v = mvMatrix * vec4(lodPosition.xyz, 1);
+    gl_Position = pMatrix * v;
+    gl_PointSize = max(2.0, 2.0 * lodPosition.w * pixelDensity / max(-v.z, 1.0));
+    pointColor = lodColor;
+}
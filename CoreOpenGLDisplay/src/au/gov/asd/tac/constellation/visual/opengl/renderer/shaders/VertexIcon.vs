@@ -4,6 +4,15 @@
 
 uniform samplerBuffer xyzTexture;
 
+// The raw colour values of vertices, four to a texel, and the encoding that maps them to colours.
+// colorMode is 0 for no encoding, 1 for a ramp and 2 for a palette.
+uniform samplerBuffer colorValueTexture;
+uniform int colorMode;
+uniform float colorLow;
+uniform float colorHigh;
+uniform vec3 colorStops[16];
+uniform int colorStopCount;
+
 uniform mat4 mvMatrix;
 uniform float morphMix;
 uniform float visibilityLow;
@@ -20,13 +29,34 @@ out mat4 gBackgroundIconColor;
 flat out int vxPosition;
 flat out float gRadius;
 
+// Map a colour value in the same way as ColorEncoding.getColor().
+vec3 encodeColor(float value) {
+    if(colorMode == 2) {
+        int code = int(floor(value)) % colorStopCount;
+        return colorStops[code < 0 ? code + colorStopCount : code];
+    }
+
+    float t = colorHigh > colorLow ? clamp((value - colorLow) / (colorHigh - colorLow), 0.0, 1.0) : 0.0;
+    float scaled = t * (colorStopCount - 1);
+    int i = min(int(scaled), colorStopCount - 1);
+    int j = min(i + 1, colorStopCount - 1);
+    return mix(colorStops[i], colorStops[j], scaled - i);
+}
+
 void main(void) {
     // Pass stuff to the next shader.
     gData = data;
+    vec3 color = backgroundIconColor.rgb;
+    if(colorMode != 0) {
+        float value = texelFetch(colorValueTexture, gl_VertexID >> 2)[gl_VertexID & 3];
+        if(!isnan(value)) {
+            color = encodeColor(value);
+        }
+    }
     gBackgroundIconColor = mat4(
-        backgroundIconColor.r, 0, 0, 0,
-        0, backgroundIconColor.g, 0, 0,
-        0, 0, backgroundIconColor.b, 0,
+        color.r, 0, 0, 0,
+        0, color.g, 0, 0,
+        0, 0, color.b, 0,
         0, 0, 0, 1
     );
     vxPosition = gl_VertexID;
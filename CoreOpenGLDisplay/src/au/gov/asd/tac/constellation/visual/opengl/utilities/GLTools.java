@@ -38,7 +38,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.openide.util.Utilities; //pulled in by Windows-DPI-Scaling
@@ -686,7 +686,9 @@ public final class GLTools {
     public static final class LoadedIconHelper {
 
         private final LinkedHashMap<String, Integer> loadedIcons;
-        private boolean requiresReload;
+        // Batches are filled in parallel, so icons already added are looked up without taking the lock.
+        private final ConcurrentHashMap<String, Integer> loadedIconIndices;
+        private volatile boolean requiresReload;
 
         // We use a texture array to store icons.
         // If we have too many icons (more than GL_MAX_ARRAY_TEXTURE_LAYERS), then OpenGL won't like it.
@@ -699,6 +701,7 @@ public final class GLTools {
         private LoadedIconHelper() {
             maxNIcons = Integer.MAX_VALUE;
             loadedIcons = new LinkedHashMap<>();
+            loadedIconIndices = new ConcurrentHashMap<>();
 
             // These icons are guaranteed to be in the iconMap in this order.
             // They must be at these pre-defined indices so other code (in particular the shaders) can use them.
@@ -715,38 +718,53 @@ public final class GLTools {
          * and empty labels (ie "") return the index of the transparent icon.
          * Therefore, a valid icon index (&lt;=0 &amp;&amp; &gt;=MAX_ICON_INDEX)
          * will always be returned.
+         * <p>
+         * This method is thread safe.
          *
          * @param label The index of an icon.
          *
          * @return the index of the icon.
          */
         public int addIcon(final String label) {
-            final Integer iconIndex = loadedIcons.get(label);
-            if (iconIndex == null) {
-                final int index = loadedIcons.size();
-                if (index >= maxNIcons) {
-                    // Too many icons: return NOISE icon.
-                    return NOISE_ICON_INDEX;
+            if (label != null) {
+                final Integer iconIndex = loadedIconIndices.get(label);
+                if (iconIndex != null) {
+                    return iconIndex;
                 }
-
-                loadedIcons.put(label, index);
-                requiresReload = true;
-                return index;
             }
 
-            return iconIndex;
+            synchronized (this) {
+                final Integer iconIndex = loadedIcons.get(label);
+                if (iconIndex == null) {
+                    final int index = loadedIcons.size();
+                    if (index >= maxNIcons) {
+                        // Too many icons: return NOISE icon.
+                        return NOISE_ICON_INDEX;
+                    }
+
+                    loadedIcons.put(label, index);
+                    if (label != null) {
+                        loadedIconIndices.put(label, index);
+                    }
+                    requiresReload = true;
+                    return index;
+                }
+
+                return iconIndex;
+            }
         }
 
-        public boolean isEmpty() {
+        public synchronized boolean isEmpty() {
             return loadedIcons.isEmpty();
         }
 
-        public int size() {
+        public synchronized int size() {
             return loadedIcons.size();
         }
 
-        public void reset() {
+        public synchronized void reset() {
             loadedIcons.clear();
+            loadedIconIndices.clear();
             requiresReload = false;
         }
 
@@ -777,26 +795,23 @@ public final class GLTools {
         // Do we have new icons to be loaded?
         // If so, reload the lot.
         if (LOADED_ICON_HELPER.requiresReload) {
-            final int nIcons = LOADED_ICON_HELPER.loadedIcons.size();
-            final List<ConstellationIcon> iconList = new ArrayList<>(nIcons);
-            for (int i = 0; i < nIcons; i++) {
-                iconList.add(null);
+            final List<String> iconLabels;
+            synchronized (LOADED_ICON_HELPER) {
+                iconLabels = new ArrayList<>(LOADED_ICON_HELPER.loadedIcons.keySet());
+                LOADED_ICON_HELPER.requiresReload = false;
             }
 
-            for (final Map.Entry<String, Integer> entry : LOADED_ICON_HELPER.loadedIcons.entrySet()) {
-                final String iconLabel = entry.getKey();
-                final int iconIndex = entry.getValue();
-
+            // Icons are indexed in the order they were added.
+            final List<ConstellationIcon> iconList = new ArrayList<>(iconLabels.size());
+            for (final String iconLabel : iconLabels) {
                 ConstellationIcon icon = IconManager.getIcon(iconLabel);
                 if (icon == null) {
                     icon = DefaultIconProvider.UNKNOWN;
                 }
 
-                iconList.set(iconIndex, icon);
+                iconList.add(icon);
             }
 
-            LOADED_ICON_HELPER.requiresReload = false;
-
             final long t0 = System.currentTimeMillis();
             final int iconTextureArray = loadSharedIconTextures(glCurrent, iconList, width, height);
             final long t1 = System.currentTimeMillis();
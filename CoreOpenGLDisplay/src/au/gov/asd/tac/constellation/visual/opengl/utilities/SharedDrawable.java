@@ -69,6 +69,7 @@ public final class SharedDrawable {
     private static int nodeLabelShader;
     private static int connectionLabelShader;
     private static int blazeShader;
+    private static int lodShader;
 
     private static int labelBackgroundGlyphPosition;
 
@@ -528,4 +529,42 @@ public final class SharedDrawable {
 
         return blazeShader;
     }
+
+    /**
+     * The level of detail shader draws the aggregated points and bundled lines
+     * used in place of the vertices and connections of very large graphs.
+     *
+     * @param glCurrent the current OpenGL context.
+     * @param positionTarget
+     * @param positionShaderName the name of the position buffer in the shader
+     * source.
+     * @param colorTarget
+     * @param colorShaderName the name of the color buffer in the shader source.
+     * @return the name of the shader.
+     * @throws IOException if an error occurs while reader the shader source.
+     */
+    public static int getLodShader(final GL3 glCurrent, final int positionTarget, final String positionShaderName, final int colorTarget, final String colorShaderName) throws IOException {
+        if (lodShader == 0) {
+            glCurrent.getContext().release();
+            try {
+                final int result = gl.getContext().makeCurrent();
+                if (result == GLContext.CONTEXT_NOT_CURRENT) {
+                    glCurrent.getContext().makeCurrent();
+                    throw new RenderException(COULD_NOT_CONTEXT_CURRENT);
+                }
+
+                final String vp = GLTools.loadFile(GLVisualProcessor.class, "shaders/Lod.vs");
+                final String fp = GLTools.loadFile(GLVisualProcessor.class, "shaders/Lod.fs");
+                lodShader = GLTools.loadShaderSourceWithAttributes(gl, "Lod", vp, null, fp,
+                        positionTarget, positionShaderName,
+                        colorTarget, colorShaderName,
+                        ShaderManager.FRAG_BASE, FRAG_COLOR);
+            } finally {
+                gl.getContext().release();
+                glCurrent.getContext().makeCurrent();
+            }
+        }
+
+        return lodShader;
+    }
 }
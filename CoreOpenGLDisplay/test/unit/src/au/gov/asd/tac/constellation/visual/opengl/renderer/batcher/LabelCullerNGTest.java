@@ -0,0 +1,103 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.visual.opengl.renderer.batcher;
+
+import au.gov.asd.tac.constellation.utilities.graphics.Matrix44f;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Label Culler Test.
+ *
+ * @author sirius
+ */
+public class LabelCullerNGTest {
+
+    private static final float PIXEL_DENSITY = 500;
+    private static final float MIN_RADIUS_PIXELS = 4;
+
+    @Test
+    public void onlyVisibleLargeSeparateLabelsAreChosen() {
+        final LabelCuller culler = new LabelCuller();
+        culler.setVertexCount(8);
+        setVertex(culler, 0, 0, 0, -10, 1, 1);
+        // Overlaps the label of the larger vertex 0.
+        setVertex(culler, 1, 0.5F, 0, -10, 0.5F, 1);
+        // Outside the view.
+        setVertex(culler, 2, 100, 0, -10, 1, 1);
+        // Behind the camera.
+        setVertex(culler, 3, 0, 0, 10, 1, 1);
+        // Too small to read.
+        setVertex(culler, 4, 0, 3, -10, 0.02F, 1);
+        // Clear of the label of vertex 0.
+        setVertex(culler, 5, 0, 3, -10, 0.5F, 1);
+        // Hidden.
+        setVertex(culler, 6, -2, -2, -10, 0.5F, 0);
+        // Without a label.
+        setVertex(culler, 7, -2, -2, -10, 0.5F, 1);
+
+        final Set<Integer> measured = new TreeSet<>();
+        final int[] chosen = culler.cull(Matrix44f.identity(), createProjection(), PIXEL_DENSITY, 0, 0, 1, MIN_RADIUS_PIXELS, (vertex, extents) -> {
+            measured.add(vertex);
+            extents[0] = 2;
+            extents[1] = 1;
+            extents[2] = 1;
+            return vertex != 7;
+        });
+
+        assertEquals(chosen, new int[]{0, 5});
+        assertEquals(measured, new TreeSet<>(Arrays.asList(0, 1, 5, 7)));
+    }
+
+    @Test
+    public void cullingFollowsMorphAndVisibility() {
+        final LabelCuller culler = new LabelCuller();
+        culler.setVertexCount(2);
+        // Visibilities above one are visible whatever the visibility range of the camera.
+        culler.setVertex(0, new float[]{100, 0, -10, 0, 0, -10, 1, 1.5F}, 0);
+        culler.setVertex(1, new float[]{0, 3, -10, 0, 3, -10, 0.5F, 0.5F}, 0);
+
+        final Matrix44f mvMatrix = Matrix44f.identity();
+        final Matrix44f pMatrix = createProjection();
+        final LabelCuller.LabelMeasure measure = (vertex, extents) -> {
+            extents[0] = 1;
+            extents[1] = 1;
+            extents[2] = 1;
+            return true;
+        };
+
+        assertEquals(culler.cull(mvMatrix, pMatrix, PIXEL_DENSITY, 0, 0, 1, MIN_RADIUS_PIXELS, measure), new int[]{1});
+        assertEquals(culler.cull(mvMatrix, pMatrix, PIXEL_DENSITY, 1, 0, 1, MIN_RADIUS_PIXELS, measure), new int[]{0, 1});
+        assertEquals(culler.cull(mvMatrix, pMatrix, PIXEL_DENSITY, 1, 0.6F, 1, MIN_RADIUS_PIXELS, measure), new int[]{0});
+        assertEquals(culler.cull(mvMatrix, pMatrix, PIXEL_DENSITY, 1, 0, 0.4F, MIN_RADIUS_PIXELS, measure), new int[]{0});
+
+        // Moving the camera away makes both vertices too small to label.
+        assertEquals(culler.cull(mvMatrix, pMatrix, PIXEL_DENSITY / 100, 1, 0, 1, MIN_RADIUS_PIXELS, measure), new int[0]);
+    }
+
+    private static Matrix44f createProjection() {
+        final Matrix44f pMatrix = new Matrix44f();
+        pMatrix.makePerspectiveMatrix(35, 1, 1, 1000);
+        return pMatrix;
+    }
+
+    private static void setVertex(final LabelCuller culler, final int vertex, final float x, final float y, final float z, final float radius, final float visibility) {
+        culler.setVertex(vertex, new float[]{x, y, z, x, y, z, radius, visibility}, 0);
+    }
+}
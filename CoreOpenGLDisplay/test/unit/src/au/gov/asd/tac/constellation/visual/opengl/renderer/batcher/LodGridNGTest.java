@@ -0,0 +1,211 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.visual.opengl.renderer.batcher;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Level of Detail Grid Test.
+ *
+ * @author sirius
+ */
+public class LodGridNGTest {
+
+    private static final int SIDE = 100;
+
+    @Test
+    public void levelsAggregateVisibleVertices() {
+        final LodGrid.Pyramid grid = createGrid().getPyramid();
+
+        // The vertices in the last row are hidden.
+        final int visible = SIDE * (SIDE - 1);
+        assertEquals(grid.getVisibleVertexCount(), visible);
+
+        for (int level = 0; level < grid.getLevelCount(); level++) {
+            final LodGrid.Level cells = grid.getLevel(level);
+            int count = 0;
+            for (int cell = 0; cell < cells.cellCount; cell++) {
+                count += cells.counts[cell];
+            }
+            assertEquals(count, visible);
+            if (level > 0) {
+                assertEquals(cells.cellSize, grid.getLevel(level - 1).cellSize * 2, 1e-3);
+                assertTrue(cells.cellCount <= grid.getLevel(level - 1).cellCount);
+            }
+        }
+
+        final LodGrid.Level top = grid.getLevel(grid.getLevelCount() - 1);
+        assertEquals(top.cellCount, 1);
+        assertEquals(top.getX(0), (SIDE - 1) / 2F, 1e-3);
+        assertEquals(top.getY(0), (SIDE - 2) / 2F, 1e-3);
+        assertEquals(top.getRed(0), 0.5F, 1e-3);
+    }
+
+    @Test
+    public void connectionsAreBundled() {
+        final LodGrid grid = createGrid();
+
+        // Connect each vertex to the vertex on its right, and connect the two
+        // corners twice.
+        final int[] low = new int[SIDE * (SIDE - 1) + 2];
+        final int[] high = new int[low.length];
+        int connection = 0;
+        for (int row = 0; row < SIDE; row++) {
+            for (int column = 0; column < SIDE - 1; column++) {
+                low[connection] = row * SIDE + column;
+                high[connection++] = row * SIDE + column + 1;
+            }
+        }
+        low[connection] = 0;
+        high[connection++] = SIDE * (SIDE - 1) - 1;
+        low[connection] = SIDE * (SIDE - 1) - 1;
+        high[connection] = 0;
+        grid.setConnections(low, high);
+        final LodGrid.Pyramid pyramid = grid.getPyramid();
+
+        final LodGrid.Bundles top = pyramid.getBundles(pyramid.getLevelCount() - 1);
+        assertEquals(top.counts.length, 0);
+
+        final LodGrid.Bundles below = pyramid.getBundles(pyramid.getLevelCount() - 2);
+        int bundled = 0;
+        for (int bundle = 0; bundle < below.counts.length; bundle++) {
+            assertTrue(below.lows[bundle] < below.highs[bundle]);
+            bundled += below.counts[bundle];
+        }
+
+        // Only the connections between the two halves of the graph and the
+        // two diagonal connections cross between the top-level quadrants.
+        assertTrue(bundled >= 2);
+        assertTrue(below.counts.length < bundled);
+    }
+
+    @Test
+    public void levelFollowsDistance() {
+        final LodGrid.Pyramid grid = createGrid().getPyramid();
+        final float pixelDensity = 1000;
+
+        // Close enough that single cells are visible, so the vertices are drawn.
+        assertEquals(grid.selectLevel(1, pixelDensity, 8), -1);
+
+        // Further away, coarser levels are selected.
+        final int near = grid.selectLevel(10000, pixelDensity, 8);
+        final int far = grid.selectLevel(100000, pixelDensity, 8);
+        assertTrue(near >= 0);
+        assertTrue(far > near);
+        assertTrue(grid.getLevel(far).cellSize * pixelDensity / 100000 <= 8);
+    }
+
+    @Test
+    public void changedVerticesAreRefitted() {
+        final LodGrid grid = createGrid();
+        final LodGrid.Pyramid before = grid.getPyramid();
+        final int finestCellCount = before.getLevel(0).cellCount;
+
+        // Swap the colors of two vertices, then hide one vertex and move its
+        // neighbour into its cell.
+        applyChanges(grid);
+        assertEquals(grid.getVisibleVertexCount(), SIDE * (SIDE - 1) - 1);
+
+        // The vertices stay in existing cells, so the cells are refitted
+        // rather than rebuilt, leaving the cell of the moved vertex empty.
+        final LodGrid.Pyramid after = grid.getPyramid();
+        assertTrue(after != before);
+        assertEquals(after.getLevel(0).cellCount, finestCellCount);
+        int emptyCells = 0;
+        for (int cell = 0; cell < finestCellCount; cell++) {
+            if (after.getLevel(0).counts[cell] == 0) {
+                emptyCells++;
+            }
+        }
+        assertEquals(emptyCells, 1);
+
+        final LodGrid.Pyramid expected = copyGrid(grid).getPyramid();
+        assertEquals(after.getLevelCount(), expected.getLevelCount());
+        for (int level = 0; level < after.getLevelCount(); level++) {
+            final LodGrid.Level cells = after.getLevel(level);
+            final LodGrid.Level expectedCells = expected.getLevel(level);
+            int count = 0;
+            for (int cell = 0; cell < cells.cellCount; cell++) {
+                count += cells.counts[cell];
+            }
+            assertEquals(count, SIDE * (SIDE - 1) - 1);
+            if (expectedCells.cellCount == 1) {
+                assertEquals(cells.getRed(0), expectedCells.getRed(0), 1e-5);
+                assertEquals(cells.getX(0), expectedCells.getX(0), 1e-3);
+                assertEquals(cells.getY(0), expectedCells.getY(0), 1e-3);
+            }
+        }
+
+        // The pyramid handed out before the changes is left as it was.
+        final LodGrid.Level top = before.getLevel(before.getLevelCount() - 1);
+        assertEquals(top.getY(0), (SIDE - 2) / 2F, 1e-3);
+        assertEquals(top.getRed(0), 0.5F, 1e-3);
+    }
+
+    @Test
+    public void vertexLeavingTheGridRebuildsIt() {
+        final LodGrid grid = createGrid();
+        final LodGrid.Pyramid before = grid.getPyramid();
+        assertTrue(grid.getPyramid() == before);
+
+        grid.setVertex(0, 1000, 1000, 0, 1, 1, 1, 1, 1);
+        final LodGrid.Pyramid after = grid.getPyramid();
+        assertTrue(after.getLevel(after.getLevelCount() - 1).getX(0) > (SIDE - 1) / 2F);
+        assertTrue(after.getLevel(0).cellSize > before.getLevel(0).cellSize);
+    }
+
+    /**
+     * A square grid of vertices with unit spacing, colored red on the left
+     * and blue on the right, with the last row hidden.
+     */
+    private static LodGrid createGrid() {
+        final LodGrid grid = new LodGrid();
+        grid.setVertexCount(SIDE * SIDE);
+        for (int row = 0; row < SIDE; row++) {
+            for (int column = 0; column < SIDE; column++) {
+                final float red = column < SIDE / 2 ? 1 : 0;
+                grid.setVertex(row * SIDE + column, column, row, 0, 1, red, 0, 1 - red, row < SIDE - 1 ? 1 : 0);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * A new grid holding the same vertices as the specified grid, built from
+     * scratch.
+     */
+    private static LodGrid copyGrid(final LodGrid grid) {
+        final LodGrid copy = new LodGrid();
+        copy.setVertexCount(SIDE * SIDE);
+        for (int row = 0; row < SIDE; row++) {
+            for (int column = 0; column < SIDE; column++) {
+                final float red = column < SIDE / 2 ? 1 : 0;
+                copy.setVertex(row * SIDE + column, column, row, 0, 1, red, 0, 1 - red, row < SIDE - 1 ? 1 : 0);
+            }
+        }
+        applyChanges(copy);
+        return copy;
+    }
+
+    private static void applyChanges(final LodGrid grid) {
+        grid.setVertex(0, 0, 0, 0, 1, 0, 0, 1, 1);
+        grid.setVertex(SIDE - 1, SIDE - 1, 0, 0, 1, 1, 0, 0, 1);
+        grid.setVertex(SIDE + 1, 1, 1, 0, 1, 1, 0, 0, 0);
+        grid.setVertex(SIDE + 2, 1.05F, 1.05F, 0, 1, 0, 0, 1, 1);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.visual.opengl.renderer.batcher;
+
+import com.jogamp.common.nio.Buffers;
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Scene Batcher Test.
+ *
+ * @author sirius
+ */
+public class SceneBatcherNGTest {
+
+    @Test
+    public void everyPositionIsFilledOnce() {
+        for (final int count : new int[]{0, 1, SceneBatcher.MIN_CHUNK_SIZE, SceneBatcher.MIN_CHUNK_SIZE * 10 + 7}) {
+            final int chunkCount = SceneBatcher.getChunkCount(count);
+            assertTrue(chunkCount >= 1);
+            final AtomicIntegerArray filled = new AtomicIntegerArray(count);
+            final AtomicIntegerArray chunks = new AtomicIntegerArray(chunkCount);
+            SceneBatcher.fillInParallel(count, (chunk, start, end) -> {
+                chunks.incrementAndGet(chunk);
+                for (int pos = start; pos < end; pos++) {
+                    filled.incrementAndGet(pos);
+                }
+            });
+            for (int pos = 0; pos < count; pos++) {
+                assertEquals(filled.get(pos), 1);
+            }
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                assertEquals(chunks.get(chunk), 1);
+            }
+        }
+    }
+
+    @Test
+    public void slicesFillTheirOwnPartOfTheBuffer() {
+        final int width = 3;
+        final int count = SceneBatcher.MIN_CHUNK_SIZE * 5 + 11;
+        final IntBuffer buffer = Buffers.newDirectIntBuffer(count * width);
+        SceneBatcher.fillInParallel(count, (chunk, start, end) -> {
+            final IntBuffer slice = SceneBatcher.slice(buffer, start * width, end * width);
+            for (int pos = start; pos < end; pos++) {
+                slice.put(pos).put(-pos).put(chunk);
+            }
+            assertEquals(slice.remaining(), 0);
+        });
+
+        assertEquals(buffer.position(), 0);
+        assertEquals(buffer.limit(), count * width);
+        for (int pos = 0; pos < count; pos++) {
+            assertEquals(buffer.get(pos * width), pos);
+            assertEquals(buffer.get(pos * width + 1), -pos);
+        }
+    }
+}
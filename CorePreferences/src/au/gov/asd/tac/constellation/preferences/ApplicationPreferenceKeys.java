@@ -80,6 +80,27 @@ public final class ApplicationPreferenceKeys {
     public static final boolean AUTOSAVE_ENABLED_DEFAULT = true;
     public static final String AUTOSAVE_SCHEDULE = "autosaveSchedule";
     public static final int AUTOSAVE_SCHEDULE_DEFAULT = 5;
+    public static final String AUTOSAVE_JOURNAL = "autosaveJournal";
+    public static final boolean AUTOSAVE_JOURNAL_DEFAULT = false;
+
+    /**
+     * Save graphs in the binary format.
+     */
+    public static final String SAVE_BINARY_FORMAT = "saveBinaryFormat";
+    public static final boolean SAVE_BINARY_FORMAT_DEFAULT = false;
+
+    /**
+     * Open graphs saved in the binary format by mapping their columns.
+     */
+    public static final String MAPPED_GRAPH_OPEN = "mappedGraphOpen";
+    public static final boolean MAPPED_GRAPH_OPEN_DEFAULT = false;
+
+    /**
+     * Megabytes of undo history to keep in memory for each graph before older
+     * edits are spilled to disk, or 0 to keep all undo history in memory.
+     */
+    public static final String UNDO_MEMORY_BUDGET = "undoMemoryBudget";
+    public static final int UNDO_MEMORY_BUDGET_DEFAULT = 512;
 
     /**
      * Tutorial window.
@@ -99,6 +99,11 @@ public final class GlyphManagerBI implements GlyphManager {
 
     private final GlyphRectangleBuffer textureBuffer;
 
+    // Lines of text that have already been laid out, keyed by the generation of the fonts they used.
+    //
+    private final GlyphRunCache glyphRunCache = new GlyphRunCache();
+    private volatile int fontGeneration = 0;
+
     /**
      * A default no-op GlyphStream to use when the user specifies null.
      */
@@ -227,6 +232,11 @@ public final class GlyphManagerBI implements GlyphManager {
 
         textureBuffer.reset();
 
+        // Lines laid out with the old fonts refer to glyphs that have just been reset.
+        //
+        fontGeneration++;
+        glyphRunCache.clear();
+
 //        createBackgroundGlyph(0.5f);
     }
 
@@ -242,6 +252,16 @@ public final class GlyphManagerBI implements GlyphManager {
         return fontsInfo;
     }
 
+    /**
+     * Return the cache of laid out lines of text, which records how often
+     * lines were found in it.
+     *
+     * @return The cache of laid out lines of text.
+     */
+    public GlyphRunCache getGlyphRunCache() {
+        return glyphRunCache;
+    }
+
     /**
      * Merge bounding boxes that overlap on the x axis.
      * <p>
@@ -310,6 +330,9 @@ public final class GlyphManagerBI implements GlyphManager {
      * Hashes of the contents of the rectangles are used to determine if the
      * glyph image has already been drawn. If it has, the same rectangle is
      * reused.
+     * <p>
+     * The laid out glyphs are kept in a {@link GlyphRunCache}, so text that has
+     * already been rendered with the current fonts is not laid out again.
      *
      * @param text The text top be rendered.
      */
@@ -323,6 +346,17 @@ public final class GlyphManagerBI implements GlyphManager {
             glyphStream = DEFAULT_GLYPH_STREAM;
         }
 
+        // Most labels repeat, so only shape text that hasn't been seen with the current fonts.
+        glyphRunCache.get(fontGeneration, text, () -> layoutGlyphRun(text)).stream(glyphStream, context);
+    }
+
+    /**
+     * Shape a line of text and add its glyphs to the texture buffer.
+     *
+     * @param text The text to be laid out.
+     * @return The laid out line.
+     */
+    private GlyphRunCache.GlyphRun layoutGlyphRun(final String text) {
         final BufferedImage drawing = new BufferedImage(50 * maxFontHeight, 2 * maxFontHeight, bufferType);
         final Graphics2D g2d = drawing.createGraphics();
         g2d.setBackground(new Color(0, 0, 0, 0));
@@ -462,9 +496,9 @@ public final class GlyphManagerBI implements GlyphManager {
 
         g2d.dispose();
 
-        // Add the background for this text.
+        // The width of the background for this text.
         //
-        glyphStream.newLine((right - left) / (float) maxFontHeight, context);
+        final float width = (right - left) / (float) maxFontHeight;
 
         // The glyphRectangles list contains the absolute positions of each glyph rectangle
         // in pixels as drawn above.
@@ -479,13 +513,21 @@ public final class GlyphManagerBI implements GlyphManager {
         // * cy centers the top and bottom vertically.
         //
         final float centre = (left + right) / 2f;
-        for (final GlyphRectangle gr : glyphRectangles) {
+        final int[] positions = new int[glyphRectangles.size()];
+        final float[] xs = new float[glyphRectangles.size()];
+        final float[] ys = new float[glyphRectangles.size()];
+        for (int i = 0; i < positions.length; i++) {
+            final GlyphRectangle gr = glyphRectangles.get(i);
             final float cx = (gr.rect.x - centre) / (float) maxFontHeight - 0.1f;
 //            final float cy = (gr.rect.y-top+((maxFontHeight-(bottom-top))/2f))/(float)maxFontHeight;
 //            final float cy = (2*gr.rect.y-top+maxFontHeight-bottom)/(2f*maxFontHeight);
             final float cy = (gr.rect.y - (top + bottom) / 2f) / (float) (maxFontHeight) + 0.5f;
-            glyphStream.addGlyph(gr.position, cx, cy, context);
+            positions[i] = gr.position;
+            xs[i] = cx;
+            ys[i] = cy;
         }
+
+        return new GlyphRunCache.GlyphRun(width, positions, xs, ys);
     }
 
     @Override
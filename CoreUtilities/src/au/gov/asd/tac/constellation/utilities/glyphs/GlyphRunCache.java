@@ -0,0 +1,202 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.utilities.glyphs;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of laid out lines of text, shared by the threads that render
+ * labels.
+ * <p>
+ * Each line is keyed by its text and by the generation of the fonts it was laid
+ * out with, so lines laid out before the fonts changed are never returned
+ * afterwards. The glyph positions of a line refer to the glyph texture, which
+ * is also reset when the fonts change.
+ * <p>
+ * Once the cache holds more than its capacity, lines are evicted in the manner
+ * of the clock algorithm: lines that have been used since the last eviction are
+ * given a second chance, so labels that keep being drawn stay in the cache.
+ *
+ * @author sirius
+ */
+public final class GlyphRunCache {
+
+    public static final int DEFAULT_CAPACITY = 100000;
+
+    private final int capacity;
+    private final Map<Key, GlyphRun> runs = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    public GlyphRunCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public GlyphRunCache(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Return the laid out line for the given text, laying it out if it is not
+     * in the cache.
+     * <p>
+     * Two threads that miss the same line at the same time will both lay it
+     * out; the result is the same either way.
+     *
+     * @param fontGeneration the generation of the fonts used to lay out the
+     * line.
+     * @param text the text of the line.
+     * @param layout lays out the line.
+     * @return the laid out line.
+     */
+    public GlyphRun get(final int fontGeneration, final String text, final Supplier<GlyphRun> layout) {
+        final Key key = new Key(fontGeneration, text);
+        GlyphRun run = runs.get(key);
+        if (run != null) {
+            run.used = true;
+            hitCount.incrementAndGet();
+            return run;
+        }
+
+        missCount.incrementAndGet();
+        run = layout.get();
+        runs.put(key, run);
+        if (runs.size() > capacity) {
+            evict();
+        }
+        return run;
+    }
+
+    private void evict() {
+        synchronized (evictionLock) {
+            // Leave room to grow so that evictions are rare.
+            final int target = capacity - capacity / 4;
+            while (runs.size() > target) {
+                final Iterator<GlyphRun> i = runs.values().iterator();
+                while (i.hasNext() && runs.size() > target) {
+                    final GlyphRun run = i.next();
+                    if (run.used) {
+                        run.used = false;
+                    } else {
+                        i.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return runs.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The number of times a line was found in the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * The number of times a line had to be laid out.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public void clear() {
+        runs.clear();
+    }
+
+    /**
+     * A line of text laid out as glyphs: the width of the line and the texture
+     * position and offsets of each glyph, in the form sent to a
+     * {@link GlyphManager.GlyphStream}.
+     */
+    public static final class GlyphRun {
+
+        private final float width;
+        private final int[] positions;
+        private final float[] x;
+        private final float[] y;
+        private volatile boolean used;
+
+        public GlyphRun(final float width, final int[] positions, final float[] x, final float[] y) {
+            this.width = width;
+            this.positions = positions;
+            this.x = x;
+            this.y = y;
+        }
+
+        public int getGlyphCount() {
+            return positions.length;
+        }
+
+        /**
+         * Send this line to a glyph stream.
+         *
+         * @param glyphStream the stream to send the line to.
+         * @param context the context of the line.
+         */
+        public void stream(final GlyphManager.GlyphStream glyphStream, final GlyphStreamContext context) {
+            glyphStream.newLine(width, context);
+            for (int i = 0; i < positions.length; i++) {
+                glyphStream.addGlyph(positions[i], x[i], y[i], context);
+            }
+        }
+    }
+
+    private static final class Key {
+
+        private final int fontGeneration;
+        private final String text;
+
+        private Key(final int fontGeneration, final String text) {
+            this.fontGeneration = fontGeneration;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return fontGeneration == other.fontGeneration && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fontGeneration, text);
+        }
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.utilities.graphics;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A bounding volume hierarchy over a fixed number of items, each of which has
+ * an axis aligned bounding box.
+ * <p>
+ * The hierarchy is built once, splitting the items at the median of their
+ * centres along the longest axis, and is then refit as the bounds of items
+ * change, so that moving an item only costs time proportional to the depth of
+ * the tree. Queries only descend into the nodes whose bounds could hold a
+ * result, so they take time roughly logarithmic in the number of items plus
+ * the number of results.
+ * <p>
+ * Bounds are stored as six floats: the minimum x, y and z followed by the
+ * maximum x, y and z.
+ *
+ * @author sirius
+ */
+public final class BoundingVolumeHierarchy {
+
+    /**
+     * The value returned by a query that found no item.
+     */
+    public static final int NO_ITEM = -1;
+
+    private static final int LEAF_SIZE = 4;
+
+    /**
+     * Measures the exact distance to an item for a nearest item or ray query.
+     */
+    @FunctionalInterface
+    public static interface ItemDistance {
+
+        /**
+         * Return the distance to the specified item.
+         *
+         * @param item the item.
+         * @return the distance to the item, or {@link Float#POSITIVE_INFINITY}
+         * if the item can not be a result of the query.
+         */
+        float getDistance(final int item);
+    }
+
+    private final int itemCount;
+    private final float[] itemBounds;
+
+    // The items in tree order: the items under any node are contiguous.
+    private final int[] items;
+    private final int[] itemLeaves;
+
+    private final float[] nodeBounds;
+    private final int[] nodeStart;
+    private final int[] nodeEnd;
+    // The first child of an internal node, the second is the next node, or -1 for a leaf.
+    private final int[] nodeChild;
+    private final int[] nodeParent;
+    private int nodeCount;
+
+    /**
+     * Build a hierarchy over the specified items.
+     *
+     * @param itemBounds the bounds of the items, six floats per item. The
+     * array is copied.
+     * @param itemCount the number of items.
+     */
+    public BoundingVolumeHierarchy(final float[] itemBounds, final int itemCount) {
+        this.itemCount = itemCount;
+        this.itemBounds = new float[itemCount * 6];
+        System.arraycopy(itemBounds, 0, this.itemBounds, 0, itemCount * 6);
+
+        items = new int[itemCount];
+        itemLeaves = new int[itemCount];
+        for (int item = 0; item < itemCount; item++) {
+            items[item] = item;
+        }
+
+        final int maxNodes = Math.max(1, 2 * itemCount);
+        nodeBounds = new float[maxNodes * 6];
+        nodeStart = new int[maxNodes];
+        nodeEnd = new int[maxNodes];
+        nodeChild = new int[maxNodes];
+        nodeParent = new int[maxNodes];
+
+        nodeCount = 1;
+        nodeParent[0] = -1;
+        if (itemCount > 0) {
+            build(0, 0, itemCount);
+        }
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Get the bounds of an item.
+     *
+     * @param item the item.
+     * @param bounds an array to hold the six floats of the bounds.
+     */
+    public void getItemBounds(final int item, final float[] bounds) {
+        System.arraycopy(itemBounds, item * 6, bounds, 0, 6);
+    }
+
+    /**
+     * Change the bounds of an item, refitting the nodes above it.
+     *
+     * @param item the item.
+     * @param bounds the six floats of the new bounds.
+     */
+    public void setItemBounds(final int item, final float[] bounds) {
+        System.arraycopy(bounds, 0, itemBounds, item * 6, 6);
+        for (int node = itemLeaves[item]; node != -1; node = nodeParent[node]) {
+            fitNode(node);
+        }
+    }
+
+    /**
+     * Find the items whose bounds are at least partly on the inner side of all
+     * of the specified planes.
+     * <p>
+     * Each plane is given by four floats a, b, c and d, and a point is on its
+     * inner side when a*x + b*y + c*z + d &gt;= 0.
+     *
+     * @param planes the planes, four floats per plane.
+     * @param consumer receives the items found.
+     */
+    public void queryPlanes(final float[] planes, final IntConsumer consumer) {
+        if (itemCount == 0) {
+            return;
+        }
+
+        final int[] stack = new int[nodeCount];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            final int node = stack[--stackSize];
+            final int side = getPlanesSide(planes, nodeBounds, node * 6);
+            if (side > 0) {
+                for (int i = nodeStart[node]; i < nodeEnd[node]; i++) {
+                    consumer.accept(items[i]);
+                }
+            } else if (side == 0) {
+                if (nodeChild[node] == -1) {
+                    for (int i = nodeStart[node]; i < nodeEnd[node]; i++) {
+                        if (getPlanesSide(planes, itemBounds, items[i] * 6) >= 0) {
+                            consumer.accept(items[i]);
+                        }
+                    }
+                } else {
+                    stack[stackSize++] = nodeChild[node];
+                    stack[stackSize++] = nodeChild[node] + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the item nearest to a point.
+     *
+     * @param x the x coordinate of the point.
+     * @param y the y coordinate of the point.
+     * @param z the z coordinate of the point.
+     * @param maxDistance items further than this from the point are ignored.
+     * @param distance measures the exact distance from the point to an item,
+     * which must not be less than the distance to the bounds of the item.
+     * @return the nearest item, or {@link #NO_ITEM} if there is no item within
+     * the maximum distance.
+     */
+    public int queryNearest(final float x, final float y, final float z, final float maxDistance, final ItemDistance distance) {
+        return queryNearest(maxDistance, distance, (bounds, offset) -> getPointDistance(x, y, z, bounds, offset));
+    }
+
+    /**
+     * Find the first item hit by a ray.
+     *
+     * @param origin the origin of the ray.
+     * @param direction the direction of the ray, which should have unit
+     * length.
+     * @param distance measures the exact distance along the ray to where it
+     * hits an item, which must not be less than the distance to where the ray
+     * enters the bounds of the item.
+     * @return the first item hit, or {@link #NO_ITEM} if the ray hits nothing.
+     */
+    public int queryRay(final Vector3f origin, final Vector3f direction, final ItemDistance distance) {
+        final float[] rayOrigin = {origin.getX(), origin.getY(), origin.getZ()};
+        final float[] rayInverse = {1 / direction.getX(), 1 / direction.getY(), 1 / direction.getZ()};
+        return queryNearest(Float.POSITIVE_INFINITY, distance, (bounds, offset) -> getRayDistance(rayOrigin, rayInverse, bounds, offset));
+    }
+
+    @FunctionalInterface
+    private static interface BoundsDistance {
+
+        float getDistance(final float[] bounds, final int offset);
+    }
+
+    private int queryNearest(final float maxDistance, final ItemDistance itemDistance, final BoundsDistance boundsDistance) {
+        if (itemCount == 0) {
+            return NO_ITEM;
+        }
+
+        int nearest = NO_ITEM;
+        float nearestDistance = maxDistance;
+
+        final int[] stack = new int[nodeCount];
+        final float[] stackDistance = new float[nodeCount];
+        int stackSize = 0;
+        stack[stackSize] = 0;
+        stackDistance[stackSize++] = boundsDistance.getDistance(nodeBounds, 0);
+        while (stackSize > 0) {
+            final int node = stack[--stackSize];
+            if (stackDistance[stackSize] > nearestDistance) {
+                continue;
+            }
+
+            if (nodeChild[node] == -1) {
+                for (int i = nodeStart[node]; i < nodeEnd[node]; i++) {
+                    final int item = items[i];
+                    if (boundsDistance.getDistance(itemBounds, item * 6) <= nearestDistance) {
+                        final float d = itemDistance.getDistance(item);
+                        if (d <= nearestDistance) {
+                            nearest = item;
+                            nearestDistance = d;
+                        }
+                    }
+                }
+            } else {
+                // Visit the nearer child first so that the further child is more likely to be pruned.
+                final int first = nodeChild[node];
+                final float firstDistance = boundsDistance.getDistance(nodeBounds, first * 6);
+                final float secondDistance = boundsDistance.getDistance(nodeBounds, (first + 1) * 6);
+                if (firstDistance <= secondDistance) {
+                    stack[stackSize] = first + 1;
+                    stackDistance[stackSize++] = secondDistance;
+                    stack[stackSize] = first;
+                    stackDistance[stackSize++] = firstDistance;
+                } else {
+                    stack[stackSize] = first;
+                    stackDistance[stackSize++] = firstDistance;
+                    stack[stackSize] = first + 1;
+                    stackDistance[stackSize++] = secondDistance;
+                }
+            }
+        }
+
+        return nearest;
+    }
+
+    private void build(final int node, final int start, final int end) {
+        nodeStart[node] = start;
+        nodeEnd[node] = end;
+        nodeChild[node] = -1;
+
+        if (end - start <= LEAF_SIZE) {
+            for (int i = start; i < end; i++) {
+                itemLeaves[items[i]] = node;
+            }
+            fitNode(node);
+            return;
+        }
+
+        // Split along the axis on which the centres of the items are most spread out.
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        float maxZ = Float.NEGATIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            final int offset = items[i] * 6;
+            final float x = itemBounds[offset] + itemBounds[offset + 3];
+            final float y = itemBounds[offset + 1] + itemBounds[offset + 4];
+            final float z = itemBounds[offset + 2] + itemBounds[offset + 5];
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+        final float spreadX = maxX - minX;
+        final float spreadY = maxY - minY;
+        final float spreadZ = maxZ - minZ;
+        final int axis = spreadX >= spreadY && spreadX >= spreadZ ? 0 : spreadY >= spreadZ ? 1 : 2;
+
+        final int middle = (start + end) >>> 1;
+        selectMedian(start, end, middle, axis);
+
+        final int child = nodeCount;
+        nodeCount += 2;
+        nodeChild[node] = child;
+        nodeParent[child] = node;
+        nodeParent[child + 1] = node;
+        build(child, start, middle);
+        build(child + 1, middle, end);
+        fitNode(node);
+    }
+
+    /**
+     * Reorder the items from start to end so that the item at middle has the
+     * median centre along the axis, with smaller centres before it and larger
+     * centres after it.
+     */
+    private void selectMedian(final int start, final int end, final int middle, final int axis) {
+        int low = start;
+        int high = end - 1;
+        while (low < high) {
+            final float pivot = getCentre(items[(low + high) >>> 1], axis);
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (getCentre(items[i], axis) < pivot) {
+                    i++;
+                }
+                while (getCentre(items[j], axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    final int item = items[i];
+                    items[i++] = items[j];
+                    items[j--] = item;
+                }
+            }
+            if (middle <= j) {
+                high = j;
+            } else if (middle >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private float getCentre(final int item, final int axis) {
+        final int offset = item * 6 + axis;
+        return itemBounds[offset] + itemBounds[offset + 3];
+    }
+
+    private void fitNode(final int node) {
+        final int offset = node * 6;
+        nodeBounds[offset] = Float.POSITIVE_INFINITY;
+        nodeBounds[offset + 1] = Float.POSITIVE_INFINITY;
+        nodeBounds[offset + 2] = Float.POSITIVE_INFINITY;
+        nodeBounds[offset + 3] = Float.NEGATIVE_INFINITY;
+        nodeBounds[offset + 4] = Float.NEGATIVE_INFINITY;
+        nodeBounds[offset + 5] = Float.NEGATIVE_INFINITY;
+
+        if (nodeChild[node] == -1) {
+            for (int i = nodeStart[node]; i < nodeEnd[node]; i++) {
+                includeBounds(offset, itemBounds, items[i] * 6);
+            }
+        } else {
+            includeBounds(offset, nodeBounds, nodeChild[node] * 6);
+            includeBounds(offset, nodeBounds, (nodeChild[node] + 1) * 6);
+        }
+    }
+
+    private void includeBounds(final int offset, final float[] bounds, final int boundsOffset) {
+        for (int axis = 0; axis < 3; axis++) {
+            nodeBounds[offset + axis] = Math.min(nodeBounds[offset + axis], bounds[boundsOffset + axis]);
+            nodeBounds[offset + axis + 3] = Math.max(nodeBounds[offset + axis + 3], bounds[boundsOffset + axis + 3]);
+        }
+    }
+
+    /**
+     * Which side of the planes are the bounds on?
+     *
+     * @return 1 if the bounds are entirely inside all of the planes, -1 if they
+     * are entirely outside any of the planes, otherwise 0.
+     */
+    private static int getPlanesSide(final float[] planes, final float[] bounds, final int offset) {
+        int side = 1;
+        for (int p = 0; p < planes.length; p += 4) {
+            final float a = planes[p];
+            final float b = planes[p + 1];
+            final float c = planes[p + 2];
+            final float d = planes[p + 3];
+
+            // The corners of the bounds furthest inside and furthest outside the plane.
+            final float inner = a * bounds[offset + (a >= 0 ? 3 : 0)] + b * bounds[offset + (b >= 0 ? 4 : 1)] + c * bounds[offset + (c >= 0 ? 5 : 2)] + d;
+            if (inner < 0) {
+                return -1;
+            }
+            final float outer = a * bounds[offset + (a >= 0 ? 0 : 3)] + b * bounds[offset + (b >= 0 ? 1 : 4)] + c * bounds[offset + (c >= 0 ? 2 : 5)] + d;
+            if (outer < 0) {
+                side = 0;
+            }
+        }
+        return side;
+    }
+
+    private static float getPointDistance(final float x, final float y, final float z, final float[] bounds, final int offset) {
+        final float dx = Math.max(0, Math.max(bounds[offset] - x, x - bounds[offset + 3]));
+        final float dy = Math.max(0, Math.max(bounds[offset + 1] - y, y - bounds[offset + 4]));
+        final float dz = Math.max(0, Math.max(bounds[offset + 2] - z, z - bounds[offset + 5]));
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private static float getRayDistance(final float[] origin, final float[] inverse, final float[] bounds, final int offset) {
+        float near = 0;
+        float far = Float.POSITIVE_INFINITY;
+        for (int axis = 0; axis < 3; axis++) {
+            float t0 = (bounds[offset + axis] - origin[axis]) * inverse[axis];
+            float t1 = (bounds[offset + axis + 3] - origin[axis]) * inverse[axis];
+            if (Float.isNaN(t0) || Float.isNaN(t1)) {
+                // The ray is parallel to this axis and starts on a face of the bounds.
+                continue;
+            }
+            if (t0 > t1) {
+                final float t = t0;
+                t0 = t1;
+                t1 = t;
+            }
+            near = Math.max(near, t0);
+            far = Math.min(far, t1);
+            if (near > far) {
+                return Float.POSITIVE_INFINITY;
+            }
+        }
+        return near;
+    }
+}
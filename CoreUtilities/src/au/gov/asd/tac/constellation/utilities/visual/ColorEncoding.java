@@ -0,0 +1,168 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.utilities.visual;
+
+import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A mapping from a numeric value to a colour, used to colour elements by the
+ * value of an attribute.
+ * <p>
+ * A ramp interpolates linearly between evenly spaced colours as the value goes
+ * from the low to the high end of its range, clamping values outside the
+ * range. A palette treats the value as the code of a category and uses the
+ * colour at that code, wrapping around the palette. A value of NaN has no
+ * colour under either mode.
+ * <p>
+ * The mapping is simple enough to be carried out in a shader, so a
+ * {@link VisualProcessor} can upload the values once and apply a new encoding
+ * by changing only its uniforms. {@link #getColor} gives the same result on
+ * the CPU.
+ *
+ * @author sirius
+ */
+public final class ColorEncoding {
+
+    /**
+     * The largest number of colours an encoding can have.
+     */
+    public static final int MAX_COLORS = 16;
+
+    public enum Mode {
+        RAMP,
+        PALETTE;
+    }
+
+    private final Mode mode;
+    private final float low;
+    private final float high;
+    private final ConstellationColor[] colors;
+
+    private ColorEncoding(final Mode mode, final float low, final float high, final ConstellationColor[] colors) {
+        if (colors.length == 0 || colors.length > MAX_COLORS) {
+            throw new IllegalArgumentException(String.format("An encoding needs between 1 and %d colors", MAX_COLORS));
+        }
+        this.mode = mode;
+        this.low = low;
+        this.high = high;
+        this.colors = colors.clone();
+    }
+
+    /**
+     * Create a ramp over the specified range.
+     *
+     * @param low The value given the first colour.
+     * @param high The value given the last colour.
+     * @param colors The colours of the ramp, in order.
+     * @return A new ramp.
+     */
+    public static ColorEncoding createRamp(final float low, final float high, final ConstellationColor... colors) {
+        return new ColorEncoding(Mode.RAMP, low, high, colors);
+    }
+
+    /**
+     * Create a palette of categories.
+     *
+     * @param colors The colours of the categories, in order of their codes.
+     * @return A new palette.
+     */
+    public static ColorEncoding createPalette(final ConstellationColor... colors) {
+        return new ColorEncoding(Mode.PALETTE, 0, 0, colors);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public float getLow() {
+        return low;
+    }
+
+    public float getHigh() {
+        return high;
+    }
+
+    public int getColorCount() {
+        return colors.length;
+    }
+
+    /**
+     * Get the red, green and blue components of each colour of this encoding.
+     *
+     * @return An array holding three components for each colour.
+     */
+    public float[] getColorComponents() {
+        final float[] components = new float[colors.length * 3];
+        for (int i = 0; i < colors.length; i++) {
+            components[i * 3] = colors[i].getRed();
+            components[i * 3 + 1] = colors[i].getGreen();
+            components[i * 3 + 2] = colors[i].getBlue();
+        }
+        return components;
+    }
+
+    /**
+     * Map a value to its colour.
+     *
+     * @param value The value to map.
+     * @return The colour of the value, or null if the value is NaN.
+     */
+    public ConstellationColor getColor(final float value) {
+        if (Float.isNaN(value)) {
+            return null;
+        }
+
+        if (mode == Mode.PALETTE) {
+            final int code = (int) Math.floor(value) % colors.length;
+            return colors[code < 0 ? code + colors.length : code];
+        }
+
+        final float t = high > low ? Math.max(0, Math.min(1, (value - low) / (high - low))) : 0;
+        final float scaled = t * (colors.length - 1);
+        final int i = Math.min((int) scaled, colors.length - 1);
+        final int j = Math.min(i + 1, colors.length - 1);
+        final float f = scaled - i;
+        final ConstellationColor a = colors[i];
+        final ConstellationColor b = colors[j];
+        return ConstellationColor.getColorValue(
+                a.getRed() + (b.getRed() - a.getRed()) * f,
+                a.getGreen() + (b.getGreen() - a.getGreen()) * f,
+                a.getBlue() + (b.getBlue() - a.getBlue()) * f,
+                1);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ColorEncoding)) {
+            return false;
+        }
+        final ColorEncoding other = (ColorEncoding) obj;
+        return mode == other.mode
+                && Float.compare(low, other.low) == 0
+                && Float.compare(high, other.high) == 0
+                && Arrays.equals(colors, other.colors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mode, low, high, Arrays.hashCode(colors));
+    }
+}
@@ -73,6 +73,20 @@ public interface VisualAccess {
      */
     public void endUpdate();
 
+    /**
+     * Supply the buffer of transient overrides whose values should be reported
+     * in place of the values held by the underlying data structure.
+     * <p>
+     * Implementations that support overrides should take a single snapshot of
+     * the current {@link VisualOverrides.Frame} in
+     * {@link #beginUpdate() beginUpdate()} so that an update sees a consistent
+     * set of values. The default implementation ignores overrides.
+     *
+     * @param overrides The buffer of overrides.
+     */
+    public default void setOverrides(final VisualOverrides overrides) {
+    }
+
     /**
      * Get the colour to be used for the background of the graph display.
      *
@@ -327,6 +341,54 @@ public interface VisualAccess {
      */
     public ConstellationColor getVertexColor(final int vertex);
 
+    /**
+     * Get the encoding that maps the colour values of vertices to their
+     * colours.
+     * <p>
+     * When there is an encoding, {@link #getVertexColor getVertexColor()}
+     * returns the encoded colour of each vertex that has a colour value, so
+     * processors need not use the encoding. Processors that can apply the
+     * encoding themselves may instead use the raw values from
+     * {@link #getVertexColorValue getVertexColorValue()}, together with
+     * {@link #getVertexBaseColor getVertexBaseColor()} for the vertices that
+     * have no colour value. Changes to the colour values alone are reported as
+     * {@link VisualProperty#VERTEX_COLOR_VALUE} changes.
+     *
+     * @return The colour encoding, or null if vertices are not coloured by
+     * value.
+     */
+    public default ColorEncoding getVertexColorEncoding() {
+        return null;
+    }
+
+    /**
+     * Get the value of the given vertex to be mapped to a colour by the
+     * {@link #getVertexColorEncoding colour encoding}.
+     *
+     * @param vertex The position of the vertex in the list of vertices to
+     * display.
+     * @return The colour value of the vertex, or NaN if the vertex has no
+     * colour value and is coloured by {@link #getVertexColor getVertexColor()}.
+     */
+    public default float getVertexColorValue(final int vertex) {
+        return Float.NaN;
+    }
+
+    /**
+     * Get the colour of the given vertex without applying the
+     * {@link #getVertexColorEncoding colour encoding}.
+     * <p>
+     * This is the colour of the vertex wherever it has no colour value, and it
+     * does not change when only the colour values change.
+     *
+     * @param vertex The position of the vertex in the list of vertices to
+     * display.
+     * @return The colour of the vertex, ignoring its colour value.
+     */
+    public default ConstellationColor getVertexBaseColor(final int vertex) {
+        return getVertexColor(vertex);
+    }
+
     /**
      * Get the name of the icon to use as the background icon for the given
      * vertex.
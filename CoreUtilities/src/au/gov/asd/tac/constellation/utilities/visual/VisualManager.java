@@ -65,6 +65,7 @@ public final class VisualManager {
 
     private final VisualAccess access;
     private final VisualProcessor processor;
+    private final VisualOverrides overrides = new VisualOverrides();
     private final PriorityBlockingQueue<VisualOperation> operationQueue = new PriorityBlockingQueue<>();
     private Thread processingThread;
     private boolean isProcessing = false;
@@ -87,6 +88,7 @@ public final class VisualManager {
     public VisualManager(final VisualAccess access, final VisualProcessor processor) {
         this.access = access;
         this.processor = processor;
+        access.setOverrides(overrides);
         MemoryManager.newObject(VisualManager.class);
     }
 
@@ -100,6 +102,19 @@ public final class VisualManager {
         return processor.getCanvas();
     }
 
+    /**
+     * Get the buffer of transient overrides applied to the visualisation.
+     * <p>
+     * Values published to this buffer are displayed without modifying the
+     * underlying data structure; the {@link VisualChange} objects describing
+     * them should still be added to this manager.
+     *
+     * @return The {@link VisualOverrides} of this manager.
+     */
+    public VisualOverrides getOverrides() {
+        return overrides;
+    }
+
     /**
      * Destroy the Component that this manager's corresponding processor is
      * using for its visualisation.
@@ -310,6 +325,10 @@ public final class VisualManager {
         addOperation(constructMultiChangeOperation(changes));
     }
     
+    int getQueueDepth() {
+        return operationQueue.size();
+    }
+
     void requestRedraw() {
         addOperation(REQUEST_REDRAW);
     }
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.utilities.visual;
+
+import au.gov.asd.tac.constellation.utilities.camera.Camera;
+import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free buffer of transient visual overrides.
+ * <p>
+ * Clients such as animations that change the appearance of a graph many times
+ * a second can publish a {@link Frame} of overrides here instead of writing
+ * each change to the graph. A {@link VisualAccess} that supports overrides
+ * reports the overridden values in place of the values held by the graph
+ * until the buffer is cleared, so the {@link VisualProcessor} only needs to be
+ * told of the relevant {@link VisualChange} objects.
+ * <p>
+ * Overrides are keyed by the id of each element rather than its position so
+ * that they remain correct if the structure of the graph changes while they
+ * are in effect. A frame must not be modified once it has been published.
+ *
+ * @author sirius
+ */
+public final class VisualOverrides {
+
+    private final AtomicReference<Frame> frame = new AtomicReference<>();
+
+    /**
+     * Get the most recently published frame.
+     *
+     * @return The current frame, or null if there are no overrides.
+     */
+    public Frame getFrame() {
+        return frame.get();
+    }
+
+    /**
+     * Replace the current overrides with the specified frame.
+     *
+     * @param frame The frame to publish, or null to remove all overrides.
+     */
+    public void publish(final Frame frame) {
+        this.frame.set(frame);
+    }
+
+    /**
+     * Remove all overrides.
+     */
+    public void clear() {
+        frame.set(null);
+    }
+
+    /**
+     * A set of overridden visual values for a single frame of an animation.
+     */
+    public static final class Frame {
+
+        private static final float[] EMPTY_VALUES = new float[0];
+        private static final ConstellationColor[] EMPTY_COLORS = new ConstellationColor[0];
+
+        private Camera camera = null;
+        private float[] positions = EMPTY_VALUES;
+        private float[] radii = EMPTY_VALUES;
+        private ConstellationColor[] colors = EMPTY_COLORS;
+
+        /**
+         * Override the camera.
+         *
+         * @param camera The camera to display.
+         */
+        public void setCamera(final Camera camera) {
+            this.camera = camera;
+        }
+
+        /**
+         * Get the overridden camera.
+         *
+         * @return The overridden camera, or null if the camera is not
+         * overridden.
+         */
+        public Camera getCamera() {
+            return camera;
+        }
+
+        /**
+         * Override the position of a vertex.
+         *
+         * @param vertexId The id of the vertex.
+         * @param x The x coordinate to display.
+         * @param y The y coordinate to display.
+         * @param z The z coordinate to display.
+         */
+        public void setPosition(final int vertexId, final float x, final float y, final float z) {
+            positions = ensureCapacity(positions, (vertexId + 1) * 3);
+            positions[vertexId * 3] = x;
+            positions[vertexId * 3 + 1] = y;
+            positions[vertexId * 3 + 2] = z;
+        }
+
+        public float getX(final int vertexId, final float value) {
+            return getOverride(positions, vertexId * 3, value);
+        }
+
+        public float getY(final int vertexId, final float value) {
+            return getOverride(positions, vertexId * 3 + 1, value);
+        }
+
+        public float getZ(final int vertexId, final float value) {
+            return getOverride(positions, vertexId * 3 + 2, value);
+        }
+
+        /**
+         * Override the radius of a vertex.
+         *
+         * @param vertexId The id of the vertex.
+         * @param radius The radius to display.
+         */
+        public void setRadius(final int vertexId, final float radius) {
+            radii = ensureCapacity(radii, vertexId + 1);
+            radii[vertexId] = radius;
+        }
+
+        public float getRadius(final int vertexId, final float value) {
+            return getOverride(radii, vertexId, value);
+        }
+
+        /**
+         * Override the colour of a vertex.
+         *
+         * @param vertexId The id of the vertex.
+         * @param color The colour to display.
+         */
+        public void setColor(final int vertexId, final ConstellationColor color) {
+            if (vertexId >= colors.length) {
+                colors = Arrays.copyOf(colors, Math.max(vertexId + 1, colors.length * 2));
+            }
+            colors[vertexId] = color;
+        }
+
+        public ConstellationColor getColor(final int vertexId, final ConstellationColor value) {
+            return vertexId < colors.length && colors[vertexId] != null ? colors[vertexId] : value;
+        }
+
+        private static float[] ensureCapacity(final float[] values, final int capacity) {
+            if (capacity <= values.length) {
+                return values;
+            }
+            final float[] newValues = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+            Arrays.fill(newValues, values.length, newValues.length, Float.NaN);
+            return newValues;
+        }
+
+        private static float getOverride(final float[] values, final int index, final float value) {
+            return index < values.length && !Float.isNaN(values[index]) ? values[index] : value;
+        }
+    }
+}
@@ -21,14 +21,20 @@ import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
@@ -51,8 +57,9 @@ import java.util.logging.Logger;
  * <ol>
  * <li> The manager calls {@link #update} with a list of changes and a visual
  * access.
- * </li><li> The processor gains a lock on the access by calling
- * {@link VisualAccess#beginUpdate} and processes each change, grabbing any
+ * </li><li> The processor's update worker gains a lock on the access by calling
+ * {@link VisualAccess#beginUpdate}, coalesces the changes sharing each master
+ * property into a single change and processes each one, grabbing any
  * information it requires from the access.
  * </li><li> The processor unlocks the access by calling
  * {@link VisualAccess#endUpdate} and informs the manager that it has finished
@@ -70,6 +77,13 @@ public abstract class VisualProcessor {
     protected boolean isInitialised = false;
     protected VisualManager manager;
     private final Semaphore updateOccuring = new Semaphore(0);
+    private final ExecutorService updateWorker = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Visual Processor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong receivedChangeCount = new AtomicLong();
+    private final AtomicLong processedChangeCount = new AtomicLong();
     
     private static final Logger LOGGER = Logger.getLogger(VisualProcessor.class.getName());
 
@@ -160,6 +174,40 @@ public abstract class VisualProcessor {
      */
     public final void stopVisualising() {
         cleanup();
+        updateWorker.shutdown();
+    }
+
+    /**
+     * Get the number of operations waiting to be processed by the associated
+     * {@link VisualManager}.
+     *
+     * @return The depth of the manager's operation queue.
+     */
+    public int getUpdateQueueDepth() {
+        return manager != null ? manager.getQueueDepth() : 0;
+    }
+
+    /**
+     * Get the total number of visual changes this processor has been asked to
+     * process.
+     *
+     * @return The number of changes received.
+     */
+    public long getReceivedChangeCount() {
+        return receivedChangeCount.get();
+    }
+
+    /**
+     * Get the total number of visual changes this processor has processed
+     * after coalescing the changes to each property.
+     * <p>
+     * The ratio of this to {@link #getReceivedChangeCount} measures how much
+     * work coalescing is saving.
+     *
+     * @return The number of changes processed.
+     */
+    public long getProcessedChangeCount() {
+        return processedChangeCount.get();
     }
 
     /**
@@ -202,7 +250,9 @@ public abstract class VisualProcessor {
      * supplied changes.
      * <p>
      * Note that this should not be called explicitly; it is called
-     * automatically inside the associated manager's life cycle.
+     * automatically inside the associated manager's life cycle. The update is
+     * carried out by this processor's single update worker thread, and this
+     * method returns once the changes have been processed.
      *
      * @param changes The list of visual changes to process
      * @param access The access to the object being visualised
@@ -210,34 +260,40 @@ public abstract class VisualProcessor {
      * @param fullRefresh
      */
     final void update(final Collection<VisualChange> changes, final VisualAccess access, final boolean indigenousChanges, final boolean fullRefresh) {
-        final Thread updateThread = new Thread(() -> {
-            access.beginUpdate();
-            try {
-                if (indigenousChanges) {
-                    changes.addAll(access.getIndigenousChanges());
-                } else {
-                    access.updateInternally();
-                }
-                if (fullRefresh) {
-                    changes.addAll(getFullRefreshSet(access));
+        try {
+            updateWorker.execute(() -> {
+                access.beginUpdate();
+                try {
+                    if (indigenousChanges) {
+                        changes.addAll(access.getIndigenousChanges());
+                    } else {
+                        access.updateInternally();
+                    }
+                    if (fullRefresh) {
+                        changes.addAll(getFullRefreshSet(access));
+                    }
+                    final List<VisualChange> coalescedChanges = coalesceChanges(changes);
+                    receivedChangeCount.addAndGet(changes.size());
+                    processedChangeCount.addAndGet(coalescedChanges.size());
+                    processChangeSet(coalescedChanges, access);
+                } catch (Exception e) {
+                    final StringWriter exceptionTraceWriter = new StringWriter();
+                    final PrintWriter exceptionPrintWriter = new PrintWriter(exceptionTraceWriter);
+                    e.printStackTrace(exceptionPrintWriter);
+                    exceptionPrintWriter.flush();
+                    final String exceptionMessage = exceptionTraceWriter.toString();
+                    LOGGER.severe(String.format("Exception processing visual changes:\r\n%s", exceptionMessage));
+                    throw e;
+                } finally {
+                    access.endUpdate();
                 }
-                processChangeSet(changes, access);
-            } catch (Exception e) {
-                final StringWriter exceptionTraceWriter = new StringWriter();
-                final PrintWriter exceptionPrintWriter = new PrintWriter(exceptionTraceWriter);
-                e.printStackTrace(exceptionPrintWriter);
-                exceptionPrintWriter.flush();
-                final String exceptionMessage = exceptionTraceWriter.toString();
-                LOGGER.severe(String.format("Exception processing visual changes:\r\n%s", exceptionMessage));
-                throw e;
-            } finally {
-                access.endUpdate();
-            }
-            updateOccuring.release();
-            performVisualUpdate();
-        });
-        updateThread.setName("Visual Processor");
-        updateThread.start();
+                updateOccuring.release();
+                performVisualUpdate();
+            });
+        } catch (final RejectedExecutionException ex) {
+            // This processor has stopped visualising.
+            return;
+        }
         updateOccuring.acquireUninterruptibly();
     }
 
@@ -342,4 +398,52 @@ public abstract class VisualProcessor {
         return masterChangeMap;
     }
 
+    /**
+     * Coalesce the changes sharing each master property, as returned by
+     * {@link #getMasterProperty}, into a single change to the master property.
+     * <p>
+     * A change listing explicit elements is merged with the other changes
+     * sharing its master property into the sorted union of their elements. If
+     * any of those changes covers a range of elements rather than listing
+     * them, the coalesced change covers the smallest range containing all of
+     * the elements instead.
+     *
+     * @param changes The changes to coalesce.
+     * @return A list holding one change for each master property, in the order
+     * each master property first appears in the supplied changes.
+     */
+    final List<VisualChange> coalesceChanges(final Collection<VisualChange> changes) {
+        final Map<VisualProperty, List<VisualChange>> propertyChanges = new LinkedHashMap<>();
+        changes.forEach(change -> propertyChanges.computeIfAbsent(getMasterProperty(change.property), property -> new ArrayList<>()).add(change));
+
+        final List<VisualChange> coalescedChanges = new ArrayList<>(propertyChanges.size());
+        propertyChanges.forEach((property, sameChanges) -> {
+            if (sameChanges.size() == 1) {
+                coalescedChanges.add(sameChanges.get(0));
+                return;
+            }
+
+            boolean hasRange = false;
+            int rangeSize = -1;
+            final BitSet elements = new BitSet();
+            for (final VisualChange change : sameChanges) {
+                if (change.isEmpty()) {
+                    hasRange = true;
+                    rangeSize = Math.max(rangeSize, change.getSize());
+                } else {
+                    for (int i = 0; i < change.getSize(); i++) {
+                        elements.set(change.getElement(i));
+                    }
+                }
+            }
+
+            if (hasRange) {
+                final int size = elements.isEmpty() ? rangeSize : Math.max(rangeSize, elements.length());
+                coalescedChanges.add(new VisualChangeBuilder(property).forItems(size).build());
+            } else {
+                coalescedChanges.add(new VisualChangeBuilder(property).forItems(elements.stream().toArray()).build());
+            }
+        });
+        return coalescedChanges;
+    }
 }
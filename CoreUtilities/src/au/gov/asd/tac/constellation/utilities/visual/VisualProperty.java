@@ -58,6 +58,8 @@ public enum VisualProperty {
     VERTEX_Y2(PropertyType.FLOAT, ElementType.VERTEX),
     VERTEX_Z2(PropertyType.FLOAT, ElementType.VERTEX),
     VERTEX_COLOR(PropertyType.OBJECT, ElementType.VERTEX),
+    VERTEX_COLOR_ENCODING(PropertyType.OBJECT, ElementType.GRAPH),
+    VERTEX_COLOR_VALUE(PropertyType.FLOAT, ElementType.VERTEX),
     VERTEX_BACKGROUND_ICON(PropertyType.OBJECT, ElementType.VERTEX),
     VERTEX_FOREGROUND_ICON(PropertyType.OBJECT, ElementType.VERTEX),
     VERTEX_SELECTED(PropertyType.BOOLEAN, ElementType.VERTEX),
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.utilities.glyphs;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Glyph Run Cache Test.
+ *
+ * @author sirius
+ */
+public class GlyphRunCacheNGTest {
+
+    @Test
+    public void repeatedTextIsHit() {
+        final GlyphRunCache cache = new GlyphRunCache();
+        final GlyphRunCache.GlyphRun run = cache.get(0, "text", () -> createRun(1));
+        assertSame(cache.get(0, "text", () -> createRun(2)), run);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+
+        // The same text laid out with other fonts is a different line.
+        final GlyphRunCache.GlyphRun other = cache.get(1, "text", () -> createRun(3));
+        assertEquals(other.getGlyphCount(), 3);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 2);
+        assertEquals(cache.size(), 2);
+    }
+
+    @Test
+    public void sizeIsBounded() {
+        final GlyphRunCache cache = new GlyphRunCache(100);
+        cache.get(0, "kept", () -> createRun(1));
+        for (int i = 0; i < 1000; i++) {
+            cache.get(0, "kept", () -> createRun(1));
+            cache.get(0, "line" + i, () -> createRun(1));
+            assertTrue(cache.size() <= cache.getCapacity());
+        }
+
+        // A line that keeps being used survives eviction.
+        final long missCount = cache.getMissCount();
+        cache.get(0, "kept", () -> createRun(1));
+        assertEquals(cache.getMissCount(), missCount);
+    }
+
+    @Test
+    public void glyphManagerReusesLines() {
+        final GlyphManagerBI glyphManager = new GlyphManagerBI(new FontInfo[0]);
+        final GlyphRunCache cache = glyphManager.getGlyphRunCache();
+
+        final List<Float> first = new ArrayList<>();
+        glyphManager.renderTextAsLigatures("Constellation", new RecordingStream(first), null);
+        assertFalse(first.isEmpty());
+        assertEquals(cache.getMissCount(), 1);
+
+        final List<Float> second = new ArrayList<>();
+        glyphManager.renderTextAsLigatures("Constellation", new RecordingStream(second), null);
+        assertEquals(second, first);
+        assertEquals(cache.getHitCount(), 1);
+
+        // Changing the fonts resets the glyphs, so the line is laid out again.
+        glyphManager.setFonts(new FontInfo[0]);
+        assertEquals(cache.size(), 0);
+        glyphManager.renderTextAsLigatures("Constellation", new RecordingStream(new ArrayList<>()), null);
+        assertEquals(cache.getMissCount(), 2);
+    }
+
+    private static GlyphRunCache.GlyphRun createRun(final int glyphCount) {
+        return new GlyphRunCache.GlyphRun(glyphCount, new int[glyphCount], new float[glyphCount], new float[glyphCount]);
+    }
+
+    private static class RecordingStream implements GlyphManager.GlyphStream {
+
+        private final List<Float> values;
+
+        RecordingStream(final List<Float> values) {
+            this.values = values;
+        }
+
+        @Override
+        public void newLine(final float width, final GlyphStreamContext context) {
+            values.add(width);
+        }
+
+        @Override
+        public void addGlyph(final int glyphPosition, final float x, final float y, final GlyphStreamContext context) {
+            values.add((float) glyphPosition);
+            values.add(x);
+            values.add(y);
+        }
+    }
+}
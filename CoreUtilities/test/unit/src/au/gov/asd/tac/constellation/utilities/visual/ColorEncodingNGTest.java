@@ -0,0 +1,71 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.utilities.visual;
+
+import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import org.testng.annotations.Test;
+
+/**
+ * Color Encoding Test.
+ *
+ * @author sirius
+ */
+public class ColorEncodingNGTest {
+
+    private static final float DELTA = 1E-6F;
+
+    @Test
+    public void rampInterpolatesAndClamps() {
+        final ColorEncoding ramp = ColorEncoding.createRamp(10, 20, ConstellationColor.BLUE, ConstellationColor.RED);
+
+        assertColor(ramp.getColor(10), 0, 0, 1);
+        assertColor(ramp.getColor(15), 0.5F, 0, 0.5F);
+        assertColor(ramp.getColor(20), 1, 0, 0);
+        assertColor(ramp.getColor(-100), 0, 0, 1);
+        assertColor(ramp.getColor(100), 1, 0, 0);
+        assertNull(ramp.getColor(Float.NaN));
+
+        // An empty range maps everything to the first colour.
+        assertColor(ColorEncoding.createRamp(5, 5, ConstellationColor.BLUE, ConstellationColor.RED).getColor(5), 0, 0, 1);
+
+        assertEquals(ramp.getColorComponents(), new float[]{0, 0, 1, 1, 0, 0});
+        assertEquals(ramp, ColorEncoding.createRamp(10, 20, ConstellationColor.BLUE, ConstellationColor.RED));
+        assertNotEquals(ramp, ColorEncoding.createRamp(10, 21, ConstellationColor.BLUE, ConstellationColor.RED));
+    }
+
+    @Test
+    public void paletteWrapsCategories() {
+        final ColorEncoding palette = ColorEncoding.createPalette(ConstellationColor.RED, ConstellationColor.GREEN, ConstellationColor.BLUE);
+
+        assertSame(palette.getColor(0), ConstellationColor.RED);
+        assertSame(palette.getColor(2), ConstellationColor.BLUE);
+        assertSame(palette.getColor(4), ConstellationColor.GREEN);
+        assertSame(palette.getColor(-1), ConstellationColor.BLUE);
+        assertNull(palette.getColor(Float.NaN));
+        assertEquals(palette.getMode(), ColorEncoding.Mode.PALETTE);
+        assertNotEquals(palette, ColorEncoding.createRamp(0, 0, ConstellationColor.RED, ConstellationColor.GREEN, ConstellationColor.BLUE));
+    }
+
+    private static void assertColor(final ConstellationColor color, final float red, final float green, final float blue) {
+        assertEquals(color.getRed(), red, DELTA);
+        assertEquals(color.getGreen(), green, DELTA);
+        assertEquals(color.getBlue(), blue, DELTA);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.utilities.visual;
+
+import au.gov.asd.tac.constellation.utilities.camera.Camera;
+import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import org.testng.annotations.Test;
+
+/**
+ * Visual Overrides Test.
+ *
+ * @author sirius
+ */
+public class VisualOverridesNGTest {
+
+    @Test
+    public void onlyOverriddenValuesAreReplaced() {
+        final VisualOverrides.Frame frame = new VisualOverrides.Frame();
+        frame.setPosition(5, 1, 2, 3);
+        frame.setRadius(100, 4);
+        frame.setColor(2, ConstellationColor.RED);
+
+        assertEquals(frame.getX(5, 0), 1F);
+        assertEquals(frame.getY(5, 0), 2F);
+        assertEquals(frame.getZ(5, 0), 3F);
+        assertEquals(frame.getX(4, -1), -1F);
+        assertEquals(frame.getX(1000, -1), -1F);
+
+        assertEquals(frame.getRadius(100, 1), 4F);
+        assertEquals(frame.getRadius(99, 1), 1F);
+        assertEquals(frame.getRadius(5, 1), 1F);
+
+        assertSame(frame.getColor(2, ConstellationColor.BLUE), ConstellationColor.RED);
+        assertSame(frame.getColor(3, ConstellationColor.BLUE), ConstellationColor.BLUE);
+        assertNull(frame.getCamera());
+    }
+
+    @Test
+    public void publishedFrameIsVisibleUntilCleared() {
+        final VisualOverrides overrides = new VisualOverrides();
+        assertNull(overrides.getFrame());
+
+        final VisualOverrides.Frame frame = new VisualOverrides.Frame();
+        final Camera camera = new Camera();
+        frame.setCamera(camera);
+        overrides.publish(frame);
+        assertSame(overrides.getFrame(), frame);
+        assertSame(overrides.getFrame().getCamera(), camera);
+
+        overrides.clear();
+        assertNull(overrides.getFrame());
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.utilities.visual;
+
+import java.awt.Component;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Visual Processor Test.
+ *
+ * @author sirius
+ */
+public class VisualProcessorNGTest {
+
+    @Test
+    public void changesToEachPropertyAreCoalesced() {
+        final VisualChange camera = new VisualChangeBuilder(VisualProperty.CAMERA).forItems(1).build();
+        final List<VisualChange> coalesced = new TestProcessor().coalesceChanges(Arrays.asList(
+                new VisualChangeBuilder(VisualProperty.VERTEX_X).forItems(new int[]{5, 1}).build(),
+                camera,
+                new VisualChangeBuilder(VisualProperty.VERTEX_X).forItems(new int[]{3, 5}).build(),
+                new VisualChangeBuilder(VisualProperty.VERTEX_RADIUS).forItems(new int[]{9}).build(),
+                new VisualChangeBuilder(VisualProperty.VERTEX_RADIUS).forItems(4).build()));
+
+        assertEquals(coalesced.size(), 3);
+
+        final VisualChange x = coalesced.get(0);
+        assertEquals(x.property, VisualProperty.VERTEX_X);
+        assertFalse(x.isEmpty());
+        assertEquals(x.getSize(), 3);
+        assertEquals(new int[]{x.getElement(0), x.getElement(1), x.getElement(2)}, new int[]{1, 3, 5});
+
+        // A change on its own is passed through unchanged.
+        assertSame(coalesced.get(1), camera);
+
+        // A range of elements covers the listed elements as well.
+        final VisualChange radius = coalesced.get(2);
+        assertEquals(radius.property, VisualProperty.VERTEX_RADIUS);
+        assertTrue(radius.isEmpty());
+        assertEquals(radius.getSize(), 10);
+    }
+
+    @Test
+    public void rangesCoalesceToTheLargest() {
+        final List<VisualChange> coalesced = new TestProcessor().coalesceChanges(Arrays.asList(
+                new VisualChangeBuilder(VisualProperty.EXTERNAL_CHANGE).build(),
+                new VisualChangeBuilder(VisualProperty.EXTERNAL_CHANGE).build(),
+                new VisualChangeBuilder(VisualProperty.VERTEX_COLOR).forItems(7).build(),
+                new VisualChangeBuilder(VisualProperty.VERTEX_COLOR).forItems(3).build()));
+
+        assertEquals(coalesced.size(), 2);
+        assertEquals(coalesced.get(0).property, VisualProperty.EXTERNAL_CHANGE);
+        assertEquals(coalesced.get(0).getSize(), -1);
+        assertEquals(coalesced.get(1).getSize(), 7);
+        assertTrue(coalesced.get(1).isEmpty());
+    }
+
+    @Test
+    public void changesSharingAMasterPropertyAreCoalesced() {
+        // Share one change processor between the vertex positions and radius, as the renderers do.
+        final VisualProcessor processor = new TestProcessor() {
+            @Override
+            protected VisualProperty getMasterProperty(final VisualProperty property) {
+                switch (property) {
+                    case VERTEX_X:
+                    case VERTEX_Y:
+                    case VERTEX_RADIUS:
+                        return VisualProperty.VERTEX_X;
+                    default:
+                        return super.getMasterProperty(property);
+                }
+            }
+        };
+        final List<VisualChange> coalesced = processor.coalesceChanges(Arrays.asList(
+                new VisualChangeBuilder(VisualProperty.VERTEX_Y).forItems(new int[]{4}).build(),
+                new VisualChangeBuilder(VisualProperty.VERTEX_COLOR).forItems(new int[]{2}).build(),
+                new VisualChangeBuilder(VisualProperty.VERTEX_X).forItems(new int[]{2, 4}).build(),
+                new VisualChangeBuilder(VisualProperty.VERTEX_RADIUS).forItems(new int[]{0}).build()));
+
+        assertEquals(coalesced.size(), 2);
+
+        // The coalesced change is to the master property, in the position of the first change sharing it.
+        final VisualChange x = coalesced.get(0);
+        assertEquals(x.property, VisualProperty.VERTEX_X);
+        assertFalse(x.isEmpty());
+        assertEquals(x.getSize(), 3);
+        assertEquals(new int[]{x.getElement(0), x.getElement(1), x.getElement(2)}, new int[]{0, 2, 4});
+
+        assertEquals(coalesced.get(1).property, VisualProperty.VERTEX_COLOR);
+    }
+
+    private static class TestProcessor extends VisualProcessor {
+
+        @Override
+        protected VisualChangeProcessor getChangeProcessor(final VisualProperty property) {
+            return (change, access) -> {
+            };
+        }
+
+        @Override
+        protected Component getCanvas() {
+            return null;
+        }
+
+        @Override
+        protected void destroyCanvas() {
+        }
+
+        @Override
+        protected void performVisualUpdate() {
+        }
+
+        @Override
+        protected void initialise() {
+        }
+
+        @Override
+        protected void cleanup() {
+        }
+
+        @Override
+        protected List<VisualChange> getFullRefreshSet(final VisualAccess access) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public VisualOperation exportToImage(final File imageFile) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public VisualOperation exportToBufferedImage(final BufferedImage[] img1, final Semaphore waiter) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -19,6 +19,7 @@ import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.LayersConcept;
+import au.gov.asd.tac.constellation.graph.NativeAttributeType;
 import au.gov.asd.tac.constellation.graph.ReadableGraph;
 import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
 import au.gov.asd.tac.constellation.graph.schema.visual.GraphLabel;
@@ -30,12 +31,14 @@ import au.gov.asd.tac.constellation.graph.schema.visual.attribute.objects.Connec
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.utilities.camera.Camera;
 import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
+import au.gov.asd.tac.constellation.utilities.visual.ColorEncoding;
 import au.gov.asd.tac.constellation.utilities.visual.DrawFlags;
 import au.gov.asd.tac.constellation.utilities.visual.LineStyle;
 import au.gov.asd.tac.constellation.utilities.visual.VisualAccess;
 import au.gov.asd.tac.constellation.utilities.visual.VisualAccess.ConnectionDirection;
 import au.gov.asd.tac.constellation.utilities.visual.VisualChange;
 import au.gov.asd.tac.constellation.utilities.visual.VisualChangeBuilder;
+import au.gov.asd.tac.constellation.utilities.visual.VisualOverrides;
 import au.gov.asd.tac.constellation.utilities.visual.VisualProperty;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -80,6 +83,7 @@ public final class GraphVisualAccess implements VisualAccess {
     private int graphDrawFlags = Graph.NOT_FOUND;
     private int graphCamera = Graph.NOT_FOUND;
     private int graphVertexColorRef = Graph.NOT_FOUND;
+    private int graphVertexColorByValue = Graph.NOT_FOUND;
     private int graphTransactionColorRef = Graph.NOT_FOUND;
     private int graphMixColor = Graph.NOT_FOUND;
     private int graphMaxTransactions = Graph.NOT_FOUND;
@@ -92,6 +96,7 @@ public final class GraphVisualAccess implements VisualAccess {
     private int vertexY2 = Graph.NOT_FOUND;
     private int vertexZ2 = Graph.NOT_FOUND;
     private int vertexColor = Graph.NOT_FOUND;
+    private int vertexColorValue = Graph.NOT_FOUND;
     private int vertexBackgroundIcon = Graph.NOT_FOUND;
     private int vertexForegroundIcon = Graph.NOT_FOUND;
     private int vertexSelected = Graph.NOT_FOUND;
@@ -124,8 +129,25 @@ public final class GraphVisualAccess implements VisualAccess {
     private float[] connectionLabelSizes = new float[0];
     private ConstellationColor[] connectionLabelColors = new ConstellationColor[0];
 
+    private boolean vertexColorNumeric = false;
+    private final Map<String, Integer> vertexColorCategories = new HashMap<>();
+    // The numeric colour value of each vertex by id, and how many vertices have a value, the lowest value and the highest value.
+    private float[] vertexColorValues = new float[0];
+    private int vertexColorValueCount = 0;
+    private float vertexColorLow = Float.POSITIVE_INFINITY;
+    private int vertexColorLowCount = 0;
+    private float vertexColorHigh = Float.NEGATIVE_INFINITY;
+    private int vertexColorHighCount = 0;
+    private ColorEncoding vertexColorEncoding = null;
+    private ColorEncoding reportedVertexColorEncoding = null;
+
+    private static final ConstellationColor[] VERTEX_COLOR_RAMP = {ConstellationColor.BLUE, ConstellationColor.CYAN, ConstellationColor.GREEN, ConstellationColor.YELLOW, ConstellationColor.RED};
+    private static final ConstellationColor[] VERTEX_COLOR_PALETTE = ConstellationColor.createPalette(ColorEncoding.MAX_COLORS);
+
     private final Graph graph;
     private ReadableGraph accessGraph;
+    private VisualOverrides overrides = null;
+    private VisualOverrides.Frame overrideFrame = null;
     private ConnectionMode connectionMode;
 
     private long globalModCount = -1;
@@ -139,6 +161,8 @@ public final class GraphVisualAccess implements VisualAccess {
     private long neDecoratorModCount = -1;
     private long swDecoratorModCount = -1;
     private long seDecoratorModCount = -1;
+    private long vertexColorValueModCount = -1;
+    private long vertexColorEncodingModCount = -1;
 
     private GraphElementType[] connectionElementTypes = new GraphElementType[0];
     private int[] connectionElementIds = new int[0];
@@ -156,12 +180,19 @@ public final class GraphVisualAccess implements VisualAccess {
     @Override
     public void beginUpdate() {
         accessGraph = graph.getReadableGraph();
+        overrideFrame = overrides != null ? overrides.getFrame() : null;
     }
 
     @Override
     public void endUpdate() {
         accessGraph.release();
         accessGraph = null;
+        overrideFrame = null;
+    }
+
+    @Override
+    public void setOverrides(final VisualOverrides overrides) {
+        this.overrides = overrides;
     }
 
     @Override
@@ -388,20 +419,43 @@ public final class GraphVisualAccess implements VisualAccess {
             // Handle changes to the graph's referred vertex color attribute
             boolean vertexColorChanged = false;
             count = graphVertexColorRef == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(graphVertexColorRef);
-            if (!Objects.equals(count, modCounts.get(VisualConcept.GraphAttribute.NODE_COLOR_REFERENCE)) || attributesChanged) {
+            final long colorByValueCount = graphVertexColorByValue == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(graphVertexColorByValue);
+            if (!Objects.equals(count, modCounts.get(VisualConcept.GraphAttribute.NODE_COLOR_REFERENCE))
+                    || !Objects.equals(colorByValueCount, modCounts.get(VisualConcept.GraphAttribute.NODE_COLOR_BY_VALUE)) || attributesChanged) {
                 final int oldVertexColor = vertexColor;
+                final int oldVertexColorValue = vertexColorValue;
                 recalculateVertexColorAttribute(accessGraph);
                 if (recordChanges) {
                     modCounts.put(VisualConcept.GraphAttribute.NODE_COLOR_REFERENCE, count);
-                    vertexColorChanged = oldVertexColor != vertexColor;
+                    modCounts.put(VisualConcept.GraphAttribute.NODE_COLOR_BY_VALUE, colorByValueCount);
+                    vertexColorChanged = oldVertexColor != vertexColor || oldVertexColorValue != vertexColorValue;
+                }
+            }
+
+            // Handle changes to the values of a referred vertex attribute that is not a color
+            count = vertexColorValue == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexColorValue);
+            if (count != vertexColorEncodingModCount || attributesChanged || verticesRebuilding) {
+                recalculateVertexColorEncoding(accessGraph, vertexColorEncodingModCount < 0 || attributesChanged || verticesRebuilding);
+                vertexColorEncodingModCount = count;
+            }
+            if (recordChanges) {
+                final long previousCount = vertexColorValueModCount;
+                vertexColorValueModCount = count;
+                if (count != previousCount && vertexColorValue != Graph.NOT_FOUND && !vertexColorChanged) {
+                    addVertexChange(changes, VisualProperty.VERTEX_COLOR_VALUE, vertexColorValue, previousCount < 0 || attributesChanged || verticesRebuilding ? null : previousCount);
+                }
+                if (!Objects.equals(vertexColorEncoding, reportedVertexColorEncoding)) {
+                    reportedVertexColorEncoding = vertexColorEncoding;
+                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_COLOR_ENCODING).forItems(accessGraph.getVertexCount()).build());
                 }
             }
 
             // Handle changes to vertex colors
             if (recordChanges) {
                 count = vertexColor == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexColor);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.COLOR, count)) || vertexColorChanged) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_COLOR).forItems(accessGraph.getVertexCount()).build());
+                final Long previousCount = modCounts.put(VisualConcept.VertexAttribute.COLOR, count);
+                if (!Objects.equals(count, previousCount) || vertexColorChanged) {
+                    addVertexChange(changes, VisualProperty.VERTEX_COLOR, vertexColor, vertexColorChanged || attributesChanged || verticesRebuilding ? null : previousCount);
                 }
             }
 
@@ -479,58 +533,75 @@ public final class GraphVisualAccess implements VisualAccess {
                     changes.add(new VisualChangeBuilder(VisualProperty.VISIBILITY_THRESHOLD).forItems(1).build());
                 }
 
-                // Handle stand-alone changes to vertex visual attributes
+                // Handle stand-alone changes to vertex visual attributes.
+                // While the vertices and the attributes they refer to stay the
+                // same, only the vertices whose values changed are updated.
+                final boolean sparse = !verticesRebuilding && !attributesChanged;
+                Long previousCount;
                 count = vertexX == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexX);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.X, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_X).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.X, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_X, vertexX, sparse ? previousCount : null);
                 }
                 count = vertexY == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexY);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Y, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Y).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Y, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_Y, vertexY, sparse ? previousCount : null);
                 }
                 count = vertexZ == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexZ);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Z, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Z).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Z, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_Z, vertexZ, sparse ? previousCount : null);
                 }
                 count = vertexX2 == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexX2);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.X2, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_X2).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.X2, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_X2, vertexX2, sparse ? previousCount : null);
                 }
                 count = vertexY2 == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexY2);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Y2, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Y2).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Y2, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_Y2, vertexY2, sparse ? previousCount : null);
                 }
                 count = vertexZ2 == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexZ2);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Z2, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Z2).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Z2, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_Z2, vertexZ2, sparse ? previousCount : null);
                 }
                 count = vertexBackgroundIcon == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexBackgroundIcon);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.BACKGROUND_ICON, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_BACKGROUND_ICON).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.BACKGROUND_ICON, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_BACKGROUND_ICON, vertexBackgroundIcon, sparse ? previousCount : null);
                 }
                 count = vertexForegroundIcon == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexForegroundIcon);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.FOREGROUND_ICON, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_FOREGROUND_ICON).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.FOREGROUND_ICON, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_FOREGROUND_ICON, vertexForegroundIcon, sparse ? previousCount : null);
                 }
                 count = vertexSelected == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexSelected);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.SELECTED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_SELECTED).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.SELECTED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_SELECTED, vertexSelected, sparse ? previousCount : null);
                 }
                 count = vertexVisibility == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexVisibility);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.VISIBILITY, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_VISIBILITY).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.VISIBILITY, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_VISIBILITY, vertexVisibility, sparse ? previousCount : null);
                 }
                 count = vertexLayerVisibility == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexLayerVisibility);
-                if (!Objects.equals(count, modCounts.put(LayersConcept.VertexAttribute.LAYER_VISIBILITY, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_VISIBILITY).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(LayersConcept.VertexAttribute.LAYER_VISIBILITY, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_VISIBILITY, vertexLayerVisibility, sparse ? previousCount : null);
                 }
                 count = vertexDimmed == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexDimmed);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.DIMMED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_DIM).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.DIMMED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_DIM, vertexDimmed, sparse ? previousCount : null);
                 }
                 count = vertexRadius == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexRadius);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.NODE_RADIUS, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_RADIUS).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.NODE_RADIUS, count);
+                if (!Objects.equals(count, previousCount)) {
+                    addVertexChange(changes, VisualProperty.VERTEX_RADIUS, vertexRadius, sparse ? previousCount : null);
                 }
                 count = vertexBlaze == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexBlaze);
                 if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.BLAZE, count))) {
@@ -587,6 +658,7 @@ public final class GraphVisualAccess implements VisualAccess {
         graphDrawFlags = VisualConcept.GraphAttribute.DRAW_FLAGS.get(rg);
         graphCamera = VisualConcept.GraphAttribute.CAMERA.get(rg);
         graphVertexColorRef = VisualConcept.GraphAttribute.NODE_COLOR_REFERENCE.get(rg);
+        graphVertexColorByValue = VisualConcept.GraphAttribute.NODE_COLOR_BY_VALUE.get(rg);
         graphTransactionColorRef = VisualConcept.GraphAttribute.TRANSACTION_COLOR_REFERENCE.get(rg);
         graphMixColor = VisualConcept.GraphAttribute.MIX_COLOR.get(rg);
         graphMaxTransactions = VisualConcept.GraphAttribute.MAX_TRANSACTIONS.get(rg);
@@ -625,9 +697,149 @@ public final class GraphVisualAccess implements VisualAccess {
                 referredAttr = readGraph.getAttribute(GraphElementType.VERTEX, colorAttrName);
             }
         }
-        vertexColor = referredAttr != Graph.NOT_FOUND && readGraph.getAttributeType(referredAttr).equals(ColorAttributeDescription.ATTRIBUTE_NAME) ? referredAttr : VisualConcept.VertexAttribute.COLOR.get(readGraph);
+        final boolean referredColor = referredAttr != Graph.NOT_FOUND && readGraph.getAttributeType(referredAttr).equals(ColorAttributeDescription.ATTRIBUTE_NAME);
+        // Vertices are only colored by the values of an attribute that is not a color if the graph opts in.
+        final boolean colorByValue = referredAttr != Graph.NOT_FOUND && !referredColor
+                && graphVertexColorByValue != Graph.NOT_FOUND && readGraph.getBooleanValue(graphVertexColorByValue, 0);
+        final int oldVertexColorValue = vertexColorValue;
+        vertexColor = referredColor ? referredAttr : VisualConcept.VertexAttribute.COLOR.get(readGraph);
+        if (!colorByValue) {
+            vertexColorValue = Graph.NOT_FOUND;
+        } else {
+            // Vertices are colored by value, falling back to their color attribute where they have no value.
+            vertexColorValue = referredAttr;
+            final NativeAttributeType nativeType = readGraph.getNativeAttributeType(referredAttr);
+            vertexColorNumeric = nativeType == NativeAttributeType.BYTE || nativeType == NativeAttributeType.SHORT || nativeType == NativeAttributeType.INT
+                    || nativeType == NativeAttributeType.LONG || nativeType == NativeAttributeType.FLOAT || nativeType == NativeAttributeType.DOUBLE;
+        }
+        if (vertexColorValue != oldVertexColorValue) {
+            // Force the encoding to be recalculated for the new attribute.
+            vertexColorCategories.clear();
+            vertexColorValues = new float[0];
+            vertexColorEncodingModCount = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Bring the colour encoding up to date with the colour values. Unless
+     * rescanning, only the values which have changed since the encoding was
+     * last updated are read, so the range of a numeric attribute is kept
+     * incrementally and only read in full when the lowest or highest values
+     * are all changed.
+     */
+    private void recalculateVertexColorEncoding(final ReadableGraph readGraph, final boolean rescan) {
+        if (vertexColorValue == Graph.NOT_FOUND) {
+            vertexColorEncoding = null;
+            return;
+        }
+
+        final int[] changedVertices = rescan ? null : readGraph.getChangedElements(vertexColorValue, vertexColorEncodingModCount);
+        if (vertexColorNumeric) {
+            if (changedVertices == null || !updateVertexColorRange(readGraph, changedVertices)) {
+                rescanVertexColorRange(readGraph);
+            }
+            vertexColorEncoding = vertexColorValueCount > 0 ? ColorEncoding.createRamp(vertexColorLow, vertexColorHigh, VERTEX_COLOR_RAMP) : ColorEncoding.createRamp(0, 0, VERTEX_COLOR_RAMP);
+        } else {
+            // Categories keep their index once seen so that colors are stable while values are edited.
+            if (changedVertices == null) {
+                final int vertexCount = readGraph.getVertexCount();
+                for (int position = 0; position < vertexCount; position++) {
+                    addVertexColorCategory(readGraph.getStringValue(vertexColorValue, readGraph.getVertex(position)));
+                }
+            } else {
+                for (final int vertex : changedVertices) {
+                    if (readGraph.getVertexPosition(vertex) != Graph.NOT_FOUND) {
+                        addVertexColorCategory(readGraph.getStringValue(vertexColorValue, vertex));
+                    }
+                }
+            }
+            vertexColorEncoding = ColorEncoding.createPalette(VERTEX_COLOR_PALETTE);
+        }
+    }
+
+    private void addVertexColorCategory(final String value) {
+        if (value != null && !vertexColorCategories.containsKey(value)) {
+            vertexColorCategories.put(value, vertexColorCategories.size());
+        }
+    }
+
+    private void rescanVertexColorRange(final ReadableGraph readGraph) {
+        vertexColorValues = new float[readGraph.getVertexCapacity()];
+        Arrays.fill(vertexColorValues, Float.NaN);
+        vertexColorValueCount = 0;
+        vertexColorLow = Float.POSITIVE_INFINITY;
+        vertexColorLowCount = 0;
+        vertexColorHigh = Float.NEGATIVE_INFINITY;
+        vertexColorHighCount = 0;
+
+        final int vertexCount = readGraph.getVertexCount();
+        for (int position = 0; position < vertexCount; position++) {
+            final int vertex = readGraph.getVertex(position);
+            final float value = readGraph.getFloatValue(vertexColorValue, vertex);
+            vertexColorValues[vertex] = value;
+            addVertexColorValue(value);
+        }
+    }
+
+    /**
+     * Update the range of the numeric colour values from the new values of
+     * the changed vertices.
+     *
+     * @return false if the range can not be known without reading every
+     * value, because every vertex with the lowest or highest value has
+     * changed.
+     */
+    private boolean updateVertexColorRange(final ReadableGraph readGraph, final int[] changedVertices) {
+        for (final int vertex : changedVertices) {
+            if (vertex >= vertexColorValues.length) {
+                return false;
+            }
+            final float value = readGraph.getVertexPosition(vertex) != Graph.NOT_FOUND ? readGraph.getFloatValue(vertexColorValue, vertex) : Float.NaN;
+            removeVertexColorValue(vertexColorValues[vertex]);
+            addVertexColorValue(value);
+            vertexColorValues[vertex] = value;
+        }
+        if (vertexColorValueCount == 0) {
+            vertexColorLow = Float.POSITIVE_INFINITY;
+            vertexColorLowCount = 0;
+            vertexColorHigh = Float.NEGATIVE_INFINITY;
+            vertexColorHighCount = 0;
+            return true;
+        }
+        return vertexColorLowCount > 0 && vertexColorHighCount > 0;
     }
 
+    private void addVertexColorValue(final float value) {
+        if (Float.isNaN(value)) {
+            return;
+        }
+        vertexColorValueCount++;
+        if (value < vertexColorLow) {
+            vertexColorLow = value;
+            vertexColorLowCount = 1;
+        } else if (value == vertexColorLow) {
+            vertexColorLowCount++;
+        }
+        if (value > vertexColorHigh) {
+            vertexColorHigh = value;
+            vertexColorHighCount = 1;
+        } else if (value == vertexColorHigh) {
+            vertexColorHighCount++;
+        }
+    }
+
+    private void removeVertexColorValue(final float value) {
+        if (Float.isNaN(value)) {
+            return;
+        }
+        vertexColorValueCount--;
+        if (value == vertexColorLow) {
+            vertexColorLowCount--;
+        }
+        if (value == vertexColorHigh) {
+            vertexColorHighCount--;
+        }
+    }
 
     private void recalculateTransactionColorAttribute(final ReadableGraph readGraph) {
         int referredAttr = Graph.NOT_FOUND;
@@ -698,6 +910,38 @@ public final class GraphVisualAccess implements VisualAccess {
         swDecorator = readGraph.getAttribute(GraphElementType.VERTEX, decorators.getSouthWestDecoratorAttribute());
     }
 
+    /**
+     * Adds a change to a vertex visual property. If the graph knows which
+     * vertices have had their values for the attribute changed since the
+     * previous modification count, only those vertices are listed in the
+     * change; otherwise every vertex is.
+     *
+     * @param changes the list of changes to add to.
+     * @param property the visual property that has changed.
+     * @param attribute the vertex attribute backing the property.
+     * @param previousCount the modification count of the attribute when the
+     * property was last updated, or null if every vertex should be updated.
+     */
+    private void addVertexChange(final List<VisualChange> changes, final VisualProperty property, final int attribute, final Long previousCount) {
+        final int[] changedVertices = previousCount == null || attribute == Graph.NOT_FOUND ? null : accessGraph.getChangedElements(attribute, previousCount);
+        if (changedVertices == null) {
+            changes.add(new VisualChangeBuilder(property).forItems(accessGraph.getVertexCount()).build());
+            return;
+        }
+
+        final int[] changedPositions = new int[changedVertices.length];
+        int changedCount = 0;
+        for (final int vertex : changedVertices) {
+            final int position = accessGraph.getVertexPosition(vertex);
+            if (position != Graph.NOT_FOUND) {
+                changedPositions[changedCount++] = position;
+            }
+        }
+        if (changedCount > 0) {
+            changes.add(new VisualChangeBuilder(property).forItems(Arrays.copyOf(changedPositions, changedCount)).build());
+        }
+    }
+
     private void recalculateStructure(final ReadableGraph readGraph) {
         rebuildConnections(readGraph);
     }
@@ -768,6 +1012,9 @@ public final class GraphVisualAccess implements VisualAccess {
     public Camera getCamera() {
         final Camera camera = graphCamera != Graph.NOT_FOUND
                 ? accessGraph.getObjectValue(graphCamera, 0) : VisualGraphDefaults.DEFAULT_CAMERA;
+        if (overrideFrame != null && overrideFrame.getCamera() != null) {
+            return overrideFrame.getCamera();
+        }
         return camera != null ? camera : VisualGraphDefaults.DEFAULT_CAMERA;
     }
 
@@ -940,17 +1187,23 @@ public final class GraphVisualAccess implements VisualAccess {
 
     @Override
     public float getX(final int vertex) {
-        return vertexX != Graph.NOT_FOUND ? accessGraph.getFloatValue(vertexX, accessGraph.getVertex(vertex)) : VisualGraphDefaults.getDefaultX(accessGraph.getVertex(vertex));
+        final int vertexId = accessGraph.getVertex(vertex);
+        final float value = vertexX != Graph.NOT_FOUND ? accessGraph.getFloatValue(vertexX, vertexId) : VisualGraphDefaults.getDefaultX(vertexId);
+        return overrideFrame != null ? overrideFrame.getX(vertexId, value) : value;
     }
 
     @Override
     public float getY(final int vertex) {
-        return vertexY != Graph.NOT_FOUND ? accessGraph.getFloatValue(vertexY, accessGraph.getVertex(vertex)) : VisualGraphDefaults.getDefaultY(accessGraph.getVertex(vertex));
+        final int vertexId = accessGraph.getVertex(vertex);
+        final float value = vertexY != Graph.NOT_FOUND ? accessGraph.getFloatValue(vertexY, vertexId) : VisualGraphDefaults.getDefaultY(vertexId);
+        return overrideFrame != null ? overrideFrame.getY(vertexId, value) : value;
     }
 
     @Override
     public float getZ(final int vertex) {
-        return vertexZ != Graph.NOT_FOUND ? accessGraph.getFloatValue(vertexZ, accessGraph.getVertex(vertex)) : VisualGraphDefaults.getDefaultZ(accessGraph.getVertex(vertex));
+        final int vertexId = accessGraph.getVertex(vertex);
+        final float value = vertexZ != Graph.NOT_FOUND ? accessGraph.getFloatValue(vertexZ, vertexId) : VisualGraphDefaults.getDefaultZ(vertexId);
+        return overrideFrame != null ? overrideFrame.getZ(vertexId, value) : value;
     }
 
     @Override
@@ -970,11 +1223,47 @@ public final class GraphVisualAccess implements VisualAccess {
 
     @Override
     public ConstellationColor getVertexColor(final int vertex) {
+        final ConstellationColor color = vertexColorEncoding != null ? vertexColorEncoding.getColor(getColorValue(accessGraph.getVertex(vertex))) : null;
+        return color != null ? getOverriddenVertexColor(vertex, color) : getVertexBaseColor(vertex);
+    }
+
+    @Override
+    public ConstellationColor getVertexBaseColor(final int vertex) {
         ConstellationColor color = null;
         if (vertexColor != Graph.NOT_FOUND) {
             color = accessGraph.getObjectValue(vertexColor, accessGraph.getVertex(vertex));
         }
-        return color != null ? color : VisualGraphDefaults.DEFAULT_VERTEX_COLOR;
+        if (color == null) {
+            color = VisualGraphDefaults.DEFAULT_VERTEX_COLOR;
+        }
+        return getOverriddenVertexColor(vertex, color);
+    }
+
+    private ConstellationColor getOverriddenVertexColor(final int vertex, final ConstellationColor color) {
+        return overrideFrame != null ? overrideFrame.getColor(accessGraph.getVertex(vertex), color) : color;
+    }
+
+    @Override
+    public ColorEncoding getVertexColorEncoding() {
+        return vertexColorEncoding;
+    }
+
+    @Override
+    public float getVertexColorValue(final int vertex) {
+        final int vertexId = accessGraph.getVertex(vertex);
+        // An overridden color must not be replaced by the encoding.
+        if (overrideFrame != null && overrideFrame.getColor(vertexId, null) != null) {
+            return Float.NaN;
+        }
+        return vertexColorEncoding != null ? getColorValue(vertexId) : Float.NaN;
+    }
+
+    private float getColorValue(final int vertexId) {
+        if (vertexColorNumeric) {
+            return accessGraph.getFloatValue(vertexColorValue, vertexId);
+        }
+        final Integer category = vertexColorCategories.get(accessGraph.getStringValue(vertexColorValue, vertexId));
+        return category != null ? category : Float.NaN;
     }
 
     @Override
@@ -1005,7 +1294,9 @@ public final class GraphVisualAccess implements VisualAccess {
 
     @Override
     public float getRadius(final int vertex) {
-        return vertexRadius != Graph.NOT_FOUND ? accessGraph.getFloatValue(vertexRadius, accessGraph.getVertex(vertex)) : VisualGraphDefaults.DEFAULT_VERTEX_RADIUS;
+        final int vertexId = accessGraph.getVertex(vertex);
+        final float radius = vertexRadius != Graph.NOT_FOUND ? accessGraph.getFloatValue(vertexRadius, vertexId) : VisualGraphDefaults.DEFAULT_VERTEX_RADIUS;
+        return overrideFrame != null ? overrideFrame.getRadius(vertexId, radius) : radius;
     }
 
     @Override
@@ -1424,8 +1715,15 @@ public final class GraphVisualAccess implements VisualAccess {
         count = graphVertexColorRef == Graph.NOT_FOUND ? -1 : readGraph.getValueModificationCounter(graphVertexColorRef);
         recalculateVertexColorAttribute(readGraph);
         modCounts.put(VisualConcept.GraphAttribute.NODE_COLOR_REFERENCE, count);
+        count = graphVertexColorByValue == Graph.NOT_FOUND ? -1 : readGraph.getValueModificationCounter(graphVertexColorByValue);
+        modCounts.put(VisualConcept.GraphAttribute.NODE_COLOR_BY_VALUE, count);
         count = vertexColor == Graph.NOT_FOUND ? -1 : readGraph.getValueModificationCounter(vertexColor);
         modCounts.put(VisualConcept.VertexAttribute.COLOR, count);
+        count = vertexColorValue == Graph.NOT_FOUND ? -1 : readGraph.getValueModificationCounter(vertexColorValue);
+        recalculateVertexColorEncoding(readGraph, true);
+        vertexColorValueModCount = count;
+        vertexColorEncodingModCount = count;
+        reportedVertexColorEncoding = vertexColorEncoding;
 
         count = graphTransactionColorRef == Graph.NOT_FOUND ? -1 : readGraph.getValueModificationCounter(graphTransactionColorRef);
         recalculateTransactionColorAttribute(readGraph);
@@ -0,0 +1,461 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.visual.utilities;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.graph.visual.framework.VisualGraphDefaults;
+import au.gov.asd.tac.constellation.utilities.graphics.BoundingVolumeHierarchy;
+import au.gov.asd.tac.constellation.utilities.graphics.IntArray;
+import au.gov.asd.tac.constellation.utilities.graphics.Vector3f;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * A spatial index over the positions of the vertices and links of a graph,
+ * answering point picks, nearest vertex queries and selections bounded by
+ * planes without visiting every element.
+ * <p>
+ * The index is kept in step with a graph by calling
+ * {@link #update(GraphReadMethods)} while holding a lock on the graph, which
+ * need only be a read lock. A caller which later holds a write lock can use
+ * {@link #isCurrent(GraphReadMethods)} to check that the graph has not
+ * changed since without bringing the index up to date. Queries answer for the
+ * graph most recently passed to either method.
+ * <p>
+ * The index is only kept for a {@link StoreGraph}, using its
+ * {@link StoreGraph#getStructureVersion() structure version} and the
+ * {@link StoreGraph#getValueVersion(int) value versions} of the position
+ * attributes, which unlike modification counters are never repeated by an
+ * undo. If only vertex positions have changed since the last update, just
+ * the moved vertices and their links are refit using
+ * {@link GraphReadMethods#getChangedElements(int, long)}. Any other change to
+ * the structure of the graph rebuilds the index. Each graph has its own
+ * versions, so the index keeps the trees of the two graphs that the reads
+ * and writes of a DualGraph alternate between. Any other implementation of
+ * GraphReadMethods is indexed from scratch on every update, and is never
+ * current.
+ * <p>
+ * The bounds of each vertex cover both its x, y, z and x2, y2, z2 positions,
+ * so the index holds whatever the camera's mix between them is. Selections
+ * therefore return candidates which should be tested exactly by the caller.
+ *
+ * @author sirius
+ */
+public final class GraphSpatialIndex {
+
+    // Rebuild rather than refit when more than this fraction of the vertices have moved.
+    private static final int REBUILD_DIVISOR = 4;
+
+    // The number of graphs whose trees are kept, enough for the two graphs of a DualGraph.
+    private static final int TREES_KEPT = 2;
+
+    // Versions are allocated from 1, so this never matches the version of a StoreGraph.
+    private static final long UNVERSIONED = 0;
+
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int Z = 2;
+    private static final int X2 = 3;
+    private static final int Y2 = 4;
+    private static final int Z2 = 5;
+    private static final int RADIUS = 6;
+    private static final int POSITION_WIDTH = 7;
+
+    // The trees most recently updated or found current, the most recent first.
+    private final Trees[] trees = new Trees[TREES_KEPT];
+
+    /**
+     * Bring the index up to date with the specified graph. The caller must
+     * hold a lock on the graph.
+     *
+     * @param graph the graph.
+     */
+    public synchronized void update(final GraphReadMethods graph) {
+        final int[] attributes = getPositionAttributes(graph);
+        final Trees found = find(graph, attributes);
+        if (found != null && found.refit(graph)) {
+            makeCurrent(found, found);
+        } else {
+            makeCurrent(new Trees(graph, attributes), found);
+        }
+    }
+
+    /**
+     * Is the index up to date with the specified graph? This only compares
+     * versions, so it is cheap enough to call while holding a write lock on
+     * the graph. The caller must hold a lock on the graph.
+     *
+     * @param graph the graph.
+     * @return true if neither the structure of the graph nor the positions of
+     * its vertices have changed since the index was last updated with it.
+     */
+    public synchronized boolean isCurrent(final GraphReadMethods graph) {
+        final Trees found = find(graph, getPositionAttributes(graph));
+        if (found == null || !found.isCurrent(graph)) {
+            return false;
+        }
+        makeCurrent(found, found);
+        return true;
+    }
+
+    /**
+     * Find the vertices whose positions may be on the inner side of all of
+     * the specified planes, as described by
+     * {@link BoundingVolumeHierarchy#queryPlanes queryPlanes()}.
+     *
+     * @param planes the planes, four floats per plane.
+     * @return the ids of the candidate vertices.
+     */
+    public synchronized int[] getVerticesInside(final float[] planes) {
+        final IntArray found = new IntArray();
+        final Trees current = trees[0];
+        if (current != null) {
+            current.vertexTree.queryPlanes(planes, item -> found.add(current.vertices[item]));
+        }
+        return found.toArray();
+    }
+
+    /**
+     * Find the links whose lines may cross the inner side of all of the
+     * specified planes, as described by
+     * {@link BoundingVolumeHierarchy#queryPlanes queryPlanes()}.
+     *
+     * @param planes the planes, four floats per plane.
+     * @return the ids of the candidate links.
+     */
+    public synchronized int[] getLinksInside(final float[] planes) {
+        final IntArray found = new IntArray();
+        final Trees current = trees[0];
+        if (current != null) {
+            current.linkTree.queryPlanes(planes, item -> found.add(current.links[item]));
+        }
+        return found.toArray();
+    }
+
+    /**
+     * Find the first vertex, drawn as a sphere of its radius, hit by a ray.
+     *
+     * @param origin the origin of the ray.
+     * @param direction the direction of the ray.
+     * @param mix the mix between the x, y, z and x2, y2, z2 positions.
+     * @return the id of the vertex, or {@link Graph#NOT_FOUND} if the ray hits
+     * no vertex.
+     */
+    public int pickVertex(final Vector3f origin, final Vector3f direction, final float mix) {
+        return pickVertex(origin, direction, mix, vertex -> true);
+    }
+
+    /**
+     * Find the first vertex, drawn as a sphere of its radius, hit by a ray,
+     * ignoring the vertices that can not be picked, such as those that are
+     * not drawn.
+     *
+     * @param origin the origin of the ray.
+     * @param direction the direction of the ray.
+     * @param mix the mix between the x, y, z and x2, y2, z2 positions.
+     * @param pickable tests whether a vertex, given its id, can be picked.
+     * @return the id of the vertex, or {@link Graph#NOT_FOUND} if the ray hits
+     * no vertex that can be picked.
+     */
+    public synchronized int pickVertex(final Vector3f origin, final Vector3f direction, final float mix, final IntPredicate pickable) {
+        final Trees current = trees[0];
+        if (current == null) {
+            return Graph.NOT_FOUND;
+        }
+        final Vector3f unitDirection = new Vector3f(direction);
+        unitDirection.normalize();
+        final float[] centre = new float[3];
+        final int item = current.vertexTree.queryRay(origin, unitDirection, vertexItem -> {
+            if (!pickable.test(current.vertices[vertexItem])) {
+                return Float.POSITIVE_INFINITY;
+            }
+            current.getMixedPosition(vertexItem, mix, centre);
+            final float radius = current.vertexPositions[vertexItem * POSITION_WIDTH + RADIUS];
+            final float cx = centre[0] - origin.getX();
+            final float cy = centre[1] - origin.getY();
+            final float cz = centre[2] - origin.getZ();
+            final float along = cx * unitDirection.getX() + cy * unitDirection.getY() + cz * unitDirection.getZ();
+            final float distanceSquared = cx * cx + cy * cy + cz * cz - along * along;
+            final float radiusSquared = radius * radius;
+            if (distanceSquared > radiusSquared) {
+                return Float.POSITIVE_INFINITY;
+            }
+            final float entry = along - (float) Math.sqrt(radiusSquared - distanceSquared);
+            return entry >= 0 ? entry : along + radius >= 0 ? 0 : Float.POSITIVE_INFINITY;
+        });
+        return item == BoundingVolumeHierarchy.NO_ITEM ? Graph.NOT_FOUND : current.vertices[item];
+    }
+
+    /**
+     * Find the vertex whose position is nearest to a point.
+     *
+     * @param point the point.
+     * @param mix the mix between the x, y, z and x2, y2, z2 positions.
+     * @param maxDistance vertices further than this from the point are
+     * ignored.
+     * @return the id of the vertex, or {@link Graph#NOT_FOUND} if there is no
+     * vertex within the maximum distance.
+     */
+    public synchronized int getNearestVertex(final Vector3f point, final float mix, final float maxDistance) {
+        final Trees current = trees[0];
+        if (current == null) {
+            return Graph.NOT_FOUND;
+        }
+        final float[] position = new float[3];
+        final int item = current.vertexTree.queryNearest(point.getX(), point.getY(), point.getZ(), maxDistance, vertexItem -> {
+            current.getMixedPosition(vertexItem, mix, position);
+            final float dx = position[0] - point.getX();
+            final float dy = position[1] - point.getY();
+            final float dz = position[2] - point.getZ();
+            return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        });
+        return item == BoundingVolumeHierarchy.NO_ITEM ? Graph.NOT_FOUND : current.vertices[item];
+    }
+
+    private static int[] getPositionAttributes(final GraphReadMethods graph) {
+        return new int[]{
+            VisualConcept.VertexAttribute.X.get(graph),
+            VisualConcept.VertexAttribute.Y.get(graph),
+            VisualConcept.VertexAttribute.Z.get(graph),
+            VisualConcept.VertexAttribute.X2.get(graph),
+            VisualConcept.VertexAttribute.Y2.get(graph),
+            VisualConcept.VertexAttribute.Z2.get(graph),
+            VisualConcept.VertexAttribute.NODE_RADIUS.get(graph)
+        };
+    }
+
+    private static long getStructureVersion(final GraphReadMethods graph) {
+        return graph instanceof StoreGraph ? ((StoreGraph) graph).getStructureVersion() : UNVERSIONED;
+    }
+
+    private static long getValueVersion(final GraphReadMethods graph, final int attribute) {
+        return graph instanceof StoreGraph && attribute != Graph.NOT_FOUND ? ((StoreGraph) graph).getValueVersion(attribute) : UNVERSIONED;
+    }
+
+    /**
+     * Find the kept trees built from the current structure of a graph. As the
+     * structure version is never shared, these were built from the same graph.
+     */
+    private Trees find(final GraphReadMethods graph, final int[] attributes) {
+        final long structureVersion = getStructureVersion(graph);
+        if (structureVersion == UNVERSIONED) {
+            return null;
+        }
+        for (final Trees kept : trees) {
+            if (kept != null && kept.structureVersion == structureVersion && Arrays.equals(attributes, kept.positionAttributes)) {
+                return kept;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Move trees to the front of the kept trees, in place of the replaced
+     * trees if they are kept, or else of the least recently used trees.
+     */
+    private void makeCurrent(final Trees current, final Trees replaced) {
+        int position = 0;
+        while (position < TREES_KEPT - 1 && trees[position] != replaced) {
+            position++;
+        }
+        System.arraycopy(trees, 0, trees, 1, position);
+        trees[0] = current;
+    }
+
+    /**
+     * The trees over the vertices and links of one graph, and the versions of
+     * the graph they are up to date with.
+     */
+    private static final class Trees {
+
+        private final long structureVersion;
+        private final int[] positionAttributes;
+        private final long[] positionVersions = new long[POSITION_WIDTH];
+        private final long[] positionModificationCounters = new long[POSITION_WIDTH];
+
+        private final int[] vertices;
+        private final int[] vertexItems;
+        private final float[] vertexPositions;
+        private final BoundingVolumeHierarchy vertexTree;
+
+        private final int[] links;
+        private final int[] linkItems;
+        private final BoundingVolumeHierarchy linkTree;
+
+        private Trees(final GraphReadMethods graph, final int[] attributes) {
+            structureVersion = getStructureVersion(graph);
+            positionAttributes = attributes;
+
+            final int vertexCount = graph.getVertexCount();
+            vertices = new int[vertexCount];
+            vertexItems = new int[graph.getVertexCapacity()];
+            Arrays.fill(vertexItems, Graph.NOT_FOUND);
+            vertexPositions = new float[vertexCount * POSITION_WIDTH];
+            final float[] vertexBounds = new float[vertexCount * 6];
+            final float[] bounds = new float[6];
+            for (int item = 0; item < vertexCount; item++) {
+                final int vertex = graph.getVertex(item);
+                vertices[item] = vertex;
+                vertexItems[vertex] = item;
+                readPosition(graph, vertex, item);
+                getVertexBounds(item, bounds);
+                System.arraycopy(bounds, 0, vertexBounds, item * 6, 6);
+            }
+            vertexTree = new BoundingVolumeHierarchy(vertexBounds, vertexCount);
+
+            final int linkCount = graph.getLinkCount();
+            links = new int[linkCount];
+            linkItems = new int[graph.getLinkCapacity()];
+            Arrays.fill(linkItems, Graph.NOT_FOUND);
+            final float[] linkBounds = new float[linkCount * 6];
+            for (int item = 0; item < linkCount; item++) {
+                final int link = graph.getLink(item);
+                links[item] = link;
+                linkItems[link] = item;
+                getLinkBounds(graph, link, bounds);
+                System.arraycopy(bounds, 0, linkBounds, item * 6, 6);
+            }
+            linkTree = new BoundingVolumeHierarchy(linkBounds, linkCount);
+
+            saveVersions(graph);
+        }
+
+        private boolean isCurrent(final GraphReadMethods graph) {
+            for (int i = 0; i < POSITION_WIDTH; i++) {
+                if (getValueVersion(graph, positionAttributes[i]) != positionVersions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Refit the trees to the vertices that have moved since they were
+         * last brought up to date with the graph, which must have the same
+         * structure version.
+         *
+         * @return false if the trees should be rebuilt instead.
+         */
+        private boolean refit(final GraphReadMethods graph) {
+            final BitSet moved = new BitSet();
+            for (int i = 0; i < POSITION_WIDTH; i++) {
+                if (positionAttributes[i] != Graph.NOT_FOUND && getValueVersion(graph, positionAttributes[i]) != positionVersions[i]) {
+                    final int[] changed = graph.getChangedElements(positionAttributes[i], positionModificationCounters[i]);
+                    if (changed == null) {
+                        return false;
+                    }
+                    for (final int vertex : changed) {
+                        moved.set(vertex);
+                    }
+                }
+            }
+
+            if (moved.cardinality() > vertices.length / REBUILD_DIVISOR) {
+                return false;
+            }
+
+            final float[] bounds = new float[6];
+            final BitSet movedLinks = new BitSet();
+            for (int vertex = moved.nextSetBit(0); vertex >= 0; vertex = moved.nextSetBit(vertex + 1)) {
+                if (vertex < vertexItems.length && vertexItems[vertex] != Graph.NOT_FOUND) {
+                    final int item = vertexItems[vertex];
+                    readPosition(graph, vertex, item);
+                    getVertexBounds(item, bounds);
+                    vertexTree.setItemBounds(item, bounds);
+
+                    final int linkCount = graph.getVertexLinkCount(vertex);
+                    for (int position = 0; position < linkCount; position++) {
+                        movedLinks.set(graph.getVertexLink(vertex, position));
+                    }
+                }
+            }
+            for (int link = movedLinks.nextSetBit(0); link >= 0; link = movedLinks.nextSetBit(link + 1)) {
+                final int item = linkItems[link];
+                getLinkBounds(graph, link, bounds);
+                linkTree.setItemBounds(item, bounds);
+            }
+
+            saveVersions(graph);
+            return true;
+        }
+
+        private void saveVersions(final GraphReadMethods graph) {
+            for (int i = 0; i < POSITION_WIDTH; i++) {
+                positionVersions[i] = getValueVersion(graph, positionAttributes[i]);
+                positionModificationCounters[i] = positionAttributes[i] != Graph.NOT_FOUND ? graph.getValueModificationCounter(positionAttributes[i]) : -1;
+            }
+        }
+
+        private void readPosition(final GraphReadMethods graph, final int vertex, final int item) {
+            final int offset = item * POSITION_WIDTH;
+            final float x = positionAttributes[X] != Graph.NOT_FOUND ? graph.getFloatValue(positionAttributes[X], vertex) : VisualGraphDefaults.getDefaultX(vertex);
+            final float y = positionAttributes[Y] != Graph.NOT_FOUND ? graph.getFloatValue(positionAttributes[Y], vertex) : VisualGraphDefaults.getDefaultY(vertex);
+            final float z = positionAttributes[Z] != Graph.NOT_FOUND ? graph.getFloatValue(positionAttributes[Z], vertex) : VisualGraphDefaults.getDefaultZ(vertex);
+            vertexPositions[offset + X] = x;
+            vertexPositions[offset + Y] = y;
+            vertexPositions[offset + Z] = z;
+
+            // Without all of x2, y2 and z2 there is nothing to mix with, as for the renderer.
+            if (positionAttributes[X2] != Graph.NOT_FOUND && positionAttributes[Y2] != Graph.NOT_FOUND && positionAttributes[Z2] != Graph.NOT_FOUND) {
+                vertexPositions[offset + X2] = graph.getFloatValue(positionAttributes[X2], vertex);
+                vertexPositions[offset + Y2] = graph.getFloatValue(positionAttributes[Y2], vertex);
+                vertexPositions[offset + Z2] = graph.getFloatValue(positionAttributes[Z2], vertex);
+            } else {
+                vertexPositions[offset + X2] = x;
+                vertexPositions[offset + Y2] = y;
+                vertexPositions[offset + Z2] = z;
+            }
+
+            vertexPositions[offset + RADIUS] = positionAttributes[RADIUS] != Graph.NOT_FOUND ? graph.getFloatValue(positionAttributes[RADIUS], vertex) : VisualGraphDefaults.DEFAULT_VERTEX_RADIUS;
+        }
+
+        private void getMixedPosition(final int item, final float mix, final float[] position) {
+            final int offset = item * POSITION_WIDTH;
+            for (int axis = 0; axis < 3; axis++) {
+                position[axis] = (1 - mix) * vertexPositions[offset + X + axis] + mix * vertexPositions[offset + X2 + axis];
+            }
+        }
+
+        /**
+         * The bounds of a vertex, covering its spheres at both of its positions.
+         */
+        private void getVertexBounds(final int item, final float[] bounds) {
+            final int offset = item * POSITION_WIDTH;
+            final float radius = Math.abs(vertexPositions[offset + RADIUS]);
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[axis] = Math.min(vertexPositions[offset + X + axis], vertexPositions[offset + X2 + axis]) - radius;
+                bounds[axis + 3] = Math.max(vertexPositions[offset + X + axis], vertexPositions[offset + X2 + axis]) + radius;
+            }
+        }
+
+        /**
+         * The bounds of a link, covering the lines between both positions of
+         * its vertices.
+         */
+        private void getLinkBounds(final GraphReadMethods graph, final int link, final float[] bounds) {
+            final int low = vertexItems[graph.getLinkLowVertex(link)] * POSITION_WIDTH;
+            final int high = vertexItems[graph.getLinkHighVertex(link)] * POSITION_WIDTH;
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[axis] = Math.min(Math.min(vertexPositions[low + X + axis], vertexPositions[low + X2 + axis]), Math.min(vertexPositions[high + X + axis], vertexPositions[high + X2 + axis]));
+                bounds[axis + 3] = Math.max(Math.max(vertexPositions[low + X + axis], vertexPositions[low + X2 + axis]), Math.max(vertexPositions[high + X + axis], vertexPositions[high + X2 + axis]));
+            }
+        }
+    }
+}
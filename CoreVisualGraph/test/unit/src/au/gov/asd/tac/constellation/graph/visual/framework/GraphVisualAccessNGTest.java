@@ -0,0 +1,179 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.visual.framework;
+
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.locking.DualGraph;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
+import au.gov.asd.tac.constellation.utilities.visual.ColorEncoding;
+import au.gov.asd.tac.constellation.utilities.visual.VisualChange;
+import au.gov.asd.tac.constellation.utilities.visual.VisualProperty;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Graph Visual Access Test.
+ *
+ * @author sirius
+ */
+public class GraphVisualAccessNGTest {
+
+    private static final int VERTEX_COUNT = 5;
+
+    private DualGraph graph;
+    private int scoreAttribute;
+    private final int[] vertices = new int[VERTEX_COUNT];
+
+    @BeforeMethod
+    public void setUpMethod() throws InterruptedException {
+        graph = new DualGraph(null);
+        final WritableGraph wg = graph.getWritableGraph("", true);
+        try {
+            scoreAttribute = wg.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "score", null, null, null);
+            final int colorAttribute = VisualConcept.VertexAttribute.COLOR.ensure(wg);
+            final int colorReferenceAttribute = VisualConcept.GraphAttribute.NODE_COLOR_REFERENCE.ensure(wg);
+            wg.setStringValue(colorReferenceAttribute, 0, "score");
+            for (int i = 0; i < VERTEX_COUNT; i++) {
+                vertices[i] = wg.addVertex();
+                wg.setFloatValue(scoreAttribute, vertices[i], i);
+                wg.setObjectValue(colorAttribute, vertices[i], ConstellationColor.GREY);
+            }
+        } finally {
+            wg.commit();
+        }
+    }
+
+    @Test
+    public void nonColorReferenceIsOnlyEncodedWhenOptedIn() throws InterruptedException {
+        final GraphVisualAccess access = new GraphVisualAccess(graph);
+        access.beginUpdate();
+        try {
+            access.getIndigenousChanges();
+            assertNull(access.getVertexColorEncoding());
+            assertEquals(access.getVertexColor(0), ConstellationColor.GREY);
+        } finally {
+            access.endUpdate();
+        }
+
+        setColorByValue(true);
+        access.beginUpdate();
+        try {
+            final Set<VisualProperty> properties = getChangedProperties(access.getIndigenousChanges());
+            assertTrue(properties.contains(VisualProperty.VERTEX_COLOR));
+            assertTrue(properties.contains(VisualProperty.VERTEX_COLOR_ENCODING));
+            assertRange(access.getVertexColorEncoding(), 0, VERTEX_COUNT - 1);
+            assertEquals(access.getVertexBaseColor(0), ConstellationColor.GREY);
+        } finally {
+            access.endUpdate();
+        }
+
+        setColorByValue(false);
+        access.beginUpdate();
+        try {
+            access.getIndigenousChanges();
+            assertNull(access.getVertexColorEncoding());
+        } finally {
+            access.endUpdate();
+        }
+    }
+
+    @Test
+    public void rangeFollowsEditedValues() throws InterruptedException {
+        setColorByValue(true);
+        final GraphVisualAccess access = new GraphVisualAccess(graph);
+        access.beginUpdate();
+        try {
+            access.getIndigenousChanges();
+            assertRange(access.getVertexColorEncoding(), 0, 4);
+        } finally {
+            access.endUpdate();
+        }
+
+        // Only the values change, so the icon colours are not reported as changed.
+        setScore(4, 2);
+        access.beginUpdate();
+        try {
+            final Set<VisualProperty> properties = getChangedProperties(access.getIndigenousChanges());
+            assertTrue(properties.contains(VisualProperty.VERTEX_COLOR_VALUE));
+            assertTrue(properties.contains(VisualProperty.VERTEX_COLOR_ENCODING));
+            assertFalse(properties.contains(VisualProperty.VERTEX_COLOR));
+            assertRange(access.getVertexColorEncoding(), 0, 3);
+        } finally {
+            access.endUpdate();
+        }
+
+        setScore(3, 1);
+        setScore(0, 10);
+        access.beginUpdate();
+        try {
+            access.getIndigenousChanges();
+            assertRange(access.getVertexColorEncoding(), 1, 10);
+        } finally {
+            access.endUpdate();
+        }
+
+        // A value within the range leaves the encoding alone.
+        setScore(2, 5);
+        access.beginUpdate();
+        try {
+            final Set<VisualProperty> properties = getChangedProperties(access.getIndigenousChanges());
+            assertTrue(properties.contains(VisualProperty.VERTEX_COLOR_VALUE));
+            assertFalse(properties.contains(VisualProperty.VERTEX_COLOR_ENCODING));
+            assertRange(access.getVertexColorEncoding(), 1, 10);
+        } finally {
+            access.endUpdate();
+        }
+    }
+
+    private void setColorByValue(final boolean colorByValue) throws InterruptedException {
+        final WritableGraph wg = graph.getWritableGraph("", true);
+        try {
+            wg.setBooleanValue(VisualConcept.GraphAttribute.NODE_COLOR_BY_VALUE.ensure(wg), 0, colorByValue);
+        } finally {
+            wg.commit();
+        }
+    }
+
+    private void setScore(final int vertex, final float score) throws InterruptedException {
+        final WritableGraph wg = graph.getWritableGraph("", true);
+        try {
+            wg.setFloatValue(scoreAttribute, vertices[vertex], score);
+        } finally {
+            wg.commit();
+        }
+    }
+
+    private static Set<VisualProperty> getChangedProperties(final List<VisualChange> changes) {
+        return changes.stream().map(change -> change.property).collect(Collectors.toSet());
+    }
+
+    private static void assertRange(final ColorEncoding encoding, final float low, final float high) {
+        assertNotNull(encoding);
+        assertEquals(encoding.getLow(), low);
+        assertEquals(encoding.getHigh(), high);
+    }
+}
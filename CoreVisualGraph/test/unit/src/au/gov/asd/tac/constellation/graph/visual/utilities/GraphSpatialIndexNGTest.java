@@ -0,0 +1,262 @@
+/*
+ * Copyright 2010-2020 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.visual.utilities;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.graph.undo.UndoGraphEdit;
+import au.gov.asd.tac.constellation.utilities.graphics.Vector3f;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Graph Spatial Index Test.
+ *
+ * @author sirius
+ */
+public class GraphSpatialIndexNGTest {
+
+    private static final int VERTEX_COUNT = 2000;
+
+    private StoreGraph graph;
+    private int xAttribute;
+    private int yAttribute;
+    private int zAttribute;
+    private int radiusAttribute;
+    private Random random;
+
+    @BeforeMethod
+    public void setUpMethod() {
+        random = new Random(7);
+        graph = new StoreGraph();
+        xAttribute = VisualConcept.VertexAttribute.X.ensure(graph);
+        yAttribute = VisualConcept.VertexAttribute.Y.ensure(graph);
+        zAttribute = VisualConcept.VertexAttribute.Z.ensure(graph);
+        radiusAttribute = VisualConcept.VertexAttribute.NODE_RADIUS.ensure(graph);
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            final int vertex = graph.addVertex();
+            graph.setFloatValue(xAttribute, vertex, random.nextFloat() * 1000);
+            graph.setFloatValue(yAttribute, vertex, random.nextFloat() * 1000);
+            graph.setFloatValue(zAttribute, vertex, random.nextFloat() * 1000);
+            graph.setFloatValue(radiusAttribute, vertex, 1);
+        }
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            graph.addTransaction(graph.getVertex(random.nextInt(VERTEX_COUNT)), graph.getVertex(random.nextInt(VERTEX_COUNT)), true);
+        }
+    }
+
+    @Test
+    public void queriesMatchEveryElement() {
+        final GraphSpatialIndex index = new GraphSpatialIndex();
+        index.update(graph);
+        checkQueries(index);
+    }
+
+    @Test
+    public void queriesFollowMovedAndAddedVertices() {
+        final GraphSpatialIndex index = new GraphSpatialIndex();
+        index.update(graph);
+
+        // Few enough moves to refit the index rather than rebuild it.
+        for (int i = 0; i < 20; i++) {
+            final int vertex = graph.getVertex(random.nextInt(VERTEX_COUNT));
+            graph.setFloatValue(xAttribute, vertex, random.nextFloat() * 1000);
+            graph.setFloatValue(zAttribute, vertex, random.nextFloat() * 1000);
+        }
+        index.update(graph);
+        checkQueries(index);
+
+        final int vertex = graph.addVertex();
+        graph.setFloatValue(xAttribute, vertex, 500);
+        graph.setFloatValue(yAttribute, vertex, 500);
+        graph.setFloatValue(zAttribute, vertex, 2000);
+        graph.setFloatValue(radiusAttribute, vertex, 1);
+        graph.addTransaction(vertex, graph.getVertex(0), false);
+        assertFalse(index.isCurrent(graph));
+        index.update(graph);
+        assertTrue(index.isCurrent(graph));
+        checkQueries(index);
+        assertTrue(toSet(index.getVerticesInside(new float[]{0, 0, 1, -1500})).contains(vertex));
+        assertEquals(index.pickVertex(new Vector3f(500, 500, 3000), new Vector3f(0, 0, -1), 0), vertex);
+        // Without the new vertex, the ray carries on to whatever is below it.
+        assertEquals(index.pickVertex(new Vector3f(500, 500, 3000), new Vector3f(0, 0, -1), 0, v -> v != vertex),
+                index.pickVertex(new Vector3f(500, 500, 1990), new Vector3f(0, 0, -1), 0));
+    }
+
+    @Test
+    public void movingAVertexMakesIndexStale() {
+        final GraphSpatialIndex index = new GraphSpatialIndex();
+        index.update(graph);
+        assertTrue(index.isCurrent(graph));
+
+        graph.setFloatValue(yAttribute, graph.getVertex(0), -1);
+        assertFalse(index.isCurrent(graph));
+        index.update(graph);
+        assertTrue(index.isCurrent(graph));
+    }
+
+    @Test
+    public void undoFollowedByDifferentMoveMakesIndexStale() {
+        final GraphSpatialIndex index = new GraphSpatialIndex();
+        final int vertex0 = graph.getVertex(0);
+        final int vertex1 = graph.getVertex(1);
+
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        graph.setFloatValue(xAttribute, vertex0, 5000);
+        graph.setGraphEdit(null);
+        edit.finish();
+        index.update(graph);
+        assertTrue(index.isCurrent(graph));
+
+        // Undoing reverts the counter, so the next move brings back the same counter.
+        final long counter = graph.getValueModificationCounter(xAttribute);
+        graph.setOperationMode(GraphOperationMode.UNDO);
+        edit.undo(graph);
+        graph.setOperationMode(GraphOperationMode.EXECUTE);
+        graph.setFloatValue(xAttribute, vertex1, 5000);
+        assertEquals(graph.getValueModificationCounter(xAttribute), counter);
+
+        assertFalse(index.isCurrent(graph));
+        index.update(graph);
+        assertTrue(index.isCurrent(graph));
+        checkQueries(index);
+    }
+
+    @Test
+    public void undoFollowedByDifferentAdditionMakesIndexStale() {
+        final GraphSpatialIndex index = new GraphSpatialIndex();
+
+        final UndoGraphEdit edit = new UndoGraphEdit();
+        graph.setGraphEdit(edit);
+        final int added = graph.addVertex();
+        graph.setGraphEdit(null);
+        edit.finish();
+        index.update(graph);
+        assertTrue(index.isCurrent(graph));
+
+        // Undoing reverts the counter, so the next addition brings back the same id and counter.
+        final long counter = graph.getStructureModificationCounter();
+        graph.setOperationMode(GraphOperationMode.UNDO);
+        edit.undo(graph);
+        graph.setOperationMode(GraphOperationMode.EXECUTE);
+        final int vertex = graph.addVertex();
+        assertEquals(vertex, added);
+        assertEquals(graph.getStructureModificationCounter(), counter);
+
+        assertFalse(index.isCurrent(graph));
+        index.update(graph);
+        assertTrue(index.isCurrent(graph));
+        checkQueries(index);
+    }
+
+    @Test
+    public void keepsIndexOfTwoGraphs() {
+        final GraphSpatialIndex index = new GraphSpatialIndex();
+        final StoreGraph copy = new StoreGraph(graph);
+        copy.setFloatValue(yAttribute, copy.getVertex(0), -1);
+        index.update(graph);
+        index.update(copy);
+        assertTrue(index.isCurrent(graph));
+        assertTrue(index.isCurrent(copy));
+
+        graph.setFloatValue(yAttribute, graph.getVertex(0), -1);
+        assertFalse(index.isCurrent(graph));
+        assertTrue(index.isCurrent(copy));
+        index.update(graph);
+        checkQueries(index);
+    }
+
+    private void checkQueries(final GraphSpatialIndex index) {
+        for (int query = 0; query < 20; query++) {
+            final float[] planes = new float[4 * 4];
+            for (int p = 0; p < 4; p++) {
+                final Vector3f normal = new Vector3f(random.nextFloat() - 0.5F, random.nextFloat() - 0.5F, random.nextFloat() - 0.5F);
+                normal.normalize();
+                planes[p * 4] = normal.getX();
+                planes[p * 4 + 1] = normal.getY();
+                planes[p * 4 + 2] = normal.getZ();
+                planes[p * 4 + 3] = -Vector3f.dotProduct(normal, new Vector3f(500, 500, 500)) + 300;
+            }
+
+            final Set<Integer> candidates = toSet(index.getVerticesInside(planes));
+            final Set<Integer> linkCandidates = toSet(index.getLinksInside(planes));
+            for (int position = 0; position < graph.getVertexCount(); position++) {
+                final int vertex = graph.getVertex(position);
+                if (isInside(planes, getPosition(vertex))) {
+                    assertTrue(candidates.contains(vertex));
+                }
+            }
+            for (int position = 0; position < graph.getLinkCount(); position++) {
+                final int link = graph.getLink(position);
+                final Vector3f low = getPosition(graph.getLinkLowVertex(link));
+                final Vector3f high = getPosition(graph.getLinkHighVertex(link));
+                if (isInside(planes, low) || isInside(planes, high)) {
+                    assertTrue(linkCandidates.contains(link));
+                }
+            }
+
+            final Vector3f point = new Vector3f(random.nextFloat() * 1000, random.nextFloat() * 1000, random.nextFloat() * 1000);
+            int nearest = Graph.NOT_FOUND;
+            float nearestDistance = Float.POSITIVE_INFINITY;
+            for (int position = 0; position < graph.getVertexCount(); position++) {
+                final int vertex = graph.getVertex(position);
+                final float distance = Vector3f.subtract(getPosition(vertex), point).getLength();
+                if (distance < nearestDistance) {
+                    nearest = vertex;
+                    nearestDistance = distance;
+                }
+            }
+            assertEquals(index.getNearestVertex(point, 0, Float.POSITIVE_INFINITY), nearest);
+            assertEquals(index.getNearestVertex(point, 0, nearestDistance / 2), Graph.NOT_FOUND);
+
+            // A ray towards a vertex hits it, or a vertex in front of it.
+            final Vector3f target = getPosition(nearest);
+            final Vector3f direction = Vector3f.subtract(target, point);
+            final int picked = index.pickVertex(point, direction, 0);
+            assertTrue(picked != Graph.NOT_FOUND);
+            assertTrue(Vector3f.subtract(getPosition(picked), point).getLength() <= nearestDistance + 2);
+        }
+    }
+
+    private Vector3f getPosition(final int vertex) {
+        return new Vector3f(graph.getFloatValue(xAttribute, vertex), graph.getFloatValue(yAttribute, vertex), graph.getFloatValue(zAttribute, vertex));
+    }
+
+    private static boolean isInside(final float[] planes, final Vector3f point) {
+        for (int p = 0; p < planes.length; p += 4) {
+            if (planes[p] * point.getX() + planes[p + 1] * point.getY() + planes[p + 2] * point.getZ() + planes[p + 3] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<Integer> toSet(final int[] elements) {
+        final Set<Integer> set = new TreeSet<>();
+        Arrays.stream(elements).forEach(set::add);
+        return set;
+    }
+}
@@ -154,6 +154,10 @@ public class VisualConcept extends SchemaConcept {
                 .setDefaultValue(ConstellationColor.CLOUDS)
                 .create()
                 .build();
+        public static final SchemaAttribute NODE_COLOR_BY_VALUE = new SchemaAttribute.Builder(GraphElementType.GRAPH, BooleanAttributeDescription.ATTRIBUTE_NAME, "node_color_by_value")
+                .setDescription("Whether or not nodes are colored by the values of a node color reference attribute that is not a color")
+                .setDefaultValue(false)
+                .build();
         public static final SchemaAttribute NODE_COLOR_REFERENCE = new SchemaAttribute.Builder(GraphElementType.GRAPH, VertexAttributeNameAttributeDescription.ATTRIBUTE_NAME, "node_color_reference")
                 .setDescription("The name of the node attribute that will determine node colors")
                 .create()
@@ -339,6 +343,7 @@ public class VisualConcept extends SchemaConcept {
         schemaAttributes.add(GraphAttribute.HIGHLIGHT_COLOR);
         schemaAttributes.add(GraphAttribute.MAX_TRANSACTIONS);
         schemaAttributes.add(GraphAttribute.MIX_COLOR);
+        schemaAttributes.add(GraphAttribute.NODE_COLOR_BY_VALUE);
         schemaAttributes.add(GraphAttribute.NODE_COLOR_REFERENCE);
         schemaAttributes.add(GraphAttribute.TOP_LABELS);
         schemaAttributes.add(GraphAttribute.TRANSACTION_COLOR_REFERENCE);
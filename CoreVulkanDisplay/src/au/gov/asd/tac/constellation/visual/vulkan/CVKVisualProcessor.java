@@ -546,6 +546,8 @@ public class CVKVisualProcessor extends VisualProcessor {
             case VERTEX_Z2:
                 return VisualProperty.VERTEX_X;
             case VERTEX_COLOR:
+            case VERTEX_COLOR_ENCODING:
+            case VERTEX_COLOR_VALUE:
                 return VisualProperty.VERTEX_COLOR;
             case VERTEX_FOREGROUND_ICON:
             case VERTEX_BACKGROUND_ICON: